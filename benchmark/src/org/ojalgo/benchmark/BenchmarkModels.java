@@ -0,0 +1,76 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.MathProgSysModel;
+
+/**
+ * Access to the MPS test models, from ../test, that are bundled with the benchmarks jar.
+ *
+ * @author apete
+ */
+abstract class BenchmarkModels {
+
+    private static final String PATH = "/org/ojalgo/optimisation/";
+
+    /**
+     * @param name The path relative to org/ojalgo/optimisation, like "linear/afiro.mps"
+     * @param relax true if any integer constraints should be removed (the LP relaxation)
+     */
+    static ExpressionsBasedModel load(final String name, final boolean relax) {
+
+        File tmpFile = null;
+
+        try (InputStream tmpInput = BenchmarkModels.class.getResourceAsStream(PATH + name)) {
+
+            if (tmpInput == null) {
+                throw new IllegalArgumentException("No such model: " + name);
+            }
+
+            tmpFile = File.createTempFile("ojAlgo", ".mps");
+            Files.copy(tmpInput, tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            final ExpressionsBasedModel retVal = MathProgSysModel.make(tmpFile).getExpressionsBasedModel();
+
+            if (relax) {
+                retVal.relax(true);
+            }
+
+            return retVal;
+
+        } catch (final IOException cause) {
+            throw new IllegalStateException(cause);
+        } finally {
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.constant.BigMath;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QP solves. The MPS models don't have quadratic parts, so this is a generated Markowitz style problem:
+ * minimise variance minus expected return, fully invested, long only. Each invocation solves a fresh copy of
+ * the model.
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvexBenchmark {
+
+    @Param({ "10", "50", "100" })
+    public int dim;
+
+    private ExpressionsBasedModel myModel;
+    private ExpressionsBasedModel myTemplate;
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        myModel = myTemplate.copy();
+    }
+
+    @Benchmark
+    public Optimisation.Result minimise() {
+        return myModel.minimise();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        final PrimitiveDenseStore tmpCovariances = ElementType.makeSPD(dim);
+        final PrimitiveDenseStore tmpReturns = ElementType.makeRandom(dim, 1);
+
+        final Variable[] tmpVariables = new Variable[dim];
+        for (int i = 0; i < dim; i++) {
+            tmpVariables[i] = Variable.make("W" + i).lower(BigMath.ZERO).weight(-tmpReturns.doubleValue(i));
+        }
+
+        myTemplate = new ExpressionsBasedModel(tmpVariables);
+
+        final Expression tmpVariance = myTemplate.addExpression("Variance").weight(BigMath.HALF);
+        for (int i = 0; i < dim; i++) {
+            for (int j = 0; j < dim; j++) {
+                tmpVariance.set(i, j, tmpCovariances.doubleValue(i, j) / dim);
+            }
+        }
+
+        final Expression tmpBudget = myTemplate.addExpression("Budget").level(BigMath.ONE);
+        for (int i = 0; i < dim; i++) {
+            tmpBudget.set(i, BigMath.ONE);
+        }
+    }
+
+}
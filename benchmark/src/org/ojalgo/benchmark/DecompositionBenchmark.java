@@ -0,0 +1,120 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.decomposition.Bidiagonal;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.Eigenvalue;
+import org.ojalgo.matrix.decomposition.Hessenberg;
+import org.ojalgo.matrix.decomposition.LDL;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.matrix.decomposition.SingularValue;
+import org.ojalgo.matrix.decomposition.Tridiagonal;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each of the {@linkplain MatrixDecomposition}s decomposing the same symmetric positive definite matrix (so
+ * that all of them, including Cholesky and the hermitian eigenvalue decompositions, are applicable).
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecompositionBenchmark {
+
+    @Param({ "Bidiagonal", "Cholesky", "Eigenvalue", "Hessenberg", "LDL", "LU", "QR", "SingularValue", "Tridiagonal" })
+    public String decomposition;
+
+    @Param({ "10", "100", "500" })
+    public int dim;
+
+    @Param({ "PRIMITIVE", "BIG", "COMPLEX" })
+    public ElementType type;
+
+    private MatrixDecomposition<?> myDecomposition;
+    private MatrixStore<?> myMatrix;
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Benchmark
+    public boolean decompose() {
+        return ((MatrixDecomposition) myDecomposition).decompose((ElementsSupplier) myMatrix);
+    }
+
+    @Setup
+    public void setup() {
+
+        myMatrix = type.copy(ElementType.makeSPD(dim));
+
+        switch (decomposition) {
+        case "Bidiagonal":
+            myDecomposition = type.select(Bidiagonal.BIG, Bidiagonal.COMPLEX, Bidiagonal.PRIMITIVE).make(myMatrix);
+            break;
+        case "Cholesky":
+            myDecomposition = type.select(Cholesky.BIG, Cholesky.COMPLEX, Cholesky.PRIMITIVE).make(myMatrix);
+            break;
+        case "Eigenvalue":
+            myDecomposition = type.select(Eigenvalue.BIG, Eigenvalue.COMPLEX, Eigenvalue.PRIMITIVE).make(myMatrix, true);
+            break;
+        case "Hessenberg":
+            myDecomposition = type.select(Hessenberg.BIG, Hessenberg.COMPLEX, Hessenberg.PRIMITIVE).make(myMatrix);
+            break;
+        case "LDL":
+            myDecomposition = type.select(LDL.BIG, LDL.COMPLEX, LDL.PRIMITIVE).make(myMatrix);
+            break;
+        case "LU":
+            myDecomposition = type.select(LU.BIG, LU.COMPLEX, LU.PRIMITIVE).make(myMatrix);
+            break;
+        case "QR":
+            myDecomposition = type.select(QR.BIG, QR.COMPLEX, QR.PRIMITIVE).make(myMatrix);
+            break;
+        case "SingularValue":
+            myDecomposition = type.select(SingularValue.BIG, SingularValue.COMPLEX, SingularValue.PRIMITIVE).make(myMatrix);
+            break;
+        case "Tridiagonal":
+            myDecomposition = type.select(Tridiagonal.BIG, Tridiagonal.COMPLEX, Tridiagonal.PRIMITIVE).make(myMatrix);
+            break;
+        default:
+            throw new IllegalArgumentException(decomposition);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.Random;
+
+import org.ojalgo.matrix.store.BigDenseStore;
+import org.ojalgo.matrix.store.ComplexDenseStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+
+/**
+ * The element types benchmarks are parameterised by. All input matrices are generated as primitive matrices,
+ * from a fixed seed, and then copied to the element type - the same input for all element types and all
+ * runs.
+ *
+ * @author apete
+ */
+public enum ElementType {
+
+    BIG, COMPLEX, PRIMITIVE;
+
+    static final long SEED = 4711L;
+
+    /**
+     * @return A random matrix with elements in [0,1)
+     */
+    public static PrimitiveDenseStore makeRandom(final int rows, final int columns) {
+
+        final Random tmpRandom = new Random(SEED);
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(rows, columns);
+
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                retVal.set(i, j, tmpRandom.nextDouble());
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return A symmetric and strictly diagonally dominant (and therefore positive definite) matrix
+     */
+    public static PrimitiveDenseStore makeSPD(final int dim) {
+
+        final Random tmpRandom = new Random(SEED);
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+
+        for (int j = 0; j < dim; j++) {
+            for (int i = j + 1; i < dim; i++) {
+                final double tmpValue = tmpRandom.nextDouble();
+                retVal.set(i, j, tmpValue);
+                retVal.set(j, i, tmpValue);
+            }
+        }
+
+        for (int i = 0; i < dim; i++) {
+            double tmpSum = 1.0;
+            for (int j = 0; j < dim; j++) {
+                tmpSum += retVal.doubleValue(i, j);
+            }
+            retVal.set(i, i, tmpSum);
+        }
+
+        return retVal;
+    }
+
+    public PhysicalStore.Factory<?, ?> factory() {
+        return this.select(BigDenseStore.FACTORY, ComplexDenseStore.FACTORY, PrimitiveDenseStore.FACTORY);
+    }
+
+    /**
+     * @return A copy, of this element type, of the primitive matrix
+     */
+    public MatrixStore<?> copy(final PrimitiveDenseStore primitive) {
+        return this.factory().copy(primitive);
+    }
+
+    /**
+     * @return The alternative that corresponds to this element type
+     */
+    public <T> T select(final T big, final T complex, final T primitive) {
+        switch (this) {
+        case BIG:
+            return big;
+        case COMPLEX:
+            return complex;
+        default:
+            return primitive;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MIP solves of the bundled MPS models that solve to optimality within a benchmark's time frame. (The MIPLIB
+ * models in the tests run for hours - their LP relaxations are in {@linkplain LinearBenchmark}.) Each
+ * invocation solves a fresh copy of the model. Vary the number of threads to measure the speedup of the
+ * parallel branch&bound search, and compare with its deterministic mode. With 0 cut rounds the root node LP
+ * relaxation is not strengthened with cutting planes.
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegerBenchmark {
+
+    @Param({ "0", "10" })
+    public int cuts;
+
+    @Param({ "false", "true" })
+    public boolean deterministic;
+
+    @Param({ "integer/lpsolve_sc_not.mps", "integer/lpsolve_sc_org.mps" })
+    public String model;
+
+    @Param({ "1", "2", "4" })
+    public int threads;
+
+    private ExecutionContext myContext;
+    private ExpressionsBasedModel myModel;
+    private ExpressionsBasedModel myTemplate;
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        myModel = myTemplate.copy();
+        myModel.options.cut_rounds = cuts;
+        myModel.options.deterministic = deterministic;
+    }
+
+    @Benchmark
+    public Optimisation.Result minimise() {
+        return myContext.call(() -> myModel.minimise());
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        myTemplate = BenchmarkModels.load(model, false);
+        myContext = ExecutionContext.ofThreads(threads);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.task.SolverTask;
+import org.ojalgo.matrix.task.TaskException;
+import org.ojalgo.matrix.task.iterative.ConjugateGradientSolver;
+import org.ojalgo.matrix.task.iterative.GaussSeidelSolver;
+import org.ojalgo.matrix.task.iterative.JacobiSolver;
+import org.ojalgo.type.context.NumberContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The (primitive only) iterative solvers with a symmetric, diagonally dominant, body - all of them converge.
+ * The accuracy and the number of iterations are limited. (Jacobi hits the iterations limit at the larger
+ * sizes.)
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterativeSolverBenchmark {
+
+    /**
+     * The default accuracy (DECIMAL128) is not reachable with double precision arithmetic - the solvers would
+     * iterate forever.
+     */
+    private static final NumberContext ACCURACY = NumberContext.getGeneral(12);
+    private static final int ITERATIONS = 1000;
+
+    @Param({ "100", "500", "1000" })
+    public int dim;
+
+    @Param({ "ConjugateGradient", "GaussSeidel", "Jacobi" })
+    public String solver;
+
+    private PrimitiveDenseStore myBody;
+    private PrimitiveDenseStore myRHS;
+    private SolverTask<Double> mySolver;
+
+    @Setup
+    public void setup() {
+
+        myBody = ElementType.makeSPD(dim);
+        myRHS = ElementType.makeRandom(dim, 1);
+
+        switch (solver) {
+        case "ConjugateGradient":
+            final ConjugateGradientSolver tmpConjugateGradient = new ConjugateGradientSolver();
+            tmpConjugateGradient.configurator().accuracy(ACCURACY).iterations(ITERATIONS);
+            mySolver = tmpConjugateGradient;
+            break;
+        case "GaussSeidel":
+            final GaussSeidelSolver tmpGaussSeidel = new GaussSeidelSolver();
+            tmpGaussSeidel.configurator().accuracy(ACCURACY).iterations(ITERATIONS);
+            mySolver = tmpGaussSeidel;
+            break;
+        case "Jacobi":
+            final JacobiSolver tmpJacobi = new JacobiSolver();
+            tmpJacobi.configurator().accuracy(ACCURACY).iterations(ITERATIONS);
+            mySolver = tmpJacobi;
+            break;
+        default:
+            throw new IllegalArgumentException(solver);
+        }
+    }
+
+    @Benchmark
+    public MatrixStore<Double> solve() throws TaskException {
+        return mySolver.solve(myBody, myRHS);
+    }
+
+}
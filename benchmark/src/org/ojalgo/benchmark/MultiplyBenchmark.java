@@ -0,0 +1,93 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Square matrix multiplication, [C] = [A][B], with dense factors (MultiplyNeither) and with both factors
+ * logical (transposed) stores (MultiplyBoth).
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiplyBenchmark {
+
+    @Param({ "10", "100", "500" })
+    public int dim;
+
+    @Param({ "PRIMITIVE", "BIG", "COMPLEX" })
+    public ElementType type;
+
+    private MatrixStore<?> myLeft;
+    private PhysicalStore<?> myProduct;
+    private MatrixStore<?> myRight;
+    private MatrixStore<?> myTransposedLeft;
+    private MatrixStore<?> myTransposedRight;
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Benchmark
+    public PhysicalStore<?> multiplyBoth() {
+        ((PhysicalStore) myProduct).fillByMultiplying(myTransposedLeft, myTransposedRight);
+        return myProduct;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Benchmark
+    public PhysicalStore<?> multiplyNeither() {
+        ((PhysicalStore) myProduct).fillByMultiplying(myLeft, myRight);
+        return myProduct;
+    }
+
+    @Setup
+    public void setup() {
+
+        final PhysicalStore.Factory<?, ?> tmpFactory = type.factory();
+
+        myLeft = type.copy(ElementType.makeRandom(dim, dim));
+        myRight = type.copy(ElementType.makeRandom(dim, dim));
+        myProduct = tmpFactory.makeZero(dim, dim);
+
+        myTransposedLeft = tmpFactory.transpose(myLeft).logical().transpose().get();
+        myTransposedRight = tmpFactory.transpose(myRight).logical().transpose().get();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.StrassenWinograd;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Square primitive matrix multiplication with each of the kernels: the simple column-oriented one, the
+ * blocked {@linkplain GEMM} one and {@linkplain StrassenWinograd}. The throughput (ops/s) converts to GFLOP/s
+ * as 2 * dim<sup>3</sup> * ops/s / 10<sup>9</sup> - for Strassen-Winograd that is the effective rate.
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiplyKernelBenchmark {
+
+    public enum Kernel {
+        BLOCKED, SIMPLE, STRASSEN_WINOGRAD;
+    }
+
+    @Param({ "64", "256", "1024" })
+    public int dim;
+
+    @Param({ "SIMPLE", "BLOCKED", "STRASSEN_WINOGRAD" })
+    public Kernel kernel;
+
+    private int myGEMMThreshold;
+    private PrimitiveDenseStore myLeft;
+    private PrimitiveDenseStore myProduct;
+    private PrimitiveDenseStore myRight;
+    private int myStrassenThreshold;
+
+    @Benchmark
+    public PrimitiveDenseStore multiply() {
+        myProduct.fillByMultiplying(myLeft, myRight);
+        return myProduct;
+    }
+
+    @Setup
+    public void setup() {
+
+        myGEMMThreshold = GEMM.THRESHOLD;
+        myStrassenThreshold = StrassenWinograd.THRESHOLD;
+
+        GEMM.THRESHOLD = kernel == Kernel.SIMPLE ? Integer.MAX_VALUE : 0;
+        StrassenWinograd.THRESHOLD = kernel == Kernel.STRASSEN_WINOGRAD ? 0 : Integer.MAX_VALUE;
+
+        myLeft = ElementType.makeRandom(dim, dim);
+        myRight = ElementType.makeRandom(dim, dim);
+        // The kernel is selected when the product store is instantiated
+        myProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GEMM.THRESHOLD = myGEMMThreshold;
+        StrassenWinograd.THRESHOLD = myStrassenThreshold;
+    }
+
+}
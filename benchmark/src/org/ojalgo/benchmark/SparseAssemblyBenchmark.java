@@ -0,0 +1,110 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.store.SparseStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Assembling a square {@linkplain SparseStore} from (row, column, value) triplets in random order, with some
+ * duplicates: adding them one at a time to the store (Incremental) compared to collecting them with
+ * {@linkplain SparseStore.Builder} and then building the store in one go (Triplets).
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseAssemblyBenchmark {
+
+    /**
+     * The number of triplets per row
+     */
+    @Param({ "5", "20" })
+    public int density;
+
+    @Param({ "1000", "10000" })
+    public int dim;
+
+    private int[] myColumns;
+    private int[] myRows;
+    private double[] myValues;
+
+    @Benchmark
+    public SparseStore<Double> incremental() {
+
+        final SparseStore<Double> retVal = SparseStore.makePrimitive(dim, dim);
+
+        for (int k = 0; k < myValues.length; k++) {
+            retVal.add(myRows[k], myColumns[k], myValues[k]);
+        }
+
+        return retVal;
+    }
+
+    @Setup
+    public void setup() {
+
+        final Random tmpRandom = new Random(ElementType.SEED);
+
+        final int tmpCount = dim * density;
+
+        myRows = new int[tmpCount];
+        myColumns = new int[tmpCount];
+        myValues = new double[tmpCount];
+
+        for (int k = 0; k < tmpCount; k++) {
+            myRows[k] = tmpRandom.nextInt(dim);
+            myColumns[k] = tmpRandom.nextInt(dim);
+            myValues[k] = tmpRandom.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public SparseStore<Double> triplets() {
+
+        final SparseStore.Builder<Double> tmpBuilder = SparseStore.buildPrimitive(dim, dim, myValues.length);
+
+        for (int k = 0; k < myValues.length; k++) {
+            tmpBuilder.add(myRows[k], myColumns[k], myValues[k]);
+        }
+
+        return tmpBuilder.build();
+    }
+
+}
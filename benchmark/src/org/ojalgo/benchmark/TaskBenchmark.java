@@ -0,0 +1,107 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.task.InverterTask;
+import org.ojalgo.matrix.task.SolverTask;
+import org.ojalgo.matrix.task.TaskException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@linkplain InverterTask} and {@linkplain SolverTask} as selected by their factories, for a general
+ * (non-symmetric) and a symmetric positive definite body.
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskBenchmark {
+
+    @Param({ "10", "100", "500" })
+    public int dim;
+
+    @Param({ "GENERAL", "SPD" })
+    public String structure;
+
+    @Param({ "PRIMITIVE", "BIG", "COMPLEX" })
+    public ElementType type;
+
+    private MatrixStore<?> myBody;
+    private InverterTask<?> myInverter;
+    private MatrixStore<?> myRHS;
+    private SolverTask<?> mySolver;
+
+    @Benchmark
+    public MatrixStore<?> invert() throws TaskException {
+        return myInverter.invert(myBody);
+    }
+
+    @Setup
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void setup() {
+
+        final boolean tmpSPD = "SPD".equals(structure);
+
+        final PrimitiveDenseStore tmpBody = ElementType.makeSPD(dim);
+        if (!tmpSPD) {
+            // Still diagonally dominant, but no longer symmetric
+            for (int j = 1; j < dim; j++) {
+                for (int i = 0; i < j; i++) {
+                    tmpBody.set(i, j, tmpBody.doubleValue(i, j) / 2.0);
+                }
+            }
+        }
+
+        myBody = type.copy(tmpBody);
+        myRHS = type.copy(ElementType.makeRandom(dim, 1));
+
+        final InverterTask.Factory tmpInverterFactory = type.select(InverterTask.BIG, InverterTask.COMPLEX, InverterTask.PRIMITIVE);
+        myInverter = tmpInverterFactory.make((MatrixStore) myBody, tmpSPD, tmpSPD);
+
+        final SolverTask.Factory tmpSolverFactory = type.select(SolverTask.BIG, SolverTask.COMPLEX, SolverTask.PRIMITIVE);
+        mySolver = tmpSolverFactory.make((MatrixStore) myBody, (MatrixStore) myRHS, tmpSPD, tmpSPD);
+    }
+
+    @Benchmark
+    public MatrixStore<?> solve() throws TaskException {
+        return mySolver.solve(myBody, myRHS);
+    }
+
+}
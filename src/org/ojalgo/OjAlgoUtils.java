@@ -36,6 +36,23 @@ public abstract class OjAlgoUtils {
      */
     public static VirtualMachine ENVIRONMENT = null;
 
+    /**
+     * Set this to true when ojAlgo is driven by very many threads (typically virtual threads, one per request)
+     * each doing small independent computations. The parallelism then comes from the callers, and ojAlgo
+     * should neither compete for cores nor block the calling threads in ways that pin virtual threads to
+     * their carriers:
+     * <ul>
+     * <li>Small operations are always executed by the calling thread - a multithreaded operation is only
+     * handed over to a pool when every worker gets a full threshold's worth of work.</li>
+     * <li>With the implicit {@linkplain org.ojalgo.concurrent.ExecutionContext#DEFAULT default} context
+     * independent tasks, task graphs and branch&amp;bound are executed by the calling thread. Bind another
+     * {@linkplain org.ojalgo.concurrent.ExecutionContext} to have them executed on a pool.</li>
+     * <li>A calling thread that has to wait for work executed on a pool parks (the way virtual threads
+     * unmount) rather than waits on a monitor.</li>
+     * </ul>
+     */
+    public static boolean VIRTUAL_THREAD_FRIENDLY = false;
+
     static {
 
         final String tmpArchitecture = VirtualMachine.getArchitecture();
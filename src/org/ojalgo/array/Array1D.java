@@ -38,6 +38,8 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -48,8 +50,8 @@ import org.ojalgo.scalar.Scalar;
  *
  * @author apete
  */
-public final class Array1D<N extends Number> extends AbstractList<N> implements Access1D<N>, Access1D.Elements, Access1D.IndexOf, Mutate1D.Fillable<N>,
-        Mutate1D.Modifiable<N>, Mutate1D.BiModifiable<N>, Access1D.Visitable<N>, Access1D.Sliceable<N>, RandomAccess, Serializable {
+public final class Array1D<N extends Number> extends AbstractList<N> implements Access1D<N>, Access1D.Aggregatable<N>, Access1D.Elements, Access1D.IndexOf,
+        Mutate1D.Fillable<N>, Mutate1D.Modifiable<N>, Mutate1D.BiModifiable<N>, Access1D.Visitable<N>, Access1D.Sliceable<N>, RandomAccess, Serializable {
 
     public static abstract class Factory<N extends Number> implements Factory1D<Array1D<N>> {
 
@@ -247,6 +249,17 @@ public final class Array1D<N extends Number> extends AbstractList<N> implements
         myDelegate.add(tmpIndex, addend);
     }
 
+    @SuppressWarnings("unchecked")
+    public N aggregateAll(final Aggregator aggregator) {
+        if (myDelegate.isPrimitive()) {
+            return (N) Double.valueOf(aggregator.aggregate(this));
+        } else {
+            final AggregatorFunction<N> tmpFunction = aggregator.getFunction(myDelegate.getComponentType());
+            this.visitAll(tmpFunction);
+            return tmpFunction.getNumber();
+        }
+    }
+
     @Override
     public boolean contains(final Object obj) {
         return this.indexOf(obj) != -1;
@@ -355,6 +368,14 @@ public final class Array1D<N extends Number> extends AbstractList<N> implements
         myDelegate.fill(myFirst, myLimit, myStep, supplier);
     }
 
+    public void fillMatching(final Access1D<?> values) {
+        if ((myFirst == 0L) && (myStep == 1L) && (myLimit == myDelegate.count())) {
+            myDelegate.fillMatching(values);
+        } else {
+            Mutate1D.Fillable.super.fillMatching(values);
+        }
+    }
+
     public void fillOne(final long index, final N value) {
         final long tmpIndex = myFirst + (myStep * index);
         myDelegate.fillOne(tmpIndex, value);
@@ -442,7 +463,9 @@ public final class Array1D<N extends Number> extends AbstractList<N> implements
 
     public void modifyMatching(final Access1D<N> left, final BinaryFunction<N> function) {
         final long tmpLength = Math.min(length, left.count());
-        if (myDelegate instanceof PrimitiveArray) {
+        if ((myFirst == 0L) && (myStep == 1L)) {
+            myDelegate.modify(0L, tmpLength, 1L, left, function);
+        } else if (myDelegate instanceof PrimitiveArray) {
             for (long i = 0L; i < tmpLength; i++) {
                 this.set(i, function.invoke(left.doubleValue(i), this.doubleValue(i)));
             }
@@ -455,7 +478,9 @@ public final class Array1D<N extends Number> extends AbstractList<N> implements
 
     public void modifyMatching(final BinaryFunction<N> function, final Access1D<N> right) {
         final long tmpLength = Math.min(length, right.count());
-        if (myDelegate instanceof PrimitiveArray) {
+        if ((myFirst == 0L) && (myStep == 1L)) {
+            myDelegate.modify(0L, tmpLength, 1L, function, right);
+        } else if (myDelegate instanceof PrimitiveArray) {
             for (long i = 0L; i < tmpLength; i++) {
                 this.set(i, function.invoke(this.doubleValue(i), right.doubleValue(i)));
             }
@@ -36,6 +36,8 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -46,8 +48,8 @@ import org.ojalgo.scalar.Scalar;
  *
  * @author apete
  */
-public final class Array2D<N extends Number> implements Access2D<N>, Access2D.Elements, Access2D.IndexOf, Mutate2D.Fillable<N>, Mutate2D.Modifiable<N>,
-        Mutate2D.BiModifiable<N>, Access2D.Visitable<N>, Access2D.Sliceable<N>, Access2D.Special<N>, Serializable {
+public final class Array2D<N extends Number> implements Access2D<N>, Access1D.Aggregatable<N>, Access2D.Elements, Access2D.IndexOf, Mutate2D.Fillable<N>,
+        Mutate2D.Modifiable<N>, Mutate2D.BiModifiable<N>, Access2D.Visitable<N>, Access2D.Sliceable<N>, Access2D.Special<N>, Serializable {
 
     public static abstract class Factory<N extends Number> implements Factory2D<Array2D<N>> {
 
@@ -326,6 +328,17 @@ public final class Array2D<N extends Number> implements Access2D<N>, Access2D.El
         myDelegate.add(index, addend);
     }
 
+    @SuppressWarnings("unchecked")
+    public N aggregateAll(final Aggregator aggregator) {
+        if (myDelegate.isPrimitive()) {
+            return (N) Double.valueOf(aggregator.aggregate(this));
+        } else {
+            final AggregatorFunction<N> tmpFunction = aggregator.getFunction(myDelegate.getComponentType());
+            this.visitAll(tmpFunction);
+            return tmpFunction.getNumber();
+        }
+    }
+
     /**
      * Flattens this two dimensional array to a one dimensional array. The (internal/actual) array is not
      * copied, it is just accessed through a different adaptor.
@@ -404,6 +417,10 @@ public final class Array2D<N extends Number> implements Access2D<N>, Access2D.El
                 supplier);
     }
 
+    public void fillMatching(final Access1D<?> values) {
+        myDelegate.fillMatching(values);
+    }
+
     public void fillOne(final long row, final long column, final N value) {
         myDelegate.fillOne(AccessUtils.index(myRowsCount, row, column), value);
     }
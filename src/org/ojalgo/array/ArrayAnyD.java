@@ -35,6 +35,8 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -45,8 +47,8 @@ import org.ojalgo.scalar.Scalar;
  *
  * @author apete
  */
-public final class ArrayAnyD<N extends Number> implements AccessAnyD<N>, AccessAnyD.Elements, AccessAnyD.IndexOf, MutateAnyD.Fillable<N>,
-        MutateAnyD.Modifiable<N>, MutateAnyD.BiModifiable<N>, AccessAnyD.Visitable<N>, AccessAnyD.Sliceable<N>, Serializable {
+public final class ArrayAnyD<N extends Number> implements AccessAnyD<N>, Access1D.Aggregatable<N>, AccessAnyD.Elements, AccessAnyD.IndexOf,
+        MutateAnyD.Fillable<N>, MutateAnyD.Modifiable<N>, MutateAnyD.BiModifiable<N>, AccessAnyD.Visitable<N>, AccessAnyD.Sliceable<N>, Serializable {
 
     public static abstract class Factory<N extends Number> implements FactoryAnyD<ArrayAnyD<N>> {
 
@@ -176,6 +178,17 @@ public final class ArrayAnyD<N extends Number> implements AccessAnyD<N>, AccessA
         myDelegate.add(AccessUtils.index(myStructure, reference), addend);
     }
 
+    @SuppressWarnings("unchecked")
+    public N aggregateAll(final Aggregator aggregator) {
+        if (myDelegate.isPrimitive()) {
+            return (N) Double.valueOf(aggregator.aggregate(this));
+        } else {
+            final AggregatorFunction<N> tmpFunction = aggregator.getFunction(myDelegate.getComponentType());
+            this.visitAll(tmpFunction);
+            return tmpFunction.getNumber();
+        }
+    }
+
     /**
      * Flattens this abitrary dimensional array to a one dimensional array. The (internal/actual) array is not
      * copied, it is just accessed through a different adaptor.
@@ -222,6 +235,10 @@ public final class ArrayAnyD<N extends Number> implements AccessAnyD<N>, AccessA
         myDelegate.fill(0L, this.count(), 1L, supplier);
     }
 
+    public void fillMatching(final Access1D<?> values) {
+        myDelegate.fillMatching(values);
+    }
+
     public void fillOne(final long index, final N value) {
         myDelegate.fillOne(index, value);
     }
@@ -36,6 +36,8 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.netio.ASCII;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
@@ -54,8 +56,8 @@ import org.ojalgo.scalar.RationalNumber;
  *
  * @author apete
  */
-public abstract class BasicArray<N extends Number>
-        implements Access1D<N>, Access1D.Elements, Access1D.IndexOf, Access1D.Visitable<N>, Mutate1D.Fillable<N>, Mutate1D.Modifiable<N>, Serializable {
+public abstract class BasicArray<N extends Number> implements Access1D<N>, Access1D.Aggregatable<N>, Access1D.Elements, Access1D.IndexOf,
+        Access1D.Visitable<N>, Mutate1D.Fillable<N>, Mutate1D.Modifiable<N>, Serializable {
 
     static abstract class BasicFactory<N extends Number> extends ArrayFactory<N> {
 
@@ -224,6 +226,17 @@ public abstract class BasicArray<N extends Number>
         super();
     }
 
+    @SuppressWarnings("unchecked")
+    public N aggregateAll(final Aggregator aggregator) {
+        if (this.isPrimitive()) {
+            return (N) Double.valueOf(aggregator.aggregate(this));
+        } else {
+            final AggregatorFunction<N> tmpFunction = aggregator.getFunction(this.getComponentType());
+            this.visitAll(tmpFunction);
+            return tmpFunction.getNumber();
+        }
+    }
+
     public long indexOfLargest() {
         return this.indexOfLargest(0L, this.count(), 1L);
     }
@@ -329,6 +342,11 @@ public abstract class BasicArray<N extends Number>
 
     protected abstract void visit(long first, long limit, long step, VoidFunction<N> visitor);
 
+    /**
+     * The (boxed) element type
+     */
+    abstract Class<?> getComponentType();
+
     /**
      * Safe to cast as DenseArray.
      */
@@ -0,0 +1,505 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.AccessAnyD;
+import org.ojalgo.access.AccessUtils;
+import org.ojalgo.access.Mutate1D;
+import org.ojalgo.scalar.ComplexNumber;
+
+/**
+ * A compact binary format for arrays and matrices: a header describing the layout, element type and
+ * structure, followed by the elements. Everything is little-endian, and the elements start at an 8 byte
+ * boundary, so dense double data can be memory-mapped and used as is ({@linkplain #mapAnyD(File)}) - no
+ * parsing and no copying.
+ *
+ * <pre>
+ * int    magic       0x426A416F ("oAjB")
+ * short  version     {@linkplain #VERSION}
+ * byte   layout      1=DENSE, 2=TRIPLETS, 3=CSR, 4=CSC
+ * byte   type        1=DOUBLE, 2=COMPLEX
+ * int    rank        number of dimensions
+ * int    (reserved)
+ * long   nonzeros    the number of stored elements
+ * long[] structure   the size of each dimension
+ *
+ * DENSE     elements, in index (column-major) order
+ * TRIPLETS  elements[nonzeros], int rows[nonzeros], int columns[nonzeros]
+ * CSR       elements[nonzeros], int pointers[rows+1], int columns[nonzeros]
+ * CSC       elements[nonzeros], int pointers[columns+1], int rows[nonzeros]
+ * </pre>
+ * <p>
+ * A DOUBLE element is 8 bytes, and a COMPLEX element is 16 bytes - the real part followed by the imaginary
+ * part. The arrays are handled here, and the matrix stores (including the sparse layouts) by
+ * {@linkplain org.ojalgo.matrix.store.BinaryStoreFormat}. Use {@linkplain Reader} and {@linkplain Writer}
+ * to stream anything else.
+ * </p>
+ *
+ * @author apete
+ */
+public final class BinaryFormat {
+
+    public static enum ElementType {
+
+        DOUBLE(8), COMPLEX(16);
+
+        private final int mySize;
+
+        ElementType(final int size) {
+            mySize = size;
+        }
+
+        /**
+         * @return The number of bytes per element
+         */
+        public int size() {
+            return mySize;
+        }
+
+        /**
+         * @return COMPLEX if the (first) element is a {@linkplain ComplexNumber}, otherwise DOUBLE
+         */
+        public static ElementType of(final Access1D<?> elements) {
+            return (elements.count() > 0L) && (elements.get(0L) instanceof ComplexNumber) ? COMPLEX : DOUBLE;
+        }
+
+    }
+
+    public static final class Header {
+
+        public final ElementType type;
+        public final Layout layout;
+        public final long nonzeros;
+        public final long[] structure;
+        public final int version;
+
+        Header(final int version, final Layout layout, final ElementType type, final long nonzeros, final long[] structure) {
+
+            super();
+
+            this.version = version;
+            this.layout = layout;
+            this.type = type;
+            this.nonzeros = nonzeros;
+            this.structure = structure;
+        }
+
+        /**
+         * @return The total number of elements (zeros and nonzeros)
+         */
+        public long count() {
+            return AccessUtils.count(structure);
+        }
+
+        /**
+         * @return The number of bytes in the header - the position of the first element
+         */
+        public long size() {
+            return HEADER_SIZE + (structure.length * 8L);
+        }
+
+    }
+
+    public static enum Layout {
+        DENSE, TRIPLETS, CSR, CSC;
+    }
+
+    /**
+     * Buffered, streaming, reads of the header and then the elements (and indices) in the order they were
+     * written. Closing the reader closes the input stream.
+     */
+    public static final class Reader implements Closeable {
+
+        private final ByteBuffer myBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final ReadableByteChannel myChannel;
+        private ElementType myType = ElementType.DOUBLE;
+
+        public Reader(final InputStream input) {
+
+            super();
+
+            myChannel = Channels.newChannel(input);
+            myBuffer.limit(0);
+        }
+
+        public void close() throws IOException {
+            myChannel.close();
+        }
+
+        public double readDouble() throws IOException {
+            this.require(8);
+            return myBuffer.getDouble();
+        }
+
+        public void readDoubles(final double[] destination, final int first, final int limit) throws IOException {
+            for (int i = first; i < limit; i++) {
+                this.require(8);
+                destination[i] = myBuffer.getDouble();
+            }
+        }
+
+        /**
+         * @return A {@linkplain Double} or a {@linkplain ComplexNumber} depending on the element type of the
+         *         header
+         */
+        public Number readElement() throws IOException {
+            if (myType == ElementType.COMPLEX) {
+                this.require(16);
+                return ComplexNumber.of(myBuffer.getDouble(), myBuffer.getDouble());
+            } else {
+                this.require(8);
+                return myBuffer.getDouble();
+            }
+        }
+
+        /**
+         * @throws IOException If the data is not in this format, or is of a later version
+         */
+        public Header readHeader() throws IOException {
+
+            this.require(HEADER_SIZE);
+
+            if (myBuffer.getInt() != MAGIC) {
+                throw new IOException("Not the ojAlgo binary format!");
+            }
+            final int tmpVersion = myBuffer.getShort();
+            if (tmpVersion > VERSION) {
+                throw new IOException("Unsupported version: " + tmpVersion);
+            }
+            final int tmpLayoutCode = myBuffer.get();
+            if ((tmpLayoutCode < 1) || (tmpLayoutCode > Layout.values().length)) {
+                throw new IOException("Unknown layout: " + tmpLayoutCode);
+            }
+            final Layout tmpLayout = Layout.values()[tmpLayoutCode - 1];
+            final int tmpTypeCode = myBuffer.get();
+            if ((tmpTypeCode < 1) || (tmpTypeCode > ElementType.values().length)) {
+                throw new IOException("Unknown element type: " + tmpTypeCode);
+            }
+            final ElementType tmpType = ElementType.values()[tmpTypeCode - 1];
+            final int tmpRank = myBuffer.getInt();
+            if (tmpRank < 0) {
+                throw new IOException("Negative rank: " + tmpRank);
+            }
+            myBuffer.getInt();
+            final long tmpNonzeros = myBuffer.getLong();
+            if (tmpNonzeros < 0L) {
+                throw new IOException("Negative number of nonzeros: " + tmpNonzeros);
+            }
+
+            final long[] tmpStructure = new long[tmpRank];
+            for (int d = 0; d < tmpRank; d++) {
+                tmpStructure[d] = this.readLong();
+                if (tmpStructure[d] < 0L) {
+                    throw new IOException("Negative dimension: " + tmpStructure[d]);
+                }
+            }
+
+            myType = tmpType;
+
+            return new Header(tmpVersion, tmpLayout, tmpType, tmpNonzeros, tmpStructure);
+        }
+
+        public int readInt() throws IOException {
+            this.require(4);
+            return myBuffer.getInt();
+        }
+
+        public void readInts(final int[] destination, final int first, final int limit) throws IOException {
+            for (int i = first; i < limit; i++) {
+                this.require(4);
+                destination[i] = myBuffer.getInt();
+            }
+        }
+
+        public long readLong() throws IOException {
+            this.require(8);
+            return myBuffer.getLong();
+        }
+
+        private void require(final int bytes) throws IOException {
+            if (myBuffer.remaining() < bytes) {
+                myBuffer.compact();
+                while (myBuffer.position() < bytes) {
+                    if (myChannel.read(myBuffer) < 0) {
+                        throw new EOFException();
+                    }
+                }
+                myBuffer.flip();
+            }
+        }
+
+    }
+
+    /**
+     * Buffered, streaming, writes of the header and then the elements (and indices). Closing the writer
+     * flushes it and closes the output stream.
+     */
+    public static final class Writer implements Closeable {
+
+        private final ByteBuffer myBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final WritableByteChannel myChannel;
+        private ElementType myType = ElementType.DOUBLE;
+
+        public Writer(final OutputStream output) {
+
+            super();
+
+            myChannel = Channels.newChannel(output);
+        }
+
+        public void close() throws IOException {
+            this.flush();
+            myChannel.close();
+        }
+
+        public void flush() throws IOException {
+            myBuffer.flip();
+            while (myBuffer.hasRemaining()) {
+                myChannel.write(myBuffer);
+            }
+            myBuffer.clear();
+        }
+
+        public void writeDouble(final double value) throws IOException {
+            this.require(8);
+            myBuffer.putDouble(value);
+        }
+
+        public void writeDoubles(final double[] values, final int first, final int limit) throws IOException {
+            for (int i = first; i < limit; i++) {
+                this.require(8);
+                myBuffer.putDouble(values[i]);
+            }
+        }
+
+        /**
+         * Writes the value as the element type of the header
+         */
+        public void writeElement(final Number value) throws IOException {
+            if (myType == ElementType.COMPLEX) {
+                final ComplexNumber tmpComplex = ComplexNumber.valueOf(value);
+                this.require(16);
+                myBuffer.putDouble(tmpComplex.getReal());
+                myBuffer.putDouble(tmpComplex.getImaginary());
+            } else {
+                this.require(8);
+                myBuffer.putDouble(value.doubleValue());
+            }
+        }
+
+        public void writeHeader(final Layout layout, final ElementType type, final long nonzeros, final long... structure) throws IOException {
+
+            this.require(HEADER_SIZE);
+
+            myBuffer.putInt(MAGIC);
+            myBuffer.putShort((short) VERSION);
+            myBuffer.put((byte) (layout.ordinal() + 1));
+            myBuffer.put((byte) (type.ordinal() + 1));
+            myBuffer.putInt(structure.length);
+            myBuffer.putInt(0);
+            myBuffer.putLong(nonzeros);
+
+            for (int d = 0; d < structure.length; d++) {
+                this.writeLong(structure[d]);
+            }
+
+            myType = type;
+        }
+
+        public void writeInt(final int value) throws IOException {
+            this.require(4);
+            myBuffer.putInt(value);
+        }
+
+        public void writeInts(final int[] values, final int first, final int limit) throws IOException {
+            for (int i = first; i < limit; i++) {
+                this.require(4);
+                myBuffer.putInt(values[i]);
+            }
+        }
+
+        public void writeLong(final long value) throws IOException {
+            this.require(8);
+            myBuffer.putLong(value);
+        }
+
+        private void require(final int bytes) throws IOException {
+            if (myBuffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+    }
+
+    /**
+     * The current version - later versions can read data written with earlier versions.
+     */
+    public static final int VERSION = 1;
+
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int HEADER_SIZE = 24;
+    static final int MAGIC = 0x426A416F;
+
+    /**
+     * Zero-copy: maps the elements of a (dense, double) file to a {@linkplain BufferArray}. Changes to the
+     * array are written to the file.
+     */
+    public static Array1D<Double> map1D(final File file) throws IOException {
+        return BinaryFormat.map(file, BinaryFormat.readHeader(file)).asArray1D();
+    }
+
+    /**
+     * @see #map1D(File)
+     */
+    public static Array2D<Double> map2D(final File file) throws IOException {
+        final Header tmpHeader = BinaryFormat.readHeader(file);
+        return BinaryFormat.map(file, tmpHeader).asArray2D(tmpHeader.structure.length > 0 ? tmpHeader.structure[0] : 1L);
+    }
+
+    /**
+     * @see #map1D(File)
+     */
+    public static ArrayAnyD<Double> mapAnyD(final File file) throws IOException {
+        final Header tmpHeader = BinaryFormat.readHeader(file);
+        return BinaryFormat.map(file, tmpHeader).asArrayAnyD(tmpHeader.structure);
+    }
+
+    public static <N extends Number> Array1D<N> read(final InputStream input, final Array1D.Factory<N> factory) throws IOException {
+        try (final Reader tmpReader = new Reader(input)) {
+            final Header tmpHeader = BinaryFormat.readDense(tmpReader);
+            final Array1D<N> retVal = factory.makeZero(tmpHeader.count());
+            BinaryFormat.readElements(tmpReader, tmpHeader, retVal);
+            return retVal;
+        }
+    }
+
+    public static <N extends Number> Array2D<N> read(final InputStream input, final Array2D.Factory<N> factory) throws IOException {
+        try (final Reader tmpReader = new Reader(input)) {
+            final Header tmpHeader = BinaryFormat.readDense(tmpReader);
+            final long tmpRows = tmpHeader.structure.length > 0 ? tmpHeader.structure[0] : 1L;
+            final Array2D<N> retVal = factory.makeZero(tmpRows, tmpRows != 0L ? tmpHeader.count() / tmpRows : 0L);
+            BinaryFormat.readElements(tmpReader, tmpHeader, retVal);
+            return retVal;
+        }
+    }
+
+    public static <N extends Number> ArrayAnyD<N> read(final InputStream input, final ArrayAnyD.Factory<N> factory) throws IOException {
+        try (final Reader tmpReader = new Reader(input)) {
+            final Header tmpHeader = BinaryFormat.readDense(tmpReader);
+            final ArrayAnyD<N> retVal = factory.makeZero(tmpHeader.structure);
+            BinaryFormat.readElements(tmpReader, tmpHeader, retVal);
+            return retVal;
+        }
+    }
+
+    public static Header readHeader(final File file) throws IOException {
+        try (final Reader tmpReader = new Reader(new FileInputStream(file))) {
+            return tmpReader.readHeader();
+        }
+    }
+
+    /**
+     * Writes any (1D, 2D or AnyD) array, or other structure, in the DENSE layout. Complex elements are
+     * written as COMPLEX, and everything else as DOUBLE.
+     */
+    public static void write(final Access1D<?> elements, final OutputStream output) throws IOException {
+
+        final long[] tmpStructure;
+        if (elements instanceof AccessAnyD<?>) {
+            tmpStructure = ((AccessAnyD<?>) elements).shape();
+        } else if (elements instanceof Access2D<?>) {
+            tmpStructure = new long[] { ((Access2D<?>) elements).countRows(), ((Access2D<?>) elements).countColumns() };
+        } else {
+            tmpStructure = new long[] { elements.count() };
+        }
+
+        try (final Writer tmpWriter = new Writer(output)) {
+            BinaryFormat.writeDense(tmpWriter, elements, tmpStructure);
+        }
+    }
+
+    /**
+     * Writes the header and then the elements, in the DENSE layout, without closing the writer.
+     */
+    public static void writeDense(final Writer writer, final Access1D<?> elements, final long... structure) throws IOException {
+
+        final ElementType tmpType = ElementType.of(elements);
+        final long tmpCount = elements.count();
+
+        writer.writeHeader(Layout.DENSE, tmpType, tmpCount, structure);
+
+        if (tmpType == ElementType.DOUBLE) {
+            for (long i = 0L; i < tmpCount; i++) {
+                writer.writeDouble(elements.doubleValue(i));
+            }
+        } else {
+            for (long i = 0L; i < tmpCount; i++) {
+                writer.writeElement(elements.get(i));
+            }
+        }
+    }
+
+    private static BasicArray<Double> map(final File file, final Header header) throws IOException {
+
+        if ((header.layout != Layout.DENSE) || (header.type != ElementType.DOUBLE)) {
+            throw new IOException("Only dense double data can be mapped!");
+        }
+
+        final long[] tmpStructure = header.structure.length > 0 ? header.structure : new long[] { 1L };
+
+        return BufferArray.create(file, header.size(), ByteOrder.LITTLE_ENDIAN, tmpStructure);
+    }
+
+    private static Header readDense(final Reader reader) throws IOException {
+        final Header retVal = reader.readHeader();
+        if (retVal.layout != Layout.DENSE) {
+            throw new IOException("Not dense: " + retVal.layout);
+        }
+        return retVal;
+    }
+
+    private static void readElements(final Reader reader, final Header header, final Mutate1D destination) throws IOException {
+        for (long i = 0L, tmpLimit = header.count(); i < tmpLimit; i++) {
+            destination.set(i, reader.readElement());
+        }
+    }
+
+    private BinaryFormat() {
+        super();
+    }
+
+}
@@ -75,6 +75,14 @@ public class BufferArray extends DenseArray<Double> {
     }
 
     private static BasicArray<Double> create(final File file, final long... structure) {
+        return BufferArray.create(file, 0L, ByteOrder.nativeOrder(), structure);
+    }
+
+    /**
+     * Maps the elements to the file region starting at position, with the specified byte order - that's how
+     * data written by something other than this class (with a header, or from another platform) is mapped.
+     */
+    static BasicArray<Double> create(final File file, final long position, final ByteOrder order, final long... structure) {
 
         final long tmpCount = AccessUtils.count(structure);
 
@@ -92,7 +100,7 @@ public class BufferArray extends DenseArray<Double> {
 
                 final DenseFactory<Double> tmpFactory = new DenseFactory<Double>() {
 
-                    long offset = 0L;
+                    long offset = position;
 
                     @Override
                     long getElementSize() {
@@ -106,7 +114,7 @@ public class BufferArray extends DenseArray<Double> {
                         try {
 
                             final MappedByteBuffer tmpMap = tmpFileChannel.map(MapMode.READ_WRITE, offset, tmpSize2);
-                            tmpMap.order(ByteOrder.nativeOrder());
+                            tmpMap.order(order);
                             return new BufferArray(tmpMap.asDoubleBuffer(), tmpRandomAccessFile);
                         } catch (final IOException exception) {
                             throw new RuntimeException(exception);
@@ -126,8 +134,8 @@ public class BufferArray extends DenseArray<Double> {
 
             } else {
 
-                final MappedByteBuffer tmpMappedByteBuffer = tmpFileChannel.map(FileChannel.MapMode.READ_WRITE, 0L, tmpSize);
-                tmpMappedByteBuffer.order(ByteOrder.nativeOrder());
+                final MappedByteBuffer tmpMappedByteBuffer = tmpFileChannel.map(FileChannel.MapMode.READ_WRITE, position, tmpSize);
+                tmpMappedByteBuffer.order(order);
 
                 tmpDoubleBuffer = tmpMappedByteBuffer.asDoubleBuffer();
 
@@ -420,6 +428,11 @@ public class BufferArray extends DenseArray<Double> {
         visitor.invoke(myBuffer.get(index));
     }
 
+    @Override
+    Class<?> getComponentType() {
+        return Double.class;
+    }
+
     @Override
     boolean isPrimitive() {
         return true;
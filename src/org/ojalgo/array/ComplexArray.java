@@ -26,19 +26,30 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import java.util.Arrays;
 
 import org.ojalgo.access.Access1D;
+import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionUtils;
-import org.ojalgo.machine.MemoryEstimator;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.ParameterFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.machine.JavaType;
 import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.PrimitiveScalar;
 import org.ojalgo.scalar.Scalar;
 
 /**
  * A one- and/or arbitrary-dimensional array of {@linkplain org.ojalgo.scalar.ComplexNumber}.
+ * <p>
+ * The elements are stored interleaved in a double[] - the real part of element i at index 2*i and the
+ * imaginary part at 2*i+1. There are no per element objects; {@linkplain ComplexNumber} instances are only
+ * created when they are asked for. Code that needs to be fast works on {@linkplain #data} directly.
+ * </p>
  *
  * @author apete
  */
-public class ComplexArray extends ReferenceTypeArray<ComplexNumber> {
+public class ComplexArray extends DenseArray<ComplexNumber> {
 
-    static final long ELEMENT_SIZE = MemoryEstimator.estimateObject(ComplexNumber.class);
+    static final long ELEMENT_SIZE = 2L * JavaType.DOUBLE.memory();
 
     static final DenseFactory<ComplexNumber> FACTORY = new DenseFactory<ComplexNumber>() {
 
@@ -67,21 +78,57 @@ public class ComplexArray extends ReferenceTypeArray<ComplexNumber> {
         return SegmentedArray.make(FACTORY, count);
     }
 
-    public static final ComplexArray wrap(final ComplexNumber[] data) {
+    /**
+     * @param data Real and imaginary parts, interleaved - the length must be even
+     */
+    public static final ComplexArray wrap(final double[] data) {
         return new ComplexArray(data);
     }
 
-    protected ComplexArray(final ComplexNumber[] data) {
+    /**
+     * Note that the numbers are copied - the array can't be wrapped as is.
+     */
+    public static final ComplexArray wrap(final ComplexNumber[] data) {
+        final ComplexArray retVal = new ComplexArray(data.length);
+        for (int i = 0; i < data.length; i++) {
+            retVal.set(i, data[i]);
+        }
+        return retVal;
+    }
+
+    static int compare(final double[] data, final int index, final ComplexNumber reference) {
+
+        final double tmpRe = data[2 * index];
+        final double tmpIm = data[(2 * index) + 1];
+
+        int retVal = 0;
+
+        if ((retVal = Double.compare(Math.hypot(tmpRe, tmpIm), reference.norm())) == 0) {
+            if ((retVal = Double.compare(tmpRe, reference.doubleValue())) == 0) {
+                retVal = Double.compare(tmpIm, reference.i);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The real part, at 2*index, and the imaginary, at 2*index+1, of each element.
+     */
+    public final double[] data;
 
-        super(data);
+    protected ComplexArray(final double[] data) {
 
+        super();
+
+        this.data = data;
     }
 
     protected ComplexArray(final int size) {
 
-        super(new ComplexNumber[size]);
+        super();
 
-        this.fill(0, size, 1, ComplexNumber.ZERO);
+        data = new double[2 * size];
     }
 
     @Override
@@ -96,7 +143,23 @@ public class ComplexArray extends ReferenceTypeArray<ComplexNumber> {
     public final void fillMatching(final Access1D<?> values) {
         final int tmpLimit = (int) FunctionUtils.min(this.count(), values.count());
         for (int i = 0; i < tmpLimit; i++) {
-            data[i] = ComplexNumber.valueOf(values.get(i));
+            this.set(i, values.get(i));
+        }
+    }
+
+    @Deprecated
+    public final void fillMatching(final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> right) {
+        final int tmpLimit = (int) FunctionUtils.min(this.count(), left.count(), right.count());
+        for (int i = 0; i < tmpLimit; i++) {
+            this.set(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Deprecated
+    public final void fillMatching(final UnaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> arguments) {
+        final int tmpLimit = (int) FunctionUtils.min(this.count(), arguments.count());
+        for (int i = 0; i < tmpLimit; i++) {
+            this.set(i, function.invoke(arguments.get(i)));
         }
     }
 
@@ -107,23 +170,129 @@ public class ComplexArray extends ReferenceTypeArray<ComplexNumber> {
 
     @Override
     protected final void add(final int index, final double addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        data[2 * index] += addend;
     }
 
     @Override
     protected final void add(final int index, final Number addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        final int tmpIndex = 2 * index;
+        if (addend instanceof ComplexNumber) {
+            data[tmpIndex] += addend.doubleValue();
+            data[tmpIndex + 1] += ((ComplexNumber) addend).i;
+        } else {
+            data[tmpIndex] += addend.doubleValue();
+        }
+    }
+
+    protected final double[] copyOfData() {
+        return ArrayUtils.copyOf(data);
+    }
+
+    @Override
+    protected final double doubleValue(final int index) {
+        return data[2 * index];
+    }
+
+    @Override
+    protected final void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        int tmpIndexA = 2 * firstA;
+        int tmpIndexB = 2 * firstB;
+        final int tmpStep = 2 * step;
+
+        double tmpVal;
+
+        for (int i = 0; i < count; i++) {
+
+            tmpVal = data[tmpIndexA];
+            data[tmpIndexA] = data[tmpIndexB];
+            data[tmpIndexB] = tmpVal;
+
+            tmpVal = data[tmpIndexA + 1];
+            data[tmpIndexA + 1] = data[tmpIndexB + 1];
+            data[tmpIndexB + 1] = tmpVal;
+
+            tmpIndexA += tmpStep;
+            tmpIndexB += tmpStep;
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function,
+            final Access1D<ComplexNumber> right) {
+        for (int i = first; i < limit; i++) {
+            this.set(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function,
+            final ComplexNumber right) {
+        for (int i = first; i < limit; i++) {
+            this.set(i, function.invoke(left.get(i), right));
+        }
     }
 
     @Override
-    protected int indexOfLargest(final int first, final int limit, final int step) {
+    protected final void fill(final int first, final int limit, final ComplexNumber left, final BinaryFunction<ComplexNumber> function,
+            final Access1D<ComplexNumber> right) {
+        for (int i = first; i < limit; i++) {
+            this.set(i, function.invoke(left, right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final ComplexNumber value) {
+        final double tmpRe = value.doubleValue();
+        final double tmpIm = value.i;
+        for (int i = first; i < limit; i += step) {
+            data[2 * i] = tmpRe;
+            data[(2 * i) + 1] = tmpIm;
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final NullaryFunction<ComplexNumber> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, supplier.invoke());
+        }
+    }
+
+    @Override
+    protected final void fillOne(final int index, final ComplexNumber value) {
+        data[2 * index] = value.doubleValue();
+        data[(2 * index) + 1] = value.i;
+    }
+
+    @Override
+    protected final void fillOne(final int index, final NullaryFunction<ComplexNumber> supplier) {
+        this.fillOne(index, supplier.invoke());
+    }
+
+    @Override
+    protected final void fillOneMatching(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.get(valueIndex));
+    }
+
+    @Override
+    protected final ComplexNumber get(final int index) {
+        final double tmpIm = data[(2 * index) + 1];
+        if (tmpIm == ZERO) {
+            return ComplexNumber.valueOf(data[2 * index]);
+        } else {
+            return ComplexNumber.of(data[2 * index], tmpIm);
+        }
+    }
+
+    @Override
+    protected final int indexOfLargest(final int first, final int limit, final int step) {
 
         int retVal = first;
         double tmpLargest = ZERO;
         double tmpValue;
 
         for (int i = first; i < limit; i += step) {
-            tmpValue = data[i].norm();
+            tmpValue = Math.hypot(data[2 * i], data[(2 * i) + 1]);
             if (tmpValue > tmpLargest) {
                 tmpLargest = tmpValue;
                 retVal = i;
@@ -134,28 +303,155 @@ public class ComplexArray extends ReferenceTypeArray<ComplexNumber> {
     }
 
     @Override
-    protected boolean isAbsolute(final int index) {
-        return ComplexNumber.isAbsolute(data[index]);
+    protected final boolean isAbsolute(final int index) {
+        return ComplexNumber.isAbsolute(this.get(index));
     }
 
     @Override
-    protected boolean isSmall(final int index, final double comparedTo) {
-        return ComplexNumber.isSmall(comparedTo, data[index]);
+    protected final boolean isSmall(final int index, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, Math.hypot(data[2 * index], data[(2 * index) + 1]));
     }
 
     @Override
-    DenseArray<ComplexNumber> newInstance(final int capacity) {
-        return new ComplexArray(capacity);
+    protected final void modify(final int index, final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function) {
+        this.fillOne(index, function.invoke(left.get(index), this.get(index)));
+    }
+
+    @Override
+    protected final void modify(final int index, final BinaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> right) {
+        this.fillOne(index, function.invoke(this.get(index), right.get(index)));
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final Access1D<ComplexNumber> left,
+            final BinaryFunction<ComplexNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left.get(i), this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<ComplexNumber> function,
+            final Access1D<ComplexNumber> right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<ComplexNumber> function, final ComplexNumber right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final ComplexNumber left, final BinaryFunction<ComplexNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left, this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final ParameterFunction<ComplexNumber> function, final int parameter) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), parameter));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final UnaryFunction<ComplexNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int index, final UnaryFunction<ComplexNumber> function) {
+        this.fillOne(index, function.invoke(this.get(index)));
+    }
+
+    @Override
+    protected final int searchAscending(final ComplexNumber value) {
+
+        int tmpLow = 0;
+        int tmpHigh = this.size() - 1;
+
+        while (tmpLow <= tmpHigh) {
+
+            final int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            final int tmpComparison = ComplexArray.compare(data, tmpMiddle, value);
+
+            if (tmpComparison < 0) {
+                tmpLow = tmpMiddle + 1;
+            } else if (tmpComparison > 0) {
+                tmpHigh = tmpMiddle - 1;
+            } else {
+                return tmpMiddle;
+            }
+        }
+
+        return -(tmpLow + 1);
+    }
+
+    @Override
+    protected final void set(final int index, final double value) {
+        data[2 * index] = value;
+        data[(2 * index) + 1] = ZERO;
     }
 
     @Override
-    ComplexNumber valueOf(final double value) {
-        return ComplexNumber.valueOf(value);
+    protected final void set(final int index, final Number value) {
+        this.fillOne(index, ComplexNumber.valueOf(value));
     }
 
     @Override
-    ComplexNumber valueOf(final Number number) {
-        return ComplexNumber.valueOf(number);
+    protected final int size() {
+        return data.length / 2;
+    }
+
+    @Override
+    protected final void sortAscending() {
+
+        final int tmpSize = this.size();
+
+        final ComplexNumber[] tmpSorted = new ComplexNumber[tmpSize];
+        for (int i = 0; i < tmpSize; i++) {
+            tmpSorted[i] = this.get(i);
+        }
+
+        Arrays.sort(tmpSorted);
+
+        for (int i = 0; i < tmpSize; i++) {
+            this.fillOne(i, tmpSorted[i]);
+        }
+    }
+
+    @Override
+    protected final void visit(final int first, final int limit, final int step, final VoidFunction<ComplexNumber> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.get(i));
+        }
+    }
+
+    @Override
+    protected final void visitOne(final int index, final VoidFunction<ComplexNumber> visitor) {
+        visitor.invoke(this.get(index));
+    }
+
+    @Override
+    final Class<?> getComponentType() {
+        return ComplexNumber.class;
+    }
+
+    @Override
+    final boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    DenseArray<ComplexNumber> newInstance(final int capacity) {
+        return new ComplexArray(capacity);
     }
 
 }
@@ -31,6 +31,7 @@ import java.util.stream.StreamSupport;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Mutate1D;
+import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.BinaryFunction.FixedFirst;
 import org.ojalgo.function.BinaryFunction.FixedSecond;
@@ -47,11 +48,32 @@ import org.ojalgo.scalar.Scalar;
 
 /**
  * A one- and/or arbitrary-dimensional array of double.
+ * <p>
+ * Bulk fill/modify operations on more than {@linkplain #THRESHOLD} elements are split in contiguous ranges
+ * that are processed in parallel, and the common {@linkplain PrimitiveFunction}s (ADD, DIVIDE, MULTIPLY,
+ * SUBTRACT, NEGATE, ABS, SQRT - also with one argument fixed) are executed by dedicated unit-stride loops
+ * that the JIT compiler can vectorise, rather than by invoking the function for each element.
+ * </p>
  *
  * @author apete
  */
 public class PrimitiveArray extends DenseArray<Double> {
 
+    /**
+     * Processes the elements in [first, limit) - a part of a larger range.
+     */
+    @FunctionalInterface
+    interface Conquerer {
+
+        void conquer(int first, int limit);
+
+    }
+
+    /**
+     * Bulk operations on more elements than this are executed in parallel.
+     */
+    public static int THRESHOLD = 32768;
+
     static final long ELEMENT_SIZE = JavaType.DOUBLE.memory();
 
     static final DenseFactory<Double> FACTORY = new DenseFactory<Double>() {
@@ -99,81 +121,213 @@ public class PrimitiveArray extends DenseArray<Double> {
         return new PrimitiveArray(data);
     }
 
+    private static void abs(final double[] data, final int first, final int limit, final int step, final double[] values) {
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = Math.abs(values[i]);
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = Math.abs(values[i]);
+            }
+        }
+    }
+
     private static void add(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left + right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left + right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left + right[i];
+            }
         }
     }
 
     private static void add(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] + right;
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] + right;
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] + right;
+            }
         }
     }
 
     private static void add(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] + right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] + right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] + right[i];
+            }
         }
     }
 
     private static void divide(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left / right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left / right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left / right[i];
+            }
         }
     }
 
     private static void divide(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] / right;
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] / right;
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] / right;
+            }
         }
     }
 
     private static void divide(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] / right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] / right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] / right[i];
+            }
         }
     }
 
     private static void multiply(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left * right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left * right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left * right[i];
+            }
         }
     }
 
     private static void multiply(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right;
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right;
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right;
+            }
         }
     }
 
     private static void multiply(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right[i];
+            }
         }
     }
 
     private static void negate(final double[] data, final int first, final int limit, final int step, final double[] values) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = -values[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = -values[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = -values[i];
+            }
+        }
+    }
+
+    private static void sqrt(final double[] data, final int first, final int limit, final int step, final double[] values) {
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = Math.sqrt(values[i]);
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = Math.sqrt(values[i]);
+            }
         }
     }
 
     private static void subtract(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left - right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left - right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left - right[i];
+            }
         }
     }
 
     private static void subtract(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] - right;
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] - right;
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] - right;
+            }
         }
     }
 
     private static void subtract(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] - right[i];
+        if (step == 1) {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] - right[i];
+            }
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] - right[i];
+            }
+        }
+    }
+
+    /**
+     * Splits the (stepped) range [first, limit) in contiguous parts, one per available thread, that are
+     * processed in parallel - provided there are more than {@linkplain #THRESHOLD} elements. Each part starts
+     * on an element of the original range.
+     */
+    static void divideAndConquer(final int first, final int limit, final int step, final Conquerer conquerer) {
+
+        final int tmpCount = ((limit - first) + (step - 1)) / step;
+
+        if (tmpCount > THRESHOLD) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int firstPart, final int limitPart) {
+                    final int tmpFirst = first + (firstPart * step);
+                    final int tmpLimit = (int) Math.min(limit, first + ((long) limitPart * step));
+                    conquerer.conquer(tmpFirst, tmpLimit);
+                }
+
+            };
+
+            tmpConquerer.invoke(0, tmpCount, 1);
+
+        } else {
+
+            conquerer.conquer(first, limit);
         }
     }
 
@@ -203,8 +357,22 @@ public class PrimitiveArray extends DenseArray<Double> {
     }
 
     protected static void fill(final double[] data, final int first, final int limit, final int step, final double value) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = value;
+        if (step == 1) {
+            Arrays.fill(data, first, limit, value);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = value;
+            }
+        }
+    }
+
+    static void fill(final double[] data, final int first, final int limit, final Access1D<?> values) {
+        if (values instanceof PrimitiveArray) {
+            System.arraycopy(((PrimitiveArray) values).data, first, data, first, limit - first);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = values.doubleValue(i);
+            }
         }
     }
 
@@ -336,6 +504,10 @@ public class PrimitiveArray extends DenseArray<Double> {
     static void invoke(final double[] data, final int first, final int limit, final int step, final double[] values, final UnaryFunction<Double> function) {
         if (function == PrimitiveFunction.NEGATE) {
             PrimitiveArray.negate(data, first, limit, step, values);
+        } else if (function == PrimitiveFunction.ABS) {
+            PrimitiveArray.abs(data, first, limit, step, values);
+        } else if (function == PrimitiveFunction.SQRT) {
+            PrimitiveArray.sqrt(data, first, limit, step, values);
         } else if (function instanceof FixedFirst<?>) {
             final FixedFirst<Double> tmpFunc = (FixedFirst<Double>) function;
             PrimitiveArray.invoke(data, first, limit, step, tmpFunc.doubleValue(), tmpFunc.getFunction(), values);
@@ -401,17 +573,18 @@ public class PrimitiveArray extends DenseArray<Double> {
     }
 
     public final void fillMatching(final Access1D<?> values) {
-        PrimitiveArray.fill(data, values);
+        final int tmpLimit = (int) Math.min(data.length, values.count());
+        PrimitiveArray.divideAndConquer(0, tmpLimit, 1, (f, l) -> PrimitiveArray.fill(data, f, l, values));
     }
 
     public final void fillMatching(final Access1D<Double> left, final BinaryFunction<Double> function, final Access1D<Double> right) {
         final int tmpLimit = (int) FunctionUtils.min(this.count(), left.count(), right.count());
-        PrimitiveArray.invoke(data, 0, tmpLimit, 1, left, function, right);
+        PrimitiveArray.divideAndConquer(0, tmpLimit, 1, (f, l) -> PrimitiveArray.invoke(data, f, l, 1, left, function, right));
     }
 
     public final void fillMatching(final UnaryFunction<Double> function, final Access1D<Double> arguments) {
         final int tmpLimit = (int) FunctionUtils.min(this.count(), arguments.count());
-        PrimitiveArray.invoke(data, 0, tmpLimit, 1, arguments, function);
+        PrimitiveArray.divideAndConquer(0, tmpLimit, 1, (f, l) -> PrimitiveArray.invoke(data, f, l, 1, arguments, function));
     }
 
     @Override
@@ -454,22 +627,25 @@ public class PrimitiveArray extends DenseArray<Double> {
     @Override
     protected final void fill(final int first, final int limit, final Access1D<Double> left, final BinaryFunction<Double> function,
             final Access1D<Double> right) {
-        PrimitiveArray.invoke(data, first, limit, 1, left, function, right);
+        PrimitiveArray.divideAndConquer(first, limit, 1, (f, l) -> PrimitiveArray.invoke(data, f, l, 1, left, function, right));
     }
 
     @Override
     protected final void fill(final int first, final int limit, final Access1D<Double> left, final BinaryFunction<Double> function, final Double right) {
-        PrimitiveArray.invoke(data, first, limit, 1, left, function, right);
+        final double tmpRight = right.doubleValue();
+        PrimitiveArray.divideAndConquer(first, limit, 1, (f, l) -> PrimitiveArray.invoke(data, f, l, 1, left, function, tmpRight));
     }
 
     @Override
     protected final void fill(final int first, final int limit, final Double left, final BinaryFunction<Double> function, final Access1D<Double> right) {
-        PrimitiveArray.invoke(data, first, limit, 1, left, function, right);
+        final double tmpLeft = left.doubleValue();
+        PrimitiveArray.divideAndConquer(first, limit, 1, (f, l) -> PrimitiveArray.invoke(data, f, l, 1, tmpLeft, function, right));
     }
 
     @Override
     protected final void fill(final int first, final int limit, final int step, final Double value) {
-        PrimitiveArray.fill(data, first, limit, step, value);
+        final double tmpValue = value.doubleValue();
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.fill(data, f, l, step, tmpValue));
     }
 
     @Override
@@ -537,32 +713,34 @@ public class PrimitiveArray extends DenseArray<Double> {
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final Access1D<Double> left, final BinaryFunction<Double> function) {
-        PrimitiveArray.invoke(data, first, limit, step, left, function, this);
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, left, function, this));
     }
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final BinaryFunction<Double> function, final Access1D<Double> right) {
-        PrimitiveArray.invoke(data, first, limit, step, this, function, right);
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, this, function, right));
     }
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final BinaryFunction<Double> function, final Double right) {
-        PrimitiveArray.invoke(data, first, limit, step, data, function, right);
+        final double tmpRight = right.doubleValue();
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, data, function, tmpRight));
     }
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final Double left, final BinaryFunction<Double> function) {
-        PrimitiveArray.invoke(data, first, limit, step, left, function, data);
+        final double tmpLeft = left.doubleValue();
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, tmpLeft, function, data));
     }
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final ParameterFunction<Double> function, final int parameter) {
-        PrimitiveArray.invoke(data, first, limit, step, data, function, parameter);
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, data, function, parameter));
     }
 
     @Override
     protected final void modify(final int first, final int limit, final int step, final UnaryFunction<Double> function) {
-        PrimitiveArray.invoke(data, first, limit, step, this, function);
+        PrimitiveArray.divideAndConquer(first, limit, step, (f, l) -> PrimitiveArray.invoke(data, f, l, step, data, function));
     }
 
     @Override
@@ -605,6 +783,11 @@ public class PrimitiveArray extends DenseArray<Double> {
         visitor.invoke(data[index]);
     }
 
+    @Override
+    Class<?> getComponentType() {
+        return Double.class;
+    }
+
     @Override
     boolean isPrimitive() {
         return true;
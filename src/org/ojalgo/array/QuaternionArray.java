@@ -26,19 +26,29 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import java.util.Arrays;
 
 import org.ojalgo.access.Access1D;
+import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionUtils;
-import org.ojalgo.machine.MemoryEstimator;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.ParameterFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.machine.JavaType;
+import org.ojalgo.scalar.PrimitiveScalar;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.Scalar;
 
 /**
  * A one- and/or arbitrary-dimensional array of {@linkplain org.ojalgo.scalar.Quaternion}.
+ * <p>
+ * The elements are stored interleaved in a double[] - the scalar part of element i at index 4*i, and then
+ * the i, j and k parts. {@linkplain Quaternion} instances are only created when they are asked for.
+ * </p>
  *
  * @author apete
  */
-public class QuaternionArray extends ReferenceTypeArray<Quaternion> {
+public class QuaternionArray extends DenseArray<Quaternion> {
 
-    static final long ELEMENT_SIZE = MemoryEstimator.estimateObject(Quaternion.class);
+    static final long ELEMENT_SIZE = 4L * JavaType.DOUBLE.memory();
 
     static final DenseFactory<Quaternion> FACTORY = new DenseFactory<Quaternion>() {
 
@@ -67,21 +77,68 @@ public class QuaternionArray extends ReferenceTypeArray<Quaternion> {
         return SegmentedArray.make(FACTORY, count);
     }
 
-    public static final QuaternionArray wrap(final Quaternion[] data) {
+    /**
+     * @param data The scalar, i, j and k parts, interleaved - the length must be a multiple of 4
+     */
+    public static final QuaternionArray wrap(final double[] data) {
         return new QuaternionArray(data);
     }
 
-    protected QuaternionArray(final int size) {
+    /**
+     * Note that the numbers are copied - the array can't be wrapped as is.
+     */
+    public static final QuaternionArray wrap(final Quaternion[] data) {
+        final QuaternionArray retVal = new QuaternionArray(data.length);
+        for (int i = 0; i < data.length; i++) {
+            retVal.set(i, data[i]);
+        }
+        return retVal;
+    }
+
+    static int compare(final double[] data, final int index, final Quaternion reference) {
+
+        final int tmpIndex = 4 * index;
+
+        int retVal = 0;
+
+        if ((retVal = Double.compare(QuaternionArray.norm(data, tmpIndex), reference.norm())) == 0) {
+            if ((retVal = Double.compare(data[tmpIndex], reference.scalar())) == 0) {
+                if ((retVal = Double.compare(data[tmpIndex + 1], reference.i)) == 0) {
+                    if ((retVal = Double.compare(data[tmpIndex + 2], reference.j)) == 0) {
+                        retVal = Double.compare(data[tmpIndex + 3], reference.k);
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
 
-        super(new Quaternion[size]);
+    private static double norm(final double[] data, final int base) {
+        final double tmpS = data[base];
+        final double tmpI = data[base + 1];
+        final double tmpJ = data[base + 2];
+        final double tmpK = data[base + 3];
+        return Math.sqrt((tmpS * tmpS) + ((tmpI * tmpI) + (tmpJ * tmpJ) + (tmpK * tmpK))); // Same order as Quaternion#norm()
+    }
+
+    /**
+     * The scalar part, at 4*index, and the i, j and k parts, at 4*index+1, +2 and +3, of each element.
+     */
+    public final double[] data;
+
+    protected QuaternionArray(final double[] data) {
 
-        this.fill(0, size, 1, Quaternion.ZERO);
+        super();
+
+        this.data = data;
     }
 
-    protected QuaternionArray(final Quaternion[] data) {
+    protected QuaternionArray(final int size) {
 
-        super(data);
+        super();
 
+        data = new double[4 * size];
     }
 
     @Override
@@ -96,7 +153,23 @@ public class QuaternionArray extends ReferenceTypeArray<Quaternion> {
     public final void fillMatching(final Access1D<?> values) {
         final int tmpLimit = (int) FunctionUtils.min(this.count(), values.count());
         for (int i = 0; i < tmpLimit; i++) {
-            data[i] = Quaternion.valueOf(values.get(i));
+            this.set(i, values.get(i));
+        }
+    }
+
+    @Deprecated
+    public final void fillMatching(final Access1D<Quaternion> left, final BinaryFunction<Quaternion> function, final Access1D<Quaternion> right) {
+        final int tmpLimit = (int) FunctionUtils.min(this.count(), left.count(), right.count());
+        for (int i = 0; i < tmpLimit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Deprecated
+    public final void fillMatching(final UnaryFunction<Quaternion> function, final Access1D<Quaternion> arguments) {
+        final int tmpLimit = (int) FunctionUtils.min(this.count(), arguments.count());
+        for (int i = 0; i < tmpLimit; i++) {
+            this.fillOne(i, function.invoke(arguments.get(i)));
         }
     }
 
@@ -107,23 +180,126 @@ public class QuaternionArray extends ReferenceTypeArray<Quaternion> {
 
     @Override
     protected final void add(final int index, final double addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        data[4 * index] += addend;
     }
 
     @Override
     protected final void add(final int index, final Number addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        final Quaternion tmpAddend = Quaternion.valueOf(addend);
+        final int tmpIndex = 4 * index;
+        data[tmpIndex] += tmpAddend.scalar();
+        data[tmpIndex + 1] += tmpAddend.i;
+        data[tmpIndex + 2] += tmpAddend.j;
+        data[tmpIndex + 3] += tmpAddend.k;
+    }
+
+    protected final double[] copyOfData() {
+        return ArrayUtils.copyOf(data);
+    }
+
+    @Override
+    protected final double doubleValue(final int index) {
+        return data[4 * index];
+    }
+
+    @Override
+    protected final void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        int tmpIndexA = 4 * firstA;
+        int tmpIndexB = 4 * firstB;
+        final int tmpStep = 4 * step;
+
+        double tmpVal;
+
+        for (int i = 0; i < count; i++) {
+
+            for (int p = 0; p < 4; p++) {
+                tmpVal = data[tmpIndexA + p];
+                data[tmpIndexA + p] = data[tmpIndexB + p];
+                data[tmpIndexB + p] = tmpVal;
+            }
+
+            tmpIndexA += tmpStep;
+            tmpIndexB += tmpStep;
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Access1D<Quaternion> left, final BinaryFunction<Quaternion> function,
+            final Access1D<Quaternion> right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Access1D<Quaternion> left, final BinaryFunction<Quaternion> function,
+            final Quaternion right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right));
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final NullaryFunction<Quaternion> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, supplier.invoke());
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final Quaternion value) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, value);
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Quaternion left, final BinaryFunction<Quaternion> function,
+            final Access1D<Quaternion> right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left, right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void fillOne(final int index, final NullaryFunction<Quaternion> supplier) {
+        this.fillOne(index, supplier.invoke());
+    }
+
+    @Override
+    protected final void fillOne(final int index, final Quaternion value) {
+        final int tmpIndex = 4 * index;
+        data[tmpIndex] = value.scalar();
+        data[tmpIndex + 1] = value.i;
+        data[tmpIndex + 2] = value.j;
+        data[tmpIndex + 3] = value.k;
+    }
+
+    @Override
+    protected final void fillOneMatching(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.get(valueIndex));
+    }
+
+    @Override
+    protected final Quaternion get(final int index) {
+        final int tmpIndex = 4 * index;
+        if ((data[tmpIndex + 1] == ZERO) && (data[tmpIndex + 2] == ZERO) && (data[tmpIndex + 3] == ZERO)) {
+            return Quaternion.valueOf(data[tmpIndex]);
+        } else {
+            return Quaternion.of(data[tmpIndex], data[tmpIndex + 1], data[tmpIndex + 2], data[tmpIndex + 3]);
+        }
     }
 
     @Override
-    protected int indexOfLargest(final int first, final int limit, final int step) {
+    protected final int indexOfLargest(final int first, final int limit, final int step) {
 
         int retVal = first;
         double tmpLargest = ZERO;
         double tmpValue;
 
         for (int i = first; i < limit; i += step) {
-            tmpValue = data[i].norm();
+            tmpValue = QuaternionArray.norm(data, 4 * i);
             if (tmpValue > tmpLargest) {
                 tmpLargest = tmpValue;
                 retVal = i;
@@ -134,27 +310,158 @@ public class QuaternionArray extends ReferenceTypeArray<Quaternion> {
     }
 
     @Override
-    protected boolean isAbsolute(final int index) {
-        return Quaternion.isAbsolute(data[index]);
+    protected final boolean isAbsolute(final int index) {
+        return Quaternion.isAbsolute(this.get(index));
     }
 
     @Override
-    protected boolean isSmall(final int index, final double comparedTo) {
-        return Quaternion.isSmall(comparedTo, data[index]);
+    protected final boolean isSmall(final int index, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, QuaternionArray.norm(data, 4 * index));
     }
 
     @Override
-    DenseArray<Quaternion> newInstance(final int capacity) {
-        return new QuaternionArray(capacity);
+    protected final void modify(final int index, final Access1D<Quaternion> left, final BinaryFunction<Quaternion> function) {
+        this.fillOne(index, function.invoke(left.get(index), this.get(index)));
+    }
+
+    @Override
+    protected final void modify(final int index, final BinaryFunction<Quaternion> function, final Access1D<Quaternion> right) {
+        this.fillOne(index, function.invoke(this.get(index), right.get(index)));
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final Access1D<Quaternion> left,
+            final BinaryFunction<Quaternion> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left.get(i), this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<Quaternion> function,
+            final Access1D<Quaternion> right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<Quaternion> function, final Quaternion right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final ParameterFunction<Quaternion> function, final int parameter) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), parameter));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final Quaternion left, final BinaryFunction<Quaternion> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left, this.get(i)));
+        }
     }
 
     @Override
-    final Quaternion valueOf(final double value) {
-        return Quaternion.valueOf(value);
+    protected final void modify(final int first, final int limit, final int step, final UnaryFunction<Quaternion> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i)));
+        }
     }
 
     @Override
-    final Quaternion valueOf(final Number number) {
-        return Quaternion.valueOf(number);
+    protected final void modify(final int index, final UnaryFunction<Quaternion> function) {
+        this.fillOne(index, function.invoke(this.get(index)));
     }
+
+    @Override
+    protected final int searchAscending(final Quaternion value) {
+
+        int tmpLow = 0;
+        int tmpHigh = this.size() - 1;
+
+        while (tmpLow <= tmpHigh) {
+
+            final int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            final int tmpComparison = QuaternionArray.compare(data, tmpMiddle, value);
+
+            if (tmpComparison < 0) {
+                tmpLow = tmpMiddle + 1;
+            } else if (tmpComparison > 0) {
+                tmpHigh = tmpMiddle - 1;
+            } else {
+                return tmpMiddle;
+            }
+        }
+
+        return -(tmpLow + 1);
+    }
+
+    @Override
+    protected final void set(final int index, final double value) {
+        final int tmpIndex = 4 * index;
+        data[tmpIndex] = value;
+        data[tmpIndex + 1] = ZERO;
+        data[tmpIndex + 2] = ZERO;
+        data[tmpIndex + 3] = ZERO;
+    }
+
+    @Override
+    protected final void set(final int index, final Number value) {
+        this.fillOne(index, Quaternion.valueOf(value));
+    }
+
+    @Override
+    protected final int size() {
+        return data.length / 4;
+    }
+
+    @Override
+    protected final void sortAscending() {
+
+        final int tmpSize = this.size();
+
+        final Quaternion[] tmpSorted = new Quaternion[tmpSize];
+        for (int i = 0; i < tmpSize; i++) {
+            tmpSorted[i] = this.get(i);
+        }
+
+        Arrays.sort(tmpSorted);
+
+        for (int i = 0; i < tmpSize; i++) {
+            this.fillOne(i, tmpSorted[i]);
+        }
+    }
+
+    @Override
+    protected final void visit(final int first, final int limit, final int step, final VoidFunction<Quaternion> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.get(i));
+        }
+    }
+
+    @Override
+    protected final void visitOne(final int index, final VoidFunction<Quaternion> visitor) {
+        visitor.invoke(this.get(index));
+    }
+
+    @Override
+    final Class<?> getComponentType() {
+        return Quaternion.class;
+    }
+
+    @Override
+    final boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    DenseArray<Quaternion> newInstance(final int capacity) {
+        return new QuaternionArray(capacity);
+    }
+
 }
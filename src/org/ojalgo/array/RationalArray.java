@@ -24,19 +24,30 @@ package org.ojalgo.array;
 import java.util.Arrays;
 
 import org.ojalgo.access.Access1D;
+import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionUtils;
-import org.ojalgo.machine.MemoryEstimator;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.ParameterFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.machine.JavaType;
 import org.ojalgo.scalar.RationalNumber;
 import org.ojalgo.scalar.Scalar;
 
 /**
  * A one- and/or arbitrary-dimensional array of {@linkplain org.ojalgo.scalar.RationalNumber}.
+ * <p>
+ * The (reduced) numerators and denominators are stored in two long[] - there are no per element objects as
+ * long as the elements are {@linkplain RationalNumber#isCompact() compact}. An element that doesn't fit is
+ * marked with a negative denominator and kept, as an object, in a separate overflow array that is only
+ * allocated when needed.
+ * </p>
  *
  * @author apete
  */
-public class RationalArray extends ReferenceTypeArray<RationalNumber> {
+public class RationalArray extends DenseArray<RationalNumber> {
 
-    static final long ELEMENT_SIZE = MemoryEstimator.estimateObject(RationalNumber.class);
+    static final long ELEMENT_SIZE = 2L * JavaType.LONG.memory();
 
     static final DenseFactory<RationalNumber> FACTORY = new DenseFactory<RationalNumber>() {
 
@@ -56,6 +67,11 @@ public class RationalArray extends ReferenceTypeArray<RationalNumber> {
         }
     };
 
+    /**
+     * Marks an element stored in the overflow array
+     */
+    private static final long OVERFLOW = -1L;
+
     public static final RationalArray make(final int size) {
         return new RationalArray(size);
     }
@@ -64,27 +80,51 @@ public class RationalArray extends ReferenceTypeArray<RationalNumber> {
         return SegmentedArray.make(FACTORY, count);
     }
 
+    /**
+     * Note that the numbers are copied - the array can't be wrapped as is.
+     */
     public static final RationalArray wrap(final RationalNumber[] data) {
-        return new RationalArray(data);
+        final RationalArray retVal = new RationalArray(data.length);
+        for (int i = 0; i < data.length; i++) {
+            retVal.fillOne(i, data[i]);
+        }
+        return retVal;
     }
 
-    protected RationalArray(final int size) {
+    /**
+     * The denominator of each element, always >= 0 for compact elements.
+     */
+    public final long[] denominators;
+    /**
+     * The numerator of each element - meaningless where the denominator is negative.
+     */
+    public final long[] numerators;
 
-        super(new RationalNumber[size]);
+    private volatile RationalNumber[] myOverflow = null;
 
-        this.fill(0, size, 1, RationalNumber.ZERO);
-    }
+    protected RationalArray(final int size) {
 
-    protected RationalArray(final RationalNumber[] data) {
+        super();
 
-        super(data);
+        numerators = new long[size];
+        denominators = new long[size];
 
+        Arrays.fill(denominators, 1L);
     }
 
     @Override
     public boolean equals(final Object anObj) {
         if (anObj instanceof RationalArray) {
-            return Arrays.equals(data, ((RationalArray) anObj).data);
+            final RationalArray tmpOther = (RationalArray) anObj;
+            if (this.size() != tmpOther.size()) {
+                return false;
+            }
+            for (int i = 0; i < this.size(); i++) {
+                if (!this.get(i).equals(tmpOther.get(i))) {
+                    return false;
+                }
+            }
+            return true;
         } else {
             return super.equals(anObj);
         }
@@ -93,34 +133,167 @@ public class RationalArray extends ReferenceTypeArray<RationalNumber> {
     public final void fillMatching(final Access1D<?> values) {
         final int tmpLimit = (int) FunctionUtils.min(this.count(), values.count());
         for (int i = 0; i < tmpLimit; i++) {
-            data[i] = RationalNumber.valueOf(values.get(i));
+            this.fillOne(i, RationalNumber.valueOf(values.get(i)));
         }
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(data);
+        int retVal = 1;
+        for (int i = 0; i < this.size(); i++) {
+            retVal = (31 * retVal) + this.get(i).hashCode();
+        }
+        return retVal;
+    }
+
+    /**
+     * @return true if all elements are {@linkplain RationalNumber#isCompact() compact}, then
+     *         {@linkplain #numerators} and {@linkplain #denominators} contain everything.
+     */
+    public final boolean isCompact() {
+        for (int i = 0; i < denominators.length; i++) {
+            if (denominators[i] < 0L) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     protected final void add(final int index, final double addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        this.fillOne(index, this.get(index).add(RationalNumber.valueOf(addend)));
     }
 
     @Override
     protected final void add(final int index, final Number addend) {
-        this.fillOne(index, this.get(index).add(this.valueOf(addend)));
+        this.fillOne(index, this.get(index).add(RationalNumber.valueOf(addend)));
+    }
+
+    @Override
+    protected final double doubleValue(final int index) {
+        final long tmpNumer = numerators[index];
+        final long tmpDenom = denominators[index];
+        if ((tmpDenom > 0L) && (Math.abs(tmpNumer) <= (1L << 53)) && (tmpDenom <= (1L << 53))) {
+            return (double) tmpNumer / (double) tmpDenom;
+        } else {
+            return this.get(index).doubleValue();
+        }
+    }
+
+    @Override
+    protected final void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        final RationalNumber[] tmpOverflow = myOverflow;
+
+        int tmpIndexA = firstA;
+        int tmpIndexB = firstB;
+
+        long tmpVal;
+
+        for (int i = 0; i < count; i++) {
+
+            tmpVal = numerators[tmpIndexA];
+            numerators[tmpIndexA] = numerators[tmpIndexB];
+            numerators[tmpIndexB] = tmpVal;
+
+            tmpVal = denominators[tmpIndexA];
+            denominators[tmpIndexA] = denominators[tmpIndexB];
+            denominators[tmpIndexB] = tmpVal;
+
+            if (tmpOverflow != null) {
+                final RationalNumber tmpObj = tmpOverflow[tmpIndexA];
+                tmpOverflow[tmpIndexA] = tmpOverflow[tmpIndexB];
+                tmpOverflow[tmpIndexB] = tmpObj;
+            }
+
+            tmpIndexA += step;
+            tmpIndexB += step;
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final Access1D<RationalNumber> left, final BinaryFunction<RationalNumber> function,
+            final Access1D<RationalNumber> right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right.get(i)));
+        }
     }
 
     @Override
-    protected int indexOfLargest(final int first, final int limit, final int step) {
+    protected final void fill(final int first, final int limit, final Access1D<RationalNumber> left, final BinaryFunction<RationalNumber> function,
+            final RationalNumber right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right));
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final NullaryFunction<RationalNumber> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, supplier.invoke());
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final int step, final RationalNumber value) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, value);
+        }
+    }
+
+    @Override
+    protected final void fill(final int first, final int limit, final RationalNumber left, final BinaryFunction<RationalNumber> function,
+            final Access1D<RationalNumber> right) {
+        for (int i = first; i < limit; i++) {
+            this.fillOne(i, function.invoke(left, right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void fillOne(final int index, final NullaryFunction<RationalNumber> supplier) {
+        this.fillOne(index, supplier.invoke());
+    }
+
+    @Override
+    protected final void fillOne(final int index, final RationalNumber value) {
+        if (value.isCompact()) {
+            numerators[index] = value.longNumerator();
+            denominators[index] = value.longDenominator();
+            final RationalNumber[] tmpOverflow = myOverflow;
+            if (tmpOverflow != null) {
+                tmpOverflow[index] = null;
+            }
+        } else {
+            numerators[index] = 0L;
+            denominators[index] = OVERFLOW;
+            this.getOverflow()[index] = value;
+        }
+    }
+
+    @Override
+    protected final void fillOneMatching(final int index, final Access1D<?> values, final long valueIndex) {
+        this.fillOne(index, RationalNumber.valueOf(values.get(valueIndex)));
+    }
+
+    @Override
+    protected final RationalNumber get(final int index) {
+        final long tmpDenom = denominators[index];
+        if (tmpDenom == OVERFLOW) {
+            return myOverflow[index];
+        } else {
+            return RationalNumber.ofReduced(numerators[index], tmpDenom);
+        }
+    }
+
+    @Override
+    protected final int indexOfLargest(final int first, final int limit, final int step) {
 
         int retVal = first;
         RationalNumber tmpLargest = RationalNumber.ZERO;
         RationalNumber tmpValue;
 
         for (int i = first; i < limit; i += step) {
-            tmpValue = data[i];
+            tmpValue = this.get(i);
             if (tmpValue.compareTo(tmpLargest) == 1) {
                 tmpLargest = tmpValue;
                 retVal = i;
@@ -131,28 +304,179 @@ public class RationalArray extends ReferenceTypeArray<RationalNumber> {
     }
 
     @Override
-    protected boolean isAbsolute(final int index) {
-        return RationalNumber.isAbsolute(data[index]);
+    protected final boolean isAbsolute(final int index) {
+        final long tmpDenom = denominators[index];
+        if (tmpDenom == OVERFLOW) {
+            return RationalNumber.isAbsolute(myOverflow[index]);
+        } else {
+            return (numerators[index] >= 0L) && (tmpDenom > 0L);
+        }
     }
 
     @Override
-    protected boolean isSmall(final int index, final double comparedTo) {
-        return RationalNumber.isSmall(comparedTo, data[index]);
+    protected final boolean isSmall(final int index, final double comparedTo) {
+        return RationalNumber.isSmall(comparedTo, this.get(index));
     }
 
     @Override
-    DenseArray<RationalNumber> newInstance(final int capacity) {
-        return new RationalArray(capacity);
+    protected final void modify(final int index, final Access1D<RationalNumber> left, final BinaryFunction<RationalNumber> function) {
+        this.fillOne(index, function.invoke(left.get(index), this.get(index)));
     }
 
     @Override
-    final RationalNumber valueOf(final double value) {
-        return RationalNumber.valueOf(value);
+    protected final void modify(final int index, final BinaryFunction<RationalNumber> function, final Access1D<RationalNumber> right) {
+        this.fillOne(index, function.invoke(this.get(index), right.get(index)));
     }
 
     @Override
-    final RationalNumber valueOf(final Number number) {
-        return RationalNumber.valueOf(number);
+    protected final void modify(final int first, final int limit, final int step, final Access1D<RationalNumber> left,
+            final BinaryFunction<RationalNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left.get(i), this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<RationalNumber> function,
+            final Access1D<RationalNumber> right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final BinaryFunction<RationalNumber> function,
+            final RationalNumber right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final ParameterFunction<RationalNumber> function,
+            final int parameter) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), parameter));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final RationalNumber left,
+            final BinaryFunction<RationalNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left, this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int first, final int limit, final int step, final UnaryFunction<RationalNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i)));
+        }
+    }
+
+    @Override
+    protected final void modify(final int index, final UnaryFunction<RationalNumber> function) {
+        this.fillOne(index, function.invoke(this.get(index)));
+    }
+
+    @Override
+    protected final int searchAscending(final RationalNumber value) {
+
+        int tmpLow = 0;
+        int tmpHigh = this.size() - 1;
+
+        while (tmpLow <= tmpHigh) {
+
+            final int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            final int tmpComparison = this.get(tmpMiddle).compareTo(value);
+
+            if (tmpComparison < 0) {
+                tmpLow = tmpMiddle + 1;
+            } else if (tmpComparison > 0) {
+                tmpHigh = tmpMiddle - 1;
+            } else {
+                return tmpMiddle;
+            }
+        }
+
+        return -(tmpLow + 1);
+    }
+
+    @Override
+    protected final void set(final int index, final double value) {
+        this.fillOne(index, RationalNumber.valueOf(value));
+    }
+
+    @Override
+    protected final void set(final int index, final Number value) {
+        this.fillOne(index, RationalNumber.valueOf(value));
+    }
+
+    @Override
+    protected final int size() {
+        return numerators.length;
+    }
+
+    @Override
+    protected final void sortAscending() {
+
+        final int tmpSize = this.size();
+
+        final RationalNumber[] tmpSorted = new RationalNumber[tmpSize];
+        for (int i = 0; i < tmpSize; i++) {
+            tmpSorted[i] = this.get(i);
+        }
+
+        Arrays.sort(tmpSorted);
+
+        for (int i = 0; i < tmpSize; i++) {
+            this.fillOne(i, tmpSorted[i]);
+        }
+    }
+
+    @Override
+    protected final void visit(final int first, final int limit, final int step, final VoidFunction<RationalNumber> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.get(i));
+        }
+    }
+
+    @Override
+    protected final void visitOne(final int index, final VoidFunction<RationalNumber> visitor) {
+        visitor.invoke(this.get(index));
+    }
+
+    /**
+     * Allocated the first time an element doesn't fit. Different threads may fill (different parts of) the
+     * same array, and must end up with the same overflow array.
+     */
+    private RationalNumber[] getOverflow() {
+        RationalNumber[] retVal = myOverflow;
+        if (retVal == null) {
+            synchronized (this) {
+                retVal = myOverflow;
+                if (retVal == null) {
+                    myOverflow = retVal = new RationalNumber[numerators.length];
+                }
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    final Class<?> getComponentType() {
+        return RationalNumber.class;
+    }
+
+    @Override
+    final boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    DenseArray<RationalNumber> newInstance(final int capacity) {
+        return new RationalArray(capacity);
     }
 
 }
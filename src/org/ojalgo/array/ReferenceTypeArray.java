@@ -292,6 +292,11 @@ abstract class ReferenceTypeArray<N extends Number> extends DenseArray<N> {
         visitor.invoke(data[index]);
     }
 
+    @Override
+    final Class<?> getComponentType() {
+        return data.getClass().getComponentType();
+    }
+
     @Override
     final boolean isPrimitive() {
         return false;
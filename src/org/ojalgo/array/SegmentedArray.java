@@ -568,6 +568,11 @@ public final class SegmentedArray<N extends Number> extends BasicArray<N> {
         }
     }
 
+    @Override
+    Class<?> getComponentType() {
+        return mySegments[0].getComponentType();
+    }
+
     @Override
     boolean isPrimitive() {
         return mySegments[0].isPrimitive();
@@ -25,12 +25,15 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.AccessUtils;
 import org.ojalgo.access.ElementView1D;
 import org.ojalgo.access.Mutate1D;
 import org.ojalgo.array.DenseArray.DenseFactory;
+import org.ojalgo.concurrent.ExecutionContext;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
@@ -50,6 +53,222 @@ import org.ojalgo.type.context.NumberContext;
  */
 public final class SparseArray<N extends Number> extends BasicArray<N> {
 
+    /**
+     * Collects (index, value) pairs in any order, and then builds the {@linkplain SparseArray} in one go. The
+     * pairs are sorted (in parallel, with a stable merge sort) and duplicate indices are summed - O(n log n)
+     * in total, where setting the elements one at a time, in random order, is O(n²). Exact zeros are not
+     * stored - neither added zero values, nor duplicates that sum to zero.
+     */
+    public static final class Builder<N extends Number> {
+
+        static final class Sorter extends RecursiveAction {
+
+            private static final long serialVersionUID = -4520301757021999491L;
+
+            private final int myFirst;
+            private final long[] myIndices;
+            private final long[] myIndicesBuffer;
+            private final int myLimit;
+            private final double[] myValues;
+            private final double[] myValuesBuffer;
+
+            Sorter(final long[] indices, final double[] values, final long[] indicesBuffer, final double[] valuesBuffer, final int first,
+                    final int limit) {
+
+                super();
+
+                myIndices = indices;
+                myValues = values;
+                myIndicesBuffer = indicesBuffer;
+                myValuesBuffer = valuesBuffer;
+                myFirst = first;
+                myLimit = limit;
+            }
+
+            @Override
+            protected void compute() {
+                if ((myLimit - myFirst) > THRESHOLD) {
+                    final int tmpMiddle = (myFirst + myLimit) >>> 1;
+                    ForkJoinTask.invokeAll(new Sorter(myIndices, myValues, myIndicesBuffer, myValuesBuffer, myFirst, tmpMiddle),
+                            new Sorter(myIndices, myValues, myIndicesBuffer, myValuesBuffer, tmpMiddle, myLimit));
+                    Builder.merge(myIndices, myValues, myIndicesBuffer, myValuesBuffer, myFirst, tmpMiddle, myLimit);
+                } else {
+                    Builder.sort(myIndices, myValues, myIndicesBuffer, myValuesBuffer, myFirst, myLimit);
+                }
+            }
+
+        }
+
+        /**
+         * Ranges larger than this are sorted in parallel
+         */
+        public static int THRESHOLD = 8192;
+
+        private static final int INSERTION = 32;
+
+        /**
+         * Stable merge of the two sorted ranges [first, middle) and [middle, limit). Only the first range is
+         * copied to the buffers.
+         */
+        static void merge(final long[] indices, final double[] values, final long[] indicesBuffer, final double[] valuesBuffer, final int first,
+                final int middle, final int limit) {
+
+            if (indices[middle - 1] <= indices[middle]) {
+                return; // Already in order
+            }
+
+            System.arraycopy(indices, first, indicesBuffer, first, middle - first);
+            System.arraycopy(values, first, valuesBuffer, first, middle - first);
+
+            int i = first;
+            int j = middle;
+            int k = first;
+
+            while ((i < middle) && (j < limit)) {
+                if (indicesBuffer[i] <= indices[j]) {
+                    indices[k] = indicesBuffer[i];
+                    values[k++] = valuesBuffer[i++];
+                } else {
+                    indices[k] = indices[j];
+                    values[k++] = values[j++];
+                }
+            }
+
+            while (i < middle) {
+                indices[k] = indicesBuffer[i];
+                values[k++] = valuesBuffer[i++];
+            }
+        }
+
+        static void sort(final long[] indices, final double[] values, final long[] indicesBuffer, final double[] valuesBuffer, final int first,
+                final int limit) {
+
+            if ((limit - first) <= INSERTION) {
+
+                for (int i = first + 1; i < limit; i++) {
+                    final long tmpIndex = indices[i];
+                    final double tmpValue = values[i];
+                    int j = i - 1;
+                    while ((j >= first) && (indices[j] > tmpIndex)) {
+                        indices[j + 1] = indices[j];
+                        values[j + 1] = values[j];
+                        j--;
+                    }
+                    indices[j + 1] = tmpIndex;
+                    values[j + 1] = tmpValue;
+                }
+
+            } else {
+
+                final int tmpMiddle = (first + limit) >>> 1;
+                Builder.sort(indices, values, indicesBuffer, valuesBuffer, first, tmpMiddle);
+                Builder.sort(indices, values, indicesBuffer, valuesBuffer, tmpMiddle, limit);
+                Builder.merge(indices, values, indicesBuffer, valuesBuffer, first, tmpMiddle, limit);
+            }
+        }
+
+        private final long myCount;
+        private final DenseFactory<N> myFactory;
+        private long[] myIndices;
+        private int mySize = 0;
+        private double[] myValues;
+
+        Builder(final long count, final DenseFactory<N> factory, final int capacity) {
+
+            super();
+
+            myCount = count;
+            myFactory = factory;
+
+            final int tmpCapacity = Math.max(16, capacity);
+            myIndices = new long[tmpCapacity];
+            myValues = new double[tmpCapacity];
+        }
+
+        /**
+         * @throws ArrayIndexOutOfBoundsException If the index is out of range
+         */
+        public Builder<N> add(final long index, final double value) {
+
+            if ((index < 0L) || (index >= myCount)) {
+                throw new ArrayIndexOutOfBoundsException("Index " + index + " out of range [0, " + myCount + ")");
+            }
+            if (value == PrimitiveMath.ZERO) {
+                return this;
+            }
+
+            if (mySize == myValues.length) {
+                final int tmpCapacity = mySize + Math.max(16, mySize);
+                myIndices = Arrays.copyOf(myIndices, tmpCapacity);
+                myValues = Arrays.copyOf(myValues, tmpCapacity);
+            }
+
+            myIndices[mySize] = index;
+            myValues[mySize] = value;
+            mySize++;
+
+            return this;
+        }
+
+        /**
+         * Sorts the added pairs, sums any duplicates (dropping those that sum to zero), and then creates the
+         * array. The builder remains usable - more pairs can be added and another array built.
+         */
+        public SparseArray<N> build() {
+
+            if (mySize > 1) {
+
+                final long[] tmpIndicesBuffer = new long[mySize];
+                final double[] tmpValuesBuffer = new double[mySize];
+
+                final ExecutionContext tmpContext = ExecutionContext.current();
+                if ((mySize > THRESHOLD) && (tmpContext.getPool() != null)) {
+                    tmpContext.invoke(new Sorter(myIndices, myValues, tmpIndicesBuffer, tmpValuesBuffer, 0, mySize));
+                } else {
+                    Builder.sort(myIndices, myValues, tmpIndicesBuffer, tmpValuesBuffer, 0, mySize);
+                }
+
+                int tmpNonzeros = 0;
+                for (int k = 0; k < mySize;) {
+                    final long tmpIndex = myIndices[k];
+                    double tmpSum = myValues[k++];
+                    while ((k < mySize) && (myIndices[k] == tmpIndex)) {
+                        tmpSum += myValues[k++];
+                    }
+                    if (tmpSum != PrimitiveMath.ZERO) {
+                        myIndices[tmpNonzeros] = tmpIndex;
+                        myValues[tmpNonzeros] = tmpSum;
+                        tmpNonzeros++;
+                    }
+                }
+                mySize = tmpNonzeros;
+            }
+
+            final int tmpCapacity = Math.max(1, mySize);
+            final long[] tmpIndices = new long[tmpCapacity];
+            final DenseArray<N> tmpValues = myFactory.make(tmpCapacity);
+
+            System.arraycopy(myIndices, 0, tmpIndices, 0, mySize);
+            for (int i = 0; i < mySize; i++) {
+                tmpValues.set(i, myValues[i]);
+            }
+            for (int i = mySize; i < tmpCapacity; i++) {
+                tmpIndices[i] = Long.MAX_VALUE;
+            }
+
+            return new SparseArray<>(myCount, myFactory, tmpIndices, tmpValues, mySize);
+        }
+
+        /**
+         * @return The number of added nonzero pairs (including any duplicates not yet summed by
+         *         {@link #build()})
+         */
+        public int count() {
+            return mySize;
+        }
+
+    }
+
     public static final class NonzeroView<N extends Number> implements ElementView1D<N, NonzeroView<N>>, Iterable<NonzeroView<N>> {
 
         private int myCursor = -1;
@@ -196,6 +415,42 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
 
     };
 
+    /**
+     * @param count The (logical) length of the array to build
+     * @param capacity The expected number of nonzeros (the builder grows when necessary)
+     */
+    public static Builder<BigDecimal> buildBig(final long count, final int capacity) {
+        return new Builder<>(count, BigArray.FACTORY, capacity);
+    }
+
+    /**
+     * @see #buildBig(long, int)
+     */
+    public static Builder<ComplexNumber> buildComplex(final long count, final int capacity) {
+        return new Builder<>(count, ComplexArray.FACTORY, capacity);
+    }
+
+    /**
+     * @see #buildBig(long, int)
+     */
+    public static Builder<Double> buildPrimitive(final long count, final int capacity) {
+        return new Builder<>(count, PrimitiveArray.FACTORY, capacity);
+    }
+
+    /**
+     * @see #buildBig(long, int)
+     */
+    public static Builder<Quaternion> buildQuaternion(final long count, final int capacity) {
+        return new Builder<>(count, QuaternionArray.FACTORY, capacity);
+    }
+
+    /**
+     * @see #buildBig(long, int)
+     */
+    public static Builder<RationalNumber> buildRational(final long count, final int capacity) {
+        return new Builder<>(count, RationalArray.FACTORY, capacity);
+    }
+
     public static SparseArray<BigDecimal> makeBig(final long count) {
         return new SparseArray<>(count, BigArray.FACTORY, SparseArray.capacity(count));
     }
@@ -280,13 +535,18 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
     private final double myZeroValue;
 
     SparseArray(final long count, final DenseFactory<N> factory, final int initialCapacity) {
+        this(count, factory, new long[initialCapacity], factory.make(initialCapacity), 0);
+    }
+
+    private SparseArray(final long count, final DenseFactory<N> factory, final long[] indices, final DenseArray<N> values, final int actualLength) {
 
         super();
 
         myCount = count;
 
-        myIndices = new long[initialCapacity];
-        myValues = factory.make(initialCapacity);
+        myIndices = indices;
+        myValues = values;
+        myActualLength = actualLength;
 
         myZeroScalar = factory.zero();
         myZeroNumber = myZeroScalar.getNumber();
@@ -415,7 +675,8 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
     public long firstInRange(final long rangeFirst, final long rangeLimit) {
         int tmpFoundAt = this.index(rangeFirst);
         if (tmpFoundAt < 0) {
-            tmpFoundAt = -tmpFoundAt + 1;
+            // The insertion point - the first index larger than rangeFirst
+            tmpFoundAt = -tmpFoundAt - 1;
         }
         if (tmpFoundAt >= myActualLength) {
             return rangeLimit;
@@ -434,23 +695,25 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
         }
     }
 
+    /**
+     * @return The indices of the stored elements in the range [first, limit), relative to first, in
+     *         increasing order
+     */
     public long[] indicesInRange(final long first, final long limit) {
 
         int tmpFirst = this.index(first);
         if (tmpFirst < 0) {
-            tmpFirst = -tmpFirst + 1;
+            tmpFirst = -tmpFirst - 1;
         }
         int tmpLimit = this.index(limit);
         if (tmpLimit < 0) {
-            tmpLimit = -tmpLimit + 1;
+            tmpLimit = -tmpLimit - 1;
         }
 
-        // return Arrays.copyOfRange(myIndices, tmpFirst, tmpLimit);
-
         final long[] retVal = new long[tmpLimit - tmpFirst];
 
         for (int i = tmpFirst; i < tmpLimit; i++) {
-            retVal[i] = myIndices[i] - first;
+            retVal[i - tmpFirst] = myIndices[i] - first;
         }
 
         return retVal;
@@ -477,12 +740,13 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
     public long limitOfRange(final long rangeFirst, final long rangeLimit) {
         int tmpFoundAt = this.index(rangeLimit - 1L);
         if (tmpFoundAt < 0) {
-            tmpFoundAt = -tmpFoundAt;
+            // The one before the insertion point - the last index smaller than rangeLimit - 1
+            tmpFoundAt = -tmpFoundAt - 2;
         }
-        if (tmpFoundAt >= myActualLength) {
+        if (tmpFoundAt < 0) {
             return rangeFirst;
         } else {
-            return Math.min(myIndices[tmpFoundAt] + 1L, rangeLimit);
+            return Math.max(myIndices[tmpFoundAt] + 1L, rangeFirst);
         }
     }
 
@@ -880,6 +1144,11 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
         return Arrays.binarySearch(myIndices, 0, myActualLength, index);
     }
 
+    @Override
+    Class<?> getComponentType() {
+        return myValues.getComponentType();
+    }
+
     @Override
     boolean isPrimitive() {
         return myValues.isPrimitive();
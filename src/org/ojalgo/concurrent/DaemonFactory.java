@@ -21,10 +21,22 @@
  */
 package org.ojalgo.concurrent;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
-final class DaemonFactory implements ThreadFactory {
+final class DaemonFactory implements ThreadFactory, ForkJoinWorkerThreadFactory {
+
+    static final class DaemonWorker extends ForkJoinWorkerThread {
+
+        DaemonWorker(final ForkJoinPool pool) {
+            super(pool);
+        }
+
+    }
+
 
     static final DaemonFactory INSTANCE = new DaemonFactory();
 
@@ -42,6 +54,17 @@ final class DaemonFactory implements ThreadFactory {
         myThreadGroup = new ThreadGroup(OJALGO_DAEMON_GROUP);
     }
 
+    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+
+        final ForkJoinWorkerThread retVal = new DaemonWorker(pool);
+
+        retVal.setName(PREFIX + myNextThreadID.getAndIncrement());
+        retVal.setDaemon(true);
+        retVal.setPriority(PRIORITY);
+
+        return retVal;
+    }
+
     public Thread newThread(final Runnable runnable) {
 
         final String tmpName = PREFIX + myNextThreadID.getAndIncrement();
@@ -1,87 +1,123 @@
-/*
- * Copyright 1997-2016 Optimatika (www.optimatika.se)
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- */
-package org.ojalgo.concurrent;
-
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-
-import org.ojalgo.OjAlgoUtils;
-import org.ojalgo.ProgrammingError;
-
-/**
- * @author apete
- */
-public abstract class DivideAndConquer extends Object {
-
-    public DivideAndConquer() {
-        super();
-    }
-
-    /**
-     * Synchronous execution - wait until it's finished.
-     *
-     * @param first The first index, in a range, to include.
-     * @param limit The first index NOT to include - last (excl.) index in a range.
-     * @param threshold
-     */
-    public final void invoke(final int first, final int limit, final int threshold) {
-        final int tmpThreshold = Math.max(1, (threshold * threshold) / (limit - first));
-        final int tmpWorkers = OjAlgoUtils.ENVIRONMENT.threads;
-        this.divide(first, limit, tmpThreshold, tmpWorkers);
-    }
-
-    protected abstract void conquer(final int first, final int limit);
-
-    final void divide(final int first, final int limit, final int threshold, final int workers) {
-
-        final int tmpCount = limit - first;
-
-        if ((tmpCount > threshold) && (workers > 1)) {
-
-            final int tmpSplit = first + (tmpCount / 2);
-            final int tmpWorkers = workers / 2;
-
-            final Future<Void> tmpFirstPart = DaemonPoolExecutor.INSTANCE.submit(() -> {
-                DivideAndConquer.this.divide(first, tmpSplit, threshold, tmpWorkers);
-                return null;
-            });
-
-            final Future<Void> tmpSecondPart = DaemonPoolExecutor.INSTANCE.submit(() -> {
-                DivideAndConquer.this.divide(tmpSplit, limit, threshold, tmpWorkers);
-                return null;
-            });
-
-            try {
-                tmpFirstPart.get();
-                tmpSecondPart.get();
-            } catch (final InterruptedException | ExecutionException exception) {
-                exception.printStackTrace();
-                throw new ProgrammingError(exception);
-            }
-
-        } else {
-
-            this.conquer(first, limit);
-        }
-    }
-
-}
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.ojalgo.OjAlgoUtils;
+
+/**
+ * Splits an index range in halves, recursively, and processes the parts in parallel. The work is executed
+ * as fork/join tasks: one half is forked, the other is computed in place, and the forking thread then helps
+ * out (work-stealing) while joining rather than blocking. The number of leaf tasks is limited by the number
+ * of available threads, and invocations nested within an ongoing fork/join computation reuse the workers of
+ * that computation instead of creating new threads.
+ * <p>
+ * The number of threads, and the executor, are determined by the {@linkplain ExecutionContext} bound to the
+ * invoking thread.
+ * </p>
+ *
+ * @author apete
+ */
+public abstract class DivideAndConquer extends Object {
+
+    static final class Divider extends RecursiveAction {
+
+        private static final long serialVersionUID = 8217120303680445096L;
+
+        private final DivideAndConquer myConquerer;
+        private final ExecutionContext myContext;
+        private final int myFirst;
+        private final int myLimit;
+        private final int myThreshold;
+        private final int myWorkers;
+
+        Divider(final ExecutionContext context, final DivideAndConquer conquerer, final int first, final int limit, final int threshold,
+                final int workers) {
+
+            super();
+
+            myContext = context;
+            myConquerer = conquerer;
+            myFirst = first;
+            myLimit = limit;
+            myThreshold = threshold;
+            myWorkers = workers;
+        }
+
+        @Override
+        protected void compute() {
+
+            final int tmpCount = myLimit - myFirst;
+
+            if ((tmpCount > myThreshold) && (myWorkers > 1)) {
+
+                final int tmpSplit = myFirst + (tmpCount / 2);
+                final int tmpWorkers = myWorkers / 2;
+
+                final Divider tmpFirstPart = new Divider(myContext, myConquerer, myFirst, tmpSplit, myThreshold, tmpWorkers);
+                final Divider tmpSecondPart = new Divider(myContext, myConquerer, tmpSplit, myLimit, myThreshold, tmpWorkers);
+
+                tmpFirstPart.fork();
+                tmpSecondPart.compute();
+                tmpFirstPart.join();
+
+            } else {
+
+                final ExecutionContext tmpPrevious = ExecutionContext.bind(myContext);
+                try {
+                    myConquerer.conquer(myFirst, myLimit);
+                } finally {
+                    ExecutionContext.restore(tmpPrevious);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The work-stealing pool used when {@linkplain DivideAndConquer} is invoked from a thread that is not
+     * already a fork/join worker, and no custom executor is specified. Its parallelism is bounded by the
+     * number of threads of the current {@linkplain OjAlgoUtils#ENVIRONMENT}.
+     */
+    static final ForkJoinPool POOL = new ForkJoinPool(OjAlgoUtils.ENVIRONMENT.threads, DaemonFactory.INSTANCE, null, false);
+
+    public DivideAndConquer() {
+        super();
+    }
+
+    /**
+     * Synchronous execution - wait until it's finished.
+     *
+     * @param first The first index, in a range, to include.
+     * @param limit The first index NOT to include - last (excl.) index in a range.
+     * @param threshold
+     */
+    public final void invoke(final int first, final int limit, final int threshold) {
+        final int tmpThreshold = Math.max(1, (threshold * threshold) / (limit - first));
+        ExecutionContext.current().execute(this, first, limit, tmpThreshold);
+    }
+
+    protected abstract void conquer(final int first, final int limit);
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.ProgrammingError;
+
+/**
+ * Controls how (with how many threads and on which {@linkplain Executor}) the multithreaded parts of ojAlgo,
+ * the matrix operations that use {@linkplain DivideAndConquer}, are executed.
+ * <p>
+ * A context is bound to the current thread with {@link #call(Supplier)} or {@link #run(Runnable)}, and is
+ * then used by everything executed within that call - including work that is forked to other threads. When
+ * no context is bound {@link #DEFAULT} is used.
+ * </p>
+ * <ul>
+ * <li>{@link #SEQUENTIAL} - everything is executed by the calling thread.</li>
+ * <li>{@link #ofThreads(int)} - a parallelism budget. Each multithreaded operation is split in at most that
+ * many parts, executed on the shared work-stealing pool.</li>
+ * <li>{@link #of(Executor, int)} - a parallelism budget and a custom executor. To strictly cap the number
+ * of cores used by a request, supply a {@linkplain ForkJoinPool} with that parallelism. Any other executor
+ * is also accepted; then the parts are submitted as separate tasks, and parts not yet started when the
+ * calling thread needs their results are executed by the calling thread itself.</li>
+ * </ul>
+ * <p>
+ * See {@linkplain OjAlgoUtils#VIRTUAL_THREAD_FRIENDLY} for how to use ojAlgo from very many (virtual)
+ * threads.
+ * </p>
+ *
+ * @author apete
+ */
+public final class ExecutionContext {
+
+    /**
+     * Use the shared work-stealing pool with as many threads as the current
+     * {@linkplain OjAlgoUtils#ENVIRONMENT} has.
+     */
+    public static final ExecutionContext DEFAULT = new ExecutionContext(null, 0);
+
+    /**
+     * Never use any other thread than the calling one.
+     */
+    public static final ExecutionContext SEQUENTIAL = new ExecutionContext(null, 1);
+
+    private static final ThreadLocal<ExecutionContext> BOUND = new ThreadLocal<>();
+
+    /**
+     * @return The context bound to the current thread, or {@link #DEFAULT} if none is bound
+     */
+    public static ExecutionContext current() {
+        final ExecutionContext retVal = BOUND.get();
+        return retVal != null ? retVal : DEFAULT;
+    }
+
+    /**
+     * @param executor The executor to use (if null the shared work-stealing pool is used)
+     * @param threads The max number of parts any one operation is split in
+     */
+    public static ExecutionContext of(final Executor executor, final int threads) {
+        return new ExecutionContext(executor, Math.max(1, threads));
+    }
+
+    /**
+     * @param threads The max number of parts any one operation is split in
+     */
+    public static ExecutionContext ofThreads(final int threads) {
+        return threads <= 1 ? SEQUENTIAL : new ExecutionContext(null, threads);
+    }
+
+    static ExecutionContext bind(final ExecutionContext context) {
+        final ExecutionContext retVal = BOUND.get();
+        if (context == DEFAULT) {
+            BOUND.remove();
+        } else {
+            BOUND.set(context);
+        }
+        return retVal;
+    }
+
+    /**
+     * Invoke the task on the pool and wait for it. A thread that is not a worker of that pool parks while
+     * waiting, when {@linkplain OjAlgoUtils#VIRTUAL_THREAD_FRIENDLY}, rather than waits on a monitor.
+     */
+    static <T> T invoke(final ForkJoinPool pool, final ForkJoinTask<T> task) {
+        if (ForkJoinTask.getPool() == pool) {
+            return task.invoke();
+        } else if (OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY) {
+            try {
+                return CompletableFuture.supplyAsync(task::invoke, pool).join();
+            } catch (final CompletionException exception) {
+                final Throwable tmpCause = exception.getCause();
+                if (tmpCause instanceof RuntimeException) {
+                    throw (RuntimeException) tmpCause;
+                } else if (tmpCause instanceof Error) {
+                    throw (Error) tmpCause;
+                } else {
+                    throw new ProgrammingError(tmpCause);
+                }
+            }
+        } else {
+            return pool.invoke(task);
+        }
+    }
+
+    static void restore(final ExecutionContext previous) {
+        if (previous == null) {
+            BOUND.remove();
+        } else {
+            BOUND.set(previous);
+        }
+    }
+
+    private final Executor myExecutor;
+    private final int myThreads;
+
+    private ExecutionContext(final Executor executor, final int threads) {
+
+        super();
+
+        myExecutor = executor;
+        myThreads = threads;
+    }
+
+    /**
+     * Bind this context to the current thread, and then call the task.
+     */
+    public <T> T call(final Supplier<T> task) {
+        final ExecutionContext tmpPrevious = ExecutionContext.bind(this);
+        try {
+            return task.get();
+        } finally {
+            ExecutionContext.restore(tmpPrevious);
+        }
+    }
+
+    /**
+     * @return The custom executor, or null if the shared work-stealing pool is to be used.
+     */
+    public Executor getExecutor() {
+        return myExecutor;
+    }
+
+    /**
+     * For computations made up of many small, interdependent, tasks that are forked as they become ready
+     * (rather than split in a fixed number of parts).
+     *
+     * @return The fork/join pool to execute such tasks on within this context, or null if they should all be
+     *         executed by the calling thread - with {@link #SEQUENTIAL}, when the custom executor is not a
+     *         {@linkplain ForkJoinPool}, or with {@link #DEFAULT} when
+     *         {@linkplain OjAlgoUtils#VIRTUAL_THREAD_FRIENDLY}.
+     */
+    public ForkJoinPool getPool() {
+        if (this.isSequential()) {
+            return null;
+        } else if (myExecutor == null) {
+            if (ForkJoinTask.inForkJoinPool()) {
+                return ForkJoinTask.getPool();
+            } else if (OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY && (this == DEFAULT)) {
+                return null;
+            } else {
+                return DivideAndConquer.POOL;
+            }
+        } else if (myExecutor instanceof ForkJoinPool) {
+            return (ForkJoinPool) myExecutor;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the task on this context's {@linkplain #getPool() pool}, and wait for it to complete.
+     *
+     * @throws ProgrammingError If this context has no pool
+     */
+    public <T> T invoke(final ForkJoinTask<T> task) {
+
+        final ForkJoinPool tmpPool = this.getPool();
+
+        if (tmpPool == null) {
+            throw new ProgrammingError("This context has no pool: " + this);
+        }
+
+        return ExecutionContext.invoke(tmpPool, task);
+    }
+
+    public boolean isSequential() {
+        return this.threads() <= 1;
+    }
+
+    /**
+     * Bind this context to the current thread, and then run the task.
+     */
+    public void run(final Runnable task) {
+        final ExecutionContext tmpPrevious = ExecutionContext.bind(this);
+        try {
+            task.run();
+        } finally {
+            ExecutionContext.restore(tmpPrevious);
+        }
+    }
+
+    /**
+     * Asynchronous execution of a (relatively large) independent task. With the {@link #SEQUENTIAL} context
+     * the task is executed immediately by the calling thread, and so it is with {@link #DEFAULT} when
+     * {@linkplain OjAlgoUtils#VIRTUAL_THREAD_FRIENDLY}. In all cases the task is executed within this
+     * context.
+     */
+    public <T> Future<T> submit(final Callable<T> task) {
+
+        final Callable<T> tmpTask = () -> {
+            final ExecutionContext tmpPrevious = ExecutionContext.bind(this);
+            try {
+                return task.call();
+            } finally {
+                ExecutionContext.restore(tmpPrevious);
+            }
+        };
+
+        if (this.isSequential() || (OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY && (this == DEFAULT))) {
+            final FutureTask<T> retVal = new FutureTask<>(tmpTask);
+            retVal.run();
+            return retVal;
+        } else if (myExecutor != null) {
+            final FutureTask<T> retVal = new FutureTask<>(tmpTask);
+            myExecutor.execute(retVal);
+            return retVal;
+        } else {
+            return DaemonPoolExecutor.invoke(tmpTask);
+        }
+    }
+
+    /**
+     * @return The max number of parts any one operation is split in
+     */
+    public int threads() {
+        return myThreads > 0 ? myThreads : OjAlgoUtils.ENVIRONMENT.threads;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionContext [threads=" + this.threads() + ", executor=" + myExecutor + "]";
+    }
+
+    void execute(final DivideAndConquer conquerer, final int first, final int limit, final int threshold) {
+
+        final int tmpWorkers = this.threads();
+        final int tmpCount = limit - first;
+
+        if (OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY && !ForkJoinTask.inForkJoinPool() && (tmpCount <= ((long) threshold * tmpWorkers))) {
+
+            // Not worth a hand-over to a pool
+            conquerer.conquer(first, limit);
+
+        } else if ((tmpCount > threshold) && (tmpWorkers > 1)) {
+
+            if (myExecutor == null) {
+
+                final DivideAndConquer.Divider tmpTask = new DivideAndConquer.Divider(this, conquerer, first, limit, threshold, tmpWorkers);
+
+                if (ForkJoinTask.inForkJoinPool()) {
+                    // Nested invocation - stay within the current pool and help out while joining
+                    tmpTask.invoke();
+                } else {
+                    ExecutionContext.invoke(DivideAndConquer.POOL, tmpTask);
+                }
+
+            } else if (myExecutor instanceof ForkJoinPool) {
+
+                final DivideAndConquer.Divider tmpTask = new DivideAndConquer.Divider(this, conquerer, first, limit, threshold, tmpWorkers);
+
+                ExecutionContext.invoke((ForkJoinPool) myExecutor, tmpTask);
+
+            } else {
+
+                this.executeInParts(conquerer, first, limit, threshold, tmpWorkers);
+            }
+
+        } else {
+
+            conquerer.conquer(first, limit);
+        }
+    }
+
+    private void executeInParts(final DivideAndConquer conquerer, final int first, final int limit, final int threshold, final int workers) {
+
+        final int tmpCount = limit - first;
+        final int tmpParts = Math.max(1, Math.min(workers, tmpCount / Math.max(1, threshold)));
+
+        final List<FutureTask<Void>> tmpTasks = new ArrayList<>(tmpParts - 1);
+
+        for (int p = 1; p < tmpParts; p++) {
+
+            final int tmpFirst = first + ((p * tmpCount) / tmpParts);
+            final int tmpLimit = first + (((p + 1) * tmpCount) / tmpParts);
+
+            final FutureTask<Void> tmpTask = new FutureTask<>(() -> {
+                final ExecutionContext tmpPrevious = ExecutionContext.bind(this);
+                try {
+                    conquerer.conquer(tmpFirst, tmpLimit);
+                } finally {
+                    ExecutionContext.restore(tmpPrevious);
+                }
+            }, null);
+
+            tmpTasks.add(tmpTask);
+            myExecutor.execute(tmpTask);
+        }
+
+        conquerer.conquer(first, first + (tmpCount / tmpParts));
+
+        try {
+            for (final FutureTask<Void> tmpTask : tmpTasks) {
+                // Does nothing if already started (by some other thread)
+                tmpTask.run();
+                tmpTask.get();
+            }
+        } catch (final InterruptedException | ExecutionException exception) {
+            throw new ProgrammingError(exception);
+        }
+    }
+
+}
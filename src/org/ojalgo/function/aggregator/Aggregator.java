@@ -23,6 +23,8 @@ package org.ojalgo.function.aggregator;
 
 import java.math.BigDecimal;
 
+import org.ojalgo.access.Access1D;
+import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -31,6 +33,58 @@ public enum Aggregator {
 
     CARDINALITY, LARGEST, MAXIMUM, MINIMUM, NORM1, NORM2, PRODUCT, PRODUCT2, SMALLEST, SUM, SUM2;
 
+    /**
+     * The number of elements aggregated by each (thread local) aggregator function in
+     * {@linkplain #aggregate(Access1D)}.
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    /**
+     * The number of blocks below which {@linkplain #aggregate(Access1D)} does not use multiple threads.
+     */
+    static final int THRESHOLD = 8;
+
+    /**
+     * Aggregates all elements, as double, in parallel. The elements are split in blocks of a fixed size,
+     * each block is aggregated separately, and then the block results are merged pairwise (a binary tree) in
+     * index order. The result does not depend on the number of threads used, or on how the work is
+     * scheduled. With {@linkplain #SUM} the pairwise merging also limits the accumulated rounding error.
+     */
+    public final double aggregate(final Access1D<?> values) {
+
+        final long tmpCount = values.count();
+        final int tmpBlocks = (int) ((tmpCount + (BLOCK_SIZE - 1)) / BLOCK_SIZE);
+
+        if (tmpBlocks <= 1) {
+            return this.aggregate(values, 0L, tmpCount);
+        }
+
+        final double[] tmpResults = new double[tmpBlocks];
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+                    final long tmpFirst = (long) b * BLOCK_SIZE;
+                    tmpResults[b] = Aggregator.this.aggregate(values, tmpFirst, Math.min(tmpFirst + BLOCK_SIZE, tmpCount));
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, tmpBlocks, THRESHOLD);
+
+        final AggregatorFunction<Double> tmpMerger = this.getPrimitiveFunction();
+        for (int tmpStride = 1; tmpStride < tmpBlocks; tmpStride *= 2) {
+            for (int b = 0; (b + tmpStride) < tmpBlocks; b += 2 * tmpStride) {
+                tmpResults[b] = tmpMerger.merge(tmpResults[b], tmpResults[b + tmpStride]);
+            }
+        }
+
+        return tmpResults[0];
+    }
+
     public final AggregatorFunction<BigDecimal> getBigFunction() {
 
         switch (this) {
@@ -318,4 +372,12 @@ public enum Aggregator {
         }
     }
 
+    private double aggregate(final Access1D<?> values, final long first, final long limit) {
+        final AggregatorFunction<Double> tmpFunction = this.getPrimitiveFunction();
+        for (long i = first; i < limit; i++) {
+            tmpFunction.invoke(values.doubleValue(i));
+        }
+        return tmpFunction.doubleValue();
+    }
+
 }
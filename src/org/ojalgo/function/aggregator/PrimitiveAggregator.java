@@ -282,11 +282,25 @@ public abstract class PrimitiveAggregator {
         protected AggregatorFunction<Double> initialValue() {
             return new AggregatorFunction<Double>() {
 
-                private double myValue = ZERO;
+                // Blue's algorithm: the squares of small, medium and big values are accumulated separately, and
+                // the small and big ones are scaled (by powers of 2) so that nothing overflows or underflows.
+                // No divisions or square roots per element.
+                private double myBig = ZERO;
+                private double myMedium = ZERO;
+                private double mySmall = ZERO;
 
                 public double doubleValue() {
-                    //return myValue; // more than 100x slower
-                    return Math.sqrt(myValue);
+                    if (myBig > ZERO) {
+                        return Math.sqrt(myBig + ((myMedium * NORM2_SCALE_BIG) * NORM2_SCALE_BIG)) / NORM2_SCALE_BIG;
+                    } else if (mySmall > ZERO) {
+                        if (myMedium > ZERO) {
+                            return Math.hypot(Math.sqrt(myMedium), Math.sqrt(mySmall) / NORM2_SCALE_SMALL);
+                        } else {
+                            return Math.sqrt(mySmall) / NORM2_SCALE_SMALL;
+                        }
+                    } else {
+                        return Math.sqrt(myMedium);
+                    }
                 }
 
                 public Double getNumber() {
@@ -298,8 +312,16 @@ public abstract class PrimitiveAggregator {
                 }
 
                 public void invoke(final double anArg) {
-                    myValue += anArg * anArg;
-                    //myValue = Math.hypot(myValue, anArg); // more than 100x slower
+                    final double tmpArg = Math.abs(anArg);
+                    if (tmpArg > NORM2_THRESHOLD_BIG) {
+                        final double tmpScaled = tmpArg * NORM2_SCALE_BIG;
+                        myBig += tmpScaled * tmpScaled;
+                    } else if (tmpArg < NORM2_THRESHOLD_SMALL) {
+                        final double tmpScaled = tmpArg * NORM2_SCALE_SMALL;
+                        mySmall += tmpScaled * tmpScaled;
+                    } else {
+                        myMedium += tmpArg * tmpArg;
+                    }
                 }
 
                 public void invoke(final Double anArg) {
@@ -315,7 +337,9 @@ public abstract class PrimitiveAggregator {
                 }
 
                 public AggregatorFunction<Double> reset() {
-                    myValue = ZERO;
+                    myBig = ZERO;
+                    myMedium = ZERO;
+                    mySmall = ZERO;
                     return this;
                 }
 
@@ -462,7 +486,14 @@ public abstract class PrimitiveAggregator {
                 }
 
                 public Double merge(final Double result1, final Double result2) {
-                    return Math.min(result1, result2);
+                    // Zero means there was nothing (nonzero) to aggregate
+                    if (result1 == ZERO) {
+                        return result2;
+                    } else if (result2 == ZERO) {
+                        return result1;
+                    } else {
+                        return Math.min(result1, result2);
+                    }
                 }
 
                 public AggregatorFunction<Double> reset() {
@@ -483,10 +514,13 @@ public abstract class PrimitiveAggregator {
         protected AggregatorFunction<Double> initialValue() {
             return new AggregatorFunction<Double>() {
 
+                // Compensated (Kahan-Babuska/Neumaier) summation - the rounding errors are accumulated
+                // separately and added at the end.
+                private double myCompensation = ZERO;
                 private double myValue = ZERO;
 
                 public double doubleValue() {
-                    return myValue;
+                    return myValue + myCompensation;
                 }
 
                 public Double getNumber() {
@@ -498,7 +532,13 @@ public abstract class PrimitiveAggregator {
                 }
 
                 public void invoke(final double anArg) {
-                    myValue += anArg;
+                    final double tmpSum = myValue + anArg;
+                    if (Math.abs(myValue) >= Math.abs(anArg)) {
+                        myCompensation += (myValue - tmpSum) + anArg;
+                    } else {
+                        myCompensation += (anArg - tmpSum) + myValue;
+                    }
+                    myValue = tmpSum;
                 }
 
                 public void invoke(final Double anArg) {
@@ -514,6 +554,7 @@ public abstract class PrimitiveAggregator {
                 }
 
                 public AggregatorFunction<Double> reset() {
+                    myCompensation = ZERO;
                     myValue = ZERO;
                     return this;
                 }
@@ -573,6 +614,22 @@ public abstract class PrimitiveAggregator {
         }
     };
 
+    /**
+     * Squares of values larger than this may overflow, and are accumulated scaled by
+     * {@linkplain #NORM2_SCALE_BIG}.
+     */
+    static final double NORM2_THRESHOLD_BIG = Math.scalb(ONE, 486);
+
+    /**
+     * Squares of values smaller than this may underflow, and are accumulated scaled by
+     * {@linkplain #NORM2_SCALE_SMALL}.
+     */
+    static final double NORM2_THRESHOLD_SMALL = Math.scalb(ONE, -511);
+
+    static final double NORM2_SCALE_BIG = Math.scalb(ONE, -538);
+
+    static final double NORM2_SCALE_SMALL = Math.scalb(ONE, 537);
+
     private static final AggregatorSet<Double> SET = new AggregatorSet<Double>() {
 
         @Override
@@ -422,6 +422,21 @@ public final class Hardware extends AbstractMachine implements Comparable<Hardwa
         return result;
     }
 
+    /**
+     * @return The size of one L1 cache unit in bytes.
+     */
+    public long getL1Cache() {
+        return myLevels[myLevels.length - 1].memory;
+    }
+
+    /**
+     * @return The size of one L2 cache unit in bytes. If no L2 cache is specified this is the same as the L1
+     *         cache.
+     */
+    public long getL2Cache() {
+        return this.isL2Specified() ? myLevels[myLevels.length - 2].memory : this.getL1Cache();
+    }
+
     public boolean isL2Specified() {
         return myLevels.length > 2;
     }
@@ -554,6 +554,7 @@ public abstract class MatrixUtils {
         FillMatchingRight.THRESHOLD = Math.min(maxValue, FillMatchingRight.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.min(maxValue, FillMatchingSingle.THRESHOLD);
         FillTransposed.THRESHOLD = Math.min(maxValue, FillTransposed.THRESHOLD);
+        GEMM.THRESHOLD = Math.min(maxValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.min(maxValue, HermitianRank2Update.THRESHOLD);
@@ -566,11 +567,14 @@ public abstract class MatrixUtils {
         MultiplyHermitianAndVector.THRESHOLD = Math.min(maxValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.min(maxValue, MultiplyLeft.THRESHOLD);
         MultiplyRight.THRESHOLD = Math.min(maxValue, MultiplyRight.THRESHOLD);
+        MultiplySparse.THRESHOLD = Math.min(maxValue, MultiplySparse.THRESHOLD);
         RotateLeft.THRESHOLD = Math.min(maxValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.min(maxValue, RotateRight.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.min(maxValue, SubstituteBackwards.THRESHOLD);
         SubstituteForwards.THRESHOLD = Math.min(maxValue, SubstituteForwards.THRESHOLD);
         SubtractScaledVector.THRESHOLD = Math.min(maxValue, SubtractScaledVector.THRESHOLD);
+        SYRK.THRESHOLD = Math.min(maxValue, SYRK.THRESHOLD);
+        TRSM.THRESHOLD = Math.min(maxValue, TRSM.THRESHOLD);
     }
 
     /**
@@ -587,6 +591,7 @@ public abstract class MatrixUtils {
         FillMatchingRight.THRESHOLD = Math.max(minValue, FillMatchingRight.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.max(minValue, FillMatchingSingle.THRESHOLD);
         FillTransposed.THRESHOLD = Math.max(minValue, FillTransposed.THRESHOLD);
+        GEMM.THRESHOLD = Math.max(minValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.max(minValue, HermitianRank2Update.THRESHOLD);
@@ -599,11 +604,14 @@ public abstract class MatrixUtils {
         MultiplyHermitianAndVector.THRESHOLD = Math.max(minValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.max(minValue, MultiplyLeft.THRESHOLD);
         MultiplyRight.THRESHOLD = Math.max(minValue, MultiplyRight.THRESHOLD);
+        MultiplySparse.THRESHOLD = Math.max(minValue, MultiplySparse.THRESHOLD);
         RotateLeft.THRESHOLD = Math.max(minValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.max(minValue, RotateRight.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.max(minValue, SubstituteBackwards.THRESHOLD);
         SubstituteForwards.THRESHOLD = Math.max(minValue, SubstituteForwards.THRESHOLD);
         SubtractScaledVector.THRESHOLD = Math.max(minValue, SubtractScaledVector.THRESHOLD);
+        SYRK.THRESHOLD = Math.max(minValue, SYRK.THRESHOLD);
+        TRSM.THRESHOLD = Math.max(minValue, TRSM.THRESHOLD);
     }
 
     public static String toString(final Access2D<?> matrix) {
@@ -22,9 +22,12 @@
 package org.ojalgo.matrix;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
+import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
@@ -41,8 +44,251 @@ import org.ojalgo.type.context.NumberContext;
  */
 public final class PrimitiveMatrix extends AbstractMatrix<Double, PrimitiveMatrix> {
 
+    /**
+     * A mutable companion to the immutable {@linkplain PrimitiveMatrix} arithmetic. A chain, such as
+     * <code>A.chain().multiply(B).add(C).multiply(s)</code>, is built once and then evaluated, as many times
+     * as needed, into a preallocated destination with {@link #supplyTo(PhysicalStore)}.
+     * <ul>
+     * <li>The operands are referenced, not copied. Mutable operands (physical stores) may be updated between
+     * evaluations.</li>
+     * <li>Consecutive elementwise steps are fused - executed in a single pass over the elements.</li>
+     * <li>The result of the last matrix multiplication is written directly to the destination. Intermediate
+     * products (there is more than one matrix multiplication in the chain) are written to work stores
+     * allocated with the first evaluation and then reused.</li>
+     * </ul>
+     * The destination must not be one of the operands, and a chain must not be evaluated by more than one
+     * thread at the time.
+     *
+     * @author apete
+     */
+    public static final class Chain {
+
+        @FunctionalInterface
+        interface Elementwise {
+
+            double invoke(double value, long row, long column);
+
+        }
+
+        static final class Segment {
+
+            final long columns;
+            final List<Elementwise> operations = new ArrayList<>();
+            final MatrixStore<Double> right;
+            final long rows;
+            PrimitiveDenseStore work = null;
+
+            Segment(final MatrixStore<Double> right, final long rows, final long columns) {
+
+                super();
+
+                this.right = right;
+                this.rows = rows;
+                this.columns = columns;
+            }
+
+            PrimitiveDenseStore getWork() {
+                if (work == null) {
+                    work = PrimitiveDenseStore.FACTORY.makeZero(rows, columns);
+                }
+                return work;
+            }
+
+        }
+
+        private static void apply(final List<Elementwise> operations, final Access2D<?> source, final PhysicalStore<Double> destination) {
+
+            final long tmpRows = destination.countRows();
+            final long tmpColumns = destination.countColumns();
+            final int tmpOperations = operations.size();
+
+            for (long j = 0L; j < tmpColumns; j++) {
+                for (long i = 0L; i < tmpRows; i++) {
+                    double tmpValue = source.doubleValue(i, j);
+                    for (int o = 0; o < tmpOperations; o++) {
+                        tmpValue = operations.get(o).invoke(tmpValue, i, j);
+                    }
+                    destination.set(i, j, tmpValue);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static MatrixStore<Double> operand(final Access2D<?> matrix) {
+            if (matrix instanceof PrimitiveMatrix) {
+                return ((PrimitiveMatrix) matrix).getStore();
+            } else if ((matrix instanceof MatrixStore) && (matrix.count() > 0L) && (matrix.get(0L) instanceof Double)) {
+                return (MatrixStore<Double>) matrix;
+            } else {
+                return MatrixStore.PRIMITIVE.makeWrapper(matrix).get();
+            }
+        }
+
+        private final MatrixStore<Double> myFirst;
+        private final List<Segment> mySegments = new ArrayList<>();
+
+        Chain(final Access2D<?> first) {
+
+            super();
+
+            myFirst = Chain.operand(first);
+            mySegments.add(new Segment(null, myFirst.countRows(), myFirst.countColumns()));
+        }
+
+        /**
+         * Elementwise addition
+         */
+        public Chain add(final Access2D<?> addend) {
+            final MatrixStore<Double> tmpAddend = this.matching(addend);
+            return this.elementwise((value, row, column) -> value + tmpAddend.doubleValue(row, column));
+        }
+
+        public Chain add(final double scalarAddend) {
+            return this.elementwise((value, row, column) -> value + scalarAddend);
+        }
+
+        public long countColumns() {
+            return this.last().columns;
+        }
+
+        public long countRows() {
+            return this.last().rows;
+        }
+
+        public Chain divide(final double scalarDivisor) {
+            return this.elementwise((value, row, column) -> value / scalarDivisor);
+        }
+
+        /**
+         * Elementwise division
+         */
+        public Chain divideElements(final Access2D<?> divisor) {
+            final MatrixStore<Double> tmpDivisor = this.matching(divisor);
+            return this.elementwise((value, row, column) -> value / tmpDivisor.doubleValue(row, column));
+        }
+
+        public Chain modify(final UnaryFunction<Double> function) {
+            return this.elementwise((value, row, column) -> function.invoke(value));
+        }
+
+        /**
+         * Matrix multiplication
+         */
+        public Chain multiply(final Access2D<?> right) {
+
+            final Segment tmpLast = this.last();
+            final MatrixStore<Double> tmpRight = Chain.operand(right);
+
+            if (tmpLast.columns != tmpRight.countRows()) {
+                throw new MatrixError("The column dimension of the left matrix does not match the row dimension of the right matrix!");
+            }
+
+            mySegments.add(new Segment(tmpRight, tmpLast.rows, tmpRight.countColumns()));
+
+            return this;
+        }
+
+        public Chain multiply(final double scalarMultiplicand) {
+            return this.elementwise((value, row, column) -> value * scalarMultiplicand);
+        }
+
+        /**
+         * Elementwise multiplication
+         */
+        public Chain multiplyElements(final Access2D<?> multiplicand) {
+            final MatrixStore<Double> tmpMultiplicand = this.matching(multiplicand);
+            return this.elementwise((value, row, column) -> value * tmpMultiplicand.doubleValue(row, column));
+        }
+
+        public Chain negate() {
+            return this.elementwise((value, row, column) -> -value);
+        }
+
+        /**
+         * Elementwise subtraction
+         */
+        public Chain subtract(final Access2D<?> subtrahend) {
+            final MatrixStore<Double> tmpSubtrahend = this.matching(subtrahend);
+            return this.elementwise((value, row, column) -> value - tmpSubtrahend.doubleValue(row, column));
+        }
+
+        public Chain subtract(final double scalarSubtrahend) {
+            return this.elementwise((value, row, column) -> value - scalarSubtrahend);
+        }
+
+        /**
+         * Evaluate the chain, and write the result to the destination.
+         */
+        public void supplyTo(final PhysicalStore<Double> destination) {
+
+            final Segment tmpLast = this.last();
+
+            if ((destination.countRows() != tmpLast.rows) || (destination.countColumns() != tmpLast.columns)) {
+                throw new MatrixError("The destination does not have the dimensions of the result!");
+            }
+
+            final int tmpLastIndex = mySegments.size() - 1;
+
+            MatrixStore<Double> tmpValue = myFirst;
+
+            for (int s = 0; s <= tmpLastIndex; s++) {
+
+                final Segment tmpSegment = mySegments.get(s);
+                final PhysicalStore<Double> tmpTarget = s == tmpLastIndex ? destination : tmpSegment.getWork();
+
+                if (tmpSegment.right != null) {
+
+                    tmpTarget.fillByMultiplying(tmpValue, tmpSegment.right);
+
+                    if (tmpSegment.operations.size() > 0) {
+                        Chain.apply(tmpSegment.operations, tmpTarget, tmpTarget);
+                    }
+
+                    tmpValue = tmpTarget;
+
+                } else if ((tmpSegment.operations.size() > 0) || (s == tmpLastIndex)) {
+
+                    // Copy the first operand (into a work store, or the destination) while applying the operations
+                    Chain.apply(tmpSegment.operations, tmpValue, tmpTarget);
+
+                    tmpValue = tmpTarget;
+                }
+            }
+        }
+
+        private Chain elementwise(final Elementwise operation) {
+            this.last().operations.add(operation);
+            return this;
+        }
+
+        private Segment last() {
+            return mySegments.get(mySegments.size() - 1);
+        }
+
+        private MatrixStore<Double> matching(final Access2D<?> operand) {
+
+            final Segment tmpLast = this.last();
+            final MatrixStore<Double> retVal = Chain.operand(operand);
+
+            if ((retVal.countRows() != tmpLast.rows) || (retVal.countColumns() != tmpLast.columns)) {
+                throw new MatrixError("Dimensions are not equal!");
+            }
+
+            return retVal;
+        }
+
+    }
+
     public static final BasicMatrix.Factory<PrimitiveMatrix> FACTORY = new MatrixFactory<>(PrimitiveMatrix.class, PrimitiveDenseStore.FACTORY);
 
+    /**
+     * @return A new {@linkplain Chain} with the supplied matrix (typically a mutable physical store) as its
+     *         first operand
+     */
+    public static Chain chain(final Access2D<?> first) {
+        return new Chain(first);
+    }
+
     public static Builder<PrimitiveMatrix> getBuilder(final int aLength) {
         return FACTORY.getBuilder(aLength);
     }
@@ -58,6 +304,13 @@ public final class PrimitiveMatrix extends AbstractMatrix<Double, PrimitiveMatri
         super(aStore);
     }
 
+    /**
+     * @return A new {@linkplain Chain} with this matrix as its first operand
+     */
+    public Chain chain() {
+        return new Chain(this);
+    }
+
     public PrimitiveMatrix enforce(final NumberContext context) {
         return this.modify(context.getPrimitiveFunction());
     }
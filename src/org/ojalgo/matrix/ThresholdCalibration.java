@@ -0,0 +1,409 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.*;
+import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Each of the matrix operations, in {@linkplain org.ojalgo.matrix.store.operation}, has a threshold that
+ * decides when to switch from sequential to multithreaded execution. The default values are reasonable, but
+ * not tuned for any particular machine. This (opt-in) utility micro-benchmarks the most important operations
+ * on the current hardware and sets the thresholds to the measured sequential/parallel crossover points.
+ * <p>
+ * Calibrating takes a while (seconds to a minute depending on the machine). The resulting profile can be
+ * stored to a file and loaded when the next JVM starts: {@link #loadOrCalibrate(File)}. A stored profile is
+ * only applied if it was created on a machine with the same architecture and number of threads.
+ * </p>
+ *
+ * @author apete
+ */
+public final class ThresholdCalibration {
+
+    static final class Calibrator {
+
+        final IntSupplier getter;
+        final int maxDim;
+        final int minDim;
+        final String name;
+        final IntConsumer setter;
+        final IntFunction<Runnable> workload;
+
+        Calibrator(final String name, final IntSupplier getter, final IntConsumer setter, final int minDim, final int maxDim,
+                final IntFunction<Runnable> workload) {
+
+            super();
+
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+            this.minDim = minDim;
+            this.maxDim = maxDim;
+            this.workload = workload;
+        }
+
+        /**
+         * Searches for the crossover point, and then restores the original threshold.
+         *
+         * @see ThresholdCalibration#crossover(int, int, IntPredicate)
+         */
+        int calibrate() {
+
+            final int tmpOriginal = getter.getAsInt();
+
+            try {
+                return ThresholdCalibration.crossover(minDim, maxDim, this::isParallelFaster);
+            } finally {
+                setter.accept(tmpOriginal);
+            }
+        }
+
+        /**
+         * Times the workload, of this size, sequentially and multithreaded.
+         */
+        boolean isParallelFaster(final int dim) {
+
+            // The threshold is used both when the stores are created and when the operations execute
+            setter.accept(dim);
+            final Runnable tmpSequentialTask = workload.apply(dim);
+            setter.accept(dim / 2);
+            final Runnable tmpParallelTask = workload.apply(dim);
+
+            long tmpSequential = Long.MAX_VALUE;
+            long tmpParallel = Long.MAX_VALUE;
+
+            // Alternate between the two, and ignore the first (warm up) round
+            for (int s = 0; s <= SAMPLES; s++) {
+
+                setter.accept(dim);
+                final long tmpSequentialSample = ThresholdCalibration.sample(tmpSequentialTask);
+                setter.accept(dim / 2);
+                final long tmpParallelSample = ThresholdCalibration.sample(tmpParallelTask);
+
+                if (s > 0) {
+                    tmpSequential = Math.min(tmpSequential, tmpSequentialSample);
+                    tmpParallel = Math.min(tmpParallel, tmpParallelSample);
+                }
+            }
+
+            if (DEBUG) {
+                BasicLogger.debug("{} dim={} sequential={}ns parallel={}ns", name, dim, tmpSequential, tmpParallel);
+            }
+
+            return tmpParallel < (GAIN * tmpSequential);
+        }
+
+    }
+
+    static boolean DEBUG = false;
+
+    private static final String ARCHITECTURE = "architecture";
+    private static final List<Calibrator> CALIBRATORS = new ArrayList<>();
+
+    /**
+     * Multithreaded execution has to be at least this much faster (ratio of the sequential time)
+     */
+    private static final double GAIN = 0.9;
+    private static final long MIN_SAMPLE_NANOS = 5_000_000L;
+    private static final int SAMPLES = 5;
+    private static final String THREADS = "threads";
+
+    static {
+
+        // Above GEMM.THRESHOLD the decompositions switch to blocked/tiled algorithms that do not use the
+        // ApplyCholesky, ApplyLU or HouseholderLeft operations - those calibrators stop at that size.
+
+        CALIBRATORS.add(new Calibrator("AggregateAll", () -> AggregateAll.THRESHOLD, t -> AggregateAll.THRESHOLD = t, 16, 2048, dim -> {
+            final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+            return () -> tmpMatrix.aggregateAll(Aggregator.SUM);
+        }));
+
+        CALIBRATORS.add(new Calibrator("ApplyCholesky", () -> ApplyCholesky.THRESHOLD, t -> ApplyCholesky.THRESHOLD = t, 16, GEMM.THRESHOLD, dim -> {
+            final PrimitiveDenseStore tmpRandom = ThresholdCalibration.makeRandom(dim, dim);
+            final MatrixStore<Double> tmpMatrix = tmpRandom.multiply(tmpRandom.transpose()).add(PrimitiveDenseStore.FACTORY.makeEye(dim, dim));
+            final Cholesky<Double> tmpDecomposition = Cholesky.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        CALIBRATORS.add(new Calibrator("ApplyLU", () -> ApplyLU.THRESHOLD, t -> ApplyLU.THRESHOLD = t, 16, GEMM.THRESHOLD, dim -> {
+            final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+            final LU<Double> tmpDecomposition = LU.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        CALIBRATORS.add(new Calibrator("FillMatchingSingle", () -> FillMatchingSingle.THRESHOLD, t -> FillMatchingSingle.THRESHOLD = t, 16, 2048,
+                dim -> {
+                    final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+                    return () -> PrimitiveDenseStore.FACTORY.copy(tmpMatrix);
+                }));
+
+        CALIBRATORS.add(new Calibrator("FillTransposed", () -> FillTransposed.THRESHOLD, t -> FillTransposed.THRESHOLD = t, 16, 2048, dim -> {
+            final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+            return () -> PrimitiveDenseStore.FACTORY.transpose(tmpMatrix);
+        }));
+
+        CALIBRATORS.add(new Calibrator("HouseholderLeft", () -> HouseholderLeft.THRESHOLD, t -> HouseholderLeft.THRESHOLD = t, 16, GEMM.THRESHOLD, dim -> {
+            final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+            final QR<Double> tmpDecomposition = QR.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        CALIBRATORS.add(new Calibrator("ModifyAll", () -> ModifyAll.THRESHOLD, t -> ModifyAll.THRESHOLD = t, 16, 2048, dim -> {
+            final PrimitiveDenseStore tmpMatrix = ThresholdCalibration.makeRandom(dim, dim);
+            return () -> tmpMatrix.modifyAll(PrimitiveFunction.NEGATE);
+        }));
+
+        CALIBRATORS.add(new Calibrator("MultiplyBoth", () -> MultiplyBoth.THRESHOLD, t -> MultiplyBoth.THRESHOLD = t, 16, 512, dim -> {
+            final MatrixStore<Double> tmpLeft = ThresholdCalibration.makeRandom(dim, dim).transpose();
+            final MatrixStore<Double> tmpRight = ThresholdCalibration.makeRandom(dim, dim).transpose();
+            final PhysicalStore<Double> tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+            return () -> tmpProduct.fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        CALIBRATORS.add(new Calibrator("MultiplyLeft", () -> MultiplyLeft.THRESHOLD, t -> MultiplyLeft.THRESHOLD = t, 16, 512, dim -> {
+            final MatrixStore<Double> tmpLeft = ThresholdCalibration.makeRandom(dim, dim).transpose();
+            final MatrixStore<Double> tmpRight = ThresholdCalibration.makeRandom(dim, dim);
+            final PhysicalStore<Double> tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+            return () -> tmpProduct.fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        CALIBRATORS.add(new Calibrator("MultiplyNeither", () -> MultiplyNeither.THRESHOLD, t -> MultiplyNeither.THRESHOLD = t, 16, 512, dim -> {
+            final MatrixStore<Double> tmpLeft = ThresholdCalibration.makeRandom(dim, dim);
+            final MatrixStore<Double> tmpRight = ThresholdCalibration.makeRandom(dim, dim);
+            final PhysicalStore<Double> tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+            return () -> tmpProduct.fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        CALIBRATORS.add(new Calibrator("MultiplyRight", () -> MultiplyRight.THRESHOLD, t -> MultiplyRight.THRESHOLD = t, 16, 512, dim -> {
+            final MatrixStore<Double> tmpLeft = ThresholdCalibration.makeRandom(dim, dim);
+            final MatrixStore<Double> tmpRight = ThresholdCalibration.makeRandom(dim, dim).transpose();
+            final PhysicalStore<Double> tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+            return () -> tmpProduct.fillByMultiplying(tmpLeft, tmpRight);
+        }));
+    }
+
+    /**
+     * Apply a (previously created) profile - set the thresholds it contains. Thresholds not contained in the
+     * profile are left unchanged.
+     */
+    public static void apply(final Properties profile) {
+        for (final Calibrator tmpCalibrator : CALIBRATORS) {
+            final String tmpValue = profile.getProperty(tmpCalibrator.name);
+            if (tmpValue != null) {
+                tmpCalibrator.setter.accept(Math.max(1, Integer.parseInt(tmpValue.trim())));
+            }
+        }
+    }
+
+    /**
+     * Calibrate all the thresholds, and set them to the new values. If the current
+     * {@linkplain OjAlgoUtils#ENVIRONMENT} is single threaded nothing is calibrated.
+     *
+     * @return The profile, the new values
+     */
+    public static Properties calibrate() {
+
+        if (OjAlgoUtils.ENVIRONMENT.threads > 1) {
+            for (final Calibrator tmpCalibrator : CALIBRATORS) {
+                tmpCalibrator.setter.accept(tmpCalibrator.calibrate());
+            }
+        }
+
+        return ThresholdCalibration.getProfile();
+    }
+
+    /**
+     * @return A profile with the current values of the thresholds
+     */
+    public static Properties getProfile() {
+
+        final Properties retVal = new Properties();
+
+        retVal.setProperty(ARCHITECTURE, OjAlgoUtils.ENVIRONMENT.architecture);
+        retVal.setProperty(THREADS, Integer.toString(OjAlgoUtils.ENVIRONMENT.threads));
+
+        for (final Calibrator tmpCalibrator : CALIBRATORS) {
+            retVal.setProperty(tmpCalibrator.name, Integer.toString(tmpCalibrator.getter.getAsInt()));
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return true if the profile was created on a machine like the current one
+     */
+    public static boolean isApplicable(final Properties profile) {
+        return OjAlgoUtils.ENVIRONMENT.architecture.equals(profile.getProperty(ARCHITECTURE))
+                && Integer.toString(OjAlgoUtils.ENVIRONMENT.threads).equals(profile.getProperty(THREADS));
+    }
+
+    /**
+     * Load a profile from file, and apply it if it is applicable to the current machine. Failing to read
+     * the file is logged, but not thrown.
+     *
+     * @return true if a profile was loaded and applied
+     */
+    public static boolean load(final File file) {
+
+        if (!file.exists()) {
+            return false;
+        }
+
+        final Properties tmpProfile = new Properties();
+
+        try (Reader tmpReader = new FileReader(file)) {
+            tmpProfile.load(tmpReader);
+        } catch (final IOException exception) {
+            BasicLogger.error(exception.getMessage());
+            return false;
+        }
+
+        if (ThresholdCalibration.isApplicable(tmpProfile)) {
+            ThresholdCalibration.apply(tmpProfile);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Typically called once when an application starts. Loads and applies a stored profile if there is one
+     * (and it is applicable to the current machine), otherwise calibrates and stores the new profile.
+     */
+    public static void loadOrCalibrate(final File file) {
+        if (!ThresholdCalibration.load(file)) {
+            ThresholdCalibration.store(ThresholdCalibration.calibrate(), file);
+        }
+    }
+
+    /**
+     * @return The names of the calibrated thresholds (the simple class names of the operations)
+     */
+    public static List<String> names() {
+        final List<String> retVal = new ArrayList<>();
+        for (final Calibrator tmpCalibrator : CALIBRATORS) {
+            retVal.add(tmpCalibrator.name);
+        }
+        return Collections.unmodifiableList(retVal);
+    }
+
+    /**
+     * Store a profile to file. Failing to do so is logged, but not thrown - the same as with
+     * {@link #load(File)}.
+     *
+     * @return true if the profile was stored
+     */
+    public static boolean store(final Properties profile, final File file) {
+        try (Writer tmpWriter = new FileWriter(file)) {
+            profile.store(tmpWriter, OjAlgoUtils.ENVIRONMENT.toString());
+            return true;
+        } catch (final IOException exception) {
+            BasicLogger.error(exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Tries increasing sizes, doubling from minDim to maxDim, until multithreaded execution is faster at 2
+     * consecutive sizes (or at the largest size). The threshold is then (between) the largest size where
+     * sequential execution was at least as fast, and the smallest size from which multithreaded execution
+     * was faster.
+     *
+     * @param parallelWins Is multithreaded execution faster at this size?
+     * @return The crossover point, or maxDim if multithreaded execution never was faster
+     */
+    static int crossover(final int minDim, final int maxDim, final IntPredicate parallelWins) {
+
+        int tmpSequentialWins = 0;
+        int tmpParallelWins = 0;
+
+        for (int tmpDim = minDim; tmpDim <= maxDim; tmpDim *= 2) {
+
+            if (parallelWins.test(tmpDim)) {
+                if (tmpParallelWins == 0) {
+                    tmpParallelWins = tmpDim;
+                }
+                // Require 2 consecutive wins, unless this is the largest size
+                if ((tmpParallelWins < tmpDim) || ((tmpDim * 2) > maxDim)) {
+                    return tmpSequentialWins > 0 ? (int) Math.sqrt(tmpSequentialWins * (double) tmpParallelWins) : tmpParallelWins / 2;
+                }
+            } else {
+                tmpSequentialWins = tmpDim;
+                tmpParallelWins = 0;
+            }
+        }
+
+        return maxDim;
+    }
+
+    static PrimitiveDenseStore makeRandom(final int rows, final int columns) {
+        return PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, new Uniform());
+    }
+
+    /**
+     * @return The average execution time, in nanoseconds, when executed repeatedly for a short while
+     */
+    static long sample(final Runnable task) {
+
+        final long tmpStart = System.nanoTime();
+        long tmpDuration;
+        int tmpRepetitions = 0;
+
+        do {
+            task.run();
+            tmpRepetitions++;
+            tmpDuration = System.nanoTime() - tmpStart;
+        } while (tmpDuration < MIN_SAMPLE_NANOS);
+
+        return tmpDuration / tmpRepetitions;
+    }
+
+    private ThresholdCalibration() {
+        super();
+    }
+
+}
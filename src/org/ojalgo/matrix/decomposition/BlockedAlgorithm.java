@@ -0,0 +1,327 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.GenerateApplyAndCopyHouseholderColumn;
+import org.ojalgo.matrix.store.operation.HouseholderLeft;
+import org.ojalgo.matrix.store.operation.SYRK;
+import org.ojalgo.matrix.store.operation.TRSM;
+import org.ojalgo.matrix.transformation.Householder;
+
+/**
+ * Blocked (right-looking) variants of the Cholesky, LU and QR algorithms for (column-major) primitive
+ * in-place data. A panel of {@linkplain #BLOCK} columns is factored with the usual column by column
+ * algorithm, and then the trailing matrix is updated all at once with level 3 operations
+ * ({@linkplain TRSM}, {@linkplain SYRK} and {@linkplain GEMM}) - that's where almost all the work is done,
+ * and that work is cache efficient and parallel. The results are the same as those of the unblocked
+ * algorithms (apart from the order in which things are summed) and stored the same way.
+ *
+ * @author apete
+ */
+abstract class BlockedAlgorithm {
+
+    /**
+     * The number of columns in each panel
+     */
+    static int BLOCK = 64;
+
+    /**
+     * Lower triangular Cholesky, [A] = [L][L]<sup>T</sup>. Only the lower triangular part is referenced and
+     * overwritten.
+     *
+     * @return true if the matrix is positive definite (and the decomposition completed)
+     */
+    static boolean cholesky(final double[] data, final int dim) {
+
+        final int tmpBlock = BLOCK;
+
+        for (int k = 0; k < dim; k += tmpBlock) {
+
+            final int tmpPanel = Math.min(tmpBlock, dim - k);
+            final int tmpDiagonal = k + (k * dim);
+
+            if (!BlockedAlgorithm.cholesky(data, tmpDiagonal, dim, tmpPanel)) {
+                return false;
+            }
+
+            final int tmpRemaining = dim - k - tmpPanel;
+
+            if (tmpRemaining > 0) {
+
+                // [L21] = [A21][L11]^-T
+                TRSM.invokeRightLowerTransposed(data, tmpDiagonal, dim, false, data, tmpDiagonal + tmpPanel, dim, tmpRemaining, tmpPanel);
+
+                // [A22] -= [L21][L21]^T
+                SYRK.subtract(data, tmpDiagonal + tmpPanel + (tmpPanel * dim), dim, data, tmpDiagonal + tmpPanel, dim, tmpRemaining, tmpPanel);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Unblocked Cholesky of a (diagonal) dim x dim sub-matrix
+     */
+    static boolean cholesky(final double[] data, final int offset, final int rowDim, final int dim) {
+
+        for (int j = 0; j < dim; j++) {
+
+            final int tmpColumn = offset + (j * rowDim);
+            final double tmpDiagonal = data[tmpColumn + j];
+
+            if (tmpDiagonal > PrimitiveMath.ZERO) {
+
+                final double tmpSqrt = Math.sqrt(tmpDiagonal);
+                data[tmpColumn + j] = tmpSqrt;
+
+                for (int i = j + 1; i < dim; i++) {
+                    data[tmpColumn + i] /= tmpSqrt;
+                }
+
+                for (int c = j + 1; c < dim; c++) {
+                    final int tmpUpdated = offset + (c * rowDim);
+                    final double tmpMultiplier = data[tmpColumn + c];
+                    for (int i = c; i < dim; i++) {
+                        data[tmpUpdated + i] -= tmpMultiplier * data[tmpColumn + i];
+                    }
+                }
+
+            } else {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * [P][A] = [L][U] with unit lower triangular [L] and upper triangular [U] stored in place of [A]. With
+     * partial pivoting the row exchanges are recorded in the pivot.
+     */
+    static void lu(final double[] data, final int rows, final int columns, final Pivot pivot, final boolean pivoting) {
+
+        final int tmpBlock = BLOCK;
+        final int tmpMinDim = Math.min(rows, columns);
+
+        for (int k = 0; k < tmpMinDim; k += tmpBlock) {
+
+            final int tmpPanel = Math.min(tmpBlock, tmpMinDim - k);
+            final int tmpPanelLimit = k + tmpPanel;
+
+            for (int j = k; j < tmpPanelLimit; j++) {
+
+                final int tmpColumn = j * rows;
+
+                if (pivoting) {
+
+                    int tmpPivotRow = j;
+                    double tmpLargest = PrimitiveMath.ZERO;
+                    for (int i = j; i < rows; i++) {
+                        final double tmpValue = Math.abs(data[tmpColumn + i]);
+                        if (tmpValue > tmpLargest) {
+                            tmpLargest = tmpValue;
+                            tmpPivotRow = i;
+                        }
+                    }
+
+                    if (tmpPivotRow != j) {
+                        for (int c = 0; c < columns; c++) {
+                            final int tmpOffset = c * rows;
+                            final double tmpValue = data[tmpOffset + tmpPivotRow];
+                            data[tmpOffset + tmpPivotRow] = data[tmpOffset + j];
+                            data[tmpOffset + j] = tmpValue;
+                        }
+                        pivot.change(tmpPivotRow, j);
+                    }
+                }
+
+                final double tmpDiagonal = data[tmpColumn + j];
+
+                if (tmpDiagonal != PrimitiveMath.ZERO) {
+
+                    for (int i = j + 1; i < rows; i++) {
+                        data[tmpColumn + i] /= tmpDiagonal;
+                    }
+
+                    for (int c = j + 1; c < tmpPanelLimit; c++) {
+                        final int tmpUpdated = c * rows;
+                        final double tmpMultiplier = data[tmpUpdated + j];
+                        for (int i = j + 1; i < rows; i++) {
+                            data[tmpUpdated + i] -= tmpMultiplier * data[tmpColumn + i];
+                        }
+                    }
+
+                } else {
+
+                    data[tmpColumn + j] = PrimitiveMath.ZERO;
+                }
+            }
+
+            final int tmpRemainingColumns = columns - tmpPanelLimit;
+
+            if (tmpRemainingColumns > 0) {
+
+                final int tmpDiagonal = k + (k * rows);
+                final int tmpRight = tmpDiagonal + (tmpPanel * rows);
+
+                // [U12] = [L11]^-1 [A12]
+                TRSM.invokeLeftLower(data, tmpDiagonal, rows, true, data, tmpRight, rows, tmpPanel, tmpRemainingColumns);
+
+                final int tmpRemainingRows = rows - tmpPanelLimit;
+
+                if (tmpRemainingRows > 0) {
+                    // [A22] -= [L21][U12]
+                    GEMM.subtract(data, tmpRight + tmpPanel, rows, data, tmpDiagonal + tmpPanel, rows, data, tmpRight, rows, tmpRemainingRows, tmpPanel,
+                            tmpRemainingColumns);
+                }
+            }
+        }
+    }
+
+    /**
+     * [A] = [Q][R] with the Householder vectors stored below the diagonal (the same way as
+     * {@linkplain QRDecomposition} does it). The Householder transformations of a panel are accumulated to a
+     * block reflector, [I] - [V][T][V]<sup>T</sup>, that is then applied to the trailing columns.
+     */
+    static void qr(final double[] data, final int rows, final int columns) {
+
+        final int tmpBlock = BLOCK;
+        final int tmpLimit = Math.min(rows, columns);
+
+        final Householder.Primitive tmpHouseholder = new Householder.Primitive(rows);
+        final double[] tmpBeta = new double[tmpBlock];
+
+        for (int k = 0; k < tmpLimit; k += tmpBlock) {
+
+            final int tmpPanel = Math.min(tmpBlock, tmpLimit - k);
+            final int tmpPanelLimit = k + tmpPanel;
+
+            for (int j = k; j < tmpPanelLimit; j++) {
+                if (((j + 1) < rows) && GenerateApplyAndCopyHouseholderColumn.invoke(data, rows, j, j, tmpHouseholder)) {
+                    HouseholderLeft.invoke(data, rows, j + 1, tmpPanelLimit, tmpHouseholder);
+                    tmpBeta[j - k] = tmpHouseholder.beta;
+                } else {
+                    tmpBeta[j - k] = PrimitiveMath.ZERO;
+                }
+            }
+
+            final int tmpRemainingColumns = columns - tmpPanelLimit;
+
+            if (tmpRemainingColumns > 0) {
+                BlockedAlgorithm.reflect(data, k + (k * rows), rows, rows - k, tmpPanel, tmpBeta, data, k + (tmpPanelLimit * rows), rows, tmpRemainingColumns,
+                        true);
+            }
+        }
+    }
+
+    /**
+     * Applies the block reflector, [I] - [V][T][V]<sup>T</sup>, or its transpose, made up of count Householder
+     * vectors to the target columns. The vectors and the target may be (parts of) the same array or not.
+     *
+     * @param vectors The Householder vectors, starting at the first (unit) diagonal element
+     * @param rows The number of rows of [V] (and of the target)
+     * @param target The first target element - on the same row as the first diagonal element of [V]
+     * @param transpose true to apply [I] - [V][T]<sup>T</sup>[V]<sup>T</sup> = [H<sub>count-1</sub>]...[H
+     *        <sub>0</sub>], as when calculating [Q]<sup>T</sup>[A], and false to apply [H<sub>0</sub>]...[H
+     *        <sub>count-1</sub>]
+     */
+    static void reflect(final double[] vectors, final int vectorsOffset, final int vectorsRowDim, final int rows, final int count, final double[] beta,
+            final double[] target, final int targetOffset, final int targetRowDim, final int columns, final boolean transpose) {
+
+        final int tmpRows = rows;
+
+        // [V] explicitly, with the unit diagonal, and its transpose
+        final double[] tmpV = new double[tmpRows * count];
+        final double[] tmpVt = new double[count * tmpRows];
+        for (int j = 0; j < count; j++) {
+            final int tmpColumn = vectorsOffset + (j * vectorsRowDim);
+            tmpV[j + (j * tmpRows)] = PrimitiveMath.ONE;
+            tmpVt[j + (j * count)] = PrimitiveMath.ONE;
+            for (int i = j + 1; i < tmpRows; i++) {
+                tmpVt[j + (i * count)] = tmpV[i + (j * tmpRows)] = vectors[tmpColumn + i];
+            }
+        }
+
+        // [T] upper triangular, column by column: T(0:j,j) = -beta(j) T(0:j,0:j) V(:,0:j)^T v(j)
+        final double[] tmpT = new double[count * count];
+        final double[] tmpWork = new double[count];
+        for (int j = 0; j < count; j++) {
+            final double tmpBeta = beta[j];
+            tmpT[j + (j * count)] = tmpBeta;
+            if (tmpBeta != PrimitiveMath.ZERO) {
+                final int tmpVectorJ = j * tmpRows;
+                for (int p = 0; p < j; p++) {
+                    final int tmpVectorP = p * tmpRows;
+                    double tmpDot = PrimitiveMath.ZERO;
+                    for (int i = j; i < tmpRows; i++) {
+                        tmpDot += tmpV[tmpVectorP + i] * tmpV[tmpVectorJ + i];
+                    }
+                    tmpWork[p] = tmpDot;
+                }
+                for (int p = 0; p < j; p++) {
+                    double tmpSum = PrimitiveMath.ZERO;
+                    for (int q = p; q < j; q++) {
+                        tmpSum += tmpT[p + (q * count)] * tmpWork[q];
+                    }
+                    tmpT[p + (j * count)] = -tmpBeta * tmpSum;
+                }
+            }
+        }
+
+        // [W] = [V]^T [C]
+        final double[] tmpW = new double[count * columns];
+        GEMM.invoke(tmpW, 0, count, tmpVt, 0, count, target, targetOffset, targetRowDim, count, tmpRows, columns);
+
+        if (transpose) {
+            // [W] = [T]^T [W]
+            for (int c = 0; c < columns; c++) {
+                final int tmpColumn = c * count;
+                for (int i = count - 1; i >= 0; i--) {
+                    double tmpSum = PrimitiveMath.ZERO;
+                    for (int q = 0; q <= i; q++) {
+                        tmpSum += tmpT[q + (i * count)] * tmpW[tmpColumn + q];
+                    }
+                    tmpW[tmpColumn + i] = tmpSum;
+                }
+            }
+        } else {
+            // [W] = [T] [W]
+            for (int c = 0; c < columns; c++) {
+                final int tmpColumn = c * count;
+                for (int i = 0; i < count; i++) {
+                    double tmpSum = PrimitiveMath.ZERO;
+                    for (int q = i; q < count; q++) {
+                        tmpSum += tmpT[i + (q * count)] * tmpW[tmpColumn + q];
+                    }
+                    tmpW[tmpColumn + i] = tmpSum;
+                }
+            }
+        }
+
+        // [C] -= [V][W]
+        GEMM.subtract(target, targetOffset, targetRowDim, tmpV, 0, tmpRows, tmpW, 0, count, tmpRows, count, columns);
+    }
+
+}
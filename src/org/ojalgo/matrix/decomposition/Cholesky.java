@@ -26,6 +26,7 @@ import java.math.BigDecimal;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.array.BasicArray;
 import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.BufferDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.scalar.ComplexNumber;
 
@@ -58,13 +59,21 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
     public static final Factory<ComplexNumber> COMPLEX = typical -> new CholeskyDecomposition.Complex();
 
     public static final Factory<Double> PRIMITIVE = typical -> {
-        if ((32L < typical.countColumns()) && (typical.count() <= BasicArray.MAX_ARRAY_SIZE)) {
+        if (typical instanceof BufferDenseStore) {
+            return new OutOfCoreCholesky();
+        } else if ((32L < typical.countColumns()) && (typical.count() <= BasicArray.MAX_ARRAY_SIZE)) {
             return new CholeskyDecomposition.Primitive();
         } else {
             return new RawCholesky();
         }
     };
 
+    /**
+     * Always a {@linkplain SparseCholesky} - for sparse matrices regardless of what the typical matrix is.
+     * {@linkplain #PRIMITIVE} never returns it, you have to ask for it explicitly.
+     */
+    public static final Factory<Double> SPARSE = typical -> new SparseCholesky();
+
     @SuppressWarnings("unchecked")
     public static <N extends Number> Cholesky<N> make(final Access2D<N> typical) {
 
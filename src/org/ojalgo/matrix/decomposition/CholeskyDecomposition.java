@@ -35,6 +35,7 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.ElementsSupplier;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
 import org.ojalgo.matrix.task.TaskException;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
@@ -63,6 +64,17 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
             super(PrimitiveDenseStore.FACTORY);
         }
 
+        @Override
+        boolean factorise(final DecompositionStore<Double> inPlace) {
+            if (this.getMinDim() <= GEMM.THRESHOLD) {
+                return super.factorise(inPlace);
+            } else if (TiledAlgorithm.isPreferred(this.getMinDim())) {
+                return TiledAlgorithm.cholesky(((PrimitiveDenseStore) inPlace).data, this.getRowDim());
+            } else {
+                return BlockedAlgorithm.cholesky(((PrimitiveDenseStore) inPlace).data, this.getRowDim());
+            }
+        }
+
     }
 
     private boolean mySPD = false;
@@ -229,34 +241,51 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
 
         final int tmpRowDim = this.getRowDim();
         final int tmpColDim = this.getColDim();
-        final int tmpMinDim = Math.min(tmpRowDim, tmpColDim);
 
         // true if (Hermitian) Positive Definite
         boolean tmpPositiveDefinite = tmpRowDim == tmpColDim;
 
-        final BasicArray<N> tmpMultipliers = this.makeArray(tmpRowDim);
-
         // Check if hermitian, maybe
         if (tmpPositiveDefinite && checkHermitian) {
             tmpPositiveDefinite &= MatrixUtils.isHermitian(tmpInPlace);
         }
 
+        if (tmpPositiveDefinite) {
+            tmpPositiveDefinite = this.factorise(tmpInPlace);
+        }
+
+        return this.computed(mySPD = tmpPositiveDefinite);
+    }
+
+    /**
+     * The (unblocked) column by column algorithm
+     *
+     * @return true if positive definite
+     */
+    boolean factorise(final DecompositionStore<N> inPlace) {
+
+        boolean tmpPositiveDefinite = true;
+
+        final int tmpMinDim = this.getMinDim();
+
+        final BasicArray<N> tmpMultipliers = this.makeArray(this.getRowDim());
+
         final UnaryFunction<N> tmpSqrtFunc = this.function().sqrt();
 
         // Main loop - along the diagonal
         for (int ij = 0; tmpPositiveDefinite && (ij < tmpMinDim); ij++) {
 
             // Do the calculations...
-            if (tmpInPlace.doubleValue(ij, ij) > PrimitiveMath.ZERO) {
+            if (inPlace.doubleValue(ij, ij) > PrimitiveMath.ZERO) {
 
-                tmpInPlace.modifyOne(ij, ij, tmpSqrtFunc);
+                inPlace.modifyOne(ij, ij, tmpSqrtFunc);
 
                 // Calculate multipliers and copy to local column
                 // Current column, below the diagonal
-                tmpInPlace.divideAndCopyColumn(ij, ij, tmpMultipliers);
+                inPlace.divideAndCopyColumn(ij, ij, tmpMultipliers);
 
                 // Remaining columns, below the diagonal
-                tmpInPlace.applyCholesky(ij, tmpMultipliers);
+                inPlace.applyCholesky(ij, tmpMultipliers);
 
             } else {
 
@@ -264,7 +293,7 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
             }
         }
 
-        return this.computed(mySPD = tmpPositiveDefinite);
+        return tmpPositiveDefinite;
     }
 
 }
@@ -70,6 +70,12 @@ public interface LU<N extends Number> extends LDU<N> {
         }
     };
 
+    /**
+     * Always a {@linkplain SparseLU} - it only handles square matrices, and is therefore not what
+     * {@linkplain #PRIMITIVE} returns for sparse matrices.
+     */
+    public static final Factory<Double> SPARSE = typical -> new SparseLU();
+
     @SuppressWarnings("unchecked")
     public static <N extends Number> LU<N> make(final Access2D<N> typical) {
 
@@ -36,6 +36,7 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.ElementsSupplier;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
 import org.ojalgo.matrix.task.TaskException;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
@@ -64,6 +65,17 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
             super(PrimitiveDenseStore.FACTORY);
         }
 
+        @Override
+        void factorise(final DecompositionStore<Double> inPlace, final Pivot pivot, final boolean pivoting) {
+            if (this.getMinDim() <= GEMM.THRESHOLD) {
+                super.factorise(inPlace, pivot, pivoting);
+            } else if (TiledAlgorithm.isPreferred(this.getMinDim())) {
+                TiledAlgorithm.lu(((PrimitiveDenseStore) inPlace).data, this.getRowDim(), this.getColDim(), pivot, pivoting);
+            } else {
+                BlockedAlgorithm.lu(((PrimitiveDenseStore) inPlace).data, this.getRowDim(), this.getColDim(), pivot, pivoting);
+            }
+        }
+
     }
 
     private Pivot myPivot;
@@ -278,47 +290,53 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
         final DecompositionStore<N> tmpInPlace = this.setInPlace(aStore);
 
-        final int tmpRowDim = this.getRowDim();
-        this.getColDim();
-        final int tmpMinDim = this.getMinDim();
+        myPivot = new Pivot(this.getRowDim());
 
-        myPivot = new Pivot(tmpRowDim);
+        this.factorise(tmpInPlace, myPivot, !assumeNoPivotingRequired);
 
-        final BasicArray<N> tmpMultipliers = this.makeArray(tmpRowDim);
+        return this.computed(true);
+    }
+
+    /**
+     * The (unblocked) column by column algorithm
+     */
+    void factorise(final DecompositionStore<N> inPlace, final Pivot pivot, final boolean pivoting) {
+
+        final int tmpMinDim = this.getMinDim();
+
+        final BasicArray<N> tmpMultipliers = this.makeArray(this.getRowDim());
 
         // Main loop - along the diagonal
         for (int ij = 0; ij < tmpMinDim; ij++) {
 
-            if (!assumeNoPivotingRequired) {
+            if (pivoting) {
                 // Find next pivot row
-                final int tmpPivotRow = tmpInPlace.indexOfLargestInColumn(ij, ij);
+                final int tmpPivotRow = inPlace.indexOfLargestInColumn(ij, ij);
 
                 // Pivot?
                 if (tmpPivotRow != ij) {
-                    tmpInPlace.exchangeRows(tmpPivotRow, ij);
-                    myPivot.change(tmpPivotRow, ij);
+                    inPlace.exchangeRows(tmpPivotRow, ij);
+                    pivot.change(tmpPivotRow, ij);
                 }
             }
 
             // Do the calculations...
-            // if (!tmpInPlace.isZero(ij, ij)) {
-            if (tmpInPlace.doubleValue(ij, ij) != PrimitiveMath.ZERO) {
+            // if (!inPlace.isZero(ij, ij)) {
+            if (inPlace.doubleValue(ij, ij) != PrimitiveMath.ZERO) {
 
                 // Calculate multipliers and copy to local column
                 // Current column, below the diagonal
-                tmpInPlace.divideAndCopyColumn(ij, ij, tmpMultipliers);
+                inPlace.divideAndCopyColumn(ij, ij, tmpMultipliers);
 
                 // Apply transformations to everything below and to the right of the pivot element
-                tmpInPlace.applyLU(ij, tmpMultipliers);
+                inPlace.applyLU(ij, tmpMultipliers);
 
             } else {
 
-                tmpInPlace.set(ij, ij, ZERO);
+                inPlace.set(ij, ij, ZERO);
             }
 
         }
-
-        return this.computed(true);
     }
 
     int[] getReducedPivots() {
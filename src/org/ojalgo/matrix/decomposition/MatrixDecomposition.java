@@ -23,6 +23,7 @@ package org.ojalgo.matrix.decomposition;
 
 import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Structure2D;
+import org.ojalgo.concurrent.ExecutionContext;
 import org.ojalgo.matrix.BasicMatrix;
 import org.ojalgo.matrix.MatrixUtils;
 import org.ojalgo.matrix.store.ElementsSupplier;
@@ -243,6 +244,18 @@ public interface MatrixDecomposition<N extends Number> {
      */
     boolean decompose(ElementsSupplier<N> matrix);
 
+    /**
+     * Same as {@link #decompose(ElementsSupplier)} but with any multithreaded processing done within the
+     * specified execution context.
+     *
+     * @param matrix A matrix to decompose
+     * @param context The execution context to use
+     * @return true if the computation suceeded; false if not
+     */
+    default boolean decompose(final ElementsSupplier<N> matrix, final ExecutionContext context) {
+        return context.call(() -> this.decompose(matrix));
+    }
+
     boolean equals(MatrixStore<N> other, NumberContext context);
 
     /**
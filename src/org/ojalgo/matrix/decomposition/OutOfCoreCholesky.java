@@ -0,0 +1,323 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.BufferDenseStore;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.TRSM;
+import org.ojalgo.matrix.task.TaskException;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Cholesky decomposition of matrices that do not fit on the heap - the matrix, and then the factor, is kept
+ * in a {@linkplain BufferDenseStore} (direct buffers or a memory-mapped file) and only panels of columns,
+ * limited to {@linkplain BufferDenseStore#PANEL_SIZE} elements, are copied to the heap.
+ * <p>
+ * The algorithm is left-looking: each panel is loaded once, updated with all the previous panels of [L]
+ * (streamed through with a {@linkplain BufferDenseStore.ReadAhead}, so the next one is read while the
+ * current one is multiplied), factored and then written back. The solves stream the panels of [L] the same
+ * way, forwards and then backwards. The right hand sides and solutions are ordinary (heap) stores.
+ * </p>
+ *
+ * @author apete
+ */
+public final class OutOfCoreCholesky extends AbstractDecomposition<Double> implements Cholesky<Double> {
+
+    static int getPanelWidth(final int rows) {
+        return Math.max(1, Math.min(rows, BufferDenseStore.PANEL_SIZE / Math.max(1, rows)));
+    }
+
+    private final File myFile;
+    private BufferDenseStore myL = null;
+    private boolean mySPD = false;
+
+    /**
+     * The matrix is copied to direct buffers
+     */
+    public OutOfCoreCholesky() {
+        this(null);
+    }
+
+    /**
+     * @param file The matrix is copied to this (memory-mapped) file, and the factor is then stored there
+     */
+    public OutOfCoreCholesky(final File file) {
+
+        super();
+
+        myFile = file;
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(matrix));
+        return this.getDeterminant();
+    }
+
+    @Override
+    public boolean checkAndCompute(final MatrixStore<Double> matrix) {
+        this.reset();
+        return MatrixUtils.isHermitian(matrix) && this.decompose(matrix);
+    }
+
+    public boolean decompose(final ElementsSupplier<Double> matrix) {
+
+        final long tmpDim = matrix.countRows();
+
+        final BufferDenseStore tmpStore = myFile != null ? BufferDenseStore.map(myFile, tmpDim, tmpDim) : BufferDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+        matrix.supplyTo(tmpStore);
+
+        return this.decomposeInPlace(tmpStore);
+    }
+
+    /**
+     * Factors the matrix in place - its lower triangular part is overwritten with [L], and the upper
+     * triangular part of its diagonal blocks is overwritten with intermediate results.
+     *
+     * @return true if the matrix is positive definite (and the decomposition completed)
+     */
+    public boolean decomposeInPlace(final BufferDenseStore matrix) {
+
+        this.reset();
+
+        if (matrix.countRows() != matrix.countColumns()) {
+            return this.computed(false);
+        }
+
+        final int tmpDim = (int) matrix.countRows();
+        final int tmpWidth = OutOfCoreCholesky.getPanelWidth(tmpDim);
+
+        final double[] tmpPanel = new double[tmpDim * tmpWidth];
+        final double[] tmpTransposed = new double[tmpWidth * tmpWidth];
+        final double[] tmpDiagonal = new double[tmpWidth * tmpWidth];
+
+        boolean tmpPositiveDefinite = true;
+
+        for (int j = 0; tmpPositiveDefinite && (j < tmpDim); j += tmpWidth) {
+
+            final int tmpRows = tmpDim - j;
+            final int tmpColumns = Math.min(tmpWidth, tmpRows);
+
+            matrix.copy(j, tmpRows, j, tmpColumns, tmpPanel);
+
+            // [A] -= [L][L]^T with all the previous panels of [L], limited to the rows of this panel
+            final BufferDenseStore.ReadAhead tmpReader = matrix.readAhead(j, tmpRows, 0, j, tmpWidth, false);
+            while (tmpReader.next()) {
+
+                final double[] tmpPrevious = tmpReader.data();
+                final int tmpDepth = tmpReader.columns();
+
+                for (int c = 0; c < tmpColumns; c++) {
+                    for (int k = 0; k < tmpDepth; k++) {
+                        tmpTransposed[k + (c * tmpDepth)] = tmpPrevious[c + (k * tmpRows)];
+                    }
+                }
+
+                GEMM.subtract(tmpPanel, 0, tmpRows, tmpPrevious, 0, tmpRows, tmpTransposed, 0, tmpDepth, tmpRows, tmpDepth, tmpColumns);
+            }
+
+            // The diagonal block with the in-core (blocked) algorithm
+            for (int c = 0; c < tmpColumns; c++) {
+                System.arraycopy(tmpPanel, c * tmpRows, tmpDiagonal, c * tmpColumns, tmpColumns);
+            }
+            tmpPositiveDefinite = BlockedAlgorithm.cholesky(tmpDiagonal, tmpColumns);
+            for (int c = 0; c < tmpColumns; c++) {
+                System.arraycopy(tmpDiagonal, c * tmpColumns, tmpPanel, c * tmpRows, tmpColumns);
+            }
+
+            if (tmpPositiveDefinite) {
+
+                if (tmpRows > tmpColumns) {
+                    TRSM.invokeRightLowerTransposed(tmpPanel, 0, tmpRows, false, tmpPanel, tmpColumns, tmpRows, tmpRows - tmpColumns, tmpColumns);
+                }
+
+                matrix.paste(j, tmpRows, j, tmpColumns, tmpPanel);
+            }
+        }
+
+        mySPD = tmpPositiveDefinite;
+        myL = tmpPositiveDefinite ? matrix : null;
+
+        return this.computed(tmpPositiveDefinite);
+    }
+
+    public boolean equals(final MatrixStore<Double> other, final NumberContext context) {
+        return MatrixUtils.equals(other, this, context);
+    }
+
+    public Double getDeterminant() {
+
+        double retVal = PrimitiveMath.ONE;
+
+        for (long ij = 0L, tmpDim = myL.countRows(); ij < tmpDim; ij++) {
+            final double tmpDiagonal = myL.doubleValue(ij, ij);
+            retVal *= tmpDiagonal * tmpDiagonal;
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        final long tmpDim = myL.countRows();
+        return this.getInverse(this.allocate(tmpDim, tmpDim));
+    }
+
+    public MatrixStore<Double> getInverse(final DecompositionStore<Double> preallocated) {
+
+        final PrimitiveDenseStore tmpInverse = (PrimitiveDenseStore) preallocated;
+        final int tmpDim = (int) myL.countRows();
+
+        Arrays.fill(tmpInverse.data, PrimitiveMath.ZERO);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpInverse.data[i + (i * tmpDim)] = PrimitiveMath.ONE;
+        }
+
+        return this.doSolve(tmpInverse);
+    }
+
+    /**
+     * @return A lower triangular view of the (buffer backed) store containing [L]
+     */
+    public MatrixStore<Double> getL() {
+        return myL.logical().triangular(false, false).get();
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw TaskException.newNotInvertible();
+        }
+    }
+
+    public boolean isSolvable() {
+        return this.isComputed() && mySPD;
+    }
+
+    public boolean isSPD() {
+        return mySPD;
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateRHS.countRows(), templateRHS.countColumns());
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myL = null;
+        mySPD = false;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(body));
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.doSolve((PrimitiveDenseStore) preallocated);
+        } else {
+            throw TaskException.newNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs) {
+        return this.solve(rhs, this.allocate(rhs.countRows(), rhs.countColumns()));
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs, final DecompositionStore<Double> preallocated) {
+        rhs.supplyTo(preallocated);
+        return this.doSolve((PrimitiveDenseStore) preallocated);
+    }
+
+    private PrimitiveDenseStore doSolve(final PrimitiveDenseStore preallocated) {
+
+        final double[] tmpData = preallocated.data;
+        final int tmpDim = (int) myL.countRows();
+        final int tmpColumns = (int) preallocated.countColumns();
+        final int tmpWidth = OutOfCoreCholesky.getPanelWidth(tmpDim);
+
+        // [L][Y] = [B]
+        final BufferDenseStore.ReadAhead tmpForwards = myL.readAhead(0, tmpDim, 0, tmpDim, tmpWidth, false);
+        while (tmpForwards.next()) {
+
+            final double[] tmpPanel = tmpForwards.data();
+            final int tmpFirst = tmpForwards.column();
+            final int tmpCount = tmpForwards.columns();
+            final int tmpBelow = tmpFirst + tmpCount;
+
+            TRSM.invokeLeftLower(tmpPanel, tmpFirst, tmpDim, false, tmpData, tmpFirst, tmpDim, tmpCount, tmpColumns);
+
+            if (tmpBelow < tmpDim) {
+                GEMM.subtract(tmpData, tmpBelow, tmpDim, tmpPanel, tmpBelow, tmpDim, tmpData, tmpFirst, tmpDim, tmpDim - tmpBelow, tmpCount, tmpColumns);
+            }
+        }
+
+        // [L]<sup>T</sup>[X] = [Y]
+        final BufferDenseStore.ReadAhead tmpBackwards = myL.readAhead(0, tmpDim, 0, tmpDim, tmpWidth, true);
+        while (tmpBackwards.next()) {
+
+            final double[] tmpPanel = tmpBackwards.data();
+            final int tmpFirst = tmpBackwards.column();
+
+            for (int c = tmpBackwards.columns() - 1; c >= 0; c--) {
+                final int tmpRow = tmpFirst + c;
+                final int tmpColumn = c * tmpDim;
+                final double tmpDiagonal = tmpPanel[tmpRow + tmpColumn];
+                for (int s = 0; s < tmpColumns; s++) {
+                    final int tmpSolution = s * tmpDim;
+                    double tmpValue = tmpData[tmpRow + tmpSolution];
+                    for (int i = tmpRow + 1; i < tmpDim; i++) {
+                        tmpValue -= tmpPanel[i + tmpColumn] * tmpData[i + tmpSolution];
+                    }
+                    tmpData[tmpRow + tmpSolution] = tmpValue / tmpDiagonal;
+                }
+            }
+        }
+
+        return preallocated;
+    }
+
+    @Override
+    protected PrimitiveDenseStore allocate(final long numberOfRows, final long numberOfColumns) {
+        return PrimitiveDenseStore.FACTORY.makeZero(numberOfRows, numberOfColumns);
+    }
+
+}
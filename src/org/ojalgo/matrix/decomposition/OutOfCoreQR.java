@@ -0,0 +1,372 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.BufferDenseStore;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GenerateApplyAndCopyHouseholderColumn;
+import org.ojalgo.matrix.store.operation.HouseholderLeft;
+import org.ojalgo.matrix.task.TaskException;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * QR decomposition of matrices that do not fit on the heap - the matrix, and then [R] and the Householder
+ * vectors, is kept in a {@linkplain BufferDenseStore} (direct buffers or a memory-mapped file) and only
+ * panels of columns, limited to {@linkplain BufferDenseStore#PANEL_SIZE} elements, are copied to the heap.
+ * <p>
+ * The algorithm is left-looking: each panel is loaded once, has the block reflectors of all the previous
+ * panels applied to it (streamed through with a {@linkplain BufferDenseStore.ReadAhead}, so the next one is
+ * read while the current one is applied), is factored the same way as in the in-core blocked algorithm and
+ * is then written back. The Householder vectors are stored below the diagonal, the same way as
+ * {@linkplain QRDecomposition} does it, and only the beta values are kept on the heap.
+ * </p>
+ *
+ * @author apete
+ */
+public final class OutOfCoreQR extends AbstractDecomposition<Double> implements QR<Double> {
+
+    private double[] myBetas = null;
+    private final File myFile;
+    private boolean myFullSize = false;
+    private BufferDenseStore myStore = null;
+
+    /**
+     * The matrix is copied to direct buffers
+     */
+    public OutOfCoreQR() {
+        this(null);
+    }
+
+    /**
+     * @param file The matrix is copied to this (memory-mapped) file, and the decomposition is then stored
+     *        there
+     */
+    public OutOfCoreQR(final File file) {
+
+        super();
+
+        myFile = file;
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(matrix));
+        return this.getDeterminant();
+    }
+
+    public boolean decompose(final ElementsSupplier<Double> matrix) {
+
+        final long tmpRows = matrix.countRows();
+        final long tmpColumns = matrix.countColumns();
+
+        final BufferDenseStore tmpStore = myFile != null ? BufferDenseStore.map(myFile, tmpRows, tmpColumns)
+                : BufferDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+        matrix.supplyTo(tmpStore);
+
+        return this.decomposeInPlace(tmpStore);
+    }
+
+    /**
+     * Decomposes the matrix in place - it is overwritten with [R] and the Householder vectors.
+     */
+    public boolean decomposeInPlace(final BufferDenseStore matrix) {
+
+        this.reset();
+
+        final int tmpRowDim = (int) matrix.countRows();
+        final int tmpColDim = (int) matrix.countColumns();
+        final int tmpMinDim = Math.min(tmpRowDim, tmpColDim);
+        final int tmpWidth = OutOfCoreCholesky.getPanelWidth(tmpRowDim);
+
+        final double[] tmpBetas = new double[tmpMinDim];
+        final double[] tmpPanel = new double[tmpRowDim * tmpWidth];
+        final Householder.Primitive tmpHouseholder = new Householder.Primitive(tmpRowDim);
+
+        for (int j = 0; j < tmpColDim; j += tmpWidth) {
+
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+
+            matrix.copy(0, tmpRowDim, j, tmpColumns, tmpPanel);
+
+            // [Q]^T with all the previous panels of Householder vectors
+            final BufferDenseStore.ReadAhead tmpReader = matrix.readAhead(0, tmpRowDim, 0, Math.min(j, tmpMinDim), tmpWidth, false);
+            while (tmpReader.next()) {
+                final int tmpFirst = tmpReader.column();
+                final int tmpCount = tmpReader.columns();
+                BlockedAlgorithm.reflect(tmpReader.data(), tmpFirst, tmpRowDim, tmpRowDim - tmpFirst, tmpCount,
+                        Arrays.copyOfRange(tmpBetas, tmpFirst, tmpFirst + tmpCount), tmpPanel, tmpFirst, tmpRowDim, tmpColumns, true);
+            }
+
+            // The panel itself, in blocks - the same as the in-core blocked algorithm
+            final int tmpFactored = Math.min(tmpColumns, tmpMinDim - j);
+            for (int b = 0; b < tmpFactored; b += BlockedAlgorithm.BLOCK) {
+
+                final int tmpBlockLimit = Math.min(tmpFactored, b + BlockedAlgorithm.BLOCK);
+
+                for (int c = b; c < tmpBlockLimit; c++) {
+                    final int tmpRow = j + c;
+                    if (((tmpRow + 1) < tmpRowDim) && GenerateApplyAndCopyHouseholderColumn.invoke(tmpPanel, tmpRowDim, tmpRow, c, tmpHouseholder)) {
+                        HouseholderLeft.invoke(tmpPanel, tmpRowDim, c + 1, tmpBlockLimit, tmpHouseholder);
+                        tmpBetas[tmpRow] = tmpHouseholder.beta;
+                    } else {
+                        tmpBetas[tmpRow] = PrimitiveMath.ZERO;
+                    }
+                }
+
+                if (tmpBlockLimit < tmpColumns) {
+                    final int tmpFirst = j + b;
+                    BlockedAlgorithm.reflect(tmpPanel, tmpFirst + (b * tmpRowDim), tmpRowDim, tmpRowDim - tmpFirst, tmpBlockLimit - b,
+                            Arrays.copyOfRange(tmpBetas, tmpFirst, j + tmpBlockLimit), tmpPanel, tmpFirst + (tmpBlockLimit * tmpRowDim), tmpRowDim,
+                            tmpColumns - tmpBlockLimit, true);
+                }
+            }
+
+            matrix.paste(0, tmpRowDim, j, tmpColumns, tmpPanel);
+        }
+
+        myStore = matrix;
+        myBetas = tmpBetas;
+
+        return this.computed(true);
+    }
+
+    public boolean equals(final MatrixStore<Double> other, final NumberContext context) {
+        return MatrixUtils.equals(other, this, context);
+    }
+
+    public Double getDeterminant() {
+
+        double retVal = PrimitiveMath.ONE;
+
+        for (long ij = 0L, tmpLimit = myBetas.length; ij < tmpLimit; ij++) {
+            retVal *= myStore.doubleValue(ij, ij);
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        final long tmpRowDim = myStore.countRows();
+        return this.getInverse(this.allocate(tmpRowDim, tmpRowDim));
+    }
+
+    public MatrixStore<Double> getInverse(final DecompositionStore<Double> preallocated) {
+
+        final PrimitiveDenseStore tmpInverse = (PrimitiveDenseStore) preallocated;
+        final int tmpDim = (int) myStore.countRows();
+
+        Arrays.fill(tmpInverse.data, PrimitiveMath.ZERO);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpInverse.data[i + (i * tmpDim)] = PrimitiveMath.ONE;
+        }
+
+        return this.doSolve(tmpInverse);
+    }
+
+    /**
+     * Generates [Q] panel by panel, applying the block reflectors in reverse order to the columns of the
+     * identity matrix.
+     *
+     * @return [Q] in a new (direct buffer) store
+     */
+    public MatrixStore<Double> getQ() {
+
+        final int tmpRowDim = (int) myStore.countRows();
+        final int tmpMinDim = myBetas.length;
+        final int tmpColDim = myFullSize ? tmpRowDim : tmpMinDim;
+        final int tmpWidth = OutOfCoreCholesky.getPanelWidth(tmpRowDim);
+
+        final BufferDenseStore retVal = BufferDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim);
+        final double[] tmpPanel = new double[tmpRowDim * tmpWidth];
+
+        for (int j = 0; j < tmpColDim; j += tmpWidth) {
+
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+
+            Arrays.fill(tmpPanel, PrimitiveMath.ZERO);
+            for (int c = 0; c < tmpColumns; c++) {
+                tmpPanel[j + c + (c * tmpRowDim)] = PrimitiveMath.ONE;
+            }
+
+            final BufferDenseStore.ReadAhead tmpReader = myStore.readAhead(0, tmpRowDim, 0, tmpMinDim, tmpWidth, true);
+            while (tmpReader.next()) {
+                final int tmpFirst = tmpReader.column();
+                final int tmpCount = tmpReader.columns();
+                BlockedAlgorithm.reflect(tmpReader.data(), tmpFirst, tmpRowDim, tmpRowDim - tmpFirst, tmpCount,
+                        Arrays.copyOfRange(myBetas, tmpFirst, tmpFirst + tmpCount), tmpPanel, tmpFirst, tmpRowDim, tmpColumns, false);
+            }
+
+            retVal.paste(0, tmpRowDim, j, tmpColumns, tmpPanel);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return An upper triangular view of the (buffer backed) store containing [R]
+     */
+    public MatrixStore<Double> getR() {
+        return myStore.logical().triangular(true, false).limits(myBetas.length, (int) myStore.countColumns()).get();
+    }
+
+    public int getRank() {
+
+        final int tmpMinDim = myBetas.length;
+
+        double tmpLargest = PrimitiveMath.ZERO;
+        for (int ij = 0; ij < tmpMinDim; ij++) {
+            tmpLargest = Math.max(tmpLargest, Math.abs(myStore.doubleValue(ij, ij)));
+        }
+
+        int retVal = 0;
+        for (int ij = 0; ij < tmpMinDim; ij++) {
+            if (!PrimitiveScalar.isSmall(tmpLargest, myStore.doubleValue(ij, ij))) {
+                retVal++;
+            }
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw TaskException.newNotInvertible();
+        }
+    }
+
+    public boolean isFullColumnRank() {
+        return this.getRank() == myStore.countColumns();
+    }
+
+    public boolean isFullSize() {
+        return myFullSize;
+    }
+
+    public boolean isSolvable() {
+        return this.isComputed() && this.isFullColumnRank();
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myStore = null;
+        myBetas = null;
+    }
+
+    public void setFullSize(final boolean fullSize) {
+        myFullSize = fullSize;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.decompose(MatrixStore.PRIMITIVE.makeWrapper(body));
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.doSolve((PrimitiveDenseStore) preallocated);
+        } else {
+            throw TaskException.newNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs) {
+        return this.solve(rhs, this.allocate(rhs.countRows(), rhs.countColumns()));
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs, final DecompositionStore<Double> preallocated) {
+        rhs.supplyTo(preallocated);
+        return this.doSolve((PrimitiveDenseStore) preallocated);
+    }
+
+    /**
+     * The least squares solution: [R][X] = [Q]<sup>T</sup>[B]
+     */
+    private MatrixStore<Double> doSolve(final PrimitiveDenseStore preallocated) {
+
+        final double[] tmpData = preallocated.data;
+        final int tmpRowDim = (int) myStore.countRows();
+        final int tmpColDim = (int) myStore.countColumns();
+        final int tmpColumns = (int) preallocated.countColumns();
+        final int tmpWidth = OutOfCoreCholesky.getPanelWidth(tmpRowDim);
+
+        final BufferDenseStore.ReadAhead tmpVectors = myStore.readAhead(0, tmpRowDim, 0, myBetas.length, tmpWidth, false);
+        while (tmpVectors.next()) {
+            final int tmpFirst = tmpVectors.column();
+            final int tmpCount = tmpVectors.columns();
+            BlockedAlgorithm.reflect(tmpVectors.data(), tmpFirst, tmpRowDim, tmpRowDim - tmpFirst, tmpCount,
+                    Arrays.copyOfRange(myBetas, tmpFirst, tmpFirst + tmpCount), tmpData, tmpFirst, tmpRowDim, tmpColumns, true);
+        }
+
+        final BufferDenseStore.ReadAhead tmpR = myStore.readAhead(0, tmpColDim, 0, tmpColDim, tmpWidth, true);
+        while (tmpR.next()) {
+
+            final double[] tmpPanel = tmpR.data();
+            final int tmpFirst = tmpR.column();
+
+            for (int c = tmpR.columns() - 1; c >= 0; c--) {
+                final int tmpRow = tmpFirst + c;
+                final int tmpColumn = c * tmpColDim;
+                final double tmpDiagonal = tmpPanel[tmpRow + tmpColumn];
+                for (int s = 0; s < tmpColumns; s++) {
+                    final int tmpSolution = s * tmpRowDim;
+                    final double tmpValue = tmpData[tmpRow + tmpSolution] /= tmpDiagonal;
+                    for (int i = 0; i < tmpRow; i++) {
+                        tmpData[i + tmpSolution] -= tmpPanel[i + tmpColumn] * tmpValue;
+                    }
+                }
+            }
+        }
+
+        return preallocated.logical().limits(tmpColDim, tmpColumns).get();
+    }
+
+    @Override
+    protected PrimitiveDenseStore allocate(final long numberOfRows, final long numberOfColumns) {
+        return PrimitiveDenseStore.FACTORY.makeZero(numberOfRows, numberOfColumns);
+    }
+
+}
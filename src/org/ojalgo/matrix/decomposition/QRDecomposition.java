@@ -32,6 +32,7 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.ElementsSupplier;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
 import org.ojalgo.matrix.task.TaskException;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.scalar.ComplexNumber;
@@ -61,6 +62,15 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
             super(PrimitiveDenseStore.FACTORY);
         }
 
+        @Override
+        void factorise(final DecompositionStore<Double> inPlace) {
+            if (this.getMinDim() > GEMM.THRESHOLD) {
+                BlockedAlgorithm.qr(((PrimitiveDenseStore) inPlace).data, this.getRowDim(), this.getColDim());
+            } else {
+                super.factorise(inPlace);
+            }
+        }
+
     }
 
     private boolean myFullSize = false;
@@ -80,18 +90,7 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
         final DecompositionStore<N> tmpStore = this.setInPlace(matrix);
 
-        final int tmpRowDim = this.getRowDim();
-        final int tmpColDim = this.getColDim();
-
-        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
-
-        final int tmpLimit = Math.min(tmpRowDim, tmpColDim);
-
-        for (int ij = 0; ij < tmpLimit; ij++) {
-            if (((ij + 1) < tmpRowDim) && tmpStore.generateApplyAndCopyHouseholderColumn(ij, ij, tmpHouseholder)) {
-                tmpStore.transformLeft(tmpHouseholder, ij + 1);
-            }
-        }
+        this.factorise(tmpStore);
 
         return this.computed(true);
     }
@@ -304,4 +303,22 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         return retVal;
     }
 
+    /**
+     * The (unblocked) column by column algorithm
+     */
+    void factorise(final DecompositionStore<N> inPlace) {
+
+        final int tmpRowDim = this.getRowDim();
+
+        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
+
+        final int tmpLimit = this.getMinDim();
+
+        for (int ij = 0; ij < tmpLimit; ij++) {
+            if (((ij + 1) < tmpRowDim) && inPlace.generateApplyAndCopyHouseholderColumn(ij, ij, tmpHouseholder)) {
+                inPlace.transformLeft(tmpHouseholder, ij + 1);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,1070 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.matrix.store.operation.SYRK;
+import org.ojalgo.matrix.store.operation.TRSM;
+import org.ojalgo.matrix.task.TaskException;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Supernodal, multifrontal, Cholesky decomposition of sparse symmetric positive definite matrices:
+ * [P][A][P]<sup>T</sup> = [L][L]<sup>T</sup>. The input is never densified - any {@linkplain MatrixStore} can
+ * be decomposed, but {@linkplain SparseStore} and {@linkplain org.ojalgo.matrix.store.CompressedStore}
+ * inputs are read without looking at their zeros. Only the lower triangular part of the matrix is referenced.
+ * <p>
+ * The work is done in two phases:
+ * </p>
+ * <ol>
+ * <li>The {@linkplain Symbolic symbolic} analysis only looks at the nonzero pattern. It determines a
+ * fill-reducing {@linkplain SparseOrdering ordering} [P], the elimination tree, and the structure of [L]
+ * grouped in supernodes - sets of consecutive columns with the same structure below the diagonal. This is
+ * done once per pattern. Decomposing another matrix with the same pattern reuses it.</li>
+ * <li>The numeric factorisation processes the supernodes bottom-up the elimination tree. Each supernode is
+ * assembled to a dense frontal matrix, partially factored with the blocked (level-3) kernels, and passes
+ * the resulting update matrix on to its parent. Independent subtrees are factored in parallel, on the pool
+ * of the current {@linkplain ExecutionContext}, and the dense kernels are themselves multithreaded.</li>
+ * </ol>
+ * <p>
+ * The factor is returned as a {@linkplain SparseStore}. To honour the {@linkplain Cholesky} contract,
+ * [L][L]<sup>T</sup> = [A], {@linkplain #getL()} has its rows in the original order - it is only lower
+ * triangular after the rows are reordered. {@linkplain #getReorderedL()} returns the triangular factor of the
+ * reordered matrix, and {@linkplain #getOrder()} the ordering. {@linkplain #solve(ElementsSupplier)} takes
+ * the ordering in to account.
+ * </p>
+ *
+ * @author apete
+ */
+public final class SparseCholesky extends AbstractDecomposition<Double> implements Cholesky<Double> {
+
+    /**
+     * The result of the symbolic analysis of a sparsity pattern - the ordering, the elimination tree and the
+     * supernodal structure of [L]. It does not depend on the numerical values, and can be reused with any
+     * matrix with the same nonzero pattern (in the lower triangular part).
+     */
+    public static final class Symbolic {
+
+        private final int[] myChildPointers;
+        private final int[] myChildren;
+        private final int[] myDescendants;
+        private final int[] myFirst;
+        private final int[] myInverse;
+        private final long myNonzeros;
+        private final int[] myOrder;
+        private final SparseStructure myPattern;
+        private final int[] myRowPointers;
+        private final int[] myRows;
+        private final double[] myWork;
+
+        Symbolic(final SparseStructure pattern, final int[] order, final int[] inverse, final int[] first, final int[] rowPointers, final int[] rows,
+                final int[] childPointers, final int[] children, final int[] descendants, final double[] work) {
+
+            super();
+
+            myPattern = pattern;
+            myOrder = order;
+            myInverse = inverse;
+            myFirst = first;
+            myRowPointers = rowPointers;
+            myRows = rows;
+            myChildPointers = childPointers;
+            myChildren = children;
+            myDescendants = descendants;
+            myWork = work;
+
+            long tmpNonzeros = 0L;
+            for (int s = 0, tmpLimit = first.length - 1; s < tmpLimit; s++) {
+                final long tmpWidth = first[s + 1] - first[s];
+                final long tmpHeight = rowPointers[s + 1] - rowPointers[s];
+                tmpNonzeros += (tmpWidth * tmpHeight) - ((tmpWidth * (tmpWidth - 1L)) / 2L);
+            }
+            myNonzeros = tmpNonzeros;
+        }
+
+        /**
+         * @return The number of (structurally) nonzero elements in [L], including any explicit zeros
+         *         introduced when merging supernodes
+         */
+        public long countNonzeros() {
+            return myNonzeros;
+        }
+
+        /**
+         * @return The number of supernodes
+         */
+        public int countSupernodes() {
+            return myFirst.length - 1;
+        }
+
+        /**
+         * @return The ordering - the index (in the original matrix) of each row/column of the reordered
+         *         matrix
+         */
+        public int[] getOrder() {
+            return myOrder.clone();
+        }
+
+        /**
+         * @return true if this analysis applies to the matrix
+         */
+        public boolean isApplicable(final MatrixStore<?> matrix) {
+            return myPattern.isSamePattern(SparseStructure.wrap(matrix).lower());
+        }
+
+        int dim() {
+            return myOrder.length;
+        }
+
+        int first(final int supernode) {
+            return myFirst[supernode];
+        }
+
+        int height(final int supernode) {
+            return myRowPointers[supernode + 1] - myRowPointers[supernode];
+        }
+
+        int width(final int supernode) {
+            return myFirst[supernode + 1] - myFirst[supernode];
+        }
+
+    }
+
+    /**
+     * Factors the subtree rooted at a supernode. Chains of supernodes with only one large child are followed
+     * downwards (small subtrees are factored sequentially along the way), and the subtrees of 2 or more large
+     * children are factored in parallel.
+     */
+    static final class Subtree extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ExecutionContext myContext;
+        private final Numeric myNumeric;
+        private final int myRoot;
+
+        Subtree(final ExecutionContext context, final Numeric numeric, final int root) {
+
+            super();
+
+            myContext = context;
+            myNumeric = numeric;
+            myRoot = root;
+        }
+
+        @Override
+        protected void compute() {
+            myContext.run(this::factorise);
+        }
+
+        private void factorise() {
+
+            final Symbolic tmpSymbolic = myNumeric.symbolic;
+            final int tmpSupernodes = tmpSymbolic.countSupernodes();
+
+            final int[] tmpChain = new int[tmpSymbolic.myDescendants[myRoot]];
+            int tmpChainLength = 0;
+
+            int tmpNode = myRoot;
+            while (tmpNode >= 0) {
+
+                tmpChain[tmpChainLength++] = tmpNode;
+
+                final List<Subtree> tmpLarge = new ArrayList<>();
+                int tmpLargeChild = -1;
+
+                for (int c = tmpSymbolic.myChildPointers[tmpNode], tmpLimit = tmpSymbolic.myChildPointers[tmpNode + 1]; c < tmpLimit; c++) {
+                    final int tmpChild = tmpSymbolic.myChildren[c];
+                    if (tmpSymbolic.myWork[tmpChild] > THRESHOLD) {
+                        tmpLarge.add(new Subtree(myContext, myNumeric, tmpChild));
+                        tmpLargeChild = tmpChild;
+                    } else {
+                        for (int s = (tmpChild - tmpSymbolic.myDescendants[tmpChild]) + 1; s <= tmpChild; s++) {
+                            myNumeric.factorise(s);
+                        }
+                    }
+                }
+
+                if (tmpLarge.size() == 1) {
+                    tmpNode = tmpLargeChild;
+                } else {
+                    if (tmpLarge.size() > 1) {
+                        ForkJoinTask.invokeAll(tmpLarge);
+                    }
+                    tmpNode = -1;
+                }
+            }
+
+            for (int k = tmpChainLength - 1; k >= 0; k--) {
+                if (tmpChain[k] < tmpSupernodes) {
+                    myNumeric.factorise(tmpChain[k]);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The numeric factorisation in progress
+     */
+    static final class Numeric {
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final double[][] factors;
+        final Symbolic symbolic;
+        final double[][] updates;
+
+        private final int[] myPointers;
+        private final int[] myIndices;
+        private final double[] myValues;
+
+        /**
+         * @param lower The lower triangular part of the original matrix
+         */
+        Numeric(final Symbolic symbolic, final SparseStructure lower) {
+
+            super();
+
+            this.symbolic = symbolic;
+
+            final int tmpSupernodes = symbolic.countSupernodes();
+            factors = new double[tmpSupernodes][];
+            updates = new double[tmpSupernodes][];
+
+            // The lower triangular part of the reordered matrix, column by column
+            final int tmpDim = symbolic.dim();
+            final int[] tmpInverse = symbolic.myInverse;
+
+            myPointers = new int[tmpDim + 1];
+            for (int j = 0; j < tmpDim; j++) {
+                for (int p = lower.pointers[j], tmpLimit = lower.pointers[j + 1]; p < tmpLimit; p++) {
+                    myPointers[Math.min(tmpInverse[lower.indices[p]], tmpInverse[j]) + 1]++;
+                }
+            }
+            for (int j = 0; j < tmpDim; j++) {
+                myPointers[j + 1] += myPointers[j];
+            }
+
+            final int[] tmpNext = Arrays.copyOf(myPointers, tmpDim);
+            myIndices = new int[myPointers[tmpDim]];
+            myValues = new double[myPointers[tmpDim]];
+            for (int j = 0; j < tmpDim; j++) {
+                for (int p = lower.pointers[j], tmpLimit = lower.pointers[j + 1]; p < tmpLimit; p++) {
+                    final int tmpRow = tmpInverse[lower.indices[p]];
+                    final int tmpColumn = tmpInverse[j];
+                    final int tmpIndex = tmpNext[Math.min(tmpRow, tmpColumn)]++;
+                    myIndices[tmpIndex] = Math.max(tmpRow, tmpColumn);
+                    myValues[tmpIndex] = lower.values[p];
+                }
+            }
+        }
+
+        /**
+         * Assembles, and partially factors, the frontal matrix of the supernode
+         */
+        void factorise(final int supernode) {
+
+            if (failed.get()) {
+                return;
+            }
+
+            final Symbolic tmpSymbolic = symbolic;
+            final int[] tmpRows = tmpSymbolic.myRows;
+
+            final int tmpFirst = tmpSymbolic.first(supernode);
+            final int tmpWidth = tmpSymbolic.width(supernode);
+            final int tmpHeight = tmpSymbolic.height(supernode);
+            final int tmpRowsOffset = tmpSymbolic.myRowPointers[supernode];
+
+            final double[] tmpFront = new double[tmpHeight * tmpHeight];
+
+            // The original matrix elements
+            for (int c = 0; c < tmpWidth; c++) {
+                final int tmpColumn = tmpFirst + c;
+                for (int p = myPointers[tmpColumn], tmpLimit = myPointers[tmpColumn + 1]; p < tmpLimit; p++) {
+                    final int tmpLocal = Arrays.binarySearch(tmpRows, tmpRowsOffset, tmpRowsOffset + tmpHeight, myIndices[p]) - tmpRowsOffset;
+                    tmpFront[tmpLocal + (c * tmpHeight)] += myValues[p];
+                }
+            }
+
+            // Extend-add the update matrices of the children
+            for (int k = tmpSymbolic.myChildPointers[supernode], tmpLimit = tmpSymbolic.myChildPointers[supernode + 1]; k < tmpLimit; k++) {
+
+                final int tmpChild = tmpSymbolic.myChildren[k];
+                final double[] tmpUpdate = updates[tmpChild];
+                updates[tmpChild] = null;
+
+                final int tmpChildRows = tmpSymbolic.myRowPointers[tmpChild] + tmpSymbolic.width(tmpChild);
+                final int tmpUpdateDim = tmpSymbolic.height(tmpChild) - tmpSymbolic.width(tmpChild);
+
+                final int[] tmpRelative = new int[tmpUpdateDim];
+                for (int a = 0, r = 0; a < tmpUpdateDim; a++) {
+                    final int tmpRow = tmpRows[tmpChildRows + a];
+                    while (tmpRows[tmpRowsOffset + r] != tmpRow) {
+                        r++;
+                    }
+                    tmpRelative[a] = r;
+                }
+
+                for (int b = 0; b < tmpUpdateDim; b++) {
+                    final int tmpColumn = tmpRelative[b] * tmpHeight;
+                    final int tmpUpdateColumn = b * tmpUpdateDim;
+                    for (int a = b; a < tmpUpdateDim; a++) {
+                        tmpFront[tmpRelative[a] + tmpColumn] += tmpUpdate[a + tmpUpdateColumn];
+                    }
+                }
+            }
+
+            if (!SparseCholesky.factorise(tmpFront, tmpHeight, tmpWidth)) {
+                failed.set(true);
+                return;
+            }
+
+            factors[supernode] = Arrays.copyOf(tmpFront, tmpWidth * tmpHeight);
+
+            final int tmpUpdateDim = tmpHeight - tmpWidth;
+            if (tmpUpdateDim > 0) {
+                final double[] tmpUpdate = new double[tmpUpdateDim * tmpUpdateDim];
+                for (int b = 0; b < tmpUpdateDim; b++) {
+                    System.arraycopy(tmpFront, tmpWidth + ((tmpWidth + b) * tmpHeight), tmpUpdate, b * tmpUpdateDim, tmpUpdateDim);
+                }
+                updates[supernode] = tmpUpdate;
+            }
+        }
+
+    }
+
+    /**
+     * Subtrees (of the supernodal elimination tree) estimated to require fewer flops than this are factored
+     * sequentially.
+     */
+    public static double THRESHOLD = 1.0E6;
+
+    /**
+     * Performs the symbolic analysis of the (lower triangular part of the) matrix' nonzero pattern.
+     */
+    public static Symbolic analyse(final MatrixStore<?> pattern, final SparseOrdering ordering) {
+        return SparseCholesky.analyse(SparseStructure.wrap(pattern).lower(), ordering);
+    }
+
+    static Symbolic analyse(final SparseStructure lower, final SparseOrdering ordering) {
+
+        final int tmpDim = lower.columns;
+
+        final int[][] tmpGraph = lower.symmetric();
+
+        // The fill-reducing ordering followed by a postordering of its elimination tree
+        final int[] tmpFillReducing = ordering.order(tmpDim, tmpGraph[0], tmpGraph[1]);
+        int[][] tmpUpper = SparseCholesky.reorder(tmpGraph, SparseCholesky.inverse(tmpFillReducing), true);
+        final int[] tmpPostorder = SparseCholesky.postorder(SparseCholesky.etree(tmpUpper));
+
+        final int[] tmpOrder = new int[tmpDim];
+        for (int k = 0; k < tmpDim; k++) {
+            tmpOrder[k] = tmpFillReducing[tmpPostorder[k]];
+        }
+        final int[] tmpInverse = SparseCholesky.inverse(tmpOrder);
+
+        tmpUpper = SparseCholesky.reorder(tmpGraph, tmpInverse, true);
+        final int[] tmpParent = SparseCholesky.etree(tmpUpper);
+        final int[] tmpCounts = SparseCholesky.counts(tmpUpper, tmpParent);
+
+        // Fundamental supernodes
+        final int[] tmpChildCounts = new int[tmpDim];
+        for (int j = 0; j < tmpDim; j++) {
+            if (tmpParent[j] >= 0) {
+                tmpChildCounts[tmpParent[j]]++;
+            }
+        }
+
+        final int[] tmpFundamental = new int[tmpDim + 1];
+        int tmpSupernodes = 0;
+        for (int j = 0; j < tmpDim; j++) {
+            if ((j == 0) || (tmpParent[j - 1] != j) || (tmpCounts[j - 1] != (tmpCounts[j] + 1)) || (tmpChildCounts[j] != 1)) {
+                tmpFundamental[tmpSupernodes++] = j;
+            }
+        }
+        tmpFundamental[tmpSupernodes] = tmpDim;
+
+        final int[] tmpFirst = SparseCholesky.relax(Arrays.copyOf(tmpFundamental, tmpSupernodes + 1), tmpParent, tmpCounts);
+        tmpSupernodes = tmpFirst.length - 1;
+
+        final int[] tmpSupernodeOf = new int[tmpDim];
+        for (int s = 0; s < tmpSupernodes; s++) {
+            Arrays.fill(tmpSupernodeOf, tmpFirst[s], tmpFirst[s + 1], s);
+        }
+
+        final int[] tmpSupernodeParent = new int[tmpSupernodes];
+        for (int s = 0; s < tmpSupernodes; s++) {
+            final int tmpParentColumn = tmpParent[tmpFirst[s + 1] - 1];
+            tmpSupernodeParent[s] = tmpParentColumn >= 0 ? tmpSupernodeOf[tmpParentColumn] : tmpSupernodes;
+        }
+
+        // The children of each supernode, and of the (virtual) root - the last "supernode"
+        final int[] tmpChildPointers = new int[tmpSupernodes + 2];
+        for (int s = 0; s < tmpSupernodes; s++) {
+            tmpChildPointers[tmpSupernodeParent[s] + 1]++;
+        }
+        for (int s = 0; s <= tmpSupernodes; s++) {
+            tmpChildPointers[s + 1] += tmpChildPointers[s];
+        }
+        final int[] tmpChildren = new int[tmpSupernodes];
+        final int[] tmpNext = Arrays.copyOf(tmpChildPointers, tmpSupernodes + 1);
+        for (int s = 0; s < tmpSupernodes; s++) {
+            tmpChildren[tmpNext[tmpSupernodeParent[s]]++] = s;
+        }
+
+        // The row structure of each supernode
+        final int[][] tmpLower = SparseCholesky.reorder(tmpGraph, tmpInverse, false);
+        final int[] tmpRowPointers = new int[tmpSupernodes + 1];
+        int[] tmpRows = new int[Math.max(16, 2 * lower.indices.length)];
+        final int[] tmpMarkers = new int[tmpDim];
+        Arrays.fill(tmpMarkers, -1);
+
+        for (int s = 0; s < tmpSupernodes; s++) {
+
+            final int tmpFirstColumn = tmpFirst[s];
+            final int tmpLimitColumn = tmpFirst[s + 1];
+
+            int tmpCount = tmpRowPointers[s];
+            final int tmpCapacity = tmpCount + tmpDim;
+            if (tmpRows.length < tmpCapacity) {
+                tmpRows = Arrays.copyOf(tmpRows, Math.max(tmpCapacity, 2 * tmpRows.length));
+            }
+
+            for (int j = tmpFirstColumn; j < tmpLimitColumn; j++) {
+                tmpMarkers[j] = s;
+                tmpRows[tmpCount++] = j;
+            }
+
+            for (int j = tmpFirstColumn; j < tmpLimitColumn; j++) {
+                for (int p = tmpLower[0][j], tmpLimit = tmpLower[0][j + 1]; p < tmpLimit; p++) {
+                    final int i = tmpLower[1][p];
+                    if (tmpMarkers[i] != s) {
+                        tmpMarkers[i] = s;
+                        tmpRows[tmpCount++] = i;
+                    }
+                }
+            }
+
+            for (int c = tmpChildPointers[s], tmpLimit = tmpChildPointers[s + 1]; c < tmpLimit; c++) {
+                final int tmpChild = tmpChildren[c];
+                for (int p = tmpRowPointers[tmpChild] + (tmpFirst[tmpChild + 1] - tmpFirst[tmpChild]); p < tmpRowPointers[tmpChild + 1]; p++) {
+                    final int i = tmpRows[p];
+                    if (tmpMarkers[i] != s) {
+                        tmpMarkers[i] = s;
+                        tmpRows[tmpCount++] = i;
+                    }
+                }
+            }
+
+            Arrays.sort(tmpRows, tmpRowPointers[s] + (tmpLimitColumn - tmpFirstColumn), tmpCount);
+            tmpRowPointers[s + 1] = tmpCount;
+        }
+
+        final int[] tmpDescendants = new int[tmpSupernodes + 1];
+        final double[] tmpWork = new double[tmpSupernodes + 1];
+        for (int s = 0; s <= tmpSupernodes; s++) {
+            tmpDescendants[s]++;
+            if (s < tmpSupernodes) {
+                final double tmpHeight = tmpRowPointers[s + 1] - tmpRowPointers[s];
+                tmpWork[s] += (tmpFirst[s + 1] - tmpFirst[s]) * tmpHeight * tmpHeight;
+                tmpDescendants[tmpSupernodeParent[s]] += tmpDescendants[s];
+                tmpWork[tmpSupernodeParent[s]] += tmpWork[s];
+            }
+        }
+
+        return new Symbolic(lower, tmpOrder, tmpInverse, tmpFirst, tmpRowPointers, Arrays.copyOf(tmpRows, tmpRowPointers[tmpSupernodes]),
+                tmpChildPointers, tmpChildren, tmpDescendants, tmpWork);
+    }
+
+    /**
+     * The number of nonzeros in each column of [L] (incl. the diagonal), using the row subtrees of the
+     * elimination tree.
+     */
+    static int[] counts(final int[][] upper, final int[] parent) {
+
+        final int tmpDim = parent.length;
+        final int[] retVal = new int[tmpDim];
+        final int[] tmpMarkers = new int[tmpDim];
+        Arrays.fill(tmpMarkers, -1);
+
+        for (int k = 0; k < tmpDim; k++) {
+            retVal[k]++;
+            tmpMarkers[k] = k;
+            for (int p = upper[0][k], tmpLimit = upper[0][k + 1]; p < tmpLimit; p++) {
+                for (int j = upper[1][p]; tmpMarkers[j] != k; j = parent[j]) {
+                    tmpMarkers[j] = k;
+                    retVal[j]++;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The elimination tree, from the upper triangular pattern (column by column) of a symmetric matrix
+     *
+     * @return The parent of each column, or -1 for roots
+     */
+    static int[] etree(final int[][] upper) {
+
+        final int tmpDim = upper[0].length - 1;
+        final int[] retVal = new int[tmpDim];
+        final int[] tmpAncestors = new int[tmpDim];
+
+        for (int k = 0; k < tmpDim; k++) {
+            retVal[k] = -1;
+            tmpAncestors[k] = -1;
+            for (int p = upper[0][k], tmpLimit = upper[0][k + 1]; p < tmpLimit; p++) {
+                int i = upper[1][p];
+                while ((i != -1) && (i < k)) {
+                    final int tmpNext = tmpAncestors[i];
+                    tmpAncestors[i] = k;
+                    if (tmpNext == -1) {
+                        retVal[i] = k;
+                    }
+                    i = tmpNext;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Partial factorisation of a frontal matrix - the first columns are factored, and the remaining
+     * (trailing) part of the matrix is updated. Only the lower triangular part is referenced.
+     *
+     * @param front The dim x dim matrix, column-major
+     * @param columns The number of columns to factor
+     * @return true if the factored columns are positive definite
+     */
+    static boolean factorise(final double[] front, final int dim, final int columns) {
+
+        final int tmpBlock = BlockedAlgorithm.BLOCK;
+
+        for (int k = 0; k < columns; k += tmpBlock) {
+
+            final int tmpPanel = Math.min(tmpBlock, columns - k);
+            final int tmpDiagonal = k + (k * dim);
+
+            if (!BlockedAlgorithm.cholesky(front, tmpDiagonal, dim, tmpPanel)) {
+                return false;
+            }
+
+            final int tmpRemaining = dim - k - tmpPanel;
+
+            if (tmpRemaining > 0) {
+                TRSM.invokeRightLowerTransposed(front, tmpDiagonal, dim, false, front, tmpDiagonal + tmpPanel, dim, tmpRemaining, tmpPanel);
+                SYRK.subtract(front, tmpDiagonal + tmpPanel + (tmpPanel * dim), dim, front, tmpDiagonal + tmpPanel, dim, tmpRemaining, tmpPanel);
+            }
+        }
+
+        return true;
+    }
+
+    static int[] inverse(final int[] order) {
+        final int[] retVal = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            retVal[order[k]] = k;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return The nodes of the forest in postorder
+     */
+    static int[] postorder(final int[] parent) {
+
+        final int tmpDim = parent.length;
+
+        final int[] tmpHeads = new int[tmpDim];
+        final int[] tmpNext = new int[tmpDim];
+        Arrays.fill(tmpHeads, -1);
+        for (int j = tmpDim - 1; j >= 0; j--) {
+            if (parent[j] >= 0) {
+                tmpNext[j] = tmpHeads[parent[j]];
+                tmpHeads[parent[j]] = j;
+            }
+        }
+
+        final int[] retVal = new int[tmpDim];
+        final int[] tmpStack = new int[tmpDim];
+        int tmpCount = 0;
+
+        for (int j = 0; j < tmpDim; j++) {
+            if (parent[j] < 0) {
+                int tmpTop = 0;
+                tmpStack[0] = j;
+                while (tmpTop >= 0) {
+                    final int tmpNode = tmpStack[tmpTop];
+                    final int tmpChild = tmpHeads[tmpNode];
+                    if (tmpChild < 0) {
+                        tmpTop--;
+                        retVal[tmpCount++] = tmpNode;
+                    } else {
+                        tmpHeads[tmpNode] = tmpNext[tmpChild];
+                        tmpStack[++tmpTop] = tmpChild;
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Amalgamates supernodes with their parent when that only introduces a limited number of explicit zeros.
+     * Fewer and larger supernodes make better use of the dense kernels.
+     *
+     * @param first The first column of each (fundamental) supernode, and then the dimension
+     * @return The first column of each (relaxed) supernode, and then the dimension
+     */
+    static int[] relax(final int[] first, final int[] parent, final int[] counts) {
+
+        final int tmpSupernodes = first.length - 1;
+
+        final int[] tmpFirst = first.clone();
+        final long[] tmpWidths = new long[tmpSupernodes];
+        final long[] tmpHeights = new long[tmpSupernodes];
+        final long[] tmpNonzeros = new long[tmpSupernodes];
+        final boolean[] tmpMerged = new boolean[tmpSupernodes];
+
+        for (int s = 0; s < tmpSupernodes; s++) {
+            tmpWidths[s] = first[s + 1] - first[s];
+            tmpHeights[s] = counts[first[s]];
+            for (int j = first[s]; j < first[s + 1]; j++) {
+                tmpNonzeros[s] += counts[j];
+            }
+        }
+
+        for (int s = 0; (s + 1) < tmpSupernodes; s++) {
+
+            final int tmpParentColumn = parent[first[s + 1] - 1];
+
+            if ((tmpParentColumn >= first[s + 1]) && (tmpParentColumn < first[s + 2])) {
+
+                final int p = s + 1;
+
+                final long tmpWidth = tmpWidths[s] + tmpWidths[p];
+                final long tmpHeight = tmpWidths[s] + tmpHeights[p];
+                final long tmpStored = (tmpWidth * tmpHeight) - ((tmpWidth * (tmpWidth - 1L)) / 2L);
+                final long tmpZeros = tmpStored - tmpNonzeros[s] - tmpNonzeros[p];
+                final double tmpFraction = (double) tmpZeros / (double) tmpStored;
+
+                if ((tmpWidth <= 4L) || ((tmpWidth <= 16L) && (tmpFraction < 0.8)) || ((tmpWidth <= 48L) && (tmpFraction < 0.1)) || (tmpFraction < 0.05)) {
+                    tmpMerged[s] = true;
+                    tmpFirst[p] = tmpFirst[s];
+                    tmpWidths[p] = tmpWidth;
+                    tmpHeights[p] = tmpHeight;
+                    tmpNonzeros[p] += tmpNonzeros[s];
+                }
+            }
+        }
+
+        final int[] retVal = new int[tmpSupernodes + 1];
+        int tmpCount = 0;
+        for (int s = 0; s < tmpSupernodes; s++) {
+            if (!tmpMerged[s]) {
+                retVal[tmpCount++] = tmpFirst[s];
+            }
+        }
+        retVal[tmpCount] = first[tmpSupernodes];
+
+        return Arrays.copyOf(retVal, tmpCount + 1);
+    }
+
+    /**
+     * @param graph The adjacency lists of the (undirected) graph
+     * @param inverse The new index of each node
+     * @param upper true to return the upper, and false the lower, triangular part of the reordered pattern
+     * @return { pointers, indices } column by column
+     */
+    static int[][] reorder(final int[][] graph, final int[] inverse, final boolean upper) {
+
+        final int tmpDim = inverse.length;
+        final int[] tmpPointers = new int[tmpDim + 1];
+
+        for (int u = 0; u < tmpDim; u++) {
+            final int i = inverse[u];
+            for (int p = graph[0][u], tmpLimit = graph[0][u + 1]; p < tmpLimit; p++) {
+                final int j = inverse[graph[1][p]];
+                if (upper ? i < j : i > j) {
+                    tmpPointers[j + 1]++;
+                }
+            }
+        }
+        for (int j = 0; j < tmpDim; j++) {
+            tmpPointers[j + 1] += tmpPointers[j];
+        }
+
+        final int[] tmpNext = Arrays.copyOf(tmpPointers, tmpDim);
+        final int[] tmpIndices = new int[tmpPointers[tmpDim]];
+        for (int u = 0; u < tmpDim; u++) {
+            final int i = inverse[u];
+            for (int p = graph[0][u], tmpLimit = graph[0][u + 1]; p < tmpLimit; p++) {
+                final int j = inverse[graph[1][p]];
+                if (upper ? i < j : i > j) {
+                    tmpIndices[tmpNext[j]++] = i;
+                }
+            }
+        }
+
+        return new int[][] { tmpPointers, tmpIndices };
+    }
+
+    private double[][] myFactors = null;
+    private final SparseOrdering myOrdering;
+    private boolean mySPD = false;
+    private Symbolic mySymbolic = null;
+
+    public SparseCholesky() {
+        this(SparseOrdering.MINIMUM_DEGREE);
+    }
+
+    public SparseCholesky(final SparseOrdering ordering) {
+
+        super();
+
+        myOrdering = ordering;
+    }
+
+    /**
+     * @param symbolic A symbolic analysis to use with matrices that have the pattern it was created from
+     */
+    public SparseCholesky(final Symbolic symbolic) {
+
+        this(SparseOrdering.MINIMUM_DEGREE);
+
+        mySymbolic = symbolic;
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.compute(SparseStructure.wrap(matrix), false);
+        return this.getDeterminant();
+    }
+
+    @Override
+    public boolean checkAndCompute(final MatrixStore<Double> matrix) {
+        return this.compute(SparseStructure.of(matrix), true);
+    }
+
+    public boolean decompose(final ElementsSupplier<Double> matrix) {
+        return this.compute(SparseStructure.of(matrix), false);
+    }
+
+    public boolean equals(final MatrixStore<Double> other, final NumberContext context) {
+        return MatrixUtils.equals(other, this, context);
+    }
+
+    public Double getDeterminant() {
+
+        double retVal = PrimitiveMath.ONE;
+
+        for (int s = 0, tmpLimit = mySymbolic.countSupernodes(); s < tmpLimit; s++) {
+            final double[] tmpFactor = myFactors[s];
+            final int tmpHeight = mySymbolic.height(s);
+            for (int c = 0, tmpWidth = mySymbolic.width(s); c < tmpWidth; c++) {
+                final double tmpDiagonal = tmpFactor[c + (c * tmpHeight)];
+                retVal *= tmpDiagonal * tmpDiagonal;
+            }
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        final int tmpDim = mySymbolic.dim();
+        return this.getInverse(this.allocate(tmpDim, tmpDim));
+    }
+
+    public MatrixStore<Double> getInverse(final DecompositionStore<Double> preallocated) {
+
+        final PrimitiveDenseStore tmpInverse = (PrimitiveDenseStore) preallocated;
+        final int tmpDim = mySymbolic.dim();
+
+        Arrays.fill(tmpInverse.data, PrimitiveMath.ZERO);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpInverse.data[i + (i * tmpDim)] = PrimitiveMath.ONE;
+        }
+
+        return this.doSolve(tmpInverse);
+    }
+
+    /**
+     * @return [P]<sup>T</sup>[L] - the factor with its rows in the original order, so that
+     *         [L][L]<sup>T</sup> = [A]
+     * @see #getReorderedL()
+     */
+    public MatrixStore<Double> getL() {
+        return this.toStore(mySymbolic.myOrder);
+    }
+
+    /**
+     * @return The ordering - the index (in the original matrix) of each row/column of [L]
+     */
+    public int[] getOrder() {
+        return mySymbolic.getOrder();
+    }
+
+    /**
+     * @return The lower triangular factor of the reordered matrix
+     * @see #getOrder()
+     */
+    public MatrixStore<Double> getReorderedL() {
+        return this.toStore(null);
+    }
+
+    /**
+     * @return The symbolic analysis used with the latest decomposition
+     */
+    public Symbolic getSymbolic() {
+        return mySymbolic;
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.compute(SparseStructure.wrap(original), false);
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw TaskException.newNotInvertible();
+        }
+    }
+
+    public boolean isSolvable() {
+        return this.isComputed() && mySPD;
+    }
+
+    public boolean isSPD() {
+        return mySPD;
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateRHS.countRows(), templateRHS.countColumns());
+    }
+
+    /**
+     * @return [L][L]<sup>T</sup> - the original (not reordered) matrix
+     * @deprecated v39 Use {@link MatrixUtils#reconstruct(Cholesky)} instead
+     */
+    @Deprecated
+    @Override
+    public MatrixStore<Double> reconstruct() {
+        return MatrixUtils.reconstruct(this);
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myFactors = null;
+        mySPD = false;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.compute(SparseStructure.wrap(body), false);
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.doSolve((PrimitiveDenseStore) preallocated);
+        } else {
+            throw TaskException.newNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs) {
+        return this.solve(rhs, this.allocate(rhs.countRows(), rhs.countColumns()));
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs, final DecompositionStore<Double> preallocated) {
+        rhs.supplyTo(preallocated);
+        return this.doSolve((PrimitiveDenseStore) preallocated);
+    }
+
+    private boolean compute(final SparseStructure matrix, final boolean checkHermitian) {
+
+        this.reset();
+
+        if (!matrix.isSquare() || (checkHermitian && !matrix.isSymmetric())) {
+            return this.computed(false);
+        }
+
+        final SparseStructure tmpLower = matrix.lower();
+
+        if ((mySymbolic == null) || !mySymbolic.myPattern.isSamePattern(tmpLower)) {
+            mySymbolic = SparseCholesky.analyse(tmpLower, myOrdering);
+        }
+
+        final Numeric tmpNumeric = new Numeric(mySymbolic, tmpLower);
+        final int tmpSupernodes = mySymbolic.countSupernodes();
+
+        final ExecutionContext tmpContext = ExecutionContext.current();
+
+        if ((tmpContext.getPool() != null) && (mySymbolic.myWork[tmpSupernodes] > THRESHOLD)) {
+            tmpContext.invoke(new Subtree(tmpContext, tmpNumeric, tmpSupernodes));
+        } else {
+            for (int s = 0; s < tmpSupernodes; s++) {
+                tmpNumeric.factorise(s);
+            }
+        }
+
+        mySPD = !tmpNumeric.failed.get();
+        myFactors = mySPD ? tmpNumeric.factors : null;
+
+        return this.computed(mySPD);
+    }
+
+    private PrimitiveDenseStore doSolve(final PrimitiveDenseStore preallocated) {
+
+        final double[] tmpData = preallocated.data;
+        final int tmpDim = mySymbolic.dim();
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                final double[] tmpWork = new double[tmpDim];
+                for (int j = first; j < limit; j++) {
+                    SparseCholesky.this.solve(tmpData, j * tmpDim, tmpWork);
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, (int) preallocated.countColumns(), 1);
+
+        return preallocated;
+    }
+
+    /**
+     * Solves for one column, in place
+     */
+    private void solve(final double[] data, final int offset, final double[] work) {
+
+        final Symbolic tmpSymbolic = mySymbolic;
+        final int[] tmpOrder = tmpSymbolic.myOrder;
+        final int[] tmpRows = tmpSymbolic.myRows;
+        final int tmpDim = tmpOrder.length;
+        final int tmpSupernodes = tmpSymbolic.countSupernodes();
+
+        for (int k = 0; k < tmpDim; k++) {
+            work[k] = data[offset + tmpOrder[k]];
+        }
+
+        // [L][Y] = [P][B]
+        for (int s = 0; s < tmpSupernodes; s++) {
+            final double[] tmpFactor = myFactors[s];
+            final int tmpFirst = tmpSymbolic.first(s);
+            final int tmpHeight = tmpSymbolic.height(s);
+            final int tmpRowsOffset = tmpSymbolic.myRowPointers[s];
+            for (int c = 0, tmpWidth = tmpSymbolic.width(s); c < tmpWidth; c++) {
+                final int tmpColumn = c * tmpHeight;
+                final double tmpValue = work[tmpFirst + c] /= tmpFactor[c + tmpColumn];
+                if (tmpValue != PrimitiveMath.ZERO) {
+                    for (int r = c + 1; r < tmpHeight; r++) {
+                        work[tmpRows[tmpRowsOffset + r]] -= tmpFactor[r + tmpColumn] * tmpValue;
+                    }
+                }
+            }
+        }
+
+        // [L]<sup>T</sup>[P][X] = [Y]
+        for (int s = tmpSupernodes - 1; s >= 0; s--) {
+            final double[] tmpFactor = myFactors[s];
+            final int tmpFirst = tmpSymbolic.first(s);
+            final int tmpHeight = tmpSymbolic.height(s);
+            final int tmpRowsOffset = tmpSymbolic.myRowPointers[s];
+            for (int c = tmpSymbolic.width(s) - 1; c >= 0; c--) {
+                final int tmpColumn = c * tmpHeight;
+                double tmpValue = work[tmpFirst + c];
+                for (int r = c + 1; r < tmpHeight; r++) {
+                    tmpValue -= tmpFactor[r + tmpColumn] * work[tmpRows[tmpRowsOffset + r]];
+                }
+                work[tmpFirst + c] = tmpValue / tmpFactor[c + tmpColumn];
+            }
+        }
+
+        for (int k = 0; k < tmpDim; k++) {
+            data[offset + tmpOrder[k]] = work[k];
+        }
+    }
+
+    /**
+     * @param rows The (row) index of each row of the factor, or null to keep them as they are
+     */
+    private SparseStore<Double> toStore(final int[] rows) {
+
+        final int tmpDim = mySymbolic.dim();
+        final SparseStore.Builder<Double> tmpBuilder = SparseStore.buildPrimitive(tmpDim, tmpDim, (int) mySymbolic.countNonzeros());
+
+        final int[] tmpRows = mySymbolic.myRows;
+
+        for (int s = 0, tmpLimit = mySymbolic.countSupernodes(); s < tmpLimit; s++) {
+            final double[] tmpFactor = myFactors[s];
+            final int tmpFirst = mySymbolic.first(s);
+            final int tmpHeight = mySymbolic.height(s);
+            final int tmpRowsOffset = mySymbolic.myRowPointers[s];
+            for (int c = 0, tmpWidth = mySymbolic.width(s); c < tmpWidth; c++) {
+                for (int r = c; r < tmpHeight; r++) {
+                    final double tmpValue = tmpFactor[r + (c * tmpHeight)];
+                    if (tmpValue != PrimitiveMath.ZERO) {
+                        final int tmpRow = tmpRows[tmpRowsOffset + r];
+                        tmpBuilder.add(rows != null ? rows[tmpRow] : tmpRow, tmpFirst + c, tmpValue);
+                    }
+                }
+            }
+        }
+
+        return tmpBuilder.build();
+    }
+
+
+    @Override
+    protected PrimitiveDenseStore allocate(final long numberOfRows, final long numberOfColumns) {
+        return PrimitiveDenseStore.FACTORY.makeZero(numberOfRows, numberOfColumns);
+    }
+
+}
@@ -0,0 +1,578 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Arrays;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.matrix.task.TaskException;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Left-looking (Gilbert-Peierls) LU decomposition of sparse square matrices: [P][A][Q] = [L][U]. The columns
+ * are permuted, [Q], by a fill-reducing {@linkplain SparseOrdering ordering} of the pattern of
+ * [A]+[A]<sup>T</sup>, and the rows, [P], by threshold partial pivoting. The diagonal element is preferred as
+ * pivot (that retains the benefits of the symmetric ordering) unless it is smaller than
+ * {@linkplain #THRESHOLD} times the largest candidate in its column.
+ * <p>
+ * Each column of [L] and [U] is calculated with a sparse triangular solve that only touches the nonzeros it
+ * needs - the total work is proportional to the number of floating point operations. The column ordering is
+ * reused with any other matrix with the same nonzero pattern.
+ * </p>
+ * <p>
+ * The factors are returned as {@linkplain SparseStore}s. To honour the {@linkplain LU} contract, that
+ * [L][U] equals the rows of [A] in {@linkplain #getPivotOrder() pivot order}, {@linkplain #getU()} has its
+ * columns in the original order - it is only upper triangular after the columns are reordered.
+ * {@linkplain #getReorderedU()} returns the triangular factor, and {@linkplain #getColumnOrder()} the column
+ * order.
+ * </p>
+ *
+ * @author apete
+ */
+public final class SparseLU extends AbstractDecomposition<Double> implements LU<Double> {
+
+    /**
+     * The diagonal element is used as pivot if its magnitude is at least this fraction of the largest
+     * candidate. 1.0 means (ordinary) partial pivoting.
+     */
+    public static double THRESHOLD = 0.1;
+
+    private int[] myColumnOrder = null;
+    private int[] myLowerIndices;
+    private int[] myLowerPointers;
+    private double[] myLowerValues;
+    private final SparseOrdering myOrdering;
+    private SparseStructure myPattern = null;
+    private int[] myPivotOrder;
+    private int myRank = 0;
+    private int[] myUpperIndices;
+    private int[] myUpperPointers;
+    private double[] myUpperValues;
+
+    public SparseLU() {
+        this(SparseOrdering.MINIMUM_DEGREE);
+    }
+
+    public SparseLU(final SparseOrdering ordering) {
+
+        super();
+
+        myOrdering = ordering;
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.compute(SparseStructure.wrap(matrix), true);
+        return this.getDeterminant();
+    }
+
+    /**
+     * Uses the diagonal elements, in the fill-reducing order, as pivots. If one of them is zero the matrix
+     * is reported as singular - there is no fallback to pivoting.
+     */
+    public boolean computeWithoutPivoting(final ElementsSupplier<Double> matrix) {
+        return this.compute(SparseStructure.of(matrix), false);
+    }
+
+    public boolean decompose(final ElementsSupplier<Double> matrix) {
+        return this.compute(SparseStructure.of(matrix), true);
+    }
+
+    public boolean equals(final MatrixStore<Double> other, final NumberContext context) {
+        return MatrixUtils.equals(other, this, context);
+    }
+
+    /**
+     * @return The column order - the index (in the original matrix) of each column of [L][U]
+     */
+    public int[] getColumnOrder() {
+        return myColumnOrder.clone();
+    }
+
+    public Double getDeterminant() {
+
+        final int tmpDim = myPivotOrder.length;
+
+        double retVal = SparseLU.sign(myPivotOrder) * SparseLU.sign(myColumnOrder);
+        for (int j = 0; j < tmpDim; j++) {
+            retVal *= myUpperValues[myUpperPointers[j + 1] - 1];
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        final int tmpDim = myPivotOrder.length;
+        return this.getInverse(this.allocate(tmpDim, tmpDim));
+    }
+
+    public MatrixStore<Double> getInverse(final DecompositionStore<Double> preallocated) {
+
+        final PrimitiveDenseStore tmpInverse = (PrimitiveDenseStore) preallocated;
+        final int tmpDim = myPivotOrder.length;
+
+        Arrays.fill(tmpInverse.data, PrimitiveMath.ZERO);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpInverse.data[i + (i * tmpDim)] = PrimitiveMath.ONE;
+        }
+
+        return this.doSolve(tmpInverse);
+    }
+
+    /**
+     * @return The unit lower triangular factor
+     */
+    public MatrixStore<Double> getL() {
+        return SparseLU.toStore(myLowerPointers, myLowerIndices, myLowerValues, null);
+    }
+
+    /**
+     * @return The row order - the index (in the original matrix) of each row of [L][U]
+     */
+    public int[] getPivotOrder() {
+        return myPivotOrder.clone();
+    }
+
+    public int getRank() {
+        return myRank;
+    }
+
+    /**
+     * @return The upper triangular factor of the reordered matrix
+     * @see #getColumnOrder()
+     */
+    public MatrixStore<Double> getReorderedU() {
+        return SparseLU.toStore(myUpperPointers, myUpperIndices, myUpperValues, null);
+    }
+
+    /**
+     * @return [U][Q]<sup>T</sup> - the upper triangular factor with its columns in the original order, so
+     *         that [L][U] equals the rows of [A] in pivot order
+     * @see #getReorderedU()
+     */
+    public MatrixStore<Double> getU() {
+        return SparseLU.toStore(myUpperPointers, myUpperIndices, myUpperValues, myColumnOrder);
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.compute(SparseStructure.wrap(original), true);
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw TaskException.newNotInvertible();
+        }
+    }
+
+    public boolean isSolvable() {
+        return this.isComputed() && this.isSquareAndNotSingular();
+    }
+
+    public boolean isSquareAndNotSingular() {
+        return (myPivotOrder != null) && (myRank == myPivotOrder.length);
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public DecompositionStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateRHS.countRows(), templateRHS.countColumns());
+    }
+
+    /**
+     * @return [P]<sup>T</sup>[L][U][Q]<sup>T</sup> - the original (not reordered) matrix
+     * @deprecated v39 Use {@link MatrixUtils#equals(MatrixStore, LU, NumberContext)} to compare with the
+     *             original
+     */
+    @Deprecated
+    @Override
+    public MatrixStore<Double> reconstruct() {
+        final MatrixStore<Double> tmpLU = PrimitiveDenseStore.FACTORY.copy(this.getL()).multiply(PrimitiveDenseStore.FACTORY.copy(this.getU()));
+        return tmpLU.logical().row(SparseCholesky.inverse(myPivotOrder)).get();
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myPivotOrder = null;
+        myRank = 0;
+        myLowerPointers = myUpperPointers = null;
+        myLowerIndices = myUpperIndices = null;
+        myLowerValues = myUpperValues = null;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final DecompositionStore<Double> preallocated) throws TaskException {
+
+        this.compute(SparseStructure.wrap(body), true);
+
+        if (this.isSolvable()) {
+            preallocated.fillMatching(rhs);
+            return this.doSolve((PrimitiveDenseStore) preallocated);
+        } else {
+            throw TaskException.newNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs) {
+        return this.solve(rhs, this.allocate(rhs.countRows(), rhs.countColumns()));
+    }
+
+    public MatrixStore<Double> solve(final ElementsSupplier<Double> rhs, final DecompositionStore<Double> preallocated) {
+        rhs.supplyTo(preallocated);
+        return this.doSolve((PrimitiveDenseStore) preallocated);
+    }
+
+    private boolean compute(final SparseStructure matrix, final boolean pivoting) {
+
+        this.reset();
+
+        if (!matrix.isSquare()) {
+            return this.computed(false);
+        }
+
+        final int tmpDim = matrix.columns;
+
+        if ((myColumnOrder == null) || !matrix.isSamePattern(myPattern)) {
+            final int[][] tmpGraph = matrix.symmetric();
+            myColumnOrder = myOrdering.order(tmpDim, tmpGraph[0], tmpGraph[1]);
+            myPattern = matrix;
+        }
+
+        final int[] tmpColumnOrder = myColumnOrder;
+
+        final int[] tmpInitial = new int[tmpDim + 1];
+        final int tmpCapacity = (4 * matrix.indices.length) + tmpDim;
+
+        int[] tmpLowerIndices = new int[tmpCapacity];
+        double[] tmpLowerValues = new double[tmpCapacity];
+        final int[] tmpLowerPointers = tmpInitial.clone();
+        int[] tmpUpperIndices = new int[tmpCapacity];
+        double[] tmpUpperValues = new double[tmpCapacity];
+        final int[] tmpUpperPointers = tmpInitial.clone();
+
+        // The step at which each (original) row was pivoted, or -1
+        final int[] tmpPivotStep = new int[tmpDim];
+        Arrays.fill(tmpPivotStep, -1);
+
+        final double[] tmpWork = new double[tmpDim];
+        final int[] tmpPattern = new int[tmpDim];
+        final int[] tmpStack = new int[tmpDim];
+        final int[] tmpPositions = new int[tmpDim];
+        final int[] tmpVisited = new int[tmpDim];
+        Arrays.fill(tmpVisited, -1);
+
+        int tmpLowerCount = 0;
+        int tmpUpperCount = 0;
+        int tmpRank = 0;
+        int tmpUnpivoted = 0;
+
+        for (int k = 0; k < tmpDim; k++) {
+
+            tmpLowerPointers[k] = tmpLowerCount;
+            tmpUpperPointers[k] = tmpUpperCount;
+
+            if ((tmpLowerCount + tmpDim) > tmpLowerIndices.length) {
+                final int tmpLength = (2 * tmpLowerIndices.length) + tmpDim;
+                tmpLowerIndices = Arrays.copyOf(tmpLowerIndices, tmpLength);
+                tmpLowerValues = Arrays.copyOf(tmpLowerValues, tmpLength);
+            }
+            if ((tmpUpperCount + tmpDim) > tmpUpperIndices.length) {
+                final int tmpLength = (2 * tmpUpperIndices.length) + tmpDim;
+                tmpUpperIndices = Arrays.copyOf(tmpUpperIndices, tmpLength);
+                tmpUpperValues = Arrays.copyOf(tmpUpperValues, tmpLength);
+            }
+
+            final int tmpColumn = tmpColumnOrder[k];
+
+            // The nonzero pattern of [L]\[A](:,column), in topological order, from position tmpTop
+            int tmpTop = tmpDim;
+            for (int p = matrix.pointers[tmpColumn], tmpLimit = matrix.pointers[tmpColumn + 1]; p < tmpLimit; p++) {
+                final int tmpRow = matrix.indices[p];
+                if (tmpVisited[tmpRow] != k) {
+                    tmpTop = SparseLU.reach(tmpRow, k, tmpTop, tmpPattern, tmpStack, tmpPositions, tmpVisited, tmpPivotStep, tmpLowerPointers,
+                            tmpLowerIndices);
+                }
+            }
+
+            // The numeric sparse triangular solve
+            for (int p = tmpTop; p < tmpDim; p++) {
+                tmpWork[tmpPattern[p]] = PrimitiveMath.ZERO;
+            }
+            for (int p = matrix.pointers[tmpColumn], tmpLimit = matrix.pointers[tmpColumn + 1]; p < tmpLimit; p++) {
+                tmpWork[matrix.indices[p]] = matrix.values[p];
+            }
+            for (int p = tmpTop; p < tmpDim; p++) {
+                final int tmpRow = tmpPattern[p];
+                final int tmpStep = tmpPivotStep[tmpRow];
+                if (tmpStep >= 0) {
+                    final double tmpValue = tmpWork[tmpRow];
+                    if (tmpValue != PrimitiveMath.ZERO) {
+                        for (int q = tmpLowerPointers[tmpStep] + 1, tmpLimit = tmpLowerPointers[tmpStep + 1]; q < tmpLimit; q++) {
+                            tmpWork[tmpLowerIndices[q]] -= tmpLowerValues[q] * tmpValue;
+                        }
+                    }
+                }
+            }
+
+            // Pivot selection - [U](:,k) are the already pivoted rows
+            int tmpPivotRow = -1;
+            double tmpLargest = -PrimitiveMath.ONE;
+            for (int p = tmpTop; p < tmpDim; p++) {
+                final int tmpRow = tmpPattern[p];
+                final int tmpStep = tmpPivotStep[tmpRow];
+                if (tmpStep < 0) {
+                    final double tmpMagnitude = Math.abs(tmpWork[tmpRow]);
+                    if (tmpMagnitude > tmpLargest) {
+                        tmpLargest = tmpMagnitude;
+                        tmpPivotRow = tmpRow;
+                    }
+                } else {
+                    tmpUpperIndices[tmpUpperCount] = tmpStep;
+                    tmpUpperValues[tmpUpperCount++] = tmpWork[tmpRow];
+                }
+            }
+
+            if (!pivoting) {
+                // Always the diagonal element, also when it is zero (then the matrix is reported as singular)
+                tmpPivotRow = tmpColumn;
+            } else if ((tmpPivotStep[tmpColumn] < 0) && (tmpVisited[tmpColumn] == k) && (Math.abs(tmpWork[tmpColumn]) >= (THRESHOLD * tmpLargest))
+                    && ((tmpWork[tmpColumn] != PrimitiveMath.ZERO) || (tmpLargest == PrimitiveMath.ZERO))) {
+                tmpPivotRow = tmpColumn;
+            }
+
+            double tmpPivot = PrimitiveMath.ZERO;
+            if (tmpPivotRow < 0) {
+                // Structurally singular - any not yet pivoted row will do
+                while (tmpPivotStep[tmpUnpivoted] >= 0) {
+                    tmpUnpivoted++;
+                }
+                tmpPivotRow = tmpUnpivoted;
+            } else {
+                tmpPivot = tmpWork[tmpPivotRow];
+            }
+
+            if (tmpPivot != PrimitiveMath.ZERO) {
+                tmpRank++;
+            }
+
+            tmpUpperIndices[tmpUpperCount] = k;
+            tmpUpperValues[tmpUpperCount++] = tmpPivot;
+
+            tmpPivotStep[tmpPivotRow] = k;
+            tmpLowerIndices[tmpLowerCount] = tmpPivotRow;
+            tmpLowerValues[tmpLowerCount++] = PrimitiveMath.ONE;
+
+            for (int p = tmpTop; p < tmpDim; p++) {
+                final int tmpRow = tmpPattern[p];
+                if (tmpPivotStep[tmpRow] < 0) {
+                    final double tmpValue = tmpWork[tmpRow];
+                    if ((tmpValue != PrimitiveMath.ZERO) && (tmpPivot != PrimitiveMath.ZERO)) {
+                        tmpLowerIndices[tmpLowerCount] = tmpRow;
+                        tmpLowerValues[tmpLowerCount++] = tmpValue / tmpPivot;
+                    }
+                }
+                tmpWork[tmpRow] = PrimitiveMath.ZERO;
+            }
+        }
+
+        tmpLowerPointers[tmpDim] = tmpLowerCount;
+        tmpUpperPointers[tmpDim] = tmpUpperCount;
+
+        // The row indices of [L] in pivot order
+        for (int p = 0; p < tmpLowerCount; p++) {
+            tmpLowerIndices[p] = tmpPivotStep[tmpLowerIndices[p]];
+        }
+
+        myPivotOrder = SparseCholesky.inverse(tmpPivotStep);
+        myRank = tmpRank;
+
+        myLowerPointers = tmpLowerPointers;
+        myLowerIndices = Arrays.copyOf(tmpLowerIndices, tmpLowerCount);
+        myLowerValues = Arrays.copyOf(tmpLowerValues, tmpLowerCount);
+        myUpperPointers = tmpUpperPointers;
+        myUpperIndices = Arrays.copyOf(tmpUpperIndices, tmpUpperCount);
+        myUpperValues = Arrays.copyOf(tmpUpperValues, tmpUpperCount);
+
+        return this.computed(true);
+    }
+
+    private PrimitiveDenseStore doSolve(final PrimitiveDenseStore preallocated) {
+
+        final double[] tmpData = preallocated.data;
+        final int tmpDim = myPivotOrder.length;
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                final double[] tmpWork = new double[tmpDim];
+                for (int j = first; j < limit; j++) {
+                    SparseLU.this.solve(tmpData, j * tmpDim, tmpWork);
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, (int) preallocated.countColumns(), 1);
+
+        return preallocated;
+    }
+
+    /**
+     * Solves for one column, in place
+     */
+    private void solve(final double[] data, final int offset, final double[] work) {
+
+        final int tmpDim = myPivotOrder.length;
+
+        for (int k = 0; k < tmpDim; k++) {
+            work[k] = data[offset + myPivotOrder[k]];
+        }
+
+        // [L][Y] = [P][B]
+        for (int j = 0; j < tmpDim; j++) {
+            final double tmpValue = work[j];
+            if (tmpValue != PrimitiveMath.ZERO) {
+                for (int p = myLowerPointers[j] + 1, tmpLimit = myLowerPointers[j + 1]; p < tmpLimit; p++) {
+                    work[myLowerIndices[p]] -= myLowerValues[p] * tmpValue;
+                }
+            }
+        }
+
+        // [U][Q]<sup>T</sup>[X] = [Y]
+        for (int j = tmpDim - 1; j >= 0; j--) {
+            final int tmpDiagonal = myUpperPointers[j + 1] - 1;
+            final double tmpValue = work[j] /= myUpperValues[tmpDiagonal];
+            if (tmpValue != PrimitiveMath.ZERO) {
+                for (int p = myUpperPointers[j]; p < tmpDiagonal; p++) {
+                    work[myUpperIndices[p]] -= myUpperValues[p] * tmpValue;
+                }
+            }
+        }
+
+        for (int k = 0; k < tmpDim; k++) {
+            data[offset + myColumnOrder[k]] = work[k];
+        }
+    }
+
+    /**
+     * Depth first search, in the graph of the already calculated columns of [L], from a row. The rows
+     * reached are added to the pattern (in front of the previously added ones) in topological order.
+     *
+     * @return The new top of the pattern
+     */
+    static int reach(final int start, final int step, final int top, final int[] pattern, final int[] stack, final int[] positions,
+            final int[] visited, final int[] pivotStep, final int[] lowerPointers, final int[] lowerIndices) {
+
+        int retVal = top;
+        int tmpHead = 0;
+        stack[0] = start;
+
+        while (tmpHead >= 0) {
+
+            final int tmpRow = stack[tmpHead];
+            final int tmpStep = pivotStep[tmpRow];
+
+            if (visited[tmpRow] != step) {
+                visited[tmpRow] = step;
+                positions[tmpHead] = tmpStep < 0 ? 0 : lowerPointers[tmpStep] + 1;
+            }
+
+            boolean tmpDone = true;
+            if (tmpStep >= 0) {
+                // Column tmpStep of [L] is complete (all its pointers are set)
+                for (int p = positions[tmpHead], tmpLimit = lowerPointers[tmpStep + 1]; p < tmpLimit; p++) {
+                    final int tmpNext = lowerIndices[p];
+                    if (visited[tmpNext] != step) {
+                        positions[tmpHead] = p + 1;
+                        stack[++tmpHead] = tmpNext;
+                        tmpDone = false;
+                        break;
+                    }
+                }
+            }
+
+            if (tmpDone) {
+                tmpHead--;
+                pattern[--retVal] = tmpRow;
+            }
+        }
+
+        return retVal;
+    }
+
+    static int sign(final int[] permutation) {
+
+        final int tmpDim = permutation.length;
+        final boolean[] tmpVisited = new boolean[tmpDim];
+
+        int retVal = 1;
+        for (int i = 0; i < tmpDim; i++) {
+            if (!tmpVisited[i]) {
+                int tmpLength = 0;
+                for (int j = i; !tmpVisited[j]; j = permutation[j]) {
+                    tmpVisited[j] = true;
+                    tmpLength++;
+                }
+                if ((tmpLength % 2) == 0) {
+                    retVal = -retVal;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @param columns The column (index) of each column of the factor, or null to keep them as they are
+     */
+    private static SparseStore<Double> toStore(final int[] pointers, final int[] indices, final double[] values, final int[] columns) {
+
+        final int tmpDim = pointers.length - 1;
+        final SparseStore.Builder<Double> retVal = SparseStore.buildPrimitive(tmpDim, tmpDim, values.length);
+
+        for (int j = 0; j < tmpDim; j++) {
+            final int tmpColumn = columns != null ? columns[j] : j;
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                retVal.add(indices[p], tmpColumn, values[p]);
+            }
+        }
+
+        return retVal.build();
+    }
+
+    @Override
+    protected PrimitiveDenseStore allocate(final long numberOfRows, final long numberOfColumns) {
+        return PrimitiveDenseStore.FACTORY.makeZero(numberOfRows, numberOfColumns);
+    }
+
+}
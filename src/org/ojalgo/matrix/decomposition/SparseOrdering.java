@@ -0,0 +1,593 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Arrays;
+
+/**
+ * Fill-reducing orderings for the sparse decompositions. They operate on the (undirected) graph of
+ * [A]+[A]<sup>T</sup> and return the order in which to eliminate the rows/columns.
+ *
+ * @author apete
+ */
+public enum SparseOrdering {
+
+    /**
+     * Minimum degree - repeatedly eliminates a node of least degree. The elimination graph is represented as
+     * a quotient graph (eliminated nodes become elements that absorb each other) so it never grows larger
+     * than the original graph. As with AMD the degrees are approximated by upper bounds that are cheap to
+     * update, and nodes with a very large initial degree (dense rows) are ordered last.
+     */
+    MINIMUM_DEGREE {
+
+        @Override
+        int[] order(final int dim, final int[] pointers, final int[] neighbours) {
+            return SparseOrdering.minimumDegree(dim, pointers, neighbours);
+        }
+
+    },
+
+    /**
+     * No reordering
+     */
+    NATURAL {
+
+        @Override
+        int[] order(final int dim, final int[] pointers, final int[] neighbours) {
+            final int[] retVal = new int[dim];
+            for (int i = 0; i < dim; i++) {
+                retVal[i] = i;
+            }
+            return retVal;
+        }
+
+    },
+
+    /**
+     * Nested dissection - recursively splits the graph in two with a (breadth first search level structure)
+     * vertex separator, and orders the separator last. The parts are split until they are small, and are
+     * then ordered by {@linkplain #MINIMUM_DEGREE}. Gives more balanced elimination trees, and thereby more
+     * parallelism, than minimum degree - particularly with matrices from 2D/3D meshes.
+     */
+    NESTED_DISSECTION {
+
+        @Override
+        int[] order(final int dim, final int[] pointers, final int[] neighbours) {
+            return new Dissector(dim, pointers, neighbours).order();
+        }
+
+    };
+
+    static final class Dissector {
+
+        /**
+         * Parts smaller than this are not dissected any further
+         */
+        static final int LEAF = 128;
+
+        private final int[] myLabels;
+        private final int[] myLevels;
+        private final int[] myLocal;
+        private final int[] myNeighbours;
+        private int myNextLabel = 0;
+        private final int[] myOrder;
+        private int myOrdered = 0;
+        private final int[] myPointers;
+        private final int[] myQueue;
+
+        Dissector(final int dim, final int[] pointers, final int[] neighbours) {
+
+            super();
+
+            myPointers = pointers;
+            myNeighbours = neighbours;
+
+            myOrder = new int[dim];
+            myLabels = new int[dim];
+            myLevels = new int[dim];
+            myLocal = new int[dim];
+            myQueue = new int[dim];
+        }
+
+        int[] order() {
+
+            final int tmpDim = myOrder.length;
+
+            final int[] tmpNodes = new int[tmpDim];
+            for (int i = 0; i < tmpDim; i++) {
+                tmpNodes[i] = i;
+            }
+
+            this.dissect(tmpNodes, myNextLabel);
+
+            return myOrder;
+        }
+
+        /**
+         * Breadth first search, within the part, from the start node.
+         *
+         * @return The number of levels - the nodes are in myQueue in level order (and the level of each in
+         *         myLevels)
+         */
+        private int search(final int start, final int label, final int count) {
+
+            for (int k = 0; k < count; k++) {
+                myLevels[myQueue[k]] = -1;
+            }
+
+            myQueue[0] = start;
+            myLevels[start] = 0;
+
+            int tmpLevels = 1;
+            int tmpReached = 1;
+
+            for (int k = 0; k < tmpReached; k++) {
+                final int tmpNode = myQueue[k];
+                final int tmpNextLevel = myLevels[tmpNode] + 1;
+                for (int p = myPointers[tmpNode], tmpLimit = myPointers[tmpNode + 1]; p < tmpLimit; p++) {
+                    final int tmpNeighbour = myNeighbours[p];
+                    if ((myLabels[tmpNeighbour] == label) && (myLevels[tmpNeighbour] < 0)) {
+                        myLevels[tmpNeighbour] = tmpNextLevel;
+                        myQueue[tmpReached++] = tmpNeighbour;
+                        tmpLevels = tmpNextLevel + 1;
+                    }
+                }
+            }
+
+            return tmpReached < count ? -tmpReached : tmpLevels;
+        }
+
+        private void dissect(final int[] nodes, final int label) {
+
+            final int tmpCount = nodes.length;
+
+            if (tmpCount <= LEAF) {
+                this.leaf(nodes, label);
+                return;
+            }
+
+            // The nodes of the part are all in the queue - any unreached have level -1 after a search
+            System.arraycopy(nodes, 0, myQueue, 0, tmpCount);
+
+            int tmpLevels = this.search(nodes[0], label, tmpCount);
+
+            if (tmpLevels < 0) {
+                this.components(nodes, label);
+                return;
+            }
+
+            // Pseudo-peripheral start node - the least connected node of the last level, until no deeper
+            for (int r = 0; r < 4; r++) {
+
+                int tmpCandidate = -1;
+                int tmpDegree = Integer.MAX_VALUE;
+                for (int k = tmpCount - 1; (k >= 0) && (myLevels[myQueue[k]] == (tmpLevels - 1)); k--) {
+                    final int tmpNode = myQueue[k];
+                    final int tmpNodeDegree = myPointers[tmpNode + 1] - myPointers[tmpNode];
+                    if (tmpNodeDegree < tmpDegree) {
+                        tmpDegree = tmpNodeDegree;
+                        tmpCandidate = tmpNode;
+                    }
+                }
+
+                final int tmpPrevious = tmpLevels;
+                tmpLevels = this.search(tmpCandidate, label, tmpCount);
+                if (tmpLevels <= tmpPrevious) {
+                    break;
+                }
+            }
+
+            if (tmpLevels < 3) {
+                this.leaf(nodes, label);
+                return;
+            }
+
+            // The level where half of the nodes are reached is the separator
+            int tmpSeparator = 1;
+            for (int k = 0; k < tmpCount; k++) {
+                if ((2 * k) >= tmpCount) {
+                    tmpSeparator = Math.max(1, Math.min(tmpLevels - 2, myLevels[myQueue[k]]));
+                    break;
+                }
+            }
+
+            final int tmpFirstLabel = ++myNextLabel;
+            final int tmpSecondLabel = ++myNextLabel;
+            final int tmpSeparatorLabel = ++myNextLabel;
+
+            int tmpFirstCount = 0;
+            int tmpSecondCount = 0;
+            int tmpSeparatorCount = 0;
+
+            for (int k = 0; k < tmpCount; k++) {
+                final int tmpNode = myQueue[k];
+                final int tmpLevel = myLevels[tmpNode];
+                if (tmpLevel < tmpSeparator) {
+                    myLabels[tmpNode] = tmpFirstLabel;
+                    tmpFirstCount++;
+                } else if (tmpLevel > tmpSeparator) {
+                    myLabels[tmpNode] = tmpSecondLabel;
+                    tmpSecondCount++;
+                } else {
+                    // Separator nodes not connected to the second part are moved to the first
+                    boolean tmpNeeded = false;
+                    for (int p = myPointers[tmpNode], tmpLimit = myPointers[tmpNode + 1]; !tmpNeeded && (p < tmpLimit); p++) {
+                        final int tmpNeighbour = myNeighbours[p];
+                        tmpNeeded = (myLabels[tmpNeighbour] == label) && (myLevels[tmpNeighbour] > tmpSeparator);
+                    }
+                    if (tmpNeeded) {
+                        myLabels[tmpNode] = tmpSeparatorLabel;
+                        tmpSeparatorCount++;
+                    } else {
+                        myLabels[tmpNode] = tmpFirstLabel;
+                        tmpFirstCount++;
+                    }
+                }
+            }
+
+            final int[] tmpFirst = new int[tmpFirstCount];
+            final int[] tmpSecond = new int[tmpSecondCount];
+            final int[] tmpSeparatorNodes = new int[tmpSeparatorCount];
+            tmpFirstCount = tmpSecondCount = tmpSeparatorCount = 0;
+            for (int k = 0; k < tmpCount; k++) {
+                final int tmpNode = nodes[k];
+                final int tmpLabel = myLabels[tmpNode];
+                if (tmpLabel == tmpFirstLabel) {
+                    tmpFirst[tmpFirstCount++] = tmpNode;
+                } else if (tmpLabel == tmpSecondLabel) {
+                    tmpSecond[tmpSecondCount++] = tmpNode;
+                } else {
+                    tmpSeparatorNodes[tmpSeparatorCount++] = tmpNode;
+                }
+            }
+
+            this.dissect(tmpFirst, tmpFirstLabel);
+            this.dissect(tmpSecond, tmpSecondLabel);
+
+            for (int k = 0; k < tmpSeparatorCount; k++) {
+                myOrder[myOrdered++] = tmpSeparatorNodes[k];
+            }
+        }
+
+        /**
+         * The part is not connected - dissect each of its connected components separately.
+         */
+        private void components(final int[] nodes, final int label) {
+
+            final int tmpCount = nodes.length;
+
+            for (int k = 0; k < tmpCount; k++) {
+                myLevels[nodes[k]] = -1;
+            }
+
+            for (int k = 0; k < tmpCount; k++) {
+
+                final int tmpStart = nodes[k];
+
+                if (myLevels[tmpStart] < 0) {
+
+                    final int tmpComponentLabel = ++myNextLabel;
+
+                    myQueue[0] = tmpStart;
+                    myLevels[tmpStart] = 0;
+                    myLabels[tmpStart] = tmpComponentLabel;
+                    int tmpReached = 1;
+
+                    for (int q = 0; q < tmpReached; q++) {
+                        final int tmpNode = myQueue[q];
+                        for (int p = myPointers[tmpNode], tmpLimit = myPointers[tmpNode + 1]; p < tmpLimit; p++) {
+                            final int tmpNeighbour = myNeighbours[p];
+                            if ((myLabels[tmpNeighbour] == label) && (myLevels[tmpNeighbour] < 0)) {
+                                myLevels[tmpNeighbour] = 0;
+                                myLabels[tmpNeighbour] = tmpComponentLabel;
+                                myQueue[tmpReached++] = tmpNeighbour;
+                            }
+                        }
+                    }
+
+                    this.dissect(Arrays.copyOf(myQueue, tmpReached), tmpComponentLabel);
+                }
+            }
+        }
+
+        /**
+         * Minimum degree on the subgraph induced by the nodes
+         */
+        private void leaf(final int[] nodes, final int label) {
+
+            final int tmpCount = nodes.length;
+
+            for (int k = 0; k < tmpCount; k++) {
+                myLocal[nodes[k]] = k;
+            }
+
+            final int[] tmpPointers = new int[tmpCount + 1];
+            for (int k = 0; k < tmpCount; k++) {
+                final int tmpNode = nodes[k];
+                int tmpDegree = 0;
+                for (int p = myPointers[tmpNode], tmpLimit = myPointers[tmpNode + 1]; p < tmpLimit; p++) {
+                    if (myLabels[myNeighbours[p]] == label) {
+                        tmpDegree++;
+                    }
+                }
+                tmpPointers[k + 1] = tmpPointers[k] + tmpDegree;
+            }
+
+            final int[] tmpNeighbours = new int[tmpPointers[tmpCount]];
+            for (int k = 0; k < tmpCount; k++) {
+                final int tmpNode = nodes[k];
+                int tmpIndex = tmpPointers[k];
+                for (int p = myPointers[tmpNode], tmpLimit = myPointers[tmpNode + 1]; p < tmpLimit; p++) {
+                    final int tmpNeighbour = myNeighbours[p];
+                    if (myLabels[tmpNeighbour] == label) {
+                        tmpNeighbours[tmpIndex++] = myLocal[tmpNeighbour];
+                    }
+                }
+            }
+
+            for (final int tmpLocal : SparseOrdering.minimumDegree(tmpCount, tmpPointers, tmpNeighbours)) {
+                myOrder[myOrdered++] = nodes[tmpLocal];
+            }
+        }
+
+    }
+
+    private static final byte ABSORBED = 2;
+    private static final byte DENSE = 3;
+    private static final byte ELEMENT = 1;
+    private static final byte VARIABLE = 0;
+
+    static int[] minimumDegree(final int dim, final int[] pointers, final int[] neighbours) {
+
+        final int[] retVal = new int[dim];
+        int tmpOrdered = 0;
+
+        // Variables: adjacent variables and elements. Elements: the member variables (in tmpVariables).
+        final int[][] tmpVariables = new int[dim][];
+        final int[] tmpVariableCounts = new int[dim];
+        final int[][] tmpElements = new int[dim][];
+        final int[] tmpElementCounts = new int[dim];
+        final byte[] tmpStatus = new byte[dim];
+
+        final int tmpDenseLimit = Math.max(16, (int) (10.0 * Math.sqrt(dim)));
+        int tmpDenseCount = 0;
+        for (int i = 0; i < dim; i++) {
+            tmpVariables[i] = Arrays.copyOfRange(neighbours, pointers[i], pointers[i + 1]);
+            tmpVariableCounts[i] = tmpVariables[i].length;
+            tmpElements[i] = new int[2];
+            if (tmpVariableCounts[i] > tmpDenseLimit) {
+                tmpStatus[i] = DENSE;
+                tmpDenseCount++;
+            }
+        }
+
+        // Degree lists
+        final int[] tmpHeads = new int[dim];
+        final int[] tmpNext = new int[dim];
+        final int[] tmpPrevious = new int[dim];
+        final int[] tmpDegrees = new int[dim];
+        Arrays.fill(tmpHeads, -1);
+        int tmpMinimum = dim;
+
+        final int[] tmpMarkers = new int[dim];
+        int tmpTag = 0;
+
+        final int[] tmpBuffer = new int[dim];
+
+        // The number of variables in each element that are not members of the newest element
+        final int[] tmpExternal = new int[dim];
+        final int[] tmpTouched = new int[dim];
+        Arrays.fill(tmpExternal, -1);
+
+        for (int i = 0; i < dim; i++) {
+            if (tmpStatus[i] == VARIABLE) {
+                int tmpDegree = 0;
+                final int[] tmpAdjacent = tmpVariables[i];
+                for (int k = 0; k < tmpVariableCounts[i]; k++) {
+                    if (tmpStatus[tmpAdjacent[k]] == VARIABLE) {
+                        tmpAdjacent[tmpDegree++] = tmpAdjacent[k];
+                    }
+                }
+                tmpVariableCounts[i] = tmpDegree;
+                SparseOrdering.insert(i, tmpDegree, tmpHeads, tmpNext, tmpPrevious, tmpDegrees);
+                tmpMinimum = Math.min(tmpMinimum, tmpDegree);
+            }
+        }
+
+        while (tmpOrdered < (dim - tmpDenseCount)) {
+
+            while (tmpHeads[tmpMinimum] < 0) {
+                tmpMinimum++;
+            }
+
+            final int tmpPivot = tmpHeads[tmpMinimum];
+            SparseOrdering.remove(tmpPivot, tmpHeads, tmpNext, tmpPrevious, tmpDegrees);
+            retVal[tmpOrdered++] = tmpPivot;
+
+            // The new element - the variables adjacent to the pivot, directly or via its elements
+            final int tmpPivotTag = ++tmpTag;
+            tmpMarkers[tmpPivot] = tmpPivotTag;
+            int tmpMemberCount = 0;
+
+            final int[] tmpPivotVariables = tmpVariables[tmpPivot];
+            for (int k = 0; k < tmpVariableCounts[tmpPivot]; k++) {
+                final int tmpVariable = tmpPivotVariables[k];
+                if ((tmpStatus[tmpVariable] == VARIABLE) && (tmpMarkers[tmpVariable] != tmpPivotTag)) {
+                    tmpMarkers[tmpVariable] = tmpPivotTag;
+                    tmpBuffer[tmpMemberCount++] = tmpVariable;
+                }
+            }
+
+            final int[] tmpPivotElements = tmpElements[tmpPivot];
+            for (int k = 0; k < tmpElementCounts[tmpPivot]; k++) {
+                final int tmpElement = tmpPivotElements[k];
+                if (tmpStatus[tmpElement] == ELEMENT) {
+                    final int[] tmpMembers = tmpVariables[tmpElement];
+                    for (int m = 0; m < tmpVariableCounts[tmpElement]; m++) {
+                        final int tmpVariable = tmpMembers[m];
+                        if ((tmpStatus[tmpVariable] == VARIABLE) && (tmpMarkers[tmpVariable] != tmpPivotTag)) {
+                            tmpMarkers[tmpVariable] = tmpPivotTag;
+                            tmpBuffer[tmpMemberCount++] = tmpVariable;
+                        }
+                    }
+                    // Absorbed by the new element
+                    tmpStatus[tmpElement] = ABSORBED;
+                    tmpVariables[tmpElement] = null;
+                    tmpVariableCounts[tmpElement] = 0;
+                }
+            }
+
+            final int[] tmpNewMembers = Arrays.copyOf(tmpBuffer, tmpMemberCount);
+            tmpStatus[tmpPivot] = ELEMENT;
+            tmpVariables[tmpPivot] = tmpNewMembers;
+            tmpVariableCounts[tmpPivot] = tmpMemberCount;
+            tmpElements[tmpPivot] = null;
+            tmpElementCounts[tmpPivot] = 0;
+
+            // Update the adjacency of the members
+            for (int m = 0; m < tmpMemberCount; m++) {
+
+                final int tmpMember = tmpNewMembers[m];
+                SparseOrdering.remove(tmpMember, tmpHeads, tmpNext, tmpPrevious, tmpDegrees);
+
+                int[] tmpMemberElements = tmpElements[tmpMember];
+                int tmpCount = 0;
+                for (int k = 0; k < tmpElementCounts[tmpMember]; k++) {
+                    final int tmpElement = tmpMemberElements[k];
+                    if (tmpStatus[tmpElement] == ELEMENT) {
+                        tmpMemberElements[tmpCount++] = tmpElement;
+                    }
+                }
+                if (tmpCount == tmpMemberElements.length) {
+                    tmpElements[tmpMember] = tmpMemberElements = Arrays.copyOf(tmpMemberElements, 2 * tmpCount);
+                }
+                tmpMemberElements[tmpCount++] = tmpPivot;
+                tmpElementCounts[tmpMember] = tmpCount;
+
+                // Variables that are members of the new element are now adjacent through it
+                final int[] tmpMemberVariables = tmpVariables[tmpMember];
+                tmpCount = 0;
+                for (int k = 0; k < tmpVariableCounts[tmpMember]; k++) {
+                    final int tmpVariable = tmpMemberVariables[k];
+                    if ((tmpStatus[tmpVariable] == VARIABLE) && (tmpMarkers[tmpVariable] != tmpPivotTag)) {
+                        tmpMemberVariables[tmpCount++] = tmpVariable;
+                    }
+                }
+                tmpVariableCounts[tmpMember] = tmpCount;
+            }
+
+            // |Le \ Lp| for the other elements adjacent to the members
+            int tmpTouchedCount = 0;
+            for (int m = 0; m < tmpMemberCount; m++) {
+                final int tmpMember = tmpNewMembers[m];
+                final int[] tmpMemberElements = tmpElements[tmpMember];
+                for (int k = 0; k < tmpElementCounts[tmpMember]; k++) {
+                    final int tmpElement = tmpMemberElements[k];
+                    if (tmpElement != tmpPivot) {
+                        if (tmpExternal[tmpElement] < 0) {
+                            tmpExternal[tmpElement] = tmpVariableCounts[tmpElement];
+                            tmpTouched[tmpTouchedCount++] = tmpElement;
+                        }
+                        tmpExternal[tmpElement]--;
+                    }
+                }
+            }
+
+            // Approximate (upper bound) external degrees of the members
+            final int tmpRemaining = dim - tmpDenseCount - tmpOrdered;
+            for (int m = 0; m < tmpMemberCount; m++) {
+
+                final int tmpMember = tmpNewMembers[m];
+
+                int tmpDegree = tmpVariableCounts[tmpMember] + (tmpMemberCount - 1);
+
+                final int[] tmpMemberElements = tmpElements[tmpMember];
+                int tmpCount = 0;
+                for (int k = 0; k < tmpElementCounts[tmpMember]; k++) {
+                    final int tmpElement = tmpMemberElements[k];
+                    if (tmpElement == tmpPivot) {
+                        tmpMemberElements[tmpCount++] = tmpElement;
+                    } else if (tmpExternal[tmpElement] > 0) {
+                        tmpMemberElements[tmpCount++] = tmpElement;
+                        tmpDegree += tmpExternal[tmpElement];
+                    } else if (tmpStatus[tmpElement] == ELEMENT) {
+                        // A subset of the new element - absorbed by it
+                        tmpStatus[tmpElement] = ABSORBED;
+                        tmpVariables[tmpElement] = null;
+                        tmpVariableCounts[tmpElement] = 0;
+                    }
+                }
+                tmpElementCounts[tmpMember] = tmpCount;
+
+                tmpDegree = Math.min(tmpDegree, Math.min(tmpRemaining - 1, tmpDegrees[tmpMember] + (tmpMemberCount - 1)));
+
+                SparseOrdering.insert(tmpMember, tmpDegree, tmpHeads, tmpNext, tmpPrevious, tmpDegrees);
+                tmpMinimum = Math.min(tmpMinimum, tmpDegree);
+            }
+
+            for (int t = 0; t < tmpTouchedCount; t++) {
+                tmpExternal[tmpTouched[t]] = -1;
+            }
+        }
+
+        for (int i = 0; i < dim; i++) {
+            if (tmpStatus[i] == DENSE) {
+                retVal[tmpOrdered++] = i;
+            }
+        }
+
+        return retVal;
+    }
+
+    private static void insert(final int node, final int degree, final int[] heads, final int[] next, final int[] previous, final int[] degrees) {
+        final int tmpHead = heads[degree];
+        next[node] = tmpHead;
+        previous[node] = -1;
+        if (tmpHead >= 0) {
+            previous[tmpHead] = node;
+        }
+        heads[degree] = node;
+        degrees[node] = degree;
+    }
+
+    private static void remove(final int node, final int[] heads, final int[] next, final int[] previous, final int[] degrees) {
+        final int tmpNext = next[node];
+        final int tmpPrevious = previous[node];
+        if (tmpNext >= 0) {
+            previous[tmpNext] = tmpPrevious;
+        }
+        if (tmpPrevious >= 0) {
+            next[tmpPrevious] = tmpNext;
+        } else {
+            heads[degrees[node]] = tmpNext;
+        }
+    }
+
+    /**
+     * @param dim The number of nodes
+     * @param pointers The first neighbour of each node (and then the total count)
+     * @param neighbours The neighbours of all nodes
+     * @return The elimination order - the original index of the node to eliminate first, second...
+     */
+    abstract int[] order(int dim, int[] pointers, int[] neighbours);
+
+}
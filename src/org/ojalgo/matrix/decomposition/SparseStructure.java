@@ -0,0 +1,212 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Arrays;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.matrix.store.CompressedColumnStore;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.ElementsSupplier;
+import org.ojalgo.matrix.store.MatrixStore;
+
+/**
+ * The input to the sparse decompositions in compressed sparse column form - column pointers, sorted row
+ * indices and values.
+ *
+ * @author apete
+ */
+final class SparseStructure {
+
+    static SparseStructure wrap(final Access2D<?> matrix) {
+        if (matrix instanceof MatrixStore<?>) {
+            return SparseStructure.compress((MatrixStore<?>) matrix);
+        } else {
+            return SparseStructure.compress(MatrixStore.PRIMITIVE.makeWrapper(matrix).get());
+        }
+    }
+
+    static SparseStructure of(final ElementsSupplier<Double> matrix) {
+        if (matrix instanceof MatrixStore<?>) {
+            return SparseStructure.compress((MatrixStore<?>) matrix);
+        } else {
+            return SparseStructure.compress(matrix.get());
+        }
+    }
+
+    /**
+     * Any {@linkplain MatrixStore} can be converted - {@linkplain CompressedStore} and
+     * {@linkplain org.ojalgo.matrix.store.SparseStore} inputs without ever looking at their zeros.
+     */
+    private static SparseStructure compress(final MatrixStore<?> matrix) {
+
+        final CompressedColumnStore tmpCompressed = matrix instanceof CompressedColumnStore ? (CompressedColumnStore) matrix
+                : CompressedStore.builder(matrix).toColumnStore();
+
+        final int tmpColumns = (int) tmpCompressed.countColumns();
+        final int tmpNonzeros = tmpCompressed.countNonzeros();
+
+        final int[] tmpPointers = new int[tmpColumns + 1];
+        final int[] tmpIndices = new int[tmpNonzeros];
+        final double[] tmpValues = new double[tmpNonzeros];
+        tmpCompressed.copyStructure(tmpPointers, tmpIndices, tmpValues);
+
+        return new SparseStructure((int) tmpCompressed.countRows(), tmpColumns, tmpPointers, tmpIndices, tmpValues);
+    }
+
+    final int columns;
+    final int[] indices;
+    final int[] pointers;
+    final int rows;
+    final double[] values;
+
+    SparseStructure(final int rows, final int columns, final int[] pointers, final int[] indices, final double[] values) {
+
+        super();
+
+        this.rows = rows;
+        this.columns = columns;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * @return The nonzeros (incl. the diagonal) on and below the diagonal
+     */
+    SparseStructure lower() {
+
+        final int[] tmpPointers = new int[columns + 1];
+        int tmpCount = 0;
+        for (int j = 0; j < columns; j++) {
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                if (indices[p] >= j) {
+                    tmpCount++;
+                }
+            }
+            tmpPointers[j + 1] = tmpCount;
+        }
+
+        final int[] tmpIndices = new int[tmpCount];
+        final double[] tmpValues = new double[tmpCount];
+        int tmpIndex = 0;
+        for (int j = 0; j < columns; j++) {
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                if (indices[p] >= j) {
+                    tmpIndices[tmpIndex] = indices[p];
+                    tmpValues[tmpIndex++] = values[p];
+                }
+            }
+        }
+
+        return new SparseStructure(rows, columns, tmpPointers, tmpIndices, tmpValues);
+    }
+
+    boolean isSamePattern(final SparseStructure other) {
+        return (other != null) && (rows == other.rows) && (columns == other.columns) && Arrays.equals(pointers, other.pointers)
+                && Arrays.equals(indices, other.indices);
+    }
+
+    boolean isSquare() {
+        return rows == columns;
+    }
+
+    /**
+     * @return true if every (row, column) nonzero has an equal (column, row) counterpart
+     */
+    boolean isSymmetric() {
+
+        if (!this.isSquare()) {
+            return false;
+        }
+
+        for (int j = 0; j < columns; j++) {
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                final int i = indices[p];
+                if (i != j) {
+                    final int tmpTransposed = Arrays.binarySearch(indices, pointers[i], pointers[i + 1], j);
+                    if ((tmpTransposed < 0) || (Double.compare(values[tmpTransposed], values[p]) != 0)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The (undirected) graph of [A]+[A]<sup>T</sup>, without the diagonal, as adjacency lists. The matrix
+     * must be square.
+     *
+     * @return { pointers, neighbours }
+     */
+    int[][] symmetric() {
+
+        final int tmpDim = columns;
+
+        final int[] tmpCounts = new int[tmpDim + 1];
+        for (int j = 0; j < tmpDim; j++) {
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                final int i = indices[p];
+                if (i != j) {
+                    tmpCounts[i + 1]++;
+                    tmpCounts[j + 1]++;
+                }
+            }
+        }
+        for (int j = 0; j < tmpDim; j++) {
+            tmpCounts[j + 1] += tmpCounts[j];
+        }
+
+        final int[] tmpNext = Arrays.copyOf(tmpCounts, tmpDim);
+        final int[] tmpNeighbours = new int[tmpCounts[tmpDim]];
+        for (int j = 0; j < tmpDim; j++) {
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                final int i = indices[p];
+                if (i != j) {
+                    tmpNeighbours[tmpNext[i]++] = j;
+                    tmpNeighbours[tmpNext[j]++] = i;
+                }
+            }
+        }
+
+        // Remove the duplicates (entries present both above and below the diagonal)
+        final int[] tmpMarkers = new int[tmpDim];
+        Arrays.fill(tmpMarkers, -1);
+        final int[] retPointers = new int[tmpDim + 1];
+        int tmpCount = 0;
+        for (int j = 0; j < tmpDim; j++) {
+            for (int p = tmpCounts[j], tmpLimit = tmpCounts[j + 1]; p < tmpLimit; p++) {
+                final int i = tmpNeighbours[p];
+                if (tmpMarkers[i] != j) {
+                    tmpMarkers[i] = j;
+                    tmpNeighbours[tmpCount++] = i;
+                }
+            }
+            retPointers[j + 1] = tmpCount;
+        }
+
+        return new int[][] { retPointers, Arrays.copyOf(tmpNeighbours, tmpCount) };
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ojalgo.concurrent.ExecutionContext;
+
+/**
+ * Dataflow execution of tile tasks. Each task declares which tiles it reads and which it writes, and is
+ * made dependent on the previous writer of every tile it reads or writes, and on every reader of a tile it
+ * writes. The tasks are added in (sequential) program order, and then executed as fork/join tasks - each
+ * one is forked as soon as all of its predecessors are done. There are no barriers, so the next panel of a
+ * decomposition can be processed while the trailing updates of the previous one are still running.
+ * <p>
+ * The tasks themselves execute {@linkplain ExecutionContext#SEQUENTIAL}ly - the parallelism comes from
+ * running many of them at the same time. When the current {@linkplain ExecutionContext} has no
+ * {@linkplain ExecutionContext#getPool() pool} the tasks are simply executed in program order by the
+ * calling thread.
+ * </p>
+ *
+ * @author apete
+ */
+final class TileScheduler {
+
+    static final class Node extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger myDependencies = new AtomicInteger();
+        private Node myLatestSuccessor = null;
+        private final List<Node> mySuccessors = new ArrayList<>();
+        private final Runnable myWork;
+
+        Node(final CountedCompleter<Void> completer, final Runnable work) {
+            super(completer);
+            myWork = work;
+        }
+
+        @Override
+        public void compute() {
+
+            ExecutionContext.SEQUENTIAL.run(myWork);
+
+            for (final Node tmpSuccessor : mySuccessors) {
+                if (tmpSuccessor.myDependencies.decrementAndGet() == 0) {
+                    tmpSuccessor.fork();
+                }
+            }
+
+            this.tryComplete();
+        }
+
+        void precede(final Node successor) {
+            if ((successor != this) && (myLatestSuccessor != successor)) {
+                mySuccessors.add(successor);
+                successor.myDependencies.incrementAndGet();
+                myLatestSuccessor = successor;
+            }
+        }
+
+        boolean isReady() {
+            return myDependencies.get() == 0;
+        }
+
+    }
+
+    private static final class Root extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Node> myNodes = new ArrayList<>();
+
+        Root() {
+            super();
+        }
+
+        @Override
+        public void compute() {
+
+            // Must be determined before anything is forked (and starts to resolve dependencies)
+            final List<Node> tmpReady = new ArrayList<>();
+            for (final Node tmpNode : myNodes) {
+                if (tmpNode.isReady()) {
+                    tmpReady.add(tmpNode);
+                }
+            }
+
+            this.setPendingCount(myNodes.size());
+            for (final Node tmpNode : tmpReady) {
+                tmpNode.fork();
+            }
+            this.tryComplete();
+        }
+
+    }
+
+    private final Node[] myLatestWriters;
+    private final List<List<Node>> myReaders;
+    private final Root myRoot = new Root();
+    private final int myTileRows;
+
+    /**
+     * @param tileRows The number of rows of tiles
+     * @param tileColumns The number of columns of tiles
+     */
+    TileScheduler(final int tileRows, final int tileColumns) {
+
+        super();
+
+        myTileRows = tileRows;
+
+        final int tmpCount = tileRows * tileColumns;
+        myLatestWriters = new Node[tmpCount];
+        myReaders = new ArrayList<>(tmpCount);
+        for (int t = 0; t < tmpCount; t++) {
+            myReaders.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Executes all the added tasks, and waits for them to finish.
+     */
+    void execute() {
+
+        final ExecutionContext tmpContext = ExecutionContext.current();
+
+        if ((tmpContext.getPool() == null) || (myRoot.myNodes.size() <= 1)) {
+            for (final Node tmpNode : myRoot.myNodes) {
+                ExecutionContext.SEQUENTIAL.run(tmpNode.myWork);
+            }
+        } else {
+            tmpContext.invoke(myRoot);
+        }
+    }
+
+    /**
+     * Add a task that reads the tiles in rows [firstRow, rowLimit) of one tile column and writes the tiles
+     * in the same rows of another.
+     */
+    void readColumnWriteColumn(final Runnable work, final int readColumn, final int writeColumn, final int firstRow, final int rowLimit) {
+
+        final Node tmpNode = new Node(myRoot, work);
+
+        for (int i = firstRow; i < rowLimit; i++) {
+            this.read(tmpNode, this.index(i, readColumn));
+        }
+        for (int i = firstRow; i < rowLimit; i++) {
+            this.write(tmpNode, this.index(i, writeColumn));
+        }
+
+        myRoot.myNodes.add(tmpNode);
+    }
+
+    /**
+     * Add a task that reads tiles (row1, column1) and (row2, column2), and writes tile (row, column)
+     */
+    void readTwoWriteOne(final Runnable work, final int row1, final int column1, final int row2, final int column2, final int row, final int column) {
+
+        final Node tmpNode = new Node(myRoot, work);
+
+        this.read(tmpNode, this.index(row1, column1));
+        this.read(tmpNode, this.index(row2, column2));
+        this.write(tmpNode, this.index(row, column));
+
+        myRoot.myNodes.add(tmpNode);
+    }
+
+    /**
+     * Add a task that reads and writes the tiles in rows [firstRow, rowLimit) of a tile column.
+     */
+    void writeColumn(final Runnable work, final int column, final int firstRow, final int rowLimit) {
+
+        final Node tmpNode = new Node(myRoot, work);
+
+        for (int i = firstRow; i < rowLimit; i++) {
+            this.write(tmpNode, this.index(i, column));
+        }
+
+        myRoot.myNodes.add(tmpNode);
+    }
+
+    /**
+     * @return The number of added tasks
+     */
+    int size() {
+        return myRoot.myNodes.size();
+    }
+
+    private int index(final int row, final int column) {
+        return row + (column * myTileRows);
+    }
+
+    private void read(final Node node, final int tile) {
+        final Node tmpWriter = myLatestWriters[tile];
+        if (tmpWriter != null) {
+            tmpWriter.precede(node);
+        }
+        myReaders.get(tile).add(node);
+    }
+
+    private void write(final Node node, final int tile) {
+        final Node tmpWriter = myLatestWriters[tile];
+        if (tmpWriter != null) {
+            tmpWriter.precede(node);
+        }
+        final List<Node> tmpReaders = myReaders.get(tile);
+        for (final Node tmpReader : tmpReaders) {
+            tmpReader.precede(node);
+        }
+        tmpReaders.clear();
+        myLatestWriters[tile] = node;
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.SYRK;
+import org.ojalgo.matrix.store.operation.TRSM;
+
+/**
+ * Tiled variants of the Cholesky and LU algorithms for (column-major) primitive in-place data. The matrix is
+ * divided in {@linkplain #TILE} x {@linkplain #TILE} tiles and the algorithms are expressed as a DAG of tile
+ * tasks (the LAPACK/PLASMA kernel names):
+ * <dl>
+ * <dt>Cholesky</dt>
+ * <dd>POTRF factors a diagonal tile, TRSM solves for the tiles below it, and SYRK/GEMM update the trailing
+ * tiles.</dd>
+ * <dt>LU</dt>
+ * <dd>GETRF factors a panel (a column of tiles, with partial pivoting), LASWP/TRSM applies its row exchanges
+ * to, and solves for, a column of tiles to the right of it, and GEMM updates the trailing tiles. The row
+ * exchanges are also applied to the already factored columns to the left.</dd>
+ * </dl>
+ * The tasks are executed by a {@linkplain TileScheduler} as their dependencies resolve. The results are the
+ * same as those of the unblocked (and the {@linkplain BlockedAlgorithm blocked}) algorithms, and are stored
+ * the same way.
+ *
+ * @author apete
+ */
+abstract class TiledAlgorithm {
+
+    /**
+     * The size of the (square) tiles
+     */
+    static int TILE = 128;
+
+    /**
+     * Lower triangular Cholesky, [A] = [L][L]<sup>T</sup>. Only the lower triangular part is referenced and
+     * overwritten.
+     *
+     * @return true if the matrix is positive definite (and the decomposition completed)
+     */
+    static boolean cholesky(final double[] data, final int dim) {
+
+        final int tmpTile = TILE;
+        final int tmpTiles = (dim + tmpTile - 1) / tmpTile;
+
+        final AtomicBoolean tmpFailed = new AtomicBoolean(false);
+
+        final TileScheduler tmpScheduler = new TileScheduler(tmpTiles, tmpTiles);
+
+        for (int k = 0; k < tmpTiles; k++) {
+
+            final int tmpDiagonal = TiledAlgorithm.offset(k, k, tmpTile, dim);
+            final int tmpPanel = Math.min(tmpTile, dim - (k * tmpTile));
+
+            // POTRF
+            tmpScheduler.readTwoWriteOne(() -> {
+                if (!tmpFailed.get() && !BlockedAlgorithm.cholesky(data, tmpDiagonal, dim, tmpPanel)) {
+                    tmpFailed.set(true);
+                }
+            }, k, k, k, k, k, k);
+
+            for (int i = k + 1; i < tmpTiles; i++) {
+
+                final int tmpBelow = TiledAlgorithm.offset(i, k, tmpTile, dim);
+                final int tmpRows = Math.min(tmpTile, dim - (i * tmpTile));
+
+                // TRSM
+                tmpScheduler.readTwoWriteOne(() -> {
+                    if (!tmpFailed.get()) {
+                        TRSM.invokeRightLowerTransposed(data, tmpDiagonal, dim, false, data, tmpBelow, dim, tmpRows, tmpPanel);
+                    }
+                }, k, k, k, k, i, k);
+            }
+
+            for (int j = k + 1; j < tmpTiles; j++) {
+
+                final int tmpRight = TiledAlgorithm.offset(j, k, tmpTile, dim);
+                final int tmpColumns = Math.min(tmpTile, dim - (j * tmpTile));
+
+                final int tmpUpdatedDiagonal = TiledAlgorithm.offset(j, j, tmpTile, dim);
+
+                // SYRK
+                tmpScheduler.readTwoWriteOne(() -> {
+                    if (!tmpFailed.get()) {
+                        SYRK.subtract(data, tmpUpdatedDiagonal, dim, data, tmpRight, dim, tmpColumns, tmpPanel);
+                    }
+                }, j, k, j, k, j, j);
+
+                for (int i = j + 1; i < tmpTiles; i++) {
+
+                    final int tmpLeft = TiledAlgorithm.offset(i, k, tmpTile, dim);
+                    final int tmpRows = Math.min(tmpTile, dim - (i * tmpTile));
+                    final int tmpUpdated = TiledAlgorithm.offset(i, j, tmpTile, dim);
+
+                    // GEMM
+                    tmpScheduler.readTwoWriteOne(() -> {
+                        if (!tmpFailed.get()) {
+                            final double[] tmpTransposed = TiledAlgorithm.transpose(data, tmpRight, dim, tmpColumns, tmpPanel);
+                            GEMM.subtract(data, tmpUpdated, dim, data, tmpLeft, dim, tmpTransposed, 0, tmpPanel, tmpRows, tmpPanel, tmpColumns);
+                        }
+                    }, i, k, j, k, i, j);
+                }
+            }
+        }
+
+        tmpScheduler.execute();
+
+        return !tmpFailed.get();
+    }
+
+    /**
+     * [P][A] = [L][U] with unit lower triangular [L] and upper triangular [U] stored in place of [A]. With
+     * partial pivoting the row exchanges are recorded in the pivot.
+     */
+    static void lu(final double[] data, final int rows, final int columns, final Pivot pivot, final boolean pivoting) {
+
+        final int tmpTile = TILE;
+        final int tmpMinDim = Math.min(rows, columns);
+
+        final int tmpTileRows = (rows + tmpTile - 1) / tmpTile;
+        final int tmpTileColumns = (columns + tmpTile - 1) / tmpTile;
+        final int tmpPanels = (tmpMinDim + tmpTile - 1) / tmpTile;
+
+        // The pivot row of each row/column along the diagonal
+        final int[] tmpPivots = new int[tmpMinDim];
+
+        final TileScheduler tmpScheduler = new TileScheduler(tmpTileRows, tmpTileColumns);
+
+        for (int k = 0; k < tmpPanels; k++) {
+
+            final int tmpFirst = k * tmpTile;
+            final int tmpPanel = Math.min(tmpTile, tmpMinDim - tmpFirst);
+            final int tmpDiagonal = TiledAlgorithm.offset(k, k, tmpTile, rows);
+
+            // GETRF - the columns of the tile that are not part of the panel (wide matrices) are also solved for
+            final int tmpTileWidth = Math.min(tmpTile, columns - tmpFirst);
+            tmpScheduler.writeColumn(() -> {
+                TiledAlgorithm.lu(data, rows, tmpFirst, tmpPanel, tmpTileWidth, tmpPivots, pivoting);
+            }, k, k, tmpTileRows);
+
+            for (int j = k + 1; j < tmpTileColumns; j++) {
+
+                final int tmpColumn = j * tmpTile;
+                final int tmpWidth = Math.min(tmpTile, columns - tmpColumn);
+                final int tmpRight = TiledAlgorithm.offset(k, j, tmpTile, rows);
+
+                // LASWP + TRSM
+                tmpScheduler.readColumnWriteColumn(() -> {
+                    TiledAlgorithm.exchange(data, rows, tmpColumn, tmpWidth, tmpPivots, tmpFirst, tmpPanel);
+                    TRSM.invokeLeftLower(data, tmpDiagonal, rows, true, data, tmpRight, rows, tmpPanel, tmpWidth);
+                }, k, j, k, tmpTileRows);
+
+                for (int i = k + 1; i < tmpTileRows; i++) {
+
+                    final int tmpRows = Math.min(tmpTile, rows - (i * tmpTile));
+                    final int tmpLeft = TiledAlgorithm.offset(i, k, tmpTile, rows);
+                    final int tmpUpdated = TiledAlgorithm.offset(i, j, tmpTile, rows);
+
+                    // GEMM
+                    tmpScheduler.readTwoWriteOne(() -> {
+                        GEMM.subtract(data, tmpUpdated, rows, data, tmpLeft, rows, data, tmpRight, rows, tmpRows, tmpPanel, tmpWidth);
+                    }, i, k, k, j, i, j);
+                }
+            }
+
+            for (int j = 0; j < k; j++) {
+
+                final int tmpColumn = j * tmpTile;
+
+                // LASWP - the already factored columns (reads the pivots of panel k)
+                tmpScheduler.readColumnWriteColumn(() -> {
+                    TiledAlgorithm.exchange(data, rows, tmpColumn, tmpTile, tmpPivots, tmpFirst, tmpPanel);
+                }, k, j, k, tmpTileRows);
+            }
+        }
+
+        tmpScheduler.execute();
+
+        for (int ij = 0; ij < tmpMinDim; ij++) {
+            pivot.change(tmpPivots[ij], ij);
+        }
+    }
+
+    /**
+     * Applies the row exchanges of the pivots [first, first + count) to the columns [firstColumn, firstColumn +
+     * columnCount)
+     */
+    static void exchange(final double[] data, final int rows, final int firstColumn, final int columnCount, final int[] pivots, final int first,
+            final int count) {
+        for (int ij = first; ij < (first + count); ij++) {
+            final int tmpPivotRow = pivots[ij];
+            if (tmpPivotRow != ij) {
+                for (int c = firstColumn; c < (firstColumn + columnCount); c++) {
+                    final int tmpOffset = c * rows;
+                    final double tmpValue = data[tmpOffset + tmpPivotRow];
+                    data[tmpOffset + tmpPivotRow] = data[tmpOffset + ij];
+                    data[tmpOffset + ij] = tmpValue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Unblocked LU of the panel of columns [first, first + count) - rows from first and down. The row
+     * exchanges are only applied to the columns [first, first + width), and recorded in the pivots. The
+     * columns to the right of the panel, but within that width, are also solved for.
+     */
+    static void lu(final double[] data, final int rows, final int first, final int count, final int width, final int[] pivots,
+            final boolean pivoting) {
+
+        final int tmpLimit = first + count;
+
+        for (int j = first; j < tmpLimit; j++) {
+
+            final int tmpColumn = j * rows;
+
+            int tmpPivotRow = j;
+
+            if (pivoting) {
+
+                double tmpLargest = PrimitiveMath.ZERO;
+                for (int i = j; i < rows; i++) {
+                    final double tmpValue = Math.abs(data[tmpColumn + i]);
+                    if (tmpValue > tmpLargest) {
+                        tmpLargest = tmpValue;
+                        tmpPivotRow = i;
+                    }
+                }
+
+                if (tmpPivotRow != j) {
+                    for (int c = first; c < (first + width); c++) {
+                        final int tmpOffset = c * rows;
+                        final double tmpValue = data[tmpOffset + tmpPivotRow];
+                        data[tmpOffset + tmpPivotRow] = data[tmpOffset + j];
+                        data[tmpOffset + j] = tmpValue;
+                    }
+                }
+            }
+
+            pivots[j] = tmpPivotRow;
+
+            final double tmpDiagonal = data[tmpColumn + j];
+
+            if (tmpDiagonal != PrimitiveMath.ZERO) {
+
+                for (int i = j + 1; i < rows; i++) {
+                    data[tmpColumn + i] /= tmpDiagonal;
+                }
+
+                for (int c = j + 1; c < tmpLimit; c++) {
+                    final int tmpUpdated = c * rows;
+                    final double tmpMultiplier = data[tmpUpdated + j];
+                    for (int i = j + 1; i < rows; i++) {
+                        data[tmpUpdated + i] -= tmpMultiplier * data[tmpColumn + i];
+                    }
+                }
+
+            } else {
+
+                data[tmpColumn + j] = PrimitiveMath.ZERO;
+            }
+        }
+
+        if (width > count) {
+            TRSM.invokeLeftLower(data, first + (first * rows), rows, true, data, first + (tmpLimit * rows), rows, count, width - count);
+        }
+    }
+
+    /**
+     * @return true if the tiled algorithms should be used, rather than the blocked ones, for a matrix with
+     *         that minimum dimension - with the current {@linkplain ExecutionContext}
+     */
+    static boolean isPreferred(final int minDim) {
+        return (minDim > (2 * TILE)) && (ExecutionContext.current().getPool() != null);
+    }
+
+    private static int offset(final int tileRow, final int tileColumn, final int tile, final int rows) {
+        return (tileRow * tile) + (tileColumn * tile * rows);
+    }
+
+    private static double[] transpose(final double[] data, final int offset, final int rowDim, final int rows, final int columns) {
+        final double[] retVal = new double[columns * rows];
+        for (int j = 0; j < columns; j++) {
+            final int tmpColumn = offset + (j * rowDim);
+            for (int i = 0; i < rows; i++) {
+                retVal[j + (i * columns)] = data[tmpColumn + i];
+            }
+        }
+        return retVal;
+    }
+
+}
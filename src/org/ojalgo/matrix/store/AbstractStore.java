@@ -74,7 +74,7 @@ abstract class AbstractStore<N extends Number> implements MatrixStore<N>, Serial
     }
 
     public long count() {
-        return myRowDim * myColDim;
+        return (long) myRowDim * myColDim;
     }
 
     public long countColumns() {
@@ -25,6 +25,7 @@ import static org.ojalgo.constant.BigMath.*;
 import static org.ojalgo.function.BigFunction.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.ojalgo.access.Access1D;
@@ -472,10 +473,10 @@ public final class BigDenseStore extends BigArray implements PhysicalStore<BigDe
         final int tmpRowDim = myRowDim;
         final int tmpColDim = myColDim;
 
-        final AggregatorFunction<BigDecimal> tmpMainAggr = aggregator.getBigFunction();
-
         if (tmpColDim > AggregateAll.THRESHOLD) {
 
+            final List<BigDecimal> tmpPartResults = new ArrayList<>();
+
             final DivideAndConquer tmpConquerer = new DivideAndConquer() {
 
                 @Override
@@ -485,20 +486,30 @@ public final class BigDenseStore extends BigArray implements PhysicalStore<BigDe
 
                     BigDenseStore.this.visit(tmpRowDim * aFirst, tmpRowDim * aLimit, 1, tmpPartAggr);
 
-                    synchronized (tmpMainAggr) {
-                        tmpMainAggr.merge(tmpPartAggr.getNumber());
+                    synchronized (tmpPartResults) {
+                        tmpPartResults.add(tmpPartAggr.getNumber());
                     }
                 }
             };
 
             tmpConquerer.invoke(0, tmpColDim, AggregateAll.THRESHOLD);
 
+            // The aggregator functions are thread local, and this thread may have been used for one of the parts
+            final AggregatorFunction<BigDecimal> tmpMainAggr = aggregator.getBigFunction();
+            for (final BigDecimal tmpPartResult : tmpPartResults) {
+                tmpMainAggr.merge(tmpPartResult);
+            }
+
+            return tmpMainAggr.getNumber();
+
         } else {
 
+            final AggregatorFunction<BigDecimal> tmpMainAggr = aggregator.getBigFunction();
+
             BigDenseStore.this.visit(0, this.size(), 1, tmpMainAggr);
-        }
 
-        return tmpMainAggr.getNumber();
+            return tmpMainAggr.getNumber();
+        }
     }
 
     public void applyCholesky(final int iterationPoint, final BasicArray<BigDecimal> multipliers) {
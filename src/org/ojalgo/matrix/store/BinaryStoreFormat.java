@@ -0,0 +1,285 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+
+import org.ojalgo.array.BinaryFormat;
+import org.ojalgo.array.BinaryFormat.ElementType;
+import org.ojalgo.array.BinaryFormat.Header;
+import org.ojalgo.array.BinaryFormat.Layout;
+
+/**
+ * Reads and writes matrix stores in the {@linkplain BinaryFormat}. Dense stores are written in the DENSE
+ * layout, {@linkplain SparseStore} as TRIPLETS, and {@linkplain CompressedRowStore} /
+ * {@linkplain CompressedColumnStore} as CSR / CSC. A dense double file can be mapped, without copying, to a
+ * {@linkplain BufferDenseStore} - that's the fastest way to (re)load a large matrix.
+ *
+ * @author apete
+ */
+public final class BinaryStoreFormat {
+
+    /**
+     * Zero-copy: maps the elements of a (dense, double) file to a {@linkplain BufferDenseStore}. Changes to
+     * the store are written to the file.
+     */
+    public static BufferDenseStore map(final File file) throws IOException {
+
+        final Header tmpHeader = BinaryFormat.readHeader(file);
+
+        if ((tmpHeader.layout != Layout.DENSE) || (tmpHeader.type != ElementType.DOUBLE) || (tmpHeader.structure.length != 2)) {
+            throw new IOException("Only dense double matrices can be mapped!");
+        }
+
+        return BufferDenseStore.map(file, tmpHeader.size(), ByteOrder.LITTLE_ENDIAN, tmpHeader.structure[0], tmpHeader.structure[1]);
+    }
+
+    /**
+     * Reads a double matrix keeping its layout - DENSE gives a {@linkplain PrimitiveDenseStore}, TRIPLETS a
+     * {@linkplain SparseStore}, and CSR/CSC a {@linkplain CompressedRowStore}/{@linkplain CompressedColumnStore}
+     * .
+     */
+    public static MatrixStore<Double> read(final InputStream input) throws IOException {
+
+        try (final BinaryFormat.Reader tmpReader = new BinaryFormat.Reader(input)) {
+
+            final Header tmpHeader = BinaryStoreFormat.readHeader(tmpReader);
+
+            if (tmpHeader.type != ElementType.DOUBLE) {
+                throw new IOException("Not double elements: " + tmpHeader.type);
+            }
+
+            final int tmpRowDim = (int) tmpHeader.structure[0];
+            final int tmpColDim = (int) tmpHeader.structure[1];
+            final int tmpNonzeros = (int) tmpHeader.nonzeros;
+
+            switch (tmpHeader.layout) {
+
+            case TRIPLETS:
+
+                final double[] tmpValues = new double[tmpNonzeros];
+                final int[] tmpRows = new int[tmpNonzeros];
+                final int[] tmpColumns = new int[tmpNonzeros];
+                tmpReader.readDoubles(tmpValues, 0, tmpNonzeros);
+                tmpReader.readInts(tmpRows, 0, tmpNonzeros);
+                tmpReader.readInts(tmpColumns, 0, tmpNonzeros);
+
+                final SparseStore.Builder<Double> tmpBuilder = SparseStore.buildPrimitive(tmpRowDim, tmpColDim, tmpNonzeros);
+                for (int k = 0; k < tmpNonzeros; k++) {
+                    tmpBuilder.add(BinaryStoreFormat.checkIndex(tmpRows[k], tmpRowDim), BinaryStoreFormat.checkIndex(tmpColumns[k], tmpColDim), tmpValues[k]);
+                }
+                return tmpBuilder.build();
+
+            case CSR:
+            case CSC:
+
+                final boolean tmpRowMajor = tmpHeader.layout == Layout.CSR;
+                final double[] tmpCompressed = new double[tmpNonzeros];
+                final int[] tmpPointers = new int[(tmpRowMajor ? tmpRowDim : tmpColDim) + 1];
+                final int[] tmpIndices = new int[tmpNonzeros];
+                tmpReader.readDoubles(tmpCompressed, 0, tmpNonzeros);
+                tmpReader.readInts(tmpPointers, 0, tmpPointers.length);
+                tmpReader.readInts(tmpIndices, 0, tmpNonzeros);
+                BinaryStoreFormat.checkPointers(tmpPointers, tmpNonzeros);
+                for (int k = 0; k < tmpNonzeros; k++) {
+                    BinaryStoreFormat.checkIndex(tmpIndices[k], tmpRowMajor ? tmpColDim : tmpRowDim);
+                }
+
+                if (tmpRowMajor) {
+                    return new CompressedRowStore(tmpRowDim, tmpColDim, tmpPointers, tmpIndices, tmpCompressed);
+                } else {
+                    return new CompressedColumnStore(tmpRowDim, tmpColDim, tmpPointers, tmpIndices, tmpCompressed);
+                }
+
+            default:
+
+                final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim);
+                tmpReader.readDoubles(retVal.data, 0, retVal.data.length);
+                return retVal;
+            }
+        }
+    }
+
+    /**
+     * Reads any layout, and element type, to a dense store made by the factory.
+     */
+    public static <N extends Number, I extends PhysicalStore<N>> I read(final InputStream input, final PhysicalStore.Factory<N, I> factory)
+            throws IOException {
+
+        try (final BinaryFormat.Reader tmpReader = new BinaryFormat.Reader(input)) {
+
+            final Header tmpHeader = BinaryStoreFormat.readHeader(tmpReader);
+
+            final I retVal = factory.makeZero(tmpHeader.structure[0], tmpHeader.structure[1]);
+            final int tmpNonzeros = (int) tmpHeader.nonzeros;
+
+            if (tmpHeader.layout == Layout.DENSE) {
+
+                for (long i = 0L, tmpCount = tmpHeader.count(); i < tmpCount; i++) {
+                    retVal.set(i, tmpReader.readElement());
+                }
+
+            } else {
+
+                final Number[] tmpValues = new Number[tmpNonzeros];
+                for (int k = 0; k < tmpNonzeros; k++) {
+                    tmpValues[k] = tmpReader.readElement();
+                }
+
+                if (tmpHeader.layout == Layout.TRIPLETS) {
+
+                    final int[] tmpRows = new int[tmpNonzeros];
+                    tmpReader.readInts(tmpRows, 0, tmpNonzeros);
+                    for (int k = 0; k < tmpNonzeros; k++) {
+                        final int tmpRow = BinaryStoreFormat.checkIndex(tmpRows[k], tmpHeader.structure[0]);
+                        retVal.set(tmpRow, BinaryStoreFormat.checkIndex(tmpReader.readInt(), tmpHeader.structure[1]), tmpValues[k]);
+                    }
+
+                } else {
+
+                    final boolean tmpRowMajor = tmpHeader.layout == Layout.CSR;
+                    final int[] tmpPointers = new int[(int) tmpHeader.structure[tmpRowMajor ? 0 : 1] + 1];
+                    tmpReader.readInts(tmpPointers, 0, tmpPointers.length);
+                    BinaryStoreFormat.checkPointers(tmpPointers, tmpNonzeros);
+                    final long tmpMinorDim = tmpHeader.structure[tmpRowMajor ? 1 : 0];
+                    for (int m = 0; m < (tmpPointers.length - 1); m++) {
+                        for (int k = tmpPointers[m]; k < tmpPointers[m + 1]; k++) {
+                            final int tmpMinor = BinaryStoreFormat.checkIndex(tmpReader.readInt(), tmpMinorDim);
+                            if (tmpRowMajor) {
+                                retVal.set(m, tmpMinor, tmpValues[k]);
+                            } else {
+                                retVal.set(tmpMinor, m, tmpValues[k]);
+                            }
+                        }
+                    }
+                }
+            }
+
+            return retVal;
+        }
+    }
+
+    /**
+     * Writes the store, in the layout that matches its type, and closes the output stream.
+     */
+    public static void write(final MatrixStore<?> store, final OutputStream output) throws IOException {
+
+        final long tmpRowDim = store.countRows();
+        final long tmpColDim = store.countColumns();
+
+        try (final BinaryFormat.Writer tmpWriter = new BinaryFormat.Writer(output)) {
+
+            if (store instanceof CompressedStore) {
+
+                final CompressedStore tmpCompressed = (CompressedStore) store;
+                final int tmpNonzeros = tmpCompressed.countNonzeros();
+                final Layout tmpLayout = store instanceof CompressedRowStore ? Layout.CSR : Layout.CSC;
+
+                tmpWriter.writeHeader(tmpLayout, ElementType.DOUBLE, tmpNonzeros, tmpRowDim, tmpColDim);
+                tmpWriter.writeDoubles(tmpCompressed.myValues, 0, tmpNonzeros);
+                tmpWriter.writeInts(tmpCompressed.myPointers, 0, tmpCompressed.myPointers.length);
+                tmpWriter.writeInts(tmpCompressed.myIndices, 0, tmpNonzeros);
+
+            } else if (store instanceof SparseStore) {
+
+                final SparseStore<?> tmpSparse = (SparseStore<?>) store;
+                final long[] tmpIndices = tmpSparse.indicesOfNonzeros();
+
+                tmpWriter.writeHeader(Layout.TRIPLETS, ElementType.of(store), tmpIndices.length, tmpRowDim, tmpColDim);
+                for (final long tmpIndex : tmpIndices) {
+                    tmpWriter.writeElement(tmpSparse.get(tmpIndex));
+                }
+                for (final long tmpIndex : tmpIndices) {
+                    tmpWriter.writeInt((int) (tmpIndex % tmpRowDim));
+                }
+                for (final long tmpIndex : tmpIndices) {
+                    tmpWriter.writeInt((int) (tmpIndex / tmpRowDim));
+                }
+
+            } else if (store instanceof PrimitiveDenseStore) {
+
+                final double[] tmpData = ((PrimitiveDenseStore) store).data;
+
+                tmpWriter.writeHeader(Layout.DENSE, ElementType.DOUBLE, tmpData.length, tmpRowDim, tmpColDim);
+                tmpWriter.writeDoubles(tmpData, 0, tmpData.length);
+
+            } else if (store instanceof BufferDenseStore) {
+
+                final BufferDenseStore tmpBuffer = (BufferDenseStore) store;
+                final int tmpRows = (int) tmpRowDim;
+                final int tmpWidth = Math.max(1, BufferDenseStore.PANEL_SIZE / Math.max(1, tmpRows));
+
+                tmpWriter.writeHeader(Layout.DENSE, ElementType.DOUBLE, store.count(), tmpRowDim, tmpColDim);
+
+                final BufferDenseStore.ReadAhead tmpReader = tmpBuffer.readAhead(0, tmpRows, 0, (int) tmpColDim, tmpWidth, false);
+                while (tmpReader.next()) {
+                    tmpWriter.writeDoubles(tmpReader.data(), 0, tmpRows * tmpReader.columns());
+                }
+
+            } else {
+
+                BinaryFormat.writeDense(tmpWriter, store, tmpRowDim, tmpColDim);
+            }
+        }
+    }
+
+    private static int checkIndex(final int index, final long dim) throws IOException {
+        if ((index < 0) || (index >= dim)) {
+            throw new IOException("Index " + index + " out of range [0, " + dim + ")");
+        }
+        return index;
+    }
+
+    /**
+     * The pointers must start at 0, never decrease, and end at the number of nonzeros.
+     */
+    private static void checkPointers(final int[] pointers, final int nonzeros) throws IOException {
+        if (pointers[0] != 0) {
+            throw new IOException("The first pointer is " + pointers[0] + ", not 0");
+        }
+        for (int p = 1; p < pointers.length; p++) {
+            if (pointers[p] < pointers[p - 1]) {
+                throw new IOException("Decreasing pointers at " + p + ": " + pointers[p - 1] + " > " + pointers[p]);
+            }
+        }
+        if (pointers[pointers.length - 1] != nonzeros) {
+            throw new IOException("The last pointer is " + pointers[pointers.length - 1] + ", not " + nonzeros);
+        }
+    }
+
+    private static Header readHeader(final BinaryFormat.Reader reader) throws IOException {
+        final Header retVal = reader.readHeader();
+        if (retVal.structure.length != 2) {
+            throw new IOException("Not a matrix, the rank is " + retVal.structure.length);
+        }
+        return retVal;
+    }
+
+    private BinaryStoreFormat() {
+        super();
+    }
+
+}
@@ -0,0 +1,1019 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.array.PrimitiveArray;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.matrix.store.PrimitiveDenseStore.PrimitiveMultiplyBoth;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.HouseholderLeft;
+import org.ojalgo.matrix.store.operation.MultiplyBoth;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+
+/**
+ * A {@linkplain Double} (actually double) implementation of {@linkplain PhysicalStore} that keeps its
+ * elements outside of the Java heap - in direct buffers ({@linkplain #FACTORY}) or in a memory-mapped file (
+ * {@linkplain #map(File, long, long)}). The elements are column-major and long-indexed, so the total number
+ * of elements is not limited by the maximum array size, and the store does not add to the garbage collector's
+ * work however large it is.
+ * <p>
+ * The columns are split on a number of buffers (segments) each holding a range of complete columns. Bulk
+ * operations (multiplication and the Householder transformations) copy panels of columns to the heap,
+ * process them with the same kernels as {@linkplain PrimitiveDenseStore}, and then copy them back. The
+ * panels are limited to {@linkplain #PANEL_SIZE} elements - a panel never allocates more than that.
+ * </p>
+ * <p>
+ * When a sequence of panels is streamed through (the left hand factor of a multiplication, the source of
+ * {@linkplain #transpose(Access2D, BufferDenseStore)}, and in the out-of-core decompositions) it is done
+ * with a {@linkplain ReadAhead} - the next panel is read while the current one is processed.
+ * </p>
+ *
+ * @author apete
+ */
+public final class BufferDenseStore extends FactoryStore<Double> implements PhysicalStore<Double> {
+
+    private static final long serialVersionUID = -4436387536563646570L;
+
+    /**
+     * Streams a range of columns, limited to a range of rows, to the heap panel by panel. The next panel is
+     * always being read, asynchronously within the {@linkplain ExecutionContext#current() current execution
+     * context}, while the current one is processed - the I/O (page faults with a mapped file) is done ahead
+     * of, and overlapped with, the computations. If that context does not allow asynchronous execution (it is
+     * sequential, or virtual thread friendly) the panels are instead read synchronously. There are two panel
+     * arrays that are used alternately, and the panels are column-major with the row count as leading
+     * dimension.
+     *
+     * <pre>
+     * final ReadAhead tmpReader = store.readAhead(firstRow, rowCount, firstColumn, columnLimit, width, false);
+     * while (tmpReader.next()) {
+     *     // process tmpReader.data(), columns [tmpReader.column(), tmpReader.column() + tmpReader.columns())
+     * }
+     * </pre>
+     */
+    public static final class ReadAhead {
+
+        private final ExecutionContext myContext;
+        private double[] myCurrent;
+        private int myCurrentColumn = -1;
+        private int myCurrentColumns = 0;
+        private final boolean myDescending;
+        private final int myFirstColumn;
+        private final int myFirstRow;
+        private final int myLimitColumn;
+        private double[] myNext;
+        private int myNextColumn;
+        private Future<?> myPending = null;
+        private final int myRowCount;
+        private final Access1D<?> mySource;
+        private final long mySourceRowDim;
+        private final int myWidth;
+
+        ReadAhead(final Access1D<?> source, final long sourceRowDim, final int firstRow, final int rowCount, final int firstColumn, final int limitColumn,
+                final int width, final boolean descending) {
+
+            super();
+
+            myContext = ExecutionContext.current();
+            mySource = source;
+            mySourceRowDim = sourceRowDim;
+            myFirstRow = firstRow;
+            myRowCount = rowCount;
+            myFirstColumn = firstColumn;
+            myLimitColumn = limitColumn;
+            myWidth = Math.max(1, width);
+            myDescending = descending;
+
+            myCurrent = new double[rowCount * myWidth];
+            myNext = new double[rowCount * myWidth];
+
+            if (firstColumn < limitColumn) {
+                // The panels are aligned with firstColumn also when read in descending order
+                myNextColumn = descending ? firstColumn + (((limitColumn - 1 - firstColumn) / myWidth) * myWidth) : firstColumn;
+                this.prefetch();
+            }
+        }
+
+        /**
+         * @return The first column of the current panel
+         */
+        public int column() {
+            return myCurrentColumn;
+        }
+
+        /**
+         * @return The number of columns in the current panel
+         */
+        public int columns() {
+            return myCurrentColumns;
+        }
+
+        /**
+         * @return The current panel - the array is reused for every other panel
+         */
+        public double[] data() {
+            return myCurrent;
+        }
+
+        /**
+         * Waits for the next panel, makes it the current one, and starts reading the one after that.
+         *
+         * @return false if there are no more panels
+         */
+        public boolean next() {
+
+            if (myPending == null) {
+                return false;
+            }
+
+            try {
+                myPending.get();
+            } catch (final InterruptedException | ExecutionException exception) {
+                throw new ProgrammingError(exception);
+            }
+
+            final double[] tmpRead = myNext;
+            myNext = myCurrent;
+            myCurrent = tmpRead;
+
+            myCurrentColumn = myNextColumn;
+            myCurrentColumns = this.width(myNextColumn);
+
+            myNextColumn = myDescending ? myNextColumn - myWidth : myNextColumn + myWidth;
+            if ((myFirstColumn <= myNextColumn) && (myNextColumn < myLimitColumn)) {
+                this.prefetch();
+            } else {
+                myPending = null;
+            }
+
+            return true;
+        }
+
+        /**
+         * @return The number of rows in each panel
+         */
+        public int rows() {
+            return myRowCount;
+        }
+
+        private void prefetch() {
+
+            final int tmpColumn = myNextColumn;
+            final int tmpColumns = this.width(tmpColumn);
+            final double[] tmpDestination = myNext;
+
+            myPending = myContext.submit(() -> {
+                BufferDenseStore.copy(mySource, mySourceRowDim, myFirstRow, myRowCount, tmpColumn, tmpColumns, tmpDestination);
+                return null;
+            });
+        }
+
+        private int width(final int column) {
+            return Math.min(myWidth, myLimitColumn - column);
+        }
+
+    }
+
+    /**
+     * Direct (off-heap) buffers
+     */
+    public static final PhysicalStore.Factory<Double, BufferDenseStore> FACTORY = new PhysicalStore.Factory<Double, BufferDenseStore>() {
+
+        public AggregatorSet<Double> aggregator() {
+            return PrimitiveAggregator.getSet();
+        }
+
+        public MatrixStore.Factory<Double> builder() {
+            return MatrixStore.PRIMITIVE;
+        }
+
+        public BufferDenseStore columns(final Access1D<?>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public BufferDenseStore columns(final double[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        @SuppressWarnings("unchecked")
+        public BufferDenseStore columns(final List<? extends Number>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public BufferDenseStore columns(final Number[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public BufferDenseStore conjugate(final Access2D<?> source) {
+            return this.transpose(source);
+        }
+
+        public BufferDenseStore copy(final Access2D<?> source) {
+
+            final BufferDenseStore retVal = this.makeZero(source.countRows(), source.countColumns());
+
+            retVal.fillMatching(source);
+
+            return retVal;
+        }
+
+        public FunctionSet<Double> function() {
+            return PrimitiveFunction.getSet();
+        }
+
+        public PrimitiveArray makeArray(final int length) {
+            return PrimitiveArray.make(length);
+        }
+
+        public BufferDenseStore makeEye(final long rows, final long columns) {
+
+            final BufferDenseStore retVal = this.makeZero(rows, columns);
+
+            retVal.fillDiagonal(0L, 0L, PrimitiveMath.ONE);
+
+            return retVal;
+        }
+
+        public BufferDenseStore makeFilled(final long rows, final long columns, final NullaryFunction<?> supplier) {
+
+            final BufferDenseStore retVal = this.makeZero(rows, columns);
+
+            final long tmpCount = retVal.count();
+            for (long i = 0L; i < tmpCount; i++) {
+                retVal.set(i, supplier.doubleValue());
+            }
+
+            return retVal;
+        }
+
+        public Householder.Primitive makeHouseholder(final int length) {
+            return new Householder.Primitive(length);
+        }
+
+        public Rotation.Primitive makeRotation(final int low, final int high, final double cos, final double sin) {
+            return new Rotation.Primitive(low, high, cos, sin);
+        }
+
+        public Rotation.Primitive makeRotation(final int low, final int high, final Double cos, final Double sin) {
+            return this.makeRotation(low, high, cos != null ? cos.doubleValue() : Double.NaN, sin != null ? sin.doubleValue() : Double.NaN);
+        }
+
+        public BufferDenseStore makeZero(final long rows, final long columns) {
+
+            final int tmpRowDim = (int) rows;
+            final int tmpColDim = (int) columns;
+            final int tmpColumnsPerSegment = BufferDenseStore.columnsPerSegment(tmpRowDim, tmpColDim);
+
+            final DoubleBuffer[] tmpSegments = new DoubleBuffer[(tmpColDim + tmpColumnsPerSegment - 1) / tmpColumnsPerSegment];
+            for (int s = 0; s < tmpSegments.length; s++) {
+                final int tmpColumns = Math.min(tmpColumnsPerSegment, tmpColDim - (s * tmpColumnsPerSegment));
+                final ByteBuffer tmpBytes = ByteBuffer.allocateDirect(tmpRowDim * tmpColumns * ELEMENT_SIZE);
+                tmpSegments[s] = tmpBytes.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+
+            return new BufferDenseStore(tmpRowDim, tmpColDim, tmpColumnsPerSegment, tmpSegments);
+        }
+
+        public BufferDenseStore rows(final Access1D<?>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public BufferDenseStore rows(final double[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        @SuppressWarnings("unchecked")
+        public BufferDenseStore rows(final List<? extends Number>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public BufferDenseStore rows(final Number[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public Scalar.Factory<Double> scalar() {
+            return PrimitiveScalar.FACTORY;
+        }
+
+        public BufferDenseStore transpose(final Access2D<?> source) {
+
+            final BufferDenseStore retVal = this.makeZero(source.countColumns(), source.countRows());
+
+            BufferDenseStore.transpose(source, retVal);
+
+            return retVal;
+        }
+
+    };
+
+    /**
+     * The maximum number of elements in a panel (of columns) copied to the heap at any one time
+     */
+    public static int PANEL_SIZE = 1 << 22;
+
+    /**
+     * The maximum number of elements in a segment - a single buffer. A (mapped) byte buffer can't be larger
+     * than 2GB.
+     */
+    static int SEGMENT_SIZE = Integer.MAX_VALUE / 8;
+
+    private static final int ELEMENT_SIZE = 8;
+    private static final int TRANSPOSE_BLOCK = 64;
+
+    /**
+     * Maps the file to a (column-major) store - any existing contents of the file is used as is, and the file
+     * is extended if it's too small. The mapping remains valid, and changes are written to the file, also
+     * after this method returns.
+     */
+    public static BufferDenseStore map(final File file, final long rows, final long columns) {
+        return BufferDenseStore.map(file, 0L, ByteOrder.nativeOrder(), rows, columns);
+    }
+
+    /**
+     * Maps the file region starting at position, with the specified byte order
+     */
+    static BufferDenseStore map(final File file, final long position, final ByteOrder order, final long rows, final long columns) {
+
+        final int tmpRowDim = (int) rows;
+        final int tmpColDim = (int) columns;
+        final int tmpColumnsPerSegment = BufferDenseStore.columnsPerSegment(tmpRowDim, tmpColDim);
+
+        final DoubleBuffer[] tmpSegments = new DoubleBuffer[(tmpColDim + tmpColumnsPerSegment - 1) / tmpColumnsPerSegment];
+
+        try (final RandomAccessFile tmpFile = new RandomAccessFile(file, "rw")) {
+
+            final FileChannel tmpChannel = tmpFile.getChannel();
+
+            long tmpPosition = position;
+            for (int s = 0; s < tmpSegments.length; s++) {
+                final int tmpColumns = Math.min(tmpColumnsPerSegment, tmpColDim - (s * tmpColumnsPerSegment));
+                final long tmpSize = (long) tmpRowDim * tmpColumns * ELEMENT_SIZE;
+                tmpSegments[s] = tmpChannel.map(MapMode.READ_WRITE, tmpPosition, tmpSize).order(order).asDoubleBuffer();
+                tmpPosition += tmpSize;
+            }
+
+        } catch (final IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return new BufferDenseStore(tmpRowDim, tmpColDim, tmpColumnsPerSegment, tmpSegments);
+    }
+
+    /**
+     * Transposes the source to the destination (that could be mapped to a file) panel by panel. The source
+     * panels are read ahead, transposed on the heap in cache sized blocks, and then written to the
+     * corresponding rows of the destination.
+     */
+    public static void transpose(final Access2D<?> source, final BufferDenseStore destination) {
+
+        final int tmpRowDim = (int) source.countRows();
+        final int tmpColDim = (int) source.countColumns();
+
+        final int tmpWidth = Math.max(1, Math.min(tmpColDim, PANEL_SIZE / Math.max(1, tmpRowDim)));
+        final double[] tmpTransposed = new double[tmpWidth * tmpRowDim];
+
+        final ReadAhead tmpReader = new ReadAhead(source, tmpRowDim, 0, tmpRowDim, 0, tmpColDim, tmpWidth, false);
+
+        while (tmpReader.next()) {
+
+            final double[] tmpPanel = tmpReader.data();
+            final int tmpColumns = tmpReader.columns();
+
+            for (int i0 = 0; i0 < tmpRowDim; i0 += TRANSPOSE_BLOCK) {
+                final int tmpRowLimit = Math.min(tmpRowDim, i0 + TRANSPOSE_BLOCK);
+                for (int j = 0; j < tmpColumns; j++) {
+                    final int tmpColumn = j * tmpRowDim;
+                    for (int i = i0; i < tmpRowLimit; i++) {
+                        tmpTransposed[j + (i * tmpColumns)] = tmpPanel[i + tmpColumn];
+                    }
+                }
+            }
+
+            destination.paste(tmpReader.column(), tmpColumns, 0, tmpRowDim, tmpTransposed);
+        }
+    }
+
+    static int columnsPerSegment(final int rows, final int columns) {
+        return Math.max(1, Math.min(Math.max(1, columns), SEGMENT_SIZE / Math.max(1, rows)));
+    }
+
+    /**
+     * Copies the (column-major) sub-matrix [firstRow, firstRow+rowCount) x [firstColumn,
+     * firstColumn+columnCount) of any 1D/2D structure to the destination array.
+     */
+    static void copy(final Access1D<?> source, final long sourceRowDim, final int firstRow, final int rowCount, final int firstColumn,
+            final int columnCount, final double[] destination) {
+
+        if (source instanceof BufferDenseStore) {
+
+            ((BufferDenseStore) source).copy(firstRow, rowCount, firstColumn, columnCount, destination);
+
+        } else if (source instanceof PrimitiveDenseStore) {
+
+            final double[] tmpData = ((PrimitiveDenseStore) source).data;
+            for (int j = 0; j < columnCount; j++) {
+                System.arraycopy(tmpData, (int) (firstRow + ((firstColumn + j) * sourceRowDim)), destination, j * rowCount, rowCount);
+            }
+
+        } else {
+
+            for (int j = 0; j < columnCount; j++) {
+                final long tmpOffset = firstRow + ((firstColumn + j) * sourceRowDim);
+                for (int i = 0; i < rowCount; i++) {
+                    destination[i + (j * rowCount)] = source.doubleValue(tmpOffset + i);
+                }
+            }
+        }
+    }
+
+    private final int myColumnsPerSegment;
+    private final PrimitiveMultiplyBoth myMultiplyBoth;
+    private final DoubleBuffer[] mySegments;
+
+    @SuppressWarnings("unused")
+    private BufferDenseStore(final int rowsCount, final int columnsCount) {
+
+        this(rowsCount, columnsCount, 1, null);
+
+        ProgrammingError.throwForIllegalInvocation();
+    }
+
+    BufferDenseStore(final int rowsCount, final int columnsCount, final int columnsPerSegment, final DoubleBuffer[] segments) {
+
+        super(FACTORY, rowsCount, columnsCount);
+
+        myColumnsPerSegment = columnsPerSegment;
+        mySegments = segments;
+
+        myMultiplyBoth = MultiplyBoth.getPrimitive(rowsCount, columnsCount);
+    }
+
+    public void add(final long row, final long column, final double addend) {
+        final DoubleBuffer tmpSegment = this.segment(column);
+        final int tmpIndex = this.index(row, column);
+        tmpSegment.put(tmpIndex, tmpSegment.get(tmpIndex) + addend);
+    }
+
+    public void add(final long row, final long column, final Number addend) {
+        this.add(row, column, addend.doubleValue());
+    }
+
+    public List<Double> asList() {
+        return new AbstractList<Double>() {
+
+            @Override
+            public Double get(final int index) {
+                return BufferDenseStore.this.doubleValue(index);
+            }
+
+            @Override
+            public Double set(final int index, final Double element) {
+                final Double retVal = this.get(index);
+                BufferDenseStore.this.set(index, element.doubleValue());
+                return retVal;
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(Integer.MAX_VALUE, BufferDenseStore.this.count());
+            }
+
+        };
+    }
+
+    @Deprecated
+    public void caxpy(final Double scalarA, final int columnX, final int columnY, final int firstRow) {
+        final double tmpScalar = scalarA.doubleValue();
+        final long tmpRowDim = this.countRows();
+        for (long i = firstRow; i < tmpRowDim; i++) {
+            this.add(i, columnY, tmpScalar * this.doubleValue(i, columnX));
+        }
+    }
+
+    public MatrixStore<Double> conjugate() {
+        return this.transpose();
+    }
+
+    /**
+     * Copies a (column-major) sub-matrix to the destination array.
+     */
+    public void copy(final int firstRow, final int rowCount, final int firstColumn, final int columnCount, final double[] destination) {
+        for (int j = 0; j < columnCount; j++) {
+            final DoubleBuffer tmpView = this.segment(firstColumn + j).duplicate();
+            tmpView.position(this.index(firstRow, firstColumn + j));
+            tmpView.get(destination, j * rowCount, rowCount);
+        }
+    }
+
+    public double doubleValue(final long index) {
+        final long tmpRowDim = this.countRows();
+        return this.doubleValue(index % tmpRowDim, index / tmpRowDim);
+    }
+
+    public double doubleValue(final long row, final long column) {
+        return this.segment(column).get(this.index(row, column));
+    }
+
+    public void exchangeColumns(final long colA, final long colB) {
+        final long tmpRowDim = this.countRows();
+        for (long i = 0L; i < tmpRowDim; i++) {
+            final double tmpVal = this.doubleValue(i, colA);
+            this.set(i, colA, this.doubleValue(i, colB));
+            this.set(i, colB, tmpVal);
+        }
+    }
+
+    public void exchangeRows(final long rowA, final long rowB) {
+        final long tmpColDim = this.countColumns();
+        for (long j = 0L; j < tmpColDim; j++) {
+            final double tmpVal = this.doubleValue(rowA, j);
+            this.set(rowA, j, this.doubleValue(rowB, j));
+            this.set(rowB, j, tmpVal);
+        }
+    }
+
+    /**
+     * Panel by panel of the product's columns: The matching columns of the right matrix are copied to the
+     * heap, and then the left matrix is streamed through, a panel of columns at the time.
+     */
+    public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColDim = this.getColDim();
+        final int tmpComplexity = (int) (left.count() / tmpRowDim);
+
+        final int tmpProductWidth = this.getPanelWidth(tmpRowDim);
+        final int tmpLeftWidth = Math.min(tmpComplexity, Math.max(1, PANEL_SIZE / Math.max(1, tmpRowDim)));
+
+        final double[] tmpProduct = new double[tmpRowDim * tmpProductWidth];
+        final double[] tmpRight = new double[tmpComplexity * tmpProductWidth];
+
+        final boolean tmpLeftFits = tmpLeftWidth == tmpComplexity;
+        final double[] tmpLeft = tmpLeftFits ? new double[tmpRowDim * tmpLeftWidth] : null;
+        if (tmpLeftFits) {
+            BufferDenseStore.copy(left, tmpRowDim, 0, tmpRowDim, 0, tmpComplexity, tmpLeft);
+        }
+
+        for (int j = 0; j < tmpColDim; j += tmpProductWidth) {
+
+            final int tmpColumns = Math.min(tmpProductWidth, tmpColDim - j);
+
+            BufferDenseStore.copy(right, tmpComplexity, 0, tmpComplexity, j, tmpColumns, tmpRight);
+            Arrays.fill(tmpProduct, 0, tmpRowDim * tmpColumns, PrimitiveMath.ZERO);
+
+            // Accumulates the negated product - there is no plain accumulating GEMM
+            if (tmpLeftFits) {
+                GEMM.subtract(tmpProduct, 0, tmpRowDim, tmpLeft, 0, tmpRowDim, tmpRight, 0, tmpComplexity, tmpRowDim, tmpComplexity, tmpColumns);
+            } else {
+                final ReadAhead tmpReader = new ReadAhead(left, tmpRowDim, 0, tmpRowDim, 0, tmpComplexity, tmpLeftWidth, false);
+                while (tmpReader.next()) {
+                    GEMM.subtract(tmpProduct, 0, tmpRowDim, tmpReader.data(), 0, tmpRowDim, tmpRight, tmpReader.column(), tmpComplexity, tmpRowDim,
+                            tmpReader.columns(), tmpColumns);
+                }
+            }
+
+            for (int ij = 0, tmpLimit = tmpRowDim * tmpColumns; ij < tmpLimit; ij++) {
+                tmpProduct[ij] = -tmpProduct[ij];
+            }
+
+            this.paste(0, tmpRowDim, j, tmpColumns, tmpProduct);
+        }
+    }
+
+    public void fillMatching(final Access1D<?> values) {
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColDim = this.getColDim();
+
+        final int tmpWidth = this.getPanelWidth(tmpRowDim);
+        final double[] tmpPanel = new double[tmpRowDim * tmpWidth];
+
+        for (int j = 0; j < tmpColDim; j += tmpWidth) {
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+            BufferDenseStore.copy(values, tmpRowDim, 0, tmpRowDim, j, tmpColumns, tmpPanel);
+            this.paste(0, tmpRowDim, j, tmpColumns, tmpPanel);
+        }
+    }
+
+    @Deprecated
+    public void fillMatching(final Access1D<Double> left, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        final long tmpCount = this.count();
+        for (long i = 0L; i < tmpCount; i++) {
+            this.set(i, function.invoke(left.doubleValue(i), right.doubleValue(i)));
+        }
+    }
+
+    @Deprecated
+    public void fillMatching(final UnaryFunction<Double> function, final Access1D<Double> arguments) {
+        final long tmpCount = this.count();
+        for (long i = 0L; i < tmpCount; i++) {
+            this.set(i, function.invoke(arguments.doubleValue(i)));
+        }
+    }
+
+    public void fillOne(final long row, final long column, final Double value) {
+        this.set(row, column, value.doubleValue());
+    }
+
+    public void fillOne(final long row, final long column, final NullaryFunction<Double> supplier) {
+        this.set(row, column, supplier.doubleValue());
+    }
+
+    public void fillOneMatching(final long row, final long column, final Access1D<?> values, final long valueIndex) {
+        this.set(row, column, values.doubleValue(valueIndex));
+    }
+
+    public Double get(final long row, final long column) {
+        return this.doubleValue(row, column);
+    }
+
+    public long indexOfLargestInColumn(final long row, final long column) {
+        long retVal = row;
+        double tmpLargest = PrimitiveMath.ZERO;
+        final long tmpRowDim = this.countRows();
+        for (long i = row; i < tmpRowDim; i++) {
+            final double tmpValue = Math.abs(this.doubleValue(i, column));
+            if (tmpValue > tmpLargest) {
+                tmpLargest = tmpValue;
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    public long indexOfLargestInDiagonal(final long row, final long column) {
+        long retVal = row;
+        double tmpLargest = PrimitiveMath.ZERO;
+        final long tmpRowDim = this.countRows();
+        final long tmpColDim = this.countColumns();
+        for (long i = row, j = column; (i < tmpRowDim) && (j < tmpColDim); i++, j++) {
+            final double tmpValue = Math.abs(this.doubleValue(i, j));
+            if (tmpValue > tmpLargest) {
+                tmpLargest = tmpValue;
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    public long indexOfLargestInRange(final long first, final long limit) {
+        long retVal = first;
+        double tmpLargest = PrimitiveMath.ZERO;
+        for (long i = first; i < limit; i++) {
+            final double tmpValue = Math.abs(this.doubleValue(i));
+            if (tmpValue > tmpLargest) {
+                tmpLargest = tmpValue;
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    public long indexOfLargestInRow(final long row, final long column) {
+        long retVal = column;
+        double tmpLargest = PrimitiveMath.ZERO;
+        final long tmpColDim = this.countColumns();
+        for (long j = column; j < tmpColDim; j++) {
+            final double tmpValue = Math.abs(this.doubleValue(row, j));
+            if (tmpValue > tmpLargest) {
+                tmpLargest = tmpValue;
+                retVal = j;
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    public boolean isAbsolute(final long row, final long column) {
+        return PrimitiveScalar.isAbsolute(this.doubleValue(row, column));
+    }
+
+    @Override
+    public boolean isSmall(final long row, final long column, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, this.doubleValue(row, column));
+    }
+
+    @Deprecated
+    public void maxpy(final Double scalarA, final MatrixStore<Double> matrixX) {
+        final double tmpScalar = scalarA.doubleValue();
+        final long tmpCount = this.count();
+        for (long i = 0L; i < tmpCount; i++) {
+            this.set(i, this.doubleValue(i) + (tmpScalar * matrixX.doubleValue(i)));
+        }
+    }
+
+    public void modifyMatching(final Access1D<Double> left, final BinaryFunction<Double> function) {
+        final long tmpCount = Math.min(left.count(), this.count());
+        for (long i = 0L; i < tmpCount; i++) {
+            this.set(i, function.invoke(left.doubleValue(i), this.doubleValue(i)));
+        }
+    }
+
+    public void modifyMatching(final BinaryFunction<Double> function, final Access1D<Double> right) {
+        final long tmpCount = Math.min(this.count(), right.count());
+        for (long i = 0L; i < tmpCount; i++) {
+            this.set(i, function.invoke(this.doubleValue(i), right.doubleValue(i)));
+        }
+    }
+
+    public void modifyOne(final long row, final long column, final UnaryFunction<Double> function) {
+        this.set(row, column, function.invoke(this.doubleValue(row, column)));
+    }
+
+    /**
+     * Copies a (column-major) sub-matrix from the source array - the reverse of
+     * {@linkplain #copy(int, int, int, int, double[])}.
+     */
+    public void paste(final int firstRow, final int rowCount, final int firstColumn, final int columnCount, final double[] source) {
+        for (int j = 0; j < columnCount; j++) {
+            final DoubleBuffer tmpView = this.segment(firstColumn + j).duplicate();
+            tmpView.position(this.index(firstRow, firstColumn + j));
+            tmpView.put(source, j * rowCount, rowCount);
+        }
+    }
+
+    /**
+     * @param firstRow The first row of every panel
+     * @param rowCount The number of rows in every panel
+     * @param firstColumn The first column (of the first panel)
+     * @param columnLimit The column limit (of the last panel)
+     * @param width The (maximum) number of columns in a panel
+     * @param descending true to read the panels in reverse order, the last one first
+     * @return A reader that is already busy reading the first panel
+     */
+    public ReadAhead readAhead(final int firstRow, final int rowCount, final int firstColumn, final int columnLimit, final int width,
+            final boolean descending) {
+        return new ReadAhead(this, this.getRowDim(), firstRow, rowCount, firstColumn, columnLimit, width, descending);
+    }
+
+    @Deprecated
+    public void raxpy(final Double scalarA, final int rowX, final int rowY, final int firstColumn) {
+        final double tmpScalar = scalarA.doubleValue();
+        final long tmpColDim = this.countColumns();
+        for (long j = firstColumn; j < tmpColDim; j++) {
+            this.add(rowY, j, tmpScalar * this.doubleValue(rowX, j));
+        }
+    }
+
+    public ElementsConsumer<Double> regionByColumns(final int... columns) {
+        return new ColumnsRegion<>(this, myMultiplyBoth, columns);
+    }
+
+    public ElementsConsumer<Double> regionByLimits(final int rowLimit, final int columnLimit) {
+        return new LimitRegion<>(this, myMultiplyBoth, rowLimit, columnLimit);
+    }
+
+    public ElementsConsumer<Double> regionByOffsets(final int rowOffset, final int columnOffset) {
+        return new OffsetRegion<>(this, myMultiplyBoth, rowOffset, columnOffset);
+    }
+
+    public ElementsConsumer<Double> regionByRows(final int... rows) {
+        return new RowsRegion<>(this, myMultiplyBoth, rows);
+    }
+
+    public ElementsConsumer<Double> regionByTransposing() {
+        return new TransposedRegion<>(this, myMultiplyBoth);
+    }
+
+    public void set(final long index, final double value) {
+        final long tmpRowDim = this.countRows();
+        this.set(index % tmpRowDim, index / tmpRowDim, value);
+    }
+
+    public void set(final long row, final long column, final double value) {
+        this.segment(column).put(this.index(row, column), value);
+    }
+
+    public void set(final long row, final long column, final Number value) {
+        this.set(row, column, value.doubleValue());
+    }
+
+    @Override
+    public void supplyTo(final ElementsConsumer<Double> consumer) {
+        if (consumer instanceof PrimitiveDenseStore) {
+            final PrimitiveDenseStore tmpConsumer = (PrimitiveDenseStore) consumer;
+            this.copy(0, this.getRowDim(), 0, this.getColDim(), tmpConsumer.data);
+        } else if (consumer instanceof BufferDenseStore) {
+            ((BufferDenseStore) consumer).fillMatching(this);
+        } else {
+            super.supplyTo(consumer);
+        }
+    }
+
+    public Scalar<Double> toScalar(final long row, final long column) {
+        return PrimitiveScalar.of(this.doubleValue(row, column));
+    }
+
+    /**
+     * Panel by panel of columns, with the same kernel as {@linkplain PrimitiveDenseStore}
+     */
+    public void transformLeft(final Householder<Double> transformation, final int firstColumn) {
+
+        final Householder.Primitive tmpTransf = PrimitiveDenseStore.cast(transformation);
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColDim = this.getColDim();
+
+        final int tmpWidth = this.getPanelWidth(tmpRowDim);
+        final double[] tmpPanel = new double[tmpRowDim * tmpWidth];
+
+        for (int j = firstColumn; j < tmpColDim; j += tmpWidth) {
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+            this.copy(0, tmpRowDim, j, tmpColumns, tmpPanel);
+            HouseholderLeft.invoke(tmpPanel, tmpRowDim, 0, tmpColumns, tmpTransf);
+            this.paste(0, tmpRowDim, j, tmpColumns, tmpPanel);
+        }
+    }
+
+    public void transformLeft(final Rotation<Double> transformation) {
+
+        final Rotation.Primitive tmpTransf = PrimitiveDenseStore.cast(transformation);
+
+        final int tmpLow = tmpTransf.low;
+        final int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (!Double.isNaN(tmpTransf.cos) && !Double.isNaN(tmpTransf.sin)) {
+                final long tmpColDim = this.countColumns();
+                for (long j = 0L; j < tmpColDim; j++) {
+                    final double tmpLowVal = this.doubleValue(tmpLow, j);
+                    final double tmpHighVal = this.doubleValue(tmpHigh, j);
+                    this.set(tmpHigh, j, (tmpTransf.cos * tmpHighVal) - (tmpTransf.sin * tmpLowVal));
+                    this.set(tmpLow, j, (tmpTransf.cos * tmpLowVal) + (tmpTransf.sin * tmpHighVal));
+                }
+            } else {
+                this.exchangeRows(tmpLow, tmpHigh);
+            }
+        } else {
+            if (!Double.isNaN(tmpTransf.cos)) {
+                this.modifyRow(tmpLow, 0L, MULTIPLY.second(tmpTransf.cos));
+            } else if (!Double.isNaN(tmpTransf.sin)) {
+                this.modifyRow(tmpLow, 0L, DIVIDE.second(tmpTransf.sin));
+            } else {
+                this.modifyRow(tmpLow, 0L, NEGATE);
+            }
+        }
+    }
+
+    /**
+     * Two passes over the columns (in panels): first [w] = [this][v], for the rows from firstRow, and then
+     * [this] -= beta [w][v]<sup>T</sup>.
+     */
+    public void transformRight(final Householder<Double> transformation, final int firstRow) {
+
+        final Householder.Primitive tmpTransf = PrimitiveDenseStore.cast(transformation);
+        final double[] tmpVector = tmpTransf.vector;
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColDim = this.getColDim();
+        final int tmpRows = tmpRowDim - firstRow;
+
+        final int tmpWidth = this.getPanelWidth(tmpRows);
+        final double[] tmpPanel = new double[tmpRows * tmpWidth];
+        final double[] tmpWorker = new double[tmpRows];
+
+        for (int j = tmpTransf.first; j < tmpColDim; j += tmpWidth) {
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+            this.copy(firstRow, tmpRows, j, tmpColumns, tmpPanel);
+            for (int jj = 0; jj < tmpColumns; jj++) {
+                final double tmpVal = tmpVector[j + jj];
+                for (int i = 0; i < tmpRows; i++) {
+                    tmpWorker[i] += tmpPanel[i + (jj * tmpRows)] * tmpVal;
+                }
+            }
+        }
+
+        for (int i = 0; i < tmpRows; i++) {
+            tmpWorker[i] *= tmpTransf.beta;
+        }
+
+        for (int j = tmpTransf.first; j < tmpColDim; j += tmpWidth) {
+            final int tmpColumns = Math.min(tmpWidth, tmpColDim - j);
+            this.copy(firstRow, tmpRows, j, tmpColumns, tmpPanel);
+            for (int jj = 0; jj < tmpColumns; jj++) {
+                final double tmpVal = tmpVector[j + jj];
+                for (int i = 0; i < tmpRows; i++) {
+                    tmpPanel[i + (jj * tmpRows)] -= tmpWorker[i] * tmpVal;
+                }
+            }
+            this.paste(firstRow, tmpRows, j, tmpColumns, tmpPanel);
+        }
+    }
+
+    public void transformRight(final Rotation<Double> transformation) {
+
+        final Rotation.Primitive tmpTransf = PrimitiveDenseStore.cast(transformation);
+
+        final int tmpLow = tmpTransf.low;
+        final int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (!Double.isNaN(tmpTransf.cos) && !Double.isNaN(tmpTransf.sin)) {
+                final long tmpRowDim = this.countRows();
+                for (long i = 0L; i < tmpRowDim; i++) {
+                    final double tmpLowVal = this.doubleValue(i, tmpLow);
+                    final double tmpHighVal = this.doubleValue(i, tmpHigh);
+                    this.set(i, tmpHigh, (tmpTransf.cos * tmpHighVal) + (tmpTransf.sin * tmpLowVal));
+                    this.set(i, tmpLow, (tmpTransf.cos * tmpLowVal) - (tmpTransf.sin * tmpHighVal));
+                }
+            } else {
+                this.exchangeColumns(tmpLow, tmpHigh);
+            }
+        } else {
+            if (!Double.isNaN(tmpTransf.cos)) {
+                this.modifyColumn(0L, tmpHigh, MULTIPLY.second(tmpTransf.cos));
+            } else if (!Double.isNaN(tmpTransf.sin)) {
+                this.modifyColumn(0L, tmpHigh, DIVIDE.second(tmpTransf.sin));
+            } else {
+                this.modifyColumn(0L, tmpHigh, NEGATE);
+            }
+        }
+    }
+
+    public MatrixStore<Double> transpose() {
+        return new TransposedStore<>(this);
+    }
+
+    public void visitOne(final long row, final long column, final VoidFunction<Double> visitor) {
+        visitor.invoke(this.doubleValue(row, column));
+    }
+
+    @Override
+    protected void addNonZerosTo(final ElementsConsumer<Double> consumer) {
+        final long tmpRowDim = this.countRows();
+        final long tmpColDim = this.countColumns();
+        for (long j = 0L; j < tmpColDim; j++) {
+            for (long i = 0L; i < tmpRowDim; i++) {
+                final double tmpValue = this.doubleValue(i, j);
+                if (tmpValue != PrimitiveMath.ZERO) {
+                    consumer.set(i, j, tmpValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of columns in a panel with that many rows
+     */
+    private int getPanelWidth(final int rows) {
+        return Math.max(1, Math.min(this.getColDim(), PANEL_SIZE / Math.max(1, rows)));
+    }
+
+    private int index(final long row, final long column) {
+        return (int) (row + ((column % myColumnsPerSegment) * this.countRows()));
+    }
+
+    private DoubleBuffer segment(final long column) {
+        return mySegments[(int) (column / myColumnsPerSegment)];
+    }
+
+}
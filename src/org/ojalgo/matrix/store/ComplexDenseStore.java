@@ -23,6 +23,7 @@ package org.ojalgo.matrix.store;
 
 import static org.ojalgo.function.ComplexFunction.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.ojalgo.access.Access1D;
@@ -54,7 +55,9 @@ import org.ojalgo.scalar.Scalar;
 import org.ojalgo.type.context.NumberContext;
 
 /**
- * A {@linkplain ComplexNumber} implementation of {@linkplain PhysicalStore}.
+ * A {@linkplain ComplexNumber} implementation of {@linkplain PhysicalStore}. The elements are stored, column
+ * by column, in an interleaved double[] (see {@linkplain ComplexArray}), and the multiplication,
+ * decomposition and transformation kernels work directly on that array.
  *
  * @author apete
  */
@@ -66,19 +69,19 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
     public static interface ComplexMultiplyLeft {
 
-        void invoke(ComplexNumber[] product, Access1D<ComplexNumber> left, int complexity, ComplexNumber[] right);
+        void invoke(double[] product, Access1D<ComplexNumber> left, int complexity, double[] right);
 
     }
 
     public static interface ComplexMultiplyNeither {
 
-        void invoke(ComplexNumber[] product, ComplexNumber[] left, int complexity, ComplexNumber[] right);
+        void invoke(double[] product, double[] left, int complexity, double[] right);
 
     }
 
     public static interface ComplexMultiplyRight {
 
-        void invoke(ComplexNumber[] product, ComplexNumber[] left, int complexity, Access1D<ComplexNumber> right);
+        void invoke(double[] product, double[] left, int complexity, Access1D<ComplexNumber> right);
 
     }
 
@@ -97,17 +100,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = (int) source[0].count();
             final int tmpColDim = source.length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             Access1D<?> tmpColumn;
             for (int j = 0; j < tmpColDim; j++) {
                 tmpColumn = source[j];
                 for (int i = 0; i < tmpRowDim; i++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpColumn.get(i));
+                    retVal.set(i + (tmpRowDim * j), tmpColumn.get(i));
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore columns(final double[]... source) {
@@ -115,17 +118,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source[0].length;
             final int tmpColDim = source.length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             double[] tmpColumn;
             for (int j = 0; j < tmpColDim; j++) {
                 tmpColumn = source[j];
                 for (int i = 0; i < tmpRowDim; i++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf((Number) tmpColumn[i]);
+                    retVal.set(i + (tmpRowDim * j), tmpColumn[i]);
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore columns(final List<? extends Number>... source) {
@@ -133,17 +136,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source[0].size();
             final int tmpColDim = source.length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             List<? extends Number> tmpColumn;
             for (int j = 0; j < tmpColDim; j++) {
                 tmpColumn = source[j];
                 for (int i = 0; i < tmpRowDim; i++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpColumn.get(i));
+                    retVal.set(i + (tmpRowDim * j), tmpColumn.get(i));
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore columns(final Number[]... source) {
@@ -151,17 +154,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source[0].length;
             final int tmpColDim = source.length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             Number[] tmpColumn;
             for (int j = 0; j < tmpColDim; j++) {
                 tmpColumn = source[j];
                 for (int i = 0; i < tmpRowDim; i++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpColumn[i]);
+                    retVal.set(i + (tmpRowDim * j), tmpColumn[i]);
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore conjugate(final Access2D<?> source) {
@@ -177,7 +180,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                     @Override
                     public void conquer(final int aFirst, final int aLimit) {
-                        FillConjugated.invoke(retVal.data, tmpRowDim, aFirst, aLimit, source);
+                        FillConjugated.invokeComplex(retVal.data, tmpRowDim, aFirst, aLimit, source);
                     }
 
                 };
@@ -186,7 +189,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
             } else {
 
-                FillConjugated.invoke(retVal.data, tmpRowDim, 0, tmpColDim, source);
+                FillConjugated.invokeComplex(retVal.data, tmpRowDim, 0, tmpColDim, source);
             }
 
             return retVal;
@@ -205,7 +208,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                     @Override
                     public void conquer(final int aFirst, final int aLimit) {
-                        FillMatchingSingle.invoke(retVal.data, tmpRowDim, aFirst, aLimit, source);
+                        FillMatchingSingle.invokeComplex(retVal.data, tmpRowDim, aFirst, aLimit, source);
                     }
 
                 };
@@ -214,7 +217,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
             } else {
 
-                FillMatchingSingle.invoke(retVal.data, tmpRowDim, 0, tmpColDim, source);
+                FillMatchingSingle.invokeComplex(retVal.data, tmpRowDim, 0, tmpColDim, source);
             }
 
             return retVal;
@@ -244,13 +247,13 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
             final int tmpLength = tmpRowDim * tmpColDim;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpLength];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             for (int i = 0; i < tmpLength; i++) {
-                tmpData[i] = ComplexNumber.valueOf(supplier.get());
+                retVal.set(i, supplier.get());
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public Householder.Complex makeHouseholder(final int length) {
@@ -274,17 +277,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source.length;
             final int tmpColDim = (int) source[0].count();
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             Access1D<?> tmpRow;
             for (int i = 0; i < tmpRowDim; i++) {
                 tmpRow = source[i];
                 for (int j = 0; j < tmpColDim; j++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpRow.get(j));
+                    retVal.set(i + (tmpRowDim * j), tmpRow.get(j));
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore rows(final double[]... source) {
@@ -292,17 +295,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source.length;
             final int tmpColDim = source[0].length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             double[] tmpRow;
             for (int i = 0; i < tmpRowDim; i++) {
                 tmpRow = source[i];
                 for (int j = 0; j < tmpColDim; j++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf((Number) tmpRow[j]);
+                    retVal.set(i + (tmpRowDim * j), tmpRow[j]);
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore rows(final List<? extends Number>... source) {
@@ -310,17 +313,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source.length;
             final int tmpColDim = source[0].size();
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             List<? extends Number> tmpRow;
             for (int i = 0; i < tmpRowDim; i++) {
                 tmpRow = source[i];
                 for (int j = 0; j < tmpColDim; j++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpRow.get(j));
+                    retVal.set(i + (tmpRowDim * j), tmpRow.get(j));
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public ComplexDenseStore rows(final Number[]... source) {
@@ -328,17 +331,17 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
             final int tmpRowDim = source.length;
             final int tmpColDim = source[0].length;
 
-            final ComplexNumber[] tmpData = new ComplexNumber[tmpRowDim * tmpColDim];
+            final ComplexDenseStore retVal = new ComplexDenseStore(tmpRowDim, tmpColDim);
 
             Number[] tmpRow;
             for (int i = 0; i < tmpRowDim; i++) {
                 tmpRow = source[i];
                 for (int j = 0; j < tmpColDim; j++) {
-                    tmpData[i + (tmpRowDim * j)] = ComplexNumber.valueOf(tmpRow[j]);
+                    retVal.set(i + (tmpRowDim * j), tmpRow[j]);
                 }
             }
 
-            return new ComplexDenseStore(tmpRowDim, tmpColDim, tmpData);
+            return retVal;
         }
 
         public Scalar.Factory<ComplexNumber> scalar() {
@@ -358,7 +361,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                     @Override
                     public void conquer(final int aFirst, final int aLimit) {
-                        FillTransposed.invoke(retVal.data, tmpRowDim, aFirst, aLimit, source);
+                        FillTransposed.invokeComplex(retVal.data, tmpRowDim, aFirst, aLimit, source);
                     }
 
                 };
@@ -367,7 +370,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
             } else {
 
-                FillTransposed.invoke(retVal.data, tmpRowDim, 0, tmpColDim, source);
+                FillTransposed.invokeComplex(retVal.data, tmpRowDim, 0, tmpColDim, source);
             }
 
             return retVal;
@@ -410,11 +413,11 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     private final int myRowDim;
     private final Array2D<ComplexNumber> myUtility;
 
-    ComplexDenseStore(final ComplexNumber[] anArray) {
+    ComplexDenseStore(final double[] anArray) {
 
         super(anArray);
 
-        myRowDim = anArray.length;
+        myRowDim = anArray.length / 2;
         myColDim = 1;
 
         myUtility = this.asArray2D(myRowDim);
@@ -455,7 +458,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
         multiplyNeither = MultiplyNeither.getComplex(myRowDim, myColDim);
     }
 
-    ComplexDenseStore(final int aRowDim, final int aColDim, final ComplexNumber[] anArray) {
+    ComplexDenseStore(final int aRowDim, final int aColDim, final double[] anArray) {
 
         super(anArray);
 
@@ -491,10 +494,10 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
         final int tmpRowDim = myRowDim;
         final int tmpColDim = myColDim;
 
-        final AggregatorFunction<ComplexNumber> tmpMainAggr = aggregator.getComplexFunction();
-
         if (tmpColDim > AggregateAll.THRESHOLD) {
 
+            final List<ComplexNumber> tmpPartResults = new ArrayList<>();
+
             final DivideAndConquer tmpConquerer = new DivideAndConquer() {
 
                 @Override
@@ -504,26 +507,36 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                     ComplexDenseStore.this.visit(tmpRowDim * aFirst, tmpRowDim * aLimit, 1, tmpPartAggr);
 
-                    synchronized (tmpMainAggr) {
-                        tmpMainAggr.merge(tmpPartAggr.getNumber());
+                    synchronized (tmpPartResults) {
+                        tmpPartResults.add(tmpPartAggr.getNumber());
                     }
                 }
             };
 
             tmpConquerer.invoke(0, tmpColDim, AggregateAll.THRESHOLD);
 
+            // The aggregator functions are thread local, and this thread may have been used for one of the parts
+            final AggregatorFunction<ComplexNumber> tmpMainAggr = aggregator.getComplexFunction();
+            for (final ComplexNumber tmpPartResult : tmpPartResults) {
+                tmpMainAggr.merge(tmpPartResult);
+            }
+
+            return tmpMainAggr.getNumber();
+
         } else {
 
+            final AggregatorFunction<ComplexNumber> tmpMainAggr = aggregator.getComplexFunction();
+
             ComplexDenseStore.this.visit(0, this.size(), 1, tmpMainAggr);
-        }
 
-        return tmpMainAggr.getNumber();
+            return tmpMainAggr.getNumber();
+        }
     }
 
     public void applyCholesky(final int iterationPoint, final BasicArray<ComplexNumber> multipliers) {
 
-        final ComplexNumber[] tmpData = data;
-        final ComplexNumber[] tmpColumn = ((ComplexArray) multipliers).data;
+        final double[] tmpData = data;
+        final double[] tmpColumn = ((ComplexArray) multipliers).data;
 
         if ((myColDim - iterationPoint - 1) > ApplyCholesky.THRESHOLD) {
 
@@ -531,7 +544,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 protected void conquer(final int aFirst, final int aLimit) {
-                    ApplyCholesky.invoke(tmpData, myRowDim, aFirst, aLimit, tmpColumn);
+                    ApplyCholesky.invokeComplex(tmpData, myRowDim, aFirst, aLimit, tmpColumn);
                 }
             };
 
@@ -539,14 +552,14 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            ApplyCholesky.invoke(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn);
+            ApplyCholesky.invokeComplex(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn);
         }
     }
 
     public void applyLDL(final int iterationPoint, final BasicArray<ComplexNumber> multipliers) {
 
-        final ComplexNumber[] tmpData = data;
-        final ComplexNumber[] tmpColumn = ((ComplexArray) multipliers).data;
+        final double[] tmpData = data;
+        final double[] tmpColumn = ((ComplexArray) multipliers).data;
 
         if ((myColDim - iterationPoint - 1) > ApplyLDL.THRESHOLD) {
 
@@ -554,7 +567,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 protected void conquer(final int first, final int limit) {
-                    ApplyLDL.invoke(tmpData, myRowDim, first, limit, tmpColumn, iterationPoint);
+                    ApplyLDL.invokeComplex(tmpData, myRowDim, first, limit, tmpColumn, iterationPoint);
                 }
             };
 
@@ -562,14 +575,14 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            ApplyLDL.invoke(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn, iterationPoint);
+            ApplyLDL.invokeComplex(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn, iterationPoint);
         }
     }
 
     public void applyLU(final int iterationPoint, final BasicArray<ComplexNumber> multipliers) {
 
-        final ComplexNumber[] tmpData = data;
-        final ComplexNumber[] tmpColumn = ((ComplexArray) multipliers).data;
+        final double[] tmpData = data;
+        final double[] tmpColumn = ((ComplexArray) multipliers).data;
 
         if ((myColDim - iterationPoint - 1) > ApplyLU.THRESHOLD) {
 
@@ -577,7 +590,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 protected void conquer(final int aFirst, final int aLimit) {
-                    ApplyLU.invoke(tmpData, myRowDim, aFirst, aLimit, tmpColumn, iterationPoint);
+                    ApplyLU.invokeComplex(tmpData, myRowDim, aFirst, aLimit, tmpColumn, iterationPoint);
                 }
             };
 
@@ -585,7 +598,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            ApplyLU.invoke(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn, iterationPoint);
+            ApplyLU.invokeComplex(tmpData, myRowDim, iterationPoint + 1, myColDim, tmpColumn, iterationPoint);
         }
     }
 
@@ -598,7 +611,8 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     }
 
     public void caxpy(final ComplexNumber scalarA, final int columnX, final int columnY, final int firstRow) {
-        AXPY.invoke(data, (columnY * myRowDim) + firstRow, 1, scalarA, data, (columnX * myRowDim) + firstRow, 1, myRowDim - firstRow);
+        AXPY.invokeComplex(data, (columnY * myRowDim) + firstRow, 1, scalarA.doubleValue(), scalarA.i, data, (columnX * myRowDim) + firstRow, 1,
+                myRowDim - firstRow);
     }
 
     public Array1D<ComplexNumber> computeInPlaceSchur(final PhysicalStore<ComplexNumber> transformationCollector, final boolean eigenvalue) {
@@ -623,17 +637,23 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
     public void divideAndCopyColumn(final int row, final int column, final BasicArray<ComplexNumber> destination) {
 
-        final ComplexNumber[] tmpData = data;
+        final double[] tmpData = data;
         final int tmpRowDim = myRowDim;
 
-        final ComplexNumber[] tmpDestination = ((ComplexArray) destination).data;
+        final double[] tmpDestination = ((ComplexArray) destination).data;
 
-        int tmpIndex = row + (column * tmpRowDim);
-        final ComplexNumber tmpDenominator = tmpData[tmpIndex];
+        int tmpIndex = 2 * (row + (column * tmpRowDim));
+        final double tmpDenomRe = tmpData[tmpIndex];
+        final double tmpDenomIm = tmpData[tmpIndex + 1];
+        final double tmpDenomNorm2 = (tmpDenomRe * tmpDenomRe) + (tmpDenomIm * tmpDenomIm);
 
+        double tmpRe, tmpIm;
         for (int i = row + 1; i < tmpRowDim; i++) {
-            tmpIndex++;
-            tmpDestination[i] = tmpData[tmpIndex] = tmpData[tmpIndex].divide(tmpDenominator);
+            tmpIndex += 2;
+            tmpRe = tmpData[tmpIndex];
+            tmpIm = tmpData[tmpIndex + 1];
+            tmpDestination[2 * i] = tmpData[tmpIndex] = ((tmpRe * tmpDenomRe) + (tmpIm * tmpDenomIm)) / tmpDenomNorm2;
+            tmpDestination[(2 * i) + 1] = tmpData[tmpIndex + 1] = ((tmpIm * tmpDenomRe) - (tmpRe * tmpDenomIm)) / tmpDenomNorm2;
         }
     }
 
@@ -800,11 +820,11 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     }
 
     public boolean generateApplyAndCopyHouseholderColumn(final int row, final int column, final Householder<ComplexNumber> destination) {
-        return GenerateApplyAndCopyHouseholderColumn.invoke(data, myRowDim, row, column, (Householder.Complex) destination);
+        return GenerateApplyAndCopyHouseholderColumn.invokeComplex(data, myRowDim, row, column, (Householder.Complex) destination);
     }
 
     public boolean generateApplyAndCopyHouseholderRow(final int row, final int column, final Householder<ComplexNumber> destination) {
-        return GenerateApplyAndCopyHouseholderRow.invoke(data, myRowDim, row, column, (Householder.Complex) destination);
+        return GenerateApplyAndCopyHouseholderRow.invokeComplex(data, myRowDim, row, column, (Householder.Complex) destination);
     }
 
     public final MatrixStore<ComplexNumber> get() {
@@ -859,7 +879,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 public void conquer(final int aFirst, final int aLimit) {
-                    MAXPY.invoke(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, aSclrA, aMtrxX);
+                    MAXPY.invokeComplex(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, aSclrA, aMtrxX);
                 }
 
             };
@@ -868,7 +888,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            MAXPY.invoke(data, tmpRowDim, 0, tmpColDim, aSclrA, aMtrxX);
+            MAXPY.invokeComplex(data, tmpRowDim, 0, tmpColDim, aSclrA, aMtrxX);
         }
     }
 
@@ -964,8 +984,8 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     }
 
     public void raxpy(final ComplexNumber scalarA, final int rowX, final int rowY, final int firstColumn) {
-        AXPY.invoke(data, rowY + (firstColumn * (data.length / myColDim)), data.length / myColDim, scalarA, data,
-                rowX + (firstColumn * (data.length / myColDim)), data.length / myColDim, myColDim - firstColumn);
+        AXPY.invokeComplex(data, rowY + (firstColumn * myRowDim), myRowDim, scalarA.doubleValue(), scalarA.i, data, rowX + (firstColumn * myRowDim), myRowDim,
+                myColDim - firstColumn);
     }
 
     public final ElementsConsumer<ComplexNumber> regionByColumns(final int... columns) {
@@ -989,7 +1009,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     }
 
     public void rotateRight(final int aLow, final int aHigh, final double aCos, final double aSin) {
-        RotateRight.invoke(data, myRowDim, aLow, aHigh, FACTORY.scalar().cast(aCos), FACTORY.scalar().cast(aSin));
+        RotateRight.invokeComplex(data, myRowDim, aLow, aHigh, ComplexNumber.valueOf(aCos), ComplexNumber.valueOf(aSin));
     }
 
     public void set(final long aRow, final long aCol, final double aNmbr) {
@@ -1032,7 +1052,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 public void conquer(final int aFirst, final int aLimit) {
-                    SubstituteBackwards.invoke(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, body, unitDiagonal, conjugated, hermitian);
+                    SubstituteBackwards.invokeComplex(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, body, unitDiagonal, conjugated, hermitian);
                 }
 
             };
@@ -1041,7 +1061,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            SubstituteBackwards.invoke(data, tmpRowDim, 0, tmpColDim, body, unitDiagonal, conjugated, hermitian);
+            SubstituteBackwards.invokeComplex(data, tmpRowDim, 0, tmpColDim, body, unitDiagonal, conjugated, hermitian);
         }
     }
 
@@ -1056,7 +1076,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 public void conquer(final int aFirst, final int aLimit) {
-                    SubstituteForwards.invoke(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, body, unitDiagonal, conjugated, identity);
+                    SubstituteForwards.invokeComplex(ComplexDenseStore.this.data, tmpRowDim, aFirst, aLimit, body, unitDiagonal, conjugated, identity);
                 }
 
             };
@@ -1065,7 +1085,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            SubstituteForwards.invoke(data, tmpRowDim, 0, tmpColDim, body, unitDiagonal, conjugated, identity);
+            SubstituteForwards.invokeComplex(data, tmpRowDim, 0, tmpColDim, body, unitDiagonal, conjugated, identity);
         }
     }
 
@@ -1086,7 +1106,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         final Householder.Complex tmpTransf = ComplexDenseStore.cast(transformation);
 
-        final ComplexNumber[] tmpData = data;
+        final double[] tmpData = data;
 
         final int tmpRowDim = myRowDim;
         final int tmpColDim = myColDim;
@@ -1097,7 +1117,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 public void conquer(final int aFirst, final int aLimit) {
-                    HouseholderLeft.invoke(tmpData, tmpRowDim, aFirst, aLimit, tmpTransf);
+                    HouseholderLeft.invokeComplex(tmpData, tmpRowDim, aFirst, aLimit, tmpTransf);
                 }
 
             };
@@ -1106,7 +1126,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            HouseholderLeft.invoke(tmpData, tmpRowDim, firstColumn, tmpColDim, tmpTransf);
+            HouseholderLeft.invokeComplex(tmpData, tmpRowDim, firstColumn, tmpColDim, tmpTransf);
         }
     }
 
@@ -1119,7 +1139,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         if (tmpLow != tmpHigh) {
             if ((tmpTransf.cos != null) && (tmpTransf.sin != null)) {
-                RotateLeft.invoke(data, myColDim, tmpLow, tmpHigh, tmpTransf.cos, tmpTransf.sin);
+                RotateLeft.invokeComplex(data, myColDim, tmpLow, tmpHigh, tmpTransf.cos, tmpTransf.sin);
             } else {
                 myUtility.exchangeRows(tmpLow, tmpHigh);
             }
@@ -1138,7 +1158,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         final Householder.Complex tmpTransf = ComplexDenseStore.cast(transformation);
 
-        final ComplexNumber[] tmpData = data;
+        final double[] tmpData = data;
 
         final int tmpRowDim = myRowDim;
         final int tmpColDim = myColDim;
@@ -1149,7 +1169,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
                 @Override
                 public void conquer(final int aFirst, final int aLimit) {
-                    HouseholderRight.invoke(tmpData, aFirst, aLimit, tmpColDim, tmpTransf);
+                    HouseholderRight.invokeComplex(tmpData, aFirst, aLimit, tmpColDim, tmpTransf);
                 }
 
             };
@@ -1158,7 +1178,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         } else {
 
-            HouseholderRight.invoke(tmpData, firstRow, tmpRowDim, tmpColDim, tmpTransf);
+            HouseholderRight.invokeComplex(tmpData, firstRow, tmpRowDim, tmpColDim, tmpTransf);
         }
     }
 
@@ -1171,7 +1191,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
 
         if (tmpLow != tmpHigh) {
             if ((tmpTransf.cos != null) && (tmpTransf.sin != null)) {
-                RotateRight.invoke(data, myRowDim, tmpLow, tmpHigh, tmpTransf.cos, tmpTransf.sin);
+                RotateRight.invokeComplex(data, myRowDim, tmpLow, tmpHigh, tmpTransf.cos, tmpTransf.sin);
             } else {
                 myUtility.exchangeColumns(tmpLow, tmpHigh);
             }
@@ -1187,7 +1207,7 @@ public final class ComplexDenseStore extends ComplexArray implements PhysicalSto
     }
 
     public void transformSymmetric(final Householder<ComplexNumber> transformation) {
-        HouseholderHermitian.invoke(data, ComplexDenseStore.cast(transformation), new ComplexNumber[(int) transformation.count()]);
+        HouseholderHermitian.invokeComplex(data, ComplexDenseStore.cast(transformation), new double[2 * (int) transformation.count()]);
     }
 
     public MatrixStore<ComplexNumber> transpose() {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.matrix.store.operation.MultiplySparse;
+
+/**
+ * Compressed sparse column (CSC) storage. Multiplying with a dense matrix is done in parallel over the
+ * columns of the product, but a matrix-vector product is executed sequentially - for those prefer
+ * {@linkplain CompressedRowStore}.
+ *
+ * @author apete
+ * @see CompressedStore
+ */
+public final class CompressedColumnStore extends CompressedStore {
+
+    private static final long serialVersionUID = 4596256162943713615L;
+
+    CompressedColumnStore(final int rowsCount, final int columnsCount, final int[] pointers, final int[] indices, final double[] values) {
+        super(rowsCount, columnsCount, pointers, indices, values);
+    }
+
+    public double doubleValue(final long row, final long column) {
+        return this.value((int) column, (int) row);
+    }
+
+    @Override
+    public int firstInColumn(final int col) {
+        final int tmpFirst = myPointers[col];
+        return tmpFirst < myPointers[col + 1] ? myIndices[tmpFirst] : this.getRowDim();
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        final int tmpLimit = myPointers[col + 1];
+        return myPointers[col] < tmpLimit ? myIndices[tmpLimit - 1] + 1 : 0;
+    }
+
+    /**
+     * @return The same matrix in compressed row format
+     */
+    public CompressedRowStore toRowStore() {
+        return CompressedStore.builder(this).toRowStore();
+    }
+
+    /**
+     * The nonzeros are supplied in column-major order, which is what {@linkplain SparseStore} is sorted on.
+     */
+    @Override
+    public SparseStore<Double> toSparseStore() {
+        final SparseStore<Double> retVal = SparseStore.makePrimitive(this.getRowDim(), this.getColDim());
+        this.addNonZerosTo(retVal);
+        return retVal;
+    }
+
+    /**
+     * @return The transpose, in compressed row format, sharing the arrays of this store
+     */
+    @Override
+    public CompressedRowStore transpose() {
+        return new CompressedRowStore(this.getColDim(), this.getRowDim(), myPointers, myIndices, myValues);
+    }
+
+    @Override
+    protected void addNonZerosTo(final ElementsConsumer<Double> consumer) {
+        final int tmpColDim = this.getColDim();
+        for (int j = 0; j < tmpColDim; j++) {
+            for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                consumer.set(myIndices[p], j, myValues[p]);
+            }
+        }
+    }
+
+    @Override
+    void addNonZerosTo(final Builder builder) {
+        final int tmpColDim = this.getColDim();
+        for (int j = 0; j < tmpColDim; j++) {
+            for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                builder.add(myIndices[p], j, myValues[p]);
+            }
+        }
+    }
+
+    @Override
+    void multiply(final double[] product, final double[] right, final int columns) {
+        MultiplySparse.columnsTimesDense(product, this.getRowDim(), myPointers, myIndices, myValues, right, this.getColDim(), columns);
+    }
+
+    @Override
+    void premultiply(final double[] product, final double[] left, final int rows) {
+        MultiplySparse.denseTimesColumns(product, left, rows, myPointers, myIndices, myValues, this.getColDim());
+    }
+
+}
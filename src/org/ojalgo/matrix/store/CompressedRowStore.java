@@ -0,0 +1,107 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.matrix.store.operation.MultiplySparse;
+
+/**
+ * Compressed sparse row (CSR) storage. Multiplying with a dense vector, or matrix, is done in parallel over
+ * the rows - prefer this format for matrix-vector products.
+ *
+ * @author apete
+ * @see CompressedStore
+ */
+public final class CompressedRowStore extends CompressedStore {
+
+    private static final long serialVersionUID = -348621209454842702L;
+
+    CompressedRowStore(final int rowsCount, final int columnsCount, final int[] pointers, final int[] indices, final double[] values) {
+        super(rowsCount, columnsCount, pointers, indices, values);
+    }
+
+    public double doubleValue(final long row, final long column) {
+        return this.value((int) row, (int) column);
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        final int tmpFirst = myPointers[row];
+        return tmpFirst < myPointers[row + 1] ? myIndices[tmpFirst] : this.getColDim();
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        final int tmpLimit = myPointers[row + 1];
+        return myPointers[row] < tmpLimit ? myIndices[tmpLimit - 1] + 1 : 0;
+    }
+
+    /**
+     * @return The same matrix in compressed column format
+     */
+    public CompressedColumnStore toColumnStore() {
+        return CompressedStore.builder(this).toColumnStore();
+    }
+
+    @Override
+    public SparseStore<Double> toSparseStore() {
+        return this.toColumnStore().toSparseStore();
+    }
+
+    /**
+     * @return The transpose, in compressed column format, sharing the arrays of this store
+     */
+    @Override
+    public CompressedColumnStore transpose() {
+        return new CompressedColumnStore(this.getColDim(), this.getRowDim(), myPointers, myIndices, myValues);
+    }
+
+    @Override
+    protected void addNonZerosTo(final ElementsConsumer<Double> consumer) {
+        final int tmpRowDim = this.getRowDim();
+        for (int i = 0; i < tmpRowDim; i++) {
+            for (int p = myPointers[i], tmpLimit = myPointers[i + 1]; p < tmpLimit; p++) {
+                consumer.set(i, myIndices[p], myValues[p]);
+            }
+        }
+    }
+
+    @Override
+    void addNonZerosTo(final Builder builder) {
+        final int tmpRowDim = this.getRowDim();
+        for (int i = 0; i < tmpRowDim; i++) {
+            for (int p = myPointers[i], tmpLimit = myPointers[i + 1]; p < tmpLimit; p++) {
+                builder.add(i, myIndices[p], myValues[p]);
+            }
+        }
+    }
+
+    @Override
+    void multiply(final double[] product, final double[] right, final int columns) {
+        MultiplySparse.rowsTimesDense(product, this.getRowDim(), myPointers, myIndices, myValues, right, this.getColDim(), columns);
+    }
+
+    @Override
+    void premultiply(final double[] product, final double[] left, final int rows) {
+        MultiplySparse.denseTimesRows(product, left, rows, this.getRowDim(), myPointers, myIndices, myValues, this.getColDim());
+    }
+
+}
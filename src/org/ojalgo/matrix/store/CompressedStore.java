@@ -0,0 +1,319 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+
+/**
+ * A primitive sparse matrix in compressed form - the nonzeros are stored row by row
+ * ({@linkplain CompressedRowStore}, CSR) or column by column ({@linkplain CompressedColumnStore}, CSC).
+ * For each row/column there is a pointer to its first nonzero, and for each nonzero its column/row index
+ * (sorted) and value.
+ * <p>
+ * The structure is fixed once built - create instances with a {@linkplain Builder}, or convert from/to
+ * {@linkplain SparseStore}. Multiplying with dense primitive matrices (and vectors) is done by dedicated,
+ * multithreaded, kernels. Transposing a compressed store does not copy anything - the transpose of a
+ * row store is a column store sharing the same arrays.
+ * </p>
+ *
+ * @author apete
+ */
+public abstract class CompressedStore extends FactoryStore<Double> {
+
+    private static final long serialVersionUID = -2227071617405275981L;
+
+    /**
+     * Collects (row, column, value) triplets in any order, and then compresses them. Duplicate entries
+     * (the same row and column) are summed.
+     */
+    public static final class Builder {
+
+        private int[] myColumnIndices;
+        private final int myColumnsCount;
+        private int myCount = 0;
+        private int[] myRowIndices;
+        private final int myRowsCount;
+        private double[] myValues;
+
+        Builder(final int rowsCount, final int columnsCount, final int capacity) {
+
+            super();
+
+            myRowsCount = rowsCount;
+            myColumnsCount = columnsCount;
+
+            final int tmpCapacity = Math.max(16, capacity);
+            myRowIndices = new int[tmpCapacity];
+            myColumnIndices = new int[tmpCapacity];
+            myValues = new double[tmpCapacity];
+        }
+
+        /**
+         * @throws ArrayIndexOutOfBoundsException If the row or column is out of range
+         */
+        public Builder add(final long row, final long column, final double value) {
+
+            if ((row < 0L) || (row >= myRowsCount) || (column < 0L) || (column >= myColumnsCount)) {
+                throw new ArrayIndexOutOfBoundsException(
+                        "Index (" + row + ", " + column + ") out of range [0, " + myRowsCount + ") x [0, " + myColumnsCount + ")");
+            }
+
+            if (myCount == myValues.length) {
+                final int tmpCapacity = myCount + Math.max(16, myCount);
+                myRowIndices = Arrays.copyOf(myRowIndices, tmpCapacity);
+                myColumnIndices = Arrays.copyOf(myColumnIndices, tmpCapacity);
+                myValues = Arrays.copyOf(myValues, tmpCapacity);
+            }
+
+            myRowIndices[myCount] = (int) row;
+            myColumnIndices[myCount] = (int) column;
+            myValues[myCount] = value;
+            myCount++;
+
+            return this;
+        }
+
+        /**
+         * @return The number of added triplets (including any duplicates)
+         */
+        public int count() {
+            return myCount;
+        }
+
+        public CompressedColumnStore toColumnStore() {
+            return (CompressedColumnStore) this.compress(false);
+        }
+
+        public CompressedRowStore toRowStore() {
+            return (CompressedRowStore) this.compress(true);
+        }
+
+        /**
+         * Two stable counting sorts, first on the minor index and then on the major, gives the triplets in
+         * compressed order. Then the duplicates are summed.
+         */
+        private CompressedStore compress(final boolean rowMajor) {
+
+            final int[] tmpMajors = rowMajor ? myRowIndices : myColumnIndices;
+            final int[] tmpMinors = rowMajor ? myColumnIndices : myRowIndices;
+            final int tmpMajorDim = rowMajor ? myRowsCount : myColumnsCount;
+            final int tmpMinorDim = rowMajor ? myColumnsCount : myRowsCount;
+
+            final int[] tmpByMinor = CompressedStore.sort(tmpMinors, tmpMinorDim, null, myCount);
+            final int[] tmpOrder = CompressedStore.sort(tmpMajors, tmpMajorDim, tmpByMinor, myCount);
+
+            final int[] tmpPointers = new int[tmpMajorDim + 1];
+            int[] tmpIndices = new int[myCount];
+            double[] tmpValues = new double[myCount];
+
+            int tmpNonzeros = 0;
+            int tmpPrevMajor = -1;
+            int tmpPrevMinor = -1;
+
+            for (int k = 0; k < myCount; k++) {
+
+                final int tmpEntry = tmpOrder[k];
+                final int tmpMajor = tmpMajors[tmpEntry];
+                final int tmpMinor = tmpMinors[tmpEntry];
+
+                if ((tmpMajor == tmpPrevMajor) && (tmpMinor == tmpPrevMinor)) {
+                    tmpValues[tmpNonzeros - 1] += myValues[tmpEntry];
+                } else {
+                    tmpIndices[tmpNonzeros] = tmpMinor;
+                    tmpValues[tmpNonzeros] = myValues[tmpEntry];
+                    tmpPointers[tmpMajor + 1]++;
+                    tmpNonzeros++;
+                    tmpPrevMajor = tmpMajor;
+                    tmpPrevMinor = tmpMinor;
+                }
+            }
+
+            for (int m = 0; m < tmpMajorDim; m++) {
+                tmpPointers[m + 1] += tmpPointers[m];
+            }
+
+            if (tmpNonzeros < myCount) {
+                tmpIndices = Arrays.copyOf(tmpIndices, tmpNonzeros);
+                tmpValues = Arrays.copyOf(tmpValues, tmpNonzeros);
+            }
+
+            if (rowMajor) {
+                return new CompressedRowStore(myRowsCount, myColumnsCount, tmpPointers, tmpIndices, tmpValues);
+            } else {
+                return new CompressedColumnStore(myRowsCount, myColumnsCount, tmpPointers, tmpIndices, tmpValues);
+            }
+        }
+
+    }
+
+    /**
+     * @param rowsCount The number of rows
+     * @param columnsCount The number of columns
+     * @param capacity The expected number of nonzeros (the builder grows when necessary)
+     * @throws IllegalArgumentException If the number of rows or columns is negative or doesn't fit in an int
+     */
+    public static Builder builder(final long rowsCount, final long columnsCount, final int capacity) {
+
+        if ((rowsCount < 0L) || (rowsCount >= Integer.MAX_VALUE) || (columnsCount < 0L) || (columnsCount >= Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Unsupported dimensions: " + rowsCount + " x " + columnsCount);
+        }
+
+        return new Builder((int) rowsCount, (int) columnsCount, capacity);
+    }
+
+    /**
+     * A builder initialised with the nonzero elements of the source - use it to convert a
+     * {@linkplain SparseStore} (or any other store) to compressed form.
+     */
+    @SuppressWarnings("deprecation")
+    public static Builder builder(final MatrixStore<?> source) {
+
+        final Builder retVal;
+
+        if (source instanceof CompressedStore) {
+
+            final CompressedStore tmpSource = (CompressedStore) source;
+            retVal = CompressedStore.builder(source.countRows(), source.countColumns(), tmpSource.countNonzeros());
+            tmpSource.addNonZerosTo(retVal);
+
+        } else if (source instanceof SparseStore) {
+
+            retVal = CompressedStore.builder(source.countRows(), source.countColumns(), 16);
+            for (final SparseStore.NonzeroView<?> tmpNonzero : ((SparseStore<?>) source).nonzeros()) {
+                retVal.add(tmpNonzero.row(), tmpNonzero.column(), tmpNonzero.doubleValue());
+            }
+
+        } else {
+
+            retVal = CompressedStore.builder(source.countRows(), source.countColumns(), 16);
+            final int tmpRowDim = (int) source.countRows();
+            for (int i = 0; i < tmpRowDim; i++) {
+                for (int j = source.firstInRow(i), tmpLimit = source.limitOfRow(i); j < tmpLimit; j++) {
+                    final double tmpValue = source.doubleValue(i, j);
+                    if (tmpValue != PrimitiveMath.ZERO) {
+                        retVal.add(i, j, tmpValue);
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Stable counting sort of the entries on their keys.
+     *
+     * @param keys The keys, in the range [0, dimension)
+     * @param order The entries to sort (in that order), or null to sort 0, 1, 2...
+     * @return The sorted entries
+     */
+    static int[] sort(final int[] keys, final int dimension, final int[] order, final int count) {
+
+        final int[] tmpStarts = new int[dimension + 1];
+        for (int k = 0; k < count; k++) {
+            tmpStarts[keys[k] + 1]++;
+        }
+        for (int d = 0; d < dimension; d++) {
+            tmpStarts[d + 1] += tmpStarts[d];
+        }
+
+        final int[] retVal = new int[count];
+        for (int k = 0; k < count; k++) {
+            final int tmpEntry = order != null ? order[k] : k;
+            retVal[tmpStarts[keys[tmpEntry]]++] = tmpEntry;
+        }
+
+        return retVal;
+    }
+
+    final int[] myIndices;
+    final int[] myPointers;
+    final double[] myValues;
+
+    CompressedStore(final int rowsCount, final int columnsCount, final int[] pointers, final int[] indices, final double[] values) {
+
+        super(PrimitiveDenseStore.FACTORY, rowsCount, columnsCount);
+
+        myPointers = pointers;
+        myIndices = indices;
+        myValues = values;
+    }
+
+    /**
+     * Copies the compressed structure to the supplied arrays. With a column store the pointers are per column
+     * and the indices are row indices, and with a row store the other way around.
+     *
+     * @param pointers The first nonzero of each row/column (and then the total count), length: major
+     *        dimension + 1
+     * @param indices The (sorted) column/row index of each nonzero, length: at least
+     *        {@linkplain #countNonzeros()}
+     * @param values The nonzero values, length: at least {@linkplain #countNonzeros()}
+     */
+    public void copyStructure(final int[] pointers, final int[] indices, final double[] values) {
+        final int tmpNonzeros = this.countNonzeros();
+        System.arraycopy(myPointers, 0, pointers, 0, myPointers.length);
+        System.arraycopy(myIndices, 0, indices, 0, tmpNonzeros);
+        System.arraycopy(myValues, 0, values, 0, tmpNonzeros);
+    }
+
+    /**
+     * @return The number of stored (structurally nonzero) elements
+     */
+    public int countNonzeros() {
+        return myPointers[myPointers.length - 1];
+    }
+
+    public Double get(final long row, final long column) {
+        return this.doubleValue(row, column);
+    }
+
+    /**
+     * @return A {@linkplain SparseStore} with the same elements
+     */
+    public abstract SparseStore<Double> toSparseStore();
+
+    public Scalar<Double> toScalar(final long row, final long column) {
+        return PrimitiveScalar.of(this.doubleValue(row, column));
+    }
+
+    abstract void addNonZerosTo(Builder builder);
+
+    /**
+     * [product] = [left][this] where [left] is dense and column-major
+     */
+    abstract void premultiply(double[] product, double[] left, int rows);
+
+    /**
+     * [product] = [this][right] where [right] is dense and column-major
+     */
+    abstract void multiply(double[] product, double[] right, int columns);
+
+    double value(final int major, final int minor) {
+        final int tmpIndex = Arrays.binarySearch(myIndices, myPointers[major], myPointers[major + 1], minor);
+        return tmpIndex >= 0 ? myValues[tmpIndex] : PrimitiveMath.ZERO;
+    }
+
+}
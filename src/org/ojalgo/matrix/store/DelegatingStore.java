@@ -25,7 +25,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 import org.ojalgo.access.Access1D;
-import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.concurrent.ExecutionContext;
 
 abstract class DelegatingStore<N extends Number> extends LogicalStore<N> {
 
@@ -87,11 +87,11 @@ abstract class DelegatingStore<N extends Number> extends LogicalStore<N> {
     }
 
     protected final Future<MatrixStore<N>> executeMultiplyLeftOnBase(final Access1D<N> left) {
-        return DaemonPoolExecutor.invoke(new MultiplyLeft<>(this.getBase(), left));
+        return ExecutionContext.current().submit(new MultiplyLeft<>(this.getBase(), left));
     }
 
     protected final Future<MatrixStore<N>> executeMultiplyRightOnBase(final MatrixStore<N> right) {
-        return DaemonPoolExecutor.invoke(new MultiplyRight<>(this.getBase(), right));
+        return ExecutionContext.current().submit(new MultiplyRight<>(this.getBase(), right));
     }
 
 }
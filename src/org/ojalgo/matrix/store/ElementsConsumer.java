@@ -26,6 +26,7 @@ import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Consumer2D;
 import org.ojalgo.access.Mutate2D;
+import org.ojalgo.concurrent.ExecutionContext;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 
@@ -71,6 +72,14 @@ public interface ElementsConsumer<N extends Number> extends Consumer2D<Access2D<
 
     void fillByMultiplying(final Access1D<N> left, final Access1D<N> right);
 
+    /**
+     * Same as {@link #fillByMultiplying(Access1D, Access1D)} but with any multithreaded processing done
+     * within the specified execution context.
+     */
+    default void fillByMultiplying(final Access1D<N> left, final Access1D<N> right, final ExecutionContext context) {
+        context.run(() -> this.fillByMultiplying(left, right));
+    }
+
     default void fillColumn(final long row, final long column, final N value) {
         final long tmpCountRows = this.countRows();
         for (long i = row; i < tmpCountRows; i++) {
@@ -1012,36 +1012,19 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
     public Double aggregateAll(final Aggregator aggregator) {
 
-        final int tmpRowDim = myRowDim;
-        final int tmpColDim = myColDim;
-
-        final AggregatorFunction<Double> tmpMainAggr = aggregator.getPrimitiveFunction();
-
-        if (tmpColDim > AggregateAll.THRESHOLD) {
-
-            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
-
-                @Override
-                public void conquer(final int first, final int limit) {
+        if (myColDim > AggregateAll.THRESHOLD) {
 
-                    final AggregatorFunction<Double> tmpPartAggr = aggregator.getPrimitiveFunction();
-
-                    PrimitiveDenseStore.this.visit(tmpRowDim * first, tmpRowDim * limit, 1, tmpPartAggr);
-
-                    synchronized (tmpMainAggr) {
-                        tmpMainAggr.merge(tmpPartAggr.getNumber());
-                    }
-                }
-            };
-
-            tmpConquerer.invoke(0, tmpColDim, AggregateAll.THRESHOLD);
+            // Deterministic, regardless of how the work is split between threads
+            return aggregator.aggregate(this);
 
         } else {
 
+            final AggregatorFunction<Double> tmpMainAggr = aggregator.getPrimitiveFunction();
+
             PrimitiveDenseStore.this.visit(0, this.size(), 1, tmpMainAggr);
-        }
 
-        return tmpMainAggr.getNumber();
+            return tmpMainAggr.getNumber();
+        }
     }
 
     public void applyCholesky(final int iterationPoint, final BasicArray<Double> multipliers) {
@@ -1153,10 +1136,11 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
         final int tmpLength = Math.min(aRawReal.length, aRawImag.length);
 
         final ComplexArray retVal = ComplexArray.make(tmpLength);
-        final ComplexNumber[] tmpRaw = retVal.data;
+        final double[] tmpRaw = retVal.data;
 
         for (int i = 0; i < tmpLength; i++) {
-            tmpRaw[i] = ComplexNumber.of(aRawReal[i], aRawImag[i]);
+            tmpRaw[2 * i] = aRawReal[i];
+            tmpRaw[(2 * i) + 1] = aRawImag[i];
         }
 
         return Array1D.COMPLEX.wrap(retVal);
@@ -1254,9 +1238,13 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
     public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
 
-        final int tmpComplexity = ((int) left.count()) / myRowDim;
+        final int tmpComplexity = (int) (left.count() / myRowDim);
 
-        if (left instanceof PrimitiveDenseStore) {
+        if ((left instanceof CompressedStore) && (right instanceof PrimitiveDenseStore)) {
+            ((CompressedStore) left).multiply(data, PrimitiveDenseStore.cast(right).data, myColDim);
+        } else if ((left instanceof PrimitiveDenseStore) && (right instanceof CompressedStore)) {
+            ((CompressedStore) right).premultiply(data, PrimitiveDenseStore.cast(left).data, myRowDim);
+        } else if (left instanceof PrimitiveDenseStore) {
             if (right instanceof PrimitiveDenseStore) {
                 multiplyNeither.invoke(data, PrimitiveDenseStore.cast(left).data, tmpComplexity, PrimitiveDenseStore.cast(right).data);
             } else {
@@ -1503,6 +1491,8 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
         if (right instanceof PrimitiveDenseStore) {
             retVal.multiplyNeither.invoke(retVal.data, data, myColDim, PrimitiveDenseStore.cast(right).data);
+        } else if (right instanceof CompressedStore) {
+            ((CompressedStore) right).premultiply(retVal.data, data, myRowDim);
         } else {
             retVal.multiplyRight.invoke(retVal.data, data, myColDim, right);
         }
@@ -46,6 +46,67 @@ import org.ojalgo.scalar.ComplexNumber;
 
 public final class SparseStore<N extends Number> extends FactoryStore<N> implements ElementsConsumer<N> {
 
+    /**
+     * Collects (row, column, value) triplets in any order, and then builds the {@linkplain SparseStore} in
+     * one go - use it rather than {@link SparseStore#add(long, long, double)} or
+     * {@link SparseStore#set(long, long, double)} to assemble large models. Duplicate entries (the same row
+     * and column) are summed. Exact zeros are not stored - neither added zero values, nor duplicates that sum
+     * to zero.
+     *
+     * @see SparseArray.Builder
+     */
+    public static final class Builder<N extends Number> {
+
+        private final int myColumnsCount;
+        private final SparseArray.Builder<N> myElements;
+        private final PhysicalStore.Factory<N, ?> myFactory;
+        private final int myRowsCount;
+
+        Builder(final PhysicalStore.Factory<N, ?> factory, final int rowsCount, final int columnsCount, final SparseArray.Builder<N> elements) {
+
+            super();
+
+            myFactory = factory;
+            myRowsCount = rowsCount;
+            myColumnsCount = columnsCount;
+            myElements = elements;
+        }
+
+        /**
+         * @throws ArrayIndexOutOfBoundsException If the row or column is out of range
+         */
+        public Builder<N> add(final long row, final long col, final double value) {
+            if ((row < 0L) || (row >= myRowsCount) || (col < 0L) || (col >= myColumnsCount)) {
+                throw new ArrayIndexOutOfBoundsException(
+                        "Index (" + row + ", " + col + ") out of range [0, " + myRowsCount + ") x [0, " + myColumnsCount + ")");
+            }
+            myElements.add(AccessUtils.index(myRowsCount, row, col), value);
+            return this;
+        }
+
+        public SparseStore<N> build() {
+
+            final SparseArray<N> tmpElements = myElements.build();
+
+            final SparseStore<N> retVal = new SparseStore<>(myFactory, myRowsCount, myColumnsCount, tmpElements);
+
+            for (final long tmpIndex : retVal.indicesOfNonzeros()) {
+                retVal.updateNonZeros((int) (tmpIndex % myRowsCount), (int) (tmpIndex / myRowsCount));
+            }
+
+            return retVal;
+        }
+
+        /**
+         * @return The number of added nonzero triplets (including any duplicates not yet summed by
+         *         {@link #build()})
+         */
+        public int count() {
+            return myElements.count();
+        }
+
+    }
+
     public static interface Factory<N extends Number> {
 
         SparseStore<N> make(long rowsCount, long columnsCount);
@@ -115,6 +176,32 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
 
     public static final SparseStore.Factory<Double> PRIMITIVE = (rowsCount, columnsCount) -> SparseStore.makePrimitive((int) rowsCount, (int) columnsCount);
 
+    /**
+     * @param rowsCount The number of rows
+     * @param columnsCount The number of columns
+     * @param capacity The expected number of nonzeros (the builder grows when necessary)
+     */
+    public static SparseStore.Builder<BigDecimal> buildBig(final int rowsCount, final int columnsCount, final int capacity) {
+        return new SparseStore.Builder<>(BigDenseStore.FACTORY, rowsCount, columnsCount,
+                SparseArray.buildBig((long) rowsCount * columnsCount, capacity));
+    }
+
+    /**
+     * @see #buildBig(int, int, int)
+     */
+    public static SparseStore.Builder<ComplexNumber> buildComplex(final int rowsCount, final int columnsCount, final int capacity) {
+        return new SparseStore.Builder<>(ComplexDenseStore.FACTORY, rowsCount, columnsCount,
+                SparseArray.buildComplex((long) rowsCount * columnsCount, capacity));
+    }
+
+    /**
+     * @see #buildBig(int, int, int)
+     */
+    public static SparseStore.Builder<Double> buildPrimitive(final int rowsCount, final int columnsCount, final int capacity) {
+        return new SparseStore.Builder<>(PrimitiveDenseStore.FACTORY, rowsCount, columnsCount,
+                SparseArray.buildPrimitive((long) rowsCount * columnsCount, capacity));
+    }
+
     public static SparseStore<BigDecimal> makeBig(final int rowsCount, final int columnsCount) {
         return new SparseStore<>(BigDenseStore.FACTORY, rowsCount, columnsCount, SparseArray.makeBig(rowsCount * columnsCount));
     }
@@ -314,8 +401,8 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
                 final long tmpCol = tmpNonzero.column();
                 final double tmpValue = tmpNonzero.doubleValue();
 
-                final long tmpFirst = MatrixUtils.firstInRow(right, tmpRow, 0L);
-                final long tmpLimit = MatrixUtils.limitOfRow(right, tmpRow, tmpRightColumns);
+                final long tmpFirst = MatrixUtils.firstInRow(right, tmpCol, 0L);
+                final long tmpLimit = MatrixUtils.limitOfRow(right, tmpCol, tmpRightColumns);
 
                 for (long j = tmpFirst; j < tmpLimit; j++) {
                     target.add(tmpRow, j, tmpValue * right.doubleValue(AccessUtils.index(tmpRightStructure, tmpCol, j)));
@@ -329,6 +416,13 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
 
     }
 
+    /**
+     * @return The (column major) indices of the stored elements, in increasing order
+     */
+    long[] indicesOfNonzeros() {
+        return myElements.indicesInRange(0L, this.count());
+    }
+
     /**
      * Marked as deprecated because of it's preliminary design - not because it will be removed.
      *
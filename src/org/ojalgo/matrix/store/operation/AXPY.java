@@ -24,7 +24,6 @@ package org.ojalgo.matrix.store.operation;
 import java.math.BigDecimal;
 
 import org.ojalgo.function.BigFunction;
-import org.ojalgo.scalar.ComplexNumber;
 
 public abstract class AXPY implements BLAS1 {
 
@@ -38,10 +37,26 @@ public abstract class AXPY implements BLAS1 {
         }
     }
 
-    public static void invoke(final ComplexNumber[] vectorY, final int offsetY, final int stepY, final ComplexNumber scalar, final ComplexNumber[] vectorX,
-            final int offsetX, final int stepX, final int count) {
+    /**
+     * Complex numbers stored interleaved - the real part of element k at index 2*k and the imaginary part at
+     * 2*k+1. The offsets and steps are element (not array) indices.
+     */
+    public static void invokeComplex(final double[] vectorY, final int offsetY, final int stepY, final double scalarRe, final double scalarIm,
+            final double[] vectorX, final int offsetX, final int stepX, final int count) {
+
+        int tmpIndexY = 2 * offsetY;
+        int tmpIndexX = 2 * offsetX;
+        final int tmpStepY = 2 * stepY;
+        final int tmpStepX = 2 * stepX;
+
+        double tmpRe, tmpIm;
         for (int i = 0; i < count; i++) {
-            vectorY[offsetY + (i * stepY)] = scalar.multiply(vectorX[offsetX + (i * stepX)]).add(vectorY[offsetY + (i * stepY)]); // y += ax
+            tmpRe = vectorX[tmpIndexX];
+            tmpIm = vectorX[tmpIndexX + 1];
+            vectorY[tmpIndexY] += (scalarRe * tmpRe) - (scalarIm * tmpIm); // y += ax
+            vectorY[tmpIndexY + 1] += (scalarRe * tmpIm) + (scalarIm * tmpRe);
+            tmpIndexY += tmpStepY;
+            tmpIndexX += tmpStepX;
         }
     }
 
@@ -23,8 +23,6 @@ package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
 
-import org.ojalgo.scalar.ComplexNumber;
-
 public final class ApplyCholesky extends MatrixOperation {
 
     public static final ApplyCholesky SETUP = new ApplyCholesky();
@@ -37,10 +35,9 @@ public final class ApplyCholesky extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit,
-            final ComplexNumber[] multipliers) {
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit, final double[] multipliers) {
         for (int j = firstColumn; j < columnLimit; j++) {
-            SubtractScaledVector.invoke(data, j * structure, multipliers, 0, multipliers[j].conjugate(), j, structure);
+            SubtractScaledVector.invokeComplex(data, j * structure, multipliers, 0, multipliers[2 * j], -multipliers[(2 * j) + 1], j, structure);
         }
     }
 
@@ -23,8 +23,6 @@ package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
 
-import org.ojalgo.scalar.ComplexNumber;
-
 public final class ApplyLDL extends MatrixOperation {
 
     public static final ApplyLDL SETUP = new ApplyLDL();
@@ -39,11 +37,17 @@ public final class ApplyLDL extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit, final ComplexNumber[] multipliers,
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit, final double[] multipliers,
             final int iterationPoint) {
-        final ComplexNumber tmpDiagVal = data[iterationPoint + (iterationPoint * structure)];
+        final int tmpDiagIndex = 2 * (iterationPoint + (iterationPoint * structure));
+        final double tmpDiagRe = data[tmpDiagIndex];
+        final double tmpDiagIm = data[tmpDiagIndex + 1];
+        double tmpRe, tmpIm;
         for (int j = firstColumn; j < columnLimit; j++) {
-            SubtractScaledVector.invoke(data, j * structure, multipliers, 0, tmpDiagVal.multiply(multipliers[j].conjugate()), j, structure);
+            tmpRe = multipliers[2 * j];
+            tmpIm = -multipliers[(2 * j) + 1];
+            SubtractScaledVector.invokeComplex(data, j * structure, multipliers, 0, (tmpDiagRe * tmpRe) - (tmpDiagIm * tmpIm),
+                    (tmpDiagRe * tmpIm) + (tmpDiagIm * tmpRe), j, structure);
         }
     }
 
@@ -23,8 +23,6 @@ package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
 
-import org.ojalgo.scalar.ComplexNumber;
-
 public final class ApplyLDU extends MatrixOperation {
 
     public static final ApplyLDU SETUP = new ApplyLDU();
@@ -40,12 +38,14 @@ public final class ApplyLDU extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit, final ComplexNumber[] multipliers,
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit, final double[] multipliers,
             final int iterationPoint, final boolean hermitian) {
         for (int j = firstColumn; j < columnLimit; j++) {
-            final ComplexNumber tmpScalar = hermitian ? multipliers[j].conjugate() : data[iterationPoint + (j * structure)];
+            final int tmpIndex = hermitian ? 2 * j : 2 * (iterationPoint + (j * structure));
+            final double tmpRe = hermitian ? multipliers[tmpIndex] : data[tmpIndex];
+            final double tmpIm = hermitian ? -multipliers[tmpIndex + 1] : data[tmpIndex + 1];
             final int tmpFirstRow = hermitian ? j : iterationPoint + 1;
-            SubtractScaledVector.invoke(data, j * structure, multipliers, 0, tmpScalar, tmpFirstRow, structure);
+            SubtractScaledVector.invokeComplex(data, j * structure, multipliers, 0, tmpRe, tmpIm, tmpFirstRow, structure);
         }
     }
 
@@ -23,8 +23,6 @@ package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
 
-import org.ojalgo.scalar.ComplexNumber;
-
 public final class ApplyLU extends MatrixOperation {
 
     public static final ApplyLU SETUP = new ApplyLU();
@@ -38,10 +36,12 @@ public final class ApplyLU extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit, final ComplexNumber[] multipliers,
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit, final double[] multipliers,
             final int iterationPoint) {
+        int tmpIndex;
         for (int j = firstColumn; j < columnLimit; j++) {
-            SubtractScaledVector.invoke(data, j * structure, multipliers, 0, data[iterationPoint + (j * structure)], iterationPoint + 1, structure);
+            tmpIndex = 2 * (iterationPoint + (j * structure));
+            SubtractScaledVector.invokeComplex(data, j * structure, multipliers, 0, data[tmpIndex], data[tmpIndex + 1], iterationPoint + 1, structure);
         }
     }
 
@@ -25,7 +25,6 @@ import java.math.BigDecimal;
 
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
-import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.RationalNumber;
 
 public abstract class DotProduct extends MatrixOperation {
@@ -39,13 +38,32 @@ public abstract class DotProduct extends MatrixOperation {
         return retVal;
     }
 
-    public static ComplexNumber invoke(final ComplexNumber[] array1, final int offset1, final ComplexNumber[] array2, final int offset2, final int first,
-            final int limit) {
-        ComplexNumber retVal = ComplexNumber.ZERO;
+    /**
+     * Complex numbers stored interleaved - the real part of element k at index 2*k and the imaginary part at
+     * 2*k+1. The (element) index arguments are as for the other variants, and the result is written to
+     * element "index" of "product".
+     */
+    public static void invokeComplex(final double[] product, final int index, final double[] array1, final int offset1, final double[] array2,
+            final int offset2, final int first, final int limit) {
+
+        double tmpRe = PrimitiveMath.ZERO;
+        double tmpIm = PrimitiveMath.ZERO;
+
+        int tmpIndex1 = 2 * (offset1 + first);
+        int tmpIndex2 = 2 * (offset2 + first);
+
+        double tmpRe1, tmpIm1, tmpRe2, tmpIm2;
         for (int i = first; i < limit; i++) {
-            retVal = retVal.add(array1[offset1 + i].multiply(array2[offset2 + i]));
+            tmpRe1 = array1[tmpIndex1++];
+            tmpIm1 = array1[tmpIndex1++];
+            tmpRe2 = array2[tmpIndex2++];
+            tmpIm2 = array2[tmpIndex2++];
+            tmpRe += (tmpRe1 * tmpRe2) - (tmpIm1 * tmpIm2);
+            tmpIm += (tmpRe1 * tmpIm2) + (tmpIm1 * tmpRe2);
         }
-        return retVal;
+
+        product[2 * index] = tmpRe;
+        product[(2 * index) + 1] = tmpIm;
     }
 
     public static double invoke(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
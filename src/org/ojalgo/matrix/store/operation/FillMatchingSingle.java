@@ -24,6 +24,7 @@ package org.ojalgo.matrix.store.operation;
 import java.math.BigDecimal;
 
 import org.ojalgo.access.Access1D;
+import org.ojalgo.array.ComplexArray;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.TypeUtils;
 
@@ -44,13 +45,21 @@ public final class FillMatchingSingle extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int limitColumn,
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int limitColumn,
             final Access1D<? extends Number> source) {
-        int tmpIndex = structure * firstColumn;
-        for (int j = firstColumn; j < limitColumn; j++) {
-            for (int i = 0; i < structure; i++) {
-                data[tmpIndex] = ComplexNumber.valueOf(source.get(tmpIndex));
-                tmpIndex++;
+        if (source instanceof ComplexArray) {
+            final int tmpFirst = 2 * structure * firstColumn;
+            System.arraycopy(((ComplexArray) source).data, tmpFirst, data, tmpFirst, (2 * structure * limitColumn) - tmpFirst);
+        } else {
+            int tmpIndex = structure * firstColumn;
+            ComplexNumber tmpValue;
+            for (int j = firstColumn; j < limitColumn; j++) {
+                for (int i = 0; i < structure; i++) {
+                    tmpValue = ComplexNumber.valueOf(source.get(tmpIndex));
+                    data[2 * tmpIndex] = tmpValue.doubleValue();
+                    data[(2 * tmpIndex) + 1] = tmpValue.i;
+                    tmpIndex++;
+                }
             }
         }
     }
@@ -42,11 +42,14 @@ public final class FillTransposed extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
-        int tmpIndex = structure * firstColumn;
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
+        int tmpIndex = 2 * structure * firstColumn;
+        ComplexNumber tmpValue;
         for (int j = firstColumn; j < limitColumn; j++) {
             for (int i = 0; i < structure; i++) {
-                data[tmpIndex++] = ComplexNumber.valueOf(source.get(j, i));
+                tmpValue = ComplexNumber.valueOf(source.get(j, i));
+                data[tmpIndex++] = tmpValue.doubleValue();
+                data[tmpIndex++] = tmpValue.i;
             }
         }
     }
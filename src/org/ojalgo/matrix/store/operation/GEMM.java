@@ -0,0 +1,373 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.util.Arrays;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.machine.VirtualMachine;
+
+/**
+ * General matrix multiply, [C] = [A][B], for (large) dense primitive column-major matrices. Blocked and
+ * packed (the GotoBLAS/BLIS scheme):
+ * <ol>
+ * <li>A KC x NC block of [B] is packed in panels of NR columns - sized to stay in the top level cache.</li>
+ * <li>An MC x KC block of [A] is packed in panels of MR rows - sized to stay in the L2 cache.</li>
+ * <li>A register tiled MR x NR micro-kernel runs over one panel of each - KC x (MR + NR) elements that stay in
+ * the L1 cache.</li>
+ * </ol>
+ * The block sizes are derived from the cache sizes of {@linkplain OjAlgoUtils#ENVIRONMENT}. Multithreading is
+ * done by splitting the product's columns in (NR-aligned) ranges, each processed with its own pack buffers.
+ *
+ * @author apete
+ */
+public abstract class GEMM implements BLAS3 {
+
+    /**
+     * Products where all of rows, columns and complexity (the common dimension) are larger than this use this
+     * blocked algorithm. Smaller products use the simpler {@linkplain MultiplyNeither} kernels.
+     */
+    public static int THRESHOLD = 128;
+
+    static final int MR = 4;
+    static final int NR = 4;
+
+    private static final long ELEMENT_SIZE = 8L;
+
+    /**
+     * @param product The (column-major) product, will be overwritten
+     * @param left The (column-major) left matrix
+     * @param complexity The number of columns in left and rows in right
+     * @param right The (column-major) right matrix
+     */
+    public static void invoke(final double[] product, final double[] left, final int complexity, final double[] right) {
+
+        final int tmpColDim = right.length / complexity;
+        final int tmpRowDim = product.length / tmpColDim;
+
+        GEMM.invoke(product, 0, tmpRowDim, left, 0, tmpRowDim, right, 0, complexity, tmpRowDim, complexity, tmpColDim);
+    }
+
+    /**
+     * @return The number of elements in the depth (complexity) dimension of a block - a KC x (MR + NR) pair of
+     *         panels fills half the L1 cache
+     */
+    static int depth(final VirtualMachine environment) {
+        final long tmpDepth = environment.getL1Cache() / (2L * ELEMENT_SIZE * (MR + NR));
+        return (int) Math.max(32L, Math.min(1024L, tmpDepth));
+    }
+
+    /**
+     * Multiplies (column-major) sub-matrices, [C] = [A][B], like the BLAS routine. Each matrix is identified
+     * by the array index of its first element and by its leading dimension - the number of rows in the
+     * (larger) matrix the array holds.
+     *
+     * @param rows The number of rows in product and left
+     * @param complexity The number of columns in left and rows in right
+     * @param columns The number of columns in product and right
+     */
+    public static void invoke(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] right, final int rightOffset, final int rightRowDim, final int rows, final int complexity,
+            final int columns) {
+        GEMM.invoke(product, productOffset, productRowDim, left, leftOffset, leftRowDim, right, rightOffset, rightRowDim, rows, complexity, columns,
+                false);
+    }
+
+    /**
+     * Same as {@linkplain #invoke(double[], int, int, double[], int, int, double[], int, int, int, int, int)}
+     * but the product is subtracted from what's already there, [C] -= [A][B]. This is the trailing matrix
+     * update of the blocked (right-looking) matrix decompositions.
+     */
+    public static void subtract(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] right, final int rightOffset, final int rightRowDim, final int rows, final int complexity,
+            final int columns) {
+        GEMM.invoke(product, productOffset, productRowDim, left, leftOffset, leftRowDim, right, rightOffset, rightRowDim, rows, complexity, columns,
+                true);
+    }
+
+    private static void invoke(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] right, final int rightOffset, final int rightRowDim, final int rows, final int complexity,
+            final int columns, final boolean subtract) {
+
+        final int tmpPanels = (columns + NR - 1) / NR;
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                GEMM.multiply(product, productOffset, productRowDim, left, leftOffset, leftRowDim, right, rightOffset, rightRowDim, rows, complexity,
+                        first * NR, Math.min(limit * NR, columns), subtract);
+            }
+        };
+
+        tmpConquerer.invoke(0, tmpPanels, MultiplyNeither.THRESHOLD);
+    }
+
+    /**
+     * Columns [firstColumn, columnLimit) of the product. Unless subtract the product columns are first set
+     * to zero.
+     */
+    static void multiply(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] right, final int rightOffset, final int rightRowDim, final int rows, final int complexity,
+            final int firstColumn, final int columnLimit, final boolean subtract) {
+
+        if ((rows <= 0) || (complexity <= 0) || (columnLimit <= firstColumn)) {
+            if (!subtract) {
+                for (int j = firstColumn; j < columnLimit; j++) {
+                    final int tmpFirst = productOffset + (j * productRowDim);
+                    Arrays.fill(product, tmpFirst, tmpFirst + rows, PrimitiveMath.ZERO);
+                }
+            }
+            return;
+        }
+
+        final VirtualMachine tmpEnvironment = OjAlgoUtils.ENVIRONMENT;
+
+        final int tmpKC = GEMM.depth(tmpEnvironment);
+        final int tmpMC = GEMM.rows(tmpEnvironment, tmpKC);
+        final int tmpNC = GEMM.columns(tmpEnvironment, tmpKC);
+
+        final int tmpColumnCount = columnLimit - firstColumn;
+
+        final double[] tmpPackedLeft = new double[Math.min(tmpMC, GEMM.ceil(rows, MR)) * Math.min(tmpKC, complexity)];
+        final double[] tmpPackedRight = new double[Math.min(tmpNC, GEMM.ceil(tmpColumnCount, NR)) * Math.min(tmpKC, complexity)];
+        final double[] tmpTile = new double[MR * NR];
+
+        if (!subtract) {
+            for (int j = firstColumn; j < columnLimit; j++) {
+                final int tmpFirst = productOffset + (j * productRowDim);
+                Arrays.fill(product, tmpFirst, tmpFirst + rows, PrimitiveMath.ZERO);
+            }
+        }
+
+        final double tmpScale = subtract ? PrimitiveMath.NEG : PrimitiveMath.ONE;
+
+        for (int jc = firstColumn; jc < columnLimit; jc += tmpNC) {
+            final int nc = Math.min(tmpNC, columnLimit - jc);
+
+            for (int pc = 0; pc < complexity; pc += tmpKC) {
+                final int kc = Math.min(tmpKC, complexity - pc);
+
+                GEMM.packRight(right, rightOffset, rightRowDim, pc, kc, jc, nc, tmpPackedRight);
+
+                for (int ic = 0; ic < rows; ic += tmpMC) {
+                    final int mc = Math.min(tmpMC, rows - ic);
+
+                    GEMM.packLeft(left, leftOffset, leftRowDim, ic, mc, pc, kc, tmpPackedLeft);
+
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        final int nr = Math.min(NR, nc - jr);
+
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            final int mr = Math.min(MR, mc - ir);
+
+                            GEMM.kernel(kc, tmpPackedLeft, ir * kc, tmpPackedRight, jr * kc, product, productOffset, productRowDim, ic + ir, jc + jr, mr, nr,
+                                    tmpScale, tmpTile);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The MR x NR (4 x 4) register tiled micro-kernel: [C] += scale * [A][B] where A is a packed MR x kc panel
+     * and B a packed kc x NR panel, and scale is either 1 or -1. Only the top-left mr x nr part of the tile is
+     * added to the product.
+     */
+    static void kernel(final int kc, final double[] packedLeft, final int leftOffset, final double[] packedRight, final int rightOffset,
+            final double[] product, final int productOffset, final int rowDim, final int row, final int column, final int mr, final int nr,
+            final double scale, final double[] tile) {
+
+        double c00 = PrimitiveMath.ZERO, c10 = PrimitiveMath.ZERO, c20 = PrimitiveMath.ZERO, c30 = PrimitiveMath.ZERO;
+        double c01 = PrimitiveMath.ZERO, c11 = PrimitiveMath.ZERO, c21 = PrimitiveMath.ZERO, c31 = PrimitiveMath.ZERO;
+        double c02 = PrimitiveMath.ZERO, c12 = PrimitiveMath.ZERO, c22 = PrimitiveMath.ZERO, c32 = PrimitiveMath.ZERO;
+        double c03 = PrimitiveMath.ZERO, c13 = PrimitiveMath.ZERO, c23 = PrimitiveMath.ZERO, c33 = PrimitiveMath.ZERO;
+
+        int a = leftOffset;
+        int b = rightOffset;
+
+        for (int p = 0; p < kc; p++) {
+
+            final double a0 = packedLeft[a];
+            final double a1 = packedLeft[a + 1];
+            final double a2 = packedLeft[a + 2];
+            final double a3 = packedLeft[a + 3];
+
+            final double b0 = packedRight[b];
+            final double b1 = packedRight[b + 1];
+            final double b2 = packedRight[b + 2];
+            final double b3 = packedRight[b + 3];
+
+            c00 += a0 * b0;
+            c10 += a1 * b0;
+            c20 += a2 * b0;
+            c30 += a3 * b0;
+            c01 += a0 * b1;
+            c11 += a1 * b1;
+            c21 += a2 * b1;
+            c31 += a3 * b1;
+            c02 += a0 * b2;
+            c12 += a1 * b2;
+            c22 += a2 * b2;
+            c32 += a3 * b2;
+            c03 += a0 * b3;
+            c13 += a1 * b3;
+            c23 += a2 * b3;
+            c33 += a3 * b3;
+
+            a += MR;
+            b += NR;
+        }
+
+        if ((mr == MR) && (nr == NR)) {
+
+            int tmpIndex = productOffset + row + (column * rowDim);
+            product[tmpIndex] += scale * c00;
+            product[tmpIndex + 1] += scale * c10;
+            product[tmpIndex + 2] += scale * c20;
+            product[tmpIndex + 3] += scale * c30;
+            tmpIndex += rowDim;
+            product[tmpIndex] += scale * c01;
+            product[tmpIndex + 1] += scale * c11;
+            product[tmpIndex + 2] += scale * c21;
+            product[tmpIndex + 3] += scale * c31;
+            tmpIndex += rowDim;
+            product[tmpIndex] += scale * c02;
+            product[tmpIndex + 1] += scale * c12;
+            product[tmpIndex + 2] += scale * c22;
+            product[tmpIndex + 3] += scale * c32;
+            tmpIndex += rowDim;
+            product[tmpIndex] += scale * c03;
+            product[tmpIndex + 1] += scale * c13;
+            product[tmpIndex + 2] += scale * c23;
+            product[tmpIndex + 3] += scale * c33;
+
+        } else {
+
+            tile[0] = c00;
+            tile[1] = c10;
+            tile[2] = c20;
+            tile[3] = c30;
+            tile[4] = c01;
+            tile[5] = c11;
+            tile[6] = c21;
+            tile[7] = c31;
+            tile[8] = c02;
+            tile[9] = c12;
+            tile[10] = c22;
+            tile[11] = c32;
+            tile[12] = c03;
+            tile[13] = c13;
+            tile[14] = c23;
+            tile[15] = c33;
+
+            for (int j = 0; j < nr; j++) {
+                final int tmpOffset = productOffset + row + ((column + j) * rowDim);
+                for (int i = 0; i < mr; i++) {
+                    product[tmpOffset + i] += scale * tile[i + (j * MR)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies rows [firstRow, firstRow + rowCount) and columns [firstColumn, firstColumn + columnCount) of the
+     * left matrix into panels of MR rows. Within a panel the elements are stored column by column, and the
+     * last panel is padded with zeros.
+     */
+    static void packLeft(final double[] left, final int offset, final int rowDim, final int firstRow, final int rowCount, final int firstColumn,
+            final int columnCount, final double[] packed) {
+
+        int tmpIndex = 0;
+
+        for (int ir = 0; ir < rowCount; ir += MR) {
+            final int mr = Math.min(MR, rowCount - ir);
+            final int tmpRow = firstRow + ir;
+
+            for (int p = 0; p < columnCount; p++) {
+                final int tmpOffset = offset + tmpRow + ((firstColumn + p) * rowDim);
+
+                for (int i = 0; i < mr; i++) {
+                    packed[tmpIndex++] = left[tmpOffset + i];
+                }
+                for (int i = mr; i < MR; i++) {
+                    packed[tmpIndex++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies rows [firstRow, firstRow + rowCount) and columns [firstColumn, firstColumn + columnCount) of the
+     * right matrix into panels of NR columns. Within a panel the elements are stored row by row, and the last
+     * panel is padded with zeros.
+     */
+    static void packRight(final double[] right, final int offset, final int rowDim, final int firstRow, final int rowCount, final int firstColumn,
+            final int columnCount, final double[] packed) {
+
+        int tmpIndex = 0;
+
+        for (int jr = 0; jr < columnCount; jr += NR) {
+            final int nr = Math.min(NR, columnCount - jr);
+            final int tmpColumn = firstColumn + jr;
+
+            for (int p = 0; p < rowCount; p++) {
+                final int tmpOffset = offset + firstRow + p + (tmpColumn * rowDim);
+
+                for (int j = 0; j < nr; j++) {
+                    packed[tmpIndex++] = right[tmpOffset + (j * rowDim)];
+                }
+                for (int j = nr; j < NR; j++) {
+                    packed[tmpIndex++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows in a block of the left matrix - an MC x KC block fills half the L2 cache
+     */
+    static int rows(final VirtualMachine environment, final int depth) {
+        final long tmpRows = environment.getL2Cache() / (2L * ELEMENT_SIZE * depth);
+        return GEMM.ceil((int) Math.max(MR * 4L, Math.min(4096L, tmpRows)), MR);
+    }
+
+    /**
+     * @return The number of columns in a block of the right matrix - a KC x NC block fills half the top level
+     *         cache
+     */
+    static int columns(final VirtualMachine environment, final int depth) {
+        final long tmpColumns = environment.cache / (2L * ELEMENT_SIZE * depth);
+        return GEMM.ceil((int) Math.max(NR * 16L, Math.min(16384L, tmpColumns)), NR);
+    }
+
+    /**
+     * @return The smallest multiple of step that is greater than or equal to value
+     */
+    private static int ceil(final int value, final int step) {
+        return ((value + step - 1) / step) * step;
+    }
+
+}
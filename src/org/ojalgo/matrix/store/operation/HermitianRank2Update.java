@@ -23,8 +23,6 @@ package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
 
-import org.ojalgo.scalar.ComplexNumber;
-
 /**
  * [A] -= ([a][b]<sup>c</sup>+[b][a]<sup>c</sup>) <br>
  * [A] is assumed to be hermitian (square symmetric) [A] = [A]<sup>C</sup>. <br>
@@ -59,24 +57,29 @@ public final class HermitianRank2Update extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] aData, final int aFirstCol, final int aColLimit, final ComplexNumber[] aVector1,
-            final ComplexNumber[] aVector2) {
+    public static void invokeComplex(final double[] aData, final int aFirstCol, final int aColLimit, final double[] aVector1, final double[] aVector2) {
 
-        final int tmpLength = aVector1.length; // Should be the same as aVector1.length and the "row-dim" of aData.
+        final int tmpLength = aVector1.length / 2; // Should be the same as aVector2 and the "row-dim" of aData.
 
-        ComplexNumber tmpVal1j;
-        ComplexNumber tmpVal2j;
+        double tmpRe1j, tmpIm1j, tmpRe2j, tmpIm2j;
+        double tmpRe1i, tmpIm1i, tmpRe2i, tmpIm2i;
 
         int tmpIndex;
         for (int j = aFirstCol; j < aColLimit; j++) {
 
-            tmpVal1j = aVector1[j].conjugate();
-            tmpVal2j = aVector2[j].conjugate();
+            tmpRe1j = aVector1[2 * j];
+            tmpIm1j = -aVector1[(2 * j) + 1];
+            tmpRe2j = aVector2[2 * j];
+            tmpIm2j = -aVector2[(2 * j) + 1];
 
-            tmpIndex = j + (j * tmpLength);
+            tmpIndex = 2 * (j + (j * tmpLength));
             for (int i = j; i < tmpLength; i++) {
-                aData[tmpIndex] = aData[tmpIndex].subtract(aVector2[i].multiply(tmpVal1j).add(aVector1[i].multiply(tmpVal2j)));
-                tmpIndex++;
+                tmpRe1i = aVector1[2 * i];
+                tmpIm1i = aVector1[(2 * i) + 1];
+                tmpRe2i = aVector2[2 * i];
+                tmpIm2i = aVector2[(2 * i) + 1];
+                aData[tmpIndex++] -= ((tmpRe2i * tmpRe1j) - (tmpIm2i * tmpIm1j)) + ((tmpRe1i * tmpRe2j) - (tmpIm1i * tmpIm2j));
+                aData[tmpIndex++] -= ((tmpRe2i * tmpIm1j) + (tmpIm2i * tmpRe1j)) + ((tmpRe1i * tmpIm2j) + (tmpIm1i * tmpRe2j));
             }
         }
     }
@@ -28,9 +28,7 @@ import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BigFunction;
-import org.ojalgo.function.ComplexFunction;
 import org.ojalgo.matrix.transformation.Householder;
-import org.ojalgo.scalar.ComplexNumber;
 
 /**
  * Performs Householder transformation from both sides simultaneously assuming that [A] is hermitian (square
@@ -99,12 +97,17 @@ public final class HouseholderHermitian extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final Householder.Complex householder, final ComplexNumber[] worker) {
+    /**
+     * The complex numbers of data, the householder vector and worker are stored interleaved - the real part of
+     * element k at index 2*k and the imaginary part at 2*k+1.
+     */
+    public static void invokeComplex(final double[] data, final Householder.Complex householder, final double[] worker) {
 
-        final ComplexNumber[] tmpVector = householder.vector;
+        final double[] tmpVector = householder.vector;
         final int tmpFirst = householder.first;
-        final int tmpLength = tmpVector.length;
-        final ComplexNumber tmpBeta = householder.beta;
+        final int tmpLength = tmpVector.length / 2;
+        final double tmpBetaRe = householder.beta.doubleValue();
+        final double tmpBetaIm = householder.beta.i;
         final int tmpCount = tmpLength - tmpFirst;
 
         if (tmpCount > THRESHOLD) {
@@ -113,7 +116,7 @@ public final class HouseholderHermitian extends MatrixOperation {
 
                 @Override
                 protected void conquer(final int aFirst, final int aLimit) {
-                    MultiplyHermitianAndVector.invoke(worker, aFirst, aLimit, data, tmpVector, tmpFirst);
+                    MultiplyHermitianAndVector.invokeComplex(worker, aFirst, aLimit, data, tmpVector, tmpFirst);
                 }
             };
 
@@ -121,19 +124,32 @@ public final class HouseholderHermitian extends MatrixOperation {
 
         } else {
 
-            MultiplyHermitianAndVector.invoke(worker, tmpFirst, tmpLength, data, tmpVector, tmpFirst);
+            MultiplyHermitianAndVector.invokeComplex(worker, tmpFirst, tmpLength, data, tmpVector, tmpFirst);
         }
 
-        ComplexNumber tmpVal = ComplexNumber.ZERO;
+        double tmpValRe = PrimitiveMath.ZERO;
+        double tmpValIm = PrimitiveMath.ZERO;
+        double tmpVecRe, tmpVecIm, tmpWorkRe, tmpWorkIm;
         for (int c = tmpFirst; c < tmpLength; c++) {
-            //tmpVal += tmpVector[c] * worker[c];
-            tmpVal = tmpVal.add(tmpVector[c].conjugate().multiply(worker[c]));
+            //tmpVal += conj(tmpVector[c]) * worker[c];
+            tmpVecRe = tmpVector[2 * c];
+            tmpVecIm = tmpVector[(2 * c) + 1];
+            tmpWorkRe = worker[2 * c];
+            tmpWorkIm = worker[(2 * c) + 1];
+            tmpValRe += (tmpVecRe * tmpWorkRe) + (tmpVecIm * tmpWorkIm);
+            tmpValIm += (tmpVecRe * tmpWorkIm) - (tmpVecIm * tmpWorkRe);
         }
         //tmpVal *= (tmpBeta / TWO);
-        tmpVal = ComplexFunction.DIVIDE.invoke(tmpVal.multiply(tmpBeta), ComplexNumber.TWO);
+        final double tmpHalfRe = ((tmpValRe * tmpBetaRe) - (tmpValIm * tmpBetaIm)) / PrimitiveMath.TWO;
+        final double tmpHalfIm = ((tmpValRe * tmpBetaIm) + (tmpValIm * tmpBetaRe)) / PrimitiveMath.TWO;
         for (int c = tmpFirst; c < tmpLength; c++) {
             //worker[c] = tmpBeta * (worker[c] - (tmpVal * tmpVector[c]));
-            worker[c] = tmpBeta.multiply(worker[c].subtract(tmpVal.multiply(tmpVector[c])));
+            tmpVecRe = tmpVector[2 * c];
+            tmpVecIm = tmpVector[(2 * c) + 1];
+            tmpWorkRe = worker[2 * c] - ((tmpHalfRe * tmpVecRe) - (tmpHalfIm * tmpVecIm));
+            tmpWorkIm = worker[(2 * c) + 1] - ((tmpHalfRe * tmpVecIm) + (tmpHalfIm * tmpVecRe));
+            worker[2 * c] = (tmpBetaRe * tmpWorkRe) - (tmpBetaIm * tmpWorkIm);
+            worker[(2 * c) + 1] = (tmpBetaRe * tmpWorkIm) + (tmpBetaIm * tmpWorkRe);
         }
 
         if (tmpCount > THRESHOLD) {
@@ -142,7 +158,7 @@ public final class HouseholderHermitian extends MatrixOperation {
 
                 @Override
                 protected void conquer(final int aFirst, final int aLimit) {
-                    HermitianRank2Update.invoke(data, aFirst, aLimit, tmpVector, worker);
+                    HermitianRank2Update.invokeComplex(data, aFirst, aLimit, tmpVector, worker);
                 }
             };
 
@@ -150,7 +166,7 @@ public final class HouseholderHermitian extends MatrixOperation {
 
         } else {
 
-            HermitianRank2Update.invoke(data, tmpFirst, tmpLength, tmpVector, worker);
+            HermitianRank2Update.invokeComplex(data, tmpFirst, tmpLength, tmpVector, worker);
         }
     }
 
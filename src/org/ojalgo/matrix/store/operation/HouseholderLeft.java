@@ -24,9 +24,9 @@ package org.ojalgo.matrix.store.operation;
 import java.math.BigDecimal;
 
 import org.ojalgo.constant.BigMath;
+import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BigFunction;
 import org.ojalgo.matrix.transformation.Householder;
-import org.ojalgo.scalar.ComplexNumber;
 
 public final class HouseholderLeft extends MatrixOperation {
 
@@ -57,25 +57,36 @@ public final class HouseholderLeft extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int first, final int limit, final Householder.Complex householder) {
+    public static void invokeComplex(final double[] data, final int structure, final int first, final int limit, final Householder.Complex householder) {
 
-        final ComplexNumber[] tmpHouseholderVector = householder.vector;
+        final double[] tmpHouseholderVector = householder.vector;
         final int tmpFirstNonZero = householder.first;
-        final ComplexNumber tmpBeta = householder.beta;
+        final double tmpBetaRe = householder.beta.doubleValue();
+        final double tmpBetaIm = householder.beta.i;
 
-        ComplexNumber tmpScale;
+        double tmpScaleRe, tmpScaleIm, tmpRe, tmpIm, tmpVecRe, tmpVecIm;
         int tmpIndex;
         for (int j = first; j < limit; j++) {
-            tmpScale = ComplexNumber.ZERO;
-            tmpIndex = tmpFirstNonZero + (j * structure);
+            tmpScaleRe = PrimitiveMath.ZERO;
+            tmpScaleIm = PrimitiveMath.ZERO;
+            tmpIndex = 2 * (tmpFirstNonZero + (j * structure));
             for (int i = tmpFirstNonZero; i < structure; i++) {
-                tmpScale = tmpScale.add(tmpHouseholderVector[i].conjugate().multiply(data[tmpIndex++]));
+                tmpVecRe = tmpHouseholderVector[2 * i];
+                tmpVecIm = tmpHouseholderVector[(2 * i) + 1];
+                tmpRe = data[tmpIndex++];
+                tmpIm = data[tmpIndex++];
+                tmpScaleRe += (tmpVecRe * tmpRe) + (tmpVecIm * tmpIm);
+                tmpScaleIm += (tmpVecRe * tmpIm) - (tmpVecIm * tmpRe);
             }
-            tmpScale = tmpScale.multiply(tmpBeta);
-            tmpIndex = tmpFirstNonZero + (j * structure);
+            tmpRe = (tmpScaleRe * tmpBetaRe) - (tmpScaleIm * tmpBetaIm);
+            tmpScaleIm = (tmpScaleRe * tmpBetaIm) + (tmpScaleIm * tmpBetaRe);
+            tmpScaleRe = tmpRe;
+            tmpIndex = 2 * (tmpFirstNonZero + (j * structure));
             for (int i = tmpFirstNonZero; i < structure; i++) {
-                data[tmpIndex] = data[tmpIndex].subtract(tmpScale.multiply(tmpHouseholderVector[i]));
-                tmpIndex++;
+                tmpVecRe = tmpHouseholderVector[2 * i];
+                tmpVecIm = tmpHouseholderVector[(2 * i) + 1];
+                data[tmpIndex++] -= (tmpScaleRe * tmpVecRe) - (tmpScaleIm * tmpVecIm);
+                data[tmpIndex++] -= (tmpScaleRe * tmpVecIm) + (tmpScaleIm * tmpVecRe);
             }
         }
     }
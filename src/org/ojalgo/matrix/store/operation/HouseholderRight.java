@@ -27,7 +27,6 @@ import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BigFunction;
 import org.ojalgo.matrix.transformation.Householder;
-import org.ojalgo.scalar.ComplexNumber;
 
 public final class HouseholderRight extends MatrixOperation {
 
@@ -61,28 +60,42 @@ public final class HouseholderRight extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int first, final int limit, final int tmpColDim, final Householder.Complex householder) {
+    public static void invokeComplex(final double[] data, final int first, final int limit, final int tmpColDim, final Householder.Complex householder) {
 
-        final ComplexNumber[] tmpHouseholderVector = householder.vector;
+        final double[] tmpHouseholderVector = householder.vector;
         final int tmpFirstNonZero = householder.first;
-        final ComplexNumber tmpBeta = householder.beta;
+        final double tmpBetaRe = householder.beta.doubleValue();
+        final double tmpBetaIm = householder.beta.i;
 
-        final int tmpRowDim = data.length / tmpColDim;
+        final int tmpRowDim = data.length / (2 * tmpColDim);
 
-        ComplexNumber tmpScale;
+        double tmpScaleRe, tmpScaleIm, tmpRe, tmpIm, tmpVecRe, tmpVecIm;
         int tmpIndex;
         for (int i = first; i < limit; i++) {
-            tmpScale = ComplexNumber.ZERO;
-            tmpIndex = i + (tmpFirstNonZero * tmpRowDim);
+            tmpScaleRe = PrimitiveMath.ZERO;
+            tmpScaleIm = PrimitiveMath.ZERO;
+            tmpIndex = 2 * (i + (tmpFirstNonZero * tmpRowDim));
             for (int j = tmpFirstNonZero; j < tmpColDim; j++) {
-                tmpScale = tmpScale.add(tmpHouseholderVector[j].conjugate().multiply(data[tmpIndex].conjugate()));
-                tmpIndex += tmpRowDim;
+                // conj(v) * conj(d)
+                tmpVecRe = tmpHouseholderVector[2 * j];
+                tmpVecIm = tmpHouseholderVector[(2 * j) + 1];
+                tmpRe = data[tmpIndex];
+                tmpIm = data[tmpIndex + 1];
+                tmpScaleRe += (tmpVecRe * tmpRe) - (tmpVecIm * tmpIm);
+                tmpScaleIm -= (tmpVecRe * tmpIm) + (tmpVecIm * tmpRe);
+                tmpIndex += 2 * tmpRowDim;
             }
-            tmpScale = tmpScale.multiply(tmpBeta);
-            tmpIndex = i + (tmpFirstNonZero * tmpRowDim);
+            tmpRe = (tmpScaleRe * tmpBetaRe) - (tmpScaleIm * tmpBetaIm);
+            tmpScaleIm = (tmpScaleRe * tmpBetaIm) + (tmpScaleIm * tmpBetaRe);
+            tmpScaleRe = tmpRe;
+            tmpIndex = 2 * (i + (tmpFirstNonZero * tmpRowDim));
             for (int j = tmpFirstNonZero; j < tmpColDim; j++) {
-                data[tmpIndex] = data[tmpIndex].conjugate().subtract(tmpScale.multiply(tmpHouseholderVector[j])).conjugate();
-                tmpIndex += tmpRowDim;
+                // d -= conj(scale * v)
+                tmpVecRe = tmpHouseholderVector[2 * j];
+                tmpVecIm = tmpHouseholderVector[(2 * j) + 1];
+                data[tmpIndex] -= (tmpScaleRe * tmpVecRe) - (tmpScaleIm * tmpVecIm);
+                data[tmpIndex + 1] += (tmpScaleRe * tmpVecIm) + (tmpScaleIm * tmpVecRe);
+                tmpIndex += 2 * tmpRowDim;
             }
         }
     }
@@ -44,13 +44,17 @@ public final class MAXPY extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] aData, final int aRowDim, final int aFirstCol, final int aColLimit, final ComplexNumber aScale,
+    public static void invokeComplex(final double[] aData, final int aRowDim, final int aFirstCol, final int aColLimit, final ComplexNumber aScale,
             final MatrixStore<ComplexNumber> aStore) {
-        int tmpIndex = aRowDim * aFirstCol;
+        final double tmpScaleRe = aScale.doubleValue();
+        final double tmpScaleIm = aScale.i;
+        int tmpIndex = 2 * aRowDim * aFirstCol;
+        ComplexNumber tmpValue;
         for (int j = aFirstCol; j < aColLimit; j++) {
             for (int i = 0; i < aRowDim; i++) {
-                aData[tmpIndex] = aScale.multiply(aStore.get(i, j)).add(aData[tmpIndex]);
-                tmpIndex++;
+                tmpValue = aStore.get(i, j);
+                aData[tmpIndex++] += (tmpScaleRe * tmpValue.doubleValue()) - (tmpScaleIm * tmpValue.i);
+                aData[tmpIndex++] += (tmpScaleRe * tmpValue.i) + (tmpScaleIm * tmpValue.doubleValue());
             }
         }
     }
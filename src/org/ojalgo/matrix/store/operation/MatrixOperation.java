@@ -21,7 +21,7 @@
  */
 package org.ojalgo.matrix.store.operation;
 
-import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.ExecutionContext;
 
 /**
  * @author apete
@@ -35,7 +35,7 @@ abstract class MatrixOperation {
     public abstract int threshold();
 
     public int workers() {
-        return OjAlgoUtils.ENVIRONMENT.threads;
+        return ExecutionContext.current().threads();
     }
 
 }
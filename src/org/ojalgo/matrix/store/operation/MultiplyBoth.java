@@ -24,6 +24,7 @@ package org.ojalgo.matrix.store.operation;
 import java.math.BigDecimal;
 
 import org.ojalgo.access.Access1D;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
@@ -588,6 +589,22 @@ public final class MultiplyBoth extends MatrixOperation {
         tmpConquerer.invoke(0, ((int) left.count()) / complexity, THRESHOLD);
     };
 
+    static final PrimitiveMultiplyBoth PRIMITIVE_BLOCKED = (product, left, complexity, right) -> {
+        if (complexity > GEMM.THRESHOLD) {
+
+            final double[] tmpLeft = MultiplyBoth.copyPrimitive(left);
+            final double[] tmpRight = MultiplyBoth.copyPrimitive(right);
+            final double[] tmpProduct = new double[(int) product.count()];
+
+            GEMM.invoke(tmpProduct, tmpLeft, complexity, tmpRight);
+
+            product.fillMatching(PrimitiveArray.wrap(tmpProduct));
+
+        } else {
+            PRIMITIVE_MT.invoke(product, left, complexity, right);
+        }
+    };
+
     public static BigMultiplyBoth getBig(final long rows, final long columns) {
         if (rows > THRESHOLD) {
             return BIG_MT;
@@ -605,7 +622,9 @@ public final class MultiplyBoth extends MatrixOperation {
     }
 
     public static PrimitiveMultiplyBoth getPrimitive(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if ((rows > GEMM.THRESHOLD) && (columns > GEMM.THRESHOLD)) {
+            return PRIMITIVE_BLOCKED;
+        } else if (rows > THRESHOLD) {
             return PRIMITIVE_MT;
         } else if (rows == 10) {
             return PRIMITIVE_0XN;
@@ -632,6 +651,14 @@ public final class MultiplyBoth extends MatrixOperation {
         }
     }
 
+    private static double[] copyPrimitive(final Access1D<Double> source) {
+        final double[] retVal = new double[(int) source.count()];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = source.doubleValue(i);
+        }
+        return retVal;
+    }
+
     static void invokeBig(final ElementsConsumer<BigDecimal> product, final int firstRow, final int rowLimit, final Access1D<BigDecimal> left,
             final int complexity, final Access1D<BigDecimal> right) {
 
@@ -26,7 +26,6 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import java.math.BigDecimal;
 
 import org.ojalgo.constant.BigMath;
-import org.ojalgo.scalar.ComplexNumber;
 
 /**
  * Multiplies an hermitian (square symmetric) matrix with a vector. Will only read from the lower/left
@@ -60,23 +59,38 @@ public final class MultiplyHermitianAndVector extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] productMtrx, final int aFirst, final int aLimit, final ComplexNumber[] aSymmetric,
-            final ComplexNumber[] aVector, final int aFirstNonZero) {
+    public static void invokeComplex(final double[] productMtrx, final int aFirst, final int aLimit, final double[] aSymmetric, final double[] aVector,
+            final int aFirstNonZero) {
 
-        final int tmpRowDim = aVector.length;
+        final int tmpRowDim = aVector.length / 2;
 
-        ComplexNumber tmpVal;
+        double tmpRe, tmpIm, tmpSymRe, tmpSymIm, tmpVecRe, tmpVecIm;
+        int tmpIndex;
         for (int i = aFirst; i < aLimit; i++) {
-            tmpVal = ComplexNumber.ZERO;
+            tmpRe = ZERO;
+            tmpIm = ZERO;
             for (int c = aFirstNonZero; c < i; c++) {
                 //tmpVal += aSymmetric[i + c * tmpRowDim] * aVector[c];
-                tmpVal = tmpVal.add(aSymmetric[i + (c * tmpRowDim)].multiply(aVector[c]));
+                tmpIndex = 2 * (i + (c * tmpRowDim));
+                tmpSymRe = aSymmetric[tmpIndex];
+                tmpSymIm = aSymmetric[tmpIndex + 1];
+                tmpVecRe = aVector[2 * c];
+                tmpVecIm = aVector[(2 * c) + 1];
+                tmpRe += (tmpSymRe * tmpVecRe) - (tmpSymIm * tmpVecIm);
+                tmpIm += (tmpSymRe * tmpVecIm) + (tmpSymIm * tmpVecRe);
             }
             for (int c = i; c < tmpRowDim; c++) {
-                //tmpVal += aSymmetric[c + i * tmpRowDim] * aVector[c];
-                tmpVal = tmpVal.add(aSymmetric[c + (i * tmpRowDim)].conjugate().multiply(aVector[c]));
+                //tmpVal += conj(aSymmetric[c + i * tmpRowDim]) * aVector[c];
+                tmpIndex = 2 * (c + (i * tmpRowDim));
+                tmpSymRe = aSymmetric[tmpIndex];
+                tmpSymIm = -aSymmetric[tmpIndex + 1];
+                tmpVecRe = aVector[2 * c];
+                tmpVecIm = aVector[(2 * c) + 1];
+                tmpRe += (tmpSymRe * tmpVecRe) - (tmpSymIm * tmpVecIm);
+                tmpIm += (tmpSymRe * tmpVecIm) + (tmpSymIm * tmpVecRe);
             }
-            productMtrx[i] = tmpVal;
+            productMtrx[2 * i] = tmpRe;
+            productMtrx[(2 * i) + 1] = tmpIm;
         }
     }
 
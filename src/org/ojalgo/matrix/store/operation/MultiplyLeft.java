@@ -54,8 +54,8 @@ public final class MultiplyLeft extends MatrixOperation {
         tmpConquerer.invoke(0, (int) (left.count() / complexity), THRESHOLD);
     };
 
-    static final ComplexMultiplyLeft COMPLEX = (product, left, complexity, right) -> MultiplyLeft.invoke(product, 0, (int) (left.count() / complexity), left,
-            complexity, right);
+    static final ComplexMultiplyLeft COMPLEX = (product, left, complexity, right) -> MultiplyLeft.invokeComplex(product, 0,
+            (int) (left.count() / complexity), left, complexity, right);
 
     static final ComplexMultiplyLeft COMPLEX_MT = (product, left, complexity, right) -> {
 
@@ -63,7 +63,7 @@ public final class MultiplyLeft extends MatrixOperation {
 
             @Override
             public void conquer(final int first, final int limit) {
-                MultiplyLeft.invoke(product, first, limit, left, complexity, right);
+                MultiplyLeft.invokeComplex(product, first, limit, left, complexity, right);
             }
         };
 
@@ -642,22 +642,25 @@ public final class MultiplyLeft extends MatrixOperation {
         }
     }
 
-    static void invoke(final ComplexNumber[] product, final int firstRow, final int rowLimit, final Access1D<ComplexNumber> left, final int complexity,
-            final ComplexNumber[] right) {
+    static void invokeComplex(final double[] product, final int firstRow, final int rowLimit, final Access1D<ComplexNumber> left, final int complexity,
+            final double[] right) {
 
-        final int tmpColDim = right.length / complexity;
-        final int tmpRowDim = product.length / tmpColDim;
+        final int tmpColDim = right.length / (2 * complexity);
+        final int tmpRowDim = product.length / (2 * tmpColDim);
 
-        final ComplexNumber[] tmpLeftRow = new ComplexNumber[complexity];
+        final double[] tmpLeftRow = new double[2 * complexity];
+        ComplexNumber tmpValue;
 
         for (int i = firstRow; i < rowLimit; i++) {
 
             for (int c = 0; c < complexity; c++) {
-                tmpLeftRow[c] = left.get(i + (c * tmpRowDim));
+                tmpValue = left.get(i + (c * tmpRowDim));
+                tmpLeftRow[2 * c] = tmpValue.doubleValue();
+                tmpLeftRow[(2 * c) + 1] = tmpValue.i;
             }
 
             for (int j = 0; j < tmpColDim; j++) {
-                product[i + (j * tmpRowDim)] = DotProduct.invoke(tmpLeftRow, 0, right, j * complexity, 0, complexity);
+                DotProduct.invokeComplex(product, i + (j * tmpRowDim), tmpLeftRow, 0, right, j * complexity, 0, complexity);
             }
         }
     }
@@ -52,8 +52,8 @@ public final class MultiplyNeither extends MatrixOperation {
         tmpConquerer.invoke(0, left.length / complexity, THRESHOLD);
     };
 
-    static final ComplexMultiplyNeither COMPLEX = (product, left, complexity, right) -> MultiplyNeither.invoke(product, 0, left.length / complexity, left,
-            complexity, right);
+    static final ComplexMultiplyNeither COMPLEX = (product, left, complexity, right) -> MultiplyNeither.invokeComplex(product, 0,
+            left.length / (2 * complexity), left, complexity, right);
 
     static final ComplexMultiplyNeither COMPLEX_MT = (product, left, complexity, right) -> {
 
@@ -61,11 +61,11 @@ public final class MultiplyNeither extends MatrixOperation {
 
             @Override
             public void conquer(final int first, final int limit) {
-                MultiplyNeither.invoke(product, first, limit, left, complexity, right);
+                MultiplyNeither.invokeComplex(product, first, limit, left, complexity, right);
             }
         };
 
-        tmpConquerer.invoke(0, left.length / complexity, THRESHOLD);
+        tmpConquerer.invoke(0, left.length / (2 * complexity), THRESHOLD);
     };
 
     static final PrimitiveMultiplyNeither PRIMITIVE = (product, left, complexity, right) -> MultiplyNeither.invoke(product, 0, left.length / complexity, left,
@@ -576,6 +576,22 @@ public final class MultiplyNeither extends MatrixOperation {
         tmpConquerer.invoke(0, left.length / complexity, THRESHOLD);
     };
 
+    static final PrimitiveMultiplyNeither PRIMITIVE_BLOCKED = (product, left, complexity, right) -> {
+        if (complexity > GEMM.THRESHOLD) {
+            GEMM.invoke(product, left, complexity, right);
+        } else {
+            PRIMITIVE_MT.invoke(product, left, complexity, right);
+        }
+    };
+
+    static final PrimitiveMultiplyNeither PRIMITIVE_STRASSEN = (product, left, complexity, right) -> {
+        if ((left.length == (complexity * complexity)) && (right.length == left.length)) {
+            StrassenWinograd.invoke(product, left, complexity, right);
+        } else {
+            PRIMITIVE_BLOCKED.invoke(product, left, complexity, right);
+        }
+    };
+
     public static BigMultiplyNeither getBig(final long rows, final long columns) {
         if (rows > THRESHOLD) {
             return BIG_MT;
@@ -593,7 +609,11 @@ public final class MultiplyNeither extends MatrixOperation {
     }
 
     public static PrimitiveMultiplyNeither getPrimitive(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if ((rows == columns) && (rows > StrassenWinograd.THRESHOLD)) {
+            return PRIMITIVE_STRASSEN;
+        } else if ((rows > GEMM.THRESHOLD) && (columns > GEMM.THRESHOLD)) {
+            return PRIMITIVE_BLOCKED;
+        } else if (rows > THRESHOLD) {
             return PRIMITIVE_MT;
         } else if (rows == 10) {
             return PRIMITIVE_0XN;
@@ -640,22 +660,23 @@ public final class MultiplyNeither extends MatrixOperation {
         }
     }
 
-    static void invoke(final ComplexNumber[] product, final int firstRow, final int rowLimit, final ComplexNumber[] left, final int complexity,
-            final ComplexNumber[] right) {
+    static void invokeComplex(final double[] product, final int firstRow, final int rowLimit, final double[] left, final int complexity,
+            final double[] right) {
 
-        final int tmpColDim = right.length / complexity;
-        final int tmpRowDim = product.length / tmpColDim;
+        final int tmpColDim = right.length / (2 * complexity);
+        final int tmpRowDim = product.length / (2 * tmpColDim);
 
-        final ComplexNumber[] tmpLeftRow = new ComplexNumber[complexity];
+        final double[] tmpLeftRow = new double[2 * complexity];
 
         for (int i = firstRow; i < rowLimit; i++) {
 
             for (int c = 0; c < complexity; c++) {
-                tmpLeftRow[c] = left[i + (c * tmpRowDim)];
+                tmpLeftRow[2 * c] = left[2 * (i + (c * tmpRowDim))];
+                tmpLeftRow[(2 * c) + 1] = left[(2 * (i + (c * tmpRowDim))) + 1];
             }
 
             for (int j = 0; j < tmpColDim; j++) {
-                product[i + (j * tmpRowDim)] = DotProduct.invoke(tmpLeftRow, 0, right, j * complexity, 0, complexity);
+                DotProduct.invokeComplex(product, i + (j * tmpRowDim), tmpLeftRow, 0, right, j * complexity, 0, complexity);
             }
         }
     }
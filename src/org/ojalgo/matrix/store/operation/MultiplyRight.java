@@ -22,6 +22,7 @@
 package org.ojalgo.matrix.store.operation;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.concurrent.DivideAndConquer;
@@ -55,8 +56,8 @@ public final class MultiplyRight extends MatrixOperation {
         tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD);
     };
 
-    static final ComplexMultiplyRight COMPLEX = (product, left, complexity, right) -> MultiplyRight.invoke(product, 0, (int) (right.count() / complexity), left,
-            complexity, right);
+    static final ComplexMultiplyRight COMPLEX = (product, left, complexity, right) -> MultiplyRight.invokeComplex(product, 0,
+            (int) (right.count() / complexity), left, complexity, right);
 
     static final ComplexMultiplyRight COMPLEX_MT = (product, left, complexity, right) -> {
 
@@ -64,7 +65,7 @@ public final class MultiplyRight extends MatrixOperation {
 
             @Override
             public void conquer(final int first, final int limit) {
-                MultiplyRight.invoke(product, first, limit, left, complexity, right);
+                MultiplyRight.invokeComplex(product, first, limit, left, complexity, right);
             }
         };
 
@@ -684,19 +685,18 @@ public final class MultiplyRight extends MatrixOperation {
         }
     }
 
-    static void invoke(final ComplexNumber[] product, final int firstColumn, final int columnLimit, final ComplexNumber[] left, final int complexity,
+    static void invokeComplex(final double[] product, final int firstColumn, final int columnLimit, final double[] left, final int complexity,
             final Access1D<ComplexNumber> right) {
 
-        final int tmpRowDim = left.length / complexity;
+        final int tmpRowDim = left.length / (2 * complexity);
 
-        final int tmpIndexLimit = tmpRowDim * columnLimit;
-        for (int tmpIndex = tmpRowDim * firstColumn; tmpIndex < tmpIndexLimit; tmpIndex++) {
-            product[tmpIndex] = ComplexNumber.ZERO;
-        }
+        Arrays.fill(product, 2 * tmpRowDim * firstColumn, 2 * tmpRowDim * columnLimit, PrimitiveMath.ZERO);
 
+        ComplexNumber tmpValue;
         for (int j = firstColumn; j < columnLimit; j++) {
             for (int c = 0; c < complexity; c++) {
-                AXPY.invoke(product, j * tmpRowDim, 1, right.get(c + (j * complexity)), left, c * tmpRowDim, 1, tmpRowDim);
+                tmpValue = right.get(c + (j * complexity));
+                AXPY.invokeComplex(product, j * tmpRowDim, 1, tmpValue.doubleValue(), tmpValue.i, left, c * tmpRowDim, 1, tmpRowDim);
             }
         }
     }
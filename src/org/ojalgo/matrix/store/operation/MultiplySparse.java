@@ -0,0 +1,204 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.util.Arrays;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+
+/**
+ * Products of compressed sparse (row or column) and dense, column-major, primitive matrices. A compressed
+ * matrix is given by its pointers (the first nonzero of each row/column, and then one more element - the
+ * total number of nonzeros), the column/row indices of the nonzeros, and their values.
+ * <p>
+ * The product is always partitioned so that every part writes its own elements - no synchronisation is
+ * needed. For a sparse matrix times a vector the compressed row format can be executed in parallel, the
+ * compressed column format can not.
+ * </p>
+ *
+ * @author apete
+ */
+public abstract class MultiplySparse {
+
+    /**
+     * The number of product rows/columns per task when executed in parallel
+     */
+    public static int THRESHOLD = 1024;
+
+    /**
+     * [product] = [left][right] where [left] is in compressed column format rows x complexity, and [right] is
+     * dense complexity x columns. Parallel over the columns of the product - a single column (a vector) is
+     * always executed sequentially.
+     */
+    public static void columnsTimesDense(final double[] product, final int rows, final int[] pointers, final int[] indices, final double[] values,
+            final double[] right, final int complexity, final int columns) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                MultiplySparse.columnsTimesDense(product, rows, pointers, indices, values, right, complexity, first, limit);
+            }
+        };
+
+        tmpConquerer.invoke(0, columns, THRESHOLD);
+    }
+
+    /**
+     * [product] = [left][right] where [left] is dense rows x complexity, and [right] is in compressed column
+     * format complexity x columns. Parallel over the columns of the product.
+     */
+    public static void denseTimesColumns(final double[] product, final double[] left, final int rows, final int[] pointers, final int[] indices,
+            final double[] values, final int columns) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                MultiplySparse.denseTimesColumns(product, left, rows, pointers, indices, values, first, limit);
+            }
+        };
+
+        tmpConquerer.invoke(0, columns, THRESHOLD);
+    }
+
+    /**
+     * [product] = [left][right] where [left] is dense rows x complexity, and [right] is in compressed row
+     * format complexity x columns. Parallel over the rows of the product.
+     */
+    public static void denseTimesRows(final double[] product, final double[] left, final int rows, final int complexity, final int[] pointers,
+            final int[] indices, final double[] values, final int columns) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                MultiplySparse.denseTimesRows(product, left, rows, complexity, pointers, indices, values, columns, first, limit);
+            }
+        };
+
+        tmpConquerer.invoke(0, rows, THRESHOLD);
+    }
+
+    /**
+     * [product] = [left][right] where [left] is in compressed row format rows x complexity, and [right] is
+     * dense complexity x columns. Parallel over the rows of the product.
+     */
+    public static void rowsTimesDense(final double[] product, final int rows, final int[] pointers, final int[] indices, final double[] values,
+            final double[] right, final int complexity, final int columns) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                MultiplySparse.rowsTimesDense(product, rows, pointers, indices, values, right, complexity, columns, first, limit);
+            }
+        };
+
+        tmpConquerer.invoke(0, rows, THRESHOLD);
+    }
+
+    static void columnsTimesDense(final double[] product, final int rows, final int[] pointers, final int[] indices, final double[] values,
+            final double[] right, final int complexity, final int firstColumn, final int columnLimit) {
+
+        final int tmpComplexity = pointers.length - 1;
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+
+            final int tmpProductOffset = j * rows;
+            final int tmpRightOffset = j * complexity;
+
+            Arrays.fill(product, tmpProductOffset, tmpProductOffset + rows, PrimitiveMath.ZERO);
+
+            for (int c = 0; c < tmpComplexity; c++) {
+                final double tmpRight = right[tmpRightOffset + c];
+                if (tmpRight != PrimitiveMath.ZERO) {
+                    for (int p = pointers[c], tmpLimit = pointers[c + 1]; p < tmpLimit; p++) {
+                        product[tmpProductOffset + indices[p]] += values[p] * tmpRight;
+                    }
+                }
+            }
+        }
+    }
+
+    static void denseTimesColumns(final double[] product, final double[] left, final int rows, final int[] pointers, final int[] indices,
+            final double[] values, final int firstColumn, final int columnLimit) {
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+
+            final int tmpProductOffset = j * rows;
+
+            Arrays.fill(product, tmpProductOffset, tmpProductOffset + rows, PrimitiveMath.ZERO);
+
+            for (int p = pointers[j], tmpLimit = pointers[j + 1]; p < tmpLimit; p++) {
+                final double tmpValue = values[p];
+                final int tmpLeftOffset = indices[p] * rows;
+                for (int i = 0; i < rows; i++) {
+                    product[tmpProductOffset + i] += left[tmpLeftOffset + i] * tmpValue;
+                }
+            }
+        }
+    }
+
+    static void denseTimesRows(final double[] product, final double[] left, final int rows, final int complexity, final int[] pointers,
+            final int[] indices, final double[] values, final int columns, final int firstRow, final int rowLimit) {
+
+        for (int j = 0; j < columns; j++) {
+            Arrays.fill(product, firstRow + (j * rows), rowLimit + (j * rows), PrimitiveMath.ZERO);
+        }
+
+        for (int c = 0; c < complexity; c++) {
+
+            final int tmpLeftOffset = c * rows;
+
+            for (int p = pointers[c], tmpLimit = pointers[c + 1]; p < tmpLimit; p++) {
+                final double tmpValue = values[p];
+                final int tmpProductOffset = indices[p] * rows;
+                for (int i = firstRow; i < rowLimit; i++) {
+                    product[tmpProductOffset + i] += left[tmpLeftOffset + i] * tmpValue;
+                }
+            }
+        }
+    }
+
+    static void rowsTimesDense(final double[] product, final int rows, final int[] pointers, final int[] indices, final double[] values,
+            final double[] right, final int complexity, final int columns, final int firstRow, final int rowLimit) {
+
+        for (int j = 0; j < columns; j++) {
+
+            final int tmpProductOffset = j * rows;
+            final int tmpRightOffset = j * complexity;
+
+            for (int i = firstRow; i < rowLimit; i++) {
+
+                double tmpSum = PrimitiveMath.ZERO;
+                for (int p = pointers[i], tmpLimit = pointers[i + 1]; p < tmpLimit; p++) {
+                    tmpSum += values[p] * right[tmpRightOffset + indices[p]];
+                }
+
+                product[tmpProductOffset + i] = tmpSum;
+            }
+        }
+    }
+
+}
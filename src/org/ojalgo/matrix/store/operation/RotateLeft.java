@@ -54,23 +54,34 @@ public final class RotateLeft extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] aData, final int aColDim, final int aRowA, final int aRowB, final ComplexNumber aCos,
+    public static void invokeComplex(final double[] aData, final int aColDim, final int aRowA, final int aRowB, final ComplexNumber aCos,
             final ComplexNumber aSin) {
 
-        ComplexNumber tmpOldA;
-        ComplexNumber tmpOldB;
+        final double tmpCosRe = aCos.doubleValue();
+        final double tmpCosIm = aCos.i;
+        final double tmpSinRe = aSin.doubleValue();
+        final double tmpSinIm = aSin.i;
 
-        int tmpIndexA = aRowA;
-        int tmpIndexB = aRowB;
+        double tmpOldARe, tmpOldAIm;
+        double tmpOldBRe, tmpOldBIm;
+
+        int tmpIndexA = 2 * aRowA;
+        int tmpIndexB = 2 * aRowB;
         final int tmpIndexStep = aData.length / aColDim;
 
         for (int j = 0; j < aColDim; j++) {
 
-            tmpOldA = aData[tmpIndexA];
-            tmpOldB = aData[tmpIndexB];
-
-            aData[tmpIndexA] = aCos.multiply(tmpOldA).add(aSin.multiply(tmpOldB));
-            aData[tmpIndexB] = aCos.multiply(tmpOldB).subtract(aSin.multiply(tmpOldA));
+            tmpOldARe = aData[tmpIndexA];
+            tmpOldAIm = aData[tmpIndexA + 1];
+            tmpOldBRe = aData[tmpIndexB];
+            tmpOldBIm = aData[tmpIndexB + 1];
+
+            // cos * A + sin * B
+            aData[tmpIndexA] = ((tmpCosRe * tmpOldARe) - (tmpCosIm * tmpOldAIm)) + ((tmpSinRe * tmpOldBRe) - (tmpSinIm * tmpOldBIm));
+            aData[tmpIndexA + 1] = ((tmpCosRe * tmpOldAIm) + (tmpCosIm * tmpOldARe)) + ((tmpSinRe * tmpOldBIm) + (tmpSinIm * tmpOldBRe));
+            // cos * B - sin * A
+            aData[tmpIndexB] = ((tmpCosRe * tmpOldBRe) - (tmpCosIm * tmpOldBIm)) - ((tmpSinRe * tmpOldARe) - (tmpSinIm * tmpOldAIm));
+            aData[tmpIndexB + 1] = ((tmpCosRe * tmpOldBIm) + (tmpCosIm * tmpOldBRe)) - ((tmpSinRe * tmpOldAIm) + (tmpSinIm * tmpOldARe));
 
             tmpIndexA += tmpIndexStep;
             tmpIndexB += tmpIndexStep;
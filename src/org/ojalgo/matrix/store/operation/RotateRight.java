@@ -53,25 +53,36 @@ public final class RotateRight extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] aData, final int aRowDim, final int aColA, final int aColB, final ComplexNumber aCos,
+    public static void invokeComplex(final double[] aData, final int aRowDim, final int aColA, final int aColB, final ComplexNumber aCos,
             final ComplexNumber aSin) {
 
-        ComplexNumber tmpOldA;
-        ComplexNumber tmpOldB;
+        final double tmpCosRe = aCos.doubleValue();
+        final double tmpCosIm = aCos.i;
+        final double tmpSinRe = aSin.doubleValue();
+        final double tmpSinIm = aSin.i;
 
-        int tmpIndexA = aColA * aRowDim;
-        int tmpIndexB = aColB * aRowDim;
+        double tmpOldARe, tmpOldAIm;
+        double tmpOldBRe, tmpOldBIm;
+
+        int tmpIndexA = 2 * aColA * aRowDim;
+        int tmpIndexB = 2 * aColB * aRowDim;
 
         for (int i = 0; i < aRowDim; i++) {
 
-            tmpOldA = aData[tmpIndexA];
-            tmpOldB = aData[tmpIndexB];
+            tmpOldARe = aData[tmpIndexA];
+            tmpOldAIm = aData[tmpIndexA + 1];
+            tmpOldBRe = aData[tmpIndexB];
+            tmpOldBIm = aData[tmpIndexB + 1];
 
-            aData[tmpIndexA] = aCos.multiply(tmpOldA).subtract(aSin.multiply(tmpOldB));
-            aData[tmpIndexB] = aCos.multiply(tmpOldB).add(aSin.multiply(tmpOldA));
+            // cos * A - sin * B
+            aData[tmpIndexA] = ((tmpCosRe * tmpOldARe) - (tmpCosIm * tmpOldAIm)) - ((tmpSinRe * tmpOldBRe) - (tmpSinIm * tmpOldBIm));
+            aData[tmpIndexA + 1] = ((tmpCosRe * tmpOldAIm) + (tmpCosIm * tmpOldARe)) - ((tmpSinRe * tmpOldBIm) + (tmpSinIm * tmpOldBRe));
+            // cos * B + sin * A
+            aData[tmpIndexB] = ((tmpCosRe * tmpOldBRe) - (tmpCosIm * tmpOldBIm)) + ((tmpSinRe * tmpOldARe) - (tmpSinIm * tmpOldAIm));
+            aData[tmpIndexB + 1] = ((tmpCosRe * tmpOldBIm) + (tmpCosIm * tmpOldBRe)) + ((tmpSinRe * tmpOldAIm) + (tmpSinIm * tmpOldARe));
 
-            tmpIndexA++;
-            tmpIndexB++;
+            tmpIndexA += 2;
+            tmpIndexB += 2;
         }
     }
 
@@ -0,0 +1,105 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+
+/**
+ * Symmetric rank-k update, [C] -= [A][A]<sup>T</sup>, for (column-major) primitive sub-matrices. Only the lower
+ * triangular part of [C] is referenced and updated. Blocks of columns are processed in parallel - the
+ * diagonal block of each with a simple loop and the (rectangular) part below it with the {@linkplain GEMM}
+ * kernel.
+ *
+ * @author apete
+ */
+public abstract class SYRK implements BLAS3 {
+
+    /**
+     * The number of columns in each (parallel) block
+     */
+    public static int THRESHOLD = 64;
+
+    /**
+     * @param product The dim x dim (lower triangular part of the) matrix to update
+     * @param left The dim x complexity matrix [A]
+     */
+    public static void subtract(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final int dim, final int complexity) {
+
+        if ((dim <= 0) || (complexity <= 0)) {
+            return;
+        }
+
+        final double[] tmpTransposed = new double[complexity * dim];
+        for (int p = 0; p < complexity; p++) {
+            final int tmpColumn = leftOffset + (p * leftRowDim);
+            for (int i = 0; i < dim; i++) {
+                tmpTransposed[p + (i * complexity)] = left[tmpColumn + i];
+            }
+        }
+
+        final int tmpBlock = Math.max(GEMM.NR, (THRESHOLD / GEMM.NR) * GEMM.NR);
+        final int tmpBlocks = (dim + tmpBlock - 1) / tmpBlock;
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+                    final int tmpFirst = b * tmpBlock;
+                    final int tmpLimit = Math.min(tmpFirst + tmpBlock, dim);
+                    SYRK.subtract(product, productOffset, productRowDim, left, leftOffset, leftRowDim, tmpTransposed, dim, complexity, tmpFirst,
+                            tmpLimit);
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, tmpBlocks, 1);
+    }
+
+    /**
+     * Columns [firstColumn, columnLimit) of the product, and only rows from firstColumn and down
+     */
+    static void subtract(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] transposed, final int dim, final int complexity, final int firstColumn, final int columnLimit) {
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+            final int tmpColumn = productOffset + (j * productRowDim);
+            final int tmpRight = j * complexity;
+            for (int i = j; i < columnLimit; i++) {
+                final int tmpLeft = i * complexity;
+                double tmpSum = PrimitiveMath.ZERO;
+                for (int p = 0; p < complexity; p++) {
+                    tmpSum += transposed[tmpLeft + p] * transposed[tmpRight + p];
+                }
+                product[tmpColumn + i] -= tmpSum;
+            }
+        }
+
+        if (columnLimit < dim) {
+            GEMM.multiply(product, productOffset + columnLimit, productRowDim, left, leftOffset + columnLimit, leftRowDim, transposed, 0, complexity,
+                    dim - columnLimit, complexity, firstColumn, columnLimit, true);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Square matrix multiplication, [C] = [A][B], using Winograd's variant of Strassen's algorithm - 7 half size
+ * products and 15 additions per level of recursion. The recursion stops at {@linkplain #CUTOFF}, below which
+ * the blocked {@linkplain GEMM} kernel is used, and the 7 sub-products at each level are computed in
+ * parallel. The quadrants of [A] and [B] are not copied. The extra memory needed is the 7 sub-products (7/4
+ * n<sup>2</sup> at the top level) plus 2 operands per concurrently calculated sub-product.
+ * <p>
+ * The algorithm is not (element-wise) as accurate as the classic one. The error is bounded in norm: |C -
+ * fl(C)| <= f(n) u |A| |B| where f(n) grows as n^log2(18) rather than n (the classic algorithm), u is the unit
+ * roundoff. In practise the difference is much smaller than the bound, but matrices with very differently
+ * scaled rows/columns may lose (relative) accuracy in their small elements. Therefore this is disabled by
+ * default - set {@linkplain #THRESHOLD} to enable it.
+ *
+ * @author apete
+ */
+public abstract class StrassenWinograd implements BLAS3 {
+
+    /**
+     * Square primitive products with a dimension larger than this use the Strassen-Winograd algorithm. The
+     * default, {@linkplain Integer#MAX_VALUE}, means never. Products of a few thousand rows and more benefit.
+     */
+    public static int THRESHOLD = Integer.MAX_VALUE;
+
+    /**
+     * The recursion stops when the sub-problems are this size or smaller.
+     */
+    public static int CUTOFF = 512;
+
+    /**
+     * @param product The (column-major) dim x dim product, will be overwritten
+     * @param left The (column-major) dim x dim left matrix
+     * @param dim The number of rows and columns of all the matrices
+     * @param right The (column-major) dim x dim right matrix
+     */
+    public static void invoke(final double[] product, final double[] left, final int dim, final double[] right) {
+
+        final int tmpCutoff = Math.max(1, CUTOFF);
+
+        if (dim <= tmpCutoff) {
+
+            GEMM.invoke(product, left, dim, right);
+
+        } else {
+
+            int tmpLeaf = dim;
+            int tmpLevels = 0;
+            while (tmpLeaf > tmpCutoff) {
+                tmpLeaf = (tmpLeaf + 1) / 2;
+                tmpLevels++;
+            }
+            final int tmpPadded = tmpLeaf << tmpLevels;
+
+            if (tmpPadded == dim) {
+
+                StrassenWinograd.multiply(product, 0, dim, left, 0, dim, right, 0, dim, dim, tmpCutoff);
+
+            } else {
+
+                final double[] tmpProduct = new double[tmpPadded * tmpPadded];
+
+                StrassenWinograd.multiply(tmpProduct, 0, tmpPadded, StrassenWinograd.pad(left, dim, tmpPadded), 0, tmpPadded,
+                        StrassenWinograd.pad(right, dim, tmpPadded), 0, tmpPadded, tmpPadded, tmpCutoff);
+
+                for (int j = 0; j < dim; j++) {
+                    System.arraycopy(tmpProduct, j * tmpPadded, product, j * dim, dim);
+                }
+            }
+        }
+    }
+
+    /**
+     * [C] = [A] + [B] (sign = 1) or [A] - [B] (sign = -1), where [A] and [B] are dim x dim sub-matrices. The
+     * result is a new dim x dim matrix.
+     */
+    private static double[] combine(final double[] left, final int leftOffset, final int leftRowDim, final double sign, final double[] right,
+            final int rightOffset, final int rightRowDim, final int dim) {
+
+        final double[] retVal = new double[dim * dim];
+
+        for (int j = 0; j < dim; j++) {
+            final int tmpLeft = leftOffset + (j * leftRowDim);
+            final int tmpRight = rightOffset + (j * rightRowDim);
+            final int tmpResult = j * dim;
+            for (int i = 0; i < dim; i++) {
+                retVal[tmpResult + i] = left[tmpLeft + i] + (sign * right[tmpRight + i]);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * dim must be the cutoff size (or smaller) multiplied by a power of 2. The matrices are sub-matrices
+     * identified the same way as with {@linkplain GEMM}.
+     */
+    private static void multiply(final double[] product, final int productOffset, final int productRowDim, final double[] left, final int leftOffset,
+            final int leftRowDim, final double[] right, final int rightOffset, final int rightRowDim, final int dim, final int cutoff) {
+
+        if (dim <= cutoff) {
+            GEMM.invoke(product, productOffset, productRowDim, left, leftOffset, leftRowDim, right, rightOffset, rightRowDim, dim, dim, dim);
+            return;
+        }
+
+        final int tmpHalf = dim / 2;
+
+        // Offsets of the quadrants
+        final int tmpA11 = leftOffset;
+        final int tmpA21 = leftOffset + tmpHalf;
+        final int tmpA12 = leftOffset + (tmpHalf * leftRowDim);
+        final int tmpA22 = tmpA12 + tmpHalf;
+        final int tmpB11 = rightOffset;
+        final int tmpB21 = rightOffset + tmpHalf;
+        final int tmpB12 = rightOffset + (tmpHalf * rightRowDim);
+        final int tmpB22 = tmpB12 + tmpHalf;
+
+        final double[][] tmpM = new double[7][];
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int m = first; m < limit; m++) {
+
+                    final double[] tmpProduct = new double[tmpHalf * tmpHalf];
+
+                    switch (m) {
+
+                    case 0: // M1 = A11 B11
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, left, tmpA11, leftRowDim, right, tmpB11, rightRowDim, tmpHalf, cutoff);
+                        break;
+
+                    case 1: // M2 = A12 B21
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, left, tmpA12, leftRowDim, right, tmpB21, rightRowDim, tmpHalf, cutoff);
+                        break;
+
+                    case 2: // M3 = S4 B22, S4 = A12 - S2
+                        final double[] tmpS4 = StrassenWinograd.combine(left, tmpA12, leftRowDim, -1.0, StrassenWinograd.s2(left, tmpA11, tmpA21, tmpA22,
+                                leftRowDim, tmpHalf), 0, tmpHalf, tmpHalf);
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, tmpS4, 0, tmpHalf, right, tmpB22, rightRowDim, tmpHalf, cutoff);
+                        break;
+
+                    case 3: // M4 = A22 T4, T4 = T2 - B21
+                        final double[] tmpT4 = StrassenWinograd.combine(StrassenWinograd.t2(right, tmpB11, tmpB12, tmpB22, rightRowDim, tmpHalf), 0, tmpHalf,
+                                -1.0, right, tmpB21, rightRowDim, tmpHalf);
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, left, tmpA22, leftRowDim, tmpT4, 0, tmpHalf, tmpHalf, cutoff);
+                        break;
+
+                    case 4: // M5 = S1 T1, S1 = A21 + A22, T1 = B12 - B11
+                        final double[] tmpS1 = StrassenWinograd.combine(left, tmpA21, leftRowDim, 1.0, left, tmpA22, leftRowDim, tmpHalf);
+                        final double[] tmpT1 = StrassenWinograd.combine(right, tmpB12, rightRowDim, -1.0, right, tmpB11, rightRowDim, tmpHalf);
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, tmpS1, 0, tmpHalf, tmpT1, 0, tmpHalf, tmpHalf, cutoff);
+                        break;
+
+                    case 5: // M6 = S2 T2
+                        final double[] tmpS2 = StrassenWinograd.s2(left, tmpA11, tmpA21, tmpA22, leftRowDim, tmpHalf);
+                        final double[] tmpT2 = StrassenWinograd.t2(right, tmpB11, tmpB12, tmpB22, rightRowDim, tmpHalf);
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, tmpS2, 0, tmpHalf, tmpT2, 0, tmpHalf, tmpHalf, cutoff);
+                        break;
+
+                    default: // M7 = S3 T3, S3 = A11 - A21, T3 = B22 - B12
+                        final double[] tmpS3 = StrassenWinograd.combine(left, tmpA11, leftRowDim, -1.0, left, tmpA21, leftRowDim, tmpHalf);
+                        final double[] tmpT3 = StrassenWinograd.combine(right, tmpB22, rightRowDim, -1.0, right, tmpB12, rightRowDim, tmpHalf);
+                        StrassenWinograd.multiply(tmpProduct, 0, tmpHalf, tmpS3, 0, tmpHalf, tmpT3, 0, tmpHalf, tmpHalf, cutoff);
+                        break;
+                    }
+
+                    tmpM[m] = tmpProduct;
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, 7, 1);
+
+        final double[] tmpM1 = tmpM[0];
+        final double[] tmpM2 = tmpM[1];
+        final double[] tmpM3 = tmpM[2];
+        final double[] tmpM4 = tmpM[3];
+        final double[] tmpM5 = tmpM[4];
+        final double[] tmpM6 = tmpM[5];
+        final double[] tmpM7 = tmpM[6];
+
+        final int tmpC11 = productOffset;
+        final int tmpC21 = productOffset + tmpHalf;
+        final int tmpC12 = productOffset + (tmpHalf * productRowDim);
+        final int tmpC22 = tmpC12 + tmpHalf;
+
+        for (int j = 0; j < tmpHalf; j++) {
+            final int tmpColumn = j * productRowDim;
+            for (int i = 0; i < tmpHalf; i++) {
+                final int ij = i + (j * tmpHalf);
+
+                final double tmpU2 = tmpM1[ij] + tmpM6[ij];
+                final double tmpU3 = tmpU2 + tmpM7[ij];
+                final double tmpU4 = tmpU2 + tmpM5[ij];
+
+                product[tmpC11 + tmpColumn + i] = tmpM1[ij] + tmpM2[ij];
+                product[tmpC12 + tmpColumn + i] = tmpU4 + tmpM3[ij];
+                product[tmpC21 + tmpColumn + i] = tmpU3 - tmpM4[ij];
+                product[tmpC22 + tmpColumn + i] = tmpU3 + tmpM5[ij];
+            }
+        }
+    }
+
+    /**
+     * Copies the dim x dim source matrix into the top left corner of a (zero filled) padded x padded matrix
+     */
+    private static double[] pad(final double[] source, final int dim, final int padded) {
+
+        final double[] retVal = new double[padded * padded];
+
+        for (int j = 0; j < dim; j++) {
+            System.arraycopy(source, j * dim, retVal, j * padded, dim);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * S2 = S1 - A11 = A21 + A22 - A11
+     */
+    private static double[] s2(final double[] left, final int a11, final int a21, final int a22, final int rowDim, final int dim) {
+
+        final double[] retVal = new double[dim * dim];
+
+        for (int j = 0; j < dim; j++) {
+            final int tmpColumn = j * rowDim;
+            for (int i = 0; i < dim; i++) {
+                retVal[i + (j * dim)] = (left[a21 + tmpColumn + i] + left[a22 + tmpColumn + i]) - left[a11 + tmpColumn + i];
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * T2 = B22 - T1 = B22 - B12 + B11
+     */
+    private static double[] t2(final double[] right, final int b11, final int b12, final int b22, final int rowDim, final int dim) {
+
+        final double[] retVal = new double[dim * dim];
+
+        for (int j = 0; j < dim; j++) {
+            final int tmpColumn = j * rowDim;
+            for (int i = 0; i < dim; i++) {
+                retVal[i + (j * dim)] = right[b22 + tmpColumn + i] - (right[b12 + tmpColumn + i] - right[b11 + tmpColumn + i]);
+            }
+        }
+
+        return retVal;
+    }
+
+}
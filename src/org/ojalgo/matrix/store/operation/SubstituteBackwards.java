@@ -69,19 +69,28 @@ public final class SubstituteBackwards extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit, final Access2D<ComplexNumber> body,
-            final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit,
+            final Access2D<ComplexNumber> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
 
         final int tmpDiagDim = (int) Math.min(body.countRows(), body.countColumns());
-        final ComplexNumber[] tmpBodyRow = new ComplexNumber[tmpDiagDim];
-        ComplexNumber tmpVal;
+        final double[] tmpBodyRow = new double[2 * tmpDiagDim];
+        ComplexNumber tmpValue;
+        double tmpValRe, tmpValIm, tmpRe, tmpIm, tmpDataRe, tmpDataIm, tmpDiagRe, tmpDiagIm, tmpDiagNorm2;
         int tmpColBaseIndex;
 
         final int tmpFirstRow = hermitian ? firstColumn : 0;
         for (int i = tmpDiagDim - 1; i >= tmpFirstRow; i--) {
 
             for (int j = i; j < tmpDiagDim; j++) {
-                tmpBodyRow[j] = conjugated ? body.get(j, i).conjugate() : body.get(i, j);
+                if (conjugated) {
+                    tmpValue = body.get(j, i);
+                    tmpBodyRow[2 * j] = tmpValue.doubleValue();
+                    tmpBodyRow[(2 * j) + 1] = -tmpValue.i;
+                } else {
+                    tmpValue = body.get(i, j);
+                    tmpBodyRow[2 * j] = tmpValue.doubleValue();
+                    tmpBodyRow[(2 * j) + 1] = tmpValue.i;
+                }
             }
 
             final int tmpColumnLimit = hermitian ? Math.min(i + 1, columnLimit) : columnLimit;
@@ -89,16 +98,29 @@ public final class SubstituteBackwards extends MatrixOperation {
 
                 tmpColBaseIndex = s * structure;
 
-                tmpVal = ComplexNumber.ZERO;
+                tmpValRe = PrimitiveMath.ZERO;
+                tmpValIm = PrimitiveMath.ZERO;
                 for (int j = i + 1; j < tmpDiagDim; j++) {
-                    tmpVal = tmpVal.add(tmpBodyRow[j].multiply(data[j + tmpColBaseIndex]));
+                    tmpRe = tmpBodyRow[2 * j];
+                    tmpIm = tmpBodyRow[(2 * j) + 1];
+                    tmpDataRe = data[2 * (j + tmpColBaseIndex)];
+                    tmpDataIm = data[(2 * (j + tmpColBaseIndex)) + 1];
+                    tmpValRe += (tmpRe * tmpDataRe) - (tmpIm * tmpDataIm);
+                    tmpValIm += (tmpRe * tmpDataIm) + (tmpIm * tmpDataRe);
                 }
-                tmpVal = data[i + tmpColBaseIndex].subtract(tmpVal);
+                tmpValRe = data[2 * (i + tmpColBaseIndex)] - tmpValRe;
+                tmpValIm = data[(2 * (i + tmpColBaseIndex)) + 1] - tmpValIm;
                 if (!unitDiagonal) {
-                    tmpVal = tmpVal.divide(tmpBodyRow[i]);
+                    tmpDiagRe = tmpBodyRow[2 * i];
+                    tmpDiagIm = tmpBodyRow[(2 * i) + 1];
+                    tmpDiagNorm2 = (tmpDiagRe * tmpDiagRe) + (tmpDiagIm * tmpDiagIm);
+                    tmpRe = tmpValRe;
+                    tmpValRe = ((tmpRe * tmpDiagRe) + (tmpValIm * tmpDiagIm)) / tmpDiagNorm2;
+                    tmpValIm = ((tmpValIm * tmpDiagRe) - (tmpRe * tmpDiagIm)) / tmpDiagNorm2;
                 }
 
-                data[i + tmpColBaseIndex] = tmpVal;
+                data[2 * (i + tmpColBaseIndex)] = tmpValRe;
+                data[(2 * (i + tmpColBaseIndex)) + 1] = tmpValIm;
             }
         }
     }
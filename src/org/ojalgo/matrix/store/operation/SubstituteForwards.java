@@ -71,38 +71,61 @@ public final class SubstituteForwards extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int structure, final int firstColumn, final int columnLimit, final Access2D<ComplexNumber> body,
-            final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+    public static void invokeComplex(final double[] data, final int structure, final int firstColumn, final int columnLimit,
+            final Access2D<ComplexNumber> body, final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
 
         final int tmpDiagDim = (int) Math.min(body.countRows(), body.countColumns());
-        final ComplexNumber[] tmpBodyRow = new ComplexNumber[tmpDiagDim];
-        ComplexNumber tmpVal;
+        final double[] tmpBodyRow = new double[2 * tmpDiagDim];
+        ComplexNumber tmpValue;
+        double tmpValRe, tmpValIm, tmpRe, tmpIm, tmpDataRe, tmpDataIm, tmpDiagRe, tmpDiagIm, tmpDiagNorm2;
         int tmpColBaseIndex;
 
         for (int i = 0; i < tmpDiagDim; i++) {
 
             for (int j = 0; j <= i; j++) {
-                tmpBodyRow[j] = conjugated ? body.get(j, i).conjugate() : body.get(i, j);
+                if (conjugated) {
+                    tmpValue = body.get(j, i);
+                    tmpBodyRow[2 * j] = tmpValue.doubleValue();
+                    tmpBodyRow[(2 * j) + 1] = -tmpValue.i;
+                } else {
+                    tmpValue = body.get(i, j);
+                    tmpBodyRow[2 * j] = tmpValue.doubleValue();
+                    tmpBodyRow[(2 * j) + 1] = tmpValue.i;
+                }
             }
 
             for (int s = firstColumn; s < columnLimit; s++) {
                 tmpColBaseIndex = s * structure;
 
-                tmpVal = ComplexNumber.ZERO;
+                tmpValRe = PrimitiveMath.ZERO;
+                tmpValIm = PrimitiveMath.ZERO;
                 for (int j = identity ? s : 0; j < i; j++) {
-                    tmpVal = tmpVal.add(tmpBodyRow[j].multiply(data[j + tmpColBaseIndex]));
+                    tmpRe = tmpBodyRow[2 * j];
+                    tmpIm = tmpBodyRow[(2 * j) + 1];
+                    tmpDataRe = data[2 * (j + tmpColBaseIndex)];
+                    tmpDataIm = data[(2 * (j + tmpColBaseIndex)) + 1];
+                    tmpValRe += (tmpRe * tmpDataRe) - (tmpIm * tmpDataIm);
+                    tmpValIm += (tmpRe * tmpDataIm) + (tmpIm * tmpDataRe);
                 }
                 if (identity) {
-                    tmpVal = i == s ? ComplexNumber.ONE.subtract(tmpVal) : tmpVal.negate();
+                    tmpValRe = i == s ? PrimitiveMath.ONE - tmpValRe : -tmpValRe;
+                    tmpValIm = -tmpValIm;
                 } else {
-                    tmpVal = data[i + tmpColBaseIndex].subtract(tmpVal);
+                    tmpValRe = data[2 * (i + tmpColBaseIndex)] - tmpValRe;
+                    tmpValIm = data[(2 * (i + tmpColBaseIndex)) + 1] - tmpValIm;
                 }
 
                 if (!unitDiagonal) {
-                    tmpVal = tmpVal.divide(tmpBodyRow[i]);
+                    tmpDiagRe = tmpBodyRow[2 * i];
+                    tmpDiagIm = tmpBodyRow[(2 * i) + 1];
+                    tmpDiagNorm2 = (tmpDiagRe * tmpDiagRe) + (tmpDiagIm * tmpDiagIm);
+                    tmpRe = tmpValRe;
+                    tmpValRe = ((tmpRe * tmpDiagRe) + (tmpValIm * tmpDiagIm)) / tmpDiagNorm2;
+                    tmpValIm = ((tmpValIm * tmpDiagRe) - (tmpRe * tmpDiagIm)) / tmpDiagNorm2;
                 }
 
-                data[i + tmpColBaseIndex] = tmpVal;
+                data[2 * (i + tmpColBaseIndex)] = tmpValRe;
+                data[(2 * (i + tmpColBaseIndex)) + 1] = tmpValIm;
             }
         }
     }
@@ -24,7 +24,6 @@ package org.ojalgo.matrix.store.operation;
 import java.math.BigDecimal;
 
 import org.ojalgo.function.BigFunction;
-import org.ojalgo.scalar.ComplexNumber;
 
 /**
  * y -= ax
@@ -53,10 +52,22 @@ public final class SubtractScaledVector extends MatrixOperation {
         }
     }
 
-    public static void invoke(final ComplexNumber[] data, final int dataIndexBase, final ComplexNumber[] vector, final int vectorIndexBase,
-            final ComplexNumber scalar, final int first, final int limit) {
+    /**
+     * Complex numbers stored interleaved - the real part of element k at index 2*k and the imaginary part at
+     * 2*k+1. The index bases, first and limit are element (not array) indices.
+     */
+    public static void invokeComplex(final double[] data, final int dataIndexBase, final double[] vector, final int vectorIndexBase, final double scalarRe,
+            final double scalarIm, final int first, final int limit) {
+
+        int tmpDataIndex = 2 * (dataIndexBase + first);
+        int tmpVectorIndex = 2 * (vectorIndexBase + first);
+
+        double tmpRe, tmpIm;
         for (int i = first; i < limit; i++) {
-            data[dataIndexBase + i] = data[dataIndexBase + i].subtract(scalar.multiply(vector[vectorIndexBase + i])); // y -= ax
+            tmpRe = vector[tmpVectorIndex++];
+            tmpIm = vector[tmpVectorIndex++];
+            data[tmpDataIndex++] -= (scalarRe * tmpRe) - (scalarIm * tmpIm); // y -= ax
+            data[tmpDataIndex++] -= (scalarRe * tmpIm) + (scalarIm * tmpRe);
         }
     }
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+
+/**
+ * Triangular solve with multiple right hand sides, for (column-major) primitive sub-matrices. The solution
+ * overwrites the right hand side. Each matrix is identified by the array index of its first element and by
+ * its leading dimension, the same way as with {@linkplain GEMM}.
+ *
+ * @author apete
+ */
+public abstract class TRSM implements BLAS3 {
+
+    /**
+     * The number of (independent) right hand side rows/columns per task when executed in parallel
+     */
+    public static int THRESHOLD = 64;
+
+    /**
+     * Solves [L][X] = [B] where [L] is the lower triangular dim x dim body and [B] the dim x columns right hand
+     * side.
+     *
+     * @param unitDiagonal true if the diagonal elements of [L] are all 1 (and not stored)
+     */
+    public static void invokeLeftLower(final double[] body, final int bodyOffset, final int bodyRowDim, final boolean unitDiagonal, final double[] rhs,
+            final int rhsOffset, final int rhsRowDim, final int dim, final int columns) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                TRSM.leftLower(body, bodyOffset, bodyRowDim, unitDiagonal, rhs, rhsOffset, rhsRowDim, dim, first, limit);
+            }
+        };
+
+        tmpConquerer.invoke(0, columns, THRESHOLD);
+    }
+
+    /**
+     * Solves [X][L]<sup>T</sup> = [B] where [L] is the lower triangular dim x dim body and [B] the rows x dim
+     * right hand side.
+     *
+     * @param unitDiagonal true if the diagonal elements of [L] are all 1 (and not stored)
+     */
+    public static void invokeRightLowerTransposed(final double[] body, final int bodyOffset, final int bodyRowDim, final boolean unitDiagonal,
+            final double[] rhs, final int rhsOffset, final int rhsRowDim, final int rows, final int dim) {
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                TRSM.rightLowerTransposed(body, bodyOffset, bodyRowDim, unitDiagonal, rhs, rhsOffset, rhsRowDim, first, limit, dim);
+            }
+        };
+
+        tmpConquerer.invoke(0, rows, THRESHOLD);
+    }
+
+    /**
+     * Columns [firstColumn, columnLimit) of the right hand side
+     */
+    static void leftLower(final double[] body, final int bodyOffset, final int bodyRowDim, final boolean unitDiagonal, final double[] rhs,
+            final int rhsOffset, final int rhsRowDim, final int dim, final int firstColumn, final int columnLimit) {
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+            final int tmpColumn = rhsOffset + (j * rhsRowDim);
+
+            for (int p = 0; p < dim; p++) {
+                final int tmpBodyColumn = bodyOffset + (p * bodyRowDim);
+
+                if (!unitDiagonal) {
+                    rhs[tmpColumn + p] /= body[tmpBodyColumn + p];
+                }
+
+                final double tmpValue = rhs[tmpColumn + p];
+                if (tmpValue != PrimitiveMath.ZERO) {
+                    for (int i = p + 1; i < dim; i++) {
+                        rhs[tmpColumn + i] -= tmpValue * body[tmpBodyColumn + i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows [firstRow, rowLimit) of the right hand side
+     */
+    static void rightLowerTransposed(final double[] body, final int bodyOffset, final int bodyRowDim, final boolean unitDiagonal, final double[] rhs,
+            final int rhsOffset, final int rhsRowDim, final int firstRow, final int rowLimit, final int dim) {
+
+        for (int j = 0; j < dim; j++) {
+            final int tmpColumn = rhsOffset + (j * rhsRowDim);
+
+            for (int p = 0; p < j; p++) {
+                final double tmpValue = body[bodyOffset + j + (p * bodyRowDim)];
+                if (tmpValue != PrimitiveMath.ZERO) {
+                    final int tmpSolvedColumn = rhsOffset + (p * rhsRowDim);
+                    for (int i = firstRow; i < rowLimit; i++) {
+                        rhs[tmpColumn + i] -= tmpValue * rhs[tmpSolvedColumn + i];
+                    }
+                }
+            }
+
+            if (!unitDiagonal) {
+                final double tmpDiagonal = body[bodyOffset + j + (j * bodyRowDim)];
+                for (int i = firstRow; i < rowLimit; i++) {
+                    rhs[tmpColumn + i] /= tmpDiagonal;
+                }
+            }
+        }
+    }
+
+}
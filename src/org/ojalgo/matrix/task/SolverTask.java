@@ -31,7 +31,9 @@ import org.ojalgo.matrix.decomposition.DecompositionStore;
 import org.ojalgo.matrix.decomposition.LU;
 import org.ojalgo.matrix.decomposition.QR;
 import org.ojalgo.matrix.decomposition.SingularValue;
+import org.ojalgo.matrix.store.CompressedStore;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.SparseStore;
 import org.ojalgo.scalar.ComplexNumber;
 
 public interface SolverTask<N extends Number> extends MatrixTask<N> {
@@ -92,6 +94,10 @@ public interface SolverTask<N extends Number> extends MatrixTask<N> {
 
             final long tmpColDim = templateBody.countColumns();
 
+            if (((templateBody instanceof SparseStore) || (templateBody instanceof CompressedStore)) && templateBody.isSquare()) {
+                return (symmetric && positiveDefinite) ? Cholesky.SPARSE.make(templateBody) : LU.SPARSE.make(templateBody);
+            }
+
             if (symmetric) {
 
                 if (!tmpVectorRHS) {
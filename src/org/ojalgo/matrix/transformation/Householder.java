@@ -140,11 +140,15 @@ public interface Householder<N extends Number> extends Access1D<N> {
 
     }
 
+    /**
+     * The vector is stored interleaved in a double[] - the real part of element i at index 2*i and the
+     * imaginary part at 2*i+1.
+     */
     public static final class Complex extends Object implements Householder<ComplexNumber> {
 
         public ComplexNumber beta;
         public int first;
-        public final ComplexNumber[] vector;
+        public final double[] vector;
 
         public Complex(final Householder<ComplexNumber> aTransf) {
 
@@ -157,7 +161,7 @@ public interface Householder<N extends Number> extends Access1D<N> {
 
             super();
 
-            vector = new ComplexNumber[aDim];
+            vector = new double[2 * aDim];
             beta = ComplexNumber.ZERO;
             first = 0;
         }
@@ -171,15 +175,15 @@ public interface Householder<N extends Number> extends Access1D<N> {
 
             first = aSource.first();
 
-            final ComplexNumber[] tmpVector = vector;
+            final double[] tmpVector = vector;
             ComplexNumber tmpNmbr;
-            double tmpVal, tmpVal2 = PrimitiveMath.ZERO;
+            double tmpVal2 = PrimitiveMath.ZERO;
             final int tmpSize = (int) aSource.count();
             for (int i = aSource.first(); i < tmpSize; i++) {
                 tmpNmbr = aSource.get(i);
-                tmpVal = tmpNmbr.norm();
-                tmpVal2 += tmpVal * tmpVal;
-                tmpVector[i] = tmpNmbr;
+                tmpVector[2 * i] = tmpNmbr.doubleValue();
+                tmpVector[(2 * i) + 1] = tmpNmbr.i;
+                tmpVal2 += (tmpNmbr.doubleValue() * tmpNmbr.doubleValue()) + (tmpNmbr.i * tmpNmbr.i);
             }
 
             beta = ComplexNumber.valueOf(PrimitiveMath.TWO / tmpVal2);
@@ -191,11 +195,13 @@ public interface Householder<N extends Number> extends Access1D<N> {
 
             first = aSource.first();
 
-            final ComplexNumber[] tmpVector = vector;
-
+            final double[] tmpVector = vector;
+            ComplexNumber tmpNmbr;
             final int tmpSize = (int) aSource.count();
             for (int i = aSource.first(); i < tmpSize; i++) {
-                tmpVector[i] = aSource.get(i);
+                tmpNmbr = aSource.get(i);
+                tmpVector[2 * i] = tmpNmbr.doubleValue();
+                tmpVector[(2 * i) + 1] = tmpNmbr.i;
             }
 
             beta = precalculatedBeta;
@@ -204,11 +210,11 @@ public interface Householder<N extends Number> extends Access1D<N> {
         }
 
         public long count() {
-            return vector.length;
+            return vector.length / 2;
         }
 
         public double doubleValue(final long anInd) {
-            return vector[(int) anInd].doubleValue();
+            return vector[2 * (int) anInd];
         }
 
         public int first() {
@@ -216,15 +222,15 @@ public interface Householder<N extends Number> extends Access1D<N> {
         }
 
         public ComplexNumber get(final int index) {
-            return vector[index];
+            return ComplexNumber.of(vector[2 * index], vector[(2 * index) + 1]);
         }
 
         public ComplexNumber get(final long index) {
-            return vector[(int) index];
+            return this.get((int) index);
         }
 
         public int size() {
-            return vector.length;
+            return vector.length / 2;
         }
 
         @Override
@@ -233,13 +239,13 @@ public interface Householder<N extends Number> extends Access1D<N> {
             final StringBuilder retVal = new StringBuilder("{");
 
             final int tmpFirst = first;
-            final int tmpLength = vector.length;
+            final int tmpLength = this.size();
             for (int i = 0; i < tmpFirst; i++) {
                 retVal.append(ComplexNumber.ZERO);
                 retVal.append(", ");
             }
             for (int i = first; i < tmpLength; i++) {
-                retVal.append(vector[i]);
+                retVal.append(this.get(i));
                 if ((i + 1) < tmpLength) {
                     retVal.append(", ");
                 }
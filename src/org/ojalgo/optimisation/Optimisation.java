@@ -148,6 +148,12 @@ public interface Optimisation {
 
     public static final class Options implements Optimisation, Cloneable {
 
+        /**
+         * The max number of rounds of cutting planes (Gomory, cover and MIR cuts) added to the root node LP
+         * relaxation by the {@linkplain IntegerSolver}. 0 means no cuts.
+         */
+        public int cut_rounds = 10;
+
         /**
          * If this is null nothing is printed, if it is not null then debug statements are printed to that
          * {@linkplain org.ojalgo.netio.BasicLogger.Printer}.
@@ -160,6 +166,13 @@ public interface Optimisation {
          */
         public Class<? extends Optimisation.Solver> debug_solver = null;
 
+        /**
+         * If true the (parallel) branch&bound search of {@linkplain IntegerSolver} is reproducible - the same
+         * nodes are evaluated, and the same solution found, regardless of thread timing and the number of
+         * threads. Typically somewhat slower.
+         */
+        public boolean deterministic = false;
+
         /**
          * Used to determine if a variable value is integer or not.
          */
@@ -0,0 +1,220 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+
+/**
+ * A cutting plane, [f]<sup>T</sup>[x] &gt;= l, in the model variables. Instances are only created via
+ * {@link #make(double[], double, double[], double[])} that cleans up and normalises the factors, and rejects
+ * numerically unsafe cuts.
+ *
+ * @author apete
+ */
+final class Cut {
+
+    private static final double BINDING_TOLERANCE = 1E-6;
+    /**
+     * The max ratio between the largest and the smallest (absolute) factor
+     */
+    private static final double DYNAMISM = 1E6;
+    /**
+     * Cuts with (normalised) factor vectors that are more parallel than this are considered duplicates
+     */
+    private static final double PARALLELISM = 0.999;
+    private static final double ZERO_TOLERANCE = 1E-9;
+
+    /**
+     * Factors that are tiny relative to the largest are removed, by relaxing the limit using the variable's
+     * bound, and then the cut is scaled so that the largest factor is 1. The limit is relaxed slightly to
+     * make up for rounding errors.
+     *
+     * @param factors A factor per model variable (may be longer, the rest is ignored)
+     * @param lower The limit
+     * @param lowerBounds The model variables' (global) lower bounds
+     * @param upperBounds The model variables' (global) upper bounds
+     * @return The cut, or null if it would be numerically unsafe or is trivial
+     */
+    static Cut make(final double[] factors, final double lower, final double[] lowerBounds, final double[] upperBounds) {
+
+        final int tmpLength = lowerBounds.length;
+
+        double tmpLargest = ZERO;
+        for (int j = 0; j < tmpLength; j++) {
+            tmpLargest = Math.max(tmpLargest, Math.abs(factors[j]));
+        }
+        if ((tmpLargest <= ZERO_TOLERANCE) || Double.isNaN(lower) || Double.isInfinite(lower)) {
+            return null;
+        }
+
+        double tmpLower = lower;
+        double tmpSmallest = tmpLargest;
+        int tmpCount = 0;
+
+        for (int j = 0; j < tmpLength; j++) {
+            final double tmpFactor = factors[j];
+            if (tmpFactor != ZERO) {
+                if ((Math.abs(tmpFactor) <= (ZERO_TOLERANCE * tmpLargest)) || (lowerBounds[j] == upperBounds[j])) {
+                    // Remove the term, the limit is relaxed by its max value
+                    final double tmpBound = tmpFactor > ZERO ? upperBounds[j] : lowerBounds[j];
+                    if (Double.isInfinite(tmpBound)) {
+                        return null;
+                    }
+                    tmpLower -= tmpFactor * tmpBound;
+                } else {
+                    tmpSmallest = Math.min(tmpSmallest, Math.abs(tmpFactor));
+                    tmpCount++;
+                }
+            }
+        }
+
+        if ((tmpCount == 0) || ((tmpLargest / tmpSmallest) > DYNAMISM)) {
+            return null;
+        }
+
+        final int[] tmpIndices = new int[tmpCount];
+        final double[] tmpValues = new double[tmpCount];
+        for (int j = 0, k = 0; j < tmpLength; j++) {
+            final double tmpFactor = factors[j];
+            if ((tmpFactor != ZERO) && (Math.abs(tmpFactor) > (ZERO_TOLERANCE * tmpLargest)) && (lowerBounds[j] != upperBounds[j])) {
+                tmpIndices[k] = j;
+                tmpValues[k] = tmpFactor / tmpLargest;
+                k++;
+            }
+        }
+
+        tmpLower /= tmpLargest;
+        tmpLower -= ZERO_TOLERANCE * Math.max(ONE, Math.abs(tmpLower));
+
+        return new Cut(tmpIndices, tmpValues, tmpLower);
+    }
+
+    private int myAge = 0;
+    private final int[] myIndices;
+    private final double myLower;
+    private final double myNorm;
+    private final double[] myValues;
+
+    private Cut(final int[] indices, final double[] values, final double lower) {
+
+        super();
+
+        myIndices = indices;
+        myValues = values;
+        myLower = lower;
+
+        double tmpSum = ZERO;
+        for (int k = 0; k < values.length; k++) {
+            tmpSum += values[k] * values[k];
+        }
+        myNorm = Math.sqrt(tmpSum);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder retVal = new StringBuilder();
+        for (int k = 0; k < myIndices.length; k++) {
+            retVal.append(myValues[k]).append("*x").append(myIndices[k]).append(' ');
+        }
+        return retVal.append(">= ").append(myLower).toString();
+    }
+
+    /**
+     * @return [f]<sup>T</sup>[x]
+     */
+    double activity(final double[] solution) {
+        double retVal = ZERO;
+        for (int k = 0; k < myIndices.length; k++) {
+            retVal += myValues[k] * solution[myIndices[k]];
+        }
+        return retVal;
+    }
+
+    /**
+     * Add this cut, as a constraint expression, to the model
+     */
+    Expression addTo(final ExpressionsBasedModel model, final String name) {
+        final Expression retVal = model.addExpression(name);
+        for (int k = 0; k < myIndices.length; k++) {
+            retVal.set(myIndices[k], myValues[k]);
+        }
+        return retVal.lower(myLower);
+    }
+
+    /**
+     * @return The (Euclidean) distance from the solution to the cut's hyperplane, positive if the solution
+     *         violates the cut
+     */
+    double efficacy(final double[] solution) {
+        return (myLower - this.activity(solution)) / myNorm;
+    }
+
+    int getAge() {
+        return myAge;
+    }
+
+    /**
+     * @return The number of nonzero factors
+     */
+    int size() {
+        return myIndices.length;
+    }
+
+    /**
+     * @return true if the cut is (close to) binding at the solution, then its age is reset - otherwise it is
+     *         incremented
+     */
+    boolean isBinding(final double[] solution) {
+        if ((this.activity(solution) - myLower) <= (BINDING_TOLERANCE * Math.max(ONE, Math.abs(myLower)))) {
+            myAge = 0;
+            return true;
+        } else {
+            myAge++;
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the two cuts (the factor vectors) are almost parallel
+     */
+    boolean isParallel(final Cut other) {
+
+        double tmpProduct = ZERO;
+
+        int k = 0, m = 0;
+        while ((k < myIndices.length) && (m < other.myIndices.length)) {
+            if (myIndices[k] < other.myIndices[m]) {
+                k++;
+            } else if (myIndices[k] > other.myIndices[m]) {
+                m++;
+            } else {
+                tmpProduct += myValues[k++] * other.myValues[m++];
+            }
+        }
+
+        return (tmpProduct / (myNorm * other.myNorm)) > PARALLELISM;
+    }
+
+}
@@ -0,0 +1,573 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.ojalgo.access.IntIndex;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.optimisation.linear.DualSimplexSolver;
+
+/**
+ * Derives cutting planes that separate the (root node) LP relaxation's solution from the integer solutions:
+ * <ul>
+ * <li>Gomory mixed integer (GMI) cuts from the rows of the optimal simplex tableau where the basic variable is
+ * an integer variable with a fractional value.</li>
+ * <li>Knapsack cover cuts from constraint expressions - binary variables complemented as needed, and other
+ * variables replaced by their bounds.</li>
+ * <li>Complemented mixed integer rounding (c-MIR) cuts from constraint expressions.</li>
+ * </ul>
+ * All cuts are derived using the model's (global) variable bounds, and are valid for every node.
+ *
+ * @author apete
+ */
+final class CutGenerator {
+
+    /**
+     * A constraint expression, [a]<sup>T</sup>[x] &lt;= b, with the factors as they are in the model
+     */
+    static final class Row {
+
+        final int[] indices;
+        final double limit;
+        final double[] values;
+
+        Row(final int[] indices, final double[] values, final double limit) {
+
+            super();
+
+            this.indices = indices;
+            this.values = values;
+            this.limit = limit;
+        }
+
+    }
+
+    /**
+     * Fractional parts closer to 0 or 1 than this don't give numerically safe cuts
+     */
+    private static final double MIN_FRACTION = 0.01;
+    /**
+     * Dense cuts make the LP relaxation expensive to (re)solve - at most this fraction of the variables (plus
+     * a few) may be nonzero in a GMI cut. Cuts derived from a constraint expression are not denser than it.
+     */
+    private static final double MAX_DENSITY = 0.1;
+    private static final double MIN_EFFICACY = 1E-4;
+    private static final double TABLEAU_TOLERANCE = 1E-11;
+
+    private static double fraction(final double value) {
+        return value - Math.floor(value);
+    }
+
+    private final boolean[] myInteger;
+    private final double[] myLowerBounds;
+    private final int myMaxSize;
+    private final List<Row> myRows = new ArrayList<>();
+    private final double[] myUpperBounds;
+
+    CutGenerator(final ExpressionsBasedModel model, final int[] integerIndices) {
+
+        super();
+
+        final List<Variable> tmpVariables = model.getVariables();
+        final Set<IntIndex> tmpFixedVariables = model.getFixedVariables();
+        final int tmpCount = tmpVariables.size();
+
+        myMaxSize = 10 + (int) (MAX_DENSITY * tmpCount);
+
+        myInteger = new boolean[tmpCount];
+        for (final int tmpIndex : integerIndices) {
+            myInteger[tmpIndex] = true;
+        }
+
+        myLowerBounds = new double[tmpCount];
+        myUpperBounds = new double[tmpCount];
+        for (int j = 0; j < tmpCount; j++) {
+            final Variable tmpVariable = tmpVariables.get(j);
+            if (tmpFixedVariables.contains(new IntIndex(j))) {
+                myLowerBounds[j] = myUpperBounds[j] = tmpVariable.getValue().doubleValue();
+            } else {
+                final BigDecimal tmpLower = tmpVariable.getLowerLimit();
+                final BigDecimal tmpUpper = tmpVariable.getUpperLimit();
+                myLowerBounds[j] = tmpLower != null ? tmpLower.doubleValue() : NEGATIVE_INFINITY;
+                myUpperBounds[j] = tmpUpper != null ? tmpUpper.doubleValue() : POSITIVE_INFINITY;
+                if (myInteger[j]) {
+                    myLowerBounds[j] = Math.ceil(myLowerBounds[j]);
+                    myUpperBounds[j] = Math.floor(myUpperBounds[j]);
+                }
+            }
+        }
+
+        model.constraints().forEach(this::addRows);
+    }
+
+    /**
+     * @param relaxation The root node relaxation, solved to optimality
+     * @return Cuts violated by the relaxation's solution, the most efficient first
+     */
+    List<Cut> generate(final DualSimplexSolver relaxation) {
+
+        final double[] tmpSolution = relaxation.getColumnValues();
+
+        final List<Cut> retVal = new ArrayList<>();
+
+        this.gomory(relaxation, tmpSolution, retVal);
+
+        for (final Row tmpRow : myRows) {
+            this.add(this.cover(tmpRow, tmpSolution), tmpSolution, retVal);
+            this.add(this.mir(tmpRow, tmpSolution), tmpSolution, retVal);
+        }
+
+        final double[] tmpEfficacies = new double[retVal.size()];
+        for (int c = 0; c < tmpEfficacies.length; c++) {
+            tmpEfficacies[c] = retVal.get(c).efficacy(tmpSolution);
+        }
+        final Integer[] tmpOrder = new Integer[tmpEfficacies.length];
+        for (int c = 0; c < tmpOrder.length; c++) {
+            tmpOrder[c] = c;
+        }
+        Arrays.sort(tmpOrder, Comparator.comparingDouble((final Integer c) -> -tmpEfficacies[c]));
+
+        final List<Cut> tmpSorted = new ArrayList<>(retVal.size());
+        for (final Integer c : tmpOrder) {
+            tmpSorted.add(retVal.get(c));
+        }
+        return tmpSorted;
+    }
+
+    private void add(final Cut cut, final double[] solution, final List<Cut> destination) {
+        if ((cut != null) && (cut.efficacy(solution) > MIN_EFFICACY)) {
+            destination.add(cut);
+        }
+    }
+
+    /**
+     * Each limit of the expression becomes a row in "&lt;=" form. Only expressions with at least one integer
+     * variable are of interest.
+     */
+    private void addRows(final Expression expression) {
+
+        if (expression.isAnyQuadraticFactorNonZero()) {
+            return;
+        }
+
+        final Set<Entry<IntIndex, BigDecimal>> tmpEntries = expression.getLinearEntrySet();
+        final int[] tmpIndices = new int[tmpEntries.size()];
+        final double[] tmpValues = new double[tmpEntries.size()];
+
+        boolean tmpInteger = false;
+        int k = 0;
+        for (final Entry<IntIndex, BigDecimal> tmpEntry : tmpEntries) {
+            tmpIndices[k] = tmpEntry.getKey().index;
+            tmpValues[k] = tmpEntry.getValue().doubleValue();
+            tmpInteger |= myInteger[tmpIndices[k]] && (myLowerBounds[tmpIndices[k]] != myUpperBounds[tmpIndices[k]]);
+            k++;
+        }
+
+        if (tmpInteger) {
+            if (expression.getUpperLimit() != null) {
+                myRows.add(new Row(tmpIndices, tmpValues, expression.getUpperLimit().doubleValue()));
+            }
+            if (expression.getLowerLimit() != null) {
+                final double[] tmpNegated = new double[tmpValues.length];
+                for (int i = 0; i < tmpValues.length; i++) {
+                    tmpNegated[i] = -tmpValues[i];
+                }
+                myRows.add(new Row(tmpIndices, tmpNegated, -expression.getLowerLimit().doubleValue()));
+            }
+        }
+    }
+
+    /**
+     * Finds a minimal cover - a set of binary variables, C, that can't all be 1 - greedily, preferring
+     * variables with large solution values, and derives the extended cover inequality: sum(x<sub>j</sub>) &lt;=
+     * |C| - 1 for all j in C and all other binaries at least as heavy as the heaviest one in C. Binaries with
+     * negative factors are complemented, other variables are replaced by the bound that makes the constraint
+     * least restrictive.
+     */
+    private Cut cover(final Row row, final double[] solution) {
+
+        final int tmpLength = row.indices.length;
+
+        final double[] tmpWeights = new double[tmpLength];
+        final double[] tmpValues = new double[tmpLength];
+        final boolean[] tmpComplemented = new boolean[tmpLength];
+        final boolean[] tmpBinary = new boolean[tmpLength];
+
+        double tmpCapacity = row.limit;
+        double tmpTotal = ZERO;
+        int tmpCount = 0;
+
+        for (int k = 0; k < tmpLength; k++) {
+
+            final int j = row.indices[k];
+            final double a = row.values[k];
+            final double tmpLower = myLowerBounds[j];
+            final double tmpUpper = myUpperBounds[j];
+
+            if (tmpLower == tmpUpper) {
+                tmpCapacity -= a * tmpLower;
+            } else if (myInteger[j] && (tmpLower == ZERO) && (tmpUpper == ONE)) {
+                tmpBinary[k] = true;
+                tmpCount++;
+                if (a > ZERO) {
+                    tmpWeights[k] = a;
+                    tmpValues[k] = solution[j];
+                } else {
+                    tmpWeights[k] = -a;
+                    tmpValues[k] = ONE - solution[j];
+                    tmpComplemented[k] = true;
+                    tmpCapacity -= a;
+                }
+                tmpTotal += tmpWeights[k];
+            } else {
+                final double tmpBound = a > ZERO ? tmpLower : tmpUpper;
+                if (Double.isInfinite(tmpBound)) {
+                    return null;
+                }
+                tmpCapacity -= a * tmpBound;
+            }
+        }
+
+        final double tmpTolerance = 1E-9 * Math.max(ONE, Math.abs(tmpCapacity));
+        if ((tmpCount < 2) || (tmpCapacity < ZERO) || (tmpTotal <= (tmpCapacity + tmpTolerance))) {
+            return null;
+        }
+
+        final Integer[] tmpOrder = new Integer[tmpLength];
+        for (int k = 0; k < tmpLength; k++) {
+            tmpOrder[k] = k;
+        }
+        Arrays.sort(tmpOrder, Comparator.comparingDouble((final Integer k) -> tmpBinary[k] ? (ONE - tmpValues[k]) / tmpWeights[k] : POSITIVE_INFINITY));
+
+        final boolean[] tmpCover = new boolean[tmpLength];
+        double tmpWeight = ZERO;
+        int tmpSize = 0;
+        for (int i = 0; (i < tmpCount) && (tmpWeight <= (tmpCapacity + tmpTolerance)); i++) {
+            final int k = tmpOrder[i];
+            tmpCover[k] = true;
+            tmpWeight += tmpWeights[k];
+            tmpSize++;
+        }
+
+        // Make it minimal - drop the variables with the smallest values that are not needed
+        for (int i = tmpCount - 1; i >= 0; i--) {
+            final int k = tmpOrder[i];
+            if (tmpCover[k] && ((tmpWeight - tmpWeights[k]) > (tmpCapacity + tmpTolerance))) {
+                tmpCover[k] = false;
+                tmpWeight -= tmpWeights[k];
+                tmpSize--;
+            }
+        }
+
+        double tmpActivity = ZERO;
+        double tmpHeaviest = ZERO;
+        for (int k = 0; k < tmpLength; k++) {
+            if (tmpCover[k]) {
+                tmpActivity += tmpValues[k];
+                tmpHeaviest = Math.max(tmpHeaviest, tmpWeights[k]);
+            }
+        }
+        if (tmpActivity <= ((tmpSize - 1) + MIN_EFFICACY)) {
+            return null;
+        }
+
+        // sum(x) <= |C| - 1 as -sum(x) >= 1 - |C|, complemented variables substituted back
+        final double[] tmpFactors = new double[myLowerBounds.length];
+        double tmpLimit = ONE - tmpSize;
+        for (int k = 0; k < tmpLength; k++) {
+            if (tmpCover[k] || (tmpBinary[k] && (tmpWeights[k] >= tmpHeaviest))) {
+                if (tmpComplemented[k]) {
+                    tmpFactors[row.indices[k]] += ONE;
+                    tmpLimit += ONE;
+                } else {
+                    tmpFactors[row.indices[k]] -= ONE;
+                }
+            }
+        }
+
+        return Cut.make(tmpFactors, tmpLimit, myLowerBounds, myUpperBounds);
+    }
+
+    /**
+     * GMI cuts: a tableau row, with the nonbasic variables [y] shifted to be zero at their current bounds,
+     * reads x<sub>B</sub> + [a]<sup>T</sup>[y] = b, where b is the basic variable's (fractional) value. With
+     * f<sub>0</sub> = frac(b) the cut is sum(g<sub>j</sub>y<sub>j</sub>) &gt;= 1 where g<sub>j</sub> is
+     * f<sub>j</sub>/f<sub>0</sub> or (1-f<sub>j</sub>)/(1-f<sub>0</sub>) for integer variables (f<sub>j</sub> =
+     * frac(a<sub>j</sub>)), and a<sub>j</sub>/f<sub>0</sub> or -a<sub>j</sub>/(1-f<sub>0</sub>) for continuous
+     * variables. Slack variables are treated as continuous, and finally expressed in the model variables.
+     */
+    private void gomory(final DualSimplexSolver relaxation, final double[] solution, final List<Cut> destination) {
+
+        final int tmpColumns = relaxation.countColumns();
+        final int tmpVariables = myLowerBounds.length;
+
+        final int[] tmpBasis = relaxation.getBasis();
+        final boolean[] tmpBasic = new boolean[tmpColumns];
+        for (final int tmpColumn : tmpBasis) {
+            if (tmpColumn >= 0) {
+                tmpBasic[tmpColumn] = true;
+            }
+        }
+
+        final double[] tmpRow = new double[tmpColumns];
+
+        for (int r = 0; r < tmpBasis.length; r++) {
+
+            final int tmpBasicColumn = tmpBasis[r];
+            if ((tmpBasicColumn < 0) || (tmpBasicColumn >= tmpVariables) || !myInteger[tmpBasicColumn]) {
+                continue;
+            }
+
+            final double tmpFraction = CutGenerator.fraction(solution[tmpBasicColumn]);
+            if ((tmpFraction < MIN_FRACTION) || (tmpFraction > (ONE - MIN_FRACTION))) {
+                continue;
+            }
+
+            relaxation.getTableauRow(r, tmpRow);
+
+            final double[] tmpFactors = new double[tmpColumns];
+            double tmpLimit = ONE;
+            boolean tmpValid = true;
+
+            for (int j = 0; tmpValid && (j < tmpColumns); j++) {
+
+                final double tmpAlpha = tmpRow[j];
+                final double tmpLower = relaxation.getLowerBound(j);
+                final double tmpUpper = relaxation.getUpperBound(j);
+
+                if (tmpBasic[j] || (Math.abs(tmpAlpha) <= TABLEAU_TOLERANCE) || (tmpLower == tmpUpper)) {
+                    continue;
+                }
+
+                final boolean tmpAtUpper;
+                if (solution[j] == tmpLower) {
+                    tmpAtUpper = false;
+                } else if (solution[j] == tmpUpper) {
+                    tmpAtUpper = true;
+                } else {
+                    // Nonbasic, but not at a bound (free)
+                    tmpValid = false;
+                    continue;
+                }
+
+                final double a = tmpAtUpper ? -tmpAlpha : tmpAlpha;
+                final double tmpBound = tmpAtUpper ? tmpUpper : tmpLower;
+
+                final double g;
+                if ((j < tmpVariables) && myInteger[j] && (tmpBound == Math.rint(tmpBound))) {
+                    final double f = CutGenerator.fraction(a);
+                    g = f <= tmpFraction ? f / tmpFraction : (ONE - f) / (ONE - tmpFraction);
+                } else {
+                    g = a >= ZERO ? a / tmpFraction : -a / (ONE - tmpFraction);
+                }
+
+                // Substitute y = x - l, or y = u - x
+                if (tmpAtUpper) {
+                    tmpFactors[j] = -g;
+                    tmpLimit -= g * tmpBound;
+                } else {
+                    tmpFactors[j] = g;
+                    tmpLimit += g * tmpBound;
+                }
+            }
+
+            if (tmpValid) {
+                relaxation.expandSlacks(tmpFactors);
+                final Cut tmpCut = Cut.make(tmpFactors, tmpLimit, myLowerBounds, myUpperBounds);
+                if ((tmpCut != null) && (tmpCut.size() <= myMaxSize)) {
+                    this.add(tmpCut, solution, destination);
+                }
+            }
+        }
+    }
+
+    /**
+     * c-MIR cuts: the variables are complemented, to be nonnegative and zero at the bound closest to the
+     * solution value. Continuous variables with positive factors are dropped, and those with negative factors
+     * make up s &gt;= 0, so that the row reads [a]<sup>T</sup>[x'] - s &lt;= b. Dividing by &delta; and applying
+     * mixed integer rounding gives sum((floor(a<sub>j</sub>/&delta;) + max(0, f<sub>j</sub> - f)/(1 - f))x'<sub>j</sub>)
+     * - s/(&delta;(1 - f)) &lt;= floor(b/&delta;) where f = frac(b/&delta;). The &delta;s tried are the integer
+     * variables' factors, and then the best one divided by 2, 4 and 8.
+     */
+    private Cut mir(final Row row, final double[] solution) {
+
+        final int tmpLength = row.indices.length;
+
+        // Factors and solution values after complementing
+        final double[] tmpFactors = new double[tmpLength];
+        final double[] tmpValues = new double[tmpLength];
+        final boolean[] tmpAtUpper = new boolean[tmpLength];
+        final boolean[] tmpInteger = new boolean[tmpLength];
+
+        double tmpLimit = row.limit;
+        double tmpSlack = ZERO;
+
+        for (int k = 0; k < tmpLength; k++) {
+
+            final int j = row.indices[k];
+            final double a = row.values[k];
+            final double tmpLower = myLowerBounds[j];
+            final double tmpUpper = myUpperBounds[j];
+
+            if (tmpLower == tmpUpper) {
+                tmpLimit -= a * tmpLower;
+                continue;
+            }
+
+            if ((tmpLower == NEGATIVE_INFINITY) && (tmpUpper == POSITIVE_INFINITY)) {
+                return null;
+            }
+
+            tmpAtUpper[k] = (tmpLower == NEGATIVE_INFINITY) || ((tmpUpper < POSITIVE_INFINITY) && ((tmpUpper - solution[j]) < (solution[j] - tmpLower)));
+
+            if (tmpAtUpper[k]) {
+                tmpFactors[k] = -a;
+                tmpValues[k] = tmpUpper - solution[j];
+                tmpLimit -= a * tmpUpper;
+            } else {
+                tmpFactors[k] = a;
+                tmpValues[k] = solution[j] - tmpLower;
+                tmpLimit -= a * tmpLower;
+            }
+
+            tmpInteger[k] = myInteger[j];
+
+            if (!tmpInteger[k]) {
+                if (tmpFactors[k] < ZERO) {
+                    tmpSlack -= tmpFactors[k] * tmpValues[k];
+                } else {
+                    // Dropped
+                    tmpFactors[k] = ZERO;
+                }
+            }
+        }
+
+        double tmpBestDelta = ZERO;
+        double tmpBestEfficacy = MIN_EFFICACY;
+
+        for (int k = 0; k < tmpLength; k++) {
+            if (tmpInteger[k] && (tmpFactors[k] != ZERO) && (tmpValues[k] > MIN_FRACTION)) {
+                final double tmpDelta = Math.abs(tmpFactors[k]);
+                final double tmpEfficacy = this.mirEfficacy(tmpFactors, tmpValues, tmpInteger, tmpLimit, tmpSlack, tmpDelta);
+                if (tmpEfficacy > tmpBestEfficacy) {
+                    tmpBestEfficacy = tmpEfficacy;
+                    tmpBestDelta = tmpDelta;
+                }
+            }
+        }
+
+        if (tmpBestDelta == ZERO) {
+            return null;
+        }
+
+        final double tmpCandidate = tmpBestDelta;
+        for (double tmpDelta = tmpCandidate / 2; tmpDelta >= (tmpCandidate / 8); tmpDelta /= 2) {
+            final double tmpEfficacy = this.mirEfficacy(tmpFactors, tmpValues, tmpInteger, tmpLimit, tmpSlack, tmpDelta);
+            if (tmpEfficacy > tmpBestEfficacy) {
+                tmpBestEfficacy = tmpEfficacy;
+                tmpBestDelta = tmpDelta;
+            }
+        }
+
+        final double tmpDelta = tmpBestDelta;
+        final double tmpRight = tmpLimit / tmpDelta;
+        final double f = CutGenerator.fraction(tmpRight);
+
+        // The MIR in "<=" form, negated to ">=" and with the complemented variables substituted back
+        final double[] tmpCut = new double[myLowerBounds.length];
+        double tmpCutLimit = -Math.floor(tmpRight);
+
+        for (int k = 0; k < tmpLength; k++) {
+
+            final double tmpFactor = tmpFactors[k];
+            if (tmpFactor == ZERO) {
+                continue;
+            }
+
+            final double g;
+            if (tmpInteger[k]) {
+                final double tmpScaled = tmpFactor / tmpDelta;
+                g = Math.floor(tmpScaled) + (Math.max(ZERO, CutGenerator.fraction(tmpScaled) - f) / (ONE - f));
+            } else {
+                g = tmpFactor / (tmpDelta * (ONE - f));
+            }
+
+            final int j = row.indices[k];
+            if (tmpAtUpper[k]) {
+                // g * (u - x) <= ...
+                tmpCut[j] += g;
+                tmpCutLimit += g * myUpperBounds[j];
+            } else {
+                // g * (x - l) <= ...
+                tmpCut[j] -= g;
+                tmpCutLimit -= g * myLowerBounds[j];
+            }
+        }
+
+        return Cut.make(tmpCut, tmpCutLimit, myLowerBounds, myUpperBounds);
+    }
+
+    /**
+     * @return The violation of the MIR cut, derived using that &delta;, divided by its norm - or 0 if the
+     *         fractional part of b/&delta; is not numerically safe
+     */
+    private double mirEfficacy(final double[] factors, final double[] values, final boolean[] integer, final double limit, final double slack,
+            final double delta) {
+
+        final double tmpRight = limit / delta;
+        final double f = CutGenerator.fraction(tmpRight);
+        if ((f < MIN_FRACTION) || (f > (ONE - MIN_FRACTION))) {
+            return ZERO;
+        }
+
+        double tmpActivity = -slack / (delta * (ONE - f));
+        double tmpNorm = ZERO;
+
+        for (int k = 0; k < factors.length; k++) {
+            if (factors[k] != ZERO) {
+                final double g;
+                if (integer[k]) {
+                    final double tmpScaled = factors[k] / delta;
+                    g = Math.floor(tmpScaled) + (Math.max(ZERO, CutGenerator.fraction(tmpScaled) - f) / (ONE - f));
+                    tmpActivity += g * values[k];
+                } else {
+                    g = factors[k] / (delta * (ONE - f));
+                }
+                tmpNorm += g * g;
+            }
+        }
+
+        return tmpNorm > ZERO ? (tmpActivity - Math.floor(tmpRight)) / Math.sqrt(tmpNorm) : ZERO;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+
+/**
+ * The cuts currently part of the (root node) LP relaxation. Cuts that are not binding at the relaxation's
+ * solution age, and are removed when they've been non-binding for too many consecutive rounds. Cuts that are
+ * (almost) parallel to one already in the pool are not added.
+ *
+ * @author apete
+ */
+final class CutPool {
+
+    private final List<Cut> myCuts = new ArrayList<>();
+    private final int myMaxAge;
+
+    CutPool(final int maxAge) {
+
+        super();
+
+        myMaxAge = maxAge;
+    }
+
+    /**
+     * @return true if the cut was added, false if it's a duplicate
+     */
+    boolean add(final Cut cut) {
+        for (final Cut tmpCut : myCuts) {
+            if (tmpCut.isParallel(cut)) {
+                return false;
+            }
+        }
+        return myCuts.add(cut);
+    }
+
+    /**
+     * Age the cuts, and remove the ones that are too old.
+     *
+     * @param solution The relaxation's (latest) solution
+     * @return The number of cuts removed
+     */
+    int age(final double[] solution) {
+        int retVal = 0;
+        for (final Iterator<Cut> tmpIterator = myCuts.iterator(); tmpIterator.hasNext();) {
+            final Cut tmpCut = tmpIterator.next();
+            if (!tmpCut.isBinding(solution) && (tmpCut.getAge() > myMaxAge)) {
+                tmpIterator.remove();
+                retVal++;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Add all the cuts, as constraint expressions, to the model. The names are "CUT_" followed by a number,
+     * skipping names already used by the model.
+     */
+    void addTo(final ExpressionsBasedModel model) {
+        int tmpNumber = 0;
+        for (final Cut tmpCut : myCuts) {
+            String tmpName;
+            do {
+                tmpName = "CUT_" + tmpNumber++;
+            } while (model.getExpression(tmpName) != null);
+            tmpCut.addTo(model, tmpName);
+        }
+    }
+
+    /**
+     * @param solution The relaxation's (latest) solution
+     * @return The number of cuts removed
+     */
+    int removeNonBinding(final double[] solution) {
+        final int tmpSize = myCuts.size();
+        myCuts.removeIf((final Cut c) -> !c.isBinding(solution));
+        return tmpSize - myCuts.size();
+    }
+
+    int size() {
+        return myCuts.size();
+    }
+
+}
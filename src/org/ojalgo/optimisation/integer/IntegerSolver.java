@@ -21,18 +21,130 @@
  */
 package org.ojalgo.optimisation.integer;
 
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.AccessUtils;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.function.multiary.MultiaryFunction;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.GenericSolver;
 import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.linear.DualSimplexSolver;
 
 public abstract class IntegerSolver extends GenericSolver {
 
+    /**
+     * What's needed to evaluate a node: a solver for the LP relaxation, and arrays to materialise the node's
+     * bounds and starting basis. Nodes only store what differs from their parent, and there is one workspace
+     * per thread evaluating nodes - evaluating a node doesn't copy the model, or the solver.
+     */
+    final class NodeWorkspace {
+
+        private final int[] myBasis;
+        private final int[] myLowerBounds;
+        private final int[] myOptimalBasis;
+        /**
+         * Null if the model is not linear
+         */
+        private final DualSimplexSolver mySolver;
+        private final int[] myUpperBounds;
+        private boolean myWarm = false;
+
+        NodeWorkspace() {
+
+            super();
+
+            final int tmpLength = IntegerSolver.this.getIntegerIndeces().length;
+            myLowerBounds = new int[tmpLength];
+            myUpperBounds = new int[tmpLength];
+
+            mySolver = myRelaxation != null ? myRelaxation.copy() : null;
+            myOptimalBasis = mySolver != null ? mySolver.getBasis() : null;
+            myBasis = mySolver != null ? new int[myOptimalBasis.length] : null;
+        }
+
+        /**
+         * @return The latest solution's basis, as changes relative to the basis it was re-optimised from
+         *         (null if the model is not linear)
+         */
+        int[] getBasisChanges() {
+            if (mySolver != null) {
+                mySolver.getBasis(myOptimalBasis);
+                return NodeKey.difference(myWarm ? myBasis : null, myOptimalBasis);
+            } else {
+                return null;
+            }
+        }
+
+        /**
+         * @return How far from an integer the value, moved inside the node's bounds, is
+         */
+        double getFraction(final int index, final double value) {
+
+            final double tmpFeasibleValue = Math.min(Math.max(myLowerBounds[index], value), myUpperBounds[index]);
+
+            return Math.abs(tmpFeasibleValue - Math.rint(tmpFeasibleValue));
+        }
+
+        /**
+         * @return true if the node's LP relaxation is (to be) solved here - otherwise the node model has to be
+         *         built and solved as an {@linkplain ExpressionsBasedModel}
+         */
+        boolean isLinear() {
+            return mySolver != null;
+        }
+
+        /**
+         * Materialise the node's bounds and (when linear) set up the solver: the node's bounds, the objective
+         * limit and the basis to start from.
+         */
+        void load(final NodeKey node) {
+
+            node.getBounds(myLowerBounds, myUpperBounds);
+
+            if (mySolver != null) {
+
+                final int[] tmpIntegerIndeces = IntegerSolver.this.getIntegerIndeces();
+                for (int i = 0; i < tmpIntegerIndeces.length; i++) {
+                    final int tmpLower = myLowerBounds[i];
+                    final int tmpUpper = myUpperBounds[i];
+                    mySolver.setBounds(tmpIntegerIndeces[i], tmpLower != Integer.MIN_VALUE ? tmpLower : NEGATIVE_INFINITY,
+                            tmpUpper != Integer.MAX_VALUE ? tmpUpper : POSITIVE_INFINITY);
+                }
+
+                if (IntegerSolver.this.isIntegerSolutionFound()) {
+                    final double tmpBestValue = IntegerSolver.this.getBestResultSoFar().getValue();
+                    final double tmpGap = Math.abs(tmpBestValue * options.mip_gap);
+                    if (myMinimisation) {
+                        mySolver.limitObjective(NEGATIVE_INFINITY, tmpBestValue - tmpGap);
+                    } else {
+                        mySolver.limitObjective(tmpBestValue + tmpGap, POSITIVE_INFINITY);
+                    }
+                } else {
+                    mySolver.limitObjective(NEGATIVE_INFINITY, POSITIVE_INFINITY);
+                }
+
+                myWarm = node.getBasis(myBasis);
+            }
+        }
+
+        /**
+         * Solve the loaded node's LP relaxation
+         */
+        Optimisation.Result solve() {
+            return mySolver.solve(myWarm ? myBasis : null);
+        }
+
+    }
+
     final class NodeStatistics {
 
         private final AtomicInteger myAbandoned = new AtomicInteger();
@@ -124,13 +236,26 @@ public abstract class IntegerSolver extends GenericSolver {
 
     }
 
+    /**
+     * Cuts that have not been binding for this many rounds are removed from the pool
+     */
+    private static final int CUT_AGE = 3;
+    /**
+     * Cutting stops when the (relative) bound improvement of a round is less than this
+     */
+    private static final double CUT_PROGRESS = 1E-4;
+    /**
+     * At least this many cuts per round are allowed, or else as many as there are integer variables
+     */
+    private static final int MIN_CUTS = 10;
+
     public static IntegerSolver make(final ExpressionsBasedModel model) {
-        return new OldIntegerSolver(model, model.options);
-        //return new NewIntegerSolver(model, model.options);
+        //return new OldIntegerSolver(model, model.options);
+        return new NewIntegerSolver(model, model.options);
     }
 
     private final MultiaryFunction.TwiceDifferentiable<Double> myFunction;
-    private volatile Optimisation.Result myBestResultSoFar = null;
+    private final AtomicReference<Optimisation.Result> myBestResultSoFar = new AtomicReference<>();
     private final AtomicInteger myIntegerSolutionsCount = new AtomicInteger();
     private final boolean myMinimisation;
 
@@ -138,6 +263,12 @@ public abstract class IntegerSolver extends GenericSolver {
 
     private final ExpressionsBasedModel myModel;
 
+    /**
+     * The root node's LP relaxation, null if the model is not linear. Replaced when cuts are added.
+     */
+    private DualSimplexSolver myRelaxation;
+    private final Queue<NodeWorkspace> myWorkspaces = new ConcurrentLinkedQueue<>();
+
     @SuppressWarnings("unused")
     private IntegerSolver(final Options solverOptions) {
         this(null, solverOptions);
@@ -151,6 +282,8 @@ public abstract class IntegerSolver extends GenericSolver {
         myFunction = model.objective().toFunction();
 
         myMinimisation = model.isMinimisation();
+
+        myRelaxation = DualSimplexSolver.isCapable(model) ? new DualSimplexSolver(model) : null;
     }
 
     protected int countIntegerSolutions() {
@@ -168,7 +301,7 @@ public abstract class IntegerSolver extends GenericSolver {
 
     protected Optimisation.Result getBestResultSoFar() {
 
-        final Result tmpCurrentlyTheBest = myBestResultSoFar;
+        final Result tmpCurrentlyTheBest = myBestResultSoFar.get();
 
         if (tmpCurrentlyTheBest != null) {
 
@@ -198,7 +331,7 @@ public abstract class IntegerSolver extends GenericSolver {
 
     protected boolean isGoodEnoughToContinueBranching(final double nonIntegerValue) {
 
-        final Result tmpCurrentlyTheBest = myBestResultSoFar;
+        final Result tmpCurrentlyTheBest = myBestResultSoFar.get();
 
         if ((tmpCurrentlyTheBest == null) || Double.isNaN(nonIntegerValue)) {
 
@@ -219,12 +352,12 @@ public abstract class IntegerSolver extends GenericSolver {
     }
 
     protected boolean isIntegerSolutionFound() {
-        return myBestResultSoFar != null;
+        return myBestResultSoFar.get() != null;
     }
 
     protected boolean isIterationNecessary() {
 
-        if (myBestResultSoFar == null) {
+        if (myBestResultSoFar.get() == null) {
 
             return true;
 
@@ -241,24 +374,137 @@ public abstract class IntegerSolver extends GenericSolver {
         return myModel != null;
     }
 
-    protected synchronized void markInteger(final NodeKey node, final Optimisation.Result result) {
+    /**
+     * Lock free - the incumbent is only replaced if the result is better, also when several threads find
+     * integer solutions at the same time.
+     *
+     * @return true if the result is the new incumbent
+     */
+    protected boolean markInteger(final NodeKey node, final Optimisation.Result result) {
 
-        final Optimisation.Result tmpCurrentlyTheBest = myBestResultSoFar;
+        myIntegerSolutionsCount.incrementAndGet();
 
-        if (tmpCurrentlyTheBest == null) {
+        Optimisation.Result tmpCurrentlyTheBest;
+        do {
 
-            myBestResultSoFar = result;
+            tmpCurrentlyTheBest = myBestResultSoFar.get();
 
-        } else if (myMinimisation && (result.getValue() < tmpCurrentlyTheBest.getValue())) {
+            if ((tmpCurrentlyTheBest != null) && (myMinimisation ? result.getValue() >= tmpCurrentlyTheBest.getValue()
+                    : result.getValue() <= tmpCurrentlyTheBest.getValue())) {
+                return false;
+            }
 
-            myBestResultSoFar = result;
+        } while (!myBestResultSoFar.compareAndSet(tmpCurrentlyTheBest, result));
 
-        } else if (!myMinimisation && (result.getValue() > tmpCurrentlyTheBest.getValue())) {
+        return true;
+    }
 
-            myBestResultSoFar = result;
+    /**
+     * Cutting planes at the root node: solve the LP relaxation, add cuts that its solution violates and
+     * re-solve, for at most {@linkplain Optimisation.Options#cut_rounds} rounds. Stops early when no violated
+     * cuts are found, or when the bound no longer improves. All nodes inherit the cuts - they are valid
+     * globally, and the nodes' LPs then all have the same rows. Must be called before the first workspace is
+     * borrowed.
+     */
+    void addCuts() {
+
+        if ((myRelaxation == null) || (options.cut_rounds <= 0) || (this.getIntegerIndeces().length == 0)) {
+            return;
         }
 
-        myIntegerSolutionsCount.incrementAndGet();
+        final CutGenerator tmpGenerator = new CutGenerator(myModel, this.getIntegerIndeces());
+        final CutPool tmpPool = new CutPool(CUT_AGE);
+        final int tmpMaxCuts = Math.max(MIN_CUTS, this.getIntegerIndeces().length);
+
+        DualSimplexSolver tmpRelaxation = myRelaxation;
+        DualSimplexSolver tmpSolved = myRelaxation;
+        double tmpBound = NaN;
+
+        for (int r = 0; r <= options.cut_rounds; r++) {
+
+            final Optimisation.Result tmpResult = tmpRelaxation.solve((int[]) null);
+            if (!tmpResult.getState().isOptimal()) {
+                // Continue with the latest relaxation that could be solved
+                break;
+            }
+            tmpSolved = tmpRelaxation;
+
+            final double tmpValue = tmpResult.getValue();
+            final double[] tmpSolution = tmpRelaxation.getColumnValues();
+
+            final boolean tmpProgress = Double.isNaN(tmpBound) || (Math.abs(tmpValue - tmpBound) > (CUT_PROGRESS * Math.max(ONE, Math.abs(tmpBound))));
+
+            int tmpAdded = 0;
+            if ((r < options.cut_rounds) && tmpProgress) {
+                tmpPool.age(tmpSolution);
+                for (final Cut tmpCut : tmpGenerator.generate(tmpRelaxation)) {
+                    if ((tmpAdded < tmpMaxCuts) && tmpPool.add(tmpCut)) {
+                        tmpAdded++;
+                    }
+                }
+            }
+            tmpBound = tmpValue;
+
+            if (this.isDebug()) {
+                this.debug("Cut round {}: bound {}, {} cuts added, {} in pool", r, tmpValue, tmpAdded, tmpPool.size());
+            }
+
+            if (tmpAdded > 0) {
+                tmpRelaxation = this.makeRelaxation(tmpPool);
+            } else {
+                // Cuts not binding at the final solution would only make the nodes' LPs larger
+                if (tmpPool.removeNonBinding(tmpSolution) > 0) {
+                    tmpSolved = this.makeRelaxation(tmpPool);
+                }
+                break;
+            }
+        }
+
+        myRelaxation = tmpSolved;
+        myWorkspaces.clear();
+    }
+
+    abstract int[] getIntegerIndeces();
+
+    /**
+     * @return A workspace not currently used by any other thread - {@linkplain #returnWorkspace(NodeWorkspace)
+     *         return} it as soon as the node is evaluated (before branching).
+     */
+    NodeWorkspace borrowWorkspace() {
+        final NodeWorkspace retVal = myWorkspaces.poll();
+        return retVal != null ? retVal : new NodeWorkspace();
+    }
+
+    /**
+     * With cuts in the LP relaxation its vertices are typically not exactly integer - the integer variables'
+     * values (integer within the tolerance) are rounded.
+     *
+     * @param solution A node solution with all integer variables integer within the tolerance
+     * @return An integer solution, and its objective function value
+     */
+    Optimisation.Result makeIntegerResult(final Access1D<?> solution) {
+
+        final double[] tmpSolution = new double[(int) solution.count()];
+        for (int j = 0; j < tmpSolution.length; j++) {
+            tmpSolution[j] = solution.doubleValue(j);
+        }
+        for (final int tmpIndex : this.getIntegerIndeces()) {
+            tmpSolution[tmpIndex] = Math.rint(tmpSolution[tmpIndex]);
+        }
+
+        final PrimitiveArray tmpIntegerSolution = PrimitiveArray.wrap(tmpSolution);
+
+        return new Optimisation.Result(Optimisation.State.FEASIBLE, this.evaluateFunction(tmpIntegerSolution), tmpIntegerSolution);
+    }
+
+    void returnWorkspace(final NodeWorkspace workspace) {
+        myWorkspaces.offer(workspace);
+    }
+
+    private DualSimplexSolver makeRelaxation(final CutPool cuts) {
+        final ExpressionsBasedModel retVal = myModel.relax(false);
+        cuts.addTo(retVal);
+        return new DualSimplexSolver(retVal);
     }
 
 }
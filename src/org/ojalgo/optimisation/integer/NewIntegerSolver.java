@@ -24,17 +24,25 @@ package org.ojalgo.optimisation.integer;
 import static org.ojalgo.constant.PrimitiveMath.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
-import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ExecutionContext;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
-import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.netio.CharacterRing.PrinterBuffer;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Optimisation;
@@ -43,32 +51,153 @@ import org.ojalgo.scalar.PrimitiveScalar;
 import org.ojalgo.type.TypeUtils;
 
 /**
- * IntegerSolver
+ * Parallel branch&bound. There is one worker per thread of the current {@linkplain ExecutionContext}, and
+ * each worker has a deque of open nodes. A worker dives depth-first, taking the preferred child of the node
+ * it just branched on from the head of its own deque. When a dive ends it continues with the open node with
+ * the best bound. Those nodes are also kept in a shared priority queue - a node is in a deque and maybe also
+ * in the queue, and whoever {@linkplain NodeKey#claim() claims} it first evaluates it. An idle worker steals
+ * from the other workers - the best bound node among the oldest nodes, the tails, of their deques.
+ * <p>
+ * The incumbent (best integer solution so far) is shared without locking, and whenever it improves open
+ * nodes that can no longer lead to anything better are pruned immediately.
+ * </p>
+ * <p>
+ * With {@linkplain Optimisation.Options#deterministic} the search is instead done in rounds: a fixed number
+ * of nodes are evaluated in parallel, and the outcomes are then applied in order. The nodes evaluated, and
+ * the result, are then the same regardless of thread timing and the number of threads (unless a time limit
+ * is reached).
+ * </p>
  *
  * @author apete
  */
 public final class NewIntegerSolver extends IntegerSolver {
 
-    class NodeWorker implements Callable<Boolean> {
+    final class NodeWorker {
 
-        public Boolean call() throws Exception {
+        private final Deque<NodeKey> myDeque;
 
-            NodeKey tmpNodeKey = null;
+        NodeWorker(final Deque<NodeKey> deque) {
 
-            while (normal && NewIntegerSolver.this.isStillNodesToTry() && ((tmpNodeKey = NewIntegerSolver.this.getNextNode()) != null)) {
-                NewIntegerSolver.this.compute(tmpNodeKey);
+            super();
+
+            myDeque = deque;
+        }
+
+        boolean work() {
+
+            boolean tmpDiving = false;
+
+            try {
+
+                while (myNormal) {
+
+                    if (!NewIntegerSolver.this.isIterationAllowed() || !NewIntegerSolver.this.isIterationNecessary()) {
+                        if (NewIntegerSolver.this.isDebug()) {
+                            NewIntegerSolver.this.debug("Reached iterations or time limit - stop!");
+                        }
+                        myNormal = false;
+                        break;
+                    }
+
+                    NodeKey tmpNode = tmpDiving ? myDeque.pollFirst() : myBestBound.poll();
+                    if (tmpNode == null) {
+                        tmpNode = NewIntegerSolver.this.steal();
+                    }
+
+                    if (tmpNode == null) {
+
+                        if (myOpenNodes.get() == 0L) {
+                            break;
+                        }
+
+                        // Other workers are busy and may add more nodes
+                        tmpDiving = false;
+                        LockSupport.parkNanos(IDLE_NANOS);
+
+                    } else if (tmpNode.claim()) {
+
+                        try {
+                            tmpDiving = NewIntegerSolver.this.apply(NewIntegerSolver.this.evaluate(tmpNode), myDeque);
+                        } finally {
+                            myOpenNodes.decrementAndGet();
+                        }
+                    }
+                }
+
+            } catch (final RuntimeException exception) {
+                myNormal = false;
+                throw exception;
             }
 
-            return normal;
+            return myNormal;
         }
+
     }
 
-    private final PriorityBlockingQueue<NodeKey> myNodesToTry = new PriorityBlockingQueue<>();
+    /**
+     * What to do after a node has been evaluated: either store an integer solution, or branch (dive to the
+     * preferred node first).
+     */
+    static final class NodeOutcome {
+
+        final Optimisation.Result integer;
+        final NodeKey other;
+        final NodeKey preferred;
+
+        NodeOutcome(final NodeKey preferredNode, final NodeKey otherNode) {
 
+            super();
+
+            integer = null;
+            preferred = preferredNode;
+            other = otherNode;
+        }
+
+        NodeOutcome(final Optimisation.Result integerSolution) {
+
+            super();
+
+            integer = integerSolution;
+            preferred = null;
+            other = null;
+        }
+
+    }
+
+    /**
+     * The number of nodes evaluated (in parallel) per round in deterministic mode. Independent of the number
+     * of threads so that the search is too.
+     */
+    static final int DETERMINISTIC_ROUND = 16;
+
+    /**
+     * How long an idle worker waits before it looks for nodes again
+     */
+    static final long IDLE_NANOS = 100_000L;
+
+    private static boolean isBetterBound(final NodeKey candidate, final NodeKey current, final boolean minimisation) {
+        if (Double.isNaN(candidate.objective) || Double.isNaN(current.objective)) {
+            // The root node (or unknown)
+            return Double.isNaN(candidate.objective) && !Double.isNaN(current.objective);
+        } else if (minimisation) {
+            return candidate.objective < current.objective;
+        } else {
+            return candidate.objective > current.objective;
+        }
+    }
+
+    /**
+     * The nodes not dived on (the other branch), best bound first
+     */
+    private final PriorityBlockingQueue<NodeKey> myBestBound;
+    private volatile List<Deque<NodeKey>> myDeques = Collections.emptyList();
     private final int[] myIntegerIndeces;
     private final double[] myIntegerSignificances;
-
-    boolean normal = true;
+    private volatile boolean myNormal = true;
+    /**
+     * Nodes added but not yet evaluated (or pruned)
+     */
+    private final AtomicLong myOpenNodes = new AtomicLong();
 
     NewIntegerSolver(final ExpressionsBasedModel model, final Options solverOptions) {
 
@@ -79,6 +208,10 @@ public final class NewIntegerSolver extends IntegerSolver {
         myIntegerIndeces = new int[tmpIntegerVariables.size()];
         myIntegerSignificances = new double[tmpIntegerVariables.size()];
 
+        final boolean tmpMinimisation = model.isMinimisation();
+        myBestBound = new PriorityBlockingQueue<>(64, (node1, node2) -> NewIntegerSolver.isBetterBound(node1, node2, tmpMinimisation) ? -1
+                : NewIntegerSolver.isBetterBound(node2, node1, tmpMinimisation) ? 1 : 0);
+
         for (int i = 0; i < myIntegerIndeces.length; i++) {
             final Variable tmpVariable = tmpIntegerVariables.get(i);
             myIntegerIndeces[i] = model.indexOf(tmpVariable);
@@ -97,17 +230,25 @@ public final class NewIntegerSolver extends IntegerSolver {
 
         this.resetIterationsCount();
 
-        this.setup();
+        this.addCuts();
 
-        //     final boolean tmpNormalExit = DaemonPoolExecutor.INSTANCE.invoke(tmpTask);
+        myNormal = true;
 
-        //   this.add(new NodeKey(this.getModel()));
+        final List<NodeKey> tmpNodes = this.setup();
+
+        myOpenNodes.set(tmpNodes.size());
+
+        if (options.deterministic) {
+            this.searchInRounds(tmpNodes);
+        } else {
+            this.searchInParallel(tmpNodes);
+        }
 
         Optimisation.Result retVal = this.getBestResultSoFar();
 
         if (retVal.getState().isFeasible()) {
 
-            if (normal) {
+            if (myNormal) {
                 retVal = new Optimisation.Result(State.OPTIMAL, retVal);
             } else {
                 retVal = new Optimisation.Result(State.FEASIBLE, retVal);
@@ -115,7 +256,7 @@ public final class NewIntegerSolver extends IntegerSolver {
 
         } else {
 
-            if (normal) {
+            if (myNormal) {
                 retVal = new Optimisation.Result(State.INFEASIBLE, retVal);
             } else {
                 retVal = new Optimisation.Result(State.FAILED, retVal);
@@ -167,124 +308,163 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    boolean add(final NodeKey e) {
-        return myNodesToTry.add(e);
-    }
+    /**
+     * Store the integer solution, or add the new nodes to the deque. The incumbent may have improved since the
+     * node was evaluated, and then its children may not be worth adding.
+     *
+     * @return true if branched (the preferred node is at the head of the deque)
+     */
+    boolean apply(final NodeOutcome outcome, final Deque<NodeKey> deque) {
 
-    void compute(final NodeKey nodeKey) {
+        if (outcome == null) {
 
-        if (NewIntegerSolver.this.isDebug()) {
-            NewIntegerSolver.this.debug("\nBranch&Bound Node");
-            NewIntegerSolver.this.debug(nodeKey.toString());
-            NewIntegerSolver.this.debug(NewIntegerSolver.this.toString());
-        }
+            return false;
+
+        } else if (outcome.integer != null) {
 
-        if (!NewIntegerSolver.this.isIterationAllowed() || !NewIntegerSolver.this.isIterationNecessary()) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Reached iterations or time limit - stop!");
+            if (this.markInteger(null, outcome.integer)) {
+                this.pruneNodes();
             }
-            normal &= false;
-        }
 
-        if (!NewIntegerSolver.this.isGoodEnoughToContinueBranching(nodeKey.objective)) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("No longer a relevant node!");
+            if (this.isDebug()) {
+                this.debug(this.getBestResultSoFar().toString());
             }
-            normal &= true;
-        }
 
-        ExpressionsBasedModel tmpModel = NewIntegerSolver.this.makeNodeModel(nodeKey);
-        final Optimisation.Result tmpResult = tmpModel.solve(NewIntegerSolver.this.getBestResultSoFar());
+            return false;
 
-        NewIntegerSolver.this.incrementIterationsCount();
+        } else if (this.isGoodEnoughToContinueBranching(outcome.preferred.objective)) {
 
-        if ((tmpModel.options.debug_appender != null) && (tmpModel.options.debug_appender instanceof PrinterBuffer)) {
-            if (NewIntegerSolver.this.getModel().options.debug_appender != null) {
-                ((PrinterBuffer) tmpModel.options.debug_appender).flush(NewIntegerSolver.this.getModel().options.debug_appender);
-            }
-        }
-        if (tmpResult.getState().isOptimal()) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Node solved to optimality!");
-            }
+            myOpenNodes.addAndGet(2L);
+            deque.offerFirst(outcome.other);
+            deque.offerFirst(outcome.preferred);
+            myBestBound.offer(outcome.other);
 
-            if (NewIntegerSolver.this.options.validate && !tmpModel.validate(tmpResult)) {
-                // This should not be possible. There is a bug somewhere.
-                NewIntegerSolver.this.debug("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
-                //                    IntegerSolver.this.logDebug(myKey.toString());
-                //                    IntegerSolver.this.logDebug(tmpModel.toString());
-                //                    final GenericSolver tmpDefaultSolver = tmpModel.getDefaultSolver();
-                //                    tmpDefaultSolver.solve();
-                //                    IntegerSolver.this.logDebug(tmpDefaultSolver.toString());
-                normal &= false;
-            }
+            return true;
 
-            final int tmpBranchIndex = NewIntegerSolver.this.identifyNonIntegerVariable(tmpResult, nodeKey);
-            final double tmpSolutionValue = NewIntegerSolver.this.evaluateFunction(tmpResult);
+        } else {
 
-            if (tmpBranchIndex == -1) {
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug("Integer solution! Store it among the others, and stop this branch!");
-                }
+            return false;
+        }
+    }
+
+    int countExploredNodes() {
+        return this.countIterations();
+    }
 
-                final Optimisation.Result tmpIntegerSolutionResult = new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, tmpResult);
+    /**
+     * Solve the node's relaxation, and decide what to do with it. This does not change the incumbent, or add
+     * any nodes - that is done by {@link #apply(NodeOutcome, Deque)} - so nodes can be evaluated in parallel
+     * and the outcomes applied in a deterministic order.
+     *
+     * @return null if the node is fathomed without an integer solution
+     */
+    NodeOutcome evaluate(final NodeKey nodeKey) {
+
+        if (this.isDebug()) {
+            this.debug("\nBranch&Bound Node");
+            this.debug(nodeKey.toString());
+            this.debug(this.toString());
+        }
 
-                NewIntegerSolver.this.markInteger(nodeKey, tmpIntegerSolutionResult);
+        if (!this.isGoodEnoughToContinueBranching(nodeKey.objective)) {
+            if (this.isDebug()) {
+                this.debug("No longer a relevant node!");
+            }
+            return null;
+        }
 
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug(NewIntegerSolver.this.getBestResultSoFar().toString());
-                }
+        // Linear node problems are re-optimised from the parent's basis. The node model is only built if that is
+        // not possible, or to validate the solution. The workspace is returned before branching.
+        final NodeWorkspace tmpWorkspace = this.borrowWorkspace();
+        ExpressionsBasedModel tmpModel;
+        final Optimisation.Result tmpResult;
+        final int tmpBranchIndex;
+        final int[] tmpBasisChanges;
+        try {
 
-                BasicLogger.debug();
-                BasicLogger.debug(NewIntegerSolver.this.toString());
-                // BasicLogger.debug(DaemonPoolExecutor.INSTANCE.toString());
+            tmpWorkspace.load(nodeKey);
+            tmpModel = !tmpWorkspace.isLinear() || options.validate ? this.makeNodeModel(nodeKey) : null;
 
+            if (tmpWorkspace.isLinear()) {
+                tmpResult = tmpWorkspace.solve();
             } else {
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug("Not an Integer Solution: " + tmpSolutionValue);
-                }
+                tmpResult = tmpModel.solve(this.getBestResultSoFar());
+            }
 
-                final double tmpVariableValue = tmpResult.doubleValue(NewIntegerSolver.this.getGlobalIndex(tmpBranchIndex));
+            tmpBranchIndex = tmpResult.getState().isOptimal() ? this.identifyNonIntegerVariable(tmpResult, tmpWorkspace) : -1;
+            tmpBasisChanges = tmpBranchIndex != -1 ? tmpWorkspace.getBasisChanges() : null;
 
-                if (NewIntegerSolver.this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
-                    if (NewIntegerSolver.this.isDebug()) {
-                        NewIntegerSolver.this.debug("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
-                                tmpModel.getVariable(NewIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
-                    }
+        } finally {
+            this.returnWorkspace(tmpWorkspace);
+        }
 
-                    tmpModel.dispose();
-                    tmpModel = null;
+        this.incrementIterationsCount();
 
-                    final NodeKey tmpLowerBranchTask = nodeKey.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpResult.getValue());
-                    final NodeKey tmpUpperBranchTask = nodeKey.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpResult.getValue());
+        if ((tmpModel != null) && (tmpModel.options.debug_appender != null) && (tmpModel.options.debug_appender instanceof PrinterBuffer)) {
+            if (this.getModel().options.debug_appender != null) {
+                ((PrinterBuffer) tmpModel.options.debug_appender).flush(this.getModel().options.debug_appender);
+            }
+        }
 
-                    this.add(tmpLowerBranchTask);
-                    this.add(tmpUpperBranchTask);
+        if (!tmpResult.getState().isOptimal()) {
+            if (this.isDebug()) {
+                this.debug("Failed to solve problem - stop this branch!");
+            }
+            return null;
+        }
 
-                    if (DaemonPoolExecutor.isDaemonAvailable()) {
-                        DaemonPoolExecutor.invoke(new NodeWorker());
-                    }
+        if (this.isDebug()) {
+            this.debug("Node solved to optimality!");
+        }
 
-                    normal &= true;
+        if (options.validate && !tmpModel.validate(tmpResult)) {
+            // This should not be possible. There is a bug somewhere.
+            this.debug("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
+            myNormal = false;
+            return null;
+        }
 
-                } else {
-                    if (NewIntegerSolver.this.isDebug()) {
-                        NewIntegerSolver.this.debug("Can't find better integer solutions - stop this branch!");
-                    }
-                }
+        final double tmpSolutionValue = this.evaluateFunction(tmpResult);
+
+        if (tmpBranchIndex == -1) {
+            if (this.isDebug()) {
+                this.debug("Integer solution! Store it among the others, and stop this branch!");
             }
+            return new NodeOutcome(this.makeIntegerResult(tmpResult));
+        }
 
-        } else {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Failed to solve problem - stop this branch!");
+        if (this.isDebug()) {
+            this.debug("Not an Integer Solution: " + tmpSolutionValue);
+        }
+
+        if (!this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
+            if (this.isDebug()) {
+                this.debug("Can't find better integer solutions - stop this branch!");
             }
+            return null;
         }
 
-        normal &= true;
-    }
+        final double tmpVariableValue = tmpResult.doubleValue(this.getGlobalIndex(tmpBranchIndex));
 
-    int countExploredNodes() {
-        return this.countIterations();
+        if (this.isDebug()) {
+            this.debug("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
+                    this.getModel().getVariable(this.getGlobalIndex(tmpBranchIndex)));
+        }
+
+        if (tmpModel != null) {
+            tmpModel.dispose();
+            tmpModel = null;
+        }
+
+        final NodeKey tmpLowerBranch = nodeKey.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue, tmpBasisChanges);
+        final NodeKey tmpUpperBranch = nodeKey.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue, tmpBasisChanges);
+
+        // Dive in the direction the variable would be rounded
+        if (tmpLowerBranch.displacement <= tmpUpperBranch.displacement) {
+            return new NodeOutcome(tmpLowerBranch, tmpUpperBranch);
+        } else {
+            return new NodeOutcome(tmpUpperBranch, tmpLowerBranch);
+        }
     }
 
     int getGlobalIndex(final int integerIndex) {
@@ -299,20 +479,7 @@ public final class NewIntegerSolver extends IntegerSolver {
         return myIntegerSignificances[index];
     }
 
-    NodeKey getNextNode() {
-        return myNodesToTry.poll();
-        //        if (myMinimisation) {
-        //            final NodeKey retVal = myNodesToTry.first();
-        //            myNodesToTry.remove(retVal);
-        //            return retVal;
-        //        } else {
-        //            final NodeKey retVal = myNodesToTry.last();
-        //            myNodesToTry.remove(retVal);
-        //            return retVal;
-        //        }
-    }
-
-    int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeKey nodeKey) {
+    int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeWorkspace nodeWorkspace) {
 
         int retVal = -1;
 
@@ -321,7 +488,7 @@ public final class NewIntegerSolver extends IntegerSolver {
 
         for (int i = 0; i < myIntegerIndeces.length; i++) {
 
-            tmpFraction = nodeKey.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
+            tmpFraction = nodeWorkspace.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
 
             //tmpImpact = (ONE - tmpFraction) * this.getIntegerSignificance(i);
             tmpImpact = tmpFraction * this.getIntegerSignificance(i);
@@ -336,10 +503,6 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    boolean isStillNodesToTry() {
-        return !myNodesToTry.isEmpty();
-    }
-
     ExpressionsBasedModel makeNodeModel(final NodeKey nodeKey) {
 
         final ExpressionsBasedModel retVal = this.getModel().relax(false);
@@ -379,23 +542,96 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    void pruneNodes(final NodeKey integerNode) {
-        //        if (myMinimisation) {
-        //            final SortedSet<NodeKey> tmpTail = myNodesToTry.tailSet(integerNode);
-        //            myNodesToTry.removeAll(tmpTail);
-        //        } else {
-        //            final SortedSet<NodeKey> tmpHead = myNodesToTry.headSet(integerNode);
-        //            myNodesToTry.removeAll(tmpHead);
-        //        }
+    /**
+     * Remove all open nodes that can no longer lead to a better integer solution than the current incumbent.
+     */
+    void pruneNodes() {
+        for (final Deque<NodeKey> tmpDeque : myDeques) {
+            this.pruneNodes(tmpDeque.iterator());
+        }
+        this.pruneNodes(myBestBound.iterator());
+    }
+
+    /**
+     * @return The open node with the best bound among the tails of the deques (removed from its deque), or
+     *         null if there are no open nodes. The tails are the oldest nodes - those closest to the root.
+     */
+    NodeKey steal() {
+
+        final boolean tmpMinimisation = this.getModel().isMinimisation();
+
+        NodeKey tmpBest;
+        Deque<NodeKey> tmpBestDeque;
+
+        do {
+
+            tmpBest = null;
+            tmpBestDeque = null;
+
+            for (final Deque<NodeKey> tmpDeque : myDeques) {
+
+                final NodeKey tmpCandidate = tmpDeque.peekLast();
+
+                if ((tmpCandidate != null) && ((tmpBest == null) || NewIntegerSolver.isBetterBound(tmpCandidate, tmpBest, tmpMinimisation))) {
+                    tmpBest = tmpCandidate;
+                    tmpBestDeque = tmpDeque;
+                }
+            }
+
+            if (tmpBest == null) {
+                return null;
+            }
+
+            // Some other worker may have taken it - then try again
+        } while (!tmpBestDeque.removeLastOccurrence(tmpBest));
+
+        return tmpBest;
+    }
+
+    /**
+     * Remove the nodes that can no longer lead to a better integer solution. A node that was already claimed
+     * (evaluated from the deque or the queue) is just removed.
+     */
+    private void pruneNodes(final Iterator<NodeKey> nodes) {
+        while (nodes.hasNext()) {
+            final NodeKey tmpNode = nodes.next();
+            if (!this.isGoodEnoughToContinueBranching(tmpNode.objective)) {
+                nodes.remove();
+                if (tmpNode.claim()) {
+                    myOpenNodes.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve the node's relaxation without keeping the node model.
+     */
+    Optimisation.Result solveNode(final NodeKey nodeKey, final Optimisation.Result kickStarter) {
+        final NodeWorkspace tmpWorkspace = this.borrowWorkspace();
+        try {
+            tmpWorkspace.load(nodeKey);
+            if (tmpWorkspace.isLinear()) {
+                return tmpWorkspace.solve();
+            } else {
+                return this.makeNodeModel(nodeKey).solve(kickStarter);
+            }
+        } finally {
+            this.returnWorkspace(tmpWorkspace);
+        }
     }
 
     void setIntegerSignificance(final int index, final double significance) {
         myIntegerSignificances[index] = significance;
     }
 
-    void setup() {
-
-        normal = true;
+    /**
+     * Solves the root node, and both branches of each integer variable, to estimate how significant each
+     * variable is.
+     *
+     * @return The nodes to start the search with
+     */
+    List<NodeKey> setup() {
 
         final NodeKey[] retVal = new NodeKey[2];
 
@@ -404,14 +640,26 @@ public final class NewIntegerSolver extends IntegerSolver {
         NodeKey myKey;
         myKey = new NodeKey(tmpIntegerModel);
 
-        final ExpressionsBasedModel tmpRootModel = NewIntegerSolver.this.makeNodeModel(myKey);
-        final Result tmpRootResult = tmpRootModel.solve(tmpIntegerModel.getVariableValues());
+        final NodeWorkspace tmpRootWorkspace = NewIntegerSolver.this.borrowWorkspace();
+        final Result tmpRootResult;
+        final int[] tmpRootBasis;
+        try {
+            tmpRootWorkspace.load(myKey);
+            if (tmpRootWorkspace.isLinear()) {
+                tmpRootResult = tmpRootWorkspace.solve();
+            } else {
+                tmpRootResult = NewIntegerSolver.this.makeNodeModel(myKey).solve(tmpIntegerModel.getVariableValues());
+            }
+            tmpRootBasis = tmpRootWorkspace.getBasisChanges();
+        } finally {
+            NewIntegerSolver.this.returnWorkspace(tmpRootWorkspace);
+        }
         final double tmpRootValue = tmpRootResult.getValue();
 
         double tmpMinValue = PrimitiveMath.MACHINE_LARGEST;
         double tmpMaxValue = -PrimitiveMath.MACHINE_LARGEST;
 
-        final double tmpBestValue = tmpRootModel.isMinimisation() ? PrimitiveMath.MACHINE_LARGEST : -PrimitiveMath.MACHINE_LARGEST;
+        final double tmpBestValue = tmpIntegerModel.isMinimisation() ? PrimitiveMath.MACHINE_LARGEST : -PrimitiveMath.MACHINE_LARGEST;
 
         final double[] tmpSignificance = new double[tmpIntegerVariables.size()];
 
@@ -420,9 +668,8 @@ public final class NewIntegerSolver extends IntegerSolver {
             final int tmpGlobalIndex = NewIntegerSolver.this.getGlobalIndex(i);
             final double tmpVariableValue = tmpRootResult.doubleValue(tmpGlobalIndex);
 
-            final NodeKey tmpLowerNodeKey = myKey.createLowerBranch(i, tmpVariableValue, tmpRootValue);
-            final ExpressionsBasedModel tmpLowerModel = NewIntegerSolver.this.makeNodeModel(tmpLowerNodeKey);
-            final Result tmpLowerResult = tmpLowerModel.solve(tmpRootResult);
+            final NodeKey tmpLowerNodeKey = myKey.createLowerBranch(i, tmpVariableValue, tmpRootValue, tmpRootBasis);
+            final Result tmpLowerResult = NewIntegerSolver.this.solveNode(tmpLowerNodeKey, tmpRootResult);
             final double tmpLowerValue = tmpLowerResult.getValue();
 
             if (tmpLowerValue < tmpMinValue) {
@@ -432,9 +679,8 @@ public final class NewIntegerSolver extends IntegerSolver {
                 tmpMaxValue = tmpLowerValue;
             }
 
-            final NodeKey tmpUpperNodeKey = myKey.createUpperBranch(i, tmpVariableValue, tmpRootValue);
-            final ExpressionsBasedModel tmpUpperModel = NewIntegerSolver.this.makeNodeModel(tmpUpperNodeKey);
-            final Result tmpUpperResult = tmpUpperModel.solve(tmpRootResult);
+            final NodeKey tmpUpperNodeKey = myKey.createUpperBranch(i, tmpVariableValue, tmpRootValue, tmpRootBasis);
+            final Result tmpUpperResult = NewIntegerSolver.this.solveNode(tmpUpperNodeKey, tmpRootResult);
             final double tmpUpperValue = tmpUpperResult.getValue();
 
             if (tmpUpperValue < tmpMinValue) {
@@ -444,11 +690,14 @@ public final class NewIntegerSolver extends IntegerSolver {
                 tmpMaxValue = tmpUpperValue;
             }
 
-            if (tmpLowerResult.getState().isFeasible() && tmpUpperResult.getState().isFeasible()) {
-                if (tmpRootModel.isMinimisation() && ((tmpLowerValue < tmpBestValue) || (tmpUpperValue < tmpBestValue))) {
+            // Only a fractional value splits the domain in 2 disjoint parts
+            final boolean tmpFractional = !options.integer.isZero(Math.abs(tmpVariableValue - Math.rint(tmpVariableValue)));
+
+            if (tmpFractional && tmpLowerResult.getState().isFeasible() && tmpUpperResult.getState().isFeasible()) {
+                if (tmpIntegerModel.isMinimisation() && ((tmpLowerValue < tmpBestValue) || (tmpUpperValue < tmpBestValue))) {
                     retVal[0] = tmpLowerNodeKey;
                     retVal[1] = tmpUpperNodeKey;
-                } else if (tmpRootModel.isMaximisation() && ((tmpLowerValue > tmpBestValue) || (tmpUpperValue > tmpBestValue))) {
+                } else if (tmpIntegerModel.isMaximisation() && ((tmpLowerValue > tmpBestValue) || (tmpUpperValue > tmpBestValue))) {
                     retVal[0] = tmpLowerNodeKey;
                     retVal[1] = tmpUpperNodeKey;
                 }
@@ -468,20 +717,127 @@ public final class NewIntegerSolver extends IntegerSolver {
             NewIntegerSolver.this.setIntegerSignificance(i, 0.5 + (tmpSignificance[i] / tmpScale));
         }
 
+        final List<NodeKey> tmpNodes = new ArrayList<>(2);
         if ((retVal[0] != null) && (retVal[1] != null)) {
-            NewIntegerSolver.this.add(retVal[0]);
-            NewIntegerSolver.this.add(retVal[1]);
+            tmpNodes.add(retVal[0]);
+            tmpNodes.add(retVal[1]);
         } else {
-            NewIntegerSolver.this.add(new NodeKey(tmpIntegerModel));
+            tmpNodes.add(myKey);
+        }
+        return tmpNodes;
+    }
+
+    /**
+     * Evaluate a fixed number of nodes in parallel, then apply the outcomes in order, and repeat. Dives take
+     * the newest nodes, otherwise those with the best bounds.
+     */
+    private void searchInRounds(final List<NodeKey> nodes) {
+
+        final Deque<NodeKey> tmpDeque = new ArrayDeque<>(nodes);
+        myDeques = Collections.singletonList(tmpDeque);
+        myBestBound.clear();
+        myBestBound.addAll(nodes);
+
+        final NodeKey[] tmpRound = new NodeKey[DETERMINISTIC_ROUND];
+        final NodeOutcome[] tmpOutcomes = new NodeOutcome[DETERMINISTIC_ROUND];
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int i = first; i < limit; i++) {
+                    tmpOutcomes[i] = NewIntegerSolver.this.evaluate(tmpRound[i]);
+                }
+            }
+
+        };
+
+        boolean tmpDiving = false;
+
+        while (myNormal && !tmpDeque.isEmpty()) {
+
+            if (!this.isIterationAllowed() || !this.isIterationNecessary()) {
+                if (this.isDebug()) {
+                    this.debug("Reached iterations or time limit - stop!");
+                }
+                myNormal = false;
+                break;
+            }
+
+            int tmpCount = 0;
+            while ((tmpCount < DETERMINISTIC_ROUND) && !tmpDeque.isEmpty()) {
+                NodeKey tmpNode = tmpDiving ? null : myBestBound.poll();
+                if (tmpNode == null) {
+                    tmpNode = tmpDeque.pollFirst();
+                }
+                if (tmpNode.claim()) {
+                    tmpRound[tmpCount++] = tmpNode;
+                }
+            }
+
+            if (tmpCount > 0) {
+                tmpConquerer.invoke(0, tmpCount, 1);
+            }
+
+            tmpDiving = false;
+            for (int i = 0; i < tmpCount; i++) {
+                tmpDiving |= this.apply(tmpOutcomes[i], tmpDeque);
+                myOpenNodes.decrementAndGet();
+                tmpRound[i] = null;
+                tmpOutcomes[i] = null;
+            }
+        }
+    }
+
+    /**
+     * One worker per thread, the calling thread being one of them. All workers are waited for before a
+     * failure in any one of them is rethrown as a {@linkplain ProgrammingError}.
+     */
+    private void searchInParallel(final List<NodeKey> nodes) {
+
+        final ExecutionContext tmpContext = ExecutionContext.current();
+        final int tmpWorkers = tmpContext.threads();
+
+        final List<Deque<NodeKey>> tmpDeques = new ArrayList<>(tmpWorkers);
+        for (int w = 0; w < tmpWorkers; w++) {
+            tmpDeques.add(new ConcurrentLinkedDeque<NodeKey>());
+        }
+        tmpDeques.get(0).addAll(nodes);
+        myDeques = tmpDeques;
+        myBestBound.clear();
+        myBestBound.addAll(nodes);
+
+        final List<Future<Boolean>> tmpFutures = new ArrayList<>(tmpWorkers - 1);
+        for (int w = 1; w < tmpWorkers; w++) {
+            final NodeWorker tmpWorker = new NodeWorker(tmpDeques.get(w));
+            tmpFutures.add(tmpContext.submit(tmpWorker::work));
         }
 
-        final Future<Boolean> tmpFuture = DaemonPoolExecutor.invoke(new NodeWorker());
+        boolean tmpNormal = true;
+        Throwable tmpFailure = null;
 
         try {
-            normal = normal && tmpFuture.get();
-        } catch (InterruptedException | ExecutionException anException) {
-            normal &= false;
+            tmpNormal = new NodeWorker(tmpDeques.get(0)).work();
+        } catch (final RuntimeException | Error exception) {
+            tmpFailure = exception;
+        }
+
+        for (final Future<Boolean> tmpFuture : tmpFutures) {
+            try {
+                tmpNormal &= tmpFuture.get();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                tmpFailure = tmpFailure != null ? tmpFailure : exception;
+            } catch (final ExecutionException exception) {
+                tmpFailure = tmpFailure != null ? tmpFailure : exception.getCause();
+            }
         }
+
+        if (tmpFailure != null) {
+            throw new ProgrammingError(tmpFailure);
+        }
+
+        myNormal &= tmpNormal;
     }
 
 }
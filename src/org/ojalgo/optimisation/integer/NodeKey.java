@@ -25,19 +25,87 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.ojalgo.ProgrammingError;
-import org.ojalgo.array.ArrayUtils;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Variable;
 
+/**
+ * A branch&bound node. Only the root node stores the (integer variables') bounds - all other nodes reference
+ * their parent and store the one bound that changed, and the LP basis is stored the same way, as the changes
+ * relative to the parent's. A node is a few tens of bytes regardless of the size of the model, and the
+ * complete bounds (and basis) are materialised, by walking up the tree, only when the node is evaluated.
+ *
+ * @author apete
+ */
 final class NodeKey implements Serializable, Comparable<NodeKey> {
 
+    private static final AtomicIntegerFieldUpdater<NodeKey> CLAIMED = AtomicIntegerFieldUpdater.newUpdater(NodeKey.class, "myClaimed");
+
     private static AtomicLong GENERATOR = new AtomicLong();
 
+    /**
+     * Placeholder for basis positions not (yet) known when materialising a basis
+     */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * @param start The basis a node's LP was re-optimised from, or null if solved from scratch
+     * @param optimal The resulting optimal basis
+     * @return The changes, as pairs of basis position and column index, that turn start in to optimal
+     */
+    static int[] difference(final int[] start, final int[] optimal) {
+
+        final int tmpLength = optimal.length;
+
+        int tmpCount = 0;
+        for (int i = 0; i < tmpLength; i++) {
+            if ((start == null) || (start[i] != optimal[i])) {
+                tmpCount++;
+            }
+        }
+
+        final int[] retVal = new int[2 * tmpCount];
+
+        int tmpPair = 0;
+        for (int i = 0; i < tmpLength; i++) {
+            if ((start == null) || (start[i] != optimal[i])) {
+                retVal[tmpPair++] = i;
+                retVal[tmpPair++] = optimal[i];
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The parent node's optimal basis, as changes relative to the basis the parent was re-optimised from
+     * ({@linkplain #difference(int[], int[])}). The array is shared with the sibling node. Null if not known.
+     */
+    private final transient int[] myBasisChanges;
+    /**
+     * The new (lower or upper) bound of the branched on variable
+     */
+    private final int myBound;
+    private transient volatile int myClaimed = 0;
+    /**
+     * Root node only
+     */
     private final int[] myLowerBounds;
+    /**
+     * Null for the root node
+     */
+    private final NodeKey myParent;
+    /**
+     * Is {@link #myBound} an upper bound?
+     */
+    private final boolean myUpper;
+    /**
+     * Root node only
+     */
     private final int[] myUpperBounds;
 
     /**
@@ -68,15 +136,20 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         ProgrammingError.throwForIllegalInvocation();
     }
 
-    private NodeKey(final int[] lowerBounds, final int[] upperBounds, final long parentSequenceNumber, final int indexBranchedOn,
-            final double branchVariableDisplacement, final double parentObjectiveFunctionValue) {
+    private NodeKey(final NodeKey parentNode, final int indexBranchedOn, final int bound, final boolean upper, final double branchVariableDisplacement,
+            final double parentObjectiveFunctionValue, final int[] parentBasisChanges) {
 
         super();
 
-        myLowerBounds = lowerBounds;
-        myUpperBounds = upperBounds;
+        myParent = parentNode;
+        myBound = bound;
+        myUpper = upper;
+        myLowerBounds = null;
+        myUpperBounds = null;
+
+        myBasisChanges = parentBasisChanges;
 
-        parent = parentSequenceNumber;
+        parent = parentNode.sequence;
         index = indexBranchedOn;
         displacement = branchVariableDisplacement;
         objective = parentObjectiveFunctionValue;
@@ -109,6 +182,11 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
             }
         }
 
+        myParent = null;
+        myBound = 0;
+        myUpper = false;
+        myBasisChanges = null;
+
         parent = sequence;
         index = -1;
         displacement = PrimitiveMath.NaN;
@@ -119,36 +197,6 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         return Long.compare(sequence, ref.sequence);
     }
 
-    @Override
-    public boolean equals(final Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (obj == null) {
-            return false;
-        }
-        if (!(obj instanceof NodeKey)) {
-            return false;
-        }
-        final NodeKey other = (NodeKey) obj;
-        if (!Arrays.equals(myLowerBounds, other.myLowerBounds)) {
-            return false;
-        }
-        if (!Arrays.equals(myUpperBounds, other.myUpperBounds)) {
-            return false;
-        }
-        return true;
-    }
-
-    @Override
-    public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = (prime * result) + Arrays.hashCode(myLowerBounds);
-        result = (prime * result) + Arrays.hashCode(myUpperBounds);
-        return result;
-    }
-
     @Override
     public String toString() {
 
@@ -168,88 +216,168 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         retVal.append(' ');
         retVal.append('[');
 
-        if (myLowerBounds.length > 0) {
-            this.append(retVal, 0);
-        }
+        final int[] tmpLowerBounds = this.getLowerBounds();
+        final int[] tmpUpperBounds = this.getUpperBounds();
 
-        for (int i = 1; i < myLowerBounds.length; i++) {
-            retVal.append(',');
-            retVal.append(' ');
-            this.append(retVal, i);
+        for (int i = 0; i < tmpLowerBounds.length; i++) {
+            if (i > 0) {
+                retVal.append(',');
+                retVal.append(' ');
+            }
+            retVal.append(i);
+            retVal.append('=');
+            retVal.append(tmpLowerBounds[i]);
+            retVal.append('<');
+            retVal.append(tmpUpperBounds[i]);
         }
 
         return retVal.append(']').toString();
     }
 
-    private void append(final StringBuilder builder, final int index) {
-        builder.append(index);
-        builder.append('=');
-        builder.append(myLowerBounds[index]);
-        builder.append('<');
-        builder.append(myUpperBounds[index]);
+    private int getLower(final int index) {
+        NodeKey tmpNode = this;
+        while (tmpNode.myParent != null) {
+            if ((tmpNode.index == index) && !tmpNode.myUpper) {
+                return tmpNode.myBound;
+            }
+            tmpNode = tmpNode.myParent;
+        }
+        return tmpNode.myLowerBounds[index];
+    }
+
+    private NodeKey getRoot() {
+        NodeKey retVal = this;
+        while (retVal.myParent != null) {
+            retVal = retVal.myParent;
+        }
+        return retVal;
+    }
+
+    private int getUpper(final int index) {
+        NodeKey tmpNode = this;
+        while (tmpNode.myParent != null) {
+            if ((tmpNode.index == index) && tmpNode.myUpper) {
+                return tmpNode.myBound;
+            }
+            tmpNode = tmpNode.myParent;
+        }
+        return tmpNode.myUpperBounds[index];
     }
 
-    private double feasible(final int index, final double value) {
-        return Math.min(Math.max(myLowerBounds[index], value), myUpperBounds[index]);
+    /**
+     * An open node is either evaluated or pruned, never both - whoever claims it first decides.
+     *
+     * @return true the first time, false if already claimed
+     */
+    boolean claim() {
+        return CLAIMED.compareAndSet(this, 0, 1);
     }
 
     long calculateTreeSize() {
 
+        final int[] tmpLowerBounds = this.getLowerBounds();
+        final int[] tmpUpperBounds = this.getUpperBounds();
+
         long retVal = 1L;
 
-        final int tmpLength = myLowerBounds.length;
+        final int tmpLength = tmpLowerBounds.length;
         for (int i = 0; i < tmpLength; i++) {
-            retVal *= (1L + (myUpperBounds[i] - myLowerBounds[i]));
+            retVal *= (1L + (tmpUpperBounds[i] - tmpLowerBounds[i]));
         }
 
         return retVal;
     }
 
-    NodeKey createLowerBranch(final int index, final double value, final double objective) {
+    /**
+     * @param parentBasisChanges This node's optimal basis, as changes relative to the basis it was
+     *        re-optimised from, or null
+     */
+    NodeKey createLowerBranch(final int index, final double value, final double objective, final int[] parentBasisChanges) {
 
-        final int[] tmpLBs = this.getLowerBounds();
-        final int[] tmpUBs = this.getUpperBounds();
+        final int tmpLower = this.getLower(index);
+        final int tmpUpper = this.getUpper(index);
 
-        final double tmpFeasibleValue = this.feasible(index, value);
+        final double tmpFeasibleValue = Math.min(Math.max(tmpLower, value), tmpUpper);
 
         final int tmpFloor = (int) Math.floor(tmpFeasibleValue);
 
-        if ((tmpFloor >= tmpUBs[index]) && (tmpFloor > tmpLBs[index])) {
-            tmpUBs[index] = tmpFloor - 1;
-        } else {
-            tmpUBs[index] = tmpFloor;
-        }
+        final int tmpBound = (tmpFloor >= tmpUpper) && (tmpFloor > tmpLower) ? tmpFloor - 1 : tmpFloor;
 
-        return new NodeKey(tmpLBs, tmpUBs, sequence, index, value - tmpFloor, objective);
+        return new NodeKey(this, index, tmpBound, true, value - tmpFloor, objective, parentBasisChanges);
     }
 
-    NodeKey createUpperBranch(final int index, final double value, final double objective) {
+    /**
+     * @param parentBasisChanges This node's optimal basis, as changes relative to the basis it was
+     *        re-optimised from, or null
+     */
+    NodeKey createUpperBranch(final int index, final double value, final double objective, final int[] parentBasisChanges) {
 
-        final int[] tmpLBs = this.getLowerBounds();
-        final int[] tmpUBs = this.getUpperBounds();
+        final int tmpLower = this.getLower(index);
+        final int tmpUpper = this.getUpper(index);
 
-        final double tmpFeasibleValue = this.feasible(index, value);
+        final double tmpFeasibleValue = Math.min(Math.max(tmpLower, value), tmpUpper);
 
         final int tmpCeil = (int) Math.ceil(tmpFeasibleValue);
 
-        if ((tmpCeil <= tmpLBs[index]) && (tmpCeil < tmpUBs[index])) {
-            tmpLBs[index] = tmpCeil + 1;
-        } else {
-            tmpLBs[index] = tmpCeil;
+        final int tmpBound = (tmpCeil <= tmpLower) && (tmpCeil < tmpUpper) ? tmpCeil + 1 : tmpCeil;
+
+        return new NodeKey(this, index, tmpBound, false, tmpCeil - value, objective, parentBasisChanges);
+    }
+
+    /**
+     * Materialise the parent's optimal basis - the basis to re-optimise this node's LP from.
+     *
+     * @param basis Will be overwritten, length: the number of constraints
+     * @return false if the basis is not (completely) known
+     */
+    boolean getBasis(final int[] basis) {
+
+        Arrays.fill(basis, UNKNOWN);
+        int tmpRemaining = basis.length;
+
+        // The deepest change of each position is the current one
+        for (NodeKey tmpNode = this; (tmpNode.myParent != null) && (tmpRemaining > 0); tmpNode = tmpNode.myParent) {
+
+            final int[] tmpChanges = tmpNode.myBasisChanges;
+            if (tmpChanges == null) {
+                return false;
+            }
+
+            for (int p = 0; p < tmpChanges.length; p += 2) {
+                final int tmpPosition = tmpChanges[p];
+                if (basis[tmpPosition] == UNKNOWN) {
+                    basis[tmpPosition] = tmpChanges[p + 1];
+                    tmpRemaining--;
+                }
+            }
         }
 
-        return new NodeKey(tmpLBs, tmpUBs, sequence, index, tmpCeil - value, objective);
+        return tmpRemaining == 0;
     }
 
-    double getFraction(final int index, final double value) {
+    /**
+     * Materialise the bounds of all the integer variables. Bounds only get tighter further down the tree.
+     *
+     * @param lower Will be overwritten, Integer.MIN_VALUE means no lower bound
+     * @param upper Will be overwritten, Integer.MAX_VALUE means no upper bound
+     */
+    void getBounds(final int[] lower, final int[] upper) {
 
-        final double tmpFeasibleValue = this.feasible(index, value);
+        final NodeKey tmpRoot = this.getRoot();
+        System.arraycopy(tmpRoot.myLowerBounds, 0, lower, 0, lower.length);
+        System.arraycopy(tmpRoot.myUpperBounds, 0, upper, 0, upper.length);
 
-        return Math.abs(tmpFeasibleValue - Math.rint(tmpFeasibleValue));
+        for (NodeKey tmpNode = this; tmpNode.myParent != null; tmpNode = tmpNode.myParent) {
+            if (tmpNode.myUpper) {
+                upper[tmpNode.index] = Math.min(upper[tmpNode.index], tmpNode.myBound);
+            } else {
+                lower[tmpNode.index] = Math.max(lower[tmpNode.index], tmpNode.myBound);
+            }
+        }
     }
 
     BigDecimal getLowerBound(final int index) {
-        final int tmpLower = myLowerBounds[index];
+        final int tmpLower = this.getLower(index);
         if (tmpLower != Integer.MIN_VALUE) {
             return new BigDecimal(tmpLower);
         } else {
@@ -258,11 +386,14 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     }
 
     int[] getLowerBounds() {
-        return ArrayUtils.copyOf(myLowerBounds);
+        final int tmpLength = this.getRoot().myLowerBounds.length;
+        final int[] retVal = new int[tmpLength];
+        this.getBounds(retVal, new int[tmpLength]);
+        return retVal;
     }
 
     BigDecimal getUpperBound(final int index) {
-        final int tmpUpper = myUpperBounds[index];
+        final int tmpUpper = this.getUpper(index);
         if (tmpUpper != Integer.MAX_VALUE) {
             return new BigDecimal(tmpUpper);
         } else {
@@ -271,7 +402,10 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     }
 
     int[] getUpperBounds() {
-        return ArrayUtils.copyOf(myUpperBounds);
+        final int tmpLength = this.getRoot().myUpperBounds.length;
+        final int[] retVal = new int[tmpLength];
+        this.getBounds(new int[tmpLength], retVal);
+        return retVal;
     }
 
 }
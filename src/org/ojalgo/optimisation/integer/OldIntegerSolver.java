@@ -25,14 +25,11 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
 
 import org.ojalgo.access.AccessUtils;
+import org.ojalgo.concurrent.ExecutionContext;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
@@ -96,16 +93,6 @@ public final class OldIntegerSolver extends IntegerSolver {
                 return false;
             }
 
-            if (OldIntegerSolver.this.isExplored(this)) {
-                if (this.isNodeDebug()) {
-                    myPrinter.println("Node previously explored!");
-                    this.flush(OldIntegerSolver.this.getModel().options.debug_appender);
-                }
-                return true;
-            } else {
-                OldIntegerSolver.this.markAsExplored(this);
-            }
-
             if (!OldIntegerSolver.this.isGoodEnoughToContinueBranching(myKey.objective)) {
                 if (this.isNodeDebug()) {
                     myPrinter.println("No longer a relevant node!");
@@ -114,9 +101,31 @@ public final class OldIntegerSolver extends IntegerSolver {
                 return true;
             }
 
-            ExpressionsBasedModel tmpNodeModel = this.getModel();
-            final Result tmpBestResultSoFar = OldIntegerSolver.this.getBestResultSoFar();
-            final Optimisation.Result tmpNodeResult = tmpNodeModel.solve(tmpBestResultSoFar);
+            // Linear node problems are re-optimised from the parent's basis. The node model is only built if
+            // that is not possible, or to validate the solution. The workspace is returned before branching.
+            final NodeWorkspace tmpWorkspace = OldIntegerSolver.this.borrowWorkspace();
+            ExpressionsBasedModel tmpNodeModel;
+            final Optimisation.Result tmpNodeResult;
+            final int tmpBranchIndex;
+            final int[] tmpBasisChanges;
+            try {
+
+                tmpWorkspace.load(myKey);
+                tmpNodeModel = !tmpWorkspace.isLinear() || OldIntegerSolver.this.options.validate ? this.getModel() : null;
+
+                if (tmpWorkspace.isLinear()) {
+                    tmpNodeResult = tmpWorkspace.solve();
+                } else {
+                    final Result tmpBestResultSoFar = OldIntegerSolver.this.getBestResultSoFar();
+                    tmpNodeResult = tmpNodeModel.solve(tmpBestResultSoFar);
+                }
+
+                tmpBranchIndex = tmpNodeResult.getState().isOptimal() ? OldIntegerSolver.this.identifyNonIntegerVariable(tmpNodeResult, tmpWorkspace) : -1;
+                tmpBasisChanges = tmpBranchIndex != -1 ? tmpWorkspace.getBasisChanges() : null;
+
+            } finally {
+                OldIntegerSolver.this.returnWorkspace(tmpWorkspace);
+            }
 
             if (this.isNodeDebug()) {
                 myPrinter.println("Node Result: {}", tmpNodeResult);
@@ -142,7 +151,6 @@ public final class OldIntegerSolver extends IntegerSolver {
                     return false;
                 }
 
-                final int tmpBranchIndex = OldIntegerSolver.this.identifyNonIntegerVariable(tmpNodeResult, myKey);
                 final double tmpSolutionValue = OldIntegerSolver.this.evaluateFunction(tmpNodeResult);
 
                 if (tmpBranchIndex == -1) {
@@ -150,7 +158,7 @@ public final class OldIntegerSolver extends IntegerSolver {
                         myPrinter.println("Integer solution! Store it among the others, and stop this branch!");
                     }
 
-                    final Optimisation.Result tmpIntegerSolutionResult = new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, tmpNodeResult);
+                    final Optimisation.Result tmpIntegerSolutionResult = OldIntegerSolver.this.makeIntegerResult(tmpNodeResult);
 
                     OldIntegerSolver.this.markInteger(myKey, tmpIntegerSolutionResult);
 
@@ -172,17 +180,23 @@ public final class OldIntegerSolver extends IntegerSolver {
                     if (OldIntegerSolver.this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
                         if (this.isNodeDebug()) {
                             myPrinter.println("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
-                                    tmpNodeModel.getVariable(OldIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
+                                    OldIntegerSolver.this.getModel().getVariable(OldIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
                             this.flush(OldIntegerSolver.this.getModel().options.debug_appender);
                         }
 
-                        tmpNodeModel.dispose();
-                        tmpNodeModel = null;
+                        if (tmpNodeModel != null) {
+                            tmpNodeModel.dispose();
+                            tmpNodeModel = null;
+                        }
 
-                        final BranchAndBoundNodeTask tmpLowerBranchTask = this.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
-                        final BranchAndBoundNodeTask tmpUpperBranchTask = this.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
+                        final BranchAndBoundNodeTask tmpLowerBranchTask = this.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue,
+                                tmpBasisChanges);
+                        final BranchAndBoundNodeTask tmpUpperBranchTask = this.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue,
+                                tmpBasisChanges);
 
-                        //   return tmpLowerBranchTask.compute() && tmpUpperBranchTask.compute();
+                        if (!myParallel) {
+                            return tmpLowerBranchTask.compute() & tmpUpperBranchTask.compute();
+                        }
 
                         tmpUpperBranchTask.fork();
 
@@ -220,16 +234,18 @@ public final class OldIntegerSolver extends IntegerSolver {
             return true;
         }
 
-        BranchAndBoundNodeTask createLowerBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue) {
+        BranchAndBoundNodeTask createLowerBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue,
+                final int[] parentBasisChanges) {
 
-            final NodeKey tmpKey = myKey.createLowerBranch(branchIndex, nonIntegerValue, parentObjectiveValue);
+            final NodeKey tmpKey = myKey.createLowerBranch(branchIndex, nonIntegerValue, parentObjectiveValue, parentBasisChanges);
 
             return new BranchAndBoundNodeTask(tmpKey);
         }
 
-        BranchAndBoundNodeTask createUpperBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue) {
+        BranchAndBoundNodeTask createUpperBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue,
+                final int[] parentBasisChanges) {
 
-            final NodeKey tmpKey = myKey.createUpperBranch(branchIndex, nonIntegerValue, parentObjectiveValue);
+            final NodeKey tmpKey = myKey.createUpperBranch(branchIndex, nonIntegerValue, parentObjectiveValue, parentBasisChanges);
 
             return new BranchAndBoundNodeTask(tmpKey);
         }
@@ -289,8 +305,8 @@ public final class OldIntegerSolver extends IntegerSolver {
 
     }
 
-    private final Set<NodeKey> myExploredNodes = Collections.synchronizedSet(new HashSet<NodeKey>());
     private final int[] myIntegerIndeces;
+    private boolean myParallel = true;
 
     OldIntegerSolver(final ExpressionsBasedModel model, final Options solverOptions) {
 
@@ -318,9 +334,15 @@ public final class OldIntegerSolver extends IntegerSolver {
 
         this.resetIterationsCount();
 
+        this.addCuts();
+
         final BranchAndBoundNodeTask tmpNodeTask = new BranchAndBoundNodeTask();
 
-        final boolean tmpNormalExit = ForkJoinPool.commonPool().invoke(tmpNodeTask);
+        // The nodes are forked on the pool of the current execution context,
+        // without one the whole tree is explored by the calling thread.
+        final ExecutionContext tmpContext = ExecutionContext.current();
+        myParallel = tmpContext.getPool() != null;
+        final boolean tmpNormalExit = myParallel ? tmpContext.invoke(tmpNodeTask) : tmpNodeTask.compute();
 
         Optimisation.Result retVal = this.getBestResultSoFar();
 
@@ -387,7 +409,7 @@ public final class OldIntegerSolver extends IntegerSolver {
     }
 
     int countExploredNodes() {
-        return myExploredNodes.size();
+        return this.countIterations();
     }
 
     int getGlobalIndex(final int integerIndex) {
@@ -398,7 +420,7 @@ public final class OldIntegerSolver extends IntegerSolver {
         return myIntegerIndeces;
     }
 
-    int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeKey nodeKey) {
+    int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeWorkspace nodeWorkspace) {
 
         final MatrixStore<Double> tmpGradient = this.getGradient(AccessUtils.asPrimitive1D(nodeResult));
 
@@ -409,7 +431,7 @@ public final class OldIntegerSolver extends IntegerSolver {
 
         for (int i = 0; i < myIntegerIndeces.length; i++) {
 
-            tmpFraction = nodeKey.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
+            tmpFraction = nodeWorkspace.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
             tmpWeightedFraction = tmpFraction * (PrimitiveMath.ONE + Math.abs(tmpGradient.doubleValue(myIntegerIndeces[i])));
 
             if ((tmpWeightedFraction > tmpMaxFraction) && !options.integer.isZero(tmpWeightedFraction)) {
@@ -422,12 +444,4 @@ public final class OldIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    boolean isExplored(final BranchAndBoundNodeTask aNodeTask) {
-        return myExploredNodes.contains(aNodeTask.getKey());
-    }
-
-    void markAsExplored(final BranchAndBoundNodeTask aNodeTask) {
-        myExploredNodes.add(aNodeTask.getKey());
-    }
-
 }
@@ -0,0 +1,446 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+/**
+ * A sparse LU decomposition of a simplex basis, [B][Q] = [P][L][U], calculated column by column (left-looking,
+ * Gilbert-Peierls) with partial pivoting. The columns are factorised in order of increasing nonzero count, so
+ * that slack and artificial (unit) columns come first and cause no fill-in.
+ * <p>
+ * Basis changes are handled as product form (eta) updates - a refactorisation is recommended when
+ * {@linkplain #isRefactorisationRecommended()}.
+ * </p>
+ * <p>
+ * Vectors are dense double[] of length "dim". With {@linkplain #ftran(double[])} the input is indexed by
+ * (constraint) row and the output by basis position, and with {@linkplain #btran(double[])} the other way
+ * around.
+ * </p>
+ * <p>
+ * This is not the general {@linkplain org.ojalgo.matrix.decomposition.SparseLU}. A basis is refactorised
+ * often, with the workspaces reused, and (numerically) singular columns are rejected rather than kept - the
+ * simplex method replaces them with the columns of the {@linkplain #getUnpivotedRows() unpivoted rows}. A
+ * fill-reducing symmetric ordering, and preferring diagonal pivots, makes no sense for a basis whose columns
+ * are picked from anywhere in the constraint matrix.
+ * </p>
+ *
+ * @author apete
+ */
+final class BasisFactorisation {
+
+    /**
+     * The max number of product form updates before a refactorisation is recommended
+     */
+    public static int REFACTORISATION_FREQUENCY = 100;
+
+    private static final double SINGULAR = 1E-11;
+
+    private static int[] ensure(final int[] array, final int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length + (array.length / 2)));
+    }
+
+    private static double[] ensure(final double[] array, final int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length + (array.length / 2)));
+    }
+
+    private final int[] myColumnOrder;
+    private final double[] myDiagonal;
+    private final int myDim;
+    private int myEtaCount = 0;
+    private int[] myEtaIndices;
+    private int myEtaNonzeros = 0;
+    private final int[] myEtaPointers;
+    private final int[] myEtaPositions;
+    private final double[] myEtaPivots;
+    private double[] myEtaValues;
+    private int[] myLowerIndices;
+    private final int[] myLowerPointers;
+    private double[] myLowerValues;
+    private int myMark = 0;
+    private final int[] myMarks;
+    private final int[] myPivotRows;
+    private final int[] myPivotSteps;
+    private final int[] myReach;
+    private int myRejected = 0;
+    private final int[] myRejectedPositions;
+    private final int[] myStack;
+    private final int[] myStackPointers;
+    private int[] myUpperIndices;
+    private final int[] myUpperPointers;
+    private double[] myUpperValues;
+    private final double[] myWork;
+
+    BasisFactorisation(final int dim) {
+
+        super();
+
+        myDim = dim;
+
+        myColumnOrder = new int[dim];
+        myDiagonal = new double[dim];
+        myPivotRows = new int[dim];
+        myPivotSteps = new int[dim];
+        myRejectedPositions = new int[dim];
+
+        myLowerPointers = new int[dim + 1];
+        myLowerIndices = new int[Math.max(16, dim)];
+        myLowerValues = new double[Math.max(16, dim)];
+
+        myUpperPointers = new int[dim + 1];
+        myUpperIndices = new int[Math.max(16, dim)];
+        myUpperValues = new double[Math.max(16, dim)];
+
+        myEtaPointers = new int[REFACTORISATION_FREQUENCY + 1];
+        myEtaPositions = new int[REFACTORISATION_FREQUENCY];
+        myEtaPivots = new double[REFACTORISATION_FREQUENCY];
+        myEtaIndices = new int[Math.max(16, dim)];
+        myEtaValues = new double[Math.max(16, dim)];
+
+        myMarks = new int[dim];
+        myReach = new int[dim];
+        myStack = new int[dim];
+        myStackPointers = new int[dim];
+        myWork = new double[dim];
+    }
+
+    /**
+     * Solves [B]<sup>T</sup>[y] = [c] in place - the input is indexed by basis position and the output by row.
+     */
+    void btran(final double[] vector) {
+
+        for (int e = myEtaCount - 1; e >= 0; e--) {
+            final int tmpPosition = myEtaPositions[e];
+            double tmpSum = vector[tmpPosition] * myEtaPivots[e];
+            for (int p = myEtaPointers[e], tmpLimit = myEtaPointers[e + 1]; p < tmpLimit; p++) {
+                tmpSum += myEtaValues[p] * vector[myEtaIndices[p]];
+            }
+            vector[tmpPosition] = tmpSum;
+        }
+
+        final double[] tmpWork = myWork;
+
+        for (int k = 0; k < myDim; k++) {
+            double tmpVal = vector[myColumnOrder[k]];
+            for (int p = myUpperPointers[k], tmpLimit = myUpperPointers[k + 1]; p < tmpLimit; p++) {
+                tmpVal -= myUpperValues[p] * tmpWork[myUpperIndices[p]];
+            }
+            tmpWork[k] = tmpVal / myDiagonal[k];
+        }
+
+        for (int k = myDim - 1; k >= 0; k--) {
+            double tmpVal = tmpWork[k];
+            for (int p = myLowerPointers[k], tmpLimit = myLowerPointers[k + 1]; p < tmpLimit; p++) {
+                tmpVal -= myLowerValues[p] * vector[myLowerIndices[p]];
+            }
+            vector[myPivotRows[k]] = tmpVal;
+            tmpWork[k] = ZERO;
+        }
+    }
+
+    /**
+     * @return The number of basis positions (columns) rejected, as (numerically) singular, by the latest
+     *         {@linkplain #factorise(int[], int[], int[], double[])}
+     */
+    int countRejected() {
+        return myRejected;
+    }
+
+    /**
+     * @param basis The (matrix) column index of each basis position
+     * @param pointers The first nonzero of each (matrix) column, compressed sparse column format
+     * @param indices The row index of each nonzero
+     * @param values The nonzero values
+     * @return true if the basis was nonsingular, otherwise some positions were rejected and there are equally
+     *         many unpivoted rows. Replace those columns and factorise again.
+     */
+    boolean factorise(final int[] basis, final int[] pointers, final int[] indices, final double[] values) {
+
+        myEtaCount = 0;
+        myEtaNonzeros = 0;
+        myRejected = 0;
+        Arrays.fill(myPivotSteps, -1);
+
+        // Counting sort of the basis positions on the number of nonzeros in their columns
+        final int[] tmpStarts = new int[myDim + 2];
+        for (int j = 0; j < myDim; j++) {
+            final int tmpColumn = basis[j];
+            tmpStarts[Math.min(pointers[tmpColumn + 1] - pointers[tmpColumn], myDim) + 1]++;
+        }
+        for (int c = 0; c <= myDim; c++) {
+            tmpStarts[c + 1] += tmpStarts[c];
+        }
+        final int[] tmpOrder = new int[myDim];
+        for (int j = 0; j < myDim; j++) {
+            final int tmpColumn = basis[j];
+            tmpOrder[tmpStarts[Math.min(pointers[tmpColumn + 1] - pointers[tmpColumn], myDim)]++] = j;
+        }
+
+        final double[] tmpWork = myWork;
+
+        int tmpStep = 0;
+        int tmpLowerCount = 0;
+        int tmpUpperCount = 0;
+
+        for (int o = 0; o < myDim; o++) {
+
+            final int tmpPosition = tmpOrder[o];
+            final int tmpColumn = basis[tmpPosition];
+            final int tmpFirst = pointers[tmpColumn];
+            final int tmpLimit = pointers[tmpColumn + 1];
+
+            final int tmpTop = this.reach(indices, tmpFirst, tmpLimit);
+
+            double tmpNorm = ZERO;
+            for (int p = tmpFirst; p < tmpLimit; p++) {
+                tmpWork[indices[p]] = values[p];
+                tmpNorm = Math.max(tmpNorm, Math.abs(values[p]));
+            }
+
+            // Solve with the L columns calculated so far
+            for (int t = tmpTop; t < myDim; t++) {
+                final int tmpRow = myReach[t];
+                final int tmpPrevious = myPivotSteps[tmpRow];
+                final double tmpVal = tmpWork[tmpRow];
+                if ((tmpPrevious >= 0) && (tmpVal != ZERO)) {
+                    for (int p = myLowerPointers[tmpPrevious], tmpLim = myLowerPointers[tmpPrevious + 1]; p < tmpLim; p++) {
+                        tmpWork[myLowerIndices[p]] -= myLowerValues[p] * tmpVal;
+                    }
+                }
+            }
+
+            // Partial pivoting among the rows not pivoted yet
+            int tmpPivotRow = -1;
+            double tmpLargest = ZERO;
+            for (int t = tmpTop; t < myDim; t++) {
+                final int tmpRow = myReach[t];
+                if (myPivotSteps[tmpRow] < 0) {
+                    final double tmpAbs = Math.abs(tmpWork[tmpRow]);
+                    if (tmpAbs > tmpLargest) {
+                        tmpLargest = tmpAbs;
+                        tmpPivotRow = tmpRow;
+                    }
+                }
+            }
+
+            if (tmpLargest <= (SINGULAR * Math.max(ONE, tmpNorm))) {
+
+                myRejectedPositions[myRejected++] = tmpPosition;
+
+            } else {
+
+                final double tmpPivot = tmpWork[tmpPivotRow];
+
+                myUpperIndices = BasisFactorisation.ensure(myUpperIndices, tmpUpperCount + (myDim - tmpTop));
+                myUpperValues = BasisFactorisation.ensure(myUpperValues, tmpUpperCount + (myDim - tmpTop));
+                myLowerIndices = BasisFactorisation.ensure(myLowerIndices, tmpLowerCount + (myDim - tmpTop));
+                myLowerValues = BasisFactorisation.ensure(myLowerValues, tmpLowerCount + (myDim - tmpTop));
+
+                for (int t = tmpTop; t < myDim; t++) {
+                    final int tmpRow = myReach[t];
+                    final double tmpVal = tmpWork[tmpRow];
+                    if ((tmpVal != ZERO) && (tmpRow != tmpPivotRow)) {
+                        final int tmpPrevious = myPivotSteps[tmpRow];
+                        if (tmpPrevious >= 0) {
+                            myUpperIndices[tmpUpperCount] = tmpPrevious;
+                            myUpperValues[tmpUpperCount++] = tmpVal;
+                        } else {
+                            myLowerIndices[tmpLowerCount] = tmpRow;
+                            myLowerValues[tmpLowerCount++] = tmpVal / tmpPivot;
+                        }
+                    }
+                }
+
+                myDiagonal[tmpStep] = tmpPivot;
+                myPivotRows[tmpStep] = tmpPivotRow;
+                myPivotSteps[tmpPivotRow] = tmpStep;
+                myColumnOrder[tmpStep] = tmpPosition;
+                myLowerPointers[tmpStep + 1] = tmpLowerCount;
+                myUpperPointers[tmpStep + 1] = tmpUpperCount;
+                tmpStep++;
+            }
+
+            for (int t = tmpTop; t < myDim; t++) {
+                tmpWork[myReach[t]] = ZERO;
+            }
+        }
+
+        return myRejected == 0;
+    }
+
+    /**
+     * Solves [B][x] = [a] in place - the input is indexed by row and the output by basis position.
+     */
+    void ftran(final double[] vector) {
+
+        final double[] tmpWork = myWork;
+
+        for (int k = 0; k < myDim; k++) {
+            final double tmpVal = vector[myPivotRows[k]];
+            tmpWork[k] = tmpVal;
+            if (tmpVal != ZERO) {
+                for (int p = myLowerPointers[k], tmpLimit = myLowerPointers[k + 1]; p < tmpLimit; p++) {
+                    vector[myLowerIndices[p]] -= myLowerValues[p] * tmpVal;
+                }
+            }
+        }
+
+        for (int k = myDim - 1; k >= 0; k--) {
+            final double tmpVal = tmpWork[k] / myDiagonal[k];
+            if (tmpVal != ZERO) {
+                for (int p = myUpperPointers[k], tmpLimit = myUpperPointers[k + 1]; p < tmpLimit; p++) {
+                    tmpWork[myUpperIndices[p]] -= myUpperValues[p] * tmpVal;
+                }
+            }
+            vector[myColumnOrder[k]] = tmpVal;
+            tmpWork[k] = ZERO;
+        }
+
+        for (int e = 0; e < myEtaCount; e++) {
+            final int tmpPosition = myEtaPositions[e];
+            final double tmpVal = vector[tmpPosition];
+            if (tmpVal != ZERO) {
+                vector[tmpPosition] = tmpVal * myEtaPivots[e];
+                for (int p = myEtaPointers[e], tmpLimit = myEtaPointers[e + 1]; p < tmpLimit; p++) {
+                    vector[myEtaIndices[p]] += myEtaValues[p] * tmpVal;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A basis position rejected by the latest factorisation
+     */
+    int getRejectedPosition(final int index) {
+        return myRejectedPositions[index];
+    }
+
+    /**
+     * @return The unpivoted rows after the latest factorisation (as many as there are rejected positions)
+     */
+    int[] getUnpivotedRows() {
+        final int[] retVal = new int[myRejected];
+        int tmpIndex = 0;
+        for (int i = 0; (i < myDim) && (tmpIndex < myRejected); i++) {
+            if (myPivotSteps[i] < 0) {
+                retVal[tmpIndex++] = i;
+            }
+        }
+        return retVal;
+    }
+
+    boolean isRefactorisationRecommended() {
+        return (myEtaCount >= REFACTORISATION_FREQUENCY) || (myEtaNonzeros > (myLowerPointers[myDim] + myUpperPointers[myDim] + myDim));
+    }
+
+    /**
+     * Replace the column at one basis position.
+     *
+     * @param position The basis position
+     * @param column The new column premultiplied by the inverse of the current basis - the output of
+     *        {@linkplain #ftran(double[])}
+     */
+    void update(final int position, final double[] column) {
+
+        if (myEtaCount == myEtaPositions.length) {
+            throw new IllegalStateException("Refactorisation required!");
+        }
+
+        final double tmpPivot = column[position];
+
+        myEtaIndices = BasisFactorisation.ensure(myEtaIndices, myEtaNonzeros + myDim);
+        myEtaValues = BasisFactorisation.ensure(myEtaValues, myEtaNonzeros + myDim);
+
+        for (int i = 0; i < myDim; i++) {
+            final double tmpVal = column[i];
+            if ((tmpVal != ZERO) && (i != position)) {
+                myEtaIndices[myEtaNonzeros] = i;
+                myEtaValues[myEtaNonzeros++] = -tmpVal / tmpPivot;
+            }
+        }
+
+        myEtaPositions[myEtaCount] = position;
+        myEtaPivots[myEtaCount] = ONE / tmpPivot;
+        myEtaPointers[++myEtaCount] = myEtaNonzeros;
+    }
+
+    /**
+     * Depth first search in the graph of the L columns calculated so far, to find (in topological order) the
+     * rows that will be nonzero when solving with a column that has nonzeros in the specified rows.
+     *
+     * @return The first index of the (topologically sorted) reach in {@linkplain #myReach}
+     */
+    private int reach(final int[] indices, final int first, final int limit) {
+
+        if (myMark == Integer.MAX_VALUE) {
+            Arrays.fill(myMarks, 0);
+            myMark = 0;
+        }
+        final int tmpMark = ++myMark;
+
+        int retVal = myDim;
+
+        for (int p = first; p < limit; p++) {
+
+            final int tmpStart = indices[p];
+
+            if (myMarks[tmpStart] != tmpMark) {
+
+                int tmpHead = 0;
+                myStack[0] = tmpStart;
+
+                while (tmpHead >= 0) {
+
+                    final int tmpRow = myStack[tmpHead];
+                    final int tmpStep = myPivotSteps[tmpRow];
+
+                    if (myMarks[tmpRow] != tmpMark) {
+                        myMarks[tmpRow] = tmpMark;
+                        myStackPointers[tmpHead] = tmpStep >= 0 ? myLowerPointers[tmpStep] : 0;
+                    }
+
+                    boolean tmpDone = true;
+                    final int tmpLimit = tmpStep >= 0 ? myLowerPointers[tmpStep + 1] : 0;
+                    for (int q = myStackPointers[tmpHead]; q < tmpLimit; q++) {
+                        final int tmpNext = myLowerIndices[q];
+                        if (myMarks[tmpNext] != tmpMark) {
+                            myStackPointers[tmpHead] = q + 1;
+                            myStack[++tmpHead] = tmpNext;
+                            tmpDone = false;
+                            break;
+                        }
+                    }
+
+                    if (tmpDone) {
+                        tmpHead--;
+                        myReach[--retVal] = tmpRow;
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+}
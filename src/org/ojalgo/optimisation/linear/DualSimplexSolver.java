@@ -0,0 +1,317 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.ojalgo.access.IntIndex;
+import org.ojalgo.array.PrimitiveArray;
+import org.ojalgo.matrix.store.CompressedColumnStore;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+
+/**
+ * Solves the LP relaxation of a linear {@linkplain ExpressionsBasedModel} (integer variables are treated as
+ * continuous) using the {@linkplain RevisedSimplex} method. Variable bounds are handled natively, and each
+ * constraint expression gets a slack variable with the expression's limits as bounds:
+ * <p>
+ * min [c]<sup>T</sup>[x]<br>
+ * when [A][x] - [s] == 0<br>
+ * and [l] &lt;= [x] &lt;= [u]<br>
+ * and [l<sub>s</sub>] &lt;= [s] &lt;= [u<sub>s</sub>]
+ * </p>
+ * Changing variable bounds does not change the constraint matrix, and the basis of a previous solution remains
+ * dual feasible. Supply that basis to {@link #solve(int[])} and the dual simplex method re-optimises,
+ * typically in a few iterations. That is what the branch&bound integer solver does at each node - the node's
+ * bounds differ from its parent's by one variable.
+ * <p>
+ * Instances are not thread safe - {@linkplain #copy()} to get another one that shares the (immutable)
+ * problem structure.
+ * </p>
+ *
+ * @author apete
+ */
+public final class DualSimplexSolver implements Optimisation.Solver {
+
+    /**
+     * @return true if the model (ignoring integer constraints) is an LP
+     */
+    public static boolean isCapable(final ExpressionsBasedModel model) {
+        return !model.isAnyExpressionQuadratic();
+    }
+
+    private static double toDouble(final BigDecimal limit, final double infinity) {
+        return limit != null ? limit.doubleValue() : infinity;
+    }
+
+    private final int[] myIndices;
+    private final double[] myLowerBounds;
+    private final boolean myMinimisation;
+    private final Optimisation.Options myOptions;
+    private final int[] myPointers;
+    private final RevisedSimplex mySimplex;
+    private final double[] myUpperBounds;
+    private final double[] myValues;
+    private final int myVariablesCount;
+
+    public DualSimplexSolver(final ExpressionsBasedModel model) {
+
+        super();
+
+        myOptions = model.options;
+        myMinimisation = model.isMinimisation();
+
+        final List<Variable> tmpVariables = model.getVariables();
+        final Set<IntIndex> tmpFixedVariables = model.getFixedVariables();
+        final List<Expression> tmpConstraints = model.constraints().collect(Collectors.toList());
+
+        final int tmpVariablesCount = tmpVariables.size();
+        final int tmpConstraintsCount = tmpConstraints.size();
+        final int tmpColumnsCount = tmpVariablesCount + tmpConstraintsCount;
+
+        myVariablesCount = tmpVariablesCount;
+
+        final double[] tmpLower = new double[tmpColumnsCount];
+        final double[] tmpUpper = new double[tmpColumnsCount];
+        final double[] tmpCost = new double[tmpColumnsCount];
+
+        for (int j = 0; j < tmpVariablesCount; j++) {
+            final Variable tmpVariable = tmpVariables.get(j);
+            if (tmpFixedVariables.contains(new IntIndex(j))) {
+                tmpLower[j] = tmpUpper[j] = tmpVariable.getValue().doubleValue();
+            } else {
+                tmpLower[j] = DualSimplexSolver.toDouble(tmpVariable.getLowerLimit(), NEGATIVE_INFINITY);
+                tmpUpper[j] = DualSimplexSolver.toDouble(tmpVariable.getUpperLimit(), POSITIVE_INFINITY);
+            }
+        }
+        myLowerBounds = Arrays.copyOf(tmpLower, tmpVariablesCount);
+        myUpperBounds = Arrays.copyOf(tmpUpper, tmpVariablesCount);
+
+        final Expression tmpObjective = model.objective();
+        for (final IntIndex tmpKey : tmpObjective.getLinearKeySet()) {
+            final double tmpFactor = tmpObjective.get(tmpKey).doubleValue();
+            tmpCost[tmpKey.index] = myMinimisation ? tmpFactor : -tmpFactor;
+        }
+
+        final CompressedStore.Builder tmpBuilder = CompressedStore.builder(tmpConstraintsCount, tmpColumnsCount, tmpColumnsCount);
+        for (int i = 0; i < tmpConstraintsCount; i++) {
+
+            final Expression tmpConstraint = tmpConstraints.get(i);
+
+            for (final IntIndex tmpKey : tmpConstraint.getLinearKeySet()) {
+                tmpBuilder.add(i, tmpKey.index, tmpConstraint.getAdjustedLinearFactor(tmpKey));
+            }
+
+            final int tmpSlack = tmpVariablesCount + i;
+            tmpBuilder.add(i, tmpSlack, NEG);
+            tmpLower[tmpSlack] = tmpConstraint.getAdjustedLowerLimit();
+            tmpUpper[tmpSlack] = tmpConstraint.getAdjustedUpperLimit();
+        }
+        final CompressedColumnStore tmpA = tmpBuilder.toColumnStore();
+
+        final int[] tmpPointers = new int[tmpColumnsCount + 1];
+        final int[] tmpIndices = new int[tmpA.countNonzeros()];
+        final double[] tmpValues = new double[tmpA.countNonzeros()];
+        tmpA.copyStructure(tmpPointers, tmpIndices, tmpValues);
+
+        myPointers = tmpPointers;
+        myIndices = tmpIndices;
+        myValues = tmpValues;
+
+        mySimplex = new RevisedSimplex(tmpConstraintsCount, tmpColumnsCount, tmpPointers, tmpIndices, tmpValues, new double[tmpConstraintsCount],
+                tmpCost, tmpLower, tmpUpper);
+    }
+
+    private DualSimplexSolver(final DualSimplexSolver template) {
+
+        super();
+
+        myOptions = template.myOptions;
+        myMinimisation = template.myMinimisation;
+        myVariablesCount = template.myVariablesCount;
+        myLowerBounds = template.myLowerBounds;
+        myUpperBounds = template.myUpperBounds;
+        myPointers = template.myPointers;
+        myIndices = template.myIndices;
+        myValues = template.myValues;
+
+        mySimplex = new RevisedSimplex(template.mySimplex);
+    }
+
+    /**
+     * @return A new instance, with the same bounds and objective limit as this one, that shares the problem
+     *         structure
+     */
+    public DualSimplexSolver copy() {
+        return new DualSimplexSolver(this);
+    }
+
+    /**
+     * @return The number of columns - the model variables and a slack per constraint
+     */
+    public int countColumns() {
+        return myPointers.length - 1;
+    }
+
+    public int countIterations() {
+        return mySimplex.countIterations();
+    }
+
+    /**
+     * Replace each slack variable, in a linear combination of columns, with the constraint expression it's the
+     * slack of - [s] = [A][x] - so that only the model variables remain. The result is scaled the same way as
+     * the expressions' adjusted linear factors and limits.
+     *
+     * @param factors A factor per column (length: {@link #countColumns()}), the slack part is cleared
+     */
+    public void expandSlacks(final double[] factors) {
+        for (int j = 0; j < myVariablesCount; j++) {
+            double tmpFactor = factors[j];
+            for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                tmpFactor += factors[myVariablesCount + myIndices[p]] * myValues[p];
+            }
+            factors[j] = tmpFactor;
+        }
+        Arrays.fill(factors, myVariablesCount, factors.length, ZERO);
+    }
+
+    /**
+     * @return The basis of the latest solution - the column index of each basic variable (model variables
+     *         first, then a slack per constraint, and negative values for artificial variables)
+     */
+    public int[] getBasis() {
+        return mySimplex.getBasis();
+    }
+
+    /**
+     * The same as {@link #getBasis()}, but written to the supplied array (length: the number of constraints)
+     * - re-solving many related problems then doesn't allocate a new basis array each time.
+     */
+    public void getBasis(final int[] destination) {
+        mySimplex.getBasis(destination);
+    }
+
+    /**
+     * @return The latest solution's value of each column - the model variables and a slack per constraint
+     */
+    public double[] getColumnValues() {
+        final double[] retVal = mySimplex.getSolution();
+        for (int j = 0; j < retVal.length; j++) {
+            retVal[j] = mySimplex.snapToBound(j, retVal[j]);
+        }
+        return retVal;
+    }
+
+    /**
+     * @param column A column index, model variables first and then a slack per constraint
+     * @return The current lower bound, possibly {@linkplain Double#NEGATIVE_INFINITY}
+     */
+    public double getLowerBound(final int column) {
+        return mySimplex.getLowerBound(column);
+    }
+
+    /**
+     * A row of the latest (optimal) solution's simplex tableau - the basic variable in that basis position
+     * expressed in the nonbasic variables. With all columns included the row satisfies [r]<sup>T</sup>[x] ==
+     * 0, and the basic columns' factors are 1 (for the one in that position) or 0. That is what Gomory cuts
+     * are derived from.
+     *
+     * @param position A basis position (0 &lt;= position &lt; number of constraints)
+     * @param destination A factor per column (length: {@link #countColumns()})
+     * @return The column that is basic in that position, or -1 if it's an artificial variable
+     */
+    public int getTableauRow(final int position, final double[] destination) {
+        return mySimplex.getTableauRow(position, destination);
+    }
+
+    /**
+     * @param column A column index, model variables first and then a slack per constraint
+     * @return The current upper bound, possibly {@linkplain Double#POSITIVE_INFINITY}
+     */
+    public double getUpperBound(final int column) {
+        return mySimplex.getUpperBound(column);
+    }
+
+    /**
+     * The same as {@linkplain ExpressionsBasedModel#limitObjective(BigDecimal, BigDecimal)}, but here the
+     * limit is also used to stop the dual simplex as soon as it is passed. Use infinite values for no limit.
+     */
+    public void limitObjective(final double lower, final double upper) {
+        mySimplex.setObjectiveLimit(myMinimisation ? upper : -lower);
+    }
+
+    /**
+     * Reset all variable bounds to what they are in the model.
+     */
+    public void resetBounds() {
+        for (int j = 0; j < myVariablesCount; j++) {
+            mySimplex.setBounds(j, myLowerBounds[j], myUpperBounds[j]);
+        }
+    }
+
+    /**
+     * @param index The (model) variable index
+     * @param lower The new lower bound, or {@linkplain Double#NEGATIVE_INFINITY}
+     * @param upper The new upper bound, or {@linkplain Double#POSITIVE_INFINITY}
+     */
+    public void setBounds(final int index, final double lower, final double upper) {
+        mySimplex.setBounds(index, lower, upper);
+    }
+
+    /**
+     * Solve from scratch
+     */
+    public Optimisation.Result solve(final Optimisation.Result kickStarter) {
+        return this.solve((int[]) null);
+    }
+
+    /**
+     * @param basis A previous basis, as returned by {@link #getBasis()}, to start from (may be null)
+     * @return The solution (values for the model's variables) and the objective function value
+     */
+    public Optimisation.Result solve(final int[] basis) {
+
+        Optimisation.State tmpState = mySimplex.resolve(basis, myOptions.iterations_abort);
+
+        final double tmpValue = mySimplex.getValue();
+        if (tmpState.isFeasible() && !mySimplex.isWithinObjectiveLimit(tmpValue)) {
+            tmpState = Optimisation.State.INFEASIBLE;
+        }
+
+        final double[] tmpSolution = Arrays.copyOf(mySimplex.getSolution(), myVariablesCount);
+        for (int j = 0; j < myVariablesCount; j++) {
+            tmpSolution[j] = mySimplex.snapToBound(j, tmpSolution[j]);
+        }
+
+        return new Optimisation.Result(tmpState, myMinimisation ? tmpValue : -tmpValue, PrimitiveArray.wrap(tmpSolution));
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.stream.Collectors;
 
 import org.ojalgo.access.AccessUtils;
 import org.ojalgo.access.IntIndex;
+import org.ojalgo.matrix.store.CompressedStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PhysicalStore.Factory;
@@ -94,7 +95,7 @@ public abstract class LinearSolver extends BaseSolver {
 
             this.validate();
 
-            return new SimplexTableauSolver(this, options);
+            return new RevisedSimplexSolver(this, options);
         }
 
         @Override
@@ -147,11 +148,10 @@ public abstract class LinearSolver extends BaseSolver {
         final int[] tmpBasis = AccessUtils.makeIncreasingRange(-tmpConstraiCount, tmpConstraiCount);
 
         final PhysicalStore<Double> tmpC = FACTORY.makeZero(tmpTotalVarCount, 1);
-        final PhysicalStore<Double> tmpAE = FACTORY.makeZero(tmpConstraiCount, tmpTotalVarCount);
+        final CompressedStore.Builder tmpAE = CompressedStore.builder(tmpConstraiCount, tmpTotalVarCount, tmpTotalVarCount);
         final PhysicalStore<Double> tmpBE = FACTORY.makeZero(tmpConstraiCount, 1);
 
         destinationBuilder.objective(tmpC);
-        destinationBuilder.equalities(tmpAE, tmpBE);
 
         final int tmpPosVarsBaseIndex = 0;
         final int tmpNegVarsBaseIndex = tmpPosVarsBaseIndex + tmpPosVariables.size();
@@ -191,12 +191,12 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
                     }
                 }
 
@@ -210,12 +210,12 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
                     }
                 }
             }
@@ -232,7 +232,7 @@ public abstract class LinearSolver extends BaseSolver {
 
                 tmpBE.set(tmpConstrBaseIndex + c, 0, -tmpRHS);
                 tmpBasis[tmpConstrBaseIndex + c] = tmpCurrentSlackVarIndex;
-                tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
 
                 for (final IntIndex tmpKey : tmpExpr.getLinearKeySet()) {
 
@@ -240,19 +240,19 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
                     }
                 }
 
             } else {
 
                 tmpBE.set(tmpConstrBaseIndex + c, 0, tmpRHS);
-                tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
 
                 for (final IntIndex tmpKey : tmpExpr.getLinearKeySet()) {
 
@@ -260,12 +260,12 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
                     }
                 }
             }
@@ -281,7 +281,7 @@ public abstract class LinearSolver extends BaseSolver {
             if (tmpRHS < ZERO) {
 
                 tmpBE.set(tmpConstrBaseIndex + c, 0, -tmpRHS);
-                tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
 
                 for (final IntIndex tmpKey : tmpExpr.getLinearKeySet()) {
 
@@ -289,12 +289,12 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
                     }
                 }
 
@@ -302,7 +302,7 @@ public abstract class LinearSolver extends BaseSolver {
 
                 tmpBE.set(tmpConstrBaseIndex + c, 0, tmpRHS);
                 tmpBasis[tmpConstrBaseIndex + c] = tmpCurrentSlackVarIndex;
-                tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
 
                 for (final IntIndex tmpKey : tmpExpr.getLinearKeySet()) {
 
@@ -310,12 +310,12 @@ public abstract class LinearSolver extends BaseSolver {
 
                     final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey.index);
                     if (tmpPosInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
                     }
 
                     final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey.index);
                     if (tmpNegInd >= 0) {
-                        tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
+                        tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
                     }
                 }
             }
@@ -328,7 +328,7 @@ public abstract class LinearSolver extends BaseSolver {
             final Variable tmpVar = tmpVarsPosLo.get(c);
 
             tmpBE.set(tmpConstrBaseIndex + c, 0, tmpVar.getAdjustedLowerLimit());
-            tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
+            tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
 
             final int tmpKey = sourceModel.indexOf(tmpVar);
 
@@ -336,12 +336,12 @@ public abstract class LinearSolver extends BaseSolver {
 
             final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey);
             if (tmpPosInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
             }
 
             final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey);
             if (tmpNegInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
             }
 
         }
@@ -354,7 +354,7 @@ public abstract class LinearSolver extends BaseSolver {
 
             tmpBE.set(tmpConstrBaseIndex + c, 0, tmpVar.getAdjustedUpperLimit());
             tmpBasis[tmpConstrBaseIndex + c] = tmpCurrentSlackVarIndex;
-            tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
+            tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
 
             final int tmpKey = sourceModel.indexOf(tmpVar);
 
@@ -362,12 +362,12 @@ public abstract class LinearSolver extends BaseSolver {
 
             final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey);
             if (tmpPosInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, tmpFactor);
             }
 
             final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey);
             if (tmpNegInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, -tmpFactor);
             }
 
         }
@@ -380,7 +380,7 @@ public abstract class LinearSolver extends BaseSolver {
 
             tmpBE.set(tmpConstrBaseIndex + c, 0, -tmpVar.getAdjustedLowerLimit());
             tmpBasis[tmpConstrBaseIndex + c] = tmpCurrentSlackVarIndex;
-            tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
+            tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, ONE);
 
             final int tmpKey = sourceModel.indexOf(tmpVar);
 
@@ -388,12 +388,12 @@ public abstract class LinearSolver extends BaseSolver {
 
             final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey);
             if (tmpPosInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
             }
 
             final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey);
             if (tmpNegInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
             }
 
         }
@@ -405,7 +405,7 @@ public abstract class LinearSolver extends BaseSolver {
             final Variable tmpVar = tmpVarsNegUp.get(c);
 
             tmpBE.set(tmpConstrBaseIndex + c, 0, -tmpVar.getAdjustedUpperLimit());
-            tmpAE.set(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
+            tmpAE.add(tmpConstrBaseIndex + c, tmpCurrentSlackVarIndex++, NEG);
 
             final int tmpKey = sourceModel.indexOf(tmpVar);
 
@@ -413,17 +413,18 @@ public abstract class LinearSolver extends BaseSolver {
 
             final int tmpPosInd = sourceModel.indexOfPositiveVariable(tmpKey);
             if (tmpPosInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpPosVarsBaseIndex + tmpPosInd, -tmpFactor);
             }
 
             final int tmpNegInd = sourceModel.indexOfNegativeVariable(tmpKey);
             if (tmpNegInd >= 0) {
-                tmpAE.set(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
+                tmpAE.add(tmpConstrBaseIndex + c, tmpNegVarsBaseIndex + tmpNegInd, tmpFactor);
             }
 
         }
         tmpConstrBaseIndex += tmpVarsNegUpLength;
 
+        destinationBuilder.equalities(tmpAE.toColumnStore(), tmpBE);
     }
 
     public static LinearSolver.Builder getBuilder() {
@@ -0,0 +1,1102 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.optimisation.Optimisation;
+
+/**
+ * The revised simplex method, with a sparse LU ({@linkplain BasisFactorisation}) factorised basis, for problems
+ * of the form:
+ * <p>
+ * min [c]<sup>T</sup>[x]<br>
+ * when [A][x] == [b]<br>
+ * and [l] &lt;= [x] &lt;= [u]
+ * </p>
+ * Any of the bounds may be infinite. The columns of [A] are stored in compressed sparse column format and are
+ * only ever accessed one at the time. There is an artificial variable for each row, and phase 1 minimises the
+ * sum of those. The initial basis is made up of artificials and, where possible, singleton (slack) columns.
+ * Pricing is Dantzig's rule (largest reduced cost), switching to Bland's rule when stalling, and the ratio test
+ * is Harris' two-pass test with bound flipping.
+ * <p>
+ * After the bounds have been changed the problem can be re-optimised from a previous basis with the dual
+ * simplex method, see {@link #resolve(int[], int)}. The leaving variable is the most infeasible basic variable,
+ * and the (dual) ratio test is Harris' two-pass test.
+ * </p>
+ *
+ * @author apete
+ */
+final class RevisedSimplex {
+
+    /**
+     * The number of consecutive iterations, without any progress, before the dual simplex gives up
+     */
+    private static final int DUAL_STALLING = 1000;
+    private static final double DUAL_TOLERANCE = 1E-9;
+    private static final int FAILED = 3;
+    private static final double FEASIBILITY_TOLERANCE = 1E-8;
+    private static final int ITERATED = 0;
+    private static final int OPTIMAL = 1;
+    /**
+     * The min number of columns priced per iteration
+     */
+    private static final int PARTIAL_PRICING = 1000;
+    private static final double PIVOT_TOLERANCE = 1E-9;
+    private static final double PRIMAL_TOLERANCE = 1E-9;
+    /**
+     * The number of consecutive degenerate iterations before switching to Bland's rule
+     */
+    private static final int STALLING = 50;
+    private static final int UNBOUNDED = 2;
+
+    private final int[] myBasis;
+    private final double[] myColumn;
+    private final int myColumns;
+    private final double[] myCost;
+    private final double[] myDuals;
+    private final int[] myIndices;
+    private int myIterations = 0;
+    private double myLimit = POSITIVE_INFINITY;
+    private final double[] myLower;
+    private final BasisFactorisation myLU;
+    private boolean myPhase1 = false;
+    private final int[] myPointers;
+    private final int[] myPositions;
+    private int myPricing = 0;
+    private final double[] myReducedCosts;
+    private final double[] myRHS;
+    private final double[] myRho;
+    private final double[] myRow;
+    private final int myRows;
+    private final double myScale;
+    private double myStep = ZERO;
+    private final double[] myUpper;
+    private final double[] myValues;
+    private final double[] myX;
+
+    /**
+     * @param rows The number of rows (constraints)
+     * @param columns The number of columns (variables)
+     * @param pointers The first nonzero of each column, length: columns + 1
+     * @param indices The row index of each nonzero
+     * @param values The nonzero values
+     * @param rhs [b]
+     * @param cost [c]
+     * @param lower [l]
+     * @param upper [u]
+     */
+    RevisedSimplex(final int rows, final int columns, final int[] pointers, final int[] indices, final double[] values, final double[] rhs,
+            final double[] cost, final double[] lower, final double[] upper) {
+
+        super();
+
+        myRows = rows;
+        myColumns = columns;
+
+        final int tmpTotal = columns + rows;
+        final int tmpNonzeros = pointers[columns];
+
+        // The artificials are appended as unit columns
+        myPointers = Arrays.copyOf(pointers, tmpTotal + 1);
+        myIndices = Arrays.copyOf(indices, tmpNonzeros + rows);
+        myValues = Arrays.copyOf(values, tmpNonzeros + rows);
+        for (int i = 0; i < rows; i++) {
+            myPointers[columns + i + 1] = tmpNonzeros + i + 1;
+            myIndices[tmpNonzeros + i] = i;
+            myValues[tmpNonzeros + i] = ONE;
+        }
+
+        myRHS = Arrays.copyOf(rhs, rows);
+        myCost = Arrays.copyOf(cost, tmpTotal);
+        myLower = Arrays.copyOf(lower, tmpTotal);
+        myUpper = Arrays.copyOf(upper, tmpTotal);
+
+        double tmpLargest = ONE;
+        for (int i = 0; i < rows; i++) {
+            tmpLargest = Math.max(tmpLargest, Math.abs(rhs[i]));
+        }
+        for (int j = 0; j < columns; j++) {
+            if (lower[j] > NEGATIVE_INFINITY) {
+                tmpLargest = Math.max(tmpLargest, Math.abs(lower[j]));
+            }
+            if (upper[j] < POSITIVE_INFINITY) {
+                tmpLargest = Math.max(tmpLargest, Math.abs(upper[j]));
+            }
+        }
+        myScale = tmpLargest;
+
+        myBasis = new int[rows];
+        myPositions = new int[tmpTotal];
+        myX = new double[tmpTotal];
+
+        myColumn = new double[rows];
+        myDuals = new double[rows];
+        myRho = new double[rows];
+        myReducedCosts = new double[tmpTotal];
+        myRow = new double[tmpTotal];
+
+        myLU = new BasisFactorisation(rows);
+    }
+
+    /**
+     * A copy that shares the constraints' structure, the rhs and the cost with the template, but has its own
+     * bounds, basis and factorisation.
+     */
+    RevisedSimplex(final RevisedSimplex template) {
+
+        super();
+
+        myRows = template.myRows;
+        myColumns = template.myColumns;
+
+        final int tmpTotal = myColumns + myRows;
+
+        myPointers = template.myPointers;
+        myIndices = template.myIndices;
+        // The signs of the artificial variables' columns change
+        myValues = template.myValues.clone();
+
+        myRHS = template.myRHS;
+        myCost = template.myCost;
+        myLower = template.myLower.clone();
+        myUpper = template.myUpper.clone();
+        myScale = template.myScale;
+        myLimit = template.myLimit;
+
+        myBasis = new int[myRows];
+        myPositions = new int[tmpTotal];
+        myX = template.myX.clone();
+
+        myColumn = new double[myRows];
+        myDuals = new double[myRows];
+        myRho = new double[myRows];
+        myReducedCosts = new double[tmpTotal];
+        myRow = new double[tmpTotal];
+
+        myLU = new BasisFactorisation(myRows);
+    }
+
+    int countIterations() {
+        return myIterations;
+    }
+
+    /**
+     * @return The variable (column) index of each basis position, the artificial variable of row i is
+     *         represented by (i - rows).
+     */
+    int[] getBasis() {
+        final int[] retVal = new int[myRows];
+        this.getBasis(retVal);
+        return retVal;
+    }
+
+    /**
+     * The same as {@link #getBasis()}, but written to the supplied array (length: rows).
+     */
+    void getBasis(final int[] destination) {
+        for (int i = 0; i < myRows; i++) {
+            final int tmpColumn = myBasis[i];
+            destination[i] = tmpColumn < myColumns ? tmpColumn : tmpColumn - myColumns - myRows;
+        }
+    }
+
+    /**
+     * @return [y] where [B]<sup>T</sup>[y] = [c<sub>B</sub>]
+     */
+    double[] getDuals() {
+        this.computeDuals();
+        return Arrays.copyOf(myDuals, myRows);
+    }
+
+    /**
+     * @return [c] - [A]<sup>T</sup>[y]
+     */
+    double[] getReducedCosts() {
+        this.computeDuals();
+        final double[] retVal = new double[myColumns];
+        for (int j = 0; j < myColumns; j++) {
+            retVal[j] = this.reducedCost(j);
+        }
+        return retVal;
+    }
+
+    double getLowerBound(final int column) {
+        return myLower[column];
+    }
+
+    double[] getSolution() {
+        return Arrays.copyOf(myX, myColumns);
+    }
+
+    /**
+     * Row r of [B]<sup>-1</sup>[A] - the (simplex) tableau row of basis position r. Requires a factorised
+     * basis, as there is after a solve.
+     *
+     * @param position The basis position, r
+     * @param destination Length: columns (the artificial variables are excluded)
+     * @return The variable (column) index of the basic variable in that position, or -1 if it's an artificial
+     *         variable
+     */
+    int getTableauRow(final int position, final double[] destination) {
+
+        final double[] tmpRho = myRho;
+        Arrays.fill(tmpRho, ZERO);
+        tmpRho[position] = ONE;
+        myLU.btran(tmpRho);
+
+        for (int j = 0; j < myColumns; j++) {
+            double tmpAlpha = ZERO;
+            for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                tmpAlpha += tmpRho[myIndices[p]] * myValues[p];
+            }
+            destination[j] = tmpAlpha;
+        }
+
+        final int tmpBasic = myBasis[position];
+        return tmpBasic < myColumns ? tmpBasic : -1;
+    }
+
+    double getUpperBound(final int column) {
+        return myUpper[column];
+    }
+
+    /**
+     * @return [c]<sup>T</sup>[x]
+     */
+    double getValue() {
+        double retVal = ZERO;
+        for (int j = 0; j < myColumns; j++) {
+            retVal += myCost[j] * myX[j];
+        }
+        return retVal;
+    }
+
+    /**
+     * @see #setObjectiveLimit(double)
+     */
+    boolean isWithinObjectiveLimit(final double value) {
+        return value <= (myLimit + (DUAL_TOLERANCE * Math.max(ONE, Math.abs(myLimit))));
+    }
+
+    /**
+     * Re-optimise starting from a previous basis, typically after some bounds have been changed. If that basis
+     * is (or can be made, by moving nonbasic variables to their other bounds) dual feasible the dual simplex
+     * method is used, followed by a primal clean-up. Otherwise, or if the dual simplex fails, this is the same
+     * as {@link #solve(int)}.
+     *
+     * @param basis A basis as returned by {@link #getBasis()}, or null
+     * @param iterationsLimit The max number of iterations
+     */
+    Optimisation.State resolve(final int[] basis, final int iterationsLimit) {
+
+        myIterations = 0;
+        myPricing = 0;
+
+        if ((basis != null) && (basis.length == myRows) && this.restore(basis)) {
+
+            final Optimisation.State tmpState = this.dual(iterationsLimit);
+
+            if (tmpState == Optimisation.State.OPTIMAL) {
+                return this.primal(iterationsLimit);
+            } else if (tmpState == Optimisation.State.INFEASIBLE) {
+                return tmpState;
+            }
+        }
+
+        return this.solve(iterationsLimit);
+    }
+
+    void setBounds(final int column, final double lower, final double upper) {
+        myLower[column] = lower;
+        myUpper[column] = upper;
+    }
+
+    /**
+     * The dual simplex method stops, and reports the problem as infeasible, as soon as the objective function
+     * value exceeds this limit.
+     */
+    void setObjectiveLimit(final double limit) {
+        myLimit = limit;
+    }
+
+    /**
+     * Values of basic variables are calculated, and may be off by a rounding error. Within the (primal)
+     * tolerance of a bound, return the bound itself.
+     */
+    double snapToBound(final int column, final double value) {
+        final double tmpLower = myLower[column];
+        final double tmpUpper = myUpper[column];
+        if ((tmpLower > NEGATIVE_INFINITY) && (Math.abs(value - tmpLower) <= (PRIMAL_TOLERANCE * Math.max(ONE, Math.abs(tmpLower))))) {
+            return tmpLower;
+        } else if ((tmpUpper < POSITIVE_INFINITY) && (Math.abs(value - tmpUpper) <= (PRIMAL_TOLERANCE * Math.max(ONE, Math.abs(tmpUpper))))) {
+            return tmpUpper;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Solve from scratch - crash a starting basis and then run the primal simplex (phase 1 and 2).
+     *
+     * @param iterationsLimit The max number of iterations
+     */
+    Optimisation.State solve(final int iterationsLimit) {
+
+        myIterations = 0;
+        myPricing = 0;
+
+        this.crash();
+
+        return this.primal(iterationsLimit);
+    }
+
+    private void computeDuals() {
+        for (int i = 0; i < myRows; i++) {
+            myDuals[i] = this.cost(myBasis[i]);
+        }
+        myLU.btran(myDuals);
+    }
+
+    private void computePrimals() {
+
+        final double[] tmpWork = myColumn;
+        System.arraycopy(myRHS, 0, tmpWork, 0, myRows);
+
+        final int tmpTotal = myColumns + myRows;
+        for (int j = 0; j < tmpTotal; j++) {
+            final double tmpX = myX[j];
+            if ((myPositions[j] < 0) && (tmpX != ZERO)) {
+                for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                    tmpWork[myIndices[p]] -= myValues[p] * tmpX;
+                }
+            }
+        }
+
+        myLU.ftran(tmpWork);
+
+        for (int i = 0; i < myRows; i++) {
+            myX[myBasis[i]] = tmpWork[i];
+        }
+    }
+
+    private void computeReducedCosts() {
+        this.computeDuals();
+        final int tmpTotal = myColumns + myRows;
+        for (int j = 0; j < tmpTotal; j++) {
+            myReducedCosts[j] = myPositions[j] < 0 ? this.reducedCost(j) : ZERO;
+        }
+    }
+
+    private double cost(final int column) {
+        if (myPhase1) {
+            return column >= myColumns ? ONE : ZERO;
+        } else {
+            return myCost[column];
+        }
+    }
+
+    /**
+     * All structural variables nonbasic at a bound. Then, row by row, a singleton column that can take up the
+     * residual without violating its bounds is made basic, or else the row's artificial variable.
+     */
+    private void crash() {
+
+        Arrays.fill(myPositions, -1);
+        Arrays.fill(myBasis, -1);
+
+        // Independent of any previous solve
+        Arrays.fill(myX, 0, myColumns, ZERO);
+        for (int j = 0; j < myColumns; j++) {
+            myX[j] = this.getNonbasicValue(j);
+        }
+
+        final double[] tmpResidual = myColumn;
+        System.arraycopy(myRHS, 0, tmpResidual, 0, myRows);
+        for (int j = 0; j < myColumns; j++) {
+            final double tmpX = myX[j];
+            if (tmpX != ZERO) {
+                for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                    tmpResidual[myIndices[p]] -= myValues[p] * tmpX;
+                }
+            }
+        }
+
+        for (int j = 0; j < myColumns; j++) {
+            final int tmpFirst = myPointers[j];
+            if ((myPointers[j + 1] - tmpFirst) == 1) {
+                final int tmpRow = myIndices[tmpFirst];
+                final double tmpFactor = myValues[tmpFirst];
+                if ((myBasis[tmpRow] < 0) && (tmpFactor != ZERO)) {
+                    final double tmpValue = myX[j] + (tmpResidual[tmpRow] / tmpFactor);
+                    if (((myLower[j] - PRIMAL_TOLERANCE) <= tmpValue) && (tmpValue <= (myUpper[j] + PRIMAL_TOLERANCE))) {
+                        myBasis[tmpRow] = j;
+                        myPositions[j] = tmpRow;
+                        myX[j] = tmpValue;
+                        tmpResidual[tmpRow] = ZERO;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < myRows; i++) {
+            final int tmpArtificial = myColumns + i;
+            myLower[tmpArtificial] = ZERO;
+            myUpper[tmpArtificial] = POSITIVE_INFINITY;
+            if (myBasis[i] < 0) {
+                myValues[myPointers[tmpArtificial]] = tmpResidual[i] < ZERO ? NEG : ONE;
+                myBasis[i] = tmpArtificial;
+                myPositions[tmpArtificial] = i;
+                myX[tmpArtificial] = Math.abs(tmpResidual[i]);
+            } else {
+                myValues[myPointers[tmpArtificial]] = ONE;
+                myX[tmpArtificial] = ZERO;
+            }
+        }
+    }
+
+    private Optimisation.State dual(final int iterationsLimit) {
+
+        // The objective function value never decreases - stalling is measured as iterations without progress
+        double tmpProgress = NEGATIVE_INFINITY;
+        int tmpStalled = 0;
+
+        while (myIterations < iterationsLimit) {
+
+            final double tmpValue = this.getValue();
+
+            if ((myLimit < POSITIVE_INFINITY) && !this.isWithinObjectiveLimit(tmpValue)) {
+                return Optimisation.State.INFEASIBLE;
+            }
+
+            if (tmpValue > (tmpProgress + (DUAL_TOLERANCE * Math.max(ONE, Math.abs(tmpValue))))) {
+                tmpProgress = tmpValue;
+                tmpStalled = 0;
+            } else if (++tmpStalled > DUAL_STALLING) {
+                return Optimisation.State.FAILED;
+            }
+
+            final int tmpOutcome = this.iterateDual();
+
+            if (tmpOutcome == OPTIMAL) {
+                return Optimisation.State.OPTIMAL;
+            } else if (tmpOutcome == UNBOUNDED) {
+                // Dual unbounded
+                return Optimisation.State.INFEASIBLE;
+            } else if (tmpOutcome == FAILED) {
+                return Optimisation.State.FAILED;
+            }
+
+            myIterations++;
+        }
+
+        return Optimisation.State.FAILED;
+    }
+
+    /**
+     * Exchange the variable at a basis position, and update the factorisation.
+     *
+     * @param position The basis position where the exiting variable is replaced
+     * @param entering The entering variable
+     * @param alpha The entering column premultiplied by the inverse of the current basis
+     */
+    private void exchange(final int position, final int entering, final double[] alpha) {
+
+        myPositions[myBasis[position]] = -1;
+        myBasis[position] = entering;
+        myPositions[entering] = position;
+
+        myLU.update(position, alpha);
+    }
+
+    /**
+     * Phase 2 - the artificial variables are fixed at zero
+     */
+    private void fixArtificials() {
+        myPhase1 = false;
+        for (int j = myColumns, tmpLimit = myColumns + myRows; j < tmpLimit; j++) {
+            myUpper[j] = ZERO;
+            if (myPositions[j] < 0) {
+                myX[j] = ZERO;
+            }
+        }
+    }
+
+    /**
+     * The sum of the (absolute) artificial variable values
+     */
+    private double getInfeasibility() {
+        double retVal = ZERO;
+        for (int i = 0; i < myRows; i++) {
+            final int tmpColumn = myBasis[i];
+            if (tmpColumn >= myColumns) {
+                retVal += Math.abs(myX[tmpColumn]);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * The bound closest to the current value, or zero for free variables
+     */
+    private double getNonbasicValue(final int column) {
+
+        final double tmpLower = myLower[column];
+        final double tmpUpper = myUpper[column];
+
+        if (tmpLower > NEGATIVE_INFINITY) {
+            if ((tmpUpper < POSITIVE_INFINITY) && (Math.abs(tmpUpper - myX[column]) < Math.abs(myX[column] - tmpLower))) {
+                return tmpUpper;
+            } else {
+                return tmpLower;
+            }
+        } else if (tmpUpper < POSITIVE_INFINITY) {
+            return tmpUpper;
+        } else {
+            return ZERO;
+        }
+    }
+
+    /**
+     * Is the nonbasic variable at its upper bound (rather than at its lower bound, or free at zero)?
+     */
+    private boolean isAtUpper(final int column) {
+        return (myUpper[column] < POSITIVE_INFINITY) && (myX[column] == myUpper[column]);
+    }
+
+    /**
+     * Are the artificial variables (close enough to) zero?
+     */
+    private boolean isFeasible() {
+        return this.getInfeasibility() <= (FEASIBILITY_TOLERANCE * myScale);
+    }
+
+    /**
+     * One iteration of the dual simplex method. The reduced costs must be up to date, and dual feasible, when
+     * this is called - they are updated here.
+     */
+    private int iterateDual() {
+
+        // Pricing - the most infeasible basic variable leaves
+        int tmpLeaving = -1;
+        double tmpDelta = ZERO;
+        double tmpLargest = ZERO;
+
+        for (int i = 0; i < myRows; i++) {
+
+            final int tmpColumn = myBasis[i];
+            final double tmpX = myX[tmpColumn];
+            final double tmpLower = myLower[tmpColumn];
+            final double tmpUpper = myUpper[tmpColumn];
+
+            if ((tmpLower - tmpX) > (PRIMAL_TOLERANCE * Math.max(ONE, Math.abs(tmpLower)))) {
+                if ((tmpLower - tmpX) > tmpLargest) {
+                    tmpLeaving = i;
+                    tmpDelta = tmpX - tmpLower;
+                    tmpLargest = -tmpDelta;
+                }
+            } else if ((tmpX - tmpUpper) > (PRIMAL_TOLERANCE * Math.max(ONE, Math.abs(tmpUpper)))) {
+                if ((tmpX - tmpUpper) > tmpLargest) {
+                    tmpLeaving = i;
+                    tmpDelta = tmpX - tmpUpper;
+                    tmpLargest = tmpDelta;
+                }
+            }
+        }
+
+        if (tmpLeaving < 0) {
+            return OPTIMAL;
+        }
+
+        // The leaving variable goes to its lower bound (sign -1) or to its upper bound (sign +1)
+        final double tmpSign = tmpDelta < ZERO ? NEG : ONE;
+        final int tmpExiting = myBasis[tmpLeaving];
+
+        // The pivot row - row r of [B]^-1[A] - for the nonbasic (not fixed) columns
+        final double[] tmpRho = myRho;
+        Arrays.fill(tmpRho, ZERO);
+        tmpRho[tmpLeaving] = ONE;
+        myLU.btran(tmpRho);
+
+        final int tmpTotal = myColumns + myRows;
+        final double[] tmpRow = myRow;
+
+        // Harris' ratio test, pass 1: the max dual step with the reduced costs' signs relaxed by the tolerance
+        double tmpMaxStep = POSITIVE_INFINITY;
+        for (int j = 0; j < tmpTotal; j++) {
+
+            double tmpAlpha = ZERO;
+
+            if ((myPositions[j] < 0) && (myLower[j] != myUpper[j])) {
+
+                for (int p = myPointers[j], tmpLimit = myPointers[j + 1]; p < tmpLimit; p++) {
+                    tmpAlpha += tmpRho[myIndices[p]] * myValues[p];
+                }
+
+                final double tmpDirected = tmpSign * tmpAlpha;
+
+                if (Math.abs(tmpDirected) > PIVOT_TOLERANCE) {
+                    final double tmpReducedCost = myReducedCosts[j];
+                    if ((myLower[j] == NEGATIVE_INFINITY) && (myUpper[j] == POSITIVE_INFINITY)) {
+                        tmpMaxStep = Math.min(tmpMaxStep, (Math.abs(tmpReducedCost) + DUAL_TOLERANCE) / Math.abs(tmpDirected));
+                    } else if (this.isAtUpper(j)) {
+                        if (tmpDirected < ZERO) {
+                            tmpMaxStep = Math.min(tmpMaxStep, Math.max(ZERO, (tmpReducedCost - DUAL_TOLERANCE) / tmpDirected));
+                        }
+                    } else if (tmpDirected > ZERO) {
+                        tmpMaxStep = Math.min(tmpMaxStep, Math.max(ZERO, (tmpReducedCost + DUAL_TOLERANCE) / tmpDirected));
+                    }
+                }
+            }
+
+            tmpRow[j] = tmpAlpha;
+        }
+
+        if (tmpMaxStep >= POSITIVE_INFINITY) {
+            return UNBOUNDED;
+        }
+
+        // Pass 2: among the columns that block within that step, the largest pivot
+        int tmpEntering = -1;
+        double tmpStep = ZERO;
+        double tmpBest = ZERO;
+        for (int j = 0; j < tmpTotal; j++) {
+
+            final double tmpDirected = tmpSign * tmpRow[j];
+
+            if (Math.abs(tmpDirected) > PIVOT_TOLERANCE) {
+
+                final double tmpReducedCost = myReducedCosts[j];
+                double tmpRatio = POSITIVE_INFINITY;
+
+                if ((myLower[j] == NEGATIVE_INFINITY) && (myUpper[j] == POSITIVE_INFINITY)) {
+                    tmpRatio = Math.abs(tmpReducedCost) / Math.abs(tmpDirected);
+                } else if (this.isAtUpper(j)) {
+                    if (tmpDirected < ZERO) {
+                        tmpRatio = Math.max(ZERO, tmpReducedCost / tmpDirected);
+                    }
+                } else if (tmpDirected > ZERO) {
+                    tmpRatio = Math.max(ZERO, tmpReducedCost / tmpDirected);
+                }
+
+                if ((tmpRatio <= tmpMaxStep) && (Math.abs(tmpDirected) > tmpBest)) {
+                    tmpEntering = j;
+                    tmpStep = tmpRatio;
+                    tmpBest = Math.abs(tmpDirected);
+                }
+            }
+        }
+
+        if (tmpEntering < 0) {
+            return UNBOUNDED;
+        }
+
+        final double[] tmpAlpha = myColumn;
+        Arrays.fill(tmpAlpha, ZERO);
+        for (int p = myPointers[tmpEntering], tmpLimit = myPointers[tmpEntering + 1]; p < tmpLimit; p++) {
+            tmpAlpha[myIndices[p]] = myValues[p];
+        }
+        myLU.ftran(tmpAlpha);
+
+        final double tmpPivot = tmpAlpha[tmpLeaving];
+        if (Math.abs(tmpPivot) <= PIVOT_TOLERANCE) {
+            // The pivot row and column don't agree - refactorise and try again
+            this.refactorise();
+            return this.restoreDualFeasibility() ? ITERATED : FAILED;
+        }
+
+        // Dual step
+        if (tmpStep != ZERO) {
+            for (int j = 0; j < tmpTotal; j++) {
+                final double tmpVal = tmpRow[j];
+                if (tmpVal != ZERO) {
+                    myReducedCosts[j] -= tmpStep * tmpSign * tmpVal;
+                }
+            }
+        }
+        myReducedCosts[tmpExiting] = -tmpStep * tmpSign;
+        myReducedCosts[tmpEntering] = ZERO;
+
+        // Primal step - the leaving variable ends up at the bound it violated
+        final double tmpTheta = tmpDelta / tmpPivot;
+        for (int i = 0; i < myRows; i++) {
+            final double tmpVal = tmpAlpha[i];
+            if (tmpVal != ZERO) {
+                myX[myBasis[i]] -= tmpTheta * tmpVal;
+            }
+        }
+        myX[tmpEntering] += tmpTheta;
+        myX[tmpExiting] = tmpSign < ZERO ? myLower[tmpExiting] : myUpper[tmpExiting];
+
+        this.exchange(tmpLeaving, tmpEntering, tmpAlpha);
+
+        if (myLU.isRefactorisationRecommended()) {
+            this.refactorise();
+            if (!this.restoreDualFeasibility()) {
+                return FAILED;
+            }
+        }
+
+        return ITERATED;
+    }
+
+    private int iteratePrimal(final boolean bland) {
+
+        this.computeDuals();
+
+        final int tmpTotal = myColumns + myRows;
+
+        int tmpEntering = -1;
+        double tmpDirection = ZERO;
+        double tmpBest = ZERO;
+
+        // Partial pricing - scan the columns block by block, starting where the previous iteration stopped,
+        // until a block contains a candidate. With Bland's rule all columns are scanned from the first.
+        final int tmpBlockSize = bland ? tmpTotal : Math.max(PARTIAL_PRICING, tmpTotal / 16);
+        int tmpFirst = bland ? 0 : myPricing;
+        int tmpScanned = 0;
+
+        while ((tmpEntering < 0) && (tmpScanned < tmpTotal)) {
+
+            final int tmpCount = Math.min(tmpBlockSize, tmpTotal - tmpScanned);
+
+            for (int c = 0; c < tmpCount; c++) {
+
+                final int j = (tmpFirst + c) % tmpTotal;
+
+                final double tmpLower = myLower[j];
+                final double tmpUpper = myUpper[j];
+
+                if ((myPositions[j] < 0) && (tmpLower != tmpUpper)) {
+
+                    final double tmpReducedCost = this.reducedCost(j);
+                    final double tmpX = myX[j];
+
+                    if ((tmpReducedCost < -DUAL_TOLERANCE) && (tmpX < tmpUpper) && (-tmpReducedCost > tmpBest)) {
+                        tmpEntering = j;
+                        tmpDirection = ONE;
+                        tmpBest = -tmpReducedCost;
+                    } else if ((tmpReducedCost > DUAL_TOLERANCE) && (tmpX > tmpLower) && (tmpReducedCost > tmpBest)) {
+                        tmpEntering = j;
+                        tmpDirection = NEG;
+                        tmpBest = tmpReducedCost;
+                    }
+
+                    if (bland && (tmpEntering >= 0)) {
+                        break;
+                    }
+                }
+            }
+
+            tmpScanned += tmpCount;
+            tmpFirst = (tmpFirst + tmpCount) % tmpTotal;
+        }
+
+        myPricing = tmpFirst;
+
+        if (tmpEntering < 0) {
+            return OPTIMAL;
+        }
+
+        final double[] tmpAlpha = myColumn;
+        Arrays.fill(tmpAlpha, ZERO);
+        for (int p = myPointers[tmpEntering], tmpLimit = myPointers[tmpEntering + 1]; p < tmpLimit; p++) {
+            tmpAlpha[myIndices[p]] = myValues[p];
+        }
+        myLU.ftran(tmpAlpha);
+
+        // Harris' ratio test, pass 1: the max step with the bounds relaxed by the tolerance
+        final double tmpRange = myUpper[tmpEntering] - myLower[tmpEntering];
+        double tmpMaxStep = tmpRange;
+        for (int i = 0; i < myRows; i++) {
+            final double tmpDelta = -tmpDirection * tmpAlpha[i];
+            if (Math.abs(tmpDelta) > PIVOT_TOLERANCE) {
+                final int tmpColumn = myBasis[i];
+                if ((tmpDelta > ZERO) && (myUpper[tmpColumn] < POSITIVE_INFINITY)) {
+                    tmpMaxStep = Math.min(tmpMaxStep, Math.max(ZERO, ((myUpper[tmpColumn] + PRIMAL_TOLERANCE) - myX[tmpColumn]) / tmpDelta));
+                } else if ((tmpDelta < ZERO) && (myLower[tmpColumn] > NEGATIVE_INFINITY)) {
+                    tmpMaxStep = Math.min(tmpMaxStep, Math.max(ZERO, ((myX[tmpColumn] - myLower[tmpColumn]) + PRIMAL_TOLERANCE) / -tmpDelta));
+                }
+            }
+        }
+
+        if (tmpMaxStep >= POSITIVE_INFINITY) {
+            return UNBOUNDED;
+        }
+
+        // Pass 2: among the rows that block within that step, the largest pivot
+        int tmpLeaving = -1;
+        double tmpStep = tmpRange;
+        if (tmpRange > tmpMaxStep) {
+            double tmpLargest = ZERO;
+            for (int i = 0; i < myRows; i++) {
+                final double tmpDelta = -tmpDirection * tmpAlpha[i];
+                if (Math.abs(tmpDelta) > PIVOT_TOLERANCE) {
+                    final int tmpColumn = myBasis[i];
+                    double tmpRatio = POSITIVE_INFINITY;
+                    if ((tmpDelta > ZERO) && (myUpper[tmpColumn] < POSITIVE_INFINITY)) {
+                        tmpRatio = Math.max(ZERO, (myUpper[tmpColumn] - myX[tmpColumn]) / tmpDelta);
+                    } else if ((tmpDelta < ZERO) && (myLower[tmpColumn] > NEGATIVE_INFINITY)) {
+                        tmpRatio = Math.max(ZERO, (myX[tmpColumn] - myLower[tmpColumn]) / -tmpDelta);
+                    }
+                    if (tmpRatio <= tmpMaxStep) {
+                        final boolean tmpBetter = bland ? (tmpLeaving < 0) || (tmpColumn < myBasis[tmpLeaving]) : Math.abs(tmpDelta) > tmpLargest;
+                        if (tmpBetter) {
+                            tmpLeaving = i;
+                            tmpStep = tmpRatio;
+                            tmpLargest = Math.abs(tmpDelta);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (tmpStep != ZERO) {
+            for (int i = 0; i < myRows; i++) {
+                final double tmpVal = tmpAlpha[i];
+                if (tmpVal != ZERO) {
+                    myX[myBasis[i]] -= tmpDirection * tmpStep * tmpVal;
+                }
+            }
+        }
+        myStep = tmpStep;
+
+        if (tmpLeaving < 0) {
+            // Bound flip
+            myX[tmpEntering] = tmpDirection > ZERO ? myUpper[tmpEntering] : myLower[tmpEntering];
+            return ITERATED;
+        }
+
+        myX[tmpEntering] += tmpDirection * tmpStep;
+
+        final int tmpExiting = myBasis[tmpLeaving];
+        myX[tmpExiting] = (-tmpDirection * tmpAlpha[tmpLeaving]) > ZERO ? myUpper[tmpExiting] : myLower[tmpExiting];
+
+        this.pivot(tmpLeaving, tmpEntering, tmpAlpha);
+
+        return ITERATED;
+    }
+
+    /**
+     * @param position The basis position where the exiting variable is replaced
+     * @param entering The entering variable
+     * @param alpha The entering column premultiplied by the inverse of the current basis
+     */
+    private void pivot(final int position, final int entering, final double[] alpha) {
+
+        this.exchange(position, entering, alpha);
+
+        if (myLU.isRefactorisationRecommended()) {
+            this.refactorise();
+            if (!myPhase1 && !this.isFeasible()) {
+                this.releaseArtificials();
+            }
+        }
+    }
+
+    private Optimisation.State primal(final int iterationsLimit) {
+
+        this.refactorise();
+
+        if (this.isFeasible()) {
+            this.fixArtificials();
+        } else {
+            this.releaseArtificials();
+        }
+
+        int tmpDegenerate = 0;
+
+        while (myIterations < iterationsLimit) {
+
+            final int tmpOutcome = this.iteratePrimal(tmpDegenerate >= STALLING);
+
+            if (tmpOutcome == OPTIMAL) {
+
+                if (myPhase1) {
+                    if (this.isFeasible()) {
+                        this.fixArtificials();
+                        tmpDegenerate = 0;
+                    } else {
+                        return Optimisation.State.INFEASIBLE;
+                    }
+                } else {
+                    this.refactorise();
+                    if (this.isFeasible()) {
+                        return Optimisation.State.OPTIMAL;
+                    } else {
+                        this.releaseArtificials();
+                    }
+                }
+
+            } else if (tmpOutcome == UNBOUNDED) {
+
+                return myPhase1 ? Optimisation.State.FAILED : Optimisation.State.UNBOUNDED;
+
+            } else {
+
+                myIterations++;
+                tmpDegenerate = myStep <= PRIMAL_TOLERANCE ? tmpDegenerate + 1 : 0;
+            }
+        }
+
+        return myPhase1 ? Optimisation.State.FAILED : Optimisation.State.FEASIBLE;
+    }
+
+    private double reducedCost(final int column) {
+        double retVal = this.cost(column);
+        for (int p = myPointers[column], tmpLimit = myPointers[column + 1]; p < tmpLimit; p++) {
+            retVal -= myDuals[myIndices[p]] * myValues[p];
+        }
+        return retVal;
+    }
+
+    /**
+     * Factorise the current basis and recalculate the basic variables' values. Singular columns are replaced
+     * by artificial variables, and the artificials' signs are set so that their values are nonnegative.
+     */
+    private void refactorise() {
+
+        boolean tmpRepeat = false;
+
+        do {
+
+            while (!myLU.factorise(myBasis, myPointers, myIndices, myValues)) {
+                final int[] tmpRows = myLU.getUnpivotedRows();
+                for (int r = 0; r < tmpRows.length; r++) {
+                    final int tmpPosition = myLU.getRejectedPosition(r);
+                    final int tmpRejected = myBasis[tmpPosition];
+                    final int tmpArtificial = myColumns + tmpRows[r];
+                    myPositions[tmpRejected] = -1;
+                    myX[tmpRejected] = this.getNonbasicValue(tmpRejected);
+                    myBasis[tmpPosition] = tmpArtificial;
+                    myPositions[tmpArtificial] = tmpPosition;
+                }
+            }
+
+            this.computePrimals();
+
+            tmpRepeat = false;
+            for (int i = 0; i < myRows; i++) {
+                final int tmpColumn = myBasis[i];
+                if ((tmpColumn >= myColumns) && (myX[tmpColumn] < -PRIMAL_TOLERANCE)) {
+                    final int tmpPointer = myPointers[tmpColumn];
+                    myValues[tmpPointer] = -myValues[tmpPointer];
+                    tmpRepeat = true;
+                }
+            }
+
+        } while (tmpRepeat);
+    }
+
+    /**
+     * Back to phase 1 - the artificial variables may be positive
+     */
+    private void releaseArtificials() {
+        myPhase1 = true;
+        for (int j = myColumns, tmpLimit = myColumns + myRows; j < tmpLimit; j++) {
+            myUpper[j] = POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Install a previous basis, with the artificial variables fixed at zero, and make it dual feasible.
+     *
+     * @return true if the basis could be restored, and is dual feasible
+     */
+    private boolean restore(final int[] basis) {
+
+        myPhase1 = false;
+
+        final int tmpTotal = myColumns + myRows;
+
+        for (int j = myColumns; j < tmpTotal; j++) {
+            myLower[j] = ZERO;
+            myUpper[j] = ZERO;
+            myValues[myPointers[j]] = ONE;
+            myX[j] = ZERO;
+        }
+
+        Arrays.fill(myPositions, -1);
+        for (int i = 0; i < myRows; i++) {
+            final int tmpColumn = basis[i] >= 0 ? basis[i] : basis[i] + tmpTotal;
+            if ((tmpColumn < 0) || (tmpColumn >= tmpTotal) || (myPositions[tmpColumn] >= 0)) {
+                return false;
+            }
+            myBasis[i] = tmpColumn;
+            myPositions[tmpColumn] = i;
+        }
+
+        // Which bound a nonbasic variable is at should not depend on any previous solve
+        Arrays.fill(myX, 0, myColumns, ZERO);
+        for (int j = 0; j < myColumns; j++) {
+            if (myPositions[j] < 0) {
+                myX[j] = this.getNonbasicValue(j);
+            }
+        }
+
+        this.refactorise();
+
+        return this.restoreDualFeasibility();
+    }
+
+    /**
+     * Calculate the reduced costs, and move the nonbasic variables to the bounds that make them dual feasible.
+     *
+     * @return false if there is a dual infeasible variable that does not have the required bound
+     */
+    private boolean restoreDualFeasibility() {
+
+        this.computeReducedCosts();
+
+        boolean tmpMoved = false;
+
+        for (int j = 0, tmpLimit = myColumns + myRows; j < tmpLimit; j++) {
+            if ((myPositions[j] < 0) && (myLower[j] != myUpper[j])) {
+
+                final double tmpReducedCost = myReducedCosts[j];
+
+                double tmpValue = myX[j];
+                if (tmpReducedCost > DUAL_TOLERANCE) {
+                    tmpValue = myLower[j];
+                } else if (tmpReducedCost < -DUAL_TOLERANCE) {
+                    tmpValue = myUpper[j];
+                }
+
+                if (Double.isInfinite(tmpValue)) {
+                    return false;
+                } else if (tmpValue != myX[j]) {
+                    myX[j] = tmpValue;
+                    tmpMoved = true;
+                }
+            }
+        }
+
+        if (tmpMoved) {
+            this.computePrimals();
+        }
+
+        return true;
+    }
+
+}
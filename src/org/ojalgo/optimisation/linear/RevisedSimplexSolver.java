@@ -0,0 +1,153 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.matrix.store.CompressedColumnStore;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.optimisation.Optimisation;
+
+/**
+ * A {@linkplain LinearSolver} based on the {@linkplain RevisedSimplex} method. The constraints are kept in
+ * compressed sparse column format, and instead of a (dense) tableau there is a factorised basis. Memory use
+ * and the work per iteration scale with the number of nonzeros rather than the number of constraints times
+ * the number of variables.
+ *
+ * @author apete
+ */
+final class RevisedSimplexSolver extends LinearSolver {
+
+    private static final long serialVersionUID = 185908574191210715L;
+
+    private final RevisedSimplex mySimplex;
+
+    RevisedSimplexSolver(final LinearSolver.Builder matrices, final Optimisation.Options solverOptions) {
+
+        super(matrices, solverOptions);
+
+        final int tmpConstraintsCount = this.countConstraints();
+        final int tmpVariablesCount = this.countVariables();
+
+        final int[] tmpPointers = new int[tmpVariablesCount + 1];
+        int[] tmpIndices = new int[0];
+        double[] tmpValues = new double[0];
+        final double[] tmpRHS = new double[tmpConstraintsCount];
+
+        if (tmpConstraintsCount > 0) {
+
+            final CompressedColumnStore tmpAE = CompressedStore.builder(matrices.getAE()).toColumnStore();
+            tmpIndices = new int[tmpAE.countNonzeros()];
+            tmpValues = new double[tmpAE.countNonzeros()];
+            tmpAE.copyStructure(tmpPointers, tmpIndices, tmpValues);
+
+            final MatrixStore<Double> tmpBE = matrices.getBE();
+            for (int i = 0; i < tmpConstraintsCount; i++) {
+                tmpRHS[i] = tmpBE.doubleValue(i);
+            }
+        }
+
+        final MatrixStore<Double> tmpC = matrices.getC();
+        final double[] tmpCost = new double[tmpVariablesCount];
+        for (int j = 0; j < tmpVariablesCount; j++) {
+            tmpCost[j] = tmpC.doubleValue(j);
+        }
+
+        final double[] tmpLower = new double[tmpVariablesCount];
+        final double[] tmpUpper = new double[tmpVariablesCount];
+        Arrays.fill(tmpUpper, POSITIVE_INFINITY);
+
+        mySimplex = new RevisedSimplex(tmpConstraintsCount, tmpVariablesCount, tmpPointers, tmpIndices, tmpValues, tmpRHS, tmpCost, tmpLower, tmpUpper);
+    }
+
+    @Deprecated
+    @Override
+    public int[] getBasis() {
+        return mySimplex.getBasis();
+    }
+
+    @Deprecated
+    @Override
+    public double[] getDualVariables() {
+        return mySimplex.getDuals();
+    }
+
+    @Deprecated
+    @Override
+    public double[] getResidualCosts() {
+        return mySimplex.getReducedCosts();
+    }
+
+    public Result solve(final Result kickStarter) {
+
+        this.setState(mySimplex.solve(options.iterations_abort));
+
+        if (this.isDebug()) {
+            this.debug("Revised simplex: {} after {} iterations, basis: {}", this.getState(), mySimplex.countIterations(),
+                    Arrays.toString(mySimplex.getBasis()));
+        }
+
+        return this.buildResult();
+    }
+
+    @Override
+    protected double evaluateFunction(final Access1D<?> solution) {
+        return mySimplex.getValue();
+    }
+
+    @Override
+    protected PhysicalStore<Double> extractSolution() {
+
+        this.resetX();
+
+        final double[] tmpSolution = mySimplex.getSolution();
+        for (int j = 0; j < tmpSolution.length; j++) {
+            this.setX(j, tmpSolution[j]);
+        }
+
+        return this.getX();
+    }
+
+    @Override
+    protected boolean initialise(final Result kickStarter) {
+        return false;
+    }
+
+    @Override
+    protected boolean needsAnotherIteration() {
+        return false;
+    }
+
+    @Override
+    protected boolean validate() {
+
+        this.setState(State.VALID);
+
+        return true;
+    }
+
+}
@@ -30,6 +30,15 @@ import org.ojalgo.type.TypeUtils;
 import org.ojalgo.type.context.NumberContext;
 import org.ojalgo.type.context.NumberContext.Enforceable;
 
+/**
+ * An exact rational number. As long as the (reduced) numerator and denominator both fit in a long that's how
+ * they're stored, and arithmetic is done with overflow checked long operations. Only when a result doesn't
+ * fit is it (transparently) promoted to {@linkplain BigInteger} form, and a BigInteger result that fits is
+ * demoted back again. The form is determined by the magnitude of the numbers only, and never affects
+ * equality.
+ *
+ * @author apete
+ */
 public final class RationalNumber extends Number implements Scalar<RationalNumber>, Enforceable<RationalNumber> {
 
     public static final Scalar.Factory<RationalNumber> FACTORY = new Scalar.Factory<RationalNumber>() {
@@ -70,6 +79,10 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     private static final String DIVIDE = " / ";
     private static final String LEFT = "(";
+    /**
+     * 2^53 - every long of no greater magnitude is exactly representable as a double
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
     private static final String RIGHT = ")";
 
     /**
@@ -141,28 +154,45 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     public static RationalNumber of(final long numerator, final long denominator) {
 
-        BigInteger tmpNumerator;
-        BigInteger tmpDenominator;
+        if (denominator != 0L) {
+            try {
+                return RationalNumber.reduce(numerator, denominator);
+            } catch (final ArithmeticException overflow) {
+                // Long.MIN_VALUE can't be negated
+            }
+        }
 
-        long tmpGCD = RationalNumber.gcd(numerator, denominator);
+        final BigInteger tmpNumerator = BigInteger.valueOf(numerator);
+        final BigInteger tmpDenominator = BigInteger.valueOf(denominator);
 
-        if (denominator < 0L) {
-            tmpGCD = -tmpGCD;
-        }
+        final BigInteger tmpGCD = tmpNumerator.gcd(tmpDenominator);
 
-        if (tmpGCD != 1L) {
-            tmpNumerator = BigInteger.valueOf(numerator / tmpGCD);
-            tmpDenominator = BigInteger.valueOf(denominator / tmpGCD);
+        if (tmpGCD.compareTo(BigInteger.ONE) == 1) {
+            return new RationalNumber(tmpNumerator.divide(tmpGCD), tmpDenominator.divide(tmpGCD));
         } else {
-            tmpNumerator = BigInteger.valueOf(numerator);
-            tmpDenominator = BigInteger.valueOf(denominator);
+            return new RationalNumber(tmpNumerator, tmpDenominator);
         }
+    }
 
-        return new RationalNumber(tmpNumerator, tmpDenominator);
+    /**
+     * Skips the gcd calculation and the sign normalisation that {@link #of(long, long)} does. Intended for
+     * (long) pairs that already are the numerator and denominator of a {@linkplain #isCompact() compact}
+     * number - such as those {@linkplain org.ojalgo.array.RationalArray} stores. In all other cases use
+     * {@link #of(long, long)}.
+     *
+     * @param numerator Reduced, relatively prime to the denominator
+     * @param denominator Reduced, must not be negative
+     */
+    public static RationalNumber ofReduced(final long numerator, final long denominator) {
+        return new RationalNumber(numerator, denominator);
     }
 
     public static RationalNumber valueOf(final double value) {
-        return RationalNumber.valueOf(BigDecimal.valueOf(value));
+        if ((value == Math.rint(value)) && (Math.abs(value) <= MAX_EXACT_DOUBLE)) {
+            return new RationalNumber((long) value, 1L);
+        } else {
+            return RationalNumber.valueOf(BigDecimal.valueOf(value));
+        }
     }
 
     public static RationalNumber valueOf(final Number number) {
@@ -173,6 +203,10 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
                 return (RationalNumber) number;
 
+            } else if ((number instanceof Long) || (number instanceof Integer) || (number instanceof Short) || (number instanceof Byte)) {
+
+                return new RationalNumber(number.longValue(), 1L);
+
             } else {
 
                 final BigDecimal tmpBigDecimal = TypeUtils.toBigDecimal(number);
@@ -212,6 +246,81 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
         }
     }
 
+    /**
+     * (n1/d1) + (n2/d2) with d1 and d2 positive and both fractions reduced. Dividing out gcd(d1,d2) first
+     * keeps the intermediate results small, and the result is reduced without a gcd of the full products.
+     *
+     * @throws ArithmeticException if anything overflows
+     */
+    private static RationalNumber add(final long n1, final long d1, final long n2, final long d2) {
+
+        final long tmpGCD = RationalNumber.gcdExact(d1, d2);
+
+        final long tmpD1 = d1 / tmpGCD;
+        final long tmpD2 = d2 / tmpGCD;
+
+        final long tmpNumer = Math.addExact(Math.multiplyExact(n1, tmpD2), Math.multiplyExact(n2, tmpD1));
+
+        final long tmpGCD2 = RationalNumber.gcdExact(tmpNumer, tmpGCD);
+
+        return new RationalNumber(tmpNumer / tmpGCD2, Math.multiplyExact(tmpD1, d2 / tmpGCD2));
+    }
+
+    /**
+     * Euclid's algorithm, returning the other value if one is zero.
+     *
+     * @throws ArithmeticException if either value is Long.MIN_VALUE
+     */
+    private static long gcdExact(final long value1, final long value2) {
+
+        long tmpMax = Math.abs(value1);
+        long tmpMin = Math.abs(value2);
+
+        if ((tmpMax < 0L) || (tmpMin < 0L)) {
+            throw new ArithmeticException();
+        }
+
+        while (tmpMin != 0L) {
+            final long tmpRem = tmpMax % tmpMin;
+            tmpMax = tmpMin;
+            tmpMin = tmpRem;
+        }
+
+        return tmpMax;
+    }
+
+    /**
+     * (n1/d1) * (n2/d2) with d1 and d2 positive and both fractions reduced. Cross cancelling before
+     * multiplying means the result is reduced.
+     *
+     * @throws ArithmeticException if anything overflows
+     */
+    private static RationalNumber multiply(final long n1, final long d1, final long n2, final long d2) {
+
+        final long tmpGCD1 = RationalNumber.gcdExact(n1, d2);
+        final long tmpGCD2 = RationalNumber.gcdExact(n2, d1);
+
+        final long tmpNumer = Math.multiplyExact(n1 / tmpGCD1, n2 / tmpGCD2);
+        final long tmpDenom = Math.multiplyExact(d1 / tmpGCD2, d2 / tmpGCD1);
+
+        return new RationalNumber(tmpNumer, tmpDenom);
+    }
+
+    /**
+     * @param denominator Must not be 0
+     * @throws ArithmeticException if anything overflows
+     */
+    private static RationalNumber reduce(final long numerator, final long denominator) {
+
+        final long tmpGCD = RationalNumber.gcdExact(numerator, denominator);
+
+        if (denominator < 0L) {
+            return new RationalNumber(Math.negateExact(numerator / tmpGCD), Math.negateExact(denominator / tmpGCD));
+        } else {
+            return new RationalNumber(numerator / tmpGCD, denominator / tmpGCD);
+        }
+    }
+
     private static String toString(final RationalNumber aNmbr) {
 
         final StringBuilder retVal = new StringBuilder(LEFT);
@@ -225,40 +334,79 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     private transient BigDecimal myDecimal = null;
 
+    /**
+     * null when the number is compact
+     */
     private final BigInteger myDenominator;
+    private final long myLongDenominator;
+    private final long myLongNumerator;
+    /**
+     * null when the number is compact
+     */
     private final BigInteger myNumerator;
 
     private RationalNumber() {
-        this(BigInteger.ZERO, BigInteger.ONE);
+        this(0L, 1L);
     }
 
     private RationalNumber(final BigInteger numerator, final BigInteger denominator) {
 
         super();
 
-        if (denominator.signum() >= 0) {
-            myNumerator = numerator;
-            myDenominator = denominator;
+        final BigInteger tmpNumerator = denominator.signum() >= 0 ? numerator : numerator.negate();
+        final BigInteger tmpDenominator = denominator.signum() >= 0 ? denominator : denominator.negate();
+
+        if ((tmpNumerator.bitLength() < Long.SIZE) && (tmpDenominator.bitLength() < Long.SIZE)) {
+            myNumerator = null;
+            myDenominator = null;
+            myLongNumerator = tmpNumerator.longValue();
+            myLongDenominator = tmpDenominator.longValue();
         } else {
-            myNumerator = numerator.negate();
-            myDenominator = denominator.negate();
+            myNumerator = tmpNumerator;
+            myDenominator = tmpDenominator;
+            myLongNumerator = 0L;
+            myLongDenominator = 0L;
         }
     }
 
+    /**
+     * @param denominator Must not be negative
+     */
+    private RationalNumber(final long numerator, final long denominator) {
+
+        super();
+
+        myNumerator = null;
+        myDenominator = null;
+        myLongNumerator = numerator;
+        myLongDenominator = denominator;
+    }
+
     public RationalNumber add(final double arg) {
         return this.add(RationalNumber.valueOf(arg));
     }
 
     public RationalNumber add(final RationalNumber arg) {
 
-        if (myDenominator.equals(arg.getDenominator())) {
+        if (this.isFinite() && arg.isFinite()) {
+            try {
+                return RationalNumber.add(myLongNumerator, myLongDenominator, arg.myLongNumerator, arg.myLongDenominator);
+            } catch (final ArithmeticException overflow) {
+                // Continue with BigInteger
+            }
+        }
+
+        final BigInteger tmpMyNumerator = this.getNumerator();
+        final BigInteger tmpMyDenominator = this.getDenominator();
+
+        if (tmpMyDenominator.equals(arg.getDenominator())) {
 
-            return new RationalNumber(myNumerator.add(arg.getNumerator()), myDenominator);
+            return new RationalNumber(tmpMyNumerator.add(arg.getNumerator()), tmpMyDenominator);
 
         } else {
 
-            final BigInteger tmpNumer = myNumerator.multiply(arg.getDenominator()).add(arg.getNumerator().multiply(myDenominator));
-            final BigInteger tmpDenom = myDenominator.multiply(arg.getDenominator());
+            final BigInteger tmpNumer = tmpMyNumerator.multiply(arg.getDenominator()).add(arg.getNumerator().multiply(tmpMyDenominator));
+            final BigInteger tmpDenom = tmpMyDenominator.multiply(arg.getDenominator());
 
             final BigInteger tmpGCD = tmpNumer.gcd(tmpDenom);
 
@@ -271,6 +419,14 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
     }
 
     public int compareTo(final RationalNumber reference) {
+        if (this.isFinite() && reference.isFinite()) {
+            try {
+                return Long.compare(Math.multiplyExact(myLongNumerator, reference.myLongDenominator),
+                        Math.multiplyExact(reference.myLongNumerator, myLongDenominator));
+            } catch (final ArithmeticException overflow) {
+                // Continue with BigDecimal
+            }
+        }
         return this.toBigDecimal().compareTo(reference.toBigDecimal());
     }
 
@@ -284,18 +440,34 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     public RationalNumber divide(final RationalNumber arg) {
 
-        if (myNumerator.equals(arg.getNumerator())) {
+        if (this.isFinite() && arg.isFinite() && (arg.myLongNumerator != 0L)) {
+            try {
+                if (arg.myLongNumerator < 0L) {
+                    return RationalNumber.multiply(myLongNumerator, myLongDenominator, Math.negateExact(arg.myLongDenominator),
+                            Math.negateExact(arg.myLongNumerator));
+                } else {
+                    return RationalNumber.multiply(myLongNumerator, myLongDenominator, arg.myLongDenominator, arg.myLongNumerator);
+                }
+            } catch (final ArithmeticException overflow) {
+                // Continue with BigInteger
+            }
+        }
+
+        final BigInteger tmpMyNumerator = this.getNumerator();
+        final BigInteger tmpMyDenominator = this.getDenominator();
 
-            return new RationalNumber(arg.getDenominator(), myDenominator);
+        if (tmpMyNumerator.equals(arg.getNumerator())) {
 
-        } else if (myDenominator.equals(arg.getDenominator())) {
+            return new RationalNumber(arg.getDenominator(), tmpMyDenominator);
 
-            return new RationalNumber(myNumerator, arg.getNumerator());
+        } else if (tmpMyDenominator.equals(arg.getDenominator())) {
+
+            return new RationalNumber(tmpMyNumerator, arg.getNumerator());
 
         } else {
 
-            final BigInteger tmpNumer = myNumerator.multiply(arg.getDenominator());
-            final BigInteger tmpDenom = myDenominator.multiply(arg.getNumerator());
+            final BigInteger tmpNumer = tmpMyNumerator.multiply(arg.getDenominator());
+            final BigInteger tmpDenom = tmpMyDenominator.multiply(arg.getNumerator());
 
             final BigInteger tmpGCD = tmpNumer.gcd(tmpDenom);
 
@@ -309,7 +481,12 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     @Override
     public double doubleValue() {
-        return this.toBigDecimal().doubleValue();
+        if (this.isFinite() && (Math.abs(myLongNumerator) <= MAX_EXACT_DOUBLE) && (myLongDenominator <= MAX_EXACT_DOUBLE)) {
+            // Both exactly representable - a single correctly rounded division
+            return (double) myLongNumerator / (double) myLongDenominator;
+        } else {
+            return this.toBigDecimal().doubleValue();
+        }
     }
 
     public RationalNumber enforce(final NumberContext context) {
@@ -328,6 +505,9 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
             return false;
         }
         final RationalNumber other = (RationalNumber) obj;
+        if ((myLongNumerator != other.myLongNumerator) || (myLongDenominator != other.myLongDenominator)) {
+            return false;
+        }
         if (myDenominator == null) {
             if (other.myDenominator != null) {
                 return false;
@@ -358,8 +538,8 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = (prime * result) + ((myDenominator == null) ? 0 : myDenominator.hashCode());
-        result = (prime * result) + ((myNumerator == null) ? 0 : myNumerator.hashCode());
+        result = (prime * result) + ((myDenominator == null) ? Long.hashCode(myLongDenominator) : myDenominator.hashCode());
+        result = (prime * result) + ((myNumerator == null) ? Long.hashCode(myLongNumerator) : myNumerator.hashCode());
         return result;
     }
 
@@ -369,17 +549,57 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
     }
 
     public RationalNumber invert() {
-        return new RationalNumber(myDenominator, myNumerator);
+        if (this.isCompact() && (myLongNumerator > 0L)) {
+            return new RationalNumber(myLongDenominator, myLongNumerator);
+        } else {
+            return new RationalNumber(this.getDenominator(), this.getNumerator());
+        }
     }
 
     public boolean isAbsolute() {
-        return (myNumerator.signum() >= 0) && (myDenominator.signum() > 0);
+        if (this.isCompact()) {
+            return (myLongNumerator >= 0L) && (myLongDenominator > 0L);
+        } else {
+            return (myNumerator.signum() >= 0) && (myDenominator.signum() > 0);
+        }
+    }
+
+    /**
+     * @return true if both the numerator and the denominator fit in a long, and are available from
+     *         {@linkplain #longNumerator()} and {@linkplain #longDenominator()}
+     */
+    public boolean isCompact() {
+        return myNumerator == null;
     }
 
     public boolean isSmall(final double comparedTo) {
         return BigScalar.CONTEXT.isSmall(comparedTo, this.doubleValue());
     }
 
+    /**
+     * @return The denominator (always >= 0)
+     * @throws ArithmeticException if the number is not {@linkplain #isCompact() compact}
+     */
+    public long longDenominator() {
+        if (this.isCompact()) {
+            return myLongDenominator;
+        } else {
+            throw new ArithmeticException("Not compact!");
+        }
+    }
+
+    /**
+     * @return The numerator
+     * @throws ArithmeticException if the number is not {@linkplain #isCompact() compact}
+     */
+    public long longNumerator() {
+        if (this.isCompact()) {
+            return myLongNumerator;
+        } else {
+            throw new ArithmeticException("Not compact!");
+        }
+    }
+
     @Override
     public long longValue() {
         return this.toBigDecimal().longValue();
@@ -391,18 +611,29 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     public RationalNumber multiply(final RationalNumber arg) {
 
-        if (myNumerator.equals(arg.getDenominator())) {
+        if (this.isFinite() && arg.isFinite()) {
+            try {
+                return RationalNumber.multiply(myLongNumerator, myLongDenominator, arg.myLongNumerator, arg.myLongDenominator);
+            } catch (final ArithmeticException overflow) {
+                // Continue with BigInteger
+            }
+        }
+
+        final BigInteger tmpMyNumerator = this.getNumerator();
+        final BigInteger tmpMyDenominator = this.getDenominator();
+
+        if (tmpMyNumerator.equals(arg.getDenominator())) {
 
-            return new RationalNumber(arg.getNumerator(), myDenominator);
+            return new RationalNumber(arg.getNumerator(), tmpMyDenominator);
 
-        } else if (myDenominator.equals(arg.getNumerator())) {
+        } else if (tmpMyDenominator.equals(arg.getNumerator())) {
 
-            return new RationalNumber(myNumerator, arg.getDenominator());
+            return new RationalNumber(tmpMyNumerator, arg.getDenominator());
 
         } else {
 
-            final BigInteger tmpNumer = myNumerator.multiply(arg.getNumerator());
-            final BigInteger tmpDenom = myDenominator.multiply(arg.getDenominator());
+            final BigInteger tmpNumer = tmpMyNumerator.multiply(arg.getNumerator());
+            final BigInteger tmpDenom = tmpMyDenominator.multiply(arg.getDenominator());
 
             final BigInteger tmpGCD = tmpNumer.gcd(tmpDenom);
 
@@ -415,7 +646,11 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
     }
 
     public RationalNumber negate() {
-        return new RationalNumber(myNumerator.negate(), myDenominator);
+        if (this.isCompact() && (myLongNumerator != Long.MIN_VALUE)) {
+            return new RationalNumber(-myLongNumerator, myLongDenominator);
+        } else {
+            return new RationalNumber(this.getNumerator().negate(), this.getDenominator());
+        }
     }
 
     public double norm() {
@@ -438,14 +673,25 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
 
     public RationalNumber subtract(final RationalNumber arg) {
 
-        if (myDenominator.equals(arg.getDenominator())) {
+        if (this.isFinite() && arg.isFinite()) {
+            try {
+                return RationalNumber.add(myLongNumerator, myLongDenominator, Math.negateExact(arg.myLongNumerator), arg.myLongDenominator);
+            } catch (final ArithmeticException overflow) {
+                // Continue with BigInteger
+            }
+        }
 
-            return new RationalNumber(myNumerator.subtract(arg.getNumerator()), myDenominator);
+        final BigInteger tmpMyNumerator = this.getNumerator();
+        final BigInteger tmpMyDenominator = this.getDenominator();
+
+        if (tmpMyDenominator.equals(arg.getDenominator())) {
+
+            return new RationalNumber(tmpMyNumerator.subtract(arg.getNumerator()), tmpMyDenominator);
 
         } else {
 
-            final BigInteger tmpNumer = myNumerator.multiply(arg.getDenominator()).subtract(arg.getNumerator().multiply(myDenominator));
-            final BigInteger tmpDenom = myDenominator.multiply(arg.getDenominator());
+            final BigInteger tmpNumer = tmpMyNumerator.multiply(arg.getDenominator()).subtract(arg.getNumerator().multiply(tmpMyDenominator));
+            final BigInteger tmpDenom = tmpMyDenominator.multiply(arg.getDenominator());
 
             final BigInteger tmpGCD = tmpNumer.gcd(tmpDenom);
 
@@ -473,20 +719,35 @@ public final class RationalNumber extends Number implements Scalar<RationalNumbe
         return RationalNumber.toString(this.enforce(context));
     }
 
+    /**
+     * Compact and with a non-zero denominator - the long arithmetic fast paths apply.
+     */
+    private boolean isFinite() {
+        return (myNumerator == null) && (myLongDenominator != 0L);
+    }
+
     private int sign() {
-        return myNumerator.signum() * myDenominator.signum();
+        if (this.isCompact()) {
+            return Long.signum(myLongNumerator) * Long.signum(myLongDenominator);
+        } else {
+            return myNumerator.signum() * myDenominator.signum();
+        }
     }
 
     private BigDecimal toBigDecimal(final MathContext context) {
-        return new BigDecimal(myNumerator).divide(new BigDecimal(myDenominator), context);
+        if (this.isCompact()) {
+            return BigDecimal.valueOf(myLongNumerator).divide(BigDecimal.valueOf(myLongDenominator), context);
+        } else {
+            return new BigDecimal(myNumerator).divide(new BigDecimal(myDenominator), context);
+        }
     }
 
     BigInteger getDenominator() {
-        return myDenominator;
+        return myDenominator != null ? myDenominator : BigInteger.valueOf(myLongDenominator);
     }
 
     BigInteger getNumerator() {
-        return myNumerator;
+        return myNumerator != null ? myNumerator : BigInteger.valueOf(myLongNumerator);
     }
 
 }
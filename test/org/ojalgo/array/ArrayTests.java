@@ -41,10 +41,15 @@ public abstract class ArrayTests extends FunctionalityTest {
         suite.addTestSuite(AggregatorCardinality.class);
         suite.addTestSuite(AggregatorProduct.class);
         suite.addTestSuite(AggregatorSum.class);
+        suite.addTestSuite(BinaryFormatTest.class);
         suite.addTestSuite(ArrayStructureTest.class);
+        suite.addTestSuite(ComplexArrayTest.class);
+        suite.addTestSuite(PrimitiveArrayTest.class);
+        suite.addTestSuite(RationalArrayTest.class);
         suite.addTestSuite(BufferArrayTest.class);
         suite.addTestSuite(SegmentedArrayTest.class);
         suite.addTestSuite(SetGetTest.class);
+        suite.addTestSuite(SparseArrayTest.class);
         //$JUnit-END$
         return suite;
     }
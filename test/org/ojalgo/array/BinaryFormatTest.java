@@ -0,0 +1,131 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.ComplexNumber;
+
+/**
+ * Write/read round trips, and zero-copy mapping, of the {@linkplain BinaryFormat}.
+ *
+ * @author apete
+ */
+public class BinaryFormatTest extends ArrayTests {
+
+    public BinaryFormatTest() {
+        super();
+    }
+
+    public BinaryFormatTest(final String aName) {
+        super(aName);
+    }
+
+    public void testHeader() throws IOException {
+
+        final ByteArrayOutputStream tmpOutput = new ByteArrayOutputStream();
+        BinaryFormat.write(Array1D.PRIMITIVE.makeZero(3), tmpOutput);
+
+        final byte[] tmpBytes = tmpOutput.toByteArray();
+        TestUtils.assertEquals(24 + 8 + (3 * 8), tmpBytes.length);
+        // Little-endian
+        TestUtils.assertEquals(BinaryFormat.VERSION, tmpBytes[4]);
+
+        tmpBytes[0]++;
+        try {
+            BinaryFormat.read(new ByteArrayInputStream(tmpBytes), Array1D.PRIMITIVE);
+            TestUtils.fail();
+        } catch (final IOException expected) {
+            // Not the right magic number
+        }
+        tmpBytes[0]--;
+
+        // Layout, element type and rank are range checked
+        for (final int[] tmpCorruption : new int[][] { { 6, 0 }, { 6, 9 }, { 7, 0 }, { 7, 9 }, { 11, -1 } }) {
+            final byte[] tmpCorrupt = tmpBytes.clone();
+            tmpCorrupt[tmpCorruption[0]] = (byte) tmpCorruption[1];
+            try {
+                BinaryFormat.read(new ByteArrayInputStream(tmpCorrupt), Array1D.PRIMITIVE);
+                TestUtils.fail();
+            } catch (final IOException expected) {
+                // Not a valid header
+            }
+        }
+    }
+
+    public void testMapped() throws IOException {
+
+        final File tmpFile = File.createTempFile("BinaryFormatTest", ".bin");
+        tmpFile.deleteOnExit();
+
+        // Larger than BufferArray.MAX so that it is segmented
+        final ArrayAnyD<Double> tmpArray = ArrayAnyD.PRIMITIVE.makeFilled(new long[] { 7, 11, 5 }, new Normal());
+        BinaryFormat.write(tmpArray, new FileOutputStream(tmpFile));
+
+        final ArrayAnyD<Double> tmpMapped = BinaryFormat.mapAnyD(tmpFile);
+        TestUtils.assertEquals(tmpArray.count(), tmpMapped.count());
+        for (long i = 0L; i < tmpArray.count(); i++) {
+            TestUtils.assertEquals(tmpArray.doubleValue(i), tmpMapped.doubleValue(i));
+        }
+
+        tmpMapped.set(100L, 3.0);
+        TestUtils.assertEquals(3.0, BinaryFormat.map1D(tmpFile).doubleValue(100L));
+        TestUtils.assertEquals(3.0, BinaryFormat.map2D(tmpFile).doubleValue(100L % 7L, 100L / 7L));
+    }
+
+    public void testRoundTrips() throws IOException {
+
+        final Array1D<Double> tmpPrimitive = Array1D.PRIMITIVE.makeFilled(300, new Normal());
+        final Array1D<Double> tmpPrimitiveCopy = BinaryFormat.read(this.write(tmpPrimitive), Array1D.PRIMITIVE);
+        TestUtils.assertEquals(tmpPrimitive, tmpPrimitiveCopy);
+
+        final Array2D<ComplexNumber> tmpComplex = Array2D.COMPLEX.makeFilled(4, 9, new Normal());
+        tmpComplex.set(2, 3, ComplexNumber.of(1.0, -2.0));
+        final Array2D<ComplexNumber> tmpComplexCopy = BinaryFormat.read(this.write(tmpComplex), Array2D.COMPLEX);
+        TestUtils.assertEquals(tmpComplex.countRows(), tmpComplexCopy.countRows());
+        TestUtils.assertEquals(tmpComplex.countColumns(), tmpComplexCopy.countColumns());
+        for (long i = 0L; i < tmpComplex.count(); i++) {
+            TestUtils.assertEquals(tmpComplex.get(i), tmpComplexCopy.get(i));
+        }
+
+        final ArrayAnyD<Double> tmpAnyD = ArrayAnyD.PRIMITIVE.makeFilled(new long[] { 2, 3, 4, 5 }, new Normal());
+        final ArrayAnyD<Double> tmpAnyDCopy = BinaryFormat.read(this.write(tmpAnyD), ArrayAnyD.PRIMITIVE);
+        TestUtils.assertEquals(tmpAnyD.shape(), tmpAnyDCopy.shape());
+        for (long i = 0L; i < tmpAnyD.count(); i++) {
+            TestUtils.assertEquals(tmpAnyD.doubleValue(i), tmpAnyDCopy.doubleValue(i));
+        }
+    }
+
+    private ByteArrayInputStream write(final Access1D<?> array) throws IOException {
+        final ByteArrayOutputStream retVal = new ByteArrayOutputStream();
+        BinaryFormat.write(array, retVal);
+        return new ByteArrayInputStream(retVal.toByteArray());
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.Quaternion;
+
+/**
+ * {@linkplain ComplexArray} and {@linkplain QuaternionArray} store their elements interleaved in a double[].
+ *
+ * @author apete
+ */
+public class ComplexArrayTest extends ArrayTests {
+
+    private static final int SIZE = 100;
+
+    public ComplexArrayTest() {
+        super();
+    }
+
+    public ComplexArrayTest(final String arg0) {
+        super(arg0);
+    }
+
+    public void testComplexSetGet() {
+
+        final Uniform tmpUniform = new Uniform(-1.0, 2.0);
+
+        final ComplexNumber[] tmpExpected = new ComplexNumber[SIZE];
+        final ComplexArray tmpArray = ComplexArray.make(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            tmpExpected[i] = ComplexNumber.of(tmpUniform.doubleValue(), tmpUniform.doubleValue());
+            tmpArray.set(i, tmpExpected[i]);
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i));
+            TestUtils.assertEquals(tmpExpected[i].doubleValue(), tmpArray.data[2 * i]);
+            TestUtils.assertEquals(tmpExpected[i].i, tmpArray.data[(2 * i) + 1]);
+        }
+
+        tmpArray.set(7, 3.0);
+        TestUtils.assertEquals(ComplexNumber.valueOf(3.0), tmpArray.get(7));
+
+        tmpArray.add(7, ComplexNumber.of(1.0, 2.0));
+        TestUtils.assertEquals(ComplexNumber.of(4.0, 2.0), tmpArray.get(7));
+
+        TestUtils.assertEquals(ComplexArray.wrap(tmpExpected).get(11), tmpExpected[11]);
+    }
+
+    public void testComplexSortAndSearch() {
+
+        final Uniform tmpUniform = new Uniform(-1.0, 2.0);
+
+        final ComplexNumber[] tmpExpected = new ComplexNumber[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            tmpExpected[i] = ComplexNumber.of(tmpUniform.doubleValue(), tmpUniform.doubleValue());
+        }
+
+        final ComplexArray tmpArray = ComplexArray.wrap(tmpExpected);
+
+        Arrays.sort(tmpExpected);
+        tmpArray.sortAscending();
+
+        for (int i = 0; i < SIZE; i++) {
+            TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i));
+            TestUtils.assertEquals(i, tmpArray.searchAscending(tmpExpected[i]));
+        }
+
+        TestUtils.assertEquals(SIZE - 1, tmpArray.indexOfLargest(0, SIZE, 1));
+    }
+
+    public void testQuaternionSetGet() {
+
+        final Uniform tmpUniform = new Uniform(-1.0, 2.0);
+
+        final Quaternion[] tmpExpected = new Quaternion[SIZE];
+        final QuaternionArray tmpArray = QuaternionArray.make(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            tmpExpected[i] = Quaternion.of(tmpUniform.doubleValue(), tmpUniform.doubleValue(), tmpUniform.doubleValue(), tmpUniform.doubleValue());
+            tmpArray.set(i, tmpExpected[i]);
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i));
+            TestUtils.assertEquals(tmpExpected[i].scalar(), tmpArray.data[4 * i]);
+            TestUtils.assertEquals(tmpExpected[i].k, tmpArray.data[(4 * i) + 3]);
+        }
+
+        tmpArray.set(7, 3.0);
+        TestUtils.assertEquals(Quaternion.valueOf(3.0), tmpArray.get(7));
+
+        tmpArray.add(7, 1.0);
+        TestUtils.assertEquals(Quaternion.valueOf(4.0), tmpArray.get(7));
+    }
+
+    public void testQuaternionSortAndSearch() {
+
+        final Uniform tmpUniform = new Uniform(-1.0, 2.0);
+
+        final Quaternion[] tmpExpected = new Quaternion[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            tmpExpected[i] = Quaternion.of(tmpUniform.doubleValue(), tmpUniform.doubleValue(), tmpUniform.doubleValue(), tmpUniform.doubleValue());
+        }
+
+        final QuaternionArray tmpArray = QuaternionArray.wrap(tmpExpected);
+
+        Arrays.sort(tmpExpected);
+        tmpArray.sortAscending();
+
+        for (int i = 0; i < SIZE; i++) {
+            TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i));
+            TestUtils.assertEquals(i, tmpArray.searchAscending(tmpExpected[i]));
+        }
+
+        TestUtils.assertEquals(SIZE - 1, tmpArray.indexOfLargest(0, SIZE, 1));
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Bulk operations on large(r) arrays are split in ranges that are processed in parallel, and some functions
+ * are executed by dedicated loops. The results should be exactly the same as invoking the functions element
+ * by element.
+ *
+ * @author apete
+ */
+public class PrimitiveArrayTest extends ArrayTests {
+
+    private static final int COUNT = 5000;
+
+    private int myThreshold;
+
+    public PrimitiveArrayTest() {
+        super();
+    }
+
+    public PrimitiveArrayTest(final String aName) {
+        super(aName);
+    }
+
+    public void testFillMatching() {
+
+        final Array1D<Double> tmpSource = Array1D.PRIMITIVE.makeFilled(COUNT + 1, new Uniform());
+        final Array1D<Double> tmpView = tmpSource.sliceRange(1L, COUNT + 1);
+
+        final Array1D<Double> tmpArray1D = Array1D.PRIMITIVE.makeZero(COUNT);
+        tmpArray1D.fillMatching(tmpView);
+        for (int i = 0; i < COUNT; i++) {
+            TestUtils.assertEquals(tmpView.doubleValue(i), tmpArray1D.doubleValue(i));
+        }
+
+        final ArrayAnyD<Double> tmpArrayAnyD = ArrayAnyD.PRIMITIVE.makeZero(10L, 20L, 25L);
+        tmpArrayAnyD.fillMatching(tmpView);
+        for (int i = 0; i < COUNT; i++) {
+            TestUtils.assertEquals(tmpView.doubleValue(i), tmpArrayAnyD.doubleValue(i));
+        }
+
+        final Array2D<Double> tmpArray2D = Array2D.PRIMITIVE.makeZero(50L, 100L);
+        tmpArray2D.fillMatching(tmpArray1D);
+        TestUtils.assertEquals(tmpView, tmpArray2D);
+    }
+
+    public void testModifyAll() {
+
+        final UnaryFunction<?>[] tmpFunctions = new UnaryFunction<?>[] { PrimitiveFunction.ABS, PrimitiveFunction.NEGATE, PrimitiveFunction.SQRT,
+                PrimitiveFunction.ADD.first(1.5), PrimitiveFunction.DIVIDE.second(3.0), PrimitiveFunction.MULTIPLY.second(-2.0),
+                PrimitiveFunction.SUBTRACT.first(0.5), PrimitiveFunction.POWER.parameter(2), PrimitiveFunction.EXP };
+
+        for (final UnaryFunction<?> tmpFunction : tmpFunctions) {
+
+            @SuppressWarnings("unchecked")
+            final UnaryFunction<Double> tmpModifier = (UnaryFunction<Double>) tmpFunction;
+
+            final Array1D<Double> tmpArray = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform());
+            final double[] tmpExpected = new double[COUNT];
+            for (int i = 0; i < COUNT; i++) {
+                tmpExpected[i] = tmpModifier.invoke(tmpArray.doubleValue(i));
+            }
+
+            tmpArray.modifyAll(tmpModifier);
+
+            for (int i = 0; i < COUNT; i++) {
+                TestUtils.assertEquals(tmpExpected[i], tmpArray.doubleValue(i));
+            }
+        }
+    }
+
+    public void testModifyMatching() {
+
+        final Array1D<Double> tmpLeft = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform());
+        final Array1D<Double> tmpRight = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform());
+
+        final Array1D<Double> tmpArray = Array1D.PRIMITIVE.copy((Access1D<?>) tmpRight);
+        tmpArray.modifyMatching(tmpLeft, PrimitiveFunction.SUBTRACT);
+        for (int i = 0; i < COUNT; i++) {
+            TestUtils.assertEquals(tmpLeft.doubleValue(i) - tmpRight.doubleValue(i), tmpArray.doubleValue(i));
+        }
+
+        final Array1D<Double> tmpSlice = Array1D.PRIMITIVE.copy((Access1D<?>) tmpLeft).sliceRange(1L, COUNT);
+        tmpSlice.modifyMatching(PrimitiveFunction.MULTIPLY, tmpRight);
+        for (int i = 0; i < (COUNT - 1); i++) {
+            TestUtils.assertEquals(tmpLeft.doubleValue(i + 1) * tmpRight.doubleValue(i), tmpSlice.doubleValue(i));
+        }
+    }
+
+    public void testStepped() {
+
+        final Array2D<Double> tmpArray = Array2D.PRIMITIVE.makeFilled(7L, COUNT, new Uniform());
+        final Array2D<Double> tmpCopy = Array2D.PRIMITIVE.copy(tmpArray);
+
+        tmpArray.modifyRow(3L, 1L, PrimitiveFunction.MULTIPLY.second(2.0));
+        tmpArray.fillRow(5L, 2L, 1.0);
+
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < COUNT; j++) {
+                double tmpExpected = tmpCopy.doubleValue(i, j);
+                if ((i == 3) && (j >= 1)) {
+                    tmpExpected *= 2.0;
+                } else if ((i == 5) && (j >= 2)) {
+                    tmpExpected = 1.0;
+                }
+                TestUtils.assertEquals(tmpExpected, tmpArray.doubleValue(i, j));
+            }
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myThreshold = PrimitiveArray.THRESHOLD;
+        PrimitiveArray.THRESHOLD = 64;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        PrimitiveArray.THRESHOLD = myThreshold;
+        super.tearDown();
+    }
+
+}
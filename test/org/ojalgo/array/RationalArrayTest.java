@@ -0,0 +1,163 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.scalar.RationalNumber;
+
+/**
+ * {@linkplain RationalArray} stores compact elements as (long) numerator/denominator pairs, and only those
+ * that don't fit in a separate overflow array.
+ *
+ * @author apete
+ */
+public class RationalArrayTest extends ArrayTests {
+
+    private static final RationalNumber BIG_FRACTION = RationalNumber.valueOf(new BigDecimal("1.0000000000000000000000000001"));
+    private static final RationalNumber BIG_INTEGER = RationalNumber.valueOf(new BigInteger("-123456789012345678901234567890"));
+    private static final int SIZE = 10;
+
+    public RationalArrayTest() {
+        super();
+    }
+
+    public RationalArrayTest(final String arg0) {
+        super(arg0);
+    }
+
+    public void testExchange() {
+
+        final RationalArray tmpArray = RationalArrayTest.makeMixed();
+        final RationalNumber[] tmpExpected = RationalArrayTest.expected(tmpArray);
+
+        // Rows 0-4 with rows 5-9, as if it was a 5x2 matrix
+        tmpArray.exchange(0, 5, 1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            TestUtils.assertEquals(tmpExpected[i + 5], tmpArray.get(i));
+            TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i + 5));
+        }
+
+        // Back again, only the even rows
+        tmpArray.exchange(5, 0, 2, 3);
+
+        for (int i = 0; i < 5; i++) {
+            if ((i % 2) == 0) {
+                TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i));
+                TestUtils.assertEquals(tmpExpected[i + 5], tmpArray.get(i + 5));
+            } else {
+                TestUtils.assertEquals(tmpExpected[i + 5], tmpArray.get(i));
+                TestUtils.assertEquals(tmpExpected[i], tmpArray.get(i + 5));
+            }
+        }
+        TestUtils.assertEquals(BIG_FRACTION, tmpArray.get(8));
+        TestUtils.assertEquals(BIG_INTEGER, tmpArray.get(7));
+        TestUtils.assertFalse(tmpArray.isCompact());
+    }
+
+    public void testFillOneClearsOverflow() {
+
+        final RationalArray tmpArray = RationalArrayTest.makeMixed();
+
+        tmpArray.fillOne(3, RationalNumber.of(1L, 2L));
+        TestUtils.assertFalse(tmpArray.isCompact());
+        TestUtils.assertEquals(RationalNumber.of(1L, 2L), tmpArray.get(3));
+
+        tmpArray.fillOne(7, RationalNumber.of(-5L, 4L));
+        TestUtils.assertTrue(tmpArray.isCompact());
+        TestUtils.assertEquals(RationalNumber.of(-5L, 4L), tmpArray.get(7));
+        TestUtils.assertEquals(-5L, tmpArray.numerators[7]);
+        TestUtils.assertEquals(4L, tmpArray.denominators[7]);
+
+        // The cleared overflow slots must not come back with an exchange
+        tmpArray.exchange(3, 0, 1, 1);
+        tmpArray.exchange(7, 1, 1, 1);
+
+        TestUtils.assertTrue(tmpArray.isCompact());
+        TestUtils.assertEquals(RationalNumber.of(1L, 2L), tmpArray.get(0));
+        TestUtils.assertEquals(RationalNumber.of(-5L, 4L), tmpArray.get(1));
+    }
+
+    public void testMixedElements() {
+
+        final RationalArray tmpArray = RationalArray.make(SIZE);
+        TestUtils.assertTrue(tmpArray.isCompact());
+        for (int i = 0; i < SIZE; i++) {
+            TestUtils.assertEquals(RationalNumber.ZERO, tmpArray.get(i));
+        }
+
+        final RationalArray tmpMixed = RationalArrayTest.makeMixed();
+        TestUtils.assertFalse(tmpMixed.isCompact());
+
+        for (int i = 0; i < SIZE; i++) {
+
+            final RationalNumber tmpValue = tmpMixed.get(i);
+
+            if ((i == 3) || (i == 7)) {
+                TestUtils.assertFalse(tmpValue.isCompact());
+                TestUtils.assertTrue(tmpMixed.denominators[i] < 0L);
+            } else {
+                // Stored reduced, with a positive denominator, and read back as such
+                final RationalNumber tmpExpected = RationalNumber.of(1L - i, -6L);
+                TestUtils.assertEquals(tmpExpected, tmpValue);
+                TestUtils.assertEquals(tmpExpected.longNumerator(), tmpMixed.numerators[i]);
+                TestUtils.assertEquals(tmpExpected.longDenominator(), tmpMixed.denominators[i]);
+                TestUtils.assertTrue(tmpMixed.denominators[i] > 0L);
+            }
+
+            TestUtils.assertEquals(tmpValue.doubleValue(), tmpMixed.doubleValue(i));
+        }
+
+        TestUtils.assertEquals(BIG_FRACTION, tmpMixed.get(3));
+        TestUtils.assertEquals(BIG_INTEGER, tmpMixed.get(7));
+
+        TestUtils.assertEquals(tmpMixed, RationalArray.wrap(RationalArrayTest.expected(tmpMixed)));
+    }
+
+    private static RationalNumber[] expected(final RationalArray array) {
+        final RationalNumber[] retVal = new RationalNumber[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            retVal[i] = array.get(i);
+        }
+        return retVal;
+    }
+
+    /**
+     * Compact elements (1-i)/(-6) everywhere except at 3 and 7.
+     */
+    private static RationalArray makeMixed() {
+
+        final RationalArray retVal = RationalArray.make(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            retVal.fillOne(i, RationalNumber.of(1L - i, -6L));
+        }
+        retVal.fillOne(3, BIG_FRACTION);
+        retVal.fillOne(7, BIG_INTEGER);
+
+        return retVal;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.ExecutionContext;
+
+/**
+ * SparseArrayTest
+ *
+ * @author apete
+ */
+public class SparseArrayTest extends ArrayTests {
+
+    public SparseArrayTest() {
+        super();
+    }
+
+    public SparseArrayTest(final String aName) {
+        super(aName);
+    }
+
+    public void testBuilderMatchesIncremental() {
+
+        final long tmpCount = 1_000_000_000_000L;
+        final int tmpPairs = 50_000;
+
+        final Random tmpRandom = new Random(123L);
+
+        final long[] tmpUnique = new long[tmpPairs / 10];
+        for (int u = 0; u < tmpUnique.length; u++) {
+            tmpUnique[u] = (long) (tmpRandom.nextDouble() * tmpCount);
+        }
+
+        final SparseArray<Double> tmpIncremental = SparseArray.makePrimitive(tmpCount);
+        final SparseArray.Builder<Double> tmpBuilder = SparseArray.buildPrimitive(tmpCount, 16);
+
+        for (int p = 0; p < tmpPairs; p++) {
+            final long tmpIndex = tmpUnique[tmpRandom.nextInt(tmpUnique.length)];
+            final double tmpValue = tmpRandom.nextInt(100) + 1;
+            tmpIncremental.add(tmpIndex, tmpValue);
+            tmpBuilder.add(tmpIndex, tmpValue);
+        }
+
+        TestUtils.assertEquals(tmpPairs, tmpBuilder.count());
+
+        final SparseArray<Double> tmpBuilt = ExecutionContext.ofThreads(4).call(tmpBuilder::build);
+
+        TestUtils.assertEquals(tmpCount, tmpBuilt.count());
+
+        final SparseArray.NonzeroView<Double> tmpExpected = tmpIncremental.nonzeros();
+        final SparseArray.NonzeroView<Double> tmpActual = tmpBuilt.nonzeros();
+        while (tmpExpected.hasNext()) {
+            TestUtils.assertTrue(tmpActual.hasNext());
+            tmpExpected.next();
+            tmpActual.next();
+            TestUtils.assertEquals(tmpExpected.index(), tmpActual.index());
+            TestUtils.assertEquals(tmpExpected.doubleValue(), tmpActual.doubleValue());
+        }
+        TestUtils.assertFalse(tmpActual.hasNext());
+
+        // The builder remains usable, and so does the array built by it
+        tmpBuilder.add(tmpUnique[0], 1000.0);
+        TestUtils.assertEquals(tmpIncremental.doubleValue(tmpUnique[0]) + 1000.0, tmpBuilder.build().doubleValue(tmpUnique[0]));
+        tmpBuilt.set(tmpCount - 1L, 1.0);
+        TestUtils.assertEquals(1.0, tmpBuilt.doubleValue(tmpCount - 1L));
+    }
+
+    public void testBuilderOutOfRange() {
+
+        final SparseArray.Builder<Double> tmpBuilder = SparseArray.buildPrimitive(10L, 4);
+
+        for (final long tmpIndex : new long[] { -1L, 10L, Long.MAX_VALUE }) {
+            try {
+                tmpBuilder.add(tmpIndex, 1.0);
+                TestUtils.fail(Long.toString(tmpIndex));
+            } catch (final ArrayIndexOutOfBoundsException expected) {
+                // Also zero values are range checked
+            }
+            try {
+                tmpBuilder.add(tmpIndex, 0.0);
+                TestUtils.fail(Long.toString(tmpIndex));
+            } catch (final ArrayIndexOutOfBoundsException expected) {
+                // Also zero values are range checked
+            }
+        }
+
+        TestUtils.assertEquals(0, tmpBuilder.count());
+    }
+
+    public void testBuilderWithoutPairs() {
+
+        final SparseArray<Double> tmpArray = SparseArray.buildPrimitive(10L, 0).build();
+
+        TestUtils.assertEquals(0.0, tmpArray.doubleValue(5L));
+
+        tmpArray.set(5L, 5.0);
+        tmpArray.set(2L, 2.0);
+
+        TestUtils.assertEquals(5.0, tmpArray.doubleValue(5L));
+        TestUtils.assertEquals(2.0, tmpArray.doubleValue(2L));
+    }
+
+    public void testBuilderZeros() {
+
+        final SparseArray.Builder<Double> tmpBuilder = SparseArray.buildPrimitive(10L, 4);
+        tmpBuilder.add(1L, 0.0);
+        tmpBuilder.add(2L, 2.0);
+        tmpBuilder.add(3L, 3.0);
+        tmpBuilder.add(2L, -2.0);
+        tmpBuilder.add(4L, 4.0);
+
+        // Added zeros are not counted
+        TestUtils.assertEquals(4, tmpBuilder.count());
+
+        // Neither added zeros, nor duplicates that sum to zero, are stored
+        final SparseArray<Double> tmpArray = tmpBuilder.build();
+        TestUtils.assertEquals(new long[] { 3L, 4L }, tmpArray.indicesInRange(0L, 10L));
+        TestUtils.assertEquals(3.0, tmpArray.doubleValue(3L));
+        TestUtils.assertEquals(4.0, tmpArray.doubleValue(4L));
+    }
+
+    public void testFirstAndLimitOfRange() {
+
+        final SparseArray<Double> tmpArray = SparseArray.buildPrimitive(20L, 0).build();
+        tmpArray.set(3L, 3.0);
+        tmpArray.set(7L, 7.0);
+        tmpArray.set(8L, 8.0);
+
+        TestUtils.assertEquals(3L, tmpArray.firstInRange(0L, 10L));
+        TestUtils.assertEquals(3L, tmpArray.firstInRange(3L, 10L));
+        TestUtils.assertEquals(7L, tmpArray.firstInRange(4L, 10L));
+        TestUtils.assertEquals(6L, tmpArray.firstInRange(4L, 6L));
+        TestUtils.assertEquals(20L, tmpArray.firstInRange(9L, 20L));
+
+        TestUtils.assertEquals(9L, tmpArray.limitOfRange(0L, 10L));
+        TestUtils.assertEquals(9L, tmpArray.limitOfRange(0L, 9L));
+        TestUtils.assertEquals(8L, tmpArray.limitOfRange(0L, 8L));
+        TestUtils.assertEquals(4L, tmpArray.limitOfRange(0L, 6L));
+        TestUtils.assertEquals(4L, tmpArray.limitOfRange(4L, 6L));
+        TestUtils.assertEquals(0L, tmpArray.limitOfRange(0L, 3L));
+    }
+
+    public void testIndicesInRange() {
+
+        final SparseArray<Double> tmpArray = SparseArray.buildPrimitive(20L, 0).build();
+        tmpArray.set(3L, 3.0);
+        tmpArray.set(7L, 7.0);
+        tmpArray.set(8L, 8.0);
+
+        TestUtils.assertEquals(new long[] { 3L, 7L, 8L }, tmpArray.indicesInRange(0L, 20L));
+        TestUtils.assertEquals(new long[] { 0L, 1L }, tmpArray.indicesInRange(7L, 20L));
+        TestUtils.assertEquals(new long[] { 0L }, tmpArray.indicesInRange(3L, 7L));
+        TestUtils.assertEquals(new long[] {}, tmpArray.indicesInRange(9L, 20L));
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.function;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Tests the (parallel) aggregation of large arrays, and the compensated sum / overflow-safe norm of
+ * {@linkplain org.ojalgo.function.aggregator.PrimitiveAggregator}.
+ *
+ * @author apete
+ */
+public class AggregatorCase extends FunctionTests {
+
+    private static final int COUNT = 100_000;
+
+    public AggregatorCase() {
+        super();
+    }
+
+    public AggregatorCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCompensatedSum() {
+
+        final AggregatorFunction<Double> tmpSum = Aggregator.SUM.getPrimitiveFunction();
+
+        tmpSum.invoke(ONE);
+        tmpSum.invoke(1E100);
+        tmpSum.invoke(ONE);
+        tmpSum.invoke(-1E100);
+
+        TestUtils.assertEquals(TWO, tmpSum.doubleValue());
+
+        final Array1D<Double> tmpArray = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform());
+        tmpArray.modifyAll(PrimitiveFunction.MULTIPLY.second(1E-3)); // Decimal fractions are not exact
+        tmpArray.set(0L, 1E15);
+
+        double tmpNaive = ZERO;
+        for (int i = 0; i < COUNT; i++) {
+            tmpNaive += tmpArray.doubleValue(i);
+        }
+
+        double tmpExpected = ZERO;
+        for (int i = 1; i < COUNT; i++) {
+            tmpExpected += tmpArray.doubleValue(i);
+        }
+        tmpExpected += 1E15;
+
+        final double tmpActual = tmpArray.aggregateAll(Aggregator.SUM);
+
+        TestUtils.assertTrue(Math.abs(tmpActual - tmpExpected) <= Math.abs(tmpNaive - tmpExpected));
+    }
+
+    public void testDeterministic() {
+
+        final Array1D<Double> tmpArray = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform(-1.0, 2.0));
+
+        for (final Aggregator tmpAggregator : Aggregator.values()) {
+
+            final double tmpParallel = tmpAggregator.aggregate(tmpArray);
+            final double tmpSequential = ExecutionContext.SEQUENTIAL.call(() -> tmpAggregator.aggregate(tmpArray));
+            final double tmpTwoThreads = ExecutionContext.ofThreads(2).call(() -> tmpAggregator.aggregate(tmpArray));
+
+            TestUtils.assertEquals(tmpAggregator.name(), tmpSequential, tmpParallel, ZERO);
+            TestUtils.assertEquals(tmpAggregator.name(), tmpSequential, tmpTwoThreads, ZERO);
+        }
+    }
+
+    public void testMatchesVisitAll() {
+
+        final Array1D<Double> tmpArray = Array1D.PRIMITIVE.makeFilled(COUNT, new Uniform(0.5, 1.0));
+        tmpArray.set(7L, ZERO);
+
+        for (final Aggregator tmpAggregator : Aggregator.values()) {
+
+            final AggregatorFunction<Double> tmpVisitor = tmpAggregator.getPrimitiveFunction();
+            tmpArray.visitAll(tmpVisitor);
+            final double tmpExpected = tmpVisitor.doubleValue();
+
+            TestUtils.assertEquals(tmpAggregator.name(), tmpExpected, tmpArray.aggregateAll(tmpAggregator).doubleValue(),
+                    Math.abs(tmpExpected) * 1E-12);
+        }
+    }
+
+    public void testNorm2OverflowUnderflow() {
+
+        final double tmpSqrt2 = Math.sqrt(TWO);
+
+        for (final double tmpValue : new double[] { 1E200, 1E-200, 3.0 }) {
+            final AggregatorFunction<Double> tmpNorm = Aggregator.NORM2.getPrimitiveFunction();
+            tmpNorm.invoke(tmpValue);
+            tmpNorm.invoke(-tmpValue);
+            TestUtils.assertEquals(tmpSqrt2 * tmpValue, tmpNorm.doubleValue(), tmpSqrt2 * tmpValue * 1E-14);
+        }
+
+        final AggregatorFunction<Double> tmpMixed = Aggregator.NORM2.getPrimitiveFunction();
+        tmpMixed.invoke(3E200);
+        tmpMixed.invoke(ONE);
+        tmpMixed.invoke(4E200);
+        tmpMixed.invoke(1E-200);
+        TestUtils.assertEquals(5E200, tmpMixed.doubleValue(), 5E186);
+
+        final AggregatorFunction<Double> tmpSmall = Aggregator.NORM2.getPrimitiveFunction();
+        tmpSmall.invoke(3E-200);
+        tmpSmall.invoke(4E-200);
+        tmpSmall.invoke(ONE);
+        TestUtils.assertEquals(ONE, tmpSmall.doubleValue(), 1E-14);
+    }
+
+}
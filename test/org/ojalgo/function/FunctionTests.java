@@ -33,6 +33,7 @@ public abstract class FunctionTests extends FunctionalityTest {
     public static Test suite() {
         final TestSuite suite = new TestSuite(FunctionTests.class.getPackage().getName());
         //$JUnit-BEGIN$
+        suite.addTestSuite(AggregatorCase.class);
         suite.addTestSuite(ComplexCase.class);
         suite.addTestSuite(CompareImplementations.class);
         suite.addTestSuite(PrimitiveCase.class);
@@ -42,6 +42,7 @@ public abstract class MatrixTests extends FunctionalityTest {
         suite.addTestSuite(P20050827Case.class);
         suite.addTestSuite(P20061119Case.class);
         suite.addTestSuite(P20071019Case.class);
+        suite.addTestSuite(PrimitiveChainCase.class);
         suite.addTestSuite(SimpleCholeskyCase.class);
         suite.addTestSuite(SimpleEigenvalueCase.class);
         suite.addTestSuite(SimpleEquationCase.class);
@@ -49,6 +50,7 @@ public abstract class MatrixTests extends FunctionalityTest {
         suite.addTestSuite(SimpleLUCase.class);
         suite.addTestSuite(SimpleQRCase.class);
         suite.addTestSuite(SimpleSingularValueCase.class);
+        suite.addTestSuite(ThresholdCalibrationTest.class);
         //$JUnit-END$
         return suite;
     }
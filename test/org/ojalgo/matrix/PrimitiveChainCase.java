@@ -0,0 +1,138 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@linkplain PrimitiveMatrix.Chain} evaluations should produce the same results as the corresponding
+ * immutable {@linkplain PrimitiveMatrix} arithmetic.
+ *
+ * @author apete
+ */
+public class PrimitiveChainCase extends MatrixTests {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    private static PrimitiveMatrix random(final int rows, final int columns) {
+        return PrimitiveMatrix.FACTORY.copy(MatrixUtils.makeRandomComplexStore(rows, columns));
+    }
+
+    public PrimitiveChainCase() {
+        super();
+    }
+
+    public PrimitiveChainCase(final String name) {
+        super(name);
+    }
+
+    public void testElementwiseOnly() {
+
+        final PrimitiveMatrix tmpA = PrimitiveChainCase.random(7, 5);
+        final PrimitiveMatrix tmpB = PrimitiveChainCase.random(7, 5);
+
+        final PrimitiveMatrix tmpExpected = tmpA.subtract(tmpB).multiply(2.0).add(1.0).modify(PrimitiveFunction.ABS);
+
+        final PhysicalStore<Double> tmpActual = PrimitiveDenseStore.FACTORY.makeZero(7, 5);
+        tmpA.chain().subtract(tmpB).multiply(2.0).add(1.0).modify(PrimitiveFunction.ABS).supplyTo(tmpActual);
+        TestUtils.assertEquals(tmpExpected, tmpActual, PRECISION);
+
+        tmpActual.fillAll(0.0);
+        tmpA.chain().supplyTo(tmpActual);
+        TestUtils.assertEquals(tmpA, tmpActual, PRECISION);
+    }
+
+    public void testIncompatibleDimensions() {
+
+        final PrimitiveMatrix tmpA = PrimitiveChainCase.random(7, 5);
+
+        try {
+            tmpA.chain().multiply(PrimitiveChainCase.random(7, 5));
+            TestUtils.fail();
+        } catch (final MatrixError expected) {
+            // Expected
+        }
+
+        try {
+            tmpA.chain().add(PrimitiveChainCase.random(5, 7));
+            TestUtils.fail();
+        } catch (final MatrixError expected) {
+            // Expected
+        }
+
+        try {
+            tmpA.chain().supplyTo(PrimitiveDenseStore.FACTORY.makeZero(5, 7));
+            TestUtils.fail();
+        } catch (final MatrixError expected) {
+            // Expected
+        }
+    }
+
+    public void testMultiplyAddScale() {
+
+        final PrimitiveMatrix tmpA = PrimitiveChainCase.random(9, 6);
+        final PrimitiveMatrix tmpB = PrimitiveChainCase.random(6, 4);
+        final PrimitiveMatrix tmpC = PrimitiveChainCase.random(9, 4);
+
+        final PrimitiveMatrix tmpExpected = tmpA.multiply(tmpB).add(tmpC).multiply(0.5);
+
+        final PhysicalStore<Double> tmpActual = PrimitiveDenseStore.FACTORY.makeZero(9, 4);
+        tmpA.chain().multiply(tmpB).add(tmpC).multiply(0.5).supplyTo(tmpActual);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual, PRECISION);
+    }
+
+    /**
+     * A Kalman filter like covariance update, P = F P F<sup>T</sup> + Q, evaluated repeatedly with the
+     * operands updated in place between the evaluations.
+     */
+    public void testRepeatedEvaluation() {
+
+        final int tmpDim = 6;
+
+        final PhysicalStore<Double> tmpF = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpQ = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpP = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpNextP = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+
+        final PrimitiveMatrix.Chain tmpUpdate = PrimitiveMatrix.chain(tmpF).multiply(tmpP).multiply(tmpF.transpose()).add(tmpQ).multiply(0.5);
+
+        for (int k = 0; k < 3; k++) {
+
+            final PrimitiveMatrix tmpMatrixF = PrimitiveMatrix.FACTORY.copy(tmpF);
+            final PrimitiveMatrix tmpMatrixP = PrimitiveMatrix.FACTORY.copy(tmpP);
+            final PrimitiveMatrix tmpExpected = tmpMatrixF.multiply(tmpMatrixP).multiply(tmpMatrixF.transpose()).add(PrimitiveMatrix.FACTORY.copy(tmpQ))
+                    .multiply(0.5);
+
+            tmpUpdate.supplyTo(tmpNextP);
+            TestUtils.assertEquals(tmpExpected, tmpNextP, PRECISION);
+
+            tmpP.fillMatching(tmpNextP);
+            tmpF.modifyAll(PrimitiveFunction.MULTIPLY.second(0.9));
+        }
+    }
+
+}
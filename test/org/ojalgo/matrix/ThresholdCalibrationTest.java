@@ -0,0 +1,124 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.operation.MultiplyNeither;
+
+/**
+ * @author apete
+ */
+public class ThresholdCalibrationTest extends MatrixTests {
+
+    static int THRESHOLD = 0;
+
+    public ThresholdCalibrationTest() {
+        super();
+    }
+
+    public ThresholdCalibrationTest(final String newName) {
+        super(newName);
+    }
+
+    public void testCalibrate() {
+
+        THRESHOLD = 7;
+
+        final ThresholdCalibration.Calibrator tmpCalibrator = new ThresholdCalibration.Calibrator("Synthetic", () -> THRESHOLD, t -> THRESHOLD = t, 8,
+                32, dim -> () -> {
+                    // Nothing to time
+                });
+
+        final int tmpThreshold = tmpCalibrator.calibrate();
+        TestUtils.assertTrue((4 <= tmpThreshold) && (tmpThreshold <= 32));
+
+        // The original value is restored
+        TestUtils.assertEquals(7, THRESHOLD);
+    }
+
+    public void testCrossover() {
+
+        // Sequential wins at 8 and 16, parallel at 32 and 64 - geometric mean of 16 and 32
+        TestUtils.assertEquals(22, ThresholdCalibration.crossover(8, 128, dim -> dim >= 32));
+
+        // A single parallel win (at 16) is not enough, 2 consecutive wins are required
+        TestUtils.assertEquals(45, ThresholdCalibration.crossover(8, 128, dim -> (dim == 16) || (dim >= 64)));
+
+        // Parallel only wins at the largest size - that is accepted as is
+        TestUtils.assertEquals(90, ThresholdCalibration.crossover(8, 128, dim -> dim >= 128));
+
+        // Parallel wins from the smallest size
+        TestUtils.assertEquals(4, ThresholdCalibration.crossover(8, 128, dim -> true));
+
+        // Parallel never wins
+        TestUtils.assertEquals(128, ThresholdCalibration.crossover(8, 128, dim -> false));
+
+        // The search stops as soon as it is decided
+        final int[] tmpLargest = new int[1];
+        ThresholdCalibration.crossover(8, 128, dim -> {
+            tmpLargest[0] = dim;
+            return true;
+        });
+        TestUtils.assertEquals(16, tmpLargest[0]);
+    }
+
+    public void testNotApplicableProfile() {
+
+        final Properties tmpProfile = ThresholdCalibration.getProfile();
+        tmpProfile.setProperty("threads", "-1");
+
+        TestUtils.assertFalse(ThresholdCalibration.isApplicable(tmpProfile));
+        TestUtils.assertTrue(ThresholdCalibration.isApplicable(ThresholdCalibration.getProfile()));
+    }
+
+    public void testStoreAndLoad() throws IOException {
+
+        final int tmpOriginal = MultiplyNeither.THRESHOLD;
+
+        final File tmpFile = File.createTempFile("thresholds", ".properties");
+        tmpFile.deleteOnExit();
+
+        try {
+
+            final Properties tmpProfile = ThresholdCalibration.getProfile();
+            TestUtils.assertEquals(ThresholdCalibration.names().size() + 2, tmpProfile.size());
+
+            tmpProfile.setProperty("MultiplyNeither", Integer.toString(tmpOriginal + 1));
+            TestUtils.assertTrue(ThresholdCalibration.store(tmpProfile, tmpFile));
+
+            TestUtils.assertTrue(ThresholdCalibration.load(tmpFile));
+            TestUtils.assertEquals(tmpOriginal + 1, MultiplyNeither.THRESHOLD);
+
+        } finally {
+            MultiplyNeither.THRESHOLD = tmpOriginal;
+        }
+
+        // Failing to store, or load, is reported but not thrown
+        TestUtils.assertFalse(ThresholdCalibration.store(ThresholdCalibration.getProfile(), tmpFile.getParentFile()));
+        TestUtils.assertFalse(ThresholdCalibration.load(tmpFile.getParentFile()));
+    }
+
+}
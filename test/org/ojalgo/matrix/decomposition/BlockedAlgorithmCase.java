@@ -0,0 +1,199 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The blocked primitive Cholesky, LU and QR algorithms must produce the same results as the unblocked ones.
+ * Small blocks are used so that there are several panels, and partial panels, to go through.
+ *
+ * @author apete
+ */
+public class BlockedAlgorithmCase extends MatrixDecompositionTests {
+
+    private static final int[][] DIMENSIONS = new int[][] { { 3, 3 }, { 50, 50 }, { 97, 97 }, { 120, 75 }, { 75, 120 }, { 64, 65 } };
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    /**
+     * Compare in (Frobenius) norm. With rank deficient matrices individual elements may be the result of
+     * cancellation.
+     */
+    static void assertNormEquals(final MatrixStore<Double> expected, final MatrixStore<Double> actual) {
+        TestUtils.assertEquals(expected.countRows(), actual.countRows());
+        TestUtils.assertEquals(expected.countColumns(), actual.countColumns());
+        double tmpNorm = 0.0;
+        double tmpError = 0.0;
+        for (long j = 0L; j < expected.countColumns(); j++) {
+            for (long i = 0L; i < expected.countRows(); i++) {
+                final double tmpExpected = expected.doubleValue(i, j);
+                final double tmpDifference = tmpExpected - actual.doubleValue(i, j);
+                tmpNorm += tmpExpected * tmpExpected;
+                tmpError += tmpDifference * tmpDifference;
+            }
+        }
+        tmpNorm = Math.sqrt(tmpNorm);
+        tmpError = Math.sqrt(tmpError);
+        TestUtils.assertTrue(tmpError + " / " + tmpNorm, tmpError <= (1E-12 * Math.max(1.0, tmpNorm)));
+    }
+
+    static PrimitiveDenseStore makeSPD(final int dim) {
+        final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Normal());
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.copy(tmpRandom.multiply(tmpRandom.transpose()));
+        for (int ij = 0; ij < dim; ij++) {
+            retVal.add(ij, ij, dim);
+        }
+        return retVal;
+    }
+
+    private int myBlock;
+    private int myThreshold;
+
+    public BlockedAlgorithmCase() {
+        super();
+    }
+
+    public BlockedAlgorithmCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCholesky() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpOriginal = BlockedAlgorithmCase.makeSPD(tmpDims[0]);
+
+            final Cholesky<Double> tmpUnblocked = new CholeskyDecomposition.Primitive();
+            GEMM.THRESHOLD = Integer.MAX_VALUE;
+            TestUtils.assertTrue(tmpUnblocked.decompose(tmpOriginal));
+
+            final Cholesky<Double> tmpBlocked = new CholeskyDecomposition.Primitive();
+            GEMM.THRESHOLD = 0;
+            TestUtils.assertTrue(tmpBlocked.decompose(tmpOriginal));
+
+            TestUtils.assertTrue(tmpBlocked.isSPD());
+            BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getL(), tmpBlocked.getL());
+            TestUtils.assertEquals(tmpOriginal, tmpBlocked, PRECISION);
+        }
+
+        final PrimitiveDenseStore tmpIndefinite = BlockedAlgorithmCase.makeSPD(50);
+        tmpIndefinite.set(40, 40, -tmpIndefinite.doubleValue(40, 40));
+
+        final Cholesky<Double> tmpBlocked = new CholeskyDecomposition.Primitive();
+        GEMM.THRESHOLD = 0;
+        tmpBlocked.decompose(tmpIndefinite);
+        TestUtils.assertFalse(tmpBlocked.isSPD());
+    }
+
+    public void testLU() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            for (final boolean tmpPivoting : new boolean[] { true, false }) {
+
+                final PrimitiveDenseStore tmpOriginal = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Normal());
+                if (tmpPivoting) {
+                    // Make it rank deficient
+                    tmpOriginal.fillRow(tmpDims[0] / 2, 0, tmpOriginal.sliceRow(0, 0));
+                } else {
+                    // Make it diagonally dominant - no need to pivot
+                    for (int ij = 0; ij < Math.min(tmpDims[0], tmpDims[1]); ij++) {
+                        tmpOriginal.add(ij, ij, tmpDims[1]);
+                    }
+                }
+
+                final LUDecomposition<Double> tmpUnblocked = new LUDecomposition.Primitive();
+                final LUDecomposition<Double> tmpBlocked = new LUDecomposition.Primitive();
+
+                GEMM.THRESHOLD = Integer.MAX_VALUE;
+                if (tmpPivoting) {
+                    tmpUnblocked.decompose(tmpOriginal);
+                } else {
+                    tmpUnblocked.computeWithoutPivoting(tmpOriginal);
+                }
+
+                GEMM.THRESHOLD = 0;
+                if (tmpPivoting) {
+                    tmpBlocked.decompose(tmpOriginal);
+                } else {
+                    tmpBlocked.computeWithoutPivoting(tmpOriginal);
+                }
+
+                TestUtils.assertEquals(tmpUnblocked.getPivotOrder(), tmpBlocked.getPivotOrder());
+                BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getL(), tmpBlocked.getL());
+                BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getU(), tmpBlocked.getU());
+                TestUtils.assertEquals(tmpOriginal, tmpBlocked, PRECISION);
+            }
+        }
+    }
+
+    public void testQR() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpOriginal = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Normal());
+            // A zero column, and a column that is already "triangular"
+            tmpOriginal.fillColumn(0, tmpDims[1] / 3, 0.0);
+            tmpOriginal.fillColumn(tmpDims[1] / 2 + 1, tmpDims[1] / 2, 0.0);
+
+            final QR<Double> tmpUnblocked = new QRDecomposition.Primitive();
+            GEMM.THRESHOLD = Integer.MAX_VALUE;
+            tmpUnblocked.decompose(tmpOriginal);
+
+            final QR<Double> tmpBlocked = new QRDecomposition.Primitive();
+            GEMM.THRESHOLD = 0;
+            tmpBlocked.decompose(tmpOriginal);
+
+            final MatrixStore<Double> tmpQ = tmpBlocked.getQ();
+            BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getQ(), tmpQ);
+            BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getR(), tmpBlocked.getR());
+            TestUtils.assertEquals(tmpOriginal, tmpBlocked, PRECISION);
+            TestUtils.assertEquals(MatrixStore.PRIMITIVE.makeIdentity((int) tmpQ.countColumns()).get(), tmpQ.transpose().multiply(tmpQ), PRECISION);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        myBlock = BlockedAlgorithm.BLOCK;
+        myThreshold = GEMM.THRESHOLD;
+
+        BlockedAlgorithm.BLOCK = 16;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        BlockedAlgorithm.BLOCK = myBlock;
+        GEMM.THRESHOLD = myThreshold;
+
+        super.tearDown();
+    }
+
+}
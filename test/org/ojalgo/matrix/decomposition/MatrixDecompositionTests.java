@@ -160,6 +160,7 @@ public abstract class MatrixDecompositionTests extends FunctionalityTest {
         final TestSuite suite = new TestSuite(MatrixDecompositionTests.class.getPackage().getName());
         //$JUnit-BEGIN$
         suite.addTestSuite(BidiagonalTest.class);
+        suite.addTestSuite(BlockedAlgorithmCase.class);
         suite.addTestSuite(CompareJamaAndPrimitive.class);
         suite.addTestSuite(DecompositionProblems.class);
         suite.addTestSuite(DegenerateLUCase.class);
@@ -168,12 +169,15 @@ public abstract class MatrixDecompositionTests extends FunctionalityTest {
         suite.addTestSuite(HessenbergTest.class);
         suite.addTestSuite(LDLTest.class);
         suite.addTestSuite(LUTest.class);
+        suite.addTestSuite(OutOfCoreCase.class);
         suite.addTestSuite(QRTest.class);
         suite.addTestSuite(SchurTest.class);
         suite.addTestSuite(SingularValueTest.class);
+        suite.addTestSuite(SparseCase.class);
         suite.addTestSuite(SVDbyEvD.class);
         suite.addTestSuite(TestJama.class);
         suite.addTestSuite(TestSolveAndInvert.class);
+        suite.addTestSuite(TiledAlgorithmCase.class);
         suite.addTestSuite(TridiagonalizeCase.class);
         suite.addTestSuite(VerySmallCase.class);
         //$JUnit-END$
@@ -0,0 +1,152 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.BufferDenseStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The out-of-core (panel by panel) Cholesky and QR must produce the same results as the in-core ones. Small
+ * panels and blocks are used so that there are several panels, and partial panels, to go through.
+ *
+ * @author apete
+ */
+public class OutOfCoreCase extends MatrixDecompositionTests {
+
+    private static final int[][] DIMENSIONS = new int[][] { { 1, 1 }, { 3, 3 }, { 29, 29 }, { 50, 50 }, { 61, 23 }, { 23, 61 } };
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    private int myBlock;
+    private int myPanelSize;
+
+    public OutOfCoreCase() {
+        super();
+    }
+
+    public OutOfCoreCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCholesky() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final int tmpDim = tmpDims[0];
+            final PrimitiveDenseStore tmpOriginal = BlockedAlgorithmCase.makeSPD(tmpDim);
+            final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 3, new Normal());
+
+            final Cholesky<Double> tmpExpected = new CholeskyDecomposition.Primitive();
+            TestUtils.assertTrue(tmpExpected.decompose(tmpOriginal));
+
+            final Cholesky<Double> tmpActual = Cholesky.PRIMITIVE.make(BufferDenseStore.FACTORY.makeZero(tmpDim, tmpDim));
+            TestUtils.assertTrue(tmpActual instanceof OutOfCoreCholesky);
+            TestUtils.assertTrue(tmpActual.decompose(tmpOriginal));
+
+            TestUtils.assertTrue(tmpActual.isSPD());
+            BlockedAlgorithmCase.assertNormEquals(tmpExpected.getL(), tmpActual.getL());
+            TestUtils.assertEquals(tmpOriginal, tmpActual, PRECISION);
+            TestUtils.assertEquals(tmpExpected.getDeterminant(), tmpActual.getDeterminant(), PRECISION);
+            TestUtils.assertEquals(tmpExpected.solve(tmpRHS), tmpActual.solve(tmpRHS), PRECISION);
+        }
+
+        final PrimitiveDenseStore tmpIndefinite = BlockedAlgorithmCase.makeSPD(50);
+        tmpIndefinite.set(40, 40, -tmpIndefinite.doubleValue(40, 40));
+
+        final OutOfCoreCholesky tmpOutOfCore = new OutOfCoreCholesky();
+        TestUtils.assertFalse(tmpOutOfCore.decompose(tmpIndefinite));
+        TestUtils.assertFalse(tmpOutOfCore.isSolvable());
+    }
+
+    public void testMapped() throws IOException {
+
+        final File tmpFile = File.createTempFile("OutOfCoreCase", ".bin");
+        tmpFile.deleteOnExit();
+
+        final PrimitiveDenseStore tmpOriginal = BlockedAlgorithmCase.makeSPD(37);
+
+        final Cholesky<Double> tmpExpected = new CholeskyDecomposition.Primitive();
+        tmpExpected.decompose(tmpOriginal);
+
+        final OutOfCoreCholesky tmpActual = new OutOfCoreCholesky(tmpFile);
+        TestUtils.assertTrue(tmpActual.decompose(tmpOriginal));
+
+        // The factor is in the file
+        final BufferDenseStore tmpMapped = BufferDenseStore.map(tmpFile, 37, 37);
+        BlockedAlgorithmCase.assertNormEquals(tmpExpected.getL(), tmpMapped.logical().triangular(false, false).get());
+    }
+
+    public void testQR() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpOriginal = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Normal());
+
+            final QR<Double> tmpExpected = new QRDecomposition.Primitive();
+            tmpExpected.decompose(tmpOriginal);
+
+            final QR<Double> tmpActual = QR.PRIMITIVE.make(BufferDenseStore.FACTORY.makeZero(tmpDims[0], tmpDims[1]));
+            TestUtils.assertTrue(tmpActual instanceof OutOfCoreQR);
+            tmpActual.decompose(tmpOriginal);
+
+            final MatrixStore<Double> tmpQ = tmpActual.getQ();
+            BlockedAlgorithmCase.assertNormEquals(tmpExpected.getQ(), tmpQ);
+            BlockedAlgorithmCase.assertNormEquals(tmpExpected.getR(), tmpActual.getR());
+            TestUtils.assertEquals(tmpOriginal, tmpActual, PRECISION);
+            TestUtils.assertEquals(MatrixStore.PRIMITIVE.makeIdentity((int) tmpQ.countColumns()).get(), tmpQ.transpose().multiply(tmpQ), PRECISION);
+
+            if (tmpDims[0] >= tmpDims[1]) {
+                final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], 2, new Normal());
+                TestUtils.assertTrue(tmpActual.isSolvable());
+                TestUtils.assertEquals(tmpExpected.solve(tmpRHS), tmpActual.solve(tmpRHS), PRECISION);
+            }
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        myBlock = BlockedAlgorithm.BLOCK;
+        myPanelSize = BufferDenseStore.PANEL_SIZE;
+
+        BlockedAlgorithm.BLOCK = 3;
+        BufferDenseStore.PANEL_SIZE = 400;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        BlockedAlgorithm.BLOCK = myBlock;
+        BufferDenseStore.PANEL_SIZE = myPanelSize;
+
+        super.tearDown();
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.matrix.task.SolverTask;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The sparse Cholesky and LU decompositions must give the same solutions, determinants and reconstructions
+ * as the dense ones - with each of the fill-reducing orderings, and when the numeric factorisation is
+ * executed in parallel.
+ *
+ * @author apete
+ */
+public class SparseCase extends MatrixDecompositionTests {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    /**
+     * The 5-point Laplacian on a grid - the matrix of a 2D Poisson problem.
+     */
+    static SparseStore<Double> makeLaplacian(final int gridDim) {
+
+        final int tmpDim = gridDim * gridDim;
+        final SparseStore.Builder<Double> retVal = SparseStore.buildPrimitive(tmpDim, tmpDim, 5 * tmpDim);
+
+        for (int x = 0; x < gridDim; x++) {
+            for (int y = 0; y < gridDim; y++) {
+                final int tmpIndex = x + (y * gridDim);
+                retVal.add(tmpIndex, tmpIndex, 4.0);
+                if (x > 0) {
+                    retVal.add(tmpIndex, tmpIndex - 1, -1.0);
+                    retVal.add(tmpIndex - 1, tmpIndex, -1.0);
+                }
+                if (y > 0) {
+                    retVal.add(tmpIndex, tmpIndex - gridDim, -1.0);
+                    retVal.add(tmpIndex - gridDim, tmpIndex, -1.0);
+                }
+            }
+        }
+
+        return retVal.build();
+    }
+
+    /**
+     * A random symmetric matrix, with about density * dim * dim nonzeros, made positive definite by diagonal
+     * dominance.
+     */
+    static SparseStore<Double> makeSPD(final int dim, final double density, final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+        final SparseStore.Builder<Double> retVal = SparseStore.buildPrimitive(dim, dim, dim);
+
+        final double[] tmpDiagonal = new double[dim];
+        final int tmpCount = (int) ((density * dim * dim) / 2.0);
+        for (int k = 0; k < tmpCount; k++) {
+            final int i = tmpRandom.nextInt(dim);
+            final int j = tmpRandom.nextInt(dim);
+            if (i != j) {
+                final double tmpValue = tmpRandom.nextGaussian();
+                retVal.add(i, j, tmpValue);
+                retVal.add(j, i, tmpValue);
+                tmpDiagonal[i] += Math.abs(tmpValue);
+                tmpDiagonal[j] += Math.abs(tmpValue);
+            }
+        }
+        for (int ij = 0; ij < dim; ij++) {
+            retVal.add(ij, ij, tmpDiagonal[ij] + 1.0);
+        }
+
+        return retVal.build();
+    }
+
+    private ForkJoinPool myPool;
+    private double myThreshold;
+
+    public SparseCase() {
+        super();
+    }
+
+    public SparseCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCholesky() {
+
+        for (final SparseOrdering tmpOrdering : SparseOrdering.values()) {
+            for (final int tmpDim : new int[] { 1, 2, 7, 50, 300 }) {
+
+                final SparseStore<Double> tmpOriginal = SparseCase.makeSPD(tmpDim, 0.05, tmpDim);
+                final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpOriginal);
+
+                final SparseCholesky tmpSparse = new SparseCholesky(tmpOrdering);
+                TestUtils.assertTrue(tmpSparse.checkAndCompute(tmpOriginal));
+                TestUtils.assertTrue(tmpSparse.isSolvable());
+
+                final Cholesky<Double> tmpReference = new RawCholesky();
+                tmpReference.decompose(tmpDense);
+
+                this.assertSolution(tmpDense, tmpSparse, tmpReference);
+                if (tmpDim <= 50) {
+                    // Larger ones overflow
+                    TestUtils.assertEquals(tmpReference.getDeterminant(), tmpSparse.getDeterminant(), PRECISION);
+                }
+                TestUtils.assertTrue(MatrixUtils.equals(tmpDense, tmpSparse, PRECISION));
+                TestUtils.assertEquals(tmpDense, MatrixUtils.reconstruct(tmpSparse), PRECISION);
+                final MatrixStore<Double> tmpReorderedL = tmpSparse.getReorderedL();
+                TestUtils.assertEquals(tmpReorderedL, tmpReorderedL.logical().triangular(false, false).get(), PRECISION);
+            }
+        }
+
+        final SparseStore<Double> tmpIndefinite = SparseCase.makeSPD(100, 0.05, 100L);
+        tmpIndefinite.set(70, 70, -1.0);
+        final SparseCholesky tmpSparse = new SparseCholesky();
+        tmpSparse.decompose(tmpIndefinite);
+        TestUtils.assertFalse(tmpSparse.isSPD());
+        TestUtils.assertFalse(tmpSparse.isSolvable());
+
+        final SparseStore<Double> tmpUnsymmetric = SparseCase.makeSPD(100, 0.05, 100L);
+        tmpUnsymmetric.set(3, 70, 1.0);
+        tmpUnsymmetric.set(70, 3, 2.0);
+        TestUtils.assertFalse(tmpSparse.checkAndCompute(tmpUnsymmetric));
+    }
+
+    public void testLaplacian() {
+
+        final SparseStore<Double> tmpOriginal = SparseCase.makeLaplacian(30);
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpOriginal);
+
+        final Cholesky<Double> tmpReference = new RawCholesky();
+        tmpReference.decompose(tmpDense);
+
+        for (final SparseOrdering tmpOrdering : SparseOrdering.values()) {
+
+            final SparseCholesky.Symbolic tmpSymbolic = SparseCholesky.analyse(tmpOriginal, tmpOrdering);
+            TestUtils.assertTrue(tmpSymbolic.isApplicable(tmpOriginal));
+
+            final SparseCholesky tmpSparse = new SparseCholesky(tmpSymbolic);
+            TestUtils.assertTrue(ExecutionContext.of(myPool, 4).call(() -> tmpSparse.decompose(tmpOriginal)));
+            this.assertSolution(tmpDense, tmpSparse, tmpReference);
+
+            final SparseLU tmpLU = new SparseLU(tmpOrdering);
+            TestUtils.assertTrue(tmpLU.decompose(tmpOriginal));
+            this.assertSolution(tmpDense, tmpLU, tmpReference);
+            // Both orderings are much better than none
+            if (tmpOrdering != SparseOrdering.NATURAL) {
+                TestUtils.assertTrue(tmpSymbolic.countNonzeros() < (SparseCholesky.analyse(tmpOriginal, SparseOrdering.NATURAL).countNonzeros()));
+            }
+        }
+    }
+
+    public void testLU() {
+
+        for (final SparseOrdering tmpOrdering : SparseOrdering.values()) {
+            for (final int tmpDim : new int[] { 1, 2, 7, 50, 300 }) {
+
+                final SparseStore<Double> tmpOriginal = SparseStore.makePrimitive(tmpDim, tmpDim);
+                final Random tmpRandom = new Random(tmpDim);
+                for (int k = 0; k < (tmpDim * 4); k++) {
+                    tmpOriginal.set(tmpRandom.nextInt(tmpDim), tmpRandom.nextInt(tmpDim), tmpRandom.nextGaussian());
+                }
+                for (int ij = 0; ij < tmpDim; ij++) {
+                    // Small diagonal elements - most will not be pivots
+                    tmpOriginal.set(ij, ij, 0.01 * tmpRandom.nextGaussian());
+                }
+                for (int j = 0; j < tmpDim; j++) {
+                    // A large element in each column, on a shifted row, keeps it well conditioned
+                    final int i = (j + (tmpDim / 2)) % tmpDim;
+                    if (i != j) {
+                        tmpOriginal.set(i, j, 10.0 + tmpRandom.nextDouble());
+                    }
+                }
+                final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpOriginal);
+
+                final SparseLU tmpSparse = new SparseLU(tmpOrdering);
+                TestUtils.assertTrue(tmpSparse.decompose(tmpOriginal));
+
+                final LU<Double> tmpReference = new RawLU();
+                tmpReference.decompose(tmpDense);
+
+                TestUtils.assertEquals(tmpReference.getRank(), tmpSparse.getRank());
+                TestUtils.assertTrue(MatrixUtils.equals(tmpDense, tmpSparse, PRECISION));
+                final MatrixStore<Double> tmpReorderedU = tmpSparse.getReorderedU();
+                TestUtils.assertEquals(tmpReorderedU, tmpReorderedU.logical().triangular(true, false).get(), PRECISION);
+                TestUtils.assertEquals(tmpReorderedU, tmpSparse.getU().logical().column(tmpSparse.getColumnOrder()).get(), PRECISION);
+                TestUtils.assertEquals(tmpReference.getDeterminant(), tmpSparse.getDeterminant(), PRECISION);
+                if (tmpReference.isSolvable()) {
+                    this.assertSolution(tmpDense, tmpSparse, tmpReference);
+                }
+            }
+        }
+
+        final SparseStore<Double> tmpSingular = SparseStore.makePrimitive(4, 4);
+        tmpSingular.set(0, 0, 1.0);
+        tmpSingular.set(1, 1, 2.0);
+        tmpSingular.set(3, 3, 3.0);
+        tmpSingular.set(2, 0, 1.0);
+        final SparseLU tmpSparse = new SparseLU();
+        TestUtils.assertTrue(tmpSparse.decompose(tmpSingular));
+        TestUtils.assertEquals(3, tmpSparse.getRank());
+        TestUtils.assertFalse(tmpSparse.isSolvable());
+        TestUtils.assertTrue(MatrixUtils.equals(PrimitiveDenseStore.FACTORY.copy(tmpSingular), tmpSparse, PRECISION));
+
+        // Without pivoting a zero diagonal element is not pivoted away - the matrix is reported as singular
+        final SparseStore<Double> tmpZeroDiagonal = SparseStore.makePrimitive(2, 2);
+        tmpZeroDiagonal.set(0, 1, 1.0);
+        tmpZeroDiagonal.set(1, 0, 1.0);
+        tmpZeroDiagonal.set(1, 1, 1.0);
+        final SparseLU tmpNatural = new SparseLU(SparseOrdering.NATURAL);
+        TestUtils.assertTrue(tmpNatural.decompose(tmpZeroDiagonal));
+        TestUtils.assertTrue(tmpNatural.isSolvable());
+        TestUtils.assertTrue(tmpNatural.computeWithoutPivoting(tmpZeroDiagonal));
+        TestUtils.assertFalse(tmpNatural.isSolvable());
+        TestUtils.assertEquals(1, tmpNatural.getRank());
+    }
+
+    public void testReuseSymbolic() {
+
+        final SparseStore<Double> tmpFirst = SparseCase.makeSPD(200, 0.03, 1L);
+        // Same pattern, different values
+        final SparseStore<Double> tmpSecond = SparseCase.makeSPD(200, 0.03, 1L);
+        for (int ij = 0; ij < 200; ij++) {
+            tmpSecond.set(ij, ij, 2.0 * tmpSecond.doubleValue(ij, ij));
+        }
+
+        final SparseCholesky tmpSparse = new SparseCholesky();
+        TestUtils.assertTrue(tmpSparse.decompose(tmpFirst));
+        final SparseCholesky.Symbolic tmpSymbolic = tmpSparse.getSymbolic();
+
+        TestUtils.assertTrue(tmpSparse.decompose(tmpSecond));
+        TestUtils.assertTrue(tmpSymbolic == tmpSparse.getSymbolic());
+        TestUtils.assertTrue(MatrixUtils.equals(PrimitiveDenseStore.FACTORY.copy(tmpSecond), tmpSparse, PRECISION));
+
+        // Compressed stores work the same as SparseStore
+        final CompressedStore tmpCompressed = CompressedStore.builder(tmpSecond).toColumnStore();
+        TestUtils.assertTrue(tmpSymbolic.isApplicable(tmpCompressed));
+        TestUtils.assertTrue(tmpSparse.decompose(tmpCompressed));
+        TestUtils.assertTrue(tmpSymbolic == tmpSparse.getSymbolic());
+
+        TestUtils.assertFalse(Cholesky.PRIMITIVE.make(tmpCompressed) instanceof SparseCholesky);
+        TestUtils.assertTrue(Cholesky.SPARSE.make(tmpCompressed) instanceof SparseCholesky);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeZero(200, 1);
+        TestUtils.assertTrue(SolverTask.PRIMITIVE.make(tmpSecond, tmpRHS, true, true) instanceof SparseCholesky);
+        TestUtils.assertTrue(SolverTask.PRIMITIVE.make(tmpSecond, tmpRHS, false, false) instanceof SparseLU);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        myThreshold = SparseCholesky.THRESHOLD;
+        SparseCholesky.THRESHOLD = 0.0;
+
+        myPool = new ForkJoinPool(4);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        SparseCholesky.THRESHOLD = myThreshold;
+
+        myPool.shutdown();
+
+        super.tearDown();
+    }
+
+    private void assertSolution(final PrimitiveDenseStore original, final MatrixDecomposition.Solver<Double> sparse,
+            final MatrixDecomposition.Solver<Double> reference) {
+
+        final int tmpDim = (int) original.countRows();
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 3, new Normal());
+
+        final MatrixStore<Double> tmpExpected = reference.solve(tmpRHS);
+        final MatrixStore<Double> tmpActual = sparse.solve(tmpRHS);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual, PRECISION);
+        TestUtils.assertEquals(tmpRHS, original.multiply(tmpActual), PRECISION);
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The tiled (task DAG) primitive Cholesky and LU algorithms must produce the same results as the unblocked
+ * ones - when executed on a pool of several threads as well as sequentially (in program order). Small tiles
+ * are used to get many tasks.
+ *
+ * @author apete
+ */
+public class TiledAlgorithmCase extends MatrixDecompositionTests {
+
+    private static final int[][] DIMENSIONS = new int[][] { { 3, 3 }, { 50, 50 }, { 97, 97 }, { 120, 75 }, { 75, 120 }, { 64, 65 } };
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    private ExecutionContext myParallel;
+    private ForkJoinPool myPool;
+    private int myThreshold;
+    private int myTile;
+
+    public TiledAlgorithmCase() {
+        super();
+    }
+
+    public TiledAlgorithmCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCholesky() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpOriginal = BlockedAlgorithmCase.makeSPD(tmpDims[0]);
+
+            final Cholesky<Double> tmpUnblocked = new CholeskyDecomposition.Primitive();
+            GEMM.THRESHOLD = Integer.MAX_VALUE;
+            TestUtils.assertTrue(tmpUnblocked.decompose(tmpOriginal, ExecutionContext.SEQUENTIAL));
+
+            GEMM.THRESHOLD = 0;
+
+            final Cholesky<Double> tmpTiled = new CholeskyDecomposition.Primitive();
+            TestUtils.assertTrue(tmpTiled.decompose(tmpOriginal, myParallel));
+            BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getL(), tmpTiled.getL());
+            TestUtils.assertEquals(tmpOriginal, tmpTiled, PRECISION);
+
+            final PrimitiveDenseStore tmpSequential = tmpOriginal.copy();
+            TestUtils.assertTrue(ExecutionContext.SEQUENTIAL.call(() -> TiledAlgorithm.cholesky(tmpSequential.data, tmpDims[0])));
+            BlockedAlgorithmCase.assertNormEquals(((CholeskyDecomposition<Double>) tmpUnblocked).getInPlace(), tmpSequential);
+        }
+
+        final PrimitiveDenseStore tmpIndefinite = BlockedAlgorithmCase.makeSPD(100);
+        tmpIndefinite.set(70, 70, -tmpIndefinite.doubleValue(70, 70));
+
+        final Cholesky<Double> tmpTiled = new CholeskyDecomposition.Primitive();
+        GEMM.THRESHOLD = 0;
+        tmpTiled.decompose(tmpIndefinite, myParallel);
+        TestUtils.assertFalse(tmpTiled.isSPD());
+    }
+
+    public void testLU() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            for (final boolean tmpPivoting : new boolean[] { true, false }) {
+
+                final PrimitiveDenseStore tmpOriginal = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Normal());
+                if (tmpPivoting) {
+                    // Make it rank deficient
+                    tmpOriginal.fillRow(tmpDims[0] / 2, 0, tmpOriginal.sliceRow(0, 0));
+                } else {
+                    // Make it diagonally dominant - no need to pivot
+                    for (int ij = 0; ij < Math.min(tmpDims[0], tmpDims[1]); ij++) {
+                        tmpOriginal.add(ij, ij, tmpDims[1]);
+                    }
+                }
+
+                final LUDecomposition<Double> tmpUnblocked = new LUDecomposition.Primitive();
+                GEMM.THRESHOLD = Integer.MAX_VALUE;
+                ExecutionContext.SEQUENTIAL.run(() -> TiledAlgorithmCase.decompose(tmpUnblocked, tmpOriginal, tmpPivoting));
+
+                GEMM.THRESHOLD = 0;
+
+                final LUDecomposition<Double> tmpTiled = new LUDecomposition.Primitive();
+                myParallel.run(() -> TiledAlgorithmCase.decompose(tmpTiled, tmpOriginal, tmpPivoting));
+
+                TestUtils.assertEquals(tmpUnblocked.getPivotOrder(), tmpTiled.getPivotOrder());
+                BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getL(), tmpTiled.getL());
+                BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getU(), tmpTiled.getU());
+                TestUtils.assertEquals(tmpOriginal, tmpTiled, PRECISION);
+
+                final PrimitiveDenseStore tmpSequential = tmpOriginal.copy();
+                final Pivot tmpPivot = new Pivot(tmpDims[0]);
+                ExecutionContext.SEQUENTIAL.run(() -> TiledAlgorithm.lu(tmpSequential.data, tmpDims[0], tmpDims[1], tmpPivot, tmpPivoting));
+                TestUtils.assertEquals(tmpUnblocked.getPivotOrder(), tmpPivot.getOrder());
+                BlockedAlgorithmCase.assertNormEquals(tmpUnblocked.getInPlace(), tmpSequential);
+            }
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        myTile = TiledAlgorithm.TILE;
+        myThreshold = GEMM.THRESHOLD;
+
+        TiledAlgorithm.TILE = 16;
+
+        myPool = new ForkJoinPool(4);
+        myParallel = ExecutionContext.of(myPool, 4);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        TiledAlgorithm.TILE = myTile;
+        GEMM.THRESHOLD = myThreshold;
+
+        myPool.shutdown();
+
+        super.tearDown();
+    }
+
+    private static void decompose(final LUDecomposition<Double> decomposition, final PrimitiveDenseStore matrix, final boolean pivoting) {
+        if (pivoting) {
+            decomposition.decompose(matrix);
+        } else {
+            decomposition.computeWithoutPivoting(matrix);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@linkplain BinaryStoreFormat} round trips - each store type is read back with the same layout, and
+ * everything can be read to a dense store.
+ *
+ * @author apete
+ */
+public class BinaryCase extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 14);
+
+    private static ByteArrayInputStream write(final MatrixStore<?> store) throws IOException {
+        final ByteArrayOutputStream retVal = new ByteArrayOutputStream();
+        BinaryStoreFormat.write(store, retVal);
+        return new ByteArrayInputStream(retVal.toByteArray());
+    }
+
+    public BinaryCase() {
+        super();
+    }
+
+    public BinaryCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testDense() throws IOException {
+
+        final PrimitiveDenseStore tmpPrimitive = PrimitiveDenseStore.FACTORY.makeFilled(9, 7, new Normal());
+        final MatrixStore<Double> tmpPrimitiveCopy = BinaryStoreFormat.read(BinaryCase.write(tmpPrimitive));
+        TestUtils.assertTrue(tmpPrimitiveCopy instanceof PrimitiveDenseStore);
+        TestUtils.assertEquals(tmpPrimitive, tmpPrimitiveCopy, PRECISION);
+
+        // Any other store is written element by element
+        TestUtils.assertEquals(tmpPrimitive.transpose(), BinaryStoreFormat.read(BinaryCase.write(tmpPrimitive.transpose())), PRECISION);
+
+        final ComplexDenseStore tmpComplex = ComplexDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(5, 6));
+        tmpComplex.set(1, 2, ComplexNumber.of(1.0, 2.0));
+        final ComplexDenseStore tmpComplexCopy = BinaryStoreFormat.read(BinaryCase.write(tmpComplex), ComplexDenseStore.FACTORY);
+        TestUtils.assertEquals(tmpComplex, tmpComplexCopy, PRECISION);
+
+        try {
+            BinaryStoreFormat.read(BinaryCase.write(tmpComplex));
+            TestUtils.fail();
+        } catch (final IOException expected) {
+            // Complex elements must be read with a complex factory
+        }
+    }
+
+    public void testMapped() throws IOException {
+
+        final File tmpFile = File.createTempFile("BinaryCase", ".bin");
+        tmpFile.deleteOnExit();
+
+        final PrimitiveDenseStore tmpOriginal = PrimitiveDenseStore.FACTORY.makeFilled(37, 23, new Normal());
+        BinaryStoreFormat.write(BufferDenseStore.FACTORY.copy(tmpOriginal), new FileOutputStream(tmpFile));
+
+        final BufferDenseStore tmpMapped = BinaryStoreFormat.map(tmpFile);
+        TestUtils.assertEquals(tmpOriginal, tmpMapped, PRECISION);
+    }
+
+    public void testSparse() throws IOException {
+
+        final SparseStore<Double> tmpSparse = SparseStore.makePrimitive(11, 8);
+        tmpSparse.set(0, 0, 1.0);
+        tmpSparse.set(3, 1, -2.0);
+        tmpSparse.set(10, 7, 3.5);
+        tmpSparse.set(4, 7, 4.5);
+
+        final MatrixStore<Double> tmpTriplets = BinaryStoreFormat.read(BinaryCase.write(tmpSparse));
+        TestUtils.assertTrue(tmpTriplets instanceof SparseStore);
+        TestUtils.assertEquals(tmpSparse, tmpTriplets, PRECISION);
+
+        final CompressedRowStore tmpRows = CompressedStore.builder(tmpSparse).toRowStore();
+        final MatrixStore<Double> tmpCSR = BinaryStoreFormat.read(BinaryCase.write(tmpRows));
+        TestUtils.assertTrue(tmpCSR instanceof CompressedRowStore);
+        TestUtils.assertEquals(tmpSparse, tmpCSR, PRECISION);
+
+        final CompressedColumnStore tmpColumns = CompressedStore.builder(tmpSparse).toColumnStore();
+        final MatrixStore<Double> tmpCSC = BinaryStoreFormat.read(BinaryCase.write(tmpColumns));
+        TestUtils.assertTrue(tmpCSC instanceof CompressedColumnStore);
+        TestUtils.assertEquals(tmpSparse, tmpCSC, PRECISION);
+
+        TestUtils.assertEquals(tmpSparse, BinaryStoreFormat.read(BinaryCase.write(tmpSparse), PrimitiveDenseStore.FACTORY), PRECISION);
+        TestUtils.assertEquals(tmpSparse, BinaryStoreFormat.read(BinaryCase.write(tmpRows), PrimitiveDenseStore.FACTORY), PRECISION);
+        TestUtils.assertEquals(tmpSparse, BinaryStoreFormat.read(BinaryCase.write(tmpColumns), PrimitiveDenseStore.FACTORY), PRECISION);
+
+        final ByteArrayOutputStream tmpOutput = new ByteArrayOutputStream();
+        BinaryStoreFormat.write(tmpRows, tmpOutput);
+        final byte[] tmpBytes = tmpOutput.toByteArray();
+        // Header 24 + 2 * 8, values 4 * 8, pointers 12 * 4 and then the column indices
+        final int tmpPointers = 24 + (2 * 8) + (4 * 8);
+        final int tmpIndices = tmpPointers + (12 * 4);
+        for (final int[] tmpCorruption : new int[][] { { tmpPointers, 1 }, { tmpPointers + 4, 3 }, { tmpIndices - 4, 5 }, { tmpIndices, 8 },
+                { tmpIndices + 4, -1 } }) {
+            final byte[] tmpCorrupt = tmpBytes.clone();
+            tmpCorrupt[tmpCorruption[0]] = (byte) tmpCorruption[1];
+            for (int r = 0; r < 2; r++) {
+                try {
+                    if (r == 0) {
+                        BinaryStoreFormat.read(new ByteArrayInputStream(tmpCorrupt));
+                    } else {
+                        BinaryStoreFormat.read(new ByteArrayInputStream(tmpCorrupt), PrimitiveDenseStore.FACTORY);
+                    }
+                    TestUtils.fail();
+                } catch (final IOException expected) {
+                    // Pointers not monotone or starting/ending wrong, or an index out of range
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@linkplain BufferDenseStore} compared to {@linkplain PrimitiveDenseStore} with the same elements. The
+ * segment and panel sizes are set small so that everything is split on several buffers and panels.
+ *
+ * @author apete
+ */
+public class BufferCase extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 12);
+
+    private static final int ROWS = 37;
+    private static final int COLUMNS = 23;
+
+    private PrimitiveDenseStore myDense;
+    private int myPanelSize;
+    private int mySegmentSize;
+
+    public BufferCase() {
+        super();
+    }
+
+    public BufferCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testElements() {
+
+        final BufferDenseStore tmpStore = BufferDenseStore.FACTORY.copy(myDense);
+
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+        TestUtils.assertEquals(myDense.transpose(), BufferDenseStore.FACTORY.transpose(myDense.transpose()).transpose(), PRECISION);
+        TestUtils.assertEquals(myDense, tmpStore.copy(), PRECISION);
+
+        final PrimitiveDenseStore tmpCopy = PrimitiveDenseStore.FACTORY.makeZero(ROWS, COLUMNS);
+        tmpStore.supplyTo(tmpCopy);
+        TestUtils.assertEquals(myDense, tmpCopy, PRECISION);
+
+        tmpStore.exchangeRows(1, 30);
+        tmpStore.exchangeColumns(2, 20);
+        myDense.exchangeRows(1, 30);
+        myDense.exchangeColumns(2, 20);
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+
+        TestUtils.assertEquals(myDense.indexOfLargestInColumn(3, 7), tmpStore.indexOfLargestInColumn(3, 7));
+        TestUtils.assertEquals(myDense.indexOfLargestInRow(5, 2), tmpStore.indexOfLargestInRow(5, 2));
+    }
+
+    public void testMapped() throws Exception {
+
+        final File tmpFile = File.createTempFile("BufferCase", ".bin");
+        tmpFile.deleteOnExit();
+
+        final BufferDenseStore tmpStore = BufferDenseStore.map(tmpFile, ROWS, COLUMNS);
+        tmpStore.fillMatching(myDense);
+
+        final BufferDenseStore tmpReopened = BufferDenseStore.map(tmpFile, ROWS, COLUMNS);
+        TestUtils.assertEquals(myDense, tmpReopened, PRECISION);
+        TestUtils.assertEquals(ROWS * COLUMNS * 8L, tmpFile.length());
+    }
+
+    public void testMultiplication() {
+
+        final BufferDenseStore tmpStore = BufferDenseStore.FACTORY.copy(myDense);
+
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(COLUMNS, 11));
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(5, ROWS));
+
+        TestUtils.assertEquals(myDense.multiply(tmpRight), tmpStore.multiply(tmpRight), PRECISION);
+        TestUtils.assertEquals(myDense.multiply(tmpRight), tmpStore.multiply(BufferDenseStore.FACTORY.copy(tmpRight)), PRECISION);
+        TestUtils.assertEquals(tmpLeft.multiply(myDense), tmpLeft.multiply(tmpStore), PRECISION);
+        TestUtils.assertEquals(tmpLeft.multiply(myDense), BufferDenseStore.FACTORY.copy(tmpLeft).multiply(tmpStore), PRECISION);
+        TestUtils.assertEquals(myDense.transpose().multiply(myDense), tmpStore.transpose().multiply(tmpStore), PRECISION);
+    }
+
+    public void testTransformations() {
+
+        final BufferDenseStore tmpStore = BufferDenseStore.FACTORY.copy(myDense);
+
+        final Random tmpRandom = new Random(456L);
+
+        final Householder.Primitive tmpLeft = new Householder.Primitive(ROWS);
+        tmpLeft.first = 3;
+        double tmpSum = 0.0;
+        for (int i = tmpLeft.first; i < ROWS; i++) {
+            tmpLeft.vector[i] = tmpRandom.nextGaussian();
+            tmpSum += tmpLeft.vector[i] * tmpLeft.vector[i];
+        }
+        tmpLeft.beta = 2.0 / tmpSum;
+
+        myDense.transformLeft(tmpLeft, 2);
+        tmpStore.transformLeft(tmpLeft, 2);
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+
+        final Householder.Primitive tmpRight = new Householder.Primitive(COLUMNS);
+        tmpRight.first = 1;
+        tmpSum = 0.0;
+        for (int j = tmpRight.first; j < COLUMNS; j++) {
+            tmpRight.vector[j] = tmpRandom.nextGaussian();
+            tmpSum += tmpRight.vector[j] * tmpRight.vector[j];
+        }
+        tmpRight.beta = 2.0 / tmpSum;
+
+        myDense.transformRight(tmpRight, 4);
+        tmpStore.transformRight(tmpRight, 4);
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+
+        final Rotation.Primitive tmpRotation = new Rotation.Primitive(2, 9, 0.6, 0.8);
+
+        myDense.transformLeft(tmpRotation);
+        tmpStore.transformLeft(tmpRotation);
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+
+        myDense.transformRight(tmpRotation);
+        tmpStore.transformRight(tmpRotation);
+        TestUtils.assertEquals(myDense, tmpStore, PRECISION);
+    }
+
+    public void testTranspose() throws Exception {
+
+        final File tmpFile = File.createTempFile("BufferCase", ".bin");
+        tmpFile.deleteOnExit();
+
+        final BufferDenseStore tmpStore = BufferDenseStore.FACTORY.copy(myDense);
+        final BufferDenseStore tmpTransposed = BufferDenseStore.map(tmpFile, COLUMNS, ROWS);
+        BufferDenseStore.transpose(tmpStore, tmpTransposed);
+        TestUtils.assertEquals(myDense.transpose(), tmpTransposed, PRECISION);
+
+        // Descending, and only some of the rows
+        final BufferDenseStore.ReadAhead tmpReader = tmpStore.readAhead(2, 7, 1, COLUMNS, 3, true);
+        int tmpLimit = COLUMNS;
+        while (tmpReader.next()) {
+            TestUtils.assertEquals(tmpLimit, tmpReader.column() + tmpReader.columns());
+            for (int j = 0; j < tmpReader.columns(); j++) {
+                for (int i = 0; i < 7; i++) {
+                    TestUtils.assertEquals(myDense.doubleValue(2 + i, tmpReader.column() + j), tmpReader.data()[i + (j * 7)], PRECISION);
+                }
+            }
+            tmpLimit = tmpReader.column();
+        }
+        TestUtils.assertEquals(1, tmpLimit);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        myPanelSize = BufferDenseStore.PANEL_SIZE;
+        mySegmentSize = BufferDenseStore.SEGMENT_SIZE;
+
+        BufferDenseStore.PANEL_SIZE = 4 * ROWS;
+        BufferDenseStore.SEGMENT_SIZE = 5 * ROWS;
+
+        myDense = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(ROWS, COLUMNS));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        BufferDenseStore.PANEL_SIZE = myPanelSize;
+        BufferDenseStore.SEGMENT_SIZE = mySegmentSize;
+
+        super.tearDown();
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@linkplain CompressedRowStore} and {@linkplain CompressedColumnStore} compared to dense stores with the
+ * same elements.
+ *
+ * @author apete
+ */
+public class CompressedCase extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 12);
+
+    private static final int ROWS = 37;
+    private static final int COLUMNS = 23;
+
+    private CompressedStore.Builder myBuilder;
+    private PrimitiveDenseStore myDense;
+
+    public CompressedCase() {
+        super();
+    }
+
+    public CompressedCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testConversions() {
+
+        final CompressedRowStore tmpRows = myBuilder.toRowStore();
+        final CompressedColumnStore tmpColumns = myBuilder.toColumnStore();
+
+        final SparseStore<Double> tmpSparse = tmpRows.toSparseStore();
+        TestUtils.assertEquals(myDense, tmpSparse, PRECISION);
+        TestUtils.assertEquals(myDense, tmpColumns.toSparseStore(), PRECISION);
+
+        TestUtils.assertEquals(myDense, CompressedStore.builder(tmpSparse).toRowStore(), PRECISION);
+        TestUtils.assertEquals(myDense, CompressedStore.builder(tmpSparse).toColumnStore(), PRECISION);
+        TestUtils.assertEquals(myDense, CompressedStore.builder(myDense).toRowStore(), PRECISION);
+
+        TestUtils.assertEquals(myDense, tmpRows.toColumnStore(), PRECISION);
+        TestUtils.assertEquals(myDense, tmpColumns.toRowStore(), PRECISION);
+        TestUtils.assertEquals(tmpRows.countNonzeros(), tmpColumns.countNonzeros());
+    }
+
+    public void testElements() {
+
+        final CompressedRowStore tmpRows = myBuilder.toRowStore();
+        final CompressedColumnStore tmpColumns = myBuilder.toColumnStore();
+
+        TestUtils.assertEquals(myDense, tmpRows, PRECISION);
+        TestUtils.assertEquals(myDense, tmpColumns, PRECISION);
+        TestUtils.assertEquals(myDense, tmpRows.copy(), PRECISION);
+        TestUtils.assertEquals(myDense, tmpColumns.copy(), PRECISION);
+
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < tmpRows.firstInRow(i); j++) {
+                TestUtils.assertEquals(0.0, myDense.doubleValue(i, j), PRECISION);
+            }
+            for (int j = tmpRows.limitOfRow(i); j < COLUMNS; j++) {
+                TestUtils.assertEquals(0.0, myDense.doubleValue(i, j), PRECISION);
+            }
+        }
+
+        for (int j = 0; j < COLUMNS; j++) {
+            for (int i = 0; i < tmpColumns.firstInColumn(j); i++) {
+                TestUtils.assertEquals(0.0, myDense.doubleValue(i, j), PRECISION);
+            }
+            for (int i = tmpColumns.limitOfColumn(j); i < ROWS; i++) {
+                TestUtils.assertEquals(0.0, myDense.doubleValue(i, j), PRECISION);
+            }
+        }
+
+        // Transposing shares the arrays
+        TestUtils.assertEquals(myDense.transpose(), tmpRows.transpose(), PRECISION);
+        TestUtils.assertEquals(myDense.transpose(), tmpColumns.transpose(), PRECISION);
+        TestUtils.assertTrue(tmpRows.transpose().myValues == tmpRows.myValues);
+    }
+
+    public void testMultiplication() {
+
+        final CompressedStore[] tmpStores = new CompressedStore[] { myBuilder.toRowStore(), myBuilder.toColumnStore() };
+
+        final PrimitiveDenseStore tmpVector = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(COLUMNS, 1));
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(COLUMNS, 7));
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(5, ROWS));
+
+        for (final ExecutionContext tmpContext : new ExecutionContext[] { ExecutionContext.SEQUENTIAL, ExecutionContext.ofThreads(4) }) {
+            for (final CompressedStore tmpStore : tmpStores) {
+
+                final String tmpMessage = tmpStore.getClass().getSimpleName() + " " + tmpContext;
+
+                TestUtils.assertEquals(tmpMessage, myDense.multiply(tmpVector), tmpContext.call(() -> tmpStore.multiply(tmpVector)), PRECISION);
+                TestUtils.assertEquals(tmpMessage, myDense.multiply(tmpRight), tmpContext.call(() -> tmpStore.multiply(tmpRight)), PRECISION);
+                TestUtils.assertEquals(tmpMessage, tmpLeft.multiply(myDense), tmpContext.call(() -> tmpLeft.multiply(tmpStore)), PRECISION);
+                TestUtils.assertEquals(tmpMessage, tmpRight.transpose().multiply(myDense.transpose()),
+                        tmpContext.call(() -> tmpStore.transpose().premultiply(tmpRight.transpose()).get()), PRECISION);
+            }
+        }
+    }
+
+    public void testOutOfRange() {
+
+        final long[][] tmpInvalid = new long[][] { { -1L, 0L }, { ROWS, 0L }, { 0L, -1L }, { 0L, COLUMNS }, { 1L << 32, 0L } };
+
+        for (final long[] tmpIndex : tmpInvalid) {
+            try {
+                myBuilder.add(tmpIndex[0], tmpIndex[1], 1.0);
+                TestUtils.fail(tmpIndex[0] + ", " + tmpIndex[1]);
+            } catch (final ArrayIndexOutOfBoundsException expected) {
+                // Rejected when added, not when compressed
+            }
+        }
+
+        TestUtils.assertEquals(myDense, myBuilder.toRowStore(), PRECISION);
+
+        try {
+            CompressedStore.builder(1L << 32, COLUMNS, 4);
+            TestUtils.fail();
+        } catch (final IllegalArgumentException expected) {
+            // Too many rows
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        final Random tmpRandom = new Random(123L);
+
+        myDense = PrimitiveDenseStore.FACTORY.makeZero(ROWS, COLUMNS);
+        myBuilder = CompressedStore.builder(ROWS, COLUMNS, 4);
+
+        // Random order, with duplicates, and an empty row and column
+        for (int k = 0; k < 200; k++) {
+            final int tmpRow = tmpRandom.nextInt(ROWS - 1);
+            final int tmpColumn = tmpRandom.nextInt(COLUMNS - 1);
+            final double tmpValue = tmpRandom.nextGaussian();
+            myDense.add(tmpRow, tmpColumn, tmpValue);
+            myBuilder.add(tmpRow, tmpColumn, tmpValue);
+        }
+    }
+
+}
@@ -33,6 +33,9 @@ public abstract class MatrixStoreTests extends FunctionalityTest {
     public static Test suite() {
         final TestSuite suite = new TestSuite(MatrixStoreTests.class.getPackage().getName());
         //$JUnit-BEGIN$
+        suite.addTestSuite(BinaryCase.class);
+        suite.addTestSuite(BufferCase.class);
+        suite.addTestSuite(CompressedCase.class);
         suite.addTestSuite(ConjugatedCase.class);
         suite.addTestSuite(IdentityCase.class);
         suite.addTestSuite(MergedColumnsCase.class);
@@ -40,6 +43,7 @@ public abstract class MatrixStoreTests extends FunctionalityTest {
         suite.addTestSuite(SelectedColumnsCase.class);
         suite.addTestSuite(SelectedRowsCase.class);
         suite.addTestSuite(StoreProblems.class);
+        suite.addTestSuite(StrassenWinogradCase.class);
         suite.addTestSuite(SuperimposedMatrixColumnCase.class);
         suite.addTestSuite(SuperimposedMatrixElementCase.class);
         suite.addTestSuite(SuperimposedMatrixRowCase.class);
@@ -21,11 +21,29 @@
  */
 package org.ojalgo.matrix.store;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.ojalgo.OjAlgoUtils;
 import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.matrix.BasicMatrix;
 import org.ojalgo.matrix.MatrixUtils;
 import org.ojalgo.matrix.PrimitiveMatrix;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.MultiplyLeft;
+import org.ojalgo.matrix.store.operation.MultiplyNeither;
+import org.ojalgo.matrix.store.operation.MultiplyRight;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
 public class StoreProblems extends AbstractMatrixStoreTest {
@@ -72,6 +90,295 @@ public class StoreProblems extends AbstractMatrixStoreTest {
         sx.multiply(currentState);
     }
 
+    /**
+     * The same multithreaded operation executed within different execution contexts should produce the same
+     * results, and the sequential context should never use any other thread.
+     */
+    public void testExecutionContext() {
+
+        final int tmpDim = 100;
+
+        final PhysicalStore<Double> tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpActual = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+
+        final MatrixStore<Double> tmpExpected = tmpLeft.multiply(tmpRight);
+
+        final ExecutorService tmpFixedPool = Executors.newFixedThreadPool(2);
+        final ForkJoinPool tmpForkJoinPool = new ForkJoinPool(2);
+
+        try {
+
+            final ExecutionContext[] tmpContexts = new ExecutionContext[] { ExecutionContext.SEQUENTIAL, ExecutionContext.ofThreads(2),
+                    ExecutionContext.of(tmpFixedPool, 4), ExecutionContext.of(tmpForkJoinPool, 4) };
+
+            for (final ExecutionContext tmpContext : tmpContexts) {
+                tmpActual.fillAll(PrimitiveMath.ZERO);
+                tmpActual.fillByMultiplying(tmpLeft, tmpRight, tmpContext);
+                TestUtils.assertEquals(tmpContext.toString(), tmpExpected, tmpActual, new NumberContext(7, 6));
+            }
+
+        } finally {
+            tmpFixedPool.shutdown();
+            tmpForkJoinPool.shutdown();
+        }
+
+        final Thread tmpCallingThread = Thread.currentThread();
+        final AtomicBoolean tmpOtherThread = new AtomicBoolean(false);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                if (Thread.currentThread() != tmpCallingThread) {
+                    tmpOtherThread.set(true);
+                }
+            }
+        };
+
+        ExecutionContext.SEQUENTIAL.run(() -> tmpConquerer.invoke(0, tmpDim, 1));
+
+        TestUtils.assertFalse(tmpOtherThread.get());
+    }
+
+    /**
+     * With {@linkplain OjAlgoUtils#VIRTUAL_THREAD_FRIENDLY} small operations, and everything done with the
+     * implicit default context except the (large) multithreaded operations, stay on the calling thread.
+     */
+    public void testVirtualThreadFriendly() {
+
+        final boolean tmpFriendly = OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY;
+        OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY = true;
+
+        final ForkJoinPool tmpForkJoinPool = new ForkJoinPool(2);
+
+        try {
+
+            final Thread tmpCallingThread = Thread.currentThread();
+            final AtomicBoolean tmpOtherThread = new AtomicBoolean(false);
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    if (Thread.currentThread() != tmpCallingThread) {
+                        tmpOtherThread.set(true);
+                    }
+                }
+            };
+
+            // Would otherwise be split, but there's less than a full threshold per worker
+            ExecutionContext.ofThreads(4).run(() -> tmpConquerer.invoke(0, 30, 20));
+            TestUtils.assertFalse(tmpOtherThread.get());
+
+            TestUtils.assertTrue(ExecutionContext.DEFAULT.getPool() == null);
+            TestUtils.assertTrue(ExecutionContext.ofThreads(4).getPool() != null);
+
+            final Future<Thread> tmpFuture = ExecutionContext.DEFAULT.submit(() -> Thread.currentThread());
+            TestUtils.assertTrue(tmpFuture.isDone());
+
+            // Large enough to be handed over to a pool - the calling thread parks while waiting
+            final int tmpDim = 200;
+
+            final PhysicalStore<Double> tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+            final PhysicalStore<Double> tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+            final PhysicalStore<Double> tmpActual = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+
+            final MatrixStore<Double> tmpExpected = ExecutionContext.SEQUENTIAL.call(() -> tmpLeft.multiply(tmpRight));
+
+            tmpActual.fillByMultiplying(tmpLeft, tmpRight, ExecutionContext.of(tmpForkJoinPool, 2));
+            TestUtils.assertEquals(tmpExpected, tmpActual, new NumberContext(7, 6));
+
+            final RuntimeException tmpFailure = new IllegalStateException();
+            try {
+                ExecutionContext.of(tmpForkJoinPool, 2).invoke(new RecursiveAction() {
+
+                    @Override
+                    protected void compute() {
+                        throw tmpFailure;
+                    }
+                });
+                TestUtils.fail();
+            } catch (final IllegalStateException exception) {
+                TestUtils.assertTrue(exception == tmpFailure);
+            }
+
+        } finally {
+            OjAlgoUtils.VIRTUAL_THREAD_FRIENDLY = tmpFriendly;
+            tmpForkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * The blocked/packed GEMM kernel must produce the same results as the simple kernels, also when the
+     * dimensions are not multiples of the register tile or block sizes, and when the operands are not dense
+     * (the "multiply both" case).
+     */
+    public void testBlockedMultiplication() {
+
+        final int[][] tmpDimensions = new int[][] { { 1, 1, 1 }, { 5, 3, 7 }, { 37, 129, 11 }, { 131, 97, 203 }, { 300, 600, 257 } };
+
+        for (final int[] tmpDims : tmpDimensions) {
+
+            final int tmpRows = tmpDims[0];
+            final int tmpComplexity = tmpDims[1];
+            final int tmpColumns = tmpDims[2];
+
+            final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpRows, tmpComplexity));
+            final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpComplexity, tmpColumns));
+
+            final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+            for (int j = 0; j < tmpColumns; j++) {
+                for (int c = 0; c < tmpComplexity; c++) {
+                    for (int i = 0; i < tmpRows; i++) {
+                        tmpExpected.add(i, j, tmpLeft.doubleValue(i, c) * tmpRight.doubleValue(c, j));
+                    }
+                }
+            }
+
+            final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeFilled(tmpRows, tmpColumns, new Uniform());
+            GEMM.invoke(tmpActual.data, tmpLeft.data, tmpComplexity, tmpRight.data);
+            TestUtils.assertEquals(tmpExpected, tmpActual, new NumberContext(7, 10));
+
+            tmpActual.fillAll(PrimitiveMath.NaN);
+            tmpActual.fillByMultiplying(tmpLeft, tmpRight);
+            TestUtils.assertEquals(tmpExpected, tmpActual, new NumberContext(7, 10));
+
+            tmpActual.fillAll(PrimitiveMath.NaN);
+            tmpActual.fillByMultiplying(PrimitiveDenseStore.FACTORY.transpose(tmpLeft).logical().transpose().get(),
+                    PrimitiveDenseStore.FACTORY.transpose(tmpRight).logical().transpose().get());
+            TestUtils.assertEquals(tmpExpected, tmpActual, new NumberContext(7, 10));
+        }
+    }
+
+    /**
+     * Complex products with more rows than the multiply thresholds take the multithreaded paths, where the row
+     * count has to be derived from the interleaved (real, imaginary) arrays.
+     */
+    public void testComplexMultiplication() {
+
+        final int tmpThreshold = Math.max(MultiplyNeither.THRESHOLD, Math.max(MultiplyLeft.THRESHOLD, MultiplyRight.THRESHOLD));
+        final int[][] tmpDimensions = new int[][] { { tmpThreshold + 1, 7, 5 }, { 50, 50, 50 }, { 100, 20, 3 * tmpThreshold } };
+
+        for (final int[] tmpDims : tmpDimensions) {
+
+            final int tmpRows = tmpDims[0];
+            final int tmpComplexity = tmpDims[1];
+            final int tmpColumns = tmpDims[2];
+
+            final ComplexDenseStore tmpLeft = ComplexDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpRows, tmpComplexity));
+            final ComplexDenseStore tmpRight = ComplexDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpComplexity, tmpColumns));
+
+            final ComplexDenseStore tmpExpected = ComplexDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+            for (int j = 0; j < tmpColumns; j++) {
+                for (int i = 0; i < tmpRows; i++) {
+                    ComplexNumber tmpSum = ComplexNumber.ZERO;
+                    for (int c = 0; c < tmpComplexity; c++) {
+                        tmpSum = tmpSum.add(tmpLeft.get(i, c).multiply(tmpRight.get(c, j)));
+                    }
+                    tmpExpected.set(i, j, tmpSum);
+                }
+            }
+
+            final MatrixStore<ComplexNumber> tmpLogicalLeft = ComplexDenseStore.FACTORY.transpose(tmpLeft).logical().transpose().get();
+            final MatrixStore<ComplexNumber> tmpLogicalRight = ComplexDenseStore.FACTORY.transpose(tmpRight).logical().transpose().get();
+
+            for (final ExecutionContext tmpContext : new ExecutionContext[] { ExecutionContext.SEQUENTIAL, ExecutionContext.ofThreads(4) }) {
+
+                final String tmpMessage = tmpRows + "x" + tmpComplexity + "x" + tmpColumns + " " + tmpContext;
+
+                TestUtils.assertEquals(tmpMessage, tmpExpected, tmpContext.call(() -> tmpLeft.multiply(tmpRight)), new NumberContext(7, 10));
+                TestUtils.assertEquals(tmpMessage, tmpExpected, tmpContext.call(() -> tmpLeft.multiply(tmpLogicalRight)), new NumberContext(7, 10));
+                TestUtils.assertEquals(tmpMessage, tmpExpected, tmpContext.call(() -> tmpLogicalLeft.multiply(tmpRight)), new NumberContext(7, 10));
+
+                final ComplexDenseStore tmpActual = ComplexDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+                tmpContext.run(() -> tmpActual.fillByMultiplying(tmpLogicalLeft, tmpLogicalRight));
+                TestUtils.assertEquals(tmpMessage, tmpExpected, tmpActual, new NumberContext(7, 10));
+            }
+        }
+    }
+
+    /**
+     * Multithreaded operations invoked from within other multithreaded operations should be executed by the
+     * same (work-stealing) workers, and still produce the same results as when executed sequentially.
+     */
+    public void testNestedDivideAndConquer() {
+
+        final int tmpDim = 100;
+        final int tmpOuter = 8;
+
+        final PhysicalStore<Double> tmpLeft = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+        final PhysicalStore<Double> tmpRight = PrimitiveDenseStore.FACTORY.copy(MatrixUtils.makeRandomComplexStore(tmpDim, tmpDim));
+
+        final MatrixStore<Double> tmpExpected = tmpLeft.multiply(tmpRight);
+
+        final List<PhysicalStore<Double>> tmpProducts = new ArrayList<>();
+        for (int i = 0; i < tmpOuter; i++) {
+            tmpProducts.add(PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim));
+        }
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int i = first; i < limit; i++) {
+                    tmpProducts.get(i).fillByMultiplying(tmpLeft, tmpRight);
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, tmpOuter, 1);
+
+        for (final PhysicalStore<Double> tmpActual : tmpProducts) {
+            TestUtils.assertEquals(tmpExpected, tmpActual, new NumberContext(7, 6));
+        }
+    }
+
+    /**
+     * Triplets added in random order, with duplicates, should give the same store as adding them one at a
+     * time - including the first/limit structure of the rows and columns.
+     */
+    public void testSparseStoreBuilder() {
+
+        final int tmpRows = 200;
+        final int tmpColumns = 150;
+
+        final SparseStore<Double> tmpIncremental = SparseStore.makePrimitive(tmpRows, tmpColumns);
+        final SparseStore.Builder<Double> tmpBuilder = SparseStore.buildPrimitive(tmpRows, tmpColumns, 16);
+
+        for (int k = 0; k < 2000; k++) {
+            final long tmpRow = Uniform.randomInteger(tmpRows - 10);
+            final long tmpColumn = Uniform.randomInteger(tmpColumns - 10);
+            final double tmpValue = Uniform.randomInteger(10) + 1;
+            tmpIncremental.add(tmpRow, tmpColumn, tmpValue);
+            tmpBuilder.add(tmpRow, tmpColumn, tmpValue);
+        }
+
+        // A row or column out of range is rejected, rather than folded in to some other element
+        final long[][] tmpInvalid = new long[][] { { -1L, 0L }, { tmpRows, 0L }, { 0L, -1L }, { 0L, tmpColumns }, { tmpRows + 1L, tmpColumns - 1L } };
+        for (final long[] tmpIndex : tmpInvalid) {
+            try {
+                tmpBuilder.add(tmpIndex[0], tmpIndex[1], 1.0);
+                TestUtils.fail(tmpIndex[0] + ", " + tmpIndex[1]);
+            } catch (final ArrayIndexOutOfBoundsException expected) {
+                // Expected
+            }
+        }
+
+        final SparseStore<Double> tmpBuilt = tmpBuilder.build();
+
+        TestUtils.assertEquals(tmpIncremental, tmpBuilt);
+
+        for (int i = 0; i < tmpRows; i++) {
+            TestUtils.assertEquals(tmpIncremental.firstInRow(i), tmpBuilt.firstInRow(i));
+            TestUtils.assertEquals(tmpIncremental.limitOfRow(i), tmpBuilt.limitOfRow(i));
+        }
+        for (int j = 0; j < tmpColumns; j++) {
+            TestUtils.assertEquals(tmpIncremental.firstInColumn(j), tmpBuilt.firstInColumn(j));
+            TestUtils.assertEquals(tmpIncremental.limitOfColumn(j), tmpBuilt.limitOfColumn(j));
+        }
+    }
+
     /**
      * Peter Abeles reported a problem with ojAlgo his benchmark's C=A*BT test. The problem turned out be that
      * fillByMultiplying did not reset the destination matrix elements when doung "multiply right".
@@ -0,0 +1,190 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.matrix.store.operation.StrassenWinograd;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Strassen-Winograd compared to the classic algorithm. With n0 the size at which the recursion stops, and u
+ * the unit roundoff, the error is bounded by (Higham, Accuracy and Stability of Numerical Algorithms, Theorem
+ * 23.3):
+ *
+ * <pre>
+ * max|C - fl(C)| &lt;= [(n/n0)^log2(18) (n0^2 + 5 n0) - 5 n] u max|A| max|B|
+ * </pre>
+ *
+ * The actual errors are far smaller than this (pessimistic) bound - elements in [0,1) give errors relative to
+ * max|A| max|B| n below 1E-14. The bound is normwise; elements that are small compared to the norm may have
+ * large relative errors, which is why the algorithm is not used by default.
+ *
+ * @author apete
+ */
+public class StrassenWinogradCase extends AbstractMatrixStoreTest {
+
+    private static final double UNIT_ROUNDOFF = PrimitiveMath.MACHINE_EPSILON / 2.0;
+
+    static double bound(final int dim, final int cutoff) {
+
+        int tmpLeaf = dim;
+        int tmpLevels = 0;
+        while (tmpLeaf > cutoff) {
+            tmpLeaf = (tmpLeaf + 1) / 2;
+            tmpLevels++;
+        }
+        final double tmpPadded = tmpLeaf << tmpLevels;
+
+        final double tmpFactor = Math.pow(tmpPadded / tmpLeaf, Math.log(18.0) / Math.log(2.0));
+
+        return ((tmpFactor * ((tmpLeaf * tmpLeaf) + (5.0 * tmpLeaf))) - (5.0 * tmpPadded)) * UNIT_ROUNDOFF;
+    }
+
+    public StrassenWinogradCase() {
+        super();
+    }
+
+    public StrassenWinogradCase(final String arg0) {
+        super(arg0);
+    }
+
+    /**
+     * Different sizes (even, odd and padded) and recursion depths
+     */
+    public void testAgainstClassic() {
+
+        final int[] tmpCutoffs = new int[] { 16, 50 };
+        final int[] tmpDims = new int[] { 1, 2, 33, 64, 100, 257 };
+
+        final int tmpCutoff = StrassenWinograd.CUTOFF;
+
+        try {
+
+            for (final int tmpDim : tmpDims) {
+
+                final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+                final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+
+                final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+                GEMM.invoke(tmpExpected.data, tmpLeft.data, tmpDim, tmpRight.data);
+
+                final double tmpNorms = tmpLeft.aggregateAll(Aggregator.LARGEST) * tmpRight.aggregateAll(Aggregator.LARGEST);
+
+                for (final int tmpCutoffValue : tmpCutoffs) {
+
+                    StrassenWinograd.CUTOFF = tmpCutoffValue;
+
+                    final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+                    StrassenWinograd.invoke(tmpActual.data, tmpLeft.data, tmpDim, tmpRight.data);
+
+                    final double tmpError = tmpActual.subtract(tmpExpected).aggregateAll(Aggregator.LARGEST);
+
+                    final String tmpMessage = tmpDim + "/" + tmpCutoffValue;
+                    // Both the Strassen-Winograd and the classic result may have errors
+                    TestUtils.assertTrue(tmpMessage, tmpError <= ((StrassenWinogradCase.bound(tmpDim, tmpCutoffValue) + (2.0 * tmpDim * UNIT_ROUNDOFF)) * tmpNorms));
+                    TestUtils.assertTrue(tmpMessage, tmpError <= (1E-14 * tmpDim * tmpNorms));
+                }
+            }
+
+        } finally {
+            StrassenWinograd.CUTOFF = tmpCutoff;
+        }
+    }
+
+    /**
+     * Rows (of the left matrix) with very different scale. The small elements of the product lose relative
+     * accuracy, but the error is still within the normwise bound.
+     */
+    public void testBadlyScaled() {
+
+        final int tmpDim = 128;
+        final int tmpCutoffValue = 8;
+
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+        for (int i = 0; i < tmpDim; i += 2) {
+            for (int j = 0; j < tmpDim; j++) {
+                tmpLeft.set(i, j, tmpLeft.doubleValue(i, j) * 1E-10);
+            }
+        }
+
+        final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+        GEMM.invoke(tmpExpected.data, tmpLeft.data, tmpDim, tmpRight.data);
+
+        final int tmpCutoff = StrassenWinograd.CUTOFF;
+
+        try {
+
+            StrassenWinograd.CUTOFF = tmpCutoffValue;
+
+            final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+            StrassenWinograd.invoke(tmpActual.data, tmpLeft.data, tmpDim, tmpRight.data);
+
+            final double tmpNorms = tmpLeft.aggregateAll(Aggregator.LARGEST) * tmpRight.aggregateAll(Aggregator.LARGEST);
+            final double tmpError = tmpActual.subtract(tmpExpected).aggregateAll(Aggregator.LARGEST);
+
+            TestUtils.assertTrue(tmpError <= ((StrassenWinogradCase.bound(tmpDim, tmpCutoffValue) + (2.0 * tmpDim * UNIT_ROUNDOFF)) * tmpNorms));
+
+        } finally {
+            StrassenWinograd.CUTOFF = tmpCutoff;
+        }
+    }
+
+    /**
+     * With the threshold set, square products use Strassen-Winograd, and other products still work as before.
+     */
+    public void testThreshold() {
+
+        final int tmpThreshold = StrassenWinograd.THRESHOLD;
+        final int tmpCutoff = StrassenWinograd.CUTOFF;
+
+        try {
+
+            StrassenWinograd.THRESHOLD = 50;
+            StrassenWinograd.CUTOFF = 16;
+
+            final int[][] tmpDimensions = new int[][] { { 60, 60, 60 }, { 60, 40, 60 }, { 80, 80, 60 } };
+
+            for (final int[] tmpDims : tmpDimensions) {
+
+                final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Uniform());
+                final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[1], tmpDims[2], new Uniform());
+
+                final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpDims[0], tmpDims[2]);
+                GEMM.invoke(tmpExpected.data, tmpLeft.data, tmpDims[1], tmpRight.data);
+
+                final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeZero(tmpDims[0], tmpDims[2]);
+                tmpActual.fillByMultiplying(tmpLeft, tmpRight);
+
+                TestUtils.assertEquals(tmpExpected, tmpActual);
+            }
+
+        } finally {
+            StrassenWinograd.THRESHOLD = tmpThreshold;
+            StrassenWinograd.CUTOFF = tmpCutoff;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.List;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.optimisation.linear.DualSimplexSolver;
+
+/**
+ * Cutting planes must separate the LP relaxation's solution without cutting off any integer solution, and
+ * with or without cuts the integer solver should find the same optimal value.
+ *
+ * @author apete
+ */
+public class CutCase extends OptimisationIntegerTests {
+
+    static void assertValidCuts(final ExpressionsBasedModel model, final boolean minimisation) {
+
+        model.options.cut_rounds = 0;
+        final Optimisation.Result tmpOptimum = minimisation ? model.minimise() : model.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpOptimum);
+
+        final double[] tmpInteger = new double[model.countVariables()];
+        for (int j = 0; j < tmpInteger.length; j++) {
+            tmpInteger[j] = tmpOptimum.doubleValue(j);
+        }
+
+        final List<Variable> tmpIntegerVariables = model.getIntegerVariables();
+        final int[] tmpIntegerIndices = new int[tmpIntegerVariables.size()];
+        for (int i = 0; i < tmpIntegerIndices.length; i++) {
+            tmpIntegerIndices[i] = model.indexOf(tmpIntegerVariables.get(i));
+        }
+
+        final DualSimplexSolver tmpRelaxation = new DualSimplexSolver(model);
+        TestUtils.assertStateNotLessThanOptimal(tmpRelaxation.solve((int[]) null));
+        final double[] tmpRelaxed = tmpRelaxation.getColumnValues();
+
+        final List<Cut> tmpCuts = new CutGenerator(model, tmpIntegerIndices).generate(tmpRelaxation);
+        TestUtils.assertFalse(tmpCuts.isEmpty());
+
+        for (final Cut tmpCut : tmpCuts) {
+            TestUtils.assertTrue(tmpCut.toString(), tmpCut.efficacy(tmpRelaxed) > 0.0);
+            TestUtils.assertTrue(tmpCut.toString(), tmpCut.efficacy(tmpInteger) <= 1E-9);
+        }
+    }
+
+    static void assertSameOptimum(final ExpressionsBasedModel withCuts, final ExpressionsBasedModel withoutCuts, final boolean minimisation) {
+
+        withoutCuts.options.cut_rounds = 0;
+        final Optimisation.Result tmpExpected = minimisation ? withoutCuts.minimise() : withoutCuts.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpExpected);
+
+        final Optimisation.Result tmpActual = minimisation ? withCuts.minimise() : withCuts.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpActual);
+        TestUtils.assertTrue(withCuts.validate(tmpActual));
+
+        TestUtils.assertEquals(tmpExpected.getValue(), tmpActual.getValue(), 1E-6 * Math.max(1.0, Math.abs(tmpExpected.getValue())));
+    }
+
+    public CutCase() {
+        super();
+    }
+
+    public CutCase(final String name) {
+        super(name);
+    }
+
+    public void testKnapsack() {
+        CutCase.assertValidCuts(ParallelSearchCase.makeKnapsack(), false);
+        CutCase.assertSameOptimum(ParallelSearchCase.makeKnapsack(), ParallelSearchCase.makeKnapsack(), false);
+    }
+
+    public void testMixedInteger() {
+        CutCase.assertValidCuts(P20130225.makeModel(), true);
+        CutCase.assertSameOptimum(P20130225.makeModel(), P20130225.makeModel(), true);
+    }
+
+    public void testP20150127() {
+        CutCase.assertSameOptimum(P20150127a.getModel(), P20150127a.getModel(), true);
+    }
+
+}
@@ -29,11 +29,13 @@ public abstract class OptimisationIntegerTests extends FunctionalityTest {
     public static Test suite() {
         final TestSuite suite = new TestSuite(OptimisationIntegerTests.class.getPackage().getName());
         //$JUnit-BEGIN$
+        suite.addTestSuite(CutCase.class);
         suite.addTestSuite(DesignCase.class);
         suite.addTestSuite(KnapsackTest.class);
         //suite.addTestSuite(LpsolveSemiContCase.class);
         suite.addTestSuite(MarketShareCase.class);
         //suite.addTestSuite(MipCase.class);
+        suite.addTestSuite(ParallelSearchCase.class);
         suite.addTestSuite(RelaxedLpCase.class);
         suite.addTestSuite(IntegerProblems.class);
         suite.addTestSuite(SpecificBranchCase.class);
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.ExecutionContext;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.integer.KnapsackTest.KnapsackProblemBuilder;
+
+/**
+ * The parallel branch&bound search should find the same optimal value regardless of the number of threads,
+ * and in deterministic mode also the same solution - even when stopped before it's done.
+ *
+ * @author apete
+ */
+public class ParallelSearchCase extends OptimisationIntegerTests {
+
+    private static final int[] THREADS = new int[] { 1, 2, 4 };
+
+    static ExpressionsBasedModel makeKnapsack() {
+
+        final KnapsackProblemBuilder retVal = new KnapsackProblemBuilder(100d);
+
+        for (int i = 0; i < 24; i++) {
+            retVal.addItem(10 + ((i * 7) % 23), 5 + ((i * 11) % 17));
+        }
+
+        return retVal.build();
+    }
+
+    static Optimisation.Result solve(final ExpressionsBasedModel model, final int threads) {
+        return ExecutionContext.ofThreads(threads).call(() -> model.maximise());
+    }
+
+    public ParallelSearchCase() {
+        super();
+    }
+
+    public ParallelSearchCase(final String name) {
+        super(name);
+    }
+
+    public void testDeterministic() {
+
+        Optimisation.Result tmpExpected = null;
+
+        for (final int tmpThreads : THREADS) {
+
+            final ExpressionsBasedModel tmpModel = MarketShareCase.makeModel();
+            tmpModel.options.deterministic = true;
+            tmpModel.options.iterations_abort = 500;
+
+            final Optimisation.Result tmpActual = ExecutionContext.ofThreads(tmpThreads).call(() -> tmpModel.minimise());
+
+            if (tmpExpected == null) {
+                tmpExpected = tmpActual;
+            } else {
+                TestUtils.assertEquals(tmpExpected.getState(), tmpActual.getState());
+                TestUtils.assertEquals(tmpExpected.getValue(), tmpActual.getValue(), 0.0);
+                for (int i = 0; i < tmpExpected.count(); i++) {
+                    TestUtils.assertEquals(tmpExpected.doubleValue(i), tmpActual.doubleValue(i), 0.0);
+                }
+            }
+        }
+    }
+
+    public void testSameOptimum() {
+
+        final Optimisation.Result tmpExpected = ParallelSearchCase.solve(ParallelSearchCase.makeKnapsack(), 1);
+        TestUtils.assertStateNotLessThanOptimal(tmpExpected);
+
+        for (final int tmpThreads : THREADS) {
+
+            final ExpressionsBasedModel tmpParallel = ParallelSearchCase.makeKnapsack();
+            final Optimisation.Result tmpActual = ParallelSearchCase.solve(tmpParallel, tmpThreads);
+            TestUtils.assertStateNotLessThanOptimal(tmpActual);
+            TestUtils.assertEquals(tmpExpected.getValue(), tmpActual.getValue(), 1E-9);
+
+            final ExpressionsBasedModel tmpDeterministic = ParallelSearchCase.makeKnapsack();
+            tmpDeterministic.options.deterministic = true;
+            final Optimisation.Result tmpReproducible = ParallelSearchCase.solve(tmpDeterministic, tmpThreads);
+            TestUtils.assertStateNotLessThanOptimal(tmpReproducible);
+            TestUtils.assertEquals(tmpExpected.getValue(), tmpReproducible.getValue(), 1E-9);
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.State;
+import org.ojalgo.optimisation.Variable;
+
+/**
+ * Re-optimises, with {@linkplain DualSimplexSolver}, after changing variable bounds the way branch&amp;bound
+ * does, and compares with solving the modified model from scratch.
+ *
+ * @author apete
+ */
+public class DualSimplexCase extends OptimisationLinearTests {
+
+    /**
+     * max [c]<sup>T</sup>[x] with 0 &lt;= [x] &lt;= 10 and a mix of &lt;=, &gt;= and == constraints
+     */
+    static ExpressionsBasedModel makeModel(final int rows, final int columns, final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final Variable[] tmpVariables = new Variable[columns];
+        for (int j = 0; j < columns; j++) {
+            tmpVariables[j] = Variable.make("X" + j).lower(ZERO).upper(TEN).weight(ONE + tmpRandom.nextInt(9));
+        }
+
+        final ExpressionsBasedModel retVal = new ExpressionsBasedModel(tmpVariables);
+
+        for (int i = 0; i < rows; i++) {
+
+            final Expression tmpExpression = retVal.addExpression("C" + i);
+            for (int j = 0; j < columns; j++) {
+                if (tmpRandom.nextInt(3) == 0) {
+                    tmpExpression.set(j, ONE + tmpRandom.nextInt(9));
+                }
+            }
+            tmpExpression.set(tmpRandom.nextInt(columns), ONE);
+
+            if (i == 0) {
+                tmpExpression.level(columns);
+            } else if ((i % 5) == 0) {
+                tmpExpression.lower(ONE);
+            } else {
+                tmpExpression.upper(HUNDRED + tmpRandom.nextInt(100));
+            }
+        }
+
+        return retVal;
+    }
+
+    public DualSimplexCase() {
+        super();
+    }
+
+    public DualSimplexCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testBranching() {
+
+        for (int p = 0; p < 10; p++) {
+
+            final ExpressionsBasedModel tmpModel = DualSimplexCase.makeModel(20, 30, p);
+            tmpModel.setMaximisation();
+
+            final DualSimplexSolver tmpRoot = new DualSimplexSolver(tmpModel);
+            final Optimisation.Result tmpRootResult = tmpRoot.solve((int[]) null);
+            TestUtils.assertEquals(State.OPTIMAL, tmpRootResult.getState());
+            TestUtils.assertEquals(tmpModel.copy().maximise().getValue(), tmpRootResult.getValue(), 1E-8);
+
+            final int[] tmpBasis = tmpRoot.getBasis();
+
+            int tmpWarmIterations = 0;
+            int tmpColdIterations = 0;
+
+            for (int j = 0; j < 30; j++) {
+
+                final double tmpValue = tmpRootResult.doubleValue(j);
+                final boolean tmpDown = (j % 2) == 0;
+                final double tmpLower = tmpDown ? ZERO : Math.min(TEN, Math.floor(tmpValue) + ONE);
+                final double tmpUpper = tmpDown ? Math.max(ZERO, Math.ceil(tmpValue) - ONE) : TEN;
+
+                final DualSimplexSolver tmpWarm = tmpRoot.copy();
+                tmpWarm.setBounds(j, tmpLower, tmpUpper);
+                final Optimisation.Result tmpWarmResult = tmpWarm.solve(tmpBasis);
+                tmpWarmIterations += tmpWarm.countIterations();
+
+                final DualSimplexSolver tmpCold = tmpRoot.copy();
+                tmpCold.setBounds(j, tmpLower, tmpUpper);
+                final Optimisation.Result tmpColdResult = tmpCold.solve((int[]) null);
+                tmpColdIterations += tmpCold.countIterations();
+
+                final ExpressionsBasedModel tmpBranch = tmpModel.copy();
+                tmpBranch.getVariable(j).lower(new BigDecimal(tmpLower)).upper(new BigDecimal(tmpUpper));
+                final Optimisation.Result tmpExpected = tmpBranch.maximise();
+
+                TestUtils.assertEquals(tmpExpected.getState().isFeasible(), tmpWarmResult.getState().isFeasible());
+                TestUtils.assertEquals(tmpExpected.getState().isFeasible(), tmpColdResult.getState().isFeasible());
+                if (tmpExpected.getState().isFeasible()) {
+                    TestUtils.assertEquals(State.OPTIMAL, tmpWarmResult.getState());
+                    TestUtils.assertEquals(tmpExpected.getValue(), tmpWarmResult.getValue(), 1E-8);
+                    TestUtils.assertEquals(tmpExpected.getValue(), tmpColdResult.getValue(), 1E-8);
+                    TestUtils.assertTrue(tmpModel.relax(false).validate(tmpWarmResult));
+                }
+            }
+
+            TestUtils.assertTrue(tmpWarmIterations < tmpColdIterations);
+        }
+    }
+
+    public void testObjectiveLimit() {
+
+        final ExpressionsBasedModel tmpModel = DualSimplexCase.makeModel(10, 15, 7L);
+        tmpModel.setMaximisation();
+
+        final DualSimplexSolver tmpRoot = new DualSimplexSolver(tmpModel);
+        final Optimisation.Result tmpRootResult = tmpRoot.solve((int[]) null);
+        final double tmpOptimal = tmpRootResult.getValue();
+
+        final DualSimplexSolver tmpWorse = tmpRoot.copy();
+        tmpWorse.limitObjective(tmpOptimal - ONE, POSITIVE_INFINITY);
+        TestUtils.assertEquals(State.OPTIMAL, tmpWorse.solve(tmpRoot.getBasis()).getState());
+
+        // Nothing better than the optimum is possible
+        final DualSimplexSolver tmpBetter = tmpRoot.copy();
+        tmpBetter.limitObjective(tmpOptimal + ONE, POSITIVE_INFINITY);
+        TestUtils.assertEquals(State.INFEASIBLE, tmpBetter.solve(tmpRoot.getBasis()).getState());
+
+        tmpBetter.limitObjective(NEGATIVE_INFINITY, POSITIVE_INFINITY);
+        tmpBetter.resetBounds();
+        TestUtils.assertEquals(tmpOptimal, tmpBetter.solve(tmpRoot.getBasis()).getValue(), 1E-8);
+    }
+
+}
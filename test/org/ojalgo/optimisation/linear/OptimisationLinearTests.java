@@ -35,6 +35,8 @@ public abstract class OptimisationLinearTests extends FunctionalityTest {
         suite.addTestSuite(LinearDesignTestCases.class);
         suite.addTestSuite(NetlibCase.class);
         suite.addTestSuite(LinearProblems.class);
+        suite.addTestSuite(RevisedSimplexCase.class);
+        suite.addTestSuite(DualSimplexCase.class);
         //$JUnit-END$
         return suite;
     }
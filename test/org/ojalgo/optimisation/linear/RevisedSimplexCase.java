@@ -0,0 +1,290 @@
+/*
+ * Copyright 1997-2016 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.CompressedColumnStore;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.State;
+
+/**
+ * Compares {@linkplain RevisedSimplexSolver} with {@linkplain SimplexTableauSolver}, and verifies the
+ * optimality conditions on larger sparse problems.
+ *
+ * @author apete
+ */
+public class RevisedSimplexCase extends OptimisationLinearTests {
+
+    /**
+     * max [c]<sup>T</sup>[x] when [A][x] &lt;= [b] with [A] and [c] nonnegative - bounded and feasible. In
+     * standard form with one slack variable per row.
+     */
+    static LinearSolver.Builder makeSparseProblem(final int rows, final int columns, final int nonzerosPerColumn, final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final CompressedStore.Builder tmpAE = CompressedStore.builder(rows, columns + rows, (columns * nonzerosPerColumn) + rows);
+        final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(rows, 1);
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(columns + rows, 1);
+
+        for (int j = 0; j < columns; j++) {
+            for (int k = 0; k < nonzerosPerColumn; k++) {
+                tmpAE.add(tmpRandom.nextInt(rows), j, ONE + tmpRandom.nextDouble());
+            }
+            tmpC.set(j, -tmpRandom.nextDouble());
+        }
+        for (int i = 0; i < rows; i++) {
+            tmpAE.add(i, columns + i, ONE);
+            tmpBE.set(i, ONE + tmpRandom.nextInt(10));
+        }
+
+        return LinearSolver.getBuilder(tmpC).equalities(tmpAE.toColumnStore(), tmpBE);
+    }
+
+    public RevisedSimplexCase() {
+        super();
+    }
+
+    public RevisedSimplexCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testAgreesWithTableau() {
+
+        final Random tmpRandom = new Random(123L);
+
+        for (int p = 0; p < 20; p++) {
+
+            final int tmpRows = 10 + tmpRandom.nextInt(20);
+            final int tmpColumns = tmpRows + tmpRandom.nextInt(40);
+
+            final PrimitiveDenseStore tmpAE = PrimitiveDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+            final PrimitiveDenseStore tmpX = PrimitiveDenseStore.FACTORY.makeZero(tmpColumns, 1);
+            final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(tmpColumns, 1);
+
+            for (int j = 0; j < tmpColumns; j++) {
+                for (int i = 0; i < tmpRows; i++) {
+                    if (tmpRandom.nextInt(3) == 0) {
+                        tmpAE.set(i, j, (tmpRandom.nextDouble() * TWO) - ONE);
+                    }
+                }
+                if (tmpRandom.nextBoolean()) {
+                    tmpX.set(j, tmpRandom.nextDouble());
+                }
+                tmpC.set(j, tmpRandom.nextDouble() - (p % 2 == 0 ? HALF : 0.1));
+            }
+
+            final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(tmpRows, 1);
+            tmpAE.multiply(tmpX).supplyTo(tmpBE);
+            for (int i = 0; i < tmpRows; i++) {
+                if (tmpBE.doubleValue(i) < ZERO) {
+                    tmpBE.set(i, -tmpBE.doubleValue(i));
+                    tmpAE.modifyRow(i, 0, PrimitiveFunction.NEGATE);
+                }
+            }
+
+            final LinearSolver.Builder tmpBuilder = LinearSolver.getBuilder(tmpC).equalities(tmpAE, tmpBE);
+
+            final Optimisation.Result tmpExpected = new SimplexTableauSolver(tmpBuilder, new Optimisation.Options()).solve();
+            final Optimisation.Result tmpActual = tmpBuilder.build().solve();
+
+            TestUtils.assertEquals(tmpExpected.getState(), tmpActual.getState());
+
+            if (tmpExpected.getState().isOptimal()) {
+                TestUtils.assertEquals(this.evaluate(tmpC, tmpExpected), this.evaluate(tmpC, tmpActual), 1E-8);
+                this.assertFeasible(tmpAE, tmpBE, tmpActual);
+            }
+        }
+    }
+
+    public void testFrequentRefactorisation() {
+
+        final int tmpDefault = BasisFactorisation.REFACTORISATION_FREQUENCY;
+
+        final LinearSolver.Builder tmpBuilder = RevisedSimplexCase.makeSparseProblem(200, 300, 3, 456L);
+
+        final Optimisation.Result tmpExpected = tmpBuilder.build().solve();
+
+        try {
+            BasisFactorisation.REFACTORISATION_FREQUENCY = 3;
+            final Optimisation.Result tmpActual = tmpBuilder.build().solve();
+            TestUtils.assertEquals(State.OPTIMAL, tmpActual.getState());
+            TestUtils.assertEquals(this.evaluate(tmpBuilder.getC(), tmpExpected), this.evaluate(tmpBuilder.getC(), tmpActual), 1E-8);
+        } finally {
+            BasisFactorisation.REFACTORISATION_FREQUENCY = tmpDefault;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testLargeSparse() {
+
+        final int tmpRows = 10000;
+        final int tmpColumns = 20000;
+
+        final LinearSolver.Builder tmpBuilder = RevisedSimplexCase.makeSparseProblem(tmpRows, tmpColumns, 2, 789L);
+        final LinearSolver tmpSolver = tmpBuilder.build();
+        final Optimisation.Result tmpResult = tmpSolver.solve();
+
+        TestUtils.assertEquals(State.OPTIMAL, tmpResult.getState());
+
+        final MatrixStore<Double> tmpAE = tmpBuilder.getAE();
+        final MatrixStore<Double> tmpBE = tmpBuilder.getBE();
+        final MatrixStore<Double> tmpC = tmpBuilder.getC();
+
+        this.assertFeasible(tmpAE, tmpBE, tmpResult);
+
+        // Dual feasibility and no duality gap
+        final double[] tmpResidualCosts = tmpSolver.getResidualCosts();
+        for (int j = 0; j < tmpResidualCosts.length; j++) {
+            TestUtils.assertTrue(tmpResidualCosts[j] > -1E-8);
+        }
+        final double[] tmpDuals = tmpSolver.getDualVariables();
+        double tmpDualValue = ZERO;
+        for (int i = 0; i < tmpRows; i++) {
+            tmpDualValue += tmpDuals[i] * tmpBE.doubleValue(i);
+        }
+        TestUtils.assertEquals(this.evaluate(tmpC, tmpResult), tmpDualValue, 1E-6);
+    }
+
+    public void testBasisFactorisation() {
+
+        final Random tmpRandom = new Random(321L);
+        final int tmpDim = 50;
+
+        final SparseStore<Double> tmpMatrix = SparseStore.makePrimitive(tmpDim, tmpDim + 1);
+        for (int j = 0; j <= tmpDim; j++) {
+            tmpMatrix.set(j % tmpDim, j, TWO + tmpRandom.nextDouble());
+            for (int k = 0; k < 3; k++) {
+                tmpMatrix.set(tmpRandom.nextInt(tmpDim), j, tmpRandom.nextDouble() - HALF);
+            }
+        }
+
+        final CompressedColumnStore tmpCompressed = CompressedStore.builder(tmpMatrix).toColumnStore();
+        final int[] tmpPointers = new int[tmpDim + 2];
+        final int[] tmpIndices = new int[tmpCompressed.countNonzeros()];
+        final double[] tmpValues = new double[tmpCompressed.countNonzeros()];
+        tmpCompressed.copyStructure(tmpPointers, tmpIndices, tmpValues);
+
+        final int[] tmpBasis = new int[tmpDim];
+        for (int j = 0; j < tmpDim; j++) {
+            tmpBasis[j] = tmpDim - 1 - j;
+        }
+
+        final BasisFactorisation tmpLU = new BasisFactorisation(tmpDim);
+        TestUtils.assertTrue(tmpLU.factorise(tmpBasis, tmpPointers, tmpIndices, tmpValues));
+        this.assertSolves(tmpMatrix, tmpBasis, tmpLU, tmpRandom);
+
+        // Replace the column at position 7 with the extra column
+        final double[] tmpEntering = new double[tmpDim];
+        for (int i = 0; i < tmpDim; i++) {
+            tmpEntering[i] = tmpMatrix.doubleValue(i, tmpDim);
+        }
+        tmpLU.ftran(tmpEntering);
+        tmpLU.update(7, tmpEntering);
+        tmpBasis[7] = tmpDim;
+        this.assertSolves(tmpMatrix, tmpBasis, tmpLU, tmpRandom);
+
+        // A singular basis - the same column twice
+        tmpBasis[3] = tmpBasis[4];
+        TestUtils.assertFalse(tmpLU.factorise(tmpBasis, tmpPointers, tmpIndices, tmpValues));
+        TestUtils.assertEquals(1, tmpLU.countRejected());
+        TestUtils.assertEquals(1, tmpLU.getUnpivotedRows().length);
+    }
+
+    private void assertFeasible(final MatrixStore<Double> body, final MatrixStore<Double> rhs, final Optimisation.Result result) {
+
+        final int tmpRows = (int) body.countRows();
+        final int tmpColumns = (int) body.countColumns();
+
+        final CompressedColumnStore tmpBody = CompressedStore.builder(body).toColumnStore();
+        final int[] tmpPointers = new int[tmpColumns + 1];
+        final int[] tmpIndices = new int[tmpBody.countNonzeros()];
+        final double[] tmpValues = new double[tmpBody.countNonzeros()];
+        tmpBody.copyStructure(tmpPointers, tmpIndices, tmpValues);
+
+        final double[] tmpSlack = new double[tmpRows];
+        for (int i = 0; i < tmpRows; i++) {
+            tmpSlack[i] = rhs.doubleValue(i);
+        }
+        for (int j = 0; j < tmpColumns; j++) {
+            final double tmpX = result.doubleValue(j);
+            TestUtils.assertTrue(tmpX > -1E-9);
+            for (int p = tmpPointers[j]; p < tmpPointers[j + 1]; p++) {
+                tmpSlack[tmpIndices[p]] -= tmpValues[p] * tmpX;
+            }
+        }
+        for (int i = 0; i < tmpRows; i++) {
+            TestUtils.assertEquals(ZERO, tmpSlack[i], 1E-8);
+        }
+    }
+
+    private void assertSolves(final SparseStore<Double> matrix, final int[] basis, final BasisFactorisation decomposition, final Random random) {
+
+        final int tmpDim = basis.length;
+
+        final double[] tmpSolution = new double[tmpDim];
+        final double[] tmpRHS = new double[tmpDim];
+        for (int j = 0; j < tmpDim; j++) {
+            tmpSolution[j] = random.nextDouble();
+        }
+        for (int i = 0; i < tmpDim; i++) {
+            for (int j = 0; j < tmpDim; j++) {
+                tmpRHS[i] += matrix.doubleValue(i, basis[j]) * tmpSolution[j];
+            }
+        }
+
+        final double[] tmpForward = tmpRHS.clone();
+        decomposition.ftran(tmpForward);
+        for (int j = 0; j < tmpDim; j++) {
+            TestUtils.assertEquals(tmpSolution[j], tmpForward[j], 1E-10);
+        }
+
+        final double[] tmpTransposedRHS = new double[tmpDim];
+        for (int j = 0; j < tmpDim; j++) {
+            for (int i = 0; i < tmpDim; i++) {
+                tmpTransposedRHS[j] += matrix.doubleValue(i, basis[j]) * tmpSolution[i];
+            }
+        }
+        decomposition.btran(tmpTransposedRHS);
+        for (int i = 0; i < tmpDim; i++) {
+            TestUtils.assertEquals(tmpSolution[i], tmpTransposedRHS[i], 1E-10);
+        }
+    }
+
+    private double evaluate(final MatrixStore<Double> cost, final Optimisation.Result result) {
+        double retVal = ZERO;
+        for (int j = 0; j < cost.countRows(); j++) {
+            retVal += cost.doubleValue(j) * result.doubleValue(j);
+        }
+        return retVal;
+    }
+
+}
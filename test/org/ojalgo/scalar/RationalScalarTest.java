@@ -62,6 +62,26 @@ public class RationalScalarTest extends ScalarTests {
         }
     }
 
+    public void testCompactAndPromoted() {
+
+        final RationalNumber tmpLarge = RationalNumber.of(Long.MAX_VALUE, 3L);
+        TestUtils.assertTrue(tmpLarge.isCompact());
+
+        final RationalNumber tmpPromoted = tmpLarge.multiply(RationalNumber.of(5L, 11L));
+        TestUtils.assertFalse(tmpPromoted.isCompact());
+        TestUtils.assertEquals(tmpLarge.doubleValue() * (5.0 / 11.0), tmpPromoted.doubleValue(), myDiff * Math.abs(tmpPromoted.doubleValue()));
+
+        final RationalNumber tmpDemoted = tmpPromoted.divide(RationalNumber.of(5L, 11L));
+        TestUtils.assertTrue(tmpDemoted.isCompact());
+        TestUtils.assertEquals(tmpLarge, tmpDemoted);
+        TestUtils.assertEquals(tmpLarge.hashCode(), tmpDemoted.hashCode());
+
+        TestUtils.assertEquals(RationalNumber.of(1L, 3L), RationalNumber.of(-2L, -6L));
+        TestUtils.assertEquals(RationalNumber.ZERO, RationalNumber.of(1L, 3L).subtract(RationalNumber.of(2L, 6L)));
+        TestUtils.assertEquals(-1, RationalNumber.of(1L, 3L).compareTo(RationalNumber.of(1L, 2L)));
+        TestUtils.assertEquals(RationalNumber.NEG, RationalNumber.of(Long.MIN_VALUE, Long.MIN_VALUE).negate());
+    }
+
     public void testDivide() {
 
         final RationalNumber tmpVal1 = RationalNumber.valueOf(1.25);